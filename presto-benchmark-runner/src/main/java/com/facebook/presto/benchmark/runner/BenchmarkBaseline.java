@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark.runner;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.JsonCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+
+public class BenchmarkBaseline
+{
+    private static final JsonCodec<BenchmarkBaseline> CODEC = jsonCodec(BenchmarkBaseline.class);
+
+    // allocation changes below this size are noise, e.g. for benchmarks which do not allocate at all
+    private static final double MIN_ALLOCATION_REGRESSION_BYTES = 64;
+
+    private final List<BenchmarkResult> results;
+
+    @JsonCreator
+    public BenchmarkBaseline(@JsonProperty("results") List<BenchmarkResult> results)
+    {
+        this.results = ImmutableList.copyOf(requireNonNull(results, "results is null"));
+    }
+
+    @JsonProperty
+    public List<BenchmarkResult> getResults()
+    {
+        return results;
+    }
+
+    public static BenchmarkBaseline read(Path path)
+            throws IOException
+    {
+        return CODEC.fromJson(Files.readAllBytes(path));
+    }
+
+    public void write(Path path)
+            throws IOException
+    {
+        Files.write(path, CODEC.toJsonBytes(this));
+    }
+
+    /**
+     * Returns a description of every result whose score or allocation rate regressed beyond the given relative
+     * thresholds compared to the result of the same benchmark in this baseline. Results without a baseline are ignored.
+     */
+    public List<String> findRegressions(List<BenchmarkResult> currentResults, double scoreThreshold, double allocationThreshold)
+    {
+        checkArgument(scoreThreshold >= 0, "scoreThreshold is negative");
+        checkArgument(allocationThreshold >= 0, "allocationThreshold is negative");
+
+        Map<String, BenchmarkResult> baselineResults = results.stream()
+                .collect(toImmutableMap(BenchmarkResult::getKey, identity()));
+
+        ImmutableList.Builder<String> regressions = ImmutableList.builder();
+        for (BenchmarkResult current : currentResults) {
+            BenchmarkResult baseline = baselineResults.get(current.getKey());
+            if (baseline == null || !baseline.getScoreUnit().equals(current.getScoreUnit())) {
+                // new benchmark, or the unit of the benchmark changed since the baseline was recorded
+                continue;
+            }
+
+            boolean scoreRegressed;
+            if (current.isHigherScoreBetter()) {
+                scoreRegressed = current.getScore() < baseline.getScore() * (1 - scoreThreshold);
+            }
+            else {
+                scoreRegressed = current.getScore() > baseline.getScore() * (1 + scoreThreshold);
+            }
+            if (scoreRegressed) {
+                regressions.add(format("%s %s: score %.3f %s, baseline %.3f %s",
+                        current.getBenchmark(),
+                        current.getParameters(),
+                        current.getScore(),
+                        current.getScoreUnit(),
+                        baseline.getScore(),
+                        baseline.getScoreUnit()));
+            }
+
+            Optional<Double> currentAllocation = current.getAllocatedBytesPerOperation();
+            Optional<Double> baselineAllocation = baseline.getAllocatedBytesPerOperation();
+            if (currentAllocation.isPresent() && baselineAllocation.isPresent()) {
+                double allocationIncrease = currentAllocation.get() - baselineAllocation.get();
+                if (allocationIncrease > MIN_ALLOCATION_REGRESSION_BYTES && allocationIncrease > baselineAllocation.get() * allocationThreshold) {
+                    regressions.add(format("%s %s: allocated %.1f bytes/op, baseline %.1f bytes/op",
+                            current.getBenchmark(),
+                            current.getParameters(),
+                            currentAllocation.get(),
+                            baselineAllocation.get()));
+                }
+            }
+        }
+        return regressions.build();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark.runner;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class BenchmarkResult
+{
+    private final String benchmark;
+    private final Map<String, String> parameters;
+    private final String mode;
+    private final double score;
+    private final String scoreUnit;
+    private final Optional<Double> allocatedBytesPerOperation;
+
+    @JsonCreator
+    public BenchmarkResult(
+            @JsonProperty("benchmark") String benchmark,
+            @JsonProperty("parameters") Map<String, String> parameters,
+            @JsonProperty("mode") String mode,
+            @JsonProperty("score") double score,
+            @JsonProperty("scoreUnit") String scoreUnit,
+            @JsonProperty("allocatedBytesPerOperation") Optional<Double> allocatedBytesPerOperation)
+    {
+        this.benchmark = requireNonNull(benchmark, "benchmark is null");
+        this.parameters = ImmutableSortedMap.copyOf(requireNonNull(parameters, "parameters is null"));
+        this.mode = requireNonNull(mode, "mode is null");
+        this.score = score;
+        this.scoreUnit = requireNonNull(scoreUnit, "scoreUnit is null");
+        this.allocatedBytesPerOperation = requireNonNull(allocatedBytesPerOperation, "allocatedBytesPerOperation is null");
+    }
+
+    @JsonProperty
+    public String getBenchmark()
+    {
+        return benchmark;
+    }
+
+    @JsonProperty
+    public Map<String, String> getParameters()
+    {
+        return parameters;
+    }
+
+    /**
+     * JMH mode label, e.g. "thrpt" or "avgt".
+     */
+    @JsonProperty
+    public String getMode()
+    {
+        return mode;
+    }
+
+    @JsonProperty
+    public double getScore()
+    {
+        return score;
+    }
+
+    @JsonProperty
+    public String getScoreUnit()
+    {
+        return scoreUnit;
+    }
+
+    @JsonProperty
+    public Optional<Double> getAllocatedBytesPerOperation()
+    {
+        return allocatedBytesPerOperation;
+    }
+
+    /**
+     * Returns true if a higher score is better, which is the case only for the throughput mode.
+     */
+    @JsonIgnore
+    public boolean isHigherScoreBetter()
+    {
+        return mode.equals("thrpt");
+    }
+
+    /**
+     * Identifies the results of the same benchmark run with the same parameters.
+     */
+    @JsonIgnore
+    public String getKey()
+    {
+        return benchmark + parameters + ":" + mode;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BenchmarkResult that = (BenchmarkResult) o;
+        return Double.compare(that.score, score) == 0 &&
+                Objects.equals(benchmark, that.benchmark) &&
+                Objects.equals(parameters, that.parameters) &&
+                Objects.equals(mode, that.mode) &&
+                Objects.equals(scoreUnit, that.scoreUnit) &&
+                Objects.equals(allocatedBytesPerOperation, that.allocatedBytesPerOperation);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(benchmark, parameters, mode, score, scoreUnit, allocatedBytesPerOperation);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("benchmark", benchmark)
+                .add("parameters", parameters)
+                .add("mode", mode)
+                .add("score", score)
+                .add("scoreUnit", scoreUnit)
+                .add("allocatedBytesPerOperation", allocatedBytesPerOperation.orElse(null))
+                .toString();
+    }
+}
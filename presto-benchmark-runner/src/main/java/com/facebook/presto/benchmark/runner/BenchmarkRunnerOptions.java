@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark.runner;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import io.airlift.airline.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class BenchmarkRunnerOptions
+{
+    // Benchmarks describe the shape of their data with these parameter names
+    public static final String DICTIONARY_PARAMETER = "dictionary";
+    public static final String NULL_RATIO_PARAMETER = "nullRatio";
+    public static final String KEY_CARDINALITY_PARAMETER = "keyCardinality";
+
+    @Option(name = "--include", title = "regex", description = "Benchmarks to run (default: all benchmarks)")
+    public List<String> includes = new ArrayList<>();
+
+    @Option(name = "--exclude", title = "regex", description = "Benchmarks to skip")
+    public List<String> excludes = new ArrayList<>();
+
+    @Option(name = "--dictionary", title = "dictionary", description = "Data shapes to run with: true for dictionary encoded and false for flat data (format is comma separated list)")
+    public String dictionary;
+
+    @Option(name = "--null-ratio", title = "null ratio", description = "Ratios of null values to run with (format is comma separated list)")
+    public String nullRatio;
+
+    @Option(name = "--key-cardinality", title = "key cardinality", description = "Key cardinalities to run with (format is comma separated list)")
+    public String keyCardinality;
+
+    @Option(name = "--param", title = "param", description = "Benchmark parameter (can be used multiple times; format is name=value1,value2)")
+    public List<String> params = new ArrayList<>();
+
+    @Option(name = "--forks", title = "forks", description = "Number of forks for each benchmark (default: 1)")
+    public int forks = 1;
+
+    @Option(name = "--warmup-iterations", title = "warmup iterations", description = "Number of warmup iterations (default: 5)")
+    public int warmupIterations = 5;
+
+    @Option(name = "--iterations", title = "iterations", description = "Number of measurement iterations (default: 10)")
+    public int iterations = 10;
+
+    @Option(name = "--baseline", title = "baseline", description = "Baseline file to compare the results with")
+    public String baseline;
+
+    @Option(name = "--update-baseline", title = "update baseline", description = "Write the results to the baseline file instead of comparing them (default: false)")
+    public boolean updateBaseline;
+
+    @Option(name = "--throughput-regression-threshold", title = "threshold", description = "Maximum allowed relative throughput regression (default: 0.1)")
+    public double throughputRegressionThreshold = 0.1;
+
+    @Option(name = "--allocation-regression-threshold", title = "threshold", description = "Maximum allowed relative increase of bytes allocated per operation (default: 0.1)")
+    public double allocationRegressionThreshold = 0.1;
+
+    @Option(name = "--results", title = "results", description = "File to write the JMH results to in JSON format")
+    public String results;
+
+    public ListMultimap<String, String> getParameters()
+    {
+        ImmutableListMultimap.Builder<String, String> parameters = ImmutableListMultimap.builder();
+        addParameter(parameters, DICTIONARY_PARAMETER, dictionary);
+        addParameter(parameters, NULL_RATIO_PARAMETER, nullRatio);
+        addParameter(parameters, KEY_CARDINALITY_PARAMETER, keyCardinality);
+        for (String param : params) {
+            List<String> nameAndValues = Splitter.on('=').limit(2).trimResults().splitToList(param);
+            checkArgument(nameAndValues.size() == 2 && !nameAndValues.get(0).isEmpty(), "Parameter must be in the format name=value1,value2: %s", param);
+            addParameter(parameters, nameAndValues.get(0), nameAndValues.get(1));
+        }
+        return parameters.build();
+    }
+
+    private static void addParameter(ImmutableListMultimap.Builder<String, String> parameters, String name, String values)
+    {
+        if (values != null) {
+            parameters.putAll(name, Splitter.on(',').trimResults().omitEmptyStrings().split(values));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark.runner;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.airline.Command;
+import io.airlift.airline.HelpOption;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.airline.SingleCommand.singleCommand;
+
+@Command(name = "presto-benchmark-runner", description = "Runs the Presto JMH benchmarks and compares the results with a baseline")
+public class PrestoBenchmarkRunner
+{
+    // all benchmark classes follow the BenchmarkXxx naming convention
+    private static final String DEFAULT_INCLUDE = "com\\.facebook\\.presto\\..*\\.Benchmark[^.]*\\.";
+    // GCProfiler reports the allocated bytes per operation under a name ending with this suffix
+    private static final String ALLOCATION_RATE_NORM_SUFFIX = "gc.alloc.rate.norm";
+
+    @Inject
+    public HelpOption helpOption;
+
+    @Inject
+    public BenchmarkRunnerOptions options = new BenchmarkRunnerOptions();
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        PrestoBenchmarkRunner runner = singleCommand(PrestoBenchmarkRunner.class).parse(args);
+        if (runner.helpOption.showHelpIfRequested()) {
+            return;
+        }
+
+        if (!runner.run()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns false if any benchmark regressed compared to the baseline.
+     */
+    public boolean run()
+            throws Exception
+    {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .forks(options.forks)
+                .warmupIterations(options.warmupIterations)
+                .measurementIterations(options.iterations)
+                .addProfiler(GCProfiler.class);
+
+        if (options.includes.isEmpty()) {
+            builder.include(DEFAULT_INCLUDE);
+        }
+        options.includes.forEach(builder::include);
+        options.excludes.forEach(builder::exclude);
+
+        for (Map.Entry<String, Collection<String>> parameter : options.getParameters().asMap().entrySet()) {
+            builder.param(parameter.getKey(), parameter.getValue().toArray(new String[0]));
+        }
+
+        if (options.results != null) {
+            builder.resultFormat(ResultFormatType.JSON)
+                    .result(options.results);
+        }
+
+        Collection<RunResult> runResults = new Runner(builder.build()).run();
+        List<BenchmarkResult> results = runResults.stream()
+                .map(PrestoBenchmarkRunner::toBenchmarkResult)
+                .collect(toImmutableList());
+
+        if (options.baseline == null) {
+            return true;
+        }
+
+        Path baselinePath = Paths.get(options.baseline);
+        if (options.updateBaseline) {
+            new BenchmarkBaseline(results).write(baselinePath);
+            System.out.println("Baseline written to " + baselinePath);
+            return true;
+        }
+
+        List<String> regressions = BenchmarkBaseline.read(baselinePath)
+                .findRegressions(results, options.throughputRegressionThreshold, options.allocationRegressionThreshold);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions compared to " + baselinePath);
+            return true;
+        }
+
+        System.out.println("Regressions compared to " + baselinePath + ":");
+        regressions.forEach(regression -> System.out.println("    " + regression));
+        return false;
+    }
+
+    private static BenchmarkResult toBenchmarkResult(RunResult runResult)
+    {
+        BenchmarkParams params = runResult.getParams();
+
+        ImmutableMap.Builder<String, String> parameters = ImmutableMap.builder();
+        for (String key : params.getParamsKeys()) {
+            parameters.put(key, params.getParam(key));
+        }
+
+        Result<?> primaryResult = runResult.getPrimaryResult();
+        Optional<Double> allocatedBytesPerOperation = runResult.getSecondaryResults().entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith(ALLOCATION_RATE_NORM_SUFFIX))
+                .map(entry -> entry.getValue().getScore())
+                .findFirst();
+
+        return new BenchmarkResult(
+                params.getBenchmark(),
+                parameters.build(),
+                params.getMode().shortLabel(),
+                primaryResult.getScore(),
+                primaryResult.getScoreUnit(),
+                allocatedBytesPerOperation);
+    }
+}
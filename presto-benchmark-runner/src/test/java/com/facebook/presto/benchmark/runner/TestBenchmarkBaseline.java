@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark.runner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestBenchmarkBaseline
+{
+    private static final BenchmarkBaseline BASELINE = new BenchmarkBaseline(ImmutableList.of(
+            result("BenchmarkGroupByHash.groupBy", "thrpt", 1000, "ops/s", 256.0),
+            result("BenchmarkPageProcessor.filter", "avgt", 100, "ns/op", 0.0)));
+
+    @Test
+    public void testNoRegression()
+    {
+        assertTrue(BASELINE.findRegressions(
+                ImmutableList.of(
+                        result("BenchmarkGroupByHash.groupBy", "thrpt", 950, "ops/s", 260.0),
+                        result("BenchmarkPageProcessor.filter", "avgt", 105, "ns/op", 32.0),
+                        result("BenchmarkNew.run", "thrpt", 1, "ops/s", 1_000_000.0)),
+                0.1,
+                0.1)
+                .isEmpty());
+    }
+
+    @Test
+    public void testScoreRegression()
+    {
+        // lower throughput
+        assertEquals(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkGroupByHash.groupBy", "thrpt", 800, "ops/s", 256.0)), 0.1, 0.1).size(), 1);
+        // higher average time
+        assertEquals(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkPageProcessor.filter", "avgt", 120, "ns/op", 0.0)), 0.1, 0.1).size(), 1);
+        // a different unit can not be compared
+        assertTrue(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkPageProcessor.filter", "avgt", 120, "us/op", 0.0)), 0.1, 0.1).isEmpty());
+    }
+
+    @Test
+    public void testAllocationRegression()
+    {
+        assertEquals(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkGroupByHash.groupBy", "thrpt", 1000, "ops/s", 512.0)), 0.1, 0.1).size(), 1);
+        assertEquals(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkPageProcessor.filter", "avgt", 100, "ns/op", 128.0)), 0.1, 0.1).size(), 1);
+        assertTrue(BASELINE.findRegressions(ImmutableList.of(result("BenchmarkGroupByHash.groupBy", "thrpt", 1000, "ops/s", 512.0)), 0.1, 1.5).isEmpty());
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        Path file = Files.createTempFile("baseline", ".json");
+        try {
+            BASELINE.write(file);
+            assertEquals(BenchmarkBaseline.read(file).getResults(), BASELINE.getResults());
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    private static BenchmarkResult result(String benchmark, String mode, double score, String scoreUnit, double allocatedBytesPerOperation)
+    {
+        return new BenchmarkResult(
+                "com.facebook.presto.operator." + benchmark,
+                ImmutableMap.of("keyCardinality", "1000"),
+                mode,
+                score,
+                scoreUnit,
+                Optional.of(allocatedBytesPerOperation));
+    }
+}
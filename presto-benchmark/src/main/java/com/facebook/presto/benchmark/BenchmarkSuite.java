@@ -60,6 +60,7 @@ public class BenchmarkSuite
                 new SqlDoubleSumAggregationBenchmark(localQueryRunner),
                 new CountWithFilterSqlBenchmark(localQueryRunner),
                 new GroupByAggregationSqlBenchmark(localQueryRunner),
+                new GroupByMultipleFixedWidthKeysSqlBenchmark(localQueryRunner),
                 new PredicateFilterSqlBenchmark(localQueryRunner),
                 new RawStreamingSqlBenchmark(localQueryRunner),
                 new Top100SqlBenchmark(localQueryRunner),
@@ -137,6 +137,9 @@ public class ClientOptions
     @Option(name = "--ignore-errors", title = "ignore errors", description = "Continue processing in batch mode when an error occurs (default is to exit immediately)")
     public boolean ignoreErrors;
 
+    @Option(name = "--binary-results", title = "binary results", description = "Request query results in the binary page format instead of JSON")
+    public boolean binaryResults;
+
     public enum OutputFormat
     {
         ALIGNED,
@@ -167,7 +170,8 @@ public class ClientOptions
                 emptyMap(),
                 emptyMap(),
                 null,
-                clientRequestTimeout);
+                clientRequestTimeout,
+                binaryResults);
     }
 
     public static URI parseServer(String server)
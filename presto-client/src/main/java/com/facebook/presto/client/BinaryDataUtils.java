@@ -0,0 +1,255 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Decimals;
+import com.facebook.presto.spi.type.NamedTypeSignature;
+import com.facebook.presto.spi.type.ParameterKind;
+import com.facebook.presto.spi.type.TypeSignature;
+import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableList;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.Slices;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.spi.type.Decimals.MAX_SHORT_PRECISION;
+import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
+import static com.facebook.presto.spi.type.StandardTypes.BIGINT;
+import static com.facebook.presto.spi.type.StandardTypes.BOOLEAN;
+import static com.facebook.presto.spi.type.StandardTypes.CHAR;
+import static com.facebook.presto.spi.type.StandardTypes.DATE;
+import static com.facebook.presto.spi.type.StandardTypes.DECIMAL;
+import static com.facebook.presto.spi.type.StandardTypes.DOUBLE;
+import static com.facebook.presto.spi.type.StandardTypes.INTEGER;
+import static com.facebook.presto.spi.type.StandardTypes.JSON;
+import static com.facebook.presto.spi.type.StandardTypes.MAP;
+import static com.facebook.presto.spi.type.StandardTypes.REAL;
+import static com.facebook.presto.spi.type.StandardTypes.ROW;
+import static com.facebook.presto.spi.type.StandardTypes.SMALLINT;
+import static com.facebook.presto.spi.type.StandardTypes.TINYINT;
+import static com.facebook.presto.spi.type.StandardTypes.VARBINARY;
+import static com.facebook.presto.spi.type.StandardTypes.VARCHAR;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Decodes query results sent as serialized pages when the client advertises
+ * {@link ClientCapabilities#BINARY_RESULTS}. Each element of the binary data is
+ * a base64 encoded page in the exchange wire format: position count, codec markers,
+ * uncompressed size, size and the (optionally LZ4 compressed) blocks.
+ * <p>
+ * The decoded values match the values produced by {@link FixJsonDataUtils} for the
+ * JSON encoding, so the server only uses this encoding for the types listed in
+ * {@link #isBinaryEncodingSupported(TypeSignature)}.
+ */
+public final class BinaryDataUtils
+{
+    private static final byte COMPRESSED_MARKER = 1;
+    private static final byte ENCRYPTED_MARKER = 2;
+
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = new ClientBlockEncodingSerde();
+
+    private BinaryDataUtils() {}
+
+    public static boolean isBinaryEncodingSupported(TypeSignature signature)
+    {
+        switch (signature.getBase()) {
+            case BIGINT:
+            case INTEGER:
+            case SMALLINT:
+            case TINYINT:
+            case DOUBLE:
+            case REAL:
+            case BOOLEAN:
+            case VARCHAR:
+            case CHAR:
+            case JSON:
+            case VARBINARY:
+            case DATE:
+            case DECIMAL:
+                return true;
+            case ARRAY:
+            case MAP:
+                return signature.getTypeParametersAsTypeSignatures().stream().allMatch(BinaryDataUtils::isBinaryEncodingSupported);
+            case ROW:
+                // row fields are named type parameters
+                return signature.getParameters().stream()
+                        .allMatch(parameter -> parameter.getKind() == ParameterKind.NAMED_TYPE &&
+                                isBinaryEncodingSupported(parameter.getNamedTypeSignature().getTypeSignature()));
+            default:
+                return false;
+        }
+    }
+
+    static Iterable<List<Object>> decodeData(List<Column> columns, List<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        requireNonNull(columns, "columns is null");
+        List<TypeSignature> signatures = columns.stream()
+                .map(column -> parseTypeSignature(column.getType()))
+                .collect(toList());
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (String encodedPage : binaryData) {
+            SliceInput input = Slices.wrappedBuffer(Base64.getDecoder().decode(encodedPage)).getInput();
+            while (input.isReadable()) {
+                int positionCount = input.readInt();
+                Block[] blocks = readPage(input);
+                checkArgument(blocks.length == columns.size(), "block/column size mismatch");
+                for (int position = 0; position < positionCount; position++) {
+                    List<Object> row = new ArrayList<>(blocks.length);
+                    for (int channel = 0; channel < blocks.length; channel++) {
+                        row.add(decodeValue(signatures.get(channel), blocks[channel], position));
+                    }
+                    rows.add(unmodifiableList(row)); // allow nulls in list
+                }
+            }
+        }
+        return rows.build();
+    }
+
+    private static Block[] readPage(SliceInput input)
+    {
+        byte markers = input.readByte();
+        int uncompressedSize = input.readInt();
+        int size = input.readInt();
+        Slice slice = input.readSlice(size);
+
+        checkArgument((markers & ENCRYPTED_MARKER) == 0, "Encrypted pages are not supported");
+        if ((markers & COMPRESSED_MARKER) != 0) {
+            Decompressor decompressor = new Lz4Decompressor();
+            byte[] decompressed = new byte[uncompressedSize];
+            byte[] compressed = slice.getBytes();
+            int length = decompressor.decompress(compressed, 0, compressed.length, decompressed, 0, decompressed.length);
+            checkArgument(length == uncompressedSize, "Decompressed page size %s does not match expected size %s", length, uncompressedSize);
+            slice = Slices.wrappedBuffer(decompressed);
+        }
+
+        SliceInput pageInput = slice.getInput();
+        Block[] blocks = new Block[pageInput.readInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = BLOCK_ENCODING_SERDE.readBlock(pageInput);
+        }
+        return blocks;
+    }
+
+    private static Object decodeValue(TypeSignature signature, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+
+        switch (signature.getBase()) {
+            case ARRAY: {
+                TypeSignature elementSignature = signature.getTypeParametersAsTypeSignatures().get(0);
+                Block arrayBlock = block.getObject(position, Block.class);
+                List<Object> value = new ArrayList<>(arrayBlock.getPositionCount());
+                for (int i = 0; i < arrayBlock.getPositionCount(); i++) {
+                    value.add(decodeValue(elementSignature, arrayBlock, i));
+                }
+                return value;
+            }
+            case MAP: {
+                // see ClientBlockEncodingSerde for the layout of decoded map blocks
+                TypeSignature keySignature = signature.getTypeParametersAsTypeSignatures().get(0);
+                TypeSignature valueSignature = signature.getTypeParametersAsTypeSignatures().get(1);
+                Block entries = block.getObject(position, Block.class);
+                Map<Object, Object> value = new HashMap<>();
+                for (int i = 0; i < entries.getPositionCount(); i++) {
+                    Block entry = entries.getObject(i, Block.class);
+                    value.put(decodeValue(keySignature, entry, 0), decodeValue(valueSignature, entry, 1));
+                }
+                return value;
+            }
+            case ROW: {
+                Block rowBlock = block.getObject(position, Block.class);
+                Map<String, Object> value = new LinkedHashMap<>();
+                for (int i = 0; i < signature.getParameters().size(); i++) {
+                    TypeSignatureParameter parameter = signature.getParameters().get(i);
+                    checkArgument(
+                            parameter.getKind() == ParameterKind.NAMED_TYPE,
+                            "Unexpected parameter [%s] for row type",
+                            parameter);
+                    NamedTypeSignature namedTypeSignature = parameter.getNamedTypeSignature();
+                    String key = namedTypeSignature.getName().orElse("field" + i);
+                    value.put(key, decodeValue(namedTypeSignature.getTypeSignature(), rowBlock, i));
+                }
+                return value;
+            }
+            case BIGINT:
+                return block.getLong(position);
+            case INTEGER:
+                return block.getInt(position);
+            case SMALLINT:
+                return block.getShort(position);
+            case TINYINT:
+                return block.getByte(position);
+            case DOUBLE:
+                return Double.longBitsToDouble(block.getLong(position));
+            case REAL:
+                return Float.intBitsToFloat(block.getInt(position));
+            case BOOLEAN:
+                return block.getByte(position) != 0;
+            case VARCHAR:
+            case JSON:
+                return getSlice(block, position).toStringUtf8();
+            case CHAR: {
+                // char values are returned padded to the declared length, which counts code points
+                int length = toIntExact(signature.getParameters().get(0).getLongLiteral());
+                String text = getSlice(block, position).toStringUtf8();
+                StringBuilder value = new StringBuilder(text);
+                for (int i = text.codePointCount(0, text.length()); i < length; i++) {
+                    value.append(' ');
+                }
+                return value.toString();
+            }
+            case VARBINARY:
+                return getSlice(block, position).getBytes();
+            case DATE:
+                return LocalDate.ofEpochDay(block.getInt(position)).toString();
+            case DECIMAL: {
+                int precision = toIntExact(signature.getParameters().get(0).getLongLiteral());
+                int scale = toIntExact(signature.getParameters().get(1).getLongLiteral());
+                if (precision <= MAX_SHORT_PRECISION) {
+                    return Decimals.toString(block.getLong(position), scale);
+                }
+                return Decimals.toString(Slices.wrappedLongArray(block.getLong(position, 0), block.getLong(position, Long.BYTES)), scale);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported type for binary results: " + signature);
+        }
+    }
+
+    private static Slice getSlice(Block block, int position)
+    {
+        return block.getSlice(position, 0, block.getSliceLength(position));
+    }
+}
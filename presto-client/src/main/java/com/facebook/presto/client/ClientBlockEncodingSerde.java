@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.spi.block.ArrayBlock;
+import com.facebook.presto.spi.block.ArrayBlockEncoding;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.block.ByteArrayBlockEncoding;
+import com.facebook.presto.spi.block.DictionaryBlockEncoding;
+import com.facebook.presto.spi.block.Int128ArrayBlockEncoding;
+import com.facebook.presto.spi.block.IntArrayBlockEncoding;
+import com.facebook.presto.spi.block.LongArrayBlockEncoding;
+import com.facebook.presto.spi.block.MapBlockEncoding;
+import com.facebook.presto.spi.block.RowBlock;
+import com.facebook.presto.spi.block.RowBlockEncoding;
+import com.facebook.presto.spi.block.RunLengthBlockEncoding;
+import com.facebook.presto.spi.block.ShortArrayBlockEncoding;
+import com.facebook.presto.spi.block.SingleRowBlockEncoding;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.Slices.wrappedIntArray;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads blocks written by the server's block encoding manager without access to a
+ * type manager. Map blocks cannot be rebuilt without the key type operators, so they
+ * are decoded as arrays of two field (key, value) rows instead.
+ */
+final class ClientBlockEncodingSerde
+        implements BlockEncodingSerde
+{
+    private final Map<String, BlockEncoding> blockEncodings;
+
+    public ClientBlockEncodingSerde()
+    {
+        ImmutableMap.Builder<String, BlockEncoding> builder = ImmutableMap.builder();
+        for (BlockEncoding blockEncoding : new BlockEncoding[] {
+                new VariableWidthBlockEncoding(),
+                new ByteArrayBlockEncoding(),
+                new ShortArrayBlockEncoding(),
+                new IntArrayBlockEncoding(),
+                new LongArrayBlockEncoding(),
+                new Int128ArrayBlockEncoding(),
+                new DictionaryBlockEncoding(),
+                new ArrayBlockEncoding(),
+                new MapEntriesBlockEncoding(),
+                new RowBlockEncoding(),
+                new SingleRowBlockEncoding(),
+                new RunLengthBlockEncoding()}) {
+            builder.put(blockEncoding.getName(), blockEncoding);
+        }
+        this.blockEncodings = builder.build();
+    }
+
+    @Override
+    public Block readBlock(SliceInput input)
+    {
+        String encodingName = readLengthPrefixedString(input);
+
+        BlockEncoding blockEncoding = blockEncodings.get(encodingName);
+        checkArgument(blockEncoding != null, "Unknown block encoding %s", encodingName);
+
+        return blockEncoding.readBlock(this, input);
+    }
+
+    @Override
+    public void writeBlock(SliceOutput output, Block block)
+    {
+        throw new UnsupportedOperationException("Client block encoding serde is read only");
+    }
+
+    private static String readLengthPrefixedString(SliceInput input)
+    {
+        int length = input.readInt();
+        byte[] bytes = new byte[length];
+        input.readBytes(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static class MapEntriesBlockEncoding
+            implements BlockEncoding
+    {
+        @Override
+        public String getName()
+        {
+            return MapBlockEncoding.NAME;
+        }
+
+        @Override
+        public void writeBlock(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, Block block)
+        {
+            throw new UnsupportedOperationException("Client block encoding serde is read only");
+        }
+
+        @Override
+        public Block readBlock(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput)
+        {
+            // the key type is only needed to rebuild the hash tables
+            readLengthPrefixedString(sliceInput);
+
+            Block keyBlock = blockEncodingSerde.readBlock(sliceInput);
+            Block valueBlock = blockEncodingSerde.readBlock(sliceInput);
+            checkArgument(keyBlock.getPositionCount() == valueBlock.getPositionCount(), "Deserialized map block has %s keys and %s values", keyBlock.getPositionCount(), valueBlock.getPositionCount());
+
+            int hashTableLength = sliceInput.readInt();
+            if (hashTableLength > 0) {
+                sliceInput.skip((long) hashTableLength * Integer.BYTES);
+            }
+
+            int positionCount = sliceInput.readInt();
+            int[] offsets = new int[positionCount + 1];
+            sliceInput.readBytes(wrappedIntArray(offsets));
+            Optional<boolean[]> mapIsNull = decodeNullBits(sliceInput, positionCount);
+
+            Block entries = RowBlock.fromFieldBlocks(keyBlock.getPositionCount(), Optional.empty(), new Block[] {keyBlock, valueBlock});
+            return ArrayBlock.fromElementBlock(positionCount, mapIsNull, offsets, entries);
+        }
+
+        private static Optional<boolean[]> decodeNullBits(SliceInput sliceInput, int positionCount)
+        {
+            if (!sliceInput.readBoolean()) {
+                return Optional.empty();
+            }
+
+            boolean[] valueIsNull = new boolean[positionCount];
+            byte value = 0;
+            for (int position = 0; position < positionCount; position++) {
+                if ((position & 0b111) == 0) {
+                    value = sliceInput.readByte();
+                }
+                valueIsNull[position] = (value & (0b1000_0000 >>> (position & 0b111))) != 0;
+            }
+            return Optional.of(valueIsNull);
+        }
+    }
+}
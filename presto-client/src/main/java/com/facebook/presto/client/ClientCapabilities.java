@@ -15,5 +15,6 @@ package com.facebook.presto.client;
 
 public enum ClientCapabilities
 {
-    PATH;
+    PATH,
+    BINARY_RESULTS;
 }
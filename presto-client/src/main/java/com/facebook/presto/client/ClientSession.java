@@ -51,6 +51,7 @@ public class ClientSession
     private final Map<String, SelectedRole> roles;
     private final String transactionId;
     private final Duration clientRequestTimeout;
+    private final boolean binaryResults;
 
     public static Builder builder(ClientSession clientSession)
     {
@@ -82,6 +83,47 @@ public class ClientSession
             Map<String, SelectedRole> roles,
             String transactionId,
             Duration clientRequestTimeout)
+    {
+        this(
+                server,
+                user,
+                source,
+                traceToken,
+                clientTags,
+                clientInfo,
+                catalog,
+                schema,
+                path,
+                timeZoneId,
+                locale,
+                resourceEstimates,
+                properties,
+                preparedStatements,
+                roles,
+                transactionId,
+                clientRequestTimeout,
+                false);
+    }
+
+    public ClientSession(
+            URI server,
+            String user,
+            String source,
+            Optional<String> traceToken,
+            Set<String> clientTags,
+            String clientInfo,
+            String catalog,
+            String schema,
+            String path,
+            String timeZoneId,
+            Locale locale,
+            Map<String, String> resourceEstimates,
+            Map<String, String> properties,
+            Map<String, String> preparedStatements,
+            Map<String, SelectedRole> roles,
+            String transactionId,
+            Duration clientRequestTimeout,
+            boolean binaryResults)
     {
         this.server = requireNonNull(server, "server is null");
         this.user = user;
@@ -100,6 +142,7 @@ public class ClientSession
         this.preparedStatements = ImmutableMap.copyOf(requireNonNull(preparedStatements, "preparedStatements is null"));
         this.roles = ImmutableMap.copyOf(requireNonNull(roles, "roles is null"));
         this.clientRequestTimeout = clientRequestTimeout;
+        this.binaryResults = binaryResults;
 
         for (String clientTag : clientTags) {
             checkArgument(!clientTag.contains(","), "client tag cannot contain ','");
@@ -215,6 +258,14 @@ public class ClientSession
         return clientRequestTimeout;
     }
 
+    /**
+     * Whether the client asks the server for results in the binary page format instead of JSON
+     */
+    public boolean isBinaryResults()
+    {
+        return binaryResults;
+    }
+
     @Override
     public String toString()
     {
@@ -231,6 +282,7 @@ public class ClientSession
                 .add("locale", locale)
                 .add("properties", properties)
                 .add("transactionId", transactionId)
+                .add("binaryResults", binaryResults)
                 .omitNullValues()
                 .toString();
     }
@@ -254,6 +306,7 @@ public class ClientSession
         private Map<String, SelectedRole> roles;
         private String transactionId;
         private Duration clientRequestTimeout;
+        private boolean binaryResults;
 
         private Builder(ClientSession clientSession)
         {
@@ -275,6 +328,7 @@ public class ClientSession
             roles = clientSession.getRoles();
             transactionId = clientSession.getTransactionId();
             clientRequestTimeout = clientSession.getClientRequestTimeout();
+            binaryResults = clientSession.isBinaryResults();
         }
 
         public Builder withCatalog(String catalog)
@@ -325,6 +379,12 @@ public class ClientSession
             return this;
         }
 
+        public Builder withBinaryResults(boolean binaryResults)
+        {
+            this.binaryResults = binaryResults;
+            return this;
+        }
+
         public ClientSession build()
         {
             return new ClientSession(
@@ -344,7 +404,8 @@ public class ClientSession
                     preparedStatements,
                     roles,
                     transactionId,
-                    clientRequestTimeout);
+                    clientRequestTimeout,
+                    binaryResults);
         }
     }
 }
@@ -24,6 +24,7 @@ import javax.annotation.concurrent.Immutable;
 import java.net.URI;
 import java.util.List;
 
+import static com.facebook.presto.client.BinaryDataUtils.decodeData;
 import static com.facebook.presto.client.FixJsonDataUtils.fixData;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -41,6 +42,7 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final List<String> binaryData;
     private final StatementStats stats;
     private final QueryError error;
     private final List<PrestoWarning> warnings;
@@ -55,6 +57,7 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") List<String> binaryData,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("warnings") List<PrestoWarning> warnings,
@@ -67,7 +70,8 @@ public class QueryResults
                 partialCancelUri,
                 nextUri,
                 columns,
-                fixData(columns, data),
+                (data != null) ? fixData(columns, data) : decodeData(columns, binaryData),
+                null,
                 stats,
                 error,
                 firstNonNull(warnings, ImmutableList.of()),
@@ -87,6 +91,23 @@ public class QueryResults
             List<PrestoWarning> warnings,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, stats, error, warnings, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            List<String> binaryData,
+            StatementStats stats,
+            QueryError error,
+            List<PrestoWarning> warnings,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -94,7 +115,10 @@ public class QueryResults
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = (binaryData != null) ? ImmutableList.copyOf(binaryData) : null;
         checkArgument(data == null || columns != null, "data present without columns");
+        checkArgument(binaryData == null || columns != null, "binaryData present without columns");
+        checkArgument(data == null || binaryData == null, "data and binaryData are both present");
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.warnings = ImmutableList.copyOf(requireNonNull(warnings, "warnings is null"));
@@ -148,6 +172,18 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * Serialized pages sent instead of {@link #getData()} to clients supporting
+     * {@link ClientCapabilities#BINARY_RESULTS}. Clients decode these into the
+     * data when the results are deserialized, so this is always null on the client.
+     */
+    @Nullable
+    @JsonProperty
+    public List<String> getBinaryData()
+    {
+        return binaryData;
+    }
+
     @JsonProperty
     @Override
     public StatementStats getStats()
@@ -196,6 +232,7 @@ public class QueryResults
                 .add("nextUri", nextUri)
                 .add("columns", columns)
                 .add("hasData", data != null)
+                .add("hasBinaryData", binaryData != null)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
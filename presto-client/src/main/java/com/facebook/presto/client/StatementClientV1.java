@@ -125,7 +125,7 @@ class StatementClientV1
         this.query = query;
         this.requestTimeoutNanos = session.getClientRequestTimeout();
         this.user = session.getUser();
-        this.clientCapabilities = Joiner.on(",").join(ClientCapabilities.values());
+        this.clientCapabilities = getClientCapabilities(session);
 
         Request request = buildQueryRequest(session, query);
 
@@ -138,6 +138,17 @@ class StatementClientV1
         processResponse(response.getHeaders(), response.getValue());
     }
 
+    private static String getClientCapabilities(ClientSession session)
+    {
+        ImmutableSet.Builder<ClientCapabilities> capabilities = ImmutableSet.builder();
+        capabilities.add(ClientCapabilities.PATH);
+        // binary results are opt-in, as they change the shape of every result returned to the client
+        if (session.isBinaryResults()) {
+            capabilities.add(ClientCapabilities.BINARY_RESULTS);
+        }
+        return Joiner.on(",").join(capabilities.build());
+    }
+
     private Request buildQueryRequest(ClientSession session, String query)
     {
         HttpUrl url = HttpUrl.get(session.getServer());
@@ -11,14 +11,14 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.facebook.presto.orc;
+package com.facebook.presto.common.predicate;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-import static com.facebook.presto.orc.ByteArrayUtils.compareRanges;
-import static com.facebook.presto.orc.ByteArrayUtils.hash;
+import static com.facebook.presto.common.predicate.ByteArrayUtils.compareRanges;
+import static com.facebook.presto.common.predicate.ByteArrayUtils.hash;
 import static com.facebook.presto.spi.type.UnscaledDecimal128Arithmetic.compare;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -0,0 +1,286 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Partition;
+import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.spi.SchemaTableName;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the file statuses of directories that belong to the configured
+ * tables. Entries are bounded by the total number of cached files, expire
+ * after a fixed time and are dropped when Presto commits new data to the
+ * table or partition that owns them.
+ */
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private static final String WILDCARD = "*";
+
+    private final DirectoryLister delegate;
+    private final Cache<Path, List<LocatedFileStatus>> cache;
+    private final List<SchemaTableName> tablePatterns;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Inject
+    public CachingDirectoryLister(HiveClientConfig hiveClientConfig)
+    {
+        this(
+                new HadoopDirectoryLister(),
+                hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
+                hiveClientConfig.getFileStatusCacheMaxSize(),
+                hiveClientConfig.getFileStatusCacheTables());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, long maxFileStatuses, List<String> tables)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        requireNonNull(expireAfterWrite, "expireAfterWrite is null");
+        checkArgument(maxFileStatuses >= 0, "maxFileStatuses is negative");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxFileStatuses)
+                .weigher((Weigher<Path, List<LocatedFileStatus>>) (path, files) -> files.size())
+                .expireAfterWrite(expireAfterWrite.toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        this.tablePatterns = requireNonNull(tables, "tables is null").stream()
+                .map(CachingDirectoryLister::parseTablePattern)
+                .collect(toImmutableList());
+    }
+
+    private static SchemaTableName parseTablePattern(String pattern)
+    {
+        List<String> parts = Splitter.on('.').splitToList(pattern);
+        checkArgument(parts.size() == 2 && !parts.get(0).isEmpty() && !parts.get(1).isEmpty(), "Invalid table pattern, expected schema.table: %s", pattern);
+        return new SchemaTableName(parts.get(0), parts.get(1));
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+            throws IOException
+    {
+        if (!isCacheEnabled(table)) {
+            return delegate.list(fs, table, path);
+        }
+
+        List<LocatedFileStatus> files = cache.getIfPresent(path);
+        if (files != null) {
+            return new SimpleRemoteIterator(files.iterator());
+        }
+
+        long invalidationsAtStart = invalidations.get();
+        return new CachingRemoteIterator(delegate.list(fs, table, path), path, invalidationsAtStart);
+    }
+
+    @Override
+    public void invalidate(Table table)
+    {
+        if (isCacheEnabled(table)) {
+            invalidateLocation(table.getStorage().getLocation());
+        }
+    }
+
+    @Override
+    public void invalidate(Partition partition)
+    {
+        if (isCacheEnabled(partition.getDatabaseName(), partition.getTableName())) {
+            invalidateLocation(partition.getStorage().getLocation());
+        }
+    }
+
+    private void invalidateLocation(String location)
+    {
+        invalidations.incrementAndGet();
+        if (location == null || location.isEmpty()) {
+            cache.invalidateAll();
+            return;
+        }
+        // drop the directory itself and everything listed below it, e.g. when the split loader recurses
+        String prefix = new Path(location).toString();
+        String directoryPrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+        cache.asMap().keySet().removeIf(path -> {
+            String cachedPath = path.toString();
+            return cachedPath.equals(prefix) || cachedPath.startsWith(directoryPrefix);
+        });
+    }
+
+    private boolean isCacheEnabled(Table table)
+    {
+        return isCacheEnabled(table.getDatabaseName(), table.getTableName());
+    }
+
+    private boolean isCacheEnabled(String schemaName, String tableName)
+    {
+        for (SchemaTableName pattern : tablePatterns) {
+            if (matches(pattern.getSchemaName(), schemaName) && matches(pattern.getTableName(), tableName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String pattern, String name)
+    {
+        return pattern.equals(WILDCARD) || pattern.equalsIgnoreCase(name);
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public double getMissRate()
+    {
+        return cache.stats().missRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache.stats().requestCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getCachedDirectoriesCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getCachedFilesCount()
+    {
+        return cache.asMap().values().stream()
+                .mapToLong(List::size)
+                .sum();
+    }
+
+    /**
+     * Passes file statuses through from the delegate and publishes the
+     * complete listing once the delegate is exhausted. A listing that raced
+     * with an invalidation is not published, because it may predate the
+     * commit that triggered the invalidation.
+     */
+    private class CachingRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final RemoteIterator<LocatedFileStatus> delegate;
+        private final Path path;
+        private final long invalidationsAtStart;
+        private final ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        private boolean published;
+
+        public CachingRemoteIterator(RemoteIterator<LocatedFileStatus> delegate, Path path, long invalidationsAtStart)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+            this.path = requireNonNull(path, "path is null");
+            this.invalidationsAtStart = invalidationsAtStart;
+        }
+
+        @Override
+        public boolean hasNext()
+                throws IOException
+        {
+            boolean hasNext = delegate.hasNext();
+            if (!hasNext && !published) {
+                published = true;
+                if (invalidations.get() == invalidationsAtStart) {
+                    cache.put(path, files.build());
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public LocatedFileStatus next()
+                throws IOException
+        {
+            LocatedFileStatus status = delegate.next();
+            files.add(status);
+            return status;
+        }
+    }
+
+    private static class SimpleRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Iterator<LocatedFileStatus> iterator;
+
+        public SimpleRemoteIterator(Iterator<LocatedFileStatus> iterator)
+        {
+            this.iterator = requireNonNull(iterator, "iterator is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public LocatedFileStatus next()
+        {
+            return iterator.next();
+        }
+    }
+}
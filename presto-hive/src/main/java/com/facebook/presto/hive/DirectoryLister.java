@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.metastore.Table;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
@@ -21,7 +22,8 @@ import org.apache.hadoop.fs.RemoteIterator;
 import java.io.IOException;
 
 public interface DirectoryLister
+        extends TableInvalidationCallback
 {
-    RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+    RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
             throws IOException;
 }
@@ -35,12 +35,15 @@ import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import java.io.File;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.HiveStorageFormat.ORC;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 @DefunctConfig({
@@ -103,6 +106,8 @@ public class HiveClientConfig
 
     private boolean useParquetColumnNames;
     private boolean failOnCorruptedParquetStatistics = true;
+    private boolean parquetSelectiveReaderEnabled;
+    private boolean parquetPageIndexEnabled = true;
 
     private boolean assumeCanonicalPartitionKeys;
 
@@ -160,6 +165,31 @@ public class HiveClientConfig
 
     private boolean pushdownFilterEnabled;
 
+    private List<String> fileStatusCacheTables = ImmutableList.of();
+    private long fileStatusCacheMaxSize = 1000 * 1000;
+    private Duration fileStatusCacheExpireAfterWrite = new Duration(1, MINUTES);
+
+    private boolean orcFileTailCacheEnabled;
+    private DataSize orcFileTailCacheSize = new DataSize(256, MEGABYTE);
+    private Duration orcFileTailCacheTtl = new Duration(4, HOURS);
+    private boolean orcStripeMetadataCacheEnabled;
+    private DataSize orcStripeFooterCacheSize = new DataSize(256, MEGABYTE);
+    private DataSize orcStripeStreamCacheSize = new DataSize(256, MEGABYTE);
+    private Duration orcStripeMetadataCacheTtl = new Duration(4, HOURS);
+
+    private boolean localCacheEnabled;
+    private File localCacheDirectory;
+    private DataSize localCacheMaxSize = new DataSize(100, GIGABYTE);
+    private DataSize localCacheBlockSize = new DataSize(1, MEGABYTE);
+    private boolean softAffinitySchedulingEnabled;
+
+    private boolean partitionFilterPushdownEnabled;
+    private int partitionLoaderConcurrency = 4;
+
+    private boolean streamingAggregationEnabled;
+
+    private boolean collectColumnHistograms;
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -931,6 +961,32 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isParquetSelectiveReaderEnabled()
+    {
+        return parquetSelectiveReaderEnabled;
+    }
+
+    @Config("hive.parquet.selective-reader-enabled")
+    @ConfigDescription("Apply filters to Parquet values while decoding them and skip decoding values of rows that do not pass the filters")
+    public HiveClientConfig setParquetSelectiveReaderEnabled(boolean parquetSelectiveReaderEnabled)
+    {
+        this.parquetSelectiveReaderEnabled = parquetSelectiveReaderEnabled;
+        return this;
+    }
+
+    public boolean isParquetPageIndexEnabled()
+    {
+        return parquetPageIndexEnabled;
+    }
+
+    @Config("hive.parquet.page-index-enabled")
+    @ConfigDescription("Use the column indexes and offset indexes of Parquet files to skip pages that do not match the predicate")
+    public HiveClientConfig setParquetPageIndexEnabled(boolean parquetPageIndexEnabled)
+    {
+        this.parquetPageIndexEnabled = parquetPageIndexEnabled;
+        return this;
+    }
+
     @Deprecated
     public boolean isOptimizeMismatchedBucketCount()
     {
@@ -1309,4 +1365,263 @@ public class HiveClientConfig
         this.pushdownFilterEnabled = pushdownFilterEnabled;
         return this;
     }
+
+    @NotNull
+    public List<String> getFileStatusCacheTables()
+    {
+        return fileStatusCacheTables;
+    }
+
+    @Config("hive.file-status-cache-tables")
+    @ConfigDescription("Comma separated list of schema.table patterns (* is a wildcard) whose directory listings are cached")
+    public HiveClientConfig setFileStatusCacheTables(String fileStatusCacheTables)
+    {
+        this.fileStatusCacheTables = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(fileStatusCacheTables);
+        return this;
+    }
+
+    public HiveClientConfig setFileStatusCacheTables(List<String> fileStatusCacheTables)
+    {
+        this.fileStatusCacheTables = ImmutableList.copyOf(fileStatusCacheTables);
+        return this;
+    }
+
+    @Min(0)
+    public long getFileStatusCacheMaxSize()
+    {
+        return fileStatusCacheMaxSize;
+    }
+
+    @Config("hive.file-status-cache-size")
+    @ConfigDescription("Maximum number of file statuses kept in the directory listing cache")
+    public HiveClientConfig setFileStatusCacheMaxSize(long fileStatusCacheMaxSize)
+    {
+        this.fileStatusCacheMaxSize = fileStatusCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getFileStatusCacheExpireAfterWrite()
+    {
+        return fileStatusCacheExpireAfterWrite;
+    }
+
+    @Config("hive.file-status-cache-expire-time")
+    @ConfigDescription("How long a cached directory listing is used before the directory is listed again")
+    public HiveClientConfig setFileStatusCacheExpireAfterWrite(Duration fileStatusCacheExpireAfterWrite)
+    {
+        this.fileStatusCacheExpireAfterWrite = fileStatusCacheExpireAfterWrite;
+        return this;
+    }
+
+    public boolean isOrcFileTailCacheEnabled()
+    {
+        return orcFileTailCacheEnabled;
+    }
+
+    @Config("hive.orc.file-tail-cache-enabled")
+    @ConfigDescription("Cache the postscript, footer and metadata of ORC and DWRF files across queries")
+    public HiveClientConfig setOrcFileTailCacheEnabled(boolean orcFileTailCacheEnabled)
+    {
+        this.orcFileTailCacheEnabled = orcFileTailCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcFileTailCacheSize()
+    {
+        return orcFileTailCacheSize;
+    }
+
+    @Config("hive.orc.file-tail-cache-size")
+    public HiveClientConfig setOrcFileTailCacheSize(DataSize orcFileTailCacheSize)
+    {
+        this.orcFileTailCacheSize = orcFileTailCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getOrcFileTailCacheTtl()
+    {
+        return orcFileTailCacheTtl;
+    }
+
+    @Config("hive.orc.file-tail-cache-ttl")
+    public HiveClientConfig setOrcFileTailCacheTtl(Duration orcFileTailCacheTtl)
+    {
+        this.orcFileTailCacheTtl = orcFileTailCacheTtl;
+        return this;
+    }
+
+    public boolean isOrcStripeMetadataCacheEnabled()
+    {
+        return orcStripeMetadataCacheEnabled;
+    }
+
+    @Config("hive.orc.stripe-metadata-cache-enabled")
+    @ConfigDescription("Cache ORC and DWRF stripe footers and index streams across queries")
+    public HiveClientConfig setOrcStripeMetadataCacheEnabled(boolean orcStripeMetadataCacheEnabled)
+    {
+        this.orcStripeMetadataCacheEnabled = orcStripeMetadataCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcStripeFooterCacheSize()
+    {
+        return orcStripeFooterCacheSize;
+    }
+
+    @Config("hive.orc.stripe-footer-cache-size")
+    public HiveClientConfig setOrcStripeFooterCacheSize(DataSize orcStripeFooterCacheSize)
+    {
+        this.orcStripeFooterCacheSize = orcStripeFooterCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcStripeStreamCacheSize()
+    {
+        return orcStripeStreamCacheSize;
+    }
+
+    @Config("hive.orc.stripe-stream-cache-size")
+    public HiveClientConfig setOrcStripeStreamCacheSize(DataSize orcStripeStreamCacheSize)
+    {
+        this.orcStripeStreamCacheSize = orcStripeStreamCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getOrcStripeMetadataCacheTtl()
+    {
+        return orcStripeMetadataCacheTtl;
+    }
+
+    @Config("hive.orc.stripe-metadata-cache-ttl")
+    public HiveClientConfig setOrcStripeMetadataCacheTtl(Duration orcStripeMetadataCacheTtl)
+    {
+        this.orcStripeMetadataCacheTtl = orcStripeMetadataCacheTtl;
+        return this;
+    }
+
+    public boolean isLocalCacheEnabled()
+    {
+        return localCacheEnabled;
+    }
+
+    @Config("hive.local-cache.enabled")
+    @ConfigDescription("Keep blocks of ORC, DWRF and Parquet files read from remote storage on local disk")
+    public HiveClientConfig setLocalCacheEnabled(boolean localCacheEnabled)
+    {
+        this.localCacheEnabled = localCacheEnabled;
+        return this;
+    }
+
+    public File getLocalCacheDirectory()
+    {
+        return localCacheDirectory;
+    }
+
+    @Config("hive.local-cache.directory")
+    @ConfigDescription("Local directory for cached file blocks, which must not be shared with other catalogs")
+    public HiveClientConfig setLocalCacheDirectory(File localCacheDirectory)
+    {
+        this.localCacheDirectory = localCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalCacheMaxSize()
+    {
+        return localCacheMaxSize;
+    }
+
+    @Config("hive.local-cache.max-size")
+    public HiveClientConfig setLocalCacheMaxSize(DataSize localCacheMaxSize)
+    {
+        this.localCacheMaxSize = localCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("1GB")
+    public DataSize getLocalCacheBlockSize()
+    {
+        return localCacheBlockSize;
+    }
+
+    @Config("hive.local-cache.block-size")
+    public HiveClientConfig setLocalCacheBlockSize(DataSize localCacheBlockSize)
+    {
+        this.localCacheBlockSize = localCacheBlockSize;
+        return this;
+    }
+
+    public boolean isSoftAffinitySchedulingEnabled()
+    {
+        return softAffinitySchedulingEnabled;
+    }
+
+    @Config("hive.soft-affinity-scheduling-enabled")
+    @ConfigDescription("Prefer scheduling all splits of a file on the same worker, so they can be served from its local cache")
+    public HiveClientConfig setSoftAffinitySchedulingEnabled(boolean softAffinitySchedulingEnabled)
+    {
+        this.softAffinitySchedulingEnabled = softAffinitySchedulingEnabled;
+        return this;
+    }
+
+    public boolean isPartitionFilterPushdownEnabled()
+    {
+        return partitionFilterPushdownEnabled;
+    }
+
+    @Config("hive.metastore.partition-filter-pushdown-enabled")
+    @ConfigDescription("Push ranges of string partition keys to the metastore. Requires the metastore database to compare strings in binary order")
+    public HiveClientConfig setPartitionFilterPushdownEnabled(boolean partitionFilterPushdownEnabled)
+    {
+        this.partitionFilterPushdownEnabled = partitionFilterPushdownEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getPartitionLoaderConcurrency()
+    {
+        return partitionLoaderConcurrency;
+    }
+
+    @Config("hive.metastore.partition-loader-concurrency")
+    @ConfigDescription("Number of batches of partitions of a table that are loaded from the metastore in parallel during split generation")
+    public HiveClientConfig setPartitionLoaderConcurrency(int partitionLoaderConcurrency)
+    {
+        this.partitionLoaderConcurrency = partitionLoaderConcurrency;
+        return this;
+    }
+
+    public boolean isStreamingAggregationEnabled()
+    {
+        return streamingAggregationEnabled;
+    }
+
+    @Config("hive.streaming-aggregation-enabled")
+    @ConfigDescription("Expose the sort order of bucketed tables to the engine, so that aggregations and windows over the sort columns are streamed. Each bucket file is read by a single split")
+    public HiveClientConfig setStreamingAggregationEnabled(boolean streamingAggregationEnabled)
+    {
+        this.streamingAggregationEnabled = streamingAggregationEnabled;
+        return this;
+    }
+
+    public boolean isCollectColumnHistograms()
+    {
+        return collectColumnHistograms;
+    }
+
+    @Config("hive.collect-column-histograms")
+    @ConfigDescription("Collect histograms of numeric and date columns with the column statistics, for the cost based optimizer")
+    public HiveClientConfig setCollectColumnHistograms(boolean collectColumnHistograms)
+    {
+        this.collectColumnHistograms = collectColumnHistograms;
+        return this;
+    }
 }
@@ -13,20 +13,37 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.cache.LocalDiskFileCache;
+import com.facebook.presto.hive.cache.LocalFileCache;
+import com.facebook.presto.hive.cache.NoOpLocalFileCache;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
 import com.facebook.presto.hive.orc.DwrfBatchPageSourceFactory;
 import com.facebook.presto.hive.orc.DwrfSelectivePageSourceFactory;
 import com.facebook.presto.hive.orc.OrcBatchPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcSelectivePageSourceFactory;
+import com.facebook.presto.hive.parquet.ParquetFileWriterFactory;
 import com.facebook.presto.hive.parquet.ParquetPageSourceFactory;
 import com.facebook.presto.hive.rcfile.RcFilePageSourceFactory;
 import com.facebook.presto.hive.rule.HivePlanOptimizerProvider;
 import com.facebook.presto.hive.s3.PrestoS3ClientFactory;
+import com.facebook.presto.orc.cache.CachingOrcFileTailSource;
+import com.facebook.presto.orc.cache.CachingStripeMetadataSource;
+import com.facebook.presto.orc.cache.OrcFileKey;
+import com.facebook.presto.orc.cache.OrcFileTail;
+import com.facebook.presto.orc.cache.OrcFileTailSource;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.facebook.presto.orc.cache.StorageStripeMetadataSource;
+import com.facebook.presto.orc.cache.StripeId;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
+import com.facebook.presto.orc.cache.StripeStreamId;
 import com.facebook.presto.spi.connector.ConnectorNodePartitioningProvider;
 import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorPlanOptimizerProvider;
 import com.facebook.presto.spi.connector.ConnectorSplitManager;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Binder;
 import com.google.inject.Module;
@@ -37,6 +54,8 @@ import com.google.inject.multibindings.Multibinder;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.concurrent.ExecutorServiceAdapter;
 import io.airlift.event.client.EventClient;
+import io.airlift.slice.Slice;
+import org.weakref.jmx.MBeanExporter;
 
 import javax.inject.Singleton;
 
@@ -44,13 +63,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.configuration.ConfigBinder.configBinder;
 import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static java.lang.Math.toIntExact;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.weakref.jmx.ObjectNames.generatedNameOf;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -74,7 +96,9 @@ public class HiveClientModule
         binder.bind(HdfsConfigurationUpdater.class).in(Scopes.SINGLETON);
         binder.bind(HdfsConfiguration.class).to(HiveHdfsConfiguration.class).in(Scopes.SINGLETON);
         binder.bind(HdfsEnvironment.class).in(Scopes.SINGLETON);
-        binder.bind(DirectoryLister.class).to(HadoopDirectoryLister.class).in(Scopes.SINGLETON);
+        binder.bind(CachingDirectoryLister.class).in(Scopes.SINGLETON);
+        binder.bind(DirectoryLister.class).to(CachingDirectoryLister.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CachingDirectoryLister.class).as(generatedNameOf(CachingDirectoryLister.class, connectorId));
         configBinder(binder).bindConfig(HiveClientConfig.class);
 
         binder.bind(HiveSessionProperties.class).in(Scopes.SINGLETON);
@@ -129,6 +153,7 @@ public class HiveClientModule
         configBinder(binder).bindConfig(OrcFileWriterConfig.class);
         fileWriterFactoryBinder.addBinding().to(OrcFileWriterFactory.class).in(Scopes.SINGLETON);
         fileWriterFactoryBinder.addBinding().to(RcFileFileWriterFactory.class).in(Scopes.SINGLETON);
+        fileWriterFactoryBinder.addBinding().to(ParquetFileWriterFactory.class).in(Scopes.SINGLETON);
 
         configBinder(binder).bindConfig(ParquetFileWriterConfig.class);
     }
@@ -163,6 +188,69 @@ public class HiveClientModule
                                 hiveClientConfig.getMaxConcurrentFileRenames())));
     }
 
+    @Singleton
+    @Provides
+    public OrcFileTailSource createOrcFileTailSource(HiveClientConfig hiveClientConfig, MBeanExporter exporter)
+    {
+        OrcFileTailSource orcFileTailSource = new StorageOrcFileTailSource();
+        if (!hiveClientConfig.isOrcFileTailCacheEnabled()) {
+            return orcFileTailSource;
+        }
+
+        Cache<OrcFileKey, OrcFileTail> cache = CacheBuilder.newBuilder()
+                .maximumWeight(hiveClientConfig.getOrcFileTailCacheSize().toBytes())
+                .weigher((Weigher<OrcFileKey, OrcFileTail>) (key, tail) -> toIntExact(tail.getRetainedSizeInBytes()))
+                .expireAfterWrite(hiveClientConfig.getOrcFileTailCacheTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        CachingOrcFileTailSource cachingOrcFileTailSource = new CachingOrcFileTailSource(orcFileTailSource, cache);
+        exporter.export(generatedNameOf(CachingOrcFileTailSource.class, connectorId), cachingOrcFileTailSource);
+        return cachingOrcFileTailSource;
+    }
+
+    @Singleton
+    @Provides
+    public StripeMetadataSource createStripeMetadataSource(HiveClientConfig hiveClientConfig, MBeanExporter exporter)
+    {
+        StripeMetadataSource stripeMetadataSource = new StorageStripeMetadataSource();
+        if (!hiveClientConfig.isOrcStripeMetadataCacheEnabled()) {
+            return stripeMetadataSource;
+        }
+
+        Cache<StripeId, Slice> footerSliceCache = CacheBuilder.newBuilder()
+                .maximumWeight(hiveClientConfig.getOrcStripeFooterCacheSize().toBytes())
+                .weigher((Weigher<StripeId, Slice>) (id, footer) -> toIntExact(footer.getRetainedSize()))
+                .expireAfterWrite(hiveClientConfig.getOrcStripeMetadataCacheTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        Cache<StripeStreamId, Slice> indexStreamSliceCache = CacheBuilder.newBuilder()
+                .maximumWeight(hiveClientConfig.getOrcStripeStreamCacheSize().toBytes())
+                .weigher((Weigher<StripeStreamId, Slice>) (id, stream) -> toIntExact(stream.getRetainedSize()))
+                .expireAfterWrite(hiveClientConfig.getOrcStripeMetadataCacheTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        CachingStripeMetadataSource cachingStripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerSliceCache, indexStreamSliceCache);
+        exporter.export(generatedNameOf(CachingStripeMetadataSource.class, connectorId), cachingStripeMetadataSource);
+        return cachingStripeMetadataSource;
+    }
+
+    @Singleton
+    @Provides
+    public LocalFileCache createLocalFileCache(HiveClientConfig hiveClientConfig, MBeanExporter exporter)
+    {
+        if (!hiveClientConfig.isLocalCacheEnabled()) {
+            return new NoOpLocalFileCache();
+        }
+
+        checkArgument(hiveClientConfig.getLocalCacheDirectory() != null, "hive.local-cache.directory must be set when the local cache is enabled");
+        LocalDiskFileCache localFileCache = new LocalDiskFileCache(
+                hiveClientConfig.getLocalCacheDirectory(),
+                hiveClientConfig.getLocalCacheMaxSize(),
+                hiveClientConfig.getLocalCacheBlockSize());
+        exporter.export(generatedNameOf(LocalDiskFileCache.class, connectorId), localFileCache);
+        return localFileCache;
+    }
+
     @Singleton
     @Provides
     public Function<HiveTransactionHandle, SemiTransactionalHiveMetastore> createMetastoreGetter(HiveTransactionManager transactionManager)
@@ -47,10 +47,12 @@ import com.facebook.presto.spi.ConnectorViewDefinition;
 import com.facebook.presto.spi.Constraint;
 import com.facebook.presto.spi.DiscretePredicates;
 import com.facebook.presto.spi.InMemoryRecordSet;
+import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.StandardErrorCode;
 import com.facebook.presto.spi.Subfield;
 import com.facebook.presto.spi.SystemTable;
@@ -155,11 +157,13 @@ import static com.facebook.presto.hive.HiveSessionProperties.getTemporaryTableSc
 import static com.facebook.presto.hive.HiveSessionProperties.getTemporaryTableStorageFormat;
 import static com.facebook.presto.hive.HiveSessionProperties.getVirtualBucketCount;
 import static com.facebook.presto.hive.HiveSessionProperties.isBucketExecutionEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isCollectColumnHistograms;
 import static com.facebook.presto.hive.HiveSessionProperties.isCollectColumnStatisticsOnWrite;
 import static com.facebook.presto.hive.HiveSessionProperties.isOptimizedMismatchedBucketCount;
 import static com.facebook.presto.hive.HiveSessionProperties.isRespectTableFormat;
 import static com.facebook.presto.hive.HiveSessionProperties.isSortedWritingEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isStatisticsEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isStreamingAggregationEnabled;
 import static com.facebook.presto.hive.HiveTableProperties.AVRO_SCHEMA_URL;
 import static com.facebook.presto.hive.HiveTableProperties.BUCKETED_BY_PROPERTY;
 import static com.facebook.presto.hive.HiveTableProperties.BUCKET_COUNT_PROPERTY;
@@ -221,6 +225,7 @@ import static com.facebook.presto.spi.StandardErrorCode.SCHEMA_NOT_EMPTY;
 import static com.facebook.presto.spi.predicate.TupleDomain.withColumnDomains;
 import static com.facebook.presto.spi.relation.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.spi.security.PrincipalType.USER;
+import static com.facebook.presto.spi.statistics.ColumnStatisticType.HISTOGRAM;
 import static com.facebook.presto.spi.statistics.TableStatisticType.ROW_COUNT;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.MoreObjects.firstNonNull;
@@ -248,8 +253,8 @@ public class HiveMetadata
     public static final String TABLE_COMMENT = "comment";
     public static final Set<String> RESERVED_ROLES = ImmutableSet.of("all", "default", "none");
 
-    private static final String ORC_BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
-    private static final String ORC_BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
+    public static final String ORC_BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
+    public static final String ORC_BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
 
     private static final String PARTITIONS_TABLE_SUFFIX = "$partitions";
     private static final String PRESTO_TEMPORARY_TABLE_NAME_PREFIX = "__presto_temporary_table_";
@@ -1075,7 +1080,7 @@ public class HiveMetadata
             Map<String, Set<ColumnStatisticType>> columnStatisticTypes = hiveColumnHandles.stream()
                     .filter(columnHandle -> !partitionColumnNames.contains(columnHandle.getName()))
                     .filter(column -> !column.isHidden())
-                    .collect(toImmutableMap(HiveColumnHandle::getName, column -> ImmutableSet.copyOf(metastore.getSupportedColumnStatistics(typeManager.getType(column.getTypeSignature())))));
+                    .collect(toImmutableMap(HiveColumnHandle::getName, column -> getSupportedColumnStatistics(session, typeManager.getType(column.getTypeSignature()))));
             Supplier<PartitionStatistics> emptyPartitionStatistics = Suppliers.memoize(() -> createEmptyPartitionStatistics(columnTypes, columnStatisticTypes));
 
             int usedComputedStatistics = 0;
@@ -1933,14 +1938,78 @@ public class HiveMetadata
                             .collect(toList())));
         }
 
+        Optional<Set<ColumnHandle>> streamPartitionColumns = Optional.empty();
+        List<LocalProperty<ColumnHandle>> localProperties = ImmutableList.of();
+        Optional<HiveBucketProperty> bucketProperty = table.getStorage().getBucketProperty();
+        if (isStreamingAggregationEnabled(session)
+                && hiveLayoutHandle.getBucketHandle().isPresent()
+                && !hiveLayoutHandle.getBucketHandle().get().isVirtuallyBucketed()
+                && bucketProperty.isPresent()
+                && !bucketProperty.get().getSortedBy().isEmpty()
+                && isSortedLikeTable(bucketProperty.get(), getPartitionBucketProperties(tableName, partitions))) {
+            // every bucket file is sorted, and is read by a single split
+            Map<String, ColumnHandle> columnHandles = hiveColumnHandles(table).stream()
+                    .collect(toImmutableMap(HiveColumnHandle::getName, identity()));
+            ImmutableList.Builder<LocalProperty<ColumnHandle>> sortingProperties = ImmutableList.builder();
+            for (SortingColumn sortingColumn : bucketProperty.get().getSortedBy()) {
+                ColumnHandle column = columnHandles.get(sortingColumn.getColumnName());
+                if (column == null) {
+                    break;
+                }
+                sortingProperties.add(new SortingProperty<>(column, sortingColumn.getOrder().getSortOrder()));
+            }
+            localProperties = sortingProperties.build();
+
+            // all rows with the same values of the partition and bucket columns are in the same file, so if the
+            // bucket columns lead the sort order, the splits are partitioned on the partition and sort columns
+            List<String> bucketedBy = bucketProperty.get().getBucketedBy();
+            List<String> sortedBy = bucketProperty.get().getSortedBy().stream()
+                    .map(SortingColumn::getColumnName)
+                    .collect(toImmutableList());
+            if (localProperties.size() == sortedBy.size()
+                    && sortedBy.size() >= bucketedBy.size()
+                    && ImmutableSet.copyOf(sortedBy.subList(0, bucketedBy.size())).equals(ImmutableSet.copyOf(bucketedBy))) {
+                streamPartitionColumns = Optional.of(ImmutableSet.<ColumnHandle>builder()
+                        .addAll(partitionColumns)
+                        .addAll(sortedBy.stream().map(columnHandles::get).iterator())
+                        .build());
+            }
+        }
+
         return new ConnectorTableLayout(
                 hiveLayoutHandle,
                 Optional.empty(),
                 predicate,
                 tablePartitioning,
-                Optional.empty(),
+                streamPartitionColumns,
                 discretePredicates,
-                ImmutableList.of());
+                localProperties);
+    }
+
+    private List<Optional<HiveBucketProperty>> getPartitionBucketProperties(SchemaTableName tableName, List<HivePartition> partitions)
+    {
+        List<String> partitionNames = partitions.stream()
+                .map(HivePartition::getPartitionId)
+                .filter(partitionId -> !partitionId.equals(UNPARTITIONED_ID))
+                .collect(toImmutableList());
+        if (partitionNames.isEmpty()) {
+            return ImmutableList.of();
+        }
+        return metastore.getPartitionsByNames(tableName.getSchemaName(), tableName.getTableName(), partitionNames).values().stream()
+                .map(partition -> partition.flatMap(value -> value.getStorage().getBucketProperty()))
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Bucketing and sort order are stored per partition, and may differ from the table
+     * when the table was altered after the partitions were written.
+     */
+    @VisibleForTesting
+    static boolean isSortedLikeTable(HiveBucketProperty tableBucketProperty, List<Optional<HiveBucketProperty>> partitionBucketProperties)
+    {
+        return partitionBucketProperties.stream().allMatch(partitionBucketProperty -> partitionBucketProperty.isPresent()
+                && partitionBucketProperty.get().getBucketedBy().equals(tableBucketProperty.getBucketedBy())
+                && partitionBucketProperty.get().getSortedBy().equals(tableBucketProperty.getSortedBy()));
     }
 
     @Override
@@ -2171,22 +2240,22 @@ public class HiveMetadata
             return TableStatisticsMetadata.empty();
         }
         List<String> partitionedBy = firstNonNull(getPartitionedBy(tableMetadata.getProperties()), ImmutableList.of());
-        return getStatisticsCollectionMetadata(tableMetadata.getColumns(), partitionedBy, false);
+        return getStatisticsCollectionMetadata(session, tableMetadata.getColumns(), partitionedBy, false);
     }
 
     @Override
     public TableStatisticsMetadata getStatisticsCollectionMetadata(ConnectorSession session, ConnectorTableMetadata tableMetadata)
     {
         List<String> partitionedBy = firstNonNull(getPartitionedBy(tableMetadata.getProperties()), ImmutableList.of());
-        return getStatisticsCollectionMetadata(tableMetadata.getColumns(), partitionedBy, true);
+        return getStatisticsCollectionMetadata(session, tableMetadata.getColumns(), partitionedBy, true);
     }
 
-    private TableStatisticsMetadata getStatisticsCollectionMetadata(List<ColumnMetadata> columns, List<String> partitionedBy, boolean includeRowCount)
+    private TableStatisticsMetadata getStatisticsCollectionMetadata(ConnectorSession session, List<ColumnMetadata> columns, List<String> partitionedBy, boolean includeRowCount)
     {
         Set<ColumnStatisticMetadata> columnStatistics = columns.stream()
                 .filter(column -> !partitionedBy.contains(column.getName()))
                 .filter(column -> !column.isHidden())
-                .map(this::getColumnStatisticMetadata)
+                .map(column -> getColumnStatisticMetadata(column.getName(), getSupportedColumnStatistics(session, column.getType())))
                 .flatMap(List::stream)
                 .collect(toImmutableSet());
 
@@ -2194,9 +2263,16 @@ public class HiveMetadata
         return new TableStatisticsMetadata(columnStatistics, tableStatistics, partitionedBy);
     }
 
-    private List<ColumnStatisticMetadata> getColumnStatisticMetadata(ColumnMetadata columnMetadata)
+    private Set<ColumnStatisticType> getSupportedColumnStatistics(ConnectorSession session, Type type)
     {
-        return getColumnStatisticMetadata(columnMetadata.getName(), metastore.getSupportedColumnStatistics(columnMetadata.getType()));
+        Set<ColumnStatisticType> statisticTypes = metastore.getSupportedColumnStatistics(type);
+        if (isCollectColumnHistograms(session)) {
+            return ImmutableSet.copyOf(statisticTypes);
+        }
+        // a histogram costs a quantile digest per column and partition written
+        return statisticTypes.stream()
+                .filter(statisticType -> statisticType != HISTOGRAM)
+                .collect(toImmutableSet());
     }
 
     private List<ColumnStatisticMetadata> getColumnStatisticMetadata(String columnName, Set<ColumnStatisticType> statisticTypes)
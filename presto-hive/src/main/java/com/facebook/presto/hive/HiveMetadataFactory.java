@@ -56,6 +56,7 @@ public class HiveMetadataFactory
     private final ListeningExecutorService fileRenameExecutor;
     private final TypeTranslator typeTranslator;
     private final StagingFileCommitter stagingFileCommitter;
+    private final TableInvalidationCallback tableInvalidationCallback;
     private final String prestoVersion;
 
     @Inject
@@ -74,6 +75,7 @@ public class HiveMetadataFactory
             JsonCodec<PartitionUpdate> partitionUpdateCodec,
             TypeTranslator typeTranslator,
             StagingFileCommitter stagingFileCommitter,
+            DirectoryLister directoryLister,
             NodeVersion nodeVersion)
     {
         this(
@@ -97,6 +99,7 @@ public class HiveMetadataFactory
                 fileRenameExecutor,
                 typeTranslator,
                 stagingFileCommitter,
+                directoryLister,
                 nodeVersion.toString());
     }
 
@@ -121,6 +124,7 @@ public class HiveMetadataFactory
             ListeningExecutorService fileRenameExecutor,
             TypeTranslator typeTranslator,
             StagingFileCommitter stagingFileCommitter,
+            TableInvalidationCallback tableInvalidationCallback,
             String prestoVersion)
     {
         this.allowCorruptWritesForTesting = allowCorruptWritesForTesting;
@@ -143,6 +147,7 @@ public class HiveMetadataFactory
         this.fileRenameExecutor = requireNonNull(fileRenameExecutor, "fileRenameExecutor is null");
         this.typeTranslator = requireNonNull(typeTranslator, "typeTranslator is null");
         this.stagingFileCommitter = requireNonNull(stagingFileCommitter, "stagingFileCommitter is null");
+        this.tableInvalidationCallback = requireNonNull(tableInvalidationCallback, "tableInvalidationCallback is null");
         this.prestoVersion = requireNonNull(prestoVersion, "prestoVersion is null");
         this.maxPartitions = maxPartitions;
 
@@ -162,7 +167,8 @@ public class HiveMetadataFactory
                 CachingHiveMetastore.memoizeMetastore(this.metastore, perTransactionCacheMaximumSize), // per-transaction cache
                 fileRenameExecutor,
                 skipDeletionForAlter,
-                skipTargetCleanupOnRollback);
+                skipTargetCleanupOnRollback,
+                tableInvalidationCallback);
 
         return new HiveMetadata(
                 metastore,
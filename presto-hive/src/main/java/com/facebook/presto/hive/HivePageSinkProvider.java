@@ -28,6 +28,7 @@ import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.event.client.EventClient;
@@ -37,6 +38,7 @@ import io.airlift.units.DataSize;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
 
@@ -112,18 +114,23 @@ public class HivePageSinkProvider
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorOutputTableHandle tableHandle, PageSinkProperties pageSinkProperties)
     {
-        HiveWritableTableHandle handle = (HiveOutputTableHandle) tableHandle;
-        return createPageSink(handle, true, session, pageSinkProperties.isPartitionCommitRequired());
+        HiveOutputTableHandle handle = (HiveOutputTableHandle) tableHandle;
+        return createPageSink(handle, true, handle.getAdditionalTableParameters(), session, pageSinkProperties.isPartitionCommitRequired());
     }
 
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorInsertTableHandle tableHandle, PageSinkProperties pageSinkProperties)
     {
         HiveInsertTableHandle handle = (HiveInsertTableHandle) tableHandle;
-        return createPageSink(handle, false, session, pageSinkProperties.isPartitionCommitRequired());
+        return createPageSink(handle, false, ImmutableMap.of(), session, pageSinkProperties.isPartitionCommitRequired());
     }
 
-    private ConnectorPageSink createPageSink(HiveWritableTableHandle handle, boolean isCreateTable, ConnectorSession session, boolean partitionCommitRequired)
+    private ConnectorPageSink createPageSink(
+            HiveWritableTableHandle handle,
+            boolean isCreateTable,
+            Map<String, String> additionalTableParameters,
+            ConnectorSession session,
+            boolean partitionCommitRequired)
     {
         OptionalInt bucketCount = OptionalInt.empty();
         List<SortingColumn> sortedBy = ImmutableList.of();
@@ -147,6 +154,7 @@ public class HivePageSinkProvider
                 handle.getLocationHandle(),
                 locationService,
                 handle.getFilePrefix(),
+                additionalTableParameters,
                 // The scope of metastore cache is within a single HivePageSink object
                 // TODO: Extend metastore cache scope to the entire transaction
                 new HivePageSinkMetadataProvider(handle.getPageSinkMetadata(), memoizeMetastore(metastore, perTransactionMetastoreCacheMaximumSize)),
@@ -24,6 +24,7 @@ import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.Subfield;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.RowExpressionService;
@@ -51,6 +52,7 @@ import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.SYNTHESIZED;
 import static com.facebook.presto.hive.HivePageSourceProvider.ColumnMapping.toColumnHandles;
 import static com.facebook.presto.hive.HiveSessionProperties.isPushdownFilterEnabled;
 import static com.facebook.presto.hive.HiveUtil.getPrefilledColumnValue;
+import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
 import static com.facebook.presto.spi.relation.ExpressionOptimizer.Level.MOST_OPTIMIZED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -94,6 +96,17 @@ public class HivePageSourceProvider
 
     @Override
     public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns)
+    {
+        return createPageSource(transaction, session, split, columns, TupleDomain.all());
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorSplit split,
+            List<ColumnHandle> columns,
+            TupleDomain<ColumnHandle> dynamicFilter)
     {
         List<HiveColumnHandle> hiveColumns = columns.stream()
                 .map(HiveColumnHandle.class::cast)
@@ -105,6 +118,7 @@ public class HivePageSourceProvider
         Configuration configuration = hdfsEnvironment.getConfiguration(new HdfsContext(session, hiveSplit.getDatabase(), hiveSplit.getTable()), path);
 
         if (isPushdownFilterEnabled(session)) {
+            // the dynamic filter is enforced by the engine
             return createSelectivePageSource(selectivePageSourceFactories, configuration, session, hiveSplit, hiveColumns, hiveStorageTimeZone, rowExpressionService);
         }
 
@@ -118,10 +132,12 @@ public class HivePageSourceProvider
                 hiveSplit.getStart(),
                 hiveSplit.getLength(),
                 hiveSplit.getFileSize(),
+                hiveSplit.getFileModifiedTime(),
                 hiveSplit.getSchema(),
                 hiveSplit.getDomainPredicate()
                         .transform(Subfield::getRootName)
-                        .transform(hiveSplit.getPredicateColumns()::get),
+                        .transform(hiveSplit.getPredicateColumns()::get)
+                        .intersect(getFileColumnDomains(dynamicFilter, hiveSplit)),
                 hiveColumns,
                 hiveSplit.getPartitionKeys(),
                 hiveStorageTimeZone,
@@ -135,6 +151,45 @@ public class HivePageSourceProvider
         throw new IllegalStateException("Could not find a file reader for split " + hiveSplit);
     }
 
+    @Override
+    public boolean isSplitPrunedByDynamicFilter(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        if (dynamicFilter.isNone()) {
+            return true;
+        }
+
+        HiveSplit hiveSplit = (HiveSplit) split;
+        Map<String, HivePartitionKey> partitionKeys = uniqueIndex(hiveSplit.getPartitionKeys(), HivePartitionKey::getName);
+        for (Map.Entry<ColumnHandle, Domain> entry : dynamicFilter.getDomains().get().entrySet()) {
+            HiveColumnHandle column = (HiveColumnHandle) entry.getKey();
+            HivePartitionKey partitionKey = partitionKeys.get(column.getName());
+            if (column.getColumnType() != PARTITION_KEY || partitionKey == null) {
+                continue;
+            }
+
+            Type type = typeManager.getType(column.getTypeSignature());
+            Object value = typedPartitionKey(partitionKey.getValue(), type, partitionKey.getName(), hiveStorageTimeZone);
+            if (!entry.getValue().includesNullableValue(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TupleDomain<HiveColumnHandle> getFileColumnDomains(TupleDomain<ColumnHandle> dynamicFilter, HiveSplit split)
+    {
+        if (!dynamicFilter.getDomains().isPresent()) {
+            return TupleDomain.none();
+        }
+
+        // partition keys are handled by split pruning, and the domains of coerced columns do not apply to the file type
+        Map<HiveColumnHandle, Domain> domains = dynamicFilter.getDomains().get().entrySet().stream()
+                .filter(entry -> ((HiveColumnHandle) entry.getKey()).getColumnType() == REGULAR)
+                .filter(entry -> !split.getColumnCoercions().containsKey(((HiveColumnHandle) entry.getKey()).getHiveColumnIndex()))
+                .collect(toImmutableMap(entry -> (HiveColumnHandle) entry.getKey(), Map.Entry::getValue));
+        return TupleDomain.withColumnDomains(domains);
+    }
+
     private static ConnectorPageSource createSelectivePageSource(
             Set<HiveSelectivePageSourceFactory> selectivePageSourceFactories,
             Configuration configuration,
@@ -184,6 +239,7 @@ public class HivePageSourceProvider
                     split.getStart(),
                     split.getLength(),
                     split.getFileSize(),
+                    split.getFileModifiedTime(),
                     split.getSchema(),
                     toColumnHandles(columnMappings, true),
                     prefilledValues,
@@ -209,6 +265,7 @@ public class HivePageSourceProvider
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             Properties schema,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             List<HiveColumnHandle> hiveColumns,
@@ -238,6 +295,7 @@ public class HivePageSourceProvider
                     start,
                     length,
                     fileSize,
+                    fileModifiedTime,
                     schema,
                     toColumnHandles(regularAndInterimColumnMappings, true),
                     effectivePredicate,
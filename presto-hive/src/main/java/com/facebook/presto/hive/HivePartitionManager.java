@@ -24,7 +24,9 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Marker;
 import com.facebook.presto.spi.predicate.NullableValue;
+import com.facebook.presto.spi.predicate.Range;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.BooleanType;
@@ -41,6 +43,7 @@ import com.facebook.presto.spi.type.TinyintType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicates;
 import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
@@ -63,6 +66,7 @@ import java.util.concurrent.TimeUnit;
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucketFilter;
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucketHandle;
 import static com.facebook.presto.hive.HiveSessionProperties.shouldIgnoreTableBucketing;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
 import static com.facebook.presto.hive.HiveUtil.getPartitionKeyColumnHandles;
 import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
 import static com.facebook.presto.hive.metastore.MetastoreUtil.getProtectMode;
@@ -82,9 +86,11 @@ import static java.util.stream.Collectors.toList;
 public class HivePartitionManager
 {
     private static final String PARTITION_VALUE_WILDCARD = "";
+    private static final int MAX_METASTORE_FILTER_RANGES = 100;
 
     private final DateTimeZone timeZone;
     private final boolean assumeCanonicalPartitionKeys;
+    private final boolean partitionFilterPushdownEnabled;
     private final TypeManager typeManager;
 
     @Inject
@@ -95,16 +101,19 @@ public class HivePartitionManager
         this(
                 typeManager,
                 hiveClientConfig.getDateTimeZone(),
-                hiveClientConfig.isAssumeCanonicalPartitionKeys());
+                hiveClientConfig.isAssumeCanonicalPartitionKeys(),
+                hiveClientConfig.isPartitionFilterPushdownEnabled());
     }
 
     public HivePartitionManager(
             TypeManager typeManager,
             DateTimeZone timeZone,
-            boolean assumeCanonicalPartitionKeys)
+            boolean assumeCanonicalPartitionKeys,
+            boolean partitionFilterPushdownEnabled)
     {
         this.timeZone = requireNonNull(timeZone, "timeZone is null");
         this.assumeCanonicalPartitionKeys = assumeCanonicalPartitionKeys;
+        this.partitionFilterPushdownEnabled = partitionFilterPushdownEnabled;
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
     }
 
@@ -280,10 +289,98 @@ public class HivePartitionManager
         }
 
         // fetch the partition names
+        if (partitionFilterPushdownEnabled) {
+            Optional<String> metastoreFilter = getMetastoreFilter(partitionKeys, effectivePredicate);
+            if (metastoreFilter.isPresent()) {
+                return metastore.getPartitionNamesByFilter(tableName.getSchemaName(), tableName.getTableName(), filter, metastoreFilter.get())
+                        .orElseThrow(() -> new TableNotFoundException(tableName));
+            }
+        }
         return metastore.getPartitionNamesByParts(tableName.getSchemaName(), tableName.getTableName(), filter)
                 .orElseThrow(() -> new TableNotFoundException(tableName));
     }
 
+    /**
+     * Translates the domains of string partition keys to a metastore filter expression, as accepted by
+     * {@code get_partitions_by_filter}. Domains of other partition keys are left for Presto to evaluate,
+     * so the partitions matching the filter are a superset of the partitions matching the predicate.
+     */
+    @VisibleForTesting
+    static Optional<String> getMetastoreFilter(List<HiveColumnHandle> partitionKeys, TupleDomain<ColumnHandle> effectivePredicate)
+    {
+        checkArgument(effectivePredicate.getDomains().isPresent());
+
+        List<String> conjuncts = new ArrayList<>();
+        for (HiveColumnHandle partitionKey : partitionKeys) {
+            Domain domain = effectivePredicate.getDomains().get().get(partitionKey);
+            if (domain == null || !partitionKey.getHiveType().equals(HIVE_STRING) || domain.getValues().isAll()) {
+                continue;
+            }
+            getMetastoreFilter(partitionKey.getName(), domain).ifPresent(conjuncts::add);
+        }
+        if (conjuncts.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(String.join(" and ", conjuncts));
+    }
+
+    private static Optional<String> getMetastoreFilter(String columnName, Domain domain)
+    {
+        List<Range> ranges = domain.getValues().getRanges().getOrderedRanges();
+        if (ranges.size() > MAX_METASTORE_FILTER_RANGES) {
+            return Optional.empty();
+        }
+
+        List<String> disjuncts = new ArrayList<>();
+        for (Range range : ranges) {
+            if (range.isSingleValue()) {
+                Optional<String> value = toFilterLiteral(range.getSingleValue());
+                if (!value.isPresent()) {
+                    return Optional.empty();
+                }
+                disjuncts.add(format("%s = %s", columnName, value.get()));
+                continue;
+            }
+            List<String> bounds = new ArrayList<>();
+            if (!range.getLow().isLowerUnbounded()) {
+                Optional<String> value = toFilterLiteral(range.getLow().getValue());
+                if (!value.isPresent()) {
+                    return Optional.empty();
+                }
+                bounds.add(format("%s %s %s", columnName, range.getLow().getBound() == Marker.Bound.EXACTLY ? ">=" : ">", value.get()));
+            }
+            if (!range.getHigh().isUpperUnbounded()) {
+                Optional<String> value = toFilterLiteral(range.getHigh().getValue());
+                if (!value.isPresent()) {
+                    return Optional.empty();
+                }
+                bounds.add(format("%s %s %s", columnName, range.getHigh().getBound() == Marker.Bound.EXACTLY ? "<=" : "<", value.get()));
+            }
+            if (bounds.isEmpty()) {
+                // the column is not restricted by this range
+                return Optional.empty();
+            }
+            disjuncts.add("(" + String.join(" and ", bounds) + ")");
+        }
+        if (domain.isNullAllowed()) {
+            disjuncts.add(format("%s = \"%s\"", columnName, HivePartitionKey.HIVE_DEFAULT_DYNAMIC_PARTITION));
+        }
+        if (disjuncts.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of("(" + String.join(" or ", disjuncts) + ")");
+    }
+
+    private static Optional<String> toFilterLiteral(Object value)
+    {
+        String string = ((Slice) value).toStringUtf8();
+        // the metastore filter grammar has no escapes for quotes
+        if (string.indexOf('"') >= 0 || string.indexOf('\\') >= 0) {
+            return Optional.empty();
+        }
+        return Optional.of("\"" + string + "\"");
+    }
+
     public static HivePartition parsePartition(
             SchemaTableName tableName,
             String partitionName,
@@ -36,6 +36,7 @@ public interface HiveSelectivePageSourceFactory
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             Properties schema,
             List<HiveColumnHandle> columns,
             Map<Integer, String> prefilledValues,   // key is hiveColumnIndex
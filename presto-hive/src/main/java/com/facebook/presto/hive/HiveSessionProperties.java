@@ -65,8 +65,11 @@ public final class HiveSessionProperties
     private static final String RESPECT_TABLE_FORMAT = "respect_table_format";
     private static final String PARQUET_USE_COLUMN_NAME = "parquet_use_column_names";
     private static final String PARQUET_FAIL_WITH_CORRUPTED_STATISTICS = "parquet_fail_with_corrupted_statistics";
+    private static final String PARQUET_SELECTIVE_READER_ENABLED = "parquet_selective_reader_enabled";
+    private static final String PARQUET_PAGE_INDEX_ENABLED = "parquet_page_index_enabled";
     private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
+    private static final String PARQUET_OPTIMIZED_WRITER_ENABLED = "parquet_optimized_writer_enabled";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
     public static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
@@ -85,6 +88,9 @@ public final class HiveSessionProperties
     private static final String TEMPORARY_TABLE_COMPRESSION_CODEC = "temporary_table_compression_codec";
     public static final String PUSHDOWN_FILTER_ENABLED = "pushdown_filter_enabled";
     public static final String VIRTUAL_BUCKET_COUNT = "virtual_bucket_count";
+    private static final String SOFT_AFFINITY_SCHEDULING_ENABLED = "soft_affinity_scheduling_enabled";
+    public static final String STREAMING_AGGREGATION_ENABLED = "streaming_aggregation_enabled";
+    private static final String COLLECT_COLUMN_HISTOGRAMS = "collect_column_histograms";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -255,6 +261,16 @@ public final class HiveSessionProperties
                         "Parquet: Fail when scanning Parquet files with corrupted statistics",
                         hiveClientConfig.isFailOnCorruptedParquetStatistics(),
                         false),
+                booleanProperty(
+                        PARQUET_SELECTIVE_READER_ENABLED,
+                        "Experimental: Parquet: Apply filters to values while decoding them",
+                        hiveClientConfig.isParquetSelectiveReaderEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_PAGE_INDEX_ENABLED,
+                        "Parquet: Use page indexes to skip pages that do not match the predicate",
+                        hiveClientConfig.isParquetPageIndexEnabled(),
+                        false),
                 dataSizeSessionProperty(
                         PARQUET_WRITER_BLOCK_SIZE,
                         "Parquet: Writer block size",
@@ -265,6 +281,11 @@ public final class HiveSessionProperties
                         "Parquet: Writer page size",
                         parquetFileWriterConfig.getPageSize(),
                         false),
+                booleanProperty(
+                        PARQUET_OPTIMIZED_WRITER_ENABLED,
+                        "Experimental: Parquet: Enable optimized writer",
+                        parquetFileWriterConfig.isOptimizedWriterEnabled(),
+                        false),
                 dataSizeSessionProperty(
                         MAX_SPLIT_SIZE,
                         "Max split size",
@@ -320,6 +341,21 @@ public final class HiveSessionProperties
                         "S3 Select pushdown enabled",
                         hiveClientConfig.isS3SelectPushdownEnabled(),
                         false),
+                booleanProperty(
+                        SOFT_AFFINITY_SCHEDULING_ENABLED,
+                        "Prefer scheduling all splits of a file on the same worker",
+                        hiveClientConfig.isSoftAffinitySchedulingEnabled(),
+                        false),
+                booleanProperty(
+                        STREAMING_AGGREGATION_ENABLED,
+                        "Expose the sort order of bucketed tables, and read each bucket file with a single split",
+                        hiveClientConfig.isStreamingAggregationEnabled(),
+                        false),
+                booleanProperty(
+                        COLLECT_COLUMN_HISTOGRAMS,
+                        "Collect histograms of numeric and date columns with the column statistics",
+                        hiveClientConfig.isCollectColumnHistograms(),
+                        false),
                 booleanProperty(
                         TEMPORARY_STAGING_DIRECTORY_ENABLED,
                         "Should use temporary staging directory for write operations",
@@ -502,6 +538,16 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_FAIL_WITH_CORRUPTED_STATISTICS, Boolean.class);
     }
 
+    public static boolean isParquetSelectiveReaderEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_SELECTIVE_READER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetPageIndexEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_PAGE_INDEX_ENABLED, Boolean.class);
+    }
+
     public static DataSize getParquetWriterBlockSize(ConnectorSession session)
     {
         return session.getProperty(PARQUET_WRITER_BLOCK_SIZE, DataSize.class);
@@ -512,6 +558,11 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_WRITER_PAGE_SIZE, DataSize.class);
     }
 
+    public static boolean isParquetOptimizedWriterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_OPTIMIZED_WRITER_ENABLED, Boolean.class);
+    }
+
     public static DataSize getMaxSplitSize(ConnectorSession session)
     {
         return session.getProperty(MAX_SPLIT_SIZE, DataSize.class);
@@ -597,6 +648,21 @@ public final class HiveSessionProperties
         return session.getProperty(TEMPORARY_TABLE_COMPRESSION_CODEC, HiveCompressionCodec.class);
     }
 
+    public static boolean isSoftAffinitySchedulingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(SOFT_AFFINITY_SCHEDULING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isStreamingAggregationEnabled(ConnectorSession session)
+    {
+        return session.getProperty(STREAMING_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static boolean isCollectColumnHistograms(ConnectorSession session)
+    {
+        return session.getProperty(COLLECT_COLUMN_HISTOGRAMS, Boolean.class);
+    }
+
     public static boolean isPushdownFilterEnabled(ConnectorSession session)
     {
         return session.getProperty(PUSHDOWN_FILTER_ENABLED, Boolean.class);
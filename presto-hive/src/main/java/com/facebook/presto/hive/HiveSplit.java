@@ -32,6 +32,7 @@ import java.util.Properties;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.floorMod;
 import static java.util.Objects.requireNonNull;
 
 public class HiveSplit
@@ -41,6 +42,7 @@ public class HiveSplit
     private final long start;
     private final long length;
     private final long fileSize;
+    private final long fileModifiedTime;
     private final Properties schema;
     private final List<HivePartitionKey> partitionKeys;
     private final List<HostAddress> addresses;
@@ -53,6 +55,7 @@ public class HiveSplit
     private final OptionalInt readBucketNumber;
     private final OptionalInt tableBucketNumber;
     private final boolean forceLocalScheduling;
+    private final boolean softAffinity;
     private final Map<Integer, HiveType> columnCoercions; // key: hiveColumnIndex
     private final Optional<BucketConversion> bucketConversion;
     private final boolean s3SelectPushdownEnabled;
@@ -66,12 +69,14 @@ public class HiveSplit
             @JsonProperty("start") long start,
             @JsonProperty("length") long length,
             @JsonProperty("fileSize") long fileSize,
+            @JsonProperty("fileModifiedTime") long fileModifiedTime,
             @JsonProperty("schema") Properties schema,
             @JsonProperty("partitionKeys") List<HivePartitionKey> partitionKeys,
             @JsonProperty("addresses") List<HostAddress> addresses,
             @JsonProperty("readBucketNumber") OptionalInt readBucketNumber,
             @JsonProperty("tableBucketNumber") OptionalInt tableBucketNumber,
             @JsonProperty("forceLocalScheduling") boolean forceLocalScheduling,
+            @JsonProperty("softAffinity") boolean softAffinity,
             @JsonProperty("domainPredicate") TupleDomain<Subfield> domainPredicate,
             @JsonProperty("remainingPredicate") RowExpression remainingPredicate,
             @JsonProperty("predicateColumns") Map<String, HiveColumnHandle> predicateColumns,
@@ -104,12 +109,14 @@ public class HiveSplit
         this.start = start;
         this.length = length;
         this.fileSize = fileSize;
+        this.fileModifiedTime = fileModifiedTime;
         this.schema = schema;
         this.partitionKeys = ImmutableList.copyOf(partitionKeys);
         this.addresses = ImmutableList.copyOf(addresses);
         this.readBucketNumber = readBucketNumber;
         this.tableBucketNumber = tableBucketNumber;
         this.forceLocalScheduling = forceLocalScheduling;
+        this.softAffinity = softAffinity;
         this.domainPredicate = domainPredicate;
         this.remainingPredicate = remainingPredicate;
         this.predicateColumns = predicateColumns;
@@ -160,6 +167,12 @@ public class HiveSplit
         return fileSize;
     }
 
+    @JsonProperty
+    public long getFileModifiedTime()
+    {
+        return fileModifiedTime;
+    }
+
     @JsonProperty
     public Properties getSchema()
     {
@@ -215,6 +228,12 @@ public class HiveSplit
         return forceLocalScheduling;
     }
 
+    @JsonProperty
+    public boolean isSoftAffinity()
+    {
+        return softAffinity;
+    }
+
     @JsonProperty
     public Map<Integer, HiveType> getColumnCoercions()
     {
@@ -233,12 +252,33 @@ public class HiveSplit
         return !forceLocalScheduling;
     }
 
+    @Override
+    public List<HostAddress> getPreferredNodes(List<HostAddress> sortedCandidates)
+    {
+        if (!softAffinity || sortedCandidates.isEmpty()) {
+            return ImmutableList.of();
+        }
+        // all splits of a file go to the same node, which can then serve them from its local cache
+        return ImmutableList.of(sortedCandidates.get(floorMod(path.hashCode(), sortedCandidates.size())));
+    }
+
     @JsonProperty
     public boolean isS3SelectPushdownEnabled()
     {
         return s3SelectPushdownEnabled;
     }
 
+    @Override
+    public Optional<String> getSplitIdentifier()
+    {
+        // files are immutable in Hive, except when they are overwritten in place, which changes the modification time
+        if (fileModifiedTime == 0) {
+            // the file system does not report modification times, so a rewritten file cannot be told apart
+            return Optional.empty();
+        }
+        return Optional.of(String.join(":", path, String.valueOf(start), String.valueOf(length), String.valueOf(fileModifiedTime)));
+    }
+
     @Override
     public Object getInfo()
     {
@@ -251,6 +291,7 @@ public class HiveSplit
                 .put("database", database)
                 .put("table", table)
                 .put("forceLocalScheduling", forceLocalScheduling)
+                .put("softAffinity", softAffinity)
                 .put("partitionName", partitionName)
                 .put("s3SelectPushdownEnabled", s3SelectPushdownEnabled)
                 .build();
@@ -36,6 +36,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
@@ -44,6 +45,8 @@ import org.weakref.jmx.Nested;
 
 import javax.inject.Inject;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +73,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.transform;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -90,6 +94,7 @@ public class HiveSplitManager
     private final DataSize maxOutstandingSplitsSize;
     private final int minPartitionBatchSize;
     private final int maxPartitionBatchSize;
+    private final int partitionLoaderConcurrency;
     private final int maxInitialSplits;
     private final int splitLoaderConcurrency;
     private final boolean recursiveDfsWalkerEnabled;
@@ -117,6 +122,7 @@ public class HiveSplitManager
                 hiveClientConfig.getMaxOutstandingSplitsSize(),
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
+                hiveClientConfig.getPartitionLoaderConcurrency(),
                 hiveClientConfig.getMaxInitialSplits(),
                 hiveClientConfig.getSplitLoaderConcurrency(),
                 hiveClientConfig.getRecursiveDirWalkerEnabled());
@@ -134,6 +140,7 @@ public class HiveSplitManager
             DataSize maxOutstandingSplitsSize,
             int minPartitionBatchSize,
             int maxPartitionBatchSize,
+            int partitionLoaderConcurrency,
             int maxInitialSplits,
             int splitLoaderConcurrency,
             boolean recursiveDfsWalkerEnabled)
@@ -150,6 +157,8 @@ public class HiveSplitManager
         this.maxOutstandingSplitsSize = maxOutstandingSplitsSize;
         this.minPartitionBatchSize = minPartitionBatchSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
+        checkArgument(partitionLoaderConcurrency >= 1, "partitionLoaderConcurrency must be at least 1");
+        this.partitionLoaderConcurrency = partitionLoaderConcurrency;
         this.maxInitialSplits = maxInitialSplits;
         this.splitLoaderConcurrency = splitLoaderConcurrency;
         this.recursiveDfsWalkerEnabled = recursiveDfsWalkerEnabled;
@@ -310,7 +319,8 @@ public class HiveSplitManager
         }
 
         Iterable<List<HivePartition>> partitionNameBatches = partitionExponentially(hivePartitions, minPartitionBatchSize, maxPartitionBatchSize);
-        Iterable<List<HivePartitionMetadata>> partitionBatches = transform(partitionNameBatches, partitionBatch -> {
+        // batches are loaded ahead of split generation, so that the first splits are produced while later partitions are still loading
+        Iterable<List<HivePartitionMetadata>> partitionBatches = transformConcurrently(partitionNameBatches, partitionBatch -> {
             Map<String, Optional<Partition>> batch = metastore.getPartitionsByNames(
                     tableName.getSchemaName(),
                     tableName.getTableName(),
@@ -404,7 +414,7 @@ public class HiveSplitManager
             }
 
             return results.build();
-        });
+        }, executor, partitionLoaderConcurrency);
         return concat(partitionBatches);
     }
 
@@ -454,6 +464,42 @@ public class HiveSplitManager
         };
     }
 
+    /**
+     * Lazily applies the function to the values, computing up to {@code concurrency} results ahead of the
+     * consumer on the executor. A result that the executor has not started computing yet is computed by
+     * the consumer itself, so the consumer never waits for a task that is queued behind it.
+     */
+    private static <T, R> Iterable<R> transformConcurrently(Iterable<T> values, Function<T, R> function, Executor executor, int concurrency)
+    {
+        if (concurrency == 1) {
+            return transform(values, function::apply);
+        }
+        return () -> new AbstractIterator<R>()
+        {
+            private final Iterator<T> iterator = values.iterator();
+            private final Deque<ListenableFutureTask<R>> pending = new ArrayDeque<>();
+
+            @Override
+            protected R computeNext()
+            {
+                while (pending.size() < concurrency && iterator.hasNext()) {
+                    T value = iterator.next();
+                    ListenableFutureTask<R> task = ListenableFutureTask.create(() -> function.apply(value));
+                    pending.add(task);
+                    executor.execute(task);
+                }
+
+                ListenableFutureTask<R> task = pending.poll();
+                if (task == null) {
+                    return endOfData();
+                }
+                // no-op if the executor already started the task
+                task.run();
+                return getFutureValue(task);
+            }
+        };
+    }
+
     private static class ErrorCodedExecutor
             implements Executor
     {
@@ -35,6 +35,7 @@ import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.airlift.event.client.EventClient;
@@ -111,6 +112,7 @@ public class HiveWriterFactory
     private final LocationHandle locationHandle;
     private final LocationService locationService;
     private final String filePrefix;
+    private final Map<String, String> additionalTableParameters;
 
     private final HivePageSinkMetadataProvider pageSinkMetadataProvider;
     private final TypeManager typeManager;
@@ -152,6 +154,7 @@ public class HiveWriterFactory
             LocationHandle locationHandle,
             LocationService locationService,
             String filePrefix,
+            Map<String, String> additionalTableParameters,
             HivePageSinkMetadataProvider pageSinkMetadataProvider,
             TypeManager typeManager,
             HdfsEnvironment hdfsEnvironment,
@@ -177,6 +180,7 @@ public class HiveWriterFactory
         this.locationHandle = requireNonNull(locationHandle, "locationHandle is null");
         this.locationService = requireNonNull(locationService, "locationService is null");
         this.filePrefix = requireNonNull(filePrefix, "filePrefix is null");
+        this.additionalTableParameters = ImmutableMap.copyOf(requireNonNull(additionalTableParameters, "additionalTableParameters is null"));
 
         this.pageSinkMetadataProvider = requireNonNull(pageSinkMetadataProvider, "pageSinkMetadataProvider is null");
 
@@ -296,6 +300,8 @@ public class HiveWriterFactory
                 //           or a new unpartitioned table.
                 updateMode = UpdateMode.NEW;
                 schema = new Properties();
+                // table parameters such as the ORC bloom filter columns are not in the metastore yet
+                additionalTableParameters.forEach(schema::setProperty);
                 schema.setProperty(META_TABLE_COLUMNS, dataColumns.stream()
                         .map(DataColumn::getName)
                         .collect(joining(",")));
@@ -47,6 +47,7 @@ public class InternalHiveSplit
     private final byte[] relativeUri;
     private final long end;
     private final long fileSize;
+    private final long fileModifiedTime;
 
     // encode the hive blocks as an array of longs and list of list of addresses to save memory
     //if all blockAddress lists are empty, store only the empty list
@@ -71,6 +72,7 @@ public class InternalHiveSplit
             long start,
             long end,
             long fileSize,
+            long fileModifiedTime,
             List<InternalHiveBlock> blocks,
             OptionalInt readBucketNumber,
             OptionalInt tableBucketNumber,
@@ -91,6 +93,7 @@ public class InternalHiveSplit
         this.start = start;
         this.end = end;
         this.fileSize = fileSize;
+        this.fileModifiedTime = fileModifiedTime;
         this.readBucketNumber = readBucketNumber.orElse(-1);
         this.tableBucketNumber = tableBucketNumber.orElse(-1);
         this.splittable = splittable;
@@ -132,6 +135,11 @@ public class InternalHiveSplit
         return fileSize;
     }
 
+    public long getFileModifiedTime()
+    {
+        return fileModifiedTime;
+    }
+
     public boolean isS3SelectPushdownEnabled()
     {
         return s3SelectPushdownEnabled;
@@ -44,12 +44,15 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITE_VALIDATION_FAILED;
+import static com.facebook.presto.hive.HiveMetadata.ORC_BLOOM_FILTER_COLUMNS_KEY;
+import static com.facebook.presto.hive.HiveMetadata.ORC_BLOOM_FILTER_FPP_KEY;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcOptimizedWriterMaxDictionaryMemory;
@@ -62,6 +65,8 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcStringStatist
 import static com.facebook.presto.hive.HiveType.toHiveTypes;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -153,6 +158,16 @@ public class OrcFileWriterFactory
                 .map(hiveType -> hiveType.getType(typeManager))
                 .collect(toList());
 
+        OrcWriterOptions writerOptions = orcWriterOptions
+                .withStripeMinSize(getOrcOptimizedWriterMinStripeSize(session))
+                .withStripeMaxSize(getOrcOptimizedWriterMaxStripeSize(session))
+                .withStripeMaxRowCount(getOrcOptimizedWriterMaxStripeRows(session))
+                .withDictionaryMaxMemory(getOrcOptimizedWriterMaxDictionaryMemory(session))
+                .withMaxStringStatisticsLimit(getOrcStringStatisticsLimit(session));
+        if (orcEncoding == ORC) {
+            writerOptions = withBloomFilterOptions(writerOptions, schema, fileColumnNames);
+        }
+
         int[] fileInputColumnIndexes = fileColumnNames.stream()
                 .mapToInt(inputColumnNames::indexOf)
                 .toArray();
@@ -193,12 +208,7 @@ public class OrcFileWriterFactory
                     fileColumnNames,
                     fileColumnTypes,
                     compression,
-                    orcWriterOptions
-                            .withStripeMinSize(getOrcOptimizedWriterMinStripeSize(session))
-                            .withStripeMaxSize(getOrcOptimizedWriterMaxStripeSize(session))
-                            .withStripeMaxRowCount(getOrcOptimizedWriterMaxStripeRows(session))
-                            .withDictionaryMaxMemory(getOrcOptimizedWriterMaxDictionaryMemory(session))
-                            .withMaxStringStatisticsLimit(getOrcStringStatisticsLimit(session)),
+                    writerOptions,
                     fileInputColumnIndexes,
                     ImmutableMap.<String, String>builder()
                             .put(HiveMetadata.PRESTO_VERSION_NAME, nodeVersion.toString())
@@ -223,6 +233,33 @@ public class OrcFileWriterFactory
         return new OutputStreamOrcDataSink(fileSystem.create(path));
     }
 
+    private static OrcWriterOptions withBloomFilterOptions(OrcWriterOptions orcWriterOptions, Properties schema, List<String> fileColumnNames)
+    {
+        String bloomFilterColumns = schema.getProperty(ORC_BLOOM_FILTER_COLUMNS_KEY);
+        if (bloomFilterColumns == null) {
+            return orcWriterOptions;
+        }
+
+        // partition columns are not stored in the file
+        Set<String> columns = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(bloomFilterColumns).stream()
+                .map(column -> column.toLowerCase(ENGLISH))
+                .filter(fileColumnNames::contains)
+                .collect(toImmutableSet());
+
+        String bloomFilterFpp = schema.getProperty(ORC_BLOOM_FILTER_FPP_KEY);
+        if (bloomFilterFpp == null) {
+            return orcWriterOptions.withBloomFilterColumns(columns);
+        }
+        try {
+            return orcWriterOptions
+                    .withBloomFilterColumns(columns)
+                    .withBloomFilterFpp(Double.parseDouble(bloomFilterFpp));
+        }
+        catch (IllegalArgumentException e) {
+            throw new PrestoException(HIVE_UNSUPPORTED_FORMAT, format("Invalid ORC bloom filter false positive probability: %s", bloomFilterFpp), e);
+        }
+    }
+
     private static CompressionKind getCompression(Properties schema, JobConf configuration, OrcEncoding orcEncoding)
     {
         String compressionName = schema.getProperty(OrcTableProperties.COMPRESSION.getPropName());
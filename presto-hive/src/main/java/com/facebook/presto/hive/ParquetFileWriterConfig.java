@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
 import parquet.hadoop.ParquetWriter;
 
@@ -23,6 +24,7 @@ public class ParquetFileWriterConfig
 {
     private DataSize blockSize = new DataSize(ParquetWriter.DEFAULT_BLOCK_SIZE, BYTE);
     private DataSize pageSize = new DataSize(ParquetWriter.DEFAULT_PAGE_SIZE, BYTE);
+    private boolean optimizedWriterEnabled;
 
     public DataSize getBlockSize()
     {
@@ -47,4 +49,17 @@ public class ParquetFileWriterConfig
         this.pageSize = pageSize;
         return this;
     }
+
+    public boolean isOptimizedWriterEnabled()
+    {
+        return optimizedWriterEnabled;
+    }
+
+    @Config("hive.parquet.optimized-writer.enabled")
+    @ConfigDescription("Write Parquet files with the native Presto writer instead of the Hive record writer")
+    public ParquetFileWriterConfig setOptimizedWriterEnabled(boolean optimizedWriterEnabled)
+    {
+        this.optimizedWriterEnabled = optimizedWriterEnabled;
+        return this;
+    }
 }
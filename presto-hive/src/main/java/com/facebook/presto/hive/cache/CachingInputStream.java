@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serves reads of a remote file through {@link LocalDiskFileCache}. The remote stream is
+ * only used to load blocks that are not cached yet.
+ */
+class CachingInputStream
+        extends FSInputStream
+{
+    private final LocalDiskFileCache cache;
+    private final FSDataInputStream remote;
+    private final String fileKey;
+    private final long fileSize;
+
+    private long position;
+
+    public CachingInputStream(LocalDiskFileCache cache, FSDataInputStream remote, String fileKey, long fileSize)
+    {
+        this.cache = requireNonNull(cache, "cache is null");
+        this.remote = requireNonNull(remote, "remote is null");
+        this.fileKey = requireNonNull(fileKey, "fileKey is null");
+        this.fileSize = fileSize;
+    }
+
+    @Override
+    public void seek(long position)
+            throws IOException
+    {
+        if (position < 0 || position > fileSize) {
+            throw new EOFException(format("Cannot seek to %s in %s of size %s", position, fileKey, fileSize));
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long getPos()
+    {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPosition)
+    {
+        return false;
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        byte[] buffer = new byte[1];
+        if (read(buffer, 0, 1) <= 0) {
+            return -1;
+        }
+        return buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        int bytesRead = read(position, buffer, offset, length);
+        if (bytesRead > 0) {
+            position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= fileSize) {
+            return -1;
+        }
+        int bytesToRead = (int) min(length, fileSize - position);
+        cache.read(fileKey, fileSize, remote, position, buffer, offset, bytesToRead);
+        return bytesToRead;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position < 0 || position + length > fileSize) {
+            throw new EOFException(format("Cannot read %s bytes at %s from %s of size %s", length, position, fileKey, fileSize));
+        }
+        cache.read(fileKey, fileSize, remote, position, buffer, offset, length);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        remote.close();
+    }
+}
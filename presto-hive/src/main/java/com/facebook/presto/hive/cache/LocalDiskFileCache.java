@@ -0,0 +1,285 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.sha256;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.write;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+
+/**
+ * Read-through cache that keeps fixed size blocks of remote files on local disk.
+ * <p>
+ * Every block is stored in its own file, named after the hash of the remote path, the
+ * modification time of the remote file and the block index. The files on disk are the
+ * index of the cache, so blocks cached before a restart are used again. Blocks are
+ * evicted in least recently used order once the cache grows beyond its maximum size.
+ */
+public class LocalDiskFileCache
+        implements LocalFileCache
+{
+    private static final Logger log = Logger.get(LocalDiskFileCache.class);
+
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxSizeInBytes;
+    private final int blockSize;
+
+    // access ordered, so iteration starts at the least recently used block
+    @GuardedBy("this")
+    private final LinkedHashMap<File, Long> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long cachedBytes;
+
+    private final CounterStat hitBytes = new CounterStat();
+    private final CounterStat missBytes = new CounterStat();
+    private final CounterStat evictedBlocks = new CounterStat();
+
+    public LocalDiskFileCache(File directory, DataSize maxSize, DataSize blockSize)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxSizeInBytes = requireNonNull(maxSize, "maxSize is null").toBytes();
+        this.blockSize = toIntExact(requireNonNull(blockSize, "blockSize is null").toBytes());
+        checkArgument(this.blockSize > 0, "blockSize must be greater than zero");
+
+        loadBlocks();
+    }
+
+    @Override
+    public FSDataInputStream open(FileSystem fileSystem, Path path, long fileSize, long modificationTime)
+            throws IOException
+    {
+        String fileKey = sha256().hashString(path.toString(), UTF_8) + "-" + modificationTime;
+        return new FSDataInputStream(new CachingInputStream(this, fileSystem.open(path), fileKey, fileSize));
+    }
+
+    void read(String fileKey, long fileSize, FSDataInputStream remote, long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        while (length > 0) {
+            if (position >= fileSize) {
+                throw new EOFException(format("Cannot read at %s from %s of size %s", position, fileKey, fileSize));
+            }
+            long blockIndex = position / blockSize;
+            long blockStart = blockIndex * blockSize;
+            int blockLength = toIntExact(min(blockSize, fileSize - blockStart));
+            int offsetInBlock = toIntExact(position - blockStart);
+            int chunkLength = min(length, blockLength - offsetInBlock);
+
+            File blockFile = blockFile(fileKey, blockIndex);
+            if (readCachedBlock(blockFile, offsetInBlock, buffer, offset, chunkLength)) {
+                hitBytes.update(chunkLength);
+            }
+            else {
+                byte[] block = new byte[blockLength];
+                remote.readFully(blockStart, block, 0, blockLength);
+                System.arraycopy(block, offsetInBlock, buffer, offset, chunkLength);
+                missBytes.update(chunkLength);
+                cacheBlock(blockFile, block);
+            }
+
+            position += chunkLength;
+            offset += chunkLength;
+            length -= chunkLength;
+        }
+    }
+
+    private boolean readCachedBlock(File blockFile, int offsetInBlock, byte[] buffer, int offset, int length)
+    {
+        synchronized (this) {
+            // the lookup also marks the block as recently used
+            if (blocks.get(blockFile) == null) {
+                return false;
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(blockFile, "r")) {
+            file.seek(offsetInBlock);
+            file.readFully(buffer, offset, length);
+        }
+        catch (IOException e) {
+            // the block was evicted concurrently or is damaged, so read it from the remote file
+            removeBlock(blockFile);
+            return false;
+        }
+
+        // keep the recency order across restarts
+        blockFile.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    private void cacheBlock(File blockFile, byte[] block)
+    {
+        File temporaryFile = new File(blockFile.getPath() + "." + randomUUID() + TEMPORARY_FILE_SUFFIX);
+        try {
+            createDirectories(blockFile.getParentFile().toPath());
+            write(temporaryFile.toPath(), block);
+            move(temporaryFile.toPath(), blockFile.toPath(), ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to cache block %s", blockFile);
+            temporaryFile.delete();
+            return;
+        }
+
+        List<File> evicted;
+        synchronized (this) {
+            Long previousLength = blocks.put(blockFile, (long) block.length);
+            cachedBytes += block.length - (previousLength == null ? 0 : previousLength);
+            evicted = evictBlocks();
+        }
+        evicted.forEach(File::delete);
+    }
+
+    private void removeBlock(File blockFile)
+    {
+        synchronized (this) {
+            Long length = blocks.remove(blockFile);
+            if (length != null) {
+                cachedBytes -= length;
+            }
+        }
+        blockFile.delete();
+    }
+
+    @GuardedBy("this")
+    private List<File> evictBlocks()
+    {
+        ImmutableList.Builder<File> evicted = ImmutableList.builder();
+        Iterator<Entry<File, Long>> iterator = blocks.entrySet().iterator();
+        while (cachedBytes > maxSizeInBytes && iterator.hasNext()) {
+            Entry<File, Long> entry = iterator.next();
+            iterator.remove();
+            cachedBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            evictedBlocks.update(1);
+        }
+        return evicted.build();
+    }
+
+    private File blockFile(String fileKey, long blockIndex)
+    {
+        // spread the blocks over subdirectories to keep directory listings short
+        return new File(new File(directory, fileKey.substring(0, 2)), fileKey + "-" + blockIndex);
+    }
+
+    private void loadBlocks()
+    {
+        try {
+            createDirectories(directory.toPath());
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Failed to create cache directory " + directory, e);
+        }
+
+        List<File> files = new ArrayList<>();
+        for (File subdirectory : listFiles(directory)) {
+            for (File file : listFiles(subdirectory)) {
+                if (file.getName().endsWith(TEMPORARY_FILE_SUFFIX)) {
+                    // left behind by a write that did not complete
+                    file.delete();
+                }
+                else if (file.isFile()) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(comparingLong(File::lastModified));
+
+        List<File> evicted;
+        synchronized (this) {
+            for (File file : files) {
+                blocks.put(file, file.length());
+                cachedBytes += file.length();
+            }
+            evicted = evictBlocks();
+        }
+        evicted.forEach(File::delete);
+        log.info("Loaded %s cached blocks from %s", files.size(), directory);
+    }
+
+    private static List<File> listFiles(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return ImmutableList.of();
+        }
+        return ImmutableList.copyOf(files);
+    }
+
+    @Managed
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedBlockCount()
+    {
+        return blocks.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHitBytes()
+    {
+        return hitBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMissBytes()
+    {
+        return missBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictedBlocks()
+    {
+        return evictedBlocks;
+    }
+}
@@ -530,8 +530,21 @@ public class CachingHiveMetastore
         return get(partitionFilterCache, partitionFilter(databaseName, tableName, parts));
     }
 
+    @Override
+    public Optional<List<String>> getPartitionNamesByFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        return get(partitionFilterCache, partitionFilter(databaseName, tableName, parts, filter));
+    }
+
     private Optional<List<String>> loadPartitionNamesByParts(PartitionFilter partitionFilter)
     {
+        if (partitionFilter.getFilter().isPresent()) {
+            return delegate.getPartitionNamesByFilter(
+                    partitionFilter.getHiveTableName().getDatabaseName(),
+                    partitionFilter.getHiveTableName().getTableName(),
+                    partitionFilter.getParts(),
+                    partitionFilter.getFilter().get());
+        }
         return delegate.getPartitionNamesByParts(
                 partitionFilter.getHiveTableName().getDatabaseName(),
                 partitionFilter.getHiveTableName().getTableName(),
@@ -79,6 +79,16 @@ public interface ExtendedHiveMetastore
 
     Optional<List<String>> getPartitionNamesByParts(String databaseName, String tableName, List<String> parts);
 
+    /**
+     * Returns the names of the partitions matching the given metastore filter expression.
+     * Metastores that cannot evaluate the filter return the partitions matching {@code parts},
+     * which are a superset of them.
+     */
+    default Optional<List<String>> getPartitionNamesByFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        return getPartitionNamesByParts(databaseName, tableName, parts);
+    }
+
     Map<String, Optional<Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames);
 
     void addPartitions(String databaseName, String tableName, List<PartitionWithStatistics> partitions);
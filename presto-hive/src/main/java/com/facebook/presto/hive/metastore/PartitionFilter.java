@@ -21,6 +21,7 @@ import javax.annotation.concurrent.Immutable;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.facebook.presto.hive.metastore.HiveTableName.hiveTableName;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -31,17 +32,27 @@ public class PartitionFilter
 {
     private final HiveTableName hiveTableName;
     private final List<String> parts;
+    private final Optional<String> filter;
 
     @JsonCreator
-    public PartitionFilter(@JsonProperty("hiveTableName") HiveTableName hiveTableName, @JsonProperty("parts") List<String> parts)
+    public PartitionFilter(
+            @JsonProperty("hiveTableName") HiveTableName hiveTableName,
+            @JsonProperty("parts") List<String> parts,
+            @JsonProperty("filter") Optional<String> filter)
     {
         this.hiveTableName = requireNonNull(hiveTableName, "hiveTableName is null");
         this.parts = ImmutableList.copyOf(requireNonNull(parts, "parts is null"));
+        this.filter = requireNonNull(filter, "filter is null");
     }
 
     public static PartitionFilter partitionFilter(String databaseName, String tableName, List<String> parts)
     {
-        return new PartitionFilter(hiveTableName(databaseName, tableName), parts);
+        return new PartitionFilter(hiveTableName(databaseName, tableName), parts, Optional.empty());
+    }
+
+    public static PartitionFilter partitionFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        return new PartitionFilter(hiveTableName(databaseName, tableName), parts, Optional.of(filter));
     }
 
     @JsonProperty
@@ -56,12 +67,19 @@ public class PartitionFilter
         return parts;
     }
 
+    @JsonProperty
+    public Optional<String> getFilter()
+    {
+        return filter;
+    }
+
     @Override
     public String toString()
     {
         return toStringHelper(this)
                 .add("hiveTableName", hiveTableName)
                 .add("parts", parts)
+                .add("filter", filter.orElse(null))
                 .toString();
     }
 
@@ -77,12 +95,13 @@ public class PartitionFilter
 
         PartitionFilter other = (PartitionFilter) o;
         return Objects.equals(hiveTableName, other.hiveTableName) &&
-                Objects.equals(parts, other.parts);
+                Objects.equals(parts, other.parts) &&
+                Objects.equals(filter, other.filter);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(hiveTableName, parts);
+        return Objects.hash(hiveTableName, parts, filter);
     }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.hive.LocationHandle.WriteMode;
 import com.facebook.presto.hive.PartitionNotFoundException;
 import com.facebook.presto.hive.PartitionStatistics;
 import com.facebook.presto.hive.TableAlreadyExistsException;
+import com.facebook.presto.hive.TableInvalidationCallback;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
@@ -107,6 +108,7 @@ public class SemiTransactionalHiveMetastore
     private final ListeningExecutorService renameExecutor;
     private final boolean skipDeletionForAlter;
     private final boolean skipTargetCleanupOnRollback;
+    private final TableInvalidationCallback tableInvalidationCallback;
 
     @GuardedBy("this")
     private final Map<SchemaTableName, Action<TableAndMore>> tableActions = new HashMap<>();
@@ -125,13 +127,15 @@ public class SemiTransactionalHiveMetastore
             ExtendedHiveMetastore delegate,
             ListeningExecutorService renameExecutor,
             boolean skipDeletionForAlter,
-            boolean skipTargetCleanupOnRollback)
+            boolean skipTargetCleanupOnRollback,
+            TableInvalidationCallback tableInvalidationCallback)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.delegate = requireNonNull(delegate, "delegate is null");
         this.renameExecutor = requireNonNull(renameExecutor, "renameExecutor is null");
         this.skipDeletionForAlter = skipDeletionForAlter;
         this.skipTargetCleanupOnRollback = skipTargetCleanupOnRollback;
+        this.tableInvalidationCallback = requireNonNull(tableInvalidationCallback, "tableInvalidationCallback is null");
     }
 
     public synchronized List<String> getAllDatabases()
@@ -513,16 +517,25 @@ public class SemiTransactionalHiveMetastore
 
     public synchronized Optional<List<String>> getPartitionNames(String databaseName, String tableName)
     {
-        return doGetPartitionNames(databaseName, tableName, Optional.empty());
+        return doGetPartitionNames(databaseName, tableName, Optional.empty(), Optional.empty());
     }
 
     public synchronized Optional<List<String>> getPartitionNamesByParts(String databaseName, String tableName, List<String> parts)
     {
-        return doGetPartitionNames(databaseName, tableName, Optional.of(parts));
+        return doGetPartitionNames(databaseName, tableName, Optional.of(parts), Optional.empty());
+    }
+
+    /**
+     * Returns the names of the partitions matching the metastore filter expression, or a superset
+     * of them. Partitions added in this transaction are matched by {@code parts} only.
+     */
+    public synchronized Optional<List<String>> getPartitionNamesByFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        return doGetPartitionNames(databaseName, tableName, Optional.of(parts), Optional.of(filter));
     }
 
     @GuardedBy("this")
-    private Optional<List<String>> doGetPartitionNames(String databaseName, String tableName, Optional<List<String>> parts)
+    private Optional<List<String>> doGetPartitionNames(String databaseName, String tableName, Optional<List<String>> parts, Optional<String> filter)
     {
         checkHoldsLock();
 
@@ -539,7 +552,10 @@ public class SemiTransactionalHiveMetastore
                 break;
             case PRE_EXISTING_TABLE: {
                 Optional<List<String>> partitionNameResult;
-                if (parts.isPresent()) {
+                if (parts.isPresent() && filter.isPresent()) {
+                    partitionNameResult = delegate.getPartitionNamesByFilter(databaseName, tableName, parts.get(), filter.get());
+                }
+                else if (parts.isPresent()) {
                     partitionNameResult = delegate.getPartitionNamesByParts(databaseName, tableName, parts.get());
                 }
                 else {
@@ -627,32 +643,35 @@ public class SemiTransactionalHiveMetastore
         }
     }
 
-    public synchronized Map<String, Optional<Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames)
+    public Map<String, Optional<Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames)
     {
-        checkReadable();
-        TableSource tableSource = getTableSource(databaseName, tableName);
-        Map<List<String>, Action<PartitionAndMore>> partitionActionsOfTable = partitionActions.computeIfAbsent(new SchemaTableName(databaseName, tableName), k -> new HashMap<>());
         ImmutableList.Builder<String> partitionNamesToQuery = ImmutableList.builder();
         ImmutableMap.Builder<String, Optional<Partition>> resultBuilder = ImmutableMap.builder();
-        for (String partitionName : partitionNames) {
-            List<String> partitionValues = toPartitionValues(partitionName);
-            Action<PartitionAndMore> partitionAction = partitionActionsOfTable.get(partitionValues);
-            if (partitionAction == null) {
-                switch (tableSource) {
-                    case PRE_EXISTING_TABLE:
-                        partitionNamesToQuery.add(partitionName);
-                        break;
-                    case CREATED_IN_THIS_TRANSACTION:
-                        resultBuilder.put(partitionName, Optional.empty());
-                        break;
-                    default:
-                        throw new UnsupportedOperationException("unknown table source");
+        synchronized (this) {
+            checkReadable();
+            TableSource tableSource = getTableSource(databaseName, tableName);
+            Map<List<String>, Action<PartitionAndMore>> partitionActionsOfTable = partitionActions.computeIfAbsent(new SchemaTableName(databaseName, tableName), k -> new HashMap<>());
+            for (String partitionName : partitionNames) {
+                List<String> partitionValues = toPartitionValues(partitionName);
+                Action<PartitionAndMore> partitionAction = partitionActionsOfTable.get(partitionValues);
+                if (partitionAction == null) {
+                    switch (tableSource) {
+                        case PRE_EXISTING_TABLE:
+                            partitionNamesToQuery.add(partitionName);
+                            break;
+                        case CREATED_IN_THIS_TRANSACTION:
+                            resultBuilder.put(partitionName, Optional.empty());
+                            break;
+                        default:
+                            throw new UnsupportedOperationException("unknown table source");
+                    }
+                }
+                else {
+                    resultBuilder.put(partitionName, getPartitionFromPartitionAction(partitionAction));
                 }
-            }
-            else {
-                resultBuilder.put(partitionName, getPartitionFromPartitionAction(partitionAction));
             }
         }
+        // the metastore is called without holding the lock, so that batches of partitions can be loaded in parallel
         Map<String, Optional<Partition>> delegateResult = delegate.getPartitionsByNames(databaseName, tableName, partitionNamesToQuery.build());
         resultBuilder.putAll(delegateResult);
         return resultBuilder.build();
@@ -930,6 +949,34 @@ public class SemiTransactionalHiveMetastore
     }
 
     @GuardedBy("this")
+    private void invalidateCommittedLocations()
+    {
+        checkHoldsLock();
+
+        for (Action<TableAndMore> action : tableActions.values()) {
+            if (action.getType() != ActionType.DROP) {
+                invokeInvalidationCallback(() -> tableInvalidationCallback.invalidate(action.getData().getTable()));
+            }
+        }
+        for (Map<List<String>, Action<PartitionAndMore>> partitionActionsForTable : partitionActions.values()) {
+            for (Action<PartitionAndMore> action : partitionActionsForTable.values()) {
+                if (action.getType() != ActionType.DROP) {
+                    invokeInvalidationCallback(() -> tableInvalidationCallback.invalidate(action.getData().getPartition()));
+                }
+            }
+        }
+    }
+
+    private static void invokeInvalidationCallback(Runnable callback)
+    {
+        try {
+            callback.run();
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to invalidate state derived from committed data");
+        }
+    }
+
     private void commitShared()
     {
         checkHoldsLock();
@@ -1040,6 +1087,9 @@ public class SemiTransactionalHiveMetastore
             // If any operation fails, the error will be logged and ignored.
             // Additionally, other clean up operations should still be attempted.
 
+            // Data of the committed tables and partitions has changed, drop anything derived from the old files
+            invalidateCommittedLocations();
+
             // Execute deletion tasks
             committer.executeDeletionTasksForFinish();
 
@@ -257,6 +257,12 @@ public class BridgingHiveMetastore
         return delegate.getPartitionNamesByParts(databaseName, tableName, parts);
     }
 
+    @Override
+    public Optional<List<String>> getPartitionNamesByFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        return delegate.getPartitionNamesByFilter(databaseName, tableName, parts, filter);
+    }
+
     @Override
     public Map<String, Optional<Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames)
     {
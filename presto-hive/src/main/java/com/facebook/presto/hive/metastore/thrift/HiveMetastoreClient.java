@@ -96,6 +96,9 @@ public interface HiveMetastoreClient
     List<String> getPartitionNamesFiltered(String databaseName, String tableName, List<String> partitionValues)
             throws TException;
 
+    List<Partition> getPartitionsByFilter(String databaseName, String tableName, String filter)
+            throws TException;
+
     int addPartitions(List<Partition> newPartitions)
             throws TException;
 
@@ -79,6 +79,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_METASTORE_ERROR;
 import static com.facebook.presto.hive.HiveUtil.PRESTO_VIEW_FLAG;
 import static com.facebook.presto.hive.metastore.HivePrivilegeInfo.HivePrivilege;
 import static com.facebook.presto.hive.metastore.HivePrivilegeInfo.HivePrivilege.OWNERSHIP;
+import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.addHistograms;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.createMetastoreColumnStatistics;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.fromMetastoreApiPrincipalType;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.fromMetastoreApiTable;
@@ -87,6 +88,7 @@ import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.from
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.getHiveBasicStatistics;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.parsePrivilege;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.toMetastoreApiPartition;
+import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.updateHistogramParameters;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.updateStatisticsParameters;
 import static com.facebook.presto.spi.StandardErrorCode.ALREADY_EXISTS;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
@@ -266,7 +268,7 @@ public class ThriftHiveMetastore
                 .collect(toImmutableList());
         HiveBasicStatistics basicStatistics = getHiveBasicStatistics(table.getParameters());
         Map<String, HiveColumnStatistics> columnStatistics = getTableColumnStatistics(databaseName, tableName, dataColumns, basicStatistics.getRowCount());
-        return new PartitionStatistics(basicStatistics, columnStatistics);
+        return new PartitionStatistics(basicStatistics, addHistograms(columnStatistics, table.getParameters()));
     }
 
     private Map<String, HiveColumnStatistics> getTableColumnStatistics(String databaseName, String tableName, List<String> columns, OptionalLong rowCount)
@@ -304,10 +306,12 @@ public class ThriftHiveMetastore
                 .map(FieldSchema::getName)
                 .collect(toImmutableList());
 
-        Map<String, HiveBasicStatistics> partitionBasicStatistics = getPartitionsByNames(databaseName, tableName, ImmutableList.copyOf(partitionNames)).stream()
+        Map<String, Map<String, String>> partitionParameters = getPartitionsByNames(databaseName, tableName, ImmutableList.copyOf(partitionNames)).stream()
                 .collect(toImmutableMap(
                         partition -> makePartName(partitionColumns, partition.getValues()),
-                        partition -> getHiveBasicStatistics(partition.getParameters())));
+                        Partition::getParameters));
+        Map<String, HiveBasicStatistics> partitionBasicStatistics = partitionParameters.entrySet().stream()
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> getHiveBasicStatistics(entry.getValue())));
         Map<String, OptionalLong> partitionRowCounts = partitionBasicStatistics.entrySet().stream()
                 .collect(toImmutableMap(Map.Entry::getKey, entry -> entry.getValue().getRowCount()));
         Map<String, Map<String, HiveColumnStatistics>> partitionColumnStatistics = getPartitionColumnStatistics(
@@ -320,6 +324,7 @@ public class ThriftHiveMetastore
         for (String partitionName : partitionNames) {
             HiveBasicStatistics basicStatistics = partitionBasicStatistics.getOrDefault(partitionName, createEmptyStatistics());
             Map<String, HiveColumnStatistics> columnStatistics = partitionColumnStatistics.getOrDefault(partitionName, ImmutableMap.of());
+            columnStatistics = addHistograms(columnStatistics, partitionParameters.getOrDefault(partitionName, ImmutableMap.of()));
             result.put(partitionName, new PartitionStatistics(basicStatistics, columnStatistics));
         }
 
@@ -404,6 +409,7 @@ public class ThriftHiveMetastore
         Table modifiedTable = originalTable.deepCopy();
         HiveBasicStatistics basicStatistics = updatedStatistics.getBasicStatistics();
         modifiedTable.setParameters(updateStatisticsParameters(modifiedTable.getParameters(), basicStatistics));
+        modifiedTable.setParameters(updateHistogramParameters(modifiedTable.getParameters(), updatedStatistics.getColumnStatistics()));
         alterTable(databaseName, tableName, modifiedTable);
 
         com.facebook.presto.hive.metastore.Table table = fromMetastoreApiTable(modifiedTable);
@@ -482,6 +488,7 @@ public class ThriftHiveMetastore
         Partition modifiedPartition = originalPartition.deepCopy();
         HiveBasicStatistics basicStatistics = updatedStatistics.getBasicStatistics();
         modifiedPartition.setParameters(updateStatisticsParameters(modifiedPartition.getParameters(), basicStatistics));
+        modifiedPartition.setParameters(updateHistogramParameters(modifiedPartition.getParameters(), updatedStatistics.getColumnStatistics()));
         alterPartitionWithoutStatistics(databaseName, tableName, modifiedPartition);
 
         Map<String, HiveType> columns = modifiedPartition.getSd().getCols().stream()
@@ -942,6 +949,43 @@ public class ThriftHiveMetastore
         }
     }
 
+    @Override
+    public Optional<List<String>> getPartitionNamesByFilter(String databaseName, String tableName, List<String> parts, String filter)
+    {
+        Optional<Table> table = getTable(databaseName, tableName);
+        if (!table.isPresent()) {
+            return Optional.empty();
+        }
+        List<String> partitionColumns = table.get().getPartitionKeys().stream()
+                .map(FieldSchema::getName)
+                .collect(toImmutableList());
+        try {
+            return retry()
+                    .stopOn(NoSuchObjectException.class, MetaException.class)
+                    .stopOnIllegalExceptions()
+                    .run("getPartitionNamesByFilter", stats.getGetPartitionsByFilter().wrap(() -> {
+                        try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
+                            return Optional.of(client.getPartitionsByFilter(databaseName, tableName, filter).stream()
+                                    .map(partition -> makePartName(partitionColumns, partition.getValues()))
+                                    .collect(toImmutableList()));
+                        }
+                    }));
+        }
+        catch (NoSuchObjectException e) {
+            return Optional.empty();
+        }
+        catch (MetaException e) {
+            // the metastore rejects filters it cannot push into its database, e.g. on non-string keys
+            return getPartitionNamesByParts(databaseName, tableName, parts);
+        }
+        catch (TException e) {
+            throw new PrestoException(HIVE_METASTORE_ERROR, e);
+        }
+        catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
     @Override
     public void addPartitions(String databaseName, String tableName, List<PartitionWithStatistics> partitionsWithStatistics)
     {
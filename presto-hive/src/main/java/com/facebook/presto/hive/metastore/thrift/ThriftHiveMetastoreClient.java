@@ -218,6 +218,13 @@ public class ThriftHiveMetastoreClient
         return client.get_partition_names_ps(databaseName, tableName, partitionValues, (short) -1);
     }
 
+    @Override
+    public List<Partition> getPartitionsByFilter(String databaseName, String tableName, String filter)
+            throws TException
+    {
+        return client.get_partitions_by_filter(databaseName, tableName, filter, (short) -1);
+    }
+
     @Override
     public int addPartitions(List<Partition> newPartitions)
             throws TException
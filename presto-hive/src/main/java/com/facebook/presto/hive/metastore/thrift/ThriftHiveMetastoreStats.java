@@ -28,6 +28,7 @@ public class ThriftHiveMetastoreStats
     private final HiveMetastoreApiStats getPartitionColumnStatistics = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getPartitionNames = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getPartitionNamesPs = new HiveMetastoreApiStats();
+    private final HiveMetastoreApiStats getPartitionsByFilter = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getPartition = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getPartitionsByNames = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats createDatabase = new HiveMetastoreApiStats();
@@ -119,6 +120,13 @@ public class ThriftHiveMetastoreStats
         return getPartitionNamesPs;
     }
 
+    @Managed
+    @Nested
+    public HiveMetastoreApiStats getGetPartitionsByFilter()
+    {
+        return getPartitionsByFilter;
+    }
+
     @Managed
     @Nested
     public HiveMetastoreApiStats getGetPartition()
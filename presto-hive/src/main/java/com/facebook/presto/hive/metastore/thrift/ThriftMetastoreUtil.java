@@ -107,8 +107,10 @@ import static com.facebook.presto.hive.metastore.PrestoTableType.EXTERNAL_TABLE;
 import static com.facebook.presto.hive.metastore.PrestoTableType.MANAGED_TABLE;
 import static com.facebook.presto.hive.metastore.PrestoTableType.OTHER;
 import static com.facebook.presto.hive.metastore.PrestoTableType.VIRTUAL_VIEW;
+import static com.facebook.presto.plugin.base.statistics.HistogramCodec.HISTOGRAM_CODEC;
 import static com.facebook.presto.spi.security.PrincipalType.ROLE;
 import static com.facebook.presto.spi.security.PrincipalType.USER;
+import static com.facebook.presto.spi.statistics.ColumnStatisticType.HISTOGRAM;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MAX_VALUE;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MAX_VALUE_SIZE_IN_BYTES;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MIN_VALUE;
@@ -155,6 +157,8 @@ public final class ThriftMetastoreUtil
     private static final String RAW_DATA_SIZE = "rawDataSize";
     private static final String TOTAL_SIZE = "totalSize";
     private static final Set<String> STATS_PROPERTIES = ImmutableSet.of(NUM_FILES, NUM_ROWS, RAW_DATA_SIZE, TOTAL_SIZE);
+    // the metastore column statistics have no place for histograms, so they are kept in the table and partition parameters
+    private static final String HISTOGRAM_PROPERTY_PREFIX = "presto.histogram.";
 
     private ThriftMetastoreUtil() {}
 
@@ -373,6 +377,7 @@ public final class ThriftMetastoreUtil
     {
         org.apache.hadoop.hive.metastore.api.Partition partition = toMetastoreApiPartition(partitionWithStatistics.getPartition());
         partition.setParameters(updateStatisticsParameters(partition.getParameters(), partitionWithStatistics.getStatistics().getBasicStatistics()));
+        partition.setParameters(updateHistogramParameters(partition.getParameters(), partitionWithStatistics.getStatistics().getColumnStatistics()));
         return partition;
     }
 
@@ -786,6 +791,39 @@ public final class ThriftMetastoreUtil
         return result.build();
     }
 
+    public static Map<String, String> updateHistogramParameters(Map<String, String> parameters, Map<String, HiveColumnStatistics> columnStatistics)
+    {
+        ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+
+        parameters.forEach((key, value) -> {
+            if (!key.startsWith(HISTOGRAM_PROPERTY_PREFIX)) {
+                result.put(key, value);
+            }
+        });
+
+        columnStatistics.forEach((column, statistics) -> statistics.getHistogram()
+                .ifPresent(histogram -> result.put(HISTOGRAM_PROPERTY_PREFIX + column, HISTOGRAM_CODEC.toJson(histogram))));
+
+        return result.build();
+    }
+
+    public static Map<String, HiveColumnStatistics> addHistograms(Map<String, HiveColumnStatistics> columnStatistics, Map<String, String> parameters)
+    {
+        ImmutableMap.Builder<String, HiveColumnStatistics> result = ImmutableMap.builder();
+        columnStatistics.forEach((column, statistics) -> {
+            String histogram = parameters.get(HISTOGRAM_PROPERTY_PREFIX + column);
+            if (histogram == null) {
+                result.put(column, statistics);
+            }
+            else {
+                result.put(column, HiveColumnStatistics.builder(statistics)
+                        .setHistogram(HISTOGRAM_CODEC.fromJson(histogram))
+                        .build());
+            }
+        });
+        return result.build();
+    }
+
     public static ColumnStatisticsObj createMetastoreColumnStatistics(String columnName, HiveType columnType, HiveColumnStatistics statistics, OptionalLong rowCount)
     {
         TypeInfo typeInfo = columnType.getTypeInfo();
@@ -932,7 +970,10 @@ public final class ThriftMetastoreUtil
         if (type.equals(BOOLEAN)) {
             return ImmutableSet.of(NUMBER_OF_NON_NULL_VALUES, NUMBER_OF_TRUE_VALUES);
         }
-        if (isNumericType(type) || type.equals(DATE) || type.equals(TIMESTAMP)) {
+        if ((isNumericType(type) && !(type instanceof DecimalType)) || type.equals(DATE)) {
+            return ImmutableSet.of(MIN_VALUE, MAX_VALUE, NUMBER_OF_DISTINCT_VALUES, NUMBER_OF_NON_NULL_VALUES, HISTOGRAM);
+        }
+        if (isNumericType(type) || type.equals(TIMESTAMP)) {
             // TODO #7122 support non-legacy TIMESTAMP
             return ImmutableSet.of(MIN_VALUE, MAX_VALUE, NUMBER_OF_DISTINCT_VALUES, NUMBER_OF_NON_NULL_VALUES);
         }
@@ -13,10 +13,13 @@
  */
 package com.facebook.presto.hive.parquet;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilterUtils;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.parquet.Field;
 import com.facebook.presto.parquet.ParquetCorruptionException;
 import com.facebook.presto.parquet.reader.ParquetReader;
+import com.facebook.presto.parquet.reader.ParquetSelectiveReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
@@ -24,16 +27,22 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.block.LazyBlockLoader;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.CharType;
+import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -43,6 +52,17 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.getParquetType;
 import static com.facebook.presto.parquet.ParquetTypeUtils.getFieldIndex;
 import static com.facebook.presto.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.parquet.reader.ParquetSelectiveReader.isFlatPrimitive;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.Varchars.isVarcharType;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 import static org.apache.parquet.io.ColumnIOConverter.constructField;
@@ -62,6 +82,9 @@ public class ParquetPageSource
     private final Block[] constantBlocks;
     private final int[] hiveColumnIndexes;
 
+    // reads the pages when filters are applied while decoding values; null otherwise
+    private final ParquetSelectiveReader selectiveReader;
+
     private int batchId;
     private boolean closed;
     private final boolean useParquetColumnNames;
@@ -74,7 +97,8 @@ public class ParquetPageSource
             Properties splitSchema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
-            boolean useParquetColumnNames)
+            boolean useParquetColumnNames,
+            boolean selectiveReaderEnabled)
     {
         requireNonNull(splitSchema, "splitSchema is null");
         requireNonNull(columns, "columns is null");
@@ -113,6 +137,70 @@ public class ParquetPageSource
         types = typesBuilder.build();
         fields = fieldsBuilder.build();
         columnNames = namesBuilder.build();
+
+        Map<Integer, TupleDomainFilter> filters = selectiveReaderEnabled ? getFilters(columns, effectivePredicate) : ImmutableMap.of();
+        if (filters.isEmpty()) {
+            selectiveReader = null;
+        }
+        else {
+            ImmutableList.Builder<Optional<Field>> selectiveFields = ImmutableList.builder();
+            for (int columnIndex = 0; columnIndex < size; columnIndex++) {
+                int fieldIndex = useParquetColumnNames ? getFieldIndex(fileSchema, columnNames.get(columnIndex)) : hiveColumnIndexes[columnIndex];
+                selectiveFields.add(fieldIndex == -1 ? Optional.empty() : fields.get(columnIndex));
+            }
+            selectiveReader = new ParquetSelectiveReader(parquetReader, types, selectiveFields.build(), filters);
+        }
+    }
+
+    /**
+     * Returns filters for the columns which can be evaluated while decoding, keyed by channel.
+     * The engine still applies the full predicate, so columns without a filter only lose the early pruning.
+     */
+    private Map<Integer, TupleDomainFilter> getFilters(List<HiveColumnHandle> columns, TupleDomain<HiveColumnHandle> effectivePredicate)
+    {
+        if (!effectivePredicate.getDomains().isPresent()) {
+            return ImmutableMap.of();
+        }
+
+        Map<String, HiveColumnHandle> predicateColumns = new HashMap<>();
+        for (HiveColumnHandle column : effectivePredicate.getDomains().get().keySet()) {
+            predicateColumns.put(column.getName(), column);
+        }
+
+        ImmutableMap.Builder<Integer, TupleDomainFilter> filters = ImmutableMap.builder();
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            HiveColumnHandle predicateColumn = predicateColumns.get(columns.get(columnIndex).getName());
+            // the domains of coerced columns do not apply to the file type
+            if (predicateColumn == null || !predicateColumn.getHiveType().equals(columns.get(columnIndex).getHiveType())) {
+                continue;
+            }
+            Domain domain = effectivePredicate.getDomains().get().get(predicateColumn);
+            if (domain.isAll() || !domain.getType().equals(types.get(columnIndex)) || !isFilterSupported(domain.getType())) {
+                continue;
+            }
+            // columns missing from the file are read as nulls and can be filtered without decoding
+            if (fields.get(columnIndex).map(field -> !isFlatPrimitive(field)).orElse(false)) {
+                continue;
+            }
+            filters.put(columnIndex, TupleDomainFilterUtils.toFilter(domain));
+        }
+        return filters.build();
+    }
+
+    private static boolean isFilterSupported(Type type)
+    {
+        return type == BOOLEAN ||
+                type == TINYINT ||
+                type == SMALLINT ||
+                type == INTEGER ||
+                type == BIGINT ||
+                type == DATE ||
+                type == TIMESTAMP ||
+                type == REAL ||
+                type == DOUBLE ||
+                type instanceof DecimalType ||
+                isVarcharType(type) ||
+                type instanceof CharType;
     }
 
     @Override
@@ -143,6 +231,15 @@ public class ParquetPageSource
     public Page getNextPage()
     {
         try {
+            if (selectiveReader != null) {
+                Page page = closed ? null : selectiveReader.getNextPage();
+                if (page == null) {
+                    close();
+                    return null;
+                }
+                return page;
+            }
+
             batchId++;
             int batchSize = parquetReader.nextBatch();
 
@@ -180,7 +277,11 @@ public class ParquetPageSource
             closeWithSuppression(e);
             throw e;
         }
-        catch (RuntimeException e) {
+        catch (ParquetCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
             closeWithSuppression(e);
             throw new PrestoException(HIVE_CURSOR_ERROR, e);
         }
@@ -32,6 +32,7 @@ import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.statistics.ColumnStatistics;
 import com.facebook.presto.spi.statistics.DoubleRange;
 import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.Histogram;
 import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Decimals;
@@ -85,6 +86,7 @@ import static java.lang.Double.isFinite;
 import static java.lang.Double.isNaN;
 import static java.lang.Double.parseDouble;
 import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
@@ -625,6 +627,7 @@ public class MetastoreHiveStatisticsProvider
                 .setNullsFraction(calculateNullsFraction(column, partitionStatistics))
                 .setDataSize(calculateDataSize(column, partitionStatistics, rowsCount))
                 .setRange(calculateRange(type, columnStatistics))
+                .setHistogram(calculateHistogram(column, partitionStatistics))
                 .build();
     }
 
@@ -747,6 +750,31 @@ public class MetastoreHiveStatisticsProvider
         return Estimate.of(averageValueDataSizeInBytes * totalRowCount);
     }
 
+    @VisibleForTesting
+    static Optional<Histogram> calculateHistogram(String column, Collection<PartitionStatistics> partitionStatistics)
+    {
+        List<Histogram> histograms = new ArrayList<>();
+        List<Double> nonNullsCounts = new ArrayList<>();
+        for (PartitionStatistics statistics : partitionStatistics) {
+            HiveColumnStatistics columnStatistics = statistics.getColumnStatistics().get(column);
+            if (columnStatistics == null) {
+                continue;
+            }
+            OptionalLong rowCount = statistics.getBasicStatistics().getRowCount();
+            // a partition without a histogram, or one that cannot be weighted, would skew the combined distribution
+            if (!columnStatistics.getHistogram().isPresent() || !rowCount.isPresent() || !columnStatistics.getNullsCount().isPresent()) {
+                return Optional.empty();
+            }
+            histograms.add(columnStatistics.getHistogram().get());
+            nonNullsCounts.add((double) max(rowCount.getAsLong() - columnStatistics.getNullsCount().getAsLong(), 0));
+        }
+
+        if (histograms.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Histogram.merge(histograms, nonNullsCounts));
+    }
+
     @VisibleForTesting
     static Optional<DoubleRange> calculateRange(Type type, List<HiveColumnStatistics> columnStatistics)
     {
@@ -89,6 +89,7 @@ public class InternalHiveSplitFactory
                 0,
                 status.getLen(),
                 status.getLen(),
+                status.getModificationTime(),
                 readBucketNumber,
                 tableBucketNumber,
                 splittable);
@@ -104,6 +105,7 @@ public class InternalHiveSplitFactory
                 split.getStart(),
                 split.getLength(),
                 file.getLen(),
+                file.getModificationTime(),
                 OptionalInt.empty(),
                 OptionalInt.empty(),
                 false);
@@ -115,6 +117,7 @@ public class InternalHiveSplitFactory
             long start,
             long length,
             long fileSize,
+            long fileModifiedTime,
             OptionalInt readBucketNumber,
             OptionalInt tableBucketNumber,
             boolean splittable)
@@ -173,6 +176,7 @@ public class InternalHiveSplitFactory
                 start,
                 start + length,
                 length,
+                fileModifiedTime,
                 blocks,
                 readBucketNumber,
                 tableBucketNumber,
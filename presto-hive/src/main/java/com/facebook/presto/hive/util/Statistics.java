@@ -53,6 +53,8 @@ import static com.facebook.presto.hive.HiveWriteUtils.createPartitionValues;
 import static com.facebook.presto.hive.util.Statistics.ReduceOperator.ADD;
 import static com.facebook.presto.hive.util.Statistics.ReduceOperator.MAX;
 import static com.facebook.presto.hive.util.Statistics.ReduceOperator.MIN;
+import static com.facebook.presto.plugin.base.statistics.HistogramCodec.HISTOGRAM_CODEC;
+import static com.facebook.presto.spi.statistics.ColumnStatisticType.HISTOGRAM;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MAX_VALUE;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MAX_VALUE_SIZE_IN_BYTES;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.MIN_VALUE;
@@ -68,6 +70,7 @@ import static com.facebook.presto.spi.type.RealType.REAL;
 import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
 import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -117,7 +120,9 @@ public final class Statistics
                 reduce(first.getMaxValueSizeInBytes(), second.getMaxValueSizeInBytes(), MAX, true),
                 reduce(first.getTotalSizeInBytes(), second.getTotalSizeInBytes(), ADD, true),
                 reduce(first.getNullsCount(), second.getNullsCount(), ADD, false),
-                reduce(first.getDistinctValuesCount(), second.getDistinctValuesCount(), MAX, false));
+                reduce(first.getDistinctValuesCount(), second.getDistinctValuesCount(), MAX, false),
+                // the relative sizes of the merged data sets are not known here, so the histograms cannot be combined
+                Optional.empty());
     }
 
     private static Optional<IntegerStatistics> mergeIntegerStatistics(Optional<IntegerStatistics> first, Optional<IntegerStatistics> second)
@@ -280,6 +285,9 @@ public final class Statistics
                 case MAX_VALUE:
                     setMinMaxForEmptyPartition(columnType, result);
                     break;
+                case HISTOGRAM:
+                    // an empty partition has no value distribution
+                    break;
                 default:
                     throw new PrestoException(HIVE_UNKNOWN_COLUMN_STATISTIC_TYPE, "Unknown column statistics type: " + columnStatisticType.name());
             }
@@ -403,6 +411,14 @@ public final class Statistics
             long numberOfNonNullValues = BIGINT.getLong(computedStatistics.get(NUMBER_OF_NON_NULL_VALUES), 0);
             result.setBooleanStatistics(new BooleanStatistics(OptionalLong.of(numberOfTrue), OptionalLong.of(numberOfNonNullValues - numberOfTrue)));
         }
+
+        // HISTOGRAM
+        if (computedStatistics.containsKey(HISTOGRAM)) {
+            Block block = computedStatistics.get(HISTOGRAM);
+            if (!block.isNull(0)) {
+                result.setHistogram(HISTOGRAM_CODEC.fromJson(VARCHAR.getSlice(block, 0).toStringUtf8()));
+            }
+        }
         return result.build();
     }
 
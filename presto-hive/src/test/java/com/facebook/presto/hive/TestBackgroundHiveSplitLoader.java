@@ -17,6 +17,7 @@ import com.facebook.presto.hive.HiveBucketing.HiveBucketFilter;
 import com.facebook.presto.hive.HiveColumnHandle.ColumnType;
 import com.facebook.presto.hive.authentication.NoHdfsAuthentication;
 import com.facebook.presto.hive.metastore.Column;
+import com.facebook.presto.hive.metastore.SortingColumn;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.spi.ConnectorSession;
@@ -59,6 +60,7 @@ import static com.facebook.presto.hive.HiveType.HIVE_INT;
 import static com.facebook.presto.hive.HiveType.HIVE_STRING;
 import static com.facebook.presto.hive.HiveUtil.getRegularColumnHandles;
 import static com.facebook.presto.hive.metastore.PrestoTableType.MANAGED_TABLE;
+import static com.facebook.presto.hive.metastore.SortingColumn.Order.ASCENDING;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.facebook.presto.spi.predicate.TupleDomain.withColumnDomains;
 import static com.facebook.presto.spi.relation.LogicalRowExpressions.TRUE_CONSTANT;
@@ -73,6 +75,7 @@ import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
 public class TestBackgroundHiveSplitLoader
 {
@@ -102,6 +105,8 @@ public class TestBackgroundHiveSplitLoader
     private static final Optional<HiveBucketProperty> BUCKET_PROPERTY = Optional.of(
             new HiveBucketProperty(ImmutableList.of("col1"), BUCKET_COUNT, ImmutableList.of()));
 
+    private static final long LARGE_FILE_SIZE = new DataSize(200, MEGABYTE).toBytes();
+
     private static final Table SIMPLE_TABLE = table(ImmutableList.of(), Optional.empty());
     private static final Table PARTITIONED_TABLE = table(PARTITION_COLUMNS, BUCKET_PROPERTY);
 
@@ -191,6 +196,43 @@ public class TestBackgroundHiveSplitLoader
         assertEquals(splits.get(0).getLength(), 0);
     }
 
+    @Test
+    public void testSortedBucketFiles()
+            throws Exception
+    {
+        Table table = table(
+                ImmutableList.of(),
+                Optional.of(new HiveBucketProperty(ImmutableList.of("col1"), BUCKET_COUNT, ImmutableList.of(new SortingColumn("col1", ASCENDING)))));
+        List<LocatedFileStatus> files = ImmutableList.of(
+                locatedFileStatus(new Path(SAMPLE_PATH), LARGE_FILE_SIZE),
+                locatedFileStatus(new Path(SAMPLE_PATH_FILTERED), LARGE_FILE_SIZE));
+        Optional<HiveBucketHandle> bucketHandle = Optional.of(new HiveBucketHandle(BUCKET_COLUMN_HANDLES, BUCKET_COUNT, BUCKET_COUNT));
+
+        // bucket files are split like any other file
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = backgroundHiveSplitLoader(files, table, bucketHandle, new HiveClientConfig());
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader, TupleDomain.all(), ImmutableMap.of());
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        assertTrue(drainSplits(hiveSplitSource).size() > files.size());
+
+        // the sort order of the files is exposed to the engine, so each file is read by a single split
+        backgroundHiveSplitLoader = backgroundHiveSplitLoader(files, table, bucketHandle, new HiveClientConfig().setStreamingAggregationEnabled(true));
+        hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader, TupleDomain.all(), ImmutableMap.of());
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        List<HiveSplit> splits = drainSplits(hiveSplitSource);
+        assertEquals(splits.size(), files.size());
+        for (HiveSplit split : splits) {
+            assertEquals(split.getStart(), 0);
+            assertEquals(split.getLength(), LARGE_FILE_SIZE);
+        }
+
+        // files of tables without a sort order are still split
+        Table unsortedTable = table(ImmutableList.of(), BUCKET_PROPERTY);
+        backgroundHiveSplitLoader = backgroundHiveSplitLoader(files, unsortedTable, bucketHandle, new HiveClientConfig().setStreamingAggregationEnabled(true));
+        hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader, TupleDomain.all(), ImmutableMap.of());
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+        assertTrue(drainSplits(hiveSplitSource).size() > files.size());
+    }
+
     @Test
     public void testNoHangIfPartitionIsOffline()
             throws Exception
@@ -242,6 +284,26 @@ public class TestBackgroundHiveSplitLoader
             Optional<HiveBucketFilter> hiveBucketFilter,
             Table table,
             Optional<HiveBucketHandle> bucketHandle)
+    {
+        return backgroundHiveSplitLoader(files, pathDomain, hiveBucketFilter, table, bucketHandle, new HiveClientConfig());
+    }
+
+    private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(
+            List<LocatedFileStatus> files,
+            Table table,
+            Optional<HiveBucketHandle> bucketHandle,
+            HiveClientConfig hiveClientConfig)
+    {
+        return backgroundHiveSplitLoader(files, Optional.empty(), Optional.empty(), table, bucketHandle, hiveClientConfig);
+    }
+
+    private static BackgroundHiveSplitLoader backgroundHiveSplitLoader(
+            List<LocatedFileStatus> files,
+            Optional<Domain> pathDomain,
+            Optional<HiveBucketFilter> hiveBucketFilter,
+            Table table,
+            Optional<HiveBucketHandle> bucketHandle,
+            HiveClientConfig hiveClientConfig)
     {
         List<HivePartitionMetadata> hivePartitionMetadatas =
                 ImmutableList.of(
@@ -251,7 +313,7 @@ public class TestBackgroundHiveSplitLoader
                                 ImmutableMap.of()));
 
         ConnectorSession connectorSession = new TestingConnectorSession(
-                new HiveSessionProperties(new HiveClientConfig().setMaxSplitSize(new DataSize(1.0, GIGABYTE)), new OrcFileWriterConfig(), new ParquetFileWriterConfig()).getSessionProperties());
+                new HiveSessionProperties(hiveClientConfig.setMaxSplitSize(new DataSize(1.0, GIGABYTE)), new OrcFileWriterConfig(), new ParquetFileWriterConfig()).getSessionProperties());
 
         return new BackgroundHiveSplitLoader(
                 table,
@@ -379,6 +441,23 @@ public class TestBackgroundHiveSplitLoader
                 new BlockLocation[] {new BlockLocation()});
     }
 
+    private static LocatedFileStatus locatedFileStatus(Path path, long length)
+    {
+        return new LocatedFileStatus(
+                length,
+                false,
+                0,
+                0L,
+                0L,
+                0L,
+                null,
+                null,
+                null,
+                null,
+                path,
+                new BlockLocation[] {new BlockLocation(new String[0], new String[0], 0, length)});
+    }
+
     private static LocatedFileStatus locatedFileStatusWithNoBlocks(Path path)
     {
         return new LocatedFileStatus(
@@ -407,7 +486,7 @@ public class TestBackgroundHiveSplitLoader
         }
 
         @Override
-        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
         {
             return new RemoteIterator<LocatedFileStatus>()
             {
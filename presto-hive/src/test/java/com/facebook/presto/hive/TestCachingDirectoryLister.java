@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Column;
+import com.facebook.presto.hive.metastore.Partition;
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.hive.metastore.Table;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.hive.metastore.PrestoTableType.MANAGED_TABLE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+
+public class TestCachingDirectoryLister
+{
+    private static final String TABLE_LOCATION = "hdfs://VOL1:9000/db_name/table_name";
+    private static final Path TABLE_PATH = new Path(TABLE_LOCATION);
+    private static final Path PARTITION_PATH = new Path(TABLE_LOCATION + "/ds=2019-01-01");
+
+    @Test
+    public void testCachesConfiguredTables()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.*"));
+        Table table = table("test_dbname", "test_table");
+
+        assertEquals(drain(lister.list(null, table, TABLE_PATH)).size(), 2);
+        assertEquals(drain(lister.list(null, table, TABLE_PATH)).size(), 2);
+        assertEquals(delegate.getListCount(), 1);
+        assertEquals(lister.getHitCount(), 1);
+        assertEquals(lister.getMissCount(), 1);
+        assertEquals(lister.getCachedDirectoriesCount(), 1);
+        assertEquals(lister.getCachedFilesCount(), 2);
+
+        lister.flushCache();
+        drain(lister.list(null, table, TABLE_PATH));
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testIgnoresOtherTables()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.other_table"));
+        Table table = table("test_dbname", "test_table");
+
+        drain(lister.list(null, table, TABLE_PATH));
+        drain(lister.list(null, table, TABLE_PATH));
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getRequestCount(), 0);
+        assertEquals(lister.getCachedDirectoriesCount(), 0);
+    }
+
+    @Test
+    public void testPartialListingIsNotCached()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("*.*"));
+        Table table = table("test_dbname", "test_table");
+
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table, TABLE_PATH);
+        iterator.next();
+        assertEquals(lister.getCachedDirectoriesCount(), 0);
+
+        drain(lister.list(null, table, TABLE_PATH));
+        assertEquals(lister.getCachedDirectoriesCount(), 1);
+    }
+
+    @Test
+    public void testInvalidation()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table"));
+        Table table = table("test_dbname", "test_table");
+
+        drain(lister.list(null, table, TABLE_PATH));
+        drain(lister.list(null, table, PARTITION_PATH));
+        assertEquals(lister.getCachedDirectoriesCount(), 2);
+
+        lister.invalidate(partition(table, PARTITION_PATH));
+        assertEquals(lister.getCachedDirectoriesCount(), 1);
+
+        drain(lister.list(null, table, PARTITION_PATH));
+        lister.invalidate(table);
+        assertEquals(lister.getCachedDirectoriesCount(), 0);
+        assertEquals(delegate.getListCount(), 3);
+    }
+
+    @Test
+    public void testListingRacingWithInvalidationIsNotCached()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table"));
+        Table table = table("test_dbname", "test_table");
+
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table, TABLE_PATH);
+        lister.invalidate(table);
+        drain(iterator);
+        assertEquals(lister.getCachedDirectoriesCount(), 0);
+    }
+
+    private static List<LocatedFileStatus> drain(RemoteIterator<LocatedFileStatus> iterator)
+            throws IOException
+    {
+        List<LocatedFileStatus> files = new ArrayList<>();
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        return files;
+    }
+
+    private static Table table(String schemaName, String tableName)
+    {
+        Table.Builder tableBuilder = Table.builder();
+        tableBuilder.getStorageBuilder()
+                .setStorageFormat(StorageFormat.create(
+                        "com.facebook.hive.orc.OrcSerde",
+                        "org.apache.hadoop.hive.ql.io.RCFileInputFormat",
+                        "org.apache.hadoop.hive.ql.io.RCFileInputFormat"))
+                .setLocation(TABLE_LOCATION);
+        return tableBuilder
+                .setDatabaseName(schemaName)
+                .setOwner("testOwner")
+                .setTableName(tableName)
+                .setTableType(MANAGED_TABLE)
+                .setDataColumns(ImmutableList.of(new Column("col1", HIVE_STRING, Optional.empty())))
+                .setParameters(ImmutableMap.of())
+                .build();
+    }
+
+    private static Partition partition(Table table, Path location)
+    {
+        Partition.Builder partitionBuilder = Partition.builder()
+                .setDatabaseName(table.getDatabaseName())
+                .setTableName(table.getTableName())
+                .setValues(ImmutableList.of("2019-01-01"))
+                .setColumns(table.getDataColumns())
+                .setParameters(ImmutableMap.of());
+        partitionBuilder.getStorageBuilder()
+                .setStorageFormat(table.getStorage().getStorageFormat())
+                .setLocation(location.toString());
+        return partitionBuilder.build();
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private int listCount;
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+        {
+            listCount++;
+            Iterator<LocatedFileStatus> files = ImmutableList.of(file(path, "file1"), file(path, "file2")).iterator();
+            return new RemoteIterator<LocatedFileStatus>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return files.hasNext();
+                }
+
+                @Override
+                public LocatedFileStatus next()
+                {
+                    return files.next();
+                }
+            };
+        }
+
+        public int getListCount()
+        {
+            return listCount;
+        }
+
+        private static LocatedFileStatus file(Path directory, String name)
+        {
+            return new LocatedFileStatus(0L, false, 0, 0L, 0L, 0L, null, null, null, null, new Path(directory, name), new BlockLocation[] {});
+        }
+    }
+}
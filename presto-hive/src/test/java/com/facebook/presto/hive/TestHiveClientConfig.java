@@ -26,6 +26,7 @@ import io.airlift.units.DataSize.Unit;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
@@ -85,6 +86,8 @@ public class TestHiveClientConfig
                 .setTextMaxLineLength(new DataSize(100, Unit.MEGABYTE))
                 .setUseParquetColumnNames(false)
                 .setFailOnCorruptedParquetStatistics(true)
+                .setParquetSelectiveReaderEnabled(false)
+                .setParquetPageIndexEnabled(true)
                 .setUseOrcColumnNames(false)
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
@@ -127,7 +130,26 @@ public class TestHiveClientConfig
                 .setTemporaryTableSchema("default")
                 .setTemporaryTableStorageFormat(ORC)
                 .setTemporaryTableCompressionCodec(SNAPPY)
-                .setPushdownFilterEnabled(false));
+                .setPushdownFilterEnabled(false)
+                .setFileStatusCacheTables("")
+                .setFileStatusCacheMaxSize(1000 * 1000)
+                .setFileStatusCacheExpireAfterWrite(new Duration(1, TimeUnit.MINUTES))
+                .setOrcFileTailCacheEnabled(false)
+                .setOrcFileTailCacheSize(new DataSize(256, Unit.MEGABYTE))
+                .setOrcFileTailCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setOrcStripeMetadataCacheEnabled(false)
+                .setOrcStripeFooterCacheSize(new DataSize(256, Unit.MEGABYTE))
+                .setOrcStripeStreamCacheSize(new DataSize(256, Unit.MEGABYTE))
+                .setOrcStripeMetadataCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setLocalCacheEnabled(false)
+                .setLocalCacheDirectory(null)
+                .setLocalCacheMaxSize(new DataSize(100, Unit.GIGABYTE))
+                .setLocalCacheBlockSize(new DataSize(1, Unit.MEGABYTE))
+                .setSoftAffinitySchedulingEnabled(false)
+                .setPartitionFilterPushdownEnabled(false)
+                .setPartitionLoaderConcurrency(4)
+                .setStreamingAggregationEnabled(false)
+                .setCollectColumnHistograms(false));
     }
 
     @Test
@@ -177,6 +199,8 @@ public class TestHiveClientConfig
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.parquet.fail-on-corrupted-statistics", "false")
+                .put("hive.parquet.selective-reader-enabled", "true")
+                .put("hive.parquet.page-index-enabled", "false")
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
@@ -219,6 +243,25 @@ public class TestHiveClientConfig
                 .put("hive.temporary-table-storage-format", "DWRF")
                 .put("hive.temporary-table-compression-codec", "NONE")
                 .put("hive.pushdown-filter-enabled", "true")
+                .put("hive.file-status-cache-tables", "foo.bar1,foo.bar2")
+                .put("hive.file-status-cache-size", "1000")
+                .put("hive.file-status-cache-expire-time", "30m")
+                .put("hive.orc.file-tail-cache-enabled", "true")
+                .put("hive.orc.file-tail-cache-size", "10MB")
+                .put("hive.orc.file-tail-cache-ttl", "1h")
+                .put("hive.orc.stripe-metadata-cache-enabled", "true")
+                .put("hive.orc.stripe-footer-cache-size", "20MB")
+                .put("hive.orc.stripe-stream-cache-size", "30MB")
+                .put("hive.orc.stripe-metadata-cache-ttl", "2h")
+                .put("hive.local-cache.enabled", "true")
+                .put("hive.local-cache.directory", "/mnt/cache")
+                .put("hive.local-cache.max-size", "50GB")
+                .put("hive.local-cache.block-size", "4MB")
+                .put("hive.soft-affinity-scheduling-enabled", "true")
+                .put("hive.metastore.partition-filter-pushdown-enabled", "true")
+                .put("hive.metastore.partition-loader-concurrency", "16")
+                .put("hive.streaming-aggregation-enabled", "true")
+                .put("hive.collect-column-histograms", "true")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -264,6 +307,8 @@ public class TestHiveClientConfig
                 .setTextMaxLineLength(new DataSize(13, Unit.MEGABYTE))
                 .setUseParquetColumnNames(true)
                 .setFailOnCorruptedParquetStatistics(false)
+                .setParquetSelectiveReaderEnabled(true)
+                .setParquetPageIndexEnabled(false)
                 .setUseOrcColumnNames(true)
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcBloomFiltersEnabled(true)
@@ -307,7 +352,26 @@ public class TestHiveClientConfig
                 .setTemporaryTableSchema("other")
                 .setTemporaryTableStorageFormat(DWRF)
                 .setTemporaryTableCompressionCodec(NONE)
-                .setPushdownFilterEnabled(true);
+                .setPushdownFilterEnabled(true)
+                .setFileStatusCacheTables(ImmutableList.of("foo.bar1", "foo.bar2"))
+                .setFileStatusCacheMaxSize(1000)
+                .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES))
+                .setOrcFileTailCacheEnabled(true)
+                .setOrcFileTailCacheSize(new DataSize(10, Unit.MEGABYTE))
+                .setOrcFileTailCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setOrcStripeMetadataCacheEnabled(true)
+                .setOrcStripeFooterCacheSize(new DataSize(20, Unit.MEGABYTE))
+                .setOrcStripeStreamCacheSize(new DataSize(30, Unit.MEGABYTE))
+                .setOrcStripeMetadataCacheTtl(new Duration(2, TimeUnit.HOURS))
+                .setLocalCacheEnabled(true)
+                .setLocalCacheDirectory(new File("/mnt/cache"))
+                .setLocalCacheMaxSize(new DataSize(50, Unit.GIGABYTE))
+                .setLocalCacheBlockSize(new DataSize(4, Unit.MEGABYTE))
+                .setSoftAffinitySchedulingEnabled(true)
+                .setPartitionFilterPushdownEnabled(true)
+                .setPartitionLoaderConcurrency(16)
+                .setStreamingAggregationEnabled(true)
+                .setCollectColumnHistograms(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -15,17 +15,22 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.cost.StatsAndCosts;
+import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.hive.HiveSessionProperties.InsertExistingPartitionsBehavior;
 import com.facebook.presto.metadata.InsertTableHandle;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.QualifiedObjectName;
 import com.facebook.presto.metadata.TableLayout;
 import com.facebook.presto.metadata.TableMetadata;
+import com.facebook.presto.operator.OperatorStats;
+import com.facebook.presto.operator.StreamingAggregationOperator;
 import com.facebook.presto.spi.CatalogSchemaTableName;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.security.Identity;
 import com.facebook.presto.spi.security.SelectedRole;
@@ -64,6 +69,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -87,6 +93,7 @@ import static com.facebook.presto.hive.HiveQueryRunner.createMaterializeExchange
 import static com.facebook.presto.hive.HiveQueryRunner.createQueryRunner;
 import static com.facebook.presto.hive.HiveSessionProperties.PUSHDOWN_FILTER_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.RCFILE_OPTIMIZED_WRITER_ENABLED;
+import static com.facebook.presto.hive.HiveSessionProperties.STREAMING_AGGREGATION_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.getInsertExistingPartitionsBehavior;
 import static com.facebook.presto.hive.HiveTableProperties.BUCKETED_BY_PROPERTY;
 import static com.facebook.presto.hive.HiveTableProperties.BUCKET_COUNT_PROPERTY;
@@ -94,6 +101,8 @@ import static com.facebook.presto.hive.HiveTableProperties.PARTITIONED_BY_PROPER
 import static com.facebook.presto.hive.HiveTableProperties.STORAGE_FORMAT_PROPERTY;
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
 import static com.facebook.presto.hive.HiveUtil.columnExtraInfo;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_FIRST;
+import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
 import static com.facebook.presto.spi.predicate.Marker.Bound.EXACTLY;
 import static com.facebook.presto.spi.security.SelectedRole.Type.ROLE;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
@@ -118,6 +127,7 @@ import static com.facebook.presto.tests.QueryAssertions.assertEqualsIgnoreOrder;
 import static com.facebook.presto.transaction.TransactionBuilder.transaction;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.io.Files.asCharSink;
 import static com.google.common.io.Files.createTempDir;
@@ -981,6 +991,33 @@ public class TestHiveIntegrationSmokeTest
         assertUpdate("DROP TABLE " + tableName);
     }
 
+    @Test
+    public void testParquetSelectiveReader()
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, "parquet_selective_reader_enabled", "true")
+                .build();
+
+        assertUpdate("" +
+                "CREATE TABLE test_parquet_selective_reader " +
+                "WITH (format = 'PARQUET') AS " +
+                "SELECT orderkey, custkey, orderstatus, totalprice, orderdate, comment, " +
+                "  CASE WHEN orderkey % 7 = 0 THEN NULL ELSE shippriority END shippriority " +
+                "FROM orders", "SELECT count(*) FROM orders");
+
+        assertQuery(session, "SELECT * FROM test_parquet_selective_reader WHERE orderkey BETWEEN 100 AND 1000",
+                "SELECT orderkey, custkey, orderstatus, totalprice, orderdate, comment, CASE WHEN orderkey % 7 = 0 THEN NULL ELSE shippriority END FROM orders WHERE orderkey BETWEEN 100 AND 1000");
+        assertQuery(session, "SELECT orderkey, comment FROM test_parquet_selective_reader WHERE orderstatus IN ('F', 'P') AND totalprice > 100000",
+                "SELECT orderkey, comment FROM orders WHERE orderstatus IN ('F', 'P') AND totalprice > 100000");
+        assertQuery(session, "SELECT orderkey, totalprice FROM test_parquet_selective_reader WHERE orderdate < DATE '1993-01-01' AND custkey = 370",
+                "SELECT orderkey, totalprice FROM orders WHERE orderdate < DATE '1993-01-01' AND custkey = 370");
+        assertQuery(session, "SELECT count(*) FROM test_parquet_selective_reader WHERE shippriority IS NULL",
+                "SELECT count(*) FROM orders WHERE orderkey % 7 = 0");
+        assertQuery(session, "SELECT count(*) FROM test_parquet_selective_reader WHERE orderkey < 0", "SELECT 0");
+
+        assertUpdate("DROP TABLE test_parquet_selective_reader");
+    }
+
     @Test
     public void testCreateEmptyNonBucketedPartition()
     {
@@ -1707,6 +1744,121 @@ public class TestHiveIntegrationSmokeTest
                 });
     }
 
+    @Test
+    public void testSortedBucketedTableLayout()
+    {
+        assertUpdate("" +
+                        "CREATE TABLE test_sorted_bucketed_layout " +
+                        "WITH (" +
+                        "partitioned_by = ARRAY['orderstatus'], " +
+                        "bucketed_by = ARRAY['custkey'], " +
+                        "bucket_count = 11, " +
+                        "sorted_by = ARRAY['custkey', 'orderkey DESC']" +
+                        ") AS " +
+                        "SELECT custkey, orderkey, orderstatus FROM orders",
+                "SELECT count(*) FROM orders");
+        assertUpdate("" +
+                        "CREATE TABLE test_sorted_bucketed_layout_not_bucket_prefix " +
+                        "WITH (" +
+                        "bucketed_by = ARRAY['custkey'], " +
+                        "bucket_count = 11, " +
+                        "sorted_by = ARRAY['orderkey']" +
+                        ") AS " +
+                        "SELECT custkey, orderkey FROM orders",
+                "SELECT count(*) FROM orders");
+
+        Session streamingAggregation = streamingAggregationSession();
+        Map<String, ColumnHandle> columns = getColumnHandles("test_sorted_bucketed_layout");
+        TableLayout layout = getTableLayout(streamingAggregation, "test_sorted_bucketed_layout");
+        assertEquals(layout.getLocalProperties(), ImmutableList.of(
+                new SortingProperty<>(columns.get("custkey"), ASC_NULLS_FIRST),
+                new SortingProperty<>(columns.get("orderkey"), DESC_NULLS_LAST)));
+        // the bucket column leads the sort order, so all rows of a partition and sort key are in a single file
+        assertEquals(layout.getStreamPartitioningColumns(), Optional.of(ImmutableSet.of(columns.get("orderstatus"), columns.get("custkey"), columns.get("orderkey"))));
+
+        columns = getColumnHandles("test_sorted_bucketed_layout_not_bucket_prefix");
+        layout = getTableLayout(streamingAggregation, "test_sorted_bucketed_layout_not_bucket_prefix");
+        assertEquals(layout.getLocalProperties(), ImmutableList.of(new SortingProperty<>(columns.get("orderkey"), ASC_NULLS_FIRST)));
+        assertEquals(layout.getStreamPartitioningColumns(), Optional.empty());
+
+        layout = getTableLayout(getSession(), "test_sorted_bucketed_layout");
+        assertEquals(layout.getLocalProperties(), ImmutableList.of());
+        assertEquals(layout.getStreamPartitioningColumns(), Optional.empty());
+
+        assertUpdate("DROP TABLE test_sorted_bucketed_layout");
+        assertUpdate("DROP TABLE test_sorted_bucketed_layout_not_bucket_prefix");
+    }
+
+    @Test
+    public void testStreamingAggregationOnSortedBucketedTable()
+    {
+        assertUpdate("" +
+                        "CREATE TABLE test_streaming_aggregation " +
+                        "WITH (" +
+                        "bucketed_by = ARRAY['custkey'], " +
+                        "bucket_count = 11, " +
+                        "sorted_by = ARRAY['custkey']" +
+                        ") AS " +
+                        "SELECT custkey, orderkey, totalprice FROM orders",
+                "SELECT count(*) FROM orders");
+
+        @Language("SQL") String query = "SELECT custkey, count(*), max(totalprice) FROM test_streaming_aggregation GROUP BY custkey";
+        @Language("SQL") String expected = "SELECT custkey, count(*), max(totalprice) FROM orders GROUP BY custkey";
+
+        Session streamingAggregation = streamingAggregationSession();
+        assertQuery(streamingAggregation, query, expected);
+        assertTrue(getOperatorTypes(streamingAggregation, query).contains(StreamingAggregationOperator.class.getSimpleName()));
+
+        assertQuery(query, expected);
+        assertFalse(getOperatorTypes(getSession(), query).contains(StreamingAggregationOperator.class.getSimpleName()));
+
+        assertUpdate("DROP TABLE test_streaming_aggregation");
+    }
+
+    private Session streamingAggregationSession()
+    {
+        return Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, STREAMING_AGGREGATION_ENABLED, "true")
+                .build();
+    }
+
+    private Set<String> getOperatorTypes(Session session, @Language("SQL") String query)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        QueryInfo queryInfo = queryRunner.getQueryInfo(queryRunner.executeWithQueryId(session, query).getQueryId());
+        return queryInfo.getQueryStats().getOperatorSummaries().stream()
+                .map(OperatorStats::getOperatorType)
+                .collect(toImmutableSet());
+    }
+
+    private Map<String, ColumnHandle> getColumnHandles(String tableName)
+    {
+        Session session = getSession();
+        Metadata metadata = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getMetadata();
+
+        return transaction(getQueryRunner().getTransactionManager(), getQueryRunner().getAccessControl())
+                .readOnly()
+                .execute(session, transactionSession -> {
+                    Optional<TableHandle> tableHandle = metadata.getTableHandle(transactionSession, new QualifiedObjectName(catalog, TPCH_SCHEMA, tableName));
+                    assertTrue(tableHandle.isPresent());
+                    return metadata.getColumnHandles(transactionSession, tableHandle.get());
+                });
+    }
+
+    private TableLayout getTableLayout(Session session, String tableName)
+    {
+        Metadata metadata = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getMetadata();
+
+        return transaction(getQueryRunner().getTransactionManager(), getQueryRunner().getAccessControl())
+                .readOnly()
+                .execute(session, transactionSession -> {
+                    Optional<TableHandle> tableHandle = metadata.getTableHandle(transactionSession, new QualifiedObjectName(catalog, TPCH_SCHEMA, tableName));
+                    assertTrue(tableHandle.isPresent());
+                    return metadata.getLayout(transactionSession, tableHandle.get(), Constraint.alwaysTrue(), Optional.empty())
+                            .getLayout();
+                });
+    }
+
     private Object getHiveTableProperty(String tableName, Function<HiveTableLayoutHandle, Object> propertyGetter)
     {
         Session session = getSession();
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.metastore.SortingColumn;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.type.TypeSignature;
@@ -25,6 +26,11 @@ import org.testng.annotations.Test;
 import java.util.Optional;
 
 import static com.facebook.presto.hive.HiveMetadata.createPredicate;
+import static com.facebook.presto.hive.HiveMetadata.isSortedLikeTable;
+import static com.facebook.presto.hive.metastore.SortingColumn.Order.ASCENDING;
+import static com.facebook.presto.hive.metastore.SortingColumn.Order.DESCENDING;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveMetadata
 {
@@ -85,4 +91,21 @@ public class TestHiveMetadata
 
         createPredicate(ImmutableList.of(TEST_COLUMN_HANDLE), partitions.build());
     }
+
+    @Test
+    public void testIsSortedLikeTable()
+    {
+        HiveBucketProperty table = new HiveBucketProperty(ImmutableList.of("a"), 8, ImmutableList.of(new SortingColumn("a", ASCENDING), new SortingColumn("b", DESCENDING)));
+
+        assertTrue(isSortedLikeTable(table, ImmutableList.of()));
+        assertTrue(isSortedLikeTable(table, ImmutableList.of(Optional.of(table), Optional.of(table))));
+        // a different bucket count keeps all rows of a bucket key in one sorted file
+        assertTrue(isSortedLikeTable(table, ImmutableList.of(Optional.of(table), Optional.of(new HiveBucketProperty(table.getBucketedBy(), 4, table.getSortedBy())))));
+
+        assertFalse(isSortedLikeTable(table, ImmutableList.of(Optional.of(table), Optional.empty())));
+        assertFalse(isSortedLikeTable(table, ImmutableList.of(Optional.of(table), Optional.of(new HiveBucketProperty(table.getBucketedBy(), 8, ImmutableList.of())))));
+        assertFalse(isSortedLikeTable(table, ImmutableList.of(Optional.of(table), Optional.of(new HiveBucketProperty(table.getBucketedBy(), 8, ImmutableList.of(new SortingColumn("a", ASCENDING)))))));
+        assertFalse(isSortedLikeTable(table, ImmutableList.of(Optional.of(new HiveBucketProperty(table.getBucketedBy(), 8, ImmutableList.of(new SortingColumn("a", DESCENDING), new SortingColumn("b", DESCENDING)))))));
+        assertFalse(isSortedLikeTable(table, ImmutableList.of(Optional.of(new HiveBucketProperty(ImmutableList.of("b"), 8, table.getSortedBy())))));
+    }
 }
@@ -226,12 +226,14 @@ public class TestHivePageSink
                 0,
                 outputFile.length(),
                 outputFile.length(),
+                outputFile.lastModified(),
                 splitProperties,
                 ImmutableList.of(),
                 ImmutableList.of(),
                 OptionalInt.empty(),
                 OptionalInt.empty(),
                 false,
+                false,
                 TupleDomain.all(),
                 TRUE_CONSTANT,
                 ImmutableMap.of(),
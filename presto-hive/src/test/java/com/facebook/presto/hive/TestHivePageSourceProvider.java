@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.FixedPageSource;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Properties;
+
+import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
+import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static com.facebook.presto.hive.HiveTestUtils.ROW_EXPRESSION_SERVICE;
+import static com.facebook.presto.hive.HiveTestUtils.SESSION;
+import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
+import static com.facebook.presto.hive.HiveType.HIVE_INT;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.spi.relation.LogicalRowExpressions.TRUE_CONSTANT;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHivePageSourceProvider
+{
+    private static final HiveColumnHandle PARTITION_COLUMN = new HiveColumnHandle("ds", HIVE_LONG, BIGINT.getTypeSignature(), -1, PARTITION_KEY, Optional.empty());
+    private static final HiveColumnHandle REGULAR_COLUMN = new HiveColumnHandle("value", HIVE_LONG, BIGINT.getTypeSignature(), 0, REGULAR, Optional.empty());
+    private static final HiveColumnHandle COERCED_COLUMN = new HiveColumnHandle("coerced", HIVE_LONG, BIGINT.getTypeSignature(), 1, REGULAR, Optional.empty());
+
+    @Test
+    public void testSplitPrunedByDynamicFilter()
+    {
+        HivePageSourceProvider pageSourceProvider = createPageSourceProvider(new CapturingPageSourceFactory());
+        HiveSplit split = createSplit(ImmutableList.of(new HivePartitionKey("ds", "5")));
+
+        assertTrue(isSplitPruned(pageSourceProvider, split, TupleDomain.none()));
+        assertFalse(isSplitPruned(pageSourceProvider, split, TupleDomain.all()));
+        assertFalse(isSplitPruned(pageSourceProvider, split, withDomain(PARTITION_COLUMN, Domain.multipleValues(BIGINT, ImmutableList.of(3L, 5L)))));
+        assertTrue(isSplitPruned(pageSourceProvider, split, withDomain(PARTITION_COLUMN, Domain.multipleValues(BIGINT, ImmutableList.of(3L, 4L)))));
+
+        // only partition keys prune splits, the values of regular columns are not known up front
+        assertFalse(isSplitPruned(pageSourceProvider, split, withDomain(REGULAR_COLUMN, Domain.singleValue(BIGINT, 3L))));
+
+        // a null partition value matches only a domain that allows nulls
+        HiveSplit nullPartitionSplit = createSplit(ImmutableList.of(new HivePartitionKey("ds", HivePartitionKey.HIVE_DEFAULT_DYNAMIC_PARTITION)));
+        assertTrue(isSplitPruned(pageSourceProvider, nullPartitionSplit, withDomain(PARTITION_COLUMN, Domain.singleValue(BIGINT, 5L))));
+        assertFalse(isSplitPruned(pageSourceProvider, nullPartitionSplit, withDomain(PARTITION_COLUMN, Domain.onlyNull(BIGINT))));
+    }
+
+    @Test
+    public void testDynamicFilterPushedToFileReader()
+            throws IOException
+    {
+        CapturingPageSourceFactory pageSourceFactory = new CapturingPageSourceFactory();
+        HivePageSourceProvider pageSourceProvider = createPageSourceProvider(pageSourceFactory);
+        HiveSplit split = createSplit(ImmutableList.of(new HivePartitionKey("ds", "5")));
+
+        Domain valueDomain = Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L));
+        TupleDomain<ColumnHandle> dynamicFilter = TupleDomain.withColumnDomains(ImmutableMap.of(
+                PARTITION_COLUMN, Domain.singleValue(BIGINT, 5L),
+                REGULAR_COLUMN, valueDomain,
+                COERCED_COLUMN, Domain.singleValue(BIGINT, 7L)));
+        pageSourceProvider.createPageSource(new HiveTransactionHandle(), SESSION, split, ImmutableList.of(REGULAR_COLUMN), dynamicFilter).close();
+
+        // partition keys are not stored in the file, and the domain of a coerced column does not apply to the file type
+        assertEquals(pageSourceFactory.getEffectivePredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(REGULAR_COLUMN, valueDomain)));
+
+        pageSourceProvider.createPageSource(new HiveTransactionHandle(), SESSION, split, ImmutableList.of(REGULAR_COLUMN), TupleDomain.all()).close();
+        assertEquals(pageSourceFactory.getEffectivePredicate(), TupleDomain.all());
+    }
+
+    private static boolean isSplitPruned(HivePageSourceProvider pageSourceProvider, HiveSplit split, TupleDomain<HiveColumnHandle> dynamicFilter)
+    {
+        return pageSourceProvider.isSplitPrunedByDynamicFilter(new HiveTransactionHandle(), SESSION, split, dynamicFilter.transform(ColumnHandle.class::cast));
+    }
+
+    private static TupleDomain<HiveColumnHandle> withDomain(HiveColumnHandle column, Domain domain)
+    {
+        return TupleDomain.withColumnDomains(ImmutableMap.of(column, domain));
+    }
+
+    private static HivePageSourceProvider createPageSourceProvider(HiveBatchPageSourceFactory pageSourceFactory)
+    {
+        return new HivePageSourceProvider(
+                new HiveClientConfig(),
+                HDFS_ENVIRONMENT,
+                ImmutableSet.of(),
+                ImmutableSet.of(pageSourceFactory),
+                ImmutableSet.of(),
+                TYPE_MANAGER,
+                ROW_EXPRESSION_SERVICE);
+    }
+
+    private static HiveSplit createSplit(List<HivePartitionKey> partitionKeys)
+    {
+        return new HiveSplit(
+                "db",
+                "table",
+                "ds=5",
+                "file:///tmp/presto/test",
+                0,
+                100,
+                100,
+                0,
+                new Properties(),
+                partitionKeys,
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                OptionalInt.empty(),
+                false,
+                false,
+                TupleDomain.all(),
+                TRUE_CONSTANT,
+                ImmutableMap.of(),
+                ImmutableMap.of(COERCED_COLUMN.getHiveColumnIndex(), HIVE_INT),
+                Optional.empty(),
+                false);
+    }
+
+    private static class CapturingPageSourceFactory
+            implements HiveBatchPageSourceFactory
+    {
+        private TupleDomain<HiveColumnHandle> effectivePredicate;
+
+        @Override
+        public Optional<? extends ConnectorPageSource> createPageSource(
+                Configuration configuration,
+                ConnectorSession session,
+                Path path,
+                long start,
+                long length,
+                long fileSize,
+                long fileModifiedTime,
+                Properties schema,
+                List<HiveColumnHandle> columns,
+                TupleDomain<HiveColumnHandle> effectivePredicate,
+                DateTimeZone hiveStorageTimeZone)
+        {
+            this.effectivePredicate = effectivePredicate;
+            return Optional.of(new FixedPageSource(ImmutableList.of()));
+        }
+
+        public TupleDomain<HiveColumnHandle> getEffectivePredicate()
+        {
+            return effectivePredicate;
+        }
+    }
+}
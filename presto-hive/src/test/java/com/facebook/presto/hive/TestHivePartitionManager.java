@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.StandardTypes;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
+import static com.facebook.presto.hive.HivePartitionManager.getMetastoreFilter;
+import static com.facebook.presto.hive.HiveType.HIVE_INT;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+
+public class TestHivePartitionManager
+{
+    private static final HiveColumnHandle DS_COLUMN = new HiveColumnHandle("ds", HIVE_STRING, parseTypeSignature(StandardTypes.VARCHAR), -1, PARTITION_KEY, Optional.empty());
+    private static final HiveColumnHandle BUCKET_COLUMN = new HiveColumnHandle("bucket", HIVE_INT, parseTypeSignature(StandardTypes.INTEGER), -1, PARTITION_KEY, Optional.empty());
+    private static final List<HiveColumnHandle> PARTITION_KEYS = ImmutableList.of(DS_COLUMN, BUCKET_COLUMN);
+
+    @Test
+    public void testMetastoreFilter()
+    {
+        assertEquals(
+                getMetastoreFilter(PARTITION_KEYS, withDomain(DS_COLUMN, Domain.singleValue(VARCHAR, utf8Slice("2020-01-01")))),
+                Optional.of("(ds = \"2020-01-01\")"));
+        assertEquals(
+                getMetastoreFilter(PARTITION_KEYS, withDomain(DS_COLUMN, Domain.create(ValueSet.ofRanges(
+                        Range.range(VARCHAR, utf8Slice("2020-01-01"), true, utf8Slice("2020-02-01"), false),
+                        Range.greaterThan(VARCHAR, utf8Slice("2021"))), true))),
+                Optional.of("((ds >= \"2020-01-01\" and ds < \"2020-02-01\") or (ds > \"2021\") or ds = \"__HIVE_DEFAULT_PARTITION__\")"));
+    }
+
+    @Test
+    public void testUnsupportedMetastoreFilter()
+    {
+        // only string partition keys are pushed down
+        assertEquals(getMetastoreFilter(PARTITION_KEYS, withDomain(BUCKET_COLUMN, Domain.singleValue(INTEGER, 1L))), Optional.empty());
+        // the filter grammar cannot express quotes
+        assertEquals(getMetastoreFilter(PARTITION_KEYS, withDomain(DS_COLUMN, Domain.singleValue(VARCHAR, utf8Slice("a\"b")))), Optional.empty());
+        assertEquals(getMetastoreFilter(PARTITION_KEYS, withDomain(DS_COLUMN, Domain.notNull(VARCHAR))), Optional.empty());
+        assertEquals(getMetastoreFilter(PARTITION_KEYS, TupleDomain.all()), Optional.empty());
+    }
+
+    private static TupleDomain<ColumnHandle> withDomain(HiveColumnHandle column, Domain domain)
+    {
+        return TupleDomain.withColumnDomains(ImmutableMap.of(column, domain));
+    }
+}
@@ -39,6 +39,7 @@ import io.airlift.json.JsonCodec;
 import io.airlift.json.JsonModule;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
@@ -52,6 +53,8 @@ import static io.airlift.configuration.ConfigBinder.configBinder;
 import static io.airlift.json.JsonBinder.jsonBinder;
 import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveSplit
 {
@@ -73,12 +76,14 @@ public class TestHiveSplit
                 42,
                 87,
                 88,
+                1234,
                 schema,
                 partitionKeys,
                 addresses,
                 OptionalInt.empty(),
                 OptionalInt.empty(),
                 true,
+                true,
                 TupleDomain.all(),
                 TRUE_CONSTANT,
                 ImmutableMap.of(),
@@ -100,15 +105,72 @@ public class TestHiveSplit
         assertEquals(actual.getStart(), expected.getStart());
         assertEquals(actual.getLength(), expected.getLength());
         assertEquals(actual.getFileSize(), expected.getFileSize());
+        assertEquals(actual.getFileModifiedTime(), expected.getFileModifiedTime());
         assertEquals(actual.getSchema(), expected.getSchema());
         assertEquals(actual.getPartitionKeys(), expected.getPartitionKeys());
         assertEquals(actual.getAddresses(), expected.getAddresses());
         assertEquals(actual.getColumnCoercions(), expected.getColumnCoercions());
         assertEquals(actual.getBucketConversion(), expected.getBucketConversion());
         assertEquals(actual.isForceLocalScheduling(), expected.isForceLocalScheduling());
+        assertEquals(actual.isSoftAffinity(), expected.isSoftAffinity());
         assertEquals(actual.isS3SelectPushdownEnabled(), expected.isS3SelectPushdownEnabled());
     }
 
+    @Test
+    public void testPreferredNodes()
+    {
+        List<HostAddress> nodes = ImmutableList.of(HostAddress.fromParts("10.0.0.1", 8080), HostAddress.fromParts("10.0.0.2", 8080), HostAddress.fromParts("10.0.0.3", 8080));
+
+        List<HostAddress> preferred = createSplit("path/file", 0, true).getPreferredNodes(nodes);
+        assertEquals(preferred.size(), 1);
+        assertTrue(nodes.contains(preferred.get(0)));
+        assertEquals(createSplit("path/file", 1000, true).getPreferredNodes(nodes), preferred);
+
+        assertEquals(createSplit("path/file", 0, false).getPreferredNodes(nodes), ImmutableList.of());
+        assertEquals(createSplit("path/file", 0, true).getPreferredNodes(ImmutableList.of()), ImmutableList.of());
+    }
+
+    @Test
+    public void testSplitIdentifier()
+    {
+        assertEquals(createSplit("path/file", 0, true).getSplitIdentifier(), Optional.of("path/file:0:100:1234"));
+        assertNotEquals(createSplit("path/file", 0, 5678, true).getSplitIdentifier(), createSplit("path/file", 0, true).getSplitIdentifier());
+
+        // a file rewritten in place cannot be detected without a modification time
+        assertEquals(createSplit("path/file", 0, 0, true).getSplitIdentifier(), Optional.empty());
+    }
+
+    private static HiveSplit createSplit(String path, long start, boolean softAffinity)
+    {
+        return createSplit(path, start, 1234, softAffinity);
+    }
+
+    private static HiveSplit createSplit(String path, long start, long fileModifiedTime, boolean softAffinity)
+    {
+        return new HiveSplit(
+                "db",
+                "table",
+                "partitionId",
+                path,
+                start,
+                100,
+                10_000,
+                fileModifiedTime,
+                new Properties(),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                OptionalInt.empty(),
+                false,
+                softAffinity,
+                TupleDomain.all(),
+                TRUE_CONSTANT,
+                ImmutableMap.of(),
+                ImmutableMap.of(),
+                Optional.empty(),
+                false);
+    }
+
     private JsonCodec<HiveSplit> getJsonCodec()
             throws Exception
     {
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.write;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestLocalDiskFileCache
+{
+    private static final int BLOCK_SIZE = 1024;
+    private static final int FILE_SIZE = 2500;
+
+    private File tempDirectory;
+    private File cacheDirectory;
+    private FileSystem fileSystem;
+    private Path path;
+    private byte[] data;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = createTempDir();
+        cacheDirectory = new File(tempDirectory, "cache");
+        fileSystem = FileSystem.getLocal(new Configuration());
+
+        data = new byte[FILE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        File file = new File(tempDirectory, "data");
+        write(file.toPath(), data);
+        path = new Path(file.toURI());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadThrough()
+            throws IOException
+    {
+        LocalDiskFileCache cache = createCache(new DataSize(1, MEGABYTE));
+
+        // spans the first two blocks
+        assertRead(cache, 1, 1000, 100);
+        assertEquals(cache.getMissBytes().getTotalCount(), 100);
+        assertEquals(cache.getHitBytes().getTotalCount(), 0);
+        assertEquals(cache.getCachedBlockCount(), 2);
+        assertEquals(cache.getCachedBytes(), 2 * BLOCK_SIZE);
+
+        assertRead(cache, 1, 1000, 100);
+        assertEquals(cache.getMissBytes().getTotalCount(), 100);
+        assertEquals(cache.getHitBytes().getTotalCount(), 100);
+
+        // the last block is shorter than the block size
+        assertRead(cache, 1, 2000, 500);
+        assertEquals(cache.getMissBytes().getTotalCount(), 552);
+        assertEquals(cache.getHitBytes().getTotalCount(), 148);
+        assertEquals(cache.getCachedBlockCount(), 3);
+        assertEquals(cache.getCachedBytes(), FILE_SIZE);
+
+        // a modified file does not reuse the cached blocks
+        assertRead(cache, 2, 0, 10);
+        assertEquals(cache.getMissBytes().getTotalCount(), 562);
+        assertEquals(cache.getCachedBlockCount(), 4);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        LocalDiskFileCache cache = createCache(new DataSize(2 * BLOCK_SIZE, BYTE));
+
+        assertRead(cache, 1, 0, 10);
+        assertRead(cache, 1, BLOCK_SIZE, 10);
+        // touch the first block so the second one is the least recently used
+        assertRead(cache, 1, 0, 10);
+        assertRead(cache, 1, 2 * BLOCK_SIZE, 10);
+        assertEquals(cache.getEvictedBlocks().getTotalCount(), 1);
+        assertEquals(cache.getCachedBlockCount(), 2);
+
+        long missBytes = cache.getMissBytes().getTotalCount();
+        assertRead(cache, 1, 0, 10);
+        assertEquals(cache.getMissBytes().getTotalCount(), missBytes);
+        assertRead(cache, 1, BLOCK_SIZE, 10);
+        assertEquals(cache.getMissBytes().getTotalCount(), missBytes + 10);
+    }
+
+    @Test
+    public void testReload()
+            throws IOException
+    {
+        LocalDiskFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        assertRead(cache, 1, 0, FILE_SIZE);
+        assertEquals(cache.getCachedBlockCount(), 3);
+
+        // an interrupted write leaves a temporary file behind
+        File[] subdirectories = cacheDirectory.listFiles();
+        assertEquals(subdirectories.length, 1);
+        File temporaryFile = new File(subdirectories[0], "block.tmp");
+        write(temporaryFile.toPath(), new byte[10]);
+
+        LocalDiskFileCache reloaded = createCache(new DataSize(1, MEGABYTE));
+        assertEquals(reloaded.getCachedBlockCount(), 3);
+        assertEquals(reloaded.getCachedBytes(), FILE_SIZE);
+        assertEquals(temporaryFile.exists(), false);
+
+        assertRead(reloaded, 1, 0, FILE_SIZE);
+        assertEquals(reloaded.getHitBytes().getTotalCount(), FILE_SIZE);
+        assertEquals(reloaded.getMissBytes().getTotalCount(), 0);
+    }
+
+    private LocalDiskFileCache createCache(DataSize maxSize)
+    {
+        return new LocalDiskFileCache(cacheDirectory, maxSize, new DataSize(BLOCK_SIZE, BYTE));
+    }
+
+    private void assertRead(LocalDiskFileCache cache, long modificationTime, int position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length];
+        try (FSDataInputStream input = cache.open(fileSystem, path, FILE_SIZE, modificationTime)) {
+            input.readFully(position, buffer, 0, length);
+        }
+        assertEquals(buffer, Arrays.copyOfRange(data, position, position + length));
+    }
+}
@@ -213,6 +213,12 @@ public class MockHiveMetastoreClient
         return ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2);
     }
 
+    @Override
+    public List<Partition> getPartitionsByFilter(String dbName, String tableName, String filter)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Partition getPartition(String dbName, String tableName, List<String> partitionValues)
             throws TException
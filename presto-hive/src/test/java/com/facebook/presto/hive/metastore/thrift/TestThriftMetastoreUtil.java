@@ -20,6 +20,8 @@ import com.facebook.presto.hive.metastore.DecimalStatistics;
 import com.facebook.presto.hive.metastore.DoubleStatistics;
 import com.facebook.presto.hive.metastore.HiveColumnStatistics;
 import com.facebook.presto.hive.metastore.IntegerStatistics;
+import com.facebook.presto.spi.statistics.Histogram;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.hive.metastore.api.BinaryColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
@@ -36,12 +38,15 @@ import org.testng.annotations.Test;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
 
+import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.addHistograms;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.fromMetastoreApiColumnStatistics;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.getHiveBasicStatistics;
+import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.updateHistogramParameters;
 import static com.facebook.presto.hive.metastore.thrift.ThriftMetastoreUtil.updateStatisticsParameters;
 import static org.apache.hadoop.hive.metastore.api.ColumnStatisticsData.binaryStats;
 import static org.apache.hadoop.hive.metastore.api.ColumnStatisticsData.booleanStats;
@@ -375,4 +380,32 @@ public class TestThriftMetastoreUtil
     {
         assertEquals(getHiveBasicStatistics(updateStatisticsParameters(ImmutableMap.of(), expected)), expected);
     }
+
+    @Test
+    public void testHistogramRoundTrip()
+    {
+        Histogram histogram = new Histogram(ImmutableList.of(1.0, 2.5, 2.5, 10.0), ImmutableMap.of(2.5, 0.4, 7.0, 0.1));
+        HiveColumnStatistics withHistogram = HiveColumnStatistics.builder()
+                .setNullsCount(3)
+                .setHistogram(histogram)
+                .build();
+        HiveColumnStatistics withoutHistogram = HiveColumnStatistics.builder()
+                .setNullsCount(5)
+                .build();
+        Map<String, HiveColumnStatistics> columnStatistics = ImmutableMap.of("with_histogram", withHistogram, "without_histogram", withoutHistogram);
+
+        Map<String, String> parameters = updateHistogramParameters(ImmutableMap.of("key", "value"), columnStatistics);
+        assertEquals(parameters.get("key"), "value");
+        assertEquals(parameters.size(), 2);
+
+        Map<String, HiveColumnStatistics> withoutHistograms = ImmutableMap.of(
+                "with_histogram", HiveColumnStatistics.builder().setNullsCount(3).build(),
+                "without_histogram", withoutHistogram);
+        assertEquals(addHistograms(withoutHistograms, parameters), columnStatistics);
+        assertEquals(addHistograms(withoutHistograms, ImmutableMap.of()), withoutHistograms);
+
+        // stale histograms are dropped when the statistics are replaced
+        Map<String, String> updated = updateHistogramParameters(parameters, ImmutableMap.of("without_histogram", withoutHistogram));
+        assertEquals(updated, ImmutableMap.of("key", "value"));
+    }
 }
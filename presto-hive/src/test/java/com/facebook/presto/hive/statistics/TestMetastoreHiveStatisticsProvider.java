@@ -31,6 +31,7 @@ import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.statistics.ColumnStatistics;
 import com.facebook.presto.spi.statistics.DoubleRange;
 import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.Histogram;
 import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Type;
@@ -64,6 +65,7 @@ import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvide
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateDataSizeForPartitioningKey;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateDistinctPartitionKeys;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateDistinctValuesCount;
+import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateHistogram;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateNullsFraction;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateNullsFractionForPartitioningKey;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateRange;
@@ -601,6 +603,32 @@ public class TestMetastoreHiveStatisticsProvider
         assertEquals(calculateRange(DECIMAL, ImmutableList.of(decimalRange(BigDecimal.valueOf(1), BigDecimal.valueOf(5)), decimalRange(BigDecimal.valueOf(3), BigDecimal.valueOf(7)))), Optional.of(new DoubleRange(1, 7)));
     }
 
+    @Test
+    public void testCalculateHistogram()
+    {
+        Histogram lower = new Histogram(ImmutableList.of(0.0, 5.0, 10.0), ImmutableMap.of(1.0, 0.25));
+        Histogram upper = new Histogram(ImmutableList.of(10.0, 15.0, 20.0), ImmutableMap.of());
+
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of()), Optional.empty());
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(rowsCount(10))), Optional.empty());
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(OptionalLong.of(10), OptionalLong.of(0), Optional.empty()))), Optional.empty());
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(10, 0, lower))), Optional.of(lower));
+        // a partition without statistics for the column does not contribute
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(10, 0, lower), rowsCount(10))), Optional.of(lower));
+        // a partition that cannot be weighted invalidates the result
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(10, 0, lower), histogram(OptionalLong.empty(), OptionalLong.of(0), Optional.of(upper)))), Optional.empty());
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(10, 0, lower), histogram(OptionalLong.of(10), OptionalLong.empty(), Optional.of(upper)))), Optional.empty());
+        assertEquals(calculateHistogram(COLUMN, ImmutableList.of(histogram(10, 0, lower), histogram(OptionalLong.of(10), OptionalLong.of(0), Optional.empty()))), Optional.empty());
+
+        // partitions are weighted by their non null values
+        Histogram merged = calculateHistogram(COLUMN, ImmutableList.of(histogram(110, 10, lower), histogram(100, 0, upper))).get();
+        assertEquals(merged, Histogram.merge(ImmutableList.of(lower, upper), ImmutableList.of(100.0, 100.0)));
+        assertEquals(merged.getLowValue(), 0.0);
+        assertEquals(merged.getHighValue(), 20.0);
+        assertEquals(merged.getCumulativeFraction(10, true), 0.5, 0.01);
+        assertEquals(merged.getMostCommonValueFraction(1.0).getAsDouble(), 0.125, 0.0001);
+    }
+
     @Test
     public void testGetTableStatistics()
     {
@@ -800,6 +828,18 @@ public class TestMetastoreHiveStatisticsProvider
                 ImmutableMap.of(COLUMN, HiveColumnStatistics.builder().setNullsCount(nullsCount).build()));
     }
 
+    private static PartitionStatistics histogram(long rowsCount, long nullsCount, Histogram histogram)
+    {
+        return histogram(OptionalLong.of(rowsCount), OptionalLong.of(nullsCount), Optional.of(histogram));
+    }
+
+    private static PartitionStatistics histogram(OptionalLong rowsCount, OptionalLong nullsCount, Optional<Histogram> histogram)
+    {
+        return new PartitionStatistics(
+                new HiveBasicStatistics(OptionalLong.empty(), rowsCount, OptionalLong.empty(), OptionalLong.empty()),
+                ImmutableMap.of(COLUMN, HiveColumnStatistics.builder().setNullsCount(nullsCount).setHistogram(histogram).build()));
+    }
+
     private static PartitionStatistics rowsCountAndDataSize(long rowsCount, long dataSize)
     {
         return new PartitionStatistics(
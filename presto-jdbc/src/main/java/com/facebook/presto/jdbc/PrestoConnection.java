@@ -86,6 +86,7 @@ public class PrestoConnection
     private final URI httpUri;
     private final String user;
     private final Optional<String> applicationNamePrefix;
+    private final boolean binaryResults;
     private final Map<String, String> clientInfo = new ConcurrentHashMap<>();
     private final Map<String, String> sessionProperties = new ConcurrentHashMap<>();
     private final Map<String, String> preparedStatements = new ConcurrentHashMap<>();
@@ -104,6 +105,7 @@ public class PrestoConnection
         this.catalog.set(uri.getCatalog());
         this.user = uri.getUser();
         this.applicationNamePrefix = uri.getApplicationNamePrefix();
+        this.binaryResults = uri.isBinaryResults();
 
         this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
 
@@ -696,7 +698,8 @@ public class PrestoConnection
                 ImmutableMap.copyOf(preparedStatements),
                 ImmutableMap.copyOf(roles),
                 transactionId.get(),
-                timeout);
+                timeout,
+                binaryResults);
 
         return queryExecutor.startQuery(session, sql);
     }
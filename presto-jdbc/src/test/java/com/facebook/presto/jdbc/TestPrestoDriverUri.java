@@ -25,8 +25,10 @@ import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PASS
 import static com.facebook.presto.jdbc.ConnectionProperties.SSL_TRUST_STORE_PATH;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 public class TestPrestoDriverUri
@@ -145,6 +147,15 @@ public class TestPrestoDriverUri
         assertEquals(properties.getProperty(HTTP_PROXY.getKey()), "localhost:5678");
     }
 
+    @Test
+    public void testUriWithBinaryResults()
+            throws SQLException
+    {
+        assertFalse(createDriverUri("presto://localhost:8080/blackhole").isBinaryResults());
+        assertFalse(createDriverUri("presto://localhost:8080/blackhole?binaryResults=false").isBinaryResults());
+        assertTrue(createDriverUri("presto://localhost:8080/blackhole?binaryResults=true").isBinaryResults());
+    }
+
     @Test
     public void testUriWithoutSsl()
             throws SQLException
@@ -101,6 +101,11 @@ public final class SystemSessionProperties
     public static final String QUERY_PRIORITY = "query_priority";
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
+    public static final String ORDER_BY_SPILL_ENABLED = "order_by_spill_enabled";
+    public static final String SPILL_MAX_MERGE_FAN_IN = "spill_max_merge_fan_in";
+    public static final String WINDOW_SPILL_ENABLED = "window_spill_enabled";
+    public static final String DISTINCT_AND_ROW_NUMBER_SPILL_ENABLED = "distinct_and_row_number_spill_enabled";
+    public static final String TIERED_EXPRESSION_EXECUTION_ENABLED = "tiered_expression_execution_enabled";
     public static final String OPTIMIZE_DISTINCT_AGGREGATIONS = "optimize_mixed_distinct_aggregations";
     public static final String LEGACY_ROW_FIELD_ORDINAL_ACCESS = "legacy_row_field_ordinal_access";
     public static final String ITERATIVE_OPTIMIZER = "iterative_optimizer_enabled";
@@ -130,6 +135,11 @@ public final class SystemSessionProperties
     public static final String PUSH_LIMIT_THROUGH_OUTER_JOIN = "push_limit_through_outer_join";
     public static final String MAX_CONCURRENT_MATERIALIZATIONS = "max_concurrent_materializations";
     public static final String PUSHDOWN_SUBFIELDS_ENABLED = "pushdown_subfields_enabled";
+    public static final String DYNAMIC_FILTERING_ENABLED = "dynamic_filtering_enabled";
+    public static final String DYNAMIC_FILTERING_WAIT_TIMEOUT = "dynamic_filtering_wait_timeout";
+    public static final String DYNAMIC_FILTERING_MAX_DISTINCT_VALUES = "dynamic_filtering_max_distinct_values";
+    public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
+    public static final String PLAN_CACHE_ENABLED = "plan_cache_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -470,6 +480,31 @@ public final class SystemSessionProperties
                         false,
                         value -> DataSize.valueOf((String) value),
                         DataSize::toString),
+                booleanProperty(
+                        ORDER_BY_SPILL_ENABLED,
+                        "Experimental: Allow ORDER BY to spill to disk when spilling is enabled",
+                        featuresConfig.isOrderBySpillEnabled(),
+                        false),
+                integerProperty(
+                        SPILL_MAX_MERGE_FAN_IN,
+                        "Experimental: Maximum number of spilled runs merged at once",
+                        featuresConfig.getSpillMaxMergeFanIn(),
+                        false),
+                booleanProperty(
+                        WINDOW_SPILL_ENABLED,
+                        "Experimental: Allow window functions to spill to disk when spilling is enabled",
+                        featuresConfig.isWindowSpillEnabled(),
+                        false),
+                booleanProperty(
+                        DISTINCT_AND_ROW_NUMBER_SPILL_ENABLED,
+                        "Experimental: Allow mark distinct and row number operators to spill to disk when spilling is enabled",
+                        featuresConfig.isDistinctAndRowNumberSpillEnabled(),
+                        false),
+                booleanProperty(
+                        TIERED_EXPRESSION_EXECUTION_ENABLED,
+                        "Experimental: Interpret filters and projections until their compiled versions are ready",
+                        featuresConfig.isTieredExpressionExecutionEnabled(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_DISTINCT_AGGREGATIONS,
                         "Optimize mixed non-distinct and distinct aggregations",
@@ -626,6 +661,35 @@ public final class SystemSessionProperties
                         PUSHDOWN_SUBFIELDS_ENABLED,
                         "Experimental: enable subfield pruning",
                         featuresConfig.isPushdownSubfieldsEnabled(),
+                        false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_ENABLED,
+                        "Experimental: filter the probe side table scan of a join using the join keys collected from the build side",
+                        featuresConfig.isDynamicFilteringEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        DYNAMIC_FILTERING_WAIT_TIMEOUT,
+                        "Maximum time a table scan waits for the dynamic filter to be collected",
+                        VARCHAR,
+                        Duration.class,
+                        featuresConfig.getDynamicFilteringWaitTimeout(),
+                        false,
+                        value -> Duration.valueOf((String) value),
+                        Duration::toString),
+                integerProperty(
+                        DYNAMIC_FILTERING_MAX_DISTINCT_VALUES,
+                        "Maximum number of distinct build side values per join key kept in a dynamic filter",
+                        featuresConfig.getDynamicFilteringMaxDistinctValues(),
+                        false),
+                booleanProperty(
+                        FRAGMENT_RESULT_CACHING_ENABLED,
+                        "Enable caching of leaf fragment results on workers",
+                        false,
+                        false),
+                booleanProperty(
+                        PLAN_CACHE_ENABLED,
+                        "Use the coordinator plan cache when it is enabled",
+                        true,
                         false));
     }
 
@@ -881,6 +945,33 @@ public final class SystemSessionProperties
         return memoryLimitForMerge;
     }
 
+    public static boolean isOrderBySpillEnabled(Session session)
+    {
+        return session.getSystemProperty(ORDER_BY_SPILL_ENABLED, Boolean.class);
+    }
+
+    public static int getSpillMaxMergeFanIn(Session session)
+    {
+        int maxMergeFanIn = session.getSystemProperty(SPILL_MAX_MERGE_FAN_IN, Integer.class);
+        checkArgument(maxMergeFanIn >= 2, "%s must be at least 2", SPILL_MAX_MERGE_FAN_IN);
+        return maxMergeFanIn;
+    }
+
+    public static boolean isWindowSpillEnabled(Session session)
+    {
+        return session.getSystemProperty(WINDOW_SPILL_ENABLED, Boolean.class);
+    }
+
+    public static boolean isDistinctAndRowNumberSpillEnabled(Session session)
+    {
+        return session.getSystemProperty(DISTINCT_AND_ROW_NUMBER_SPILL_ENABLED, Boolean.class);
+    }
+
+    public static boolean isTieredExpressionExecutionEnabled(Session session)
+    {
+        return session.getSystemProperty(TIERED_EXPRESSION_EXECUTION_ENABLED, Boolean.class);
+    }
+
     public static boolean isOptimizeDistinctAggregationEnabled(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DISTINCT_AGGREGATIONS, Boolean.class);
@@ -1063,4 +1154,29 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(PUSHDOWN_SUBFIELDS_ENABLED, Boolean.class);
     }
+
+    public static boolean isDynamicFilteringEnabled(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_ENABLED, Boolean.class);
+    }
+
+    public static Duration getDynamicFilteringWaitTimeout(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_WAIT_TIMEOUT, Duration.class);
+    }
+
+    public static int getDynamicFilteringMaxDistinctValues(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_MAX_DISTINCT_VALUES, Integer.class);
+    }
+
+    public static boolean isFragmentResultCachingEnabled(Session session)
+    {
+        return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isPlanCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(PLAN_CACHE_ENABLED, Boolean.class);
+    }
 }
@@ -14,8 +14,10 @@
 package com.facebook.presto.cost;
 
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.spi.statistics.Histogram;
 import com.facebook.presto.sql.tree.ComparisonExpression;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
 
@@ -90,7 +92,7 @@ public final class ComparisonStatsCalculator
             filterRange = new StatisticRange(NEGATIVE_INFINITY, POSITIVE_INFINITY, 1);
         }
         StatisticRange intersectRange = expressionRange.intersect(filterRange);
-        double filterFactor = 1 - expressionRange.overlapPercentWith(intersectRange);
+        double filterFactor = 1 - filterFactor(expressionStatistics, expressionRange, intersectRange);
 
         PlanNodeStatsEstimate.Builder estimate = PlanNodeStatsEstimate.buildFrom(inputStatistics);
         estimate.setOutputRowCount(filterFactor * (1 - expressionStatistics.getNullsFraction()) * inputStatistics.getOutputRowCount());
@@ -133,7 +135,7 @@ public final class ComparisonStatsCalculator
         StatisticRange expressionRange = StatisticRange.from(expressionStatistics);
         StatisticRange intersectRange = expressionRange.intersect(filterRange);
 
-        double filterFactor = expressionRange.overlapPercentWith(intersectRange);
+        double filterFactor = filterFactor(expressionStatistics, expressionRange, intersectRange);
 
         PlanNodeStatsEstimate estimate = inputStatistics.mapOutputRowCount(rowCount -> filterFactor * (1 - expressionStatistics.getNullsFraction()) * rowCount);
         if (expressionVariable.isPresent()) {
@@ -142,12 +144,57 @@ public final class ComparisonStatsCalculator
                             .setAverageRowSize(expressionStatistics.getAverageRowSize())
                             .setStatisticsRange(intersectRange)
                             .setNullsFraction(0.0)
+                            .setHistogram(expressionStatistics.getHistogram())
                             .build();
             estimate = estimate.mapVariableColumnStatistics(expressionVariable.get(), oldStats -> symbolNewEstimate);
         }
         return estimate;
     }
 
+    /**
+     * Returns the fraction of the non-null values within {@code expressionRange} that also
+     * fall within {@code intersectRange}. Uses the histogram when one is available, and
+     * otherwise assumes the values are uniformly distributed over the range.
+     */
+    private static double filterFactor(VariableStatsEstimate expressionStatistics, StatisticRange expressionRange, StatisticRange intersectRange)
+    {
+        if (!expressionStatistics.getHistogram().isPresent() || intersectRange.isEmpty()) {
+            return expressionRange.overlapPercentWith(intersectRange);
+        }
+        Histogram histogram = expressionStatistics.getHistogram().get();
+
+        // the histogram may cover a wider range than the expression, which was already narrowed by other predicates
+        double expressionFraction = histogram.getRangeFraction(expressionRange.getLow(), expressionRange.getHigh());
+        if (!(expressionFraction > 0)) {
+            return expressionRange.overlapPercentWith(intersectRange);
+        }
+
+        if (intersectRange.getLow() != intersectRange.getHigh()) {
+            return min(histogram.getRangeFraction(intersectRange.getLow(), intersectRange.getHigh()) / expressionFraction, 1);
+        }
+
+        double value = intersectRange.getLow();
+        OptionalDouble mostCommonValueFraction = histogram.getMostCommonValueFraction(value);
+        if (mostCommonValueFraction.isPresent()) {
+            return min(mostCommonValueFraction.getAsDouble() / expressionFraction, 1);
+        }
+        if (isNaN(expressionRange.getDistinctValuesCount())) {
+            return expressionRange.overlapPercentWith(intersectRange);
+        }
+
+        // spread the values that are not among the most common ones evenly over the remaining distinct values
+        double otherFraction = expressionFraction;
+        int otherDistinctValuesCount = 0;
+        for (Map.Entry<Double, Double> entry : histogram.getMostCommonValues().entrySet()) {
+            if (entry.getKey() >= expressionRange.getLow() && entry.getKey() <= expressionRange.getHigh()) {
+                otherFraction -= entry.getValue();
+                otherDistinctValuesCount++;
+            }
+        }
+        double otherDistinctValues = max(expressionRange.getDistinctValuesCount() - otherDistinctValuesCount, 1);
+        return max(otherFraction, 0) / otherDistinctValues / expressionFraction;
+    }
+
     public static PlanNodeStatsEstimate estimateExpressionToExpressionComparison(
             PlanNodeStatsEstimate inputStatistics,
             VariableStatsEstimate leftExpressionStatistics,
@@ -192,6 +239,9 @@ public final class ComparisonStatsCalculator
         double leftNdv = leftExpressionRange.getDistinctValuesCount();
         double rightNdv = rightExpressionRange.getDistinctValuesCount();
         double filterFactor = 1.0 / max(leftNdv, rightNdv, 1);
+        if (leftExpressionStatistics.getHistogram().isPresent() && rightExpressionStatistics.getHistogram().isPresent()) {
+            filterFactor = joinFilterFactor(leftExpressionStatistics.getHistogram().get(), leftNdv, rightExpressionStatistics.getHistogram().get(), rightNdv);
+        }
         double retainedNdv = min(leftNdv, rightNdv);
 
         PlanNodeStatsEstimate.Builder estimate = PlanNodeStatsEstimate.buildFrom(inputStatistics)
@@ -210,6 +260,41 @@ public final class ComparisonStatsCalculator
         return estimate.build();
     }
 
+    /**
+     * Estimates the selectivity of an equality between two expressions from their most common
+     * values. Matching most common values contribute the product of their frequencies, the
+     * unmatched ones are compared with the less common values of the other side, and the
+     * remaining values are assumed to follow the containment assumption.
+     */
+    private static double joinFilterFactor(Histogram left, double leftNdv, Histogram right, double rightNdv)
+    {
+        double matchedFraction = 0;
+        double leftMatchedFraction = 0;
+        double rightMatchedFraction = 0;
+        for (Map.Entry<Double, Double> entry : left.getMostCommonValues().entrySet()) {
+            OptionalDouble rightFraction = right.getMostCommonValueFraction(entry.getKey());
+            if (rightFraction.isPresent()) {
+                matchedFraction += entry.getValue() * rightFraction.getAsDouble();
+                leftMatchedFraction += entry.getValue();
+                rightMatchedFraction += rightFraction.getAsDouble();
+            }
+        }
+
+        double leftOtherFraction = 1 - left.getMostCommonValuesTotalFraction();
+        double rightOtherFraction = 1 - right.getMostCommonValuesTotalFraction();
+        double leftOtherNdv = max(leftNdv - left.getMostCommonValues().size(), 1);
+        double rightOtherNdv = max(rightNdv - right.getMostCommonValues().size(), 1);
+
+        double leftUnmatchedFraction = max(left.getMostCommonValuesTotalFraction() - leftMatchedFraction, 0);
+        double rightUnmatchedFraction = max(right.getMostCommonValuesTotalFraction() - rightMatchedFraction, 0);
+
+        double filterFactor = matchedFraction
+                + leftUnmatchedFraction * rightOtherFraction / rightOtherNdv
+                + rightUnmatchedFraction * leftOtherFraction / leftOtherNdv
+                + leftOtherFraction * rightOtherFraction / max(leftOtherNdv, rightOtherNdv);
+        return min(filterFactor, 1);
+    }
+
     private static PlanNodeStatsEstimate estimateExpressionNotEqualToExpression(
             PlanNodeStatsEstimate inputStatistics,
             VariableStatsEstimate leftExpressionStatistics,
@@ -84,6 +84,7 @@ public class TableScanStatsRule
             result.setLowValue(range.getMin());
             result.setHighValue(range.getMax());
         });
+        result.setHistogram(columnStatistics.getHistogram());
         return result.build();
     }
 }
@@ -13,10 +13,12 @@
  */
 package com.facebook.presto.cost;
 
+import com.facebook.presto.spi.statistics.Histogram;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -27,6 +29,7 @@ import static java.lang.Double.POSITIVE_INFINITY;
 import static java.lang.Double.isInfinite;
 import static java.lang.Double.isNaN;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 public class VariableStatsEstimate
 {
@@ -39,6 +42,7 @@ public class VariableStatsEstimate
     private final double nullsFraction;
     private final double averageRowSize;
     private final double distinctValuesCount;
+    private final Optional<Histogram> histogram;
 
     public static VariableStatsEstimate unknown()
     {
@@ -50,13 +54,24 @@ public class VariableStatsEstimate
         return ZERO;
     }
 
+    public VariableStatsEstimate(
+            double lowValue,
+            double highValue,
+            double nullsFraction,
+            double averageRowSize,
+            double distinctValuesCount)
+    {
+        this(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, Optional.empty());
+    }
+
     @JsonCreator
     public VariableStatsEstimate(
             @JsonProperty("lowValue") double lowValue,
             @JsonProperty("highValue") double highValue,
             @JsonProperty("nullsFraction") double nullsFraction,
             @JsonProperty("averageRowSize") double averageRowSize,
-            @JsonProperty("distinctValuesCount") double distinctValuesCount)
+            @JsonProperty("distinctValuesCount") double distinctValuesCount,
+            @JsonProperty("histogram") Optional<Histogram> histogram)
     {
         checkArgument(
                 lowValue <= highValue || (isNaN(lowValue) && isNaN(highValue)),
@@ -79,6 +94,10 @@ public class VariableStatsEstimate
         checkArgument(distinctValuesCount >= 0 || isNaN(distinctValuesCount), "Distinct values count should be non-negative, got: %s", distinctValuesCount);
         // TODO normalize distinctValuesCount for an empty range (or validate it is already normalized)
         this.distinctValuesCount = distinctValuesCount;
+
+        requireNonNull(histogram, "histogram is null");
+        // the histogram describes the non-null values, which an empty range does not have
+        this.histogram = isEmptyRange ? Optional.empty() : histogram;
     }
 
     @JsonProperty
@@ -121,6 +140,17 @@ public class VariableStatsEstimate
         return distinctValuesCount;
     }
 
+    /**
+     * Distribution of the non-null values, if known. It may describe a wider range
+     * than {@link #getLowValue()} and {@link #getHighValue()} when the range has been
+     * narrowed without rebuilding the histogram.
+     */
+    @JsonProperty
+    public Optional<Histogram> getHistogram()
+    {
+        return histogram;
+    }
+
     public VariableStatsEstimate mapNullsFraction(Function<Double, Double> mappingFunction)
     {
         return buildFrom(this).setNullsFraction(mappingFunction.apply(nullsFraction)).build();
@@ -157,13 +187,14 @@ public class VariableStatsEstimate
                 Double.compare(averageRowSize, that.averageRowSize) == 0 &&
                 Double.compare(distinctValuesCount, that.distinctValuesCount) == 0 &&
                 Double.compare(lowValue, that.lowValue) == 0 &&
-                Double.compare(highValue, that.highValue) == 0;
+                Double.compare(highValue, that.highValue) == 0 &&
+                Objects.equals(histogram, that.histogram);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount);
+        return Objects.hash(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, histogram);
     }
 
     @Override
@@ -174,6 +205,7 @@ public class VariableStatsEstimate
                 .add("nulls", nullsFraction)
                 .add("ndv", distinctValuesCount)
                 .add("rowSize", averageRowSize)
+                .add("histogram", histogram.isPresent())
                 .toString();
     }
 
@@ -189,7 +221,8 @@ public class VariableStatsEstimate
                 .setHighValue(other.getHighValue())
                 .setNullsFraction(other.getNullsFraction())
                 .setAverageRowSize(other.getAverageRowSize())
-                .setDistinctValuesCount(other.getDistinctValuesCount());
+                .setDistinctValuesCount(other.getDistinctValuesCount())
+                .setHistogram(other.getHistogram());
     }
 
     public static final class Builder
@@ -199,6 +232,7 @@ public class VariableStatsEstimate
         private double nullsFraction = NaN;
         private double averageRowSize = NaN;
         private double distinctValuesCount = NaN;
+        private Optional<Histogram> histogram = Optional.empty();
 
         public Builder setStatisticsRange(StatisticRange range)
         {
@@ -237,9 +271,15 @@ public class VariableStatsEstimate
             return this;
         }
 
+        public Builder setHistogram(Optional<Histogram> histogram)
+        {
+            this.histogram = requireNonNull(histogram, "histogram is null");
+            return this;
+        }
+
         public VariableStatsEstimate build()
         {
-            return new VariableStatsEstimate(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount);
+            return new VariableStatsEstimate(lowValue, highValue, nullsFraction, averageRowSize, distinctValuesCount, histogram);
         }
     }
 }
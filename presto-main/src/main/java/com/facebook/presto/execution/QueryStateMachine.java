@@ -45,6 +45,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.airlift.units.Duration;
 import org.joda.time.DateTime;
 
 import javax.annotation.Nullable;
@@ -141,6 +142,7 @@ public class QueryStateMachine
 
     private final AtomicReference<Set<Input>> inputs = new AtomicReference<>(ImmutableSet.of());
     private final AtomicReference<Optional<Output>> output = new AtomicReference<>(Optional.empty());
+    private final AtomicReference<Optional<Duration>> savedPlanningTime = new AtomicReference<>(Optional.empty());
     private final StateMachine<Optional<QueryInfo>> finalQueryInfo;
 
     private final WarningCollector warningCollector;
@@ -538,6 +540,8 @@ public class QueryStateMachine
                 queryStateTimer.getAnalysisTime(),
                 queryStateTimer.getPlanningTime(),
                 queryStateTimer.getFinishingTime(),
+                savedPlanningTime.get().isPresent(),
+                savedPlanningTime.get().orElse(new Duration(0, MILLISECONDS)),
 
                 totalTasks,
                 runningTasks,
@@ -711,6 +715,14 @@ public class QueryStateMachine
         this.updateType.set(updateType);
     }
 
+    /**
+     * Records that the plan of the query was taken from the plan cache, which saved the given planning time.
+     */
+    public void setPlanCacheHit(Duration savedPlanningTime)
+    {
+        this.savedPlanningTime.set(Optional.of(requireNonNull(savedPlanningTime, "savedPlanningTime is null")));
+    }
+
     public QueryState getQueryState()
     {
         return queryState.get();
@@ -1015,6 +1027,8 @@ public class QueryStateMachine
                 queryStats.getAnalysisTime(),
                 queryStats.getTotalPlanningTime(),
                 queryStats.getFinishingTime(),
+                queryStats.isPlanCacheHit(),
+                queryStats.getSavedPlanningTime(),
                 queryStats.getTotalTasks(),
                 queryStats.getRunningTasks(),
                 queryStats.getCompletedTasks(),
@@ -52,6 +52,8 @@ public class QueryStats
     private final Duration analysisTime;
     private final Duration totalPlanningTime;
     private final Duration finishingTime;
+    private final boolean planCacheHit;
+    private final Duration savedPlanningTime;
 
     private final int totalTasks;
     private final int runningTasks;
@@ -111,6 +113,8 @@ public class QueryStats
             @JsonProperty("analysisTime") Duration analysisTime,
             @JsonProperty("totalPlanningTime") Duration totalPlanningTime,
             @JsonProperty("finishingTime") Duration finishingTime,
+            @JsonProperty("planCacheHit") boolean planCacheHit,
+            @JsonProperty("savedPlanningTime") Duration savedPlanningTime,
 
             @JsonProperty("totalTasks") int totalTasks,
             @JsonProperty("runningTasks") int runningTasks,
@@ -168,6 +172,8 @@ public class QueryStats
         this.analysisTime = requireNonNull(analysisTime, "analysisTime is null");
         this.totalPlanningTime = requireNonNull(totalPlanningTime, "totalPlanningTime is null");
         this.finishingTime = requireNonNull(finishingTime, "finishingTime is null");
+        this.planCacheHit = planCacheHit;
+        this.savedPlanningTime = requireNonNull(savedPlanningTime, "savedPlanningTime is null");
 
         checkArgument(totalTasks >= 0, "totalTasks is negative");
         this.totalTasks = totalTasks;
@@ -239,6 +245,8 @@ public class QueryStats
                 new Duration(0, MILLISECONDS),
                 new Duration(0, MILLISECONDS),
                 new Duration(0, MILLISECONDS),
+                false,
+                new Duration(0, MILLISECONDS),
                 0,
                 0,
                 0,
@@ -341,6 +349,18 @@ public class QueryStats
         return finishingTime;
     }
 
+    @JsonProperty
+    public boolean isPlanCacheHit()
+    {
+        return planCacheHit;
+    }
+
+    @JsonProperty
+    public Duration getSavedPlanningTime()
+    {
+        return savedPlanningTime;
+    }
+
     @JsonProperty
     public int getTotalTasks()
     {
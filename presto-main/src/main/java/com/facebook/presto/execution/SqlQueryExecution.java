@@ -52,6 +52,9 @@ import com.facebook.presto.sql.planner.NodePartitioningManager;
 import com.facebook.presto.sql.planner.OutputExtractor;
 import com.facebook.presto.sql.planner.PartitioningHandle;
 import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.PlanCache;
+import com.facebook.presto.sql.planner.PlanCache.CachedPlan;
+import com.facebook.presto.sql.planner.PlanCache.PlanCacheKey;
 import com.facebook.presto.sql.planner.PlanFragmenter;
 import com.facebook.presto.sql.planner.PlanOptimizers;
 import com.facebook.presto.sql.planner.SplitSourceFactory;
@@ -90,6 +93,7 @@ import static io.airlift.concurrent.MoreFutures.addExceptionCallback;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.nanosSince;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -124,6 +128,7 @@ public class SqlQueryExecution
     private final Analysis analysis;
     private final StatsCalculator statsCalculator;
     private final CostCalculator costCalculator;
+    private final PlanCache planCache;
 
     private SqlQueryExecution(
             String query,
@@ -154,6 +159,7 @@ public class SqlQueryExecution
             SplitSchedulerStats schedulerStats,
             StatsCalculator statsCalculator,
             CostCalculator costCalculator,
+            PlanCache planCache,
             WarningCollector warningCollector)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", session.getQueryId())) {
@@ -174,6 +180,7 @@ public class SqlQueryExecution
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
 
             checkArgument(scheduleSplitBatchSize > 0, "scheduleSplitBatchSize must be greater than 0");
             this.scheduleSplitBatchSize = scheduleSplitBatchSize;
@@ -215,6 +222,15 @@ public class SqlQueryExecution
 
             stateMachine.setUpdateType(analysis.getUpdateType());
 
+            // writes may change the results of cached plans
+            if (analysis.getUpdateType() != null) {
+                stateMachine.addStateChangeListener(state -> {
+                    if (state.isDone()) {
+                        planCache.invalidateAll();
+                    }
+                });
+            }
+
             // when the query finishes cache the final query info, and clear the reference to the output stage
             AtomicReference<SqlQueryScheduler> queryScheduler = this.queryScheduler;
             stateMachine.addStateChangeListener(state -> {
@@ -419,10 +435,25 @@ public class SqlQueryExecution
         // time analysis phase
         stateMachine.beginAnalysis();
 
-        // plan query
-        PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
-        LogicalPlanner logicalPlanner = new LogicalPlanner(false, stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser, statsCalculator, costCalculator, stateMachine.getWarningCollector());
-        Plan plan = logicalPlanner.plan(analysis);
+        // plan query, or reuse the plan of an identical query
+        Optional<PlanCacheKey> planCacheKey = planCache.createKey(stateMachine.getSession(), analysis);
+        Optional<CachedPlan> cachedPlan = planCacheKey.flatMap(key -> planCache.get(key, analysis));
+        PlanNodeIdAllocator idAllocator;
+        Plan plan;
+        if (cachedPlan.isPresent()) {
+            idAllocator = new PlanNodeIdAllocator(cachedPlan.get().getNextPlanNodeId());
+            plan = cachedPlan.get().getPlan();
+            stateMachine.setPlanCacheHit(cachedPlan.get().getPlanningTime());
+        }
+        else {
+            idAllocator = new PlanNodeIdAllocator();
+            LogicalPlanner logicalPlanner = new LogicalPlanner(false, stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser, statsCalculator, costCalculator, stateMachine.getWarningCollector());
+            long planningStart = System.nanoTime();
+            plan = logicalPlanner.plan(analysis);
+            if (planCacheKey.isPresent()) {
+                planCache.put(planCacheKey.get(), plan, nanosSince(planningStart));
+            }
+        }
         queryPlan.set(plan);
 
         // extract inputs
@@ -674,6 +705,7 @@ public class SqlQueryExecution
         private final ClusterSizeMonitor clusterSizeMonitor;
         private final StatsCalculator statsCalculator;
         private final CostCalculator costCalculator;
+        private final PlanCache planCache;
 
         @Inject
         SqlQueryExecutionFactory(QueryManagerConfig config,
@@ -697,7 +729,8 @@ public class SqlQueryExecution
                 SplitSchedulerStats schedulerStats,
                 ClusterSizeMonitor clusterSizeMonitor,
                 StatsCalculator statsCalculator,
-                CostCalculator costCalculator)
+                CostCalculator costCalculator,
+                PlanCache planCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -723,6 +756,7 @@ public class SqlQueryExecution
             this.planOptimizers = planOptimizers.get();
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
         }
 
         @Override
@@ -767,6 +801,7 @@ public class SqlQueryExecution
                     schedulerStats,
                     statsCalculator,
                     costCalculator,
+                    planCache,
                     warningCollector);
 
             return execution;
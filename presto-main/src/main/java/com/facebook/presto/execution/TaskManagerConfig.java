@@ -76,6 +76,8 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueShards = 1;
+    private boolean queryFairSchedulingEnabled;
 
     private boolean legacyLifespanCompletionCondition;
 
@@ -228,6 +230,33 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueShards()
+    {
+        return splitQueueShards;
+    }
+
+    @Config("task.split-queue-shards")
+    @ConfigDescription("Number of independently locked run queues that runner threads take splits from; idle threads steal from other queues")
+    public TaskManagerConfig setSplitQueueShards(int splitQueueShards)
+    {
+        this.splitQueueShards = splitQueueShards;
+        return this;
+    }
+
+    public boolean isQueryFairSchedulingEnabled()
+    {
+        return queryFairSchedulingEnabled;
+    }
+
+    @Config("task.query-fair-scheduling-enabled")
+    @ConfigDescription("Charge scheduled time to the query instead of the task, so queries with many tasks do not get a larger share of a level")
+    public TaskManagerConfig setQueryFairSchedulingEnabled(boolean queryFairSchedulingEnabled)
+    {
+        this.queryFairSchedulingEnabled = queryFairSchedulingEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
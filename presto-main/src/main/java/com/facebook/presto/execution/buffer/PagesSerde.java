@@ -20,7 +20,6 @@ import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
-import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 import javax.annotation.concurrent.NotThreadSafe;
@@ -34,19 +33,27 @@ import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readRawPage;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
-import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final int INITIAL_SERIALIZATION_BUFFER_SIZE = 4 * 1024;
+    // scratch buffers larger than this are not kept after serializing an unusually large page
+    private static final int MAX_RETAINED_SCRATCH_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
 
+    // scratch buffers reused across calls to serialize, so that only the final
+    // serialized page is allocated for each page
+    private DynamicSliceOutput serializationBuffer = new DynamicSliceOutput(INITIAL_SERIALIZATION_BUFFER_SIZE);
+    private ByteBuffer compressionBuffer = EMPTY_BUFFER;
+
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
@@ -59,14 +66,18 @@ public class PagesSerde
 
     public SerializedPage serialize(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        serializationBuffer.reset();
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
         int uncompressedSize = serializationBuffer.size();
         byte markers = PageCodecMarker.none();
 
         if (compressor.isPresent()) {
-            ByteBuffer compressionBuffer = ByteBuffer.allocate(compressor.get().maxCompressedLength(uncompressedSize));
+            int maxCompressedLength = compressor.get().maxCompressedLength(uncompressedSize);
+            if (compressionBuffer.capacity() < maxCompressedLength) {
+                compressionBuffer = ByteBuffer.allocate(maxCompressedLength);
+            }
+            compressionBuffer.clear();
             compressor.get().compress(slice.toByteBuffer(), compressionBuffer);
             compressionBuffer.flip();
             if ((((double) compressionBuffer.remaining()) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
@@ -80,14 +91,34 @@ public class PagesSerde
             markers = ENCRYPTED.set(markers);
         }
         else {
-            //  Encryption disabled, slice data is likely much smaller than its backing buffer
-            //  either because of compression or dynamic sizing of the initial output slice
+            //  Encryption disabled, slice data points into one of the scratch buffers
+            //  which are reused for the next page, so it must be copied out
             slice = Slices.copyOf(slice);
         }
 
+        trimScratchBuffers();
+
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize);
     }
 
+    /**
+     * Returns the memory retained by the scratch buffers reused across calls to {@link #serialize(Page)}.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return serializationBuffer.getRetainedSize() + compressionBuffer.capacity();
+    }
+
+    private void trimScratchBuffers()
+    {
+        if (serializationBuffer.getRetainedSize() > MAX_RETAINED_SCRATCH_BUFFER_SIZE) {
+            serializationBuffer = new DynamicSliceOutput(INITIAL_SERIALIZATION_BUFFER_SIZE);
+        }
+        if (compressionBuffer.capacity() > MAX_RETAINED_SCRATCH_BUFFER_SIZE) {
+            compressionBuffer = EMPTY_BUFFER;
+        }
+    }
+
     public Page deserialize(SerializedPage serializedPage)
     {
         checkArgument(serializedPage != null, "serializedPage is null");
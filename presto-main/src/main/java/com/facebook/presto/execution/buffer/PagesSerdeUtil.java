@@ -20,17 +20,27 @@ import com.google.common.collect.AbstractIterator;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 import static com.facebook.presto.block.BlockSerdeUtil.readBlock;
 import static com.facebook.presto.block.BlockSerdeUtil.writeBlock;
+import static com.google.common.io.ByteStreams.read;
+import static com.google.common.io.ByteStreams.readFully;
 import static java.lang.Math.toIntExact;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 
 public class PagesSerdeUtil
 {
+    // position count, codec markers, uncompressed size and size
+    public static final int SERIALIZED_PAGE_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
     private PagesSerdeUtil()
     {
     }
@@ -154,4 +164,53 @@ public class PagesSerdeUtil
             return readSerializedPage(input);
         }
     }
+
+    /**
+     * Reads serialized pages directly from a stream. Unlike reading through a buffered
+     * {@link SliceInput}, the data of each page is read straight into its own buffer
+     * without an intermediate copy.
+     */
+    public static Iterator<SerializedPage> readSerializedPages(InputStream inputStream)
+    {
+        return new SerializedPageStreamReader(inputStream);
+    }
+
+    private static class SerializedPageStreamReader
+            extends AbstractIterator<SerializedPage>
+    {
+        private final InputStream input;
+        private final byte[] header = new byte[SERIALIZED_PAGE_HEADER_SIZE];
+        private final Slice headerSlice = Slices.wrappedBuffer(header);
+
+        SerializedPageStreamReader(InputStream input)
+        {
+            this.input = requireNonNull(input, "input is null");
+        }
+
+        @Override
+        protected SerializedPage computeNext()
+        {
+            try {
+                int headerBytes = read(input, header, 0, header.length);
+                if (headerBytes == 0) {
+                    return endOfData();
+                }
+                if (headerBytes < header.length) {
+                    throw new EOFException("Unexpected end of stream while reading serialized page header");
+                }
+
+                int positionCount = headerSlice.getInt(0);
+                byte codecMarker = headerSlice.getByte(Integer.BYTES);
+                int uncompressedSizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES);
+                int sizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES + Integer.BYTES);
+
+                byte[] data = new byte[sizeInBytes];
+                readFully(input, data);
+                return new SerializedPage(Slices.wrappedBuffer(data), codecMarker, positionCount, uncompressedSizeInBytes);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
@@ -17,6 +17,7 @@ import com.facebook.presto.execution.TaskManagerConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeDistribution;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
@@ -28,12 +29,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.floorMod;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -43,39 +46,60 @@ public class MultilevelSplitQueue
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final Shard[] shards;
+
+    // number of waiting splits in each level, across all shards
+    private final AtomicInteger[] levelWaitingSplitCount = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
+
+    // one permit is released for every split added to a shard, and reclaimed when a split
+    // is removed from the queue. A split may be removed after its permit was acquired, so
+    // take() may still acquire a permit and find no split to run.
+    private final Semaphore waitingSplitPermits = new Semaphore(0);
+
+    // shard that splits offered by threads other than the runners are added to
+    private final AtomicInteger nextShard = new AtomicInteger();
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
-
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
+    private final List<TimeDistribution> levelWaitTimes;
 
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueShards());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int shardCount)
+    {
+        checkArgument(shardCount > 0, "shardCount must be at least 1");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
+        ImmutableList.Builder<TimeDistribution> waitTimes = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplitCount[i] = new AtomicInteger();
             counters.add(new CounterStat());
+            waitTimes.add(new TimeDistribution(MICROSECONDS));
+        }
+
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
         }
 
         this.selectedLevelCounters = counters.build();
+        this.levelWaitTimes = waitTimes.build();
 
         this.levelTimeMultiplier = levelTimeMultiplier;
     }
@@ -85,6 +109,26 @@ public class MultilevelSplitQueue
         levelScheduledTime[level].addAndGet(nanos);
     }
 
+    /**
+     * Adds a split to the shards in round robin order.
+     */
+    public void offer(PrioritizedSplitRunner split)
+    {
+        offer(split, floorMod(nextShard.getAndIncrement(), shards.length));
+    }
+
+    /**
+     * Adds a split to the specified shard. Runner threads add the splits they ran to their own shard.
+     */
+    public void offer(PrioritizedSplitRunner split, int shard)
+    {
+        checkArgument(split != null, "split is null");
+        checkArgument(shard >= 0 && shard < shards.length, "invalid shard: %s", shard);
+
+        split.setReady();
+        addSplit(split, shard);
+    }
+
     /**
      * During periods of time when a level has no waiting splits, it will not accumulate
      * scheduled time and will fall behind relative to other levels.
@@ -95,15 +139,13 @@ public class MultilevelSplitQueue
      * To prevent this we set the scheduled time for levels which were empty to the expected
      * scheduled time.
      */
-    public void offer(PrioritizedSplitRunner split)
+    private void addSplit(PrioritizedSplitRunner split, int shardIndex)
     {
-        checkArgument(split != null, "split is null");
-
-        split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
+        Shard shard = shards[shardIndex];
+        shard.lock.lock();
         try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount[level].getAndIncrement() == 0) {
                 // Accesses to levelScheduledTime are not synchronized, so we have a data race
                 // here - our level time math will be off. However, the staleness is bounded by
                 // the fact that only running splits that complete during this computation
@@ -114,39 +156,41 @@ public class MultilevelSplitQueue
                 levelScheduledTime[level].addAndGet(delta);
             }
 
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
+            shard.levelWaitingSplits.get(level).offer(split);
         }
         finally {
-            lock.unlock();
+            shard.lock.unlock();
         }
+        waitingSplitPermits.release();
     }
 
-    public PrioritizedSplitRunner take()
+    /**
+     * Takes the next split for the runner thread that owns {@code homeShard}, waiting if
+     * there is none.
+     */
+    public PrioritizedSplitRunner take(int homeShard)
             throws InterruptedException
     {
+        checkArgument(homeShard >= 0 && homeShard < shards.length, "invalid shard: %s", homeShard);
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            waitingSplitPermits.acquire();
+            PrioritizedSplitRunner result = pollSplit(homeShard);
+            if (result == null) {
+                // the permit belonged to a split that has been removed
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                addSplit(result, homeShard);
+                continue;
+            }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
+            levelWaitTimes.get(selectedLevel).add(result.getReadyWaitNanos());
 
-                return result;
-            }
-            finally {
-                lock.unlock();
-            }
+            return result;
         }
     }
 
@@ -155,17 +199,43 @@ public class MultilevelSplitQueue
      * using levelTimeMultiplier.
      * <p>
      * This function selects the level that has the the lowest ratio of actual to the target time
-     * with the objective of minimizing deviation from the target scheduled time. From this level,
-     * we pick the split with the lowest priority.
+     * with the objective of minimizing deviation from the target scheduled time. The level is
+     * selected across all shards, and the split with the lowest priority in that level is taken
+     * from the home shard, or from the first other shard that has splits in that level.
      */
-    @GuardedBy("lock")
-    private PrioritizedSplitRunner pollSplit()
+    private PrioritizedSplitRunner pollSplit(int homeShard)
+    {
+        while (true) {
+            int selectedLevel = selectLevel();
+            if (selectedLevel == -1) {
+                return null;
+            }
+
+            for (int i = 0; i < shards.length; i++) {
+                Shard shard = shards[(homeShard + i) % shards.length];
+                shard.lock.lock();
+                try {
+                    PrioritizedSplitRunner result = shard.levelWaitingSplits.get(selectedLevel).poll();
+                    if (result != null) {
+                        levelWaitingSplitCount[selectedLevel].decrementAndGet();
+                        return result;
+                    }
+                }
+                finally {
+                    shard.lock.unlock();
+                }
+            }
+            // another thread took the last split of the level, so select again
+        }
+    }
+
+    private int selectLevel()
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount[level].get() > 0) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -176,18 +246,9 @@ public class MultilevelSplitQueue
 
             targetScheduledTime /= levelTimeMultiplier;
         }
-
-        if (selectedLevel == -1) {
-            return null;
-        }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
+        return selectedLevel;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,27 +308,33 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                if (shard.remove(split)) {
+                    waitingSplitPermits.tryAcquire();
+                }
+            }
+            finally {
+                shard.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (PrioritizedSplitRunner split : splits) {
+                    if (shard.remove(split)) {
+                        waitingSplitPermits.tryAcquire();
+                    }
+                }
+            }
+            finally {
+                shard.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
@@ -279,17 +346,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (AtomicInteger count : levelWaitingSplitCount) {
+            total += count.get();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -304,6 +365,12 @@ public class MultilevelSplitQueue
         return LEVEL_THRESHOLD_SECONDS.length - 1;
     }
 
+    @VisibleForTesting
+    int getAvailablePermits()
+    {
+        return waitingSplitPermits.availablePermits();
+    }
+
     @VisibleForTesting
     long getLevelScheduledTime(int level)
     {
@@ -374,4 +441,72 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    @Managed
+    @Nested
+    public TimeDistribution getWaitTimeLevel0()
+    {
+        return levelWaitTimes.get(0);
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getWaitTimeLevel1()
+    {
+        return levelWaitTimes.get(1);
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getWaitTimeLevel2()
+    {
+        return levelWaitTimes.get(2);
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getWaitTimeLevel3()
+    {
+        return levelWaitTimes.get(3);
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getWaitTimeLevel4()
+    {
+        return levelWaitTimes.get(4);
+    }
+
+    @Managed
+    public int getShardCount()
+    {
+        return shards.length;
+    }
+
+    private class Shard
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+
+        private Shard()
+        {
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+
+        @GuardedBy("lock")
+        private boolean remove(PrioritizedSplitRunner split)
+        {
+            boolean removed = false;
+            for (int level = 0; level < levelWaitingSplits.size(); level++) {
+                if (levelWaitingSplits.get(level).remove(split)) {
+                    levelWaitingSplitCount[level].decrementAndGet();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+    }
 }
@@ -194,6 +194,14 @@ public class PrioritizedSplitRunner
         lastReady.set(ticker.read());
     }
 
+    /**
+     * Returns the time since this split was last made ready to run.
+     */
+    public long getReadyWaitNanos()
+    {
+        return ticker.read() - lastReady.get();
+    }
+
     /**
      * Updates the (potentially stale) priority value cached in this object.
      * This should be called when this object is outside the queue.
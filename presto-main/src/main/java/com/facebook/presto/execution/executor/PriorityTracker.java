@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tracks the scheduled time and the split queue priority of a task, or of all the
+ * tasks of a query on this worker when queries are scheduled fairly.
+ */
+@ThreadSafe
+public class PriorityTracker
+{
+    private final MultilevelSplitQueue splitQueue;
+
+    @GuardedBy("this")
+    private long scheduledNanos;
+
+    private final AtomicReference<Priority> priority = new AtomicReference<>(new Priority(0, 0));
+
+    public PriorityTracker(MultilevelSplitQueue splitQueue)
+    {
+        this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
+    }
+
+    public synchronized Priority addScheduledNanos(long durationNanos)
+    {
+        scheduledNanos += durationNanos;
+
+        Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, scheduledNanos);
+
+        priority.set(newPriority);
+        return newPriority;
+    }
+
+    public synchronized Priority resetLevelPriority()
+    {
+        long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), scheduledNanos);
+        if (priority.get().getLevelPriority() < levelMinPriority) {
+            Priority newPriority = new Priority(priority.get().getLevel(), levelMinPriority);
+            priority.set(newPriority);
+            return newPriority;
+        }
+
+        return priority.get();
+    }
+
+    public Priority getPriority()
+    {
+        return priority.get();
+    }
+}
@@ -18,6 +18,7 @@ import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.server.ServerConfig;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.QueryId;
 import com.facebook.presto.version.EmbedVersion;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
@@ -40,6 +41,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -92,6 +94,7 @@ public class TaskExecutor
     private final int guaranteedNumberOfDriversPerTask;
     private final int maximumNumberOfDriversPerTask;
     private final EmbedVersion embedVersion;
+    private final boolean queryFairSchedulingEnabled;
 
     private final Ticker ticker;
 
@@ -101,6 +104,12 @@ public class TaskExecutor
     @GuardedBy("this")
     private final List<TaskHandle> tasks;
 
+    /**
+     * Priority trackers shared by the tasks of each query, when queries are scheduled fairly.
+     */
+    @GuardedBy("this")
+    private final Map<QueryId, PriorityTracker> queryPriorityTrackers = new HashMap<>();
+
     /**
      * All splits registered with the task executor.
      */
@@ -164,6 +173,7 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
+                config.isQueryFairSchedulingEnabled(),
                 Ticker.systemTicker());
     }
 
@@ -188,6 +198,20 @@ public class TaskExecutor
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
             Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, embedVersion, splitQueue, false, ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(
+            int runnerThreads,
+            int minDrivers,
+            int guaranteedNumberOfDriversPerTask,
+            int maximumNumberOfDriversPerTask,
+            EmbedVersion embedVersion,
+            MultilevelSplitQueue splitQueue,
+            boolean queryFairSchedulingEnabled,
+            Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
         checkArgument(guaranteedNumberOfDriversPerTask > 0, "guaranteedNumberOfDriversPerTask must be at least 1");
@@ -206,6 +230,8 @@ public class TaskExecutor
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
         this.maximumNumberOfDriversPerTask = maximumNumberOfDriversPerTask;
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
+        checkArgument(splitQueue.getShardCount() <= runnerThreads, "split queue shards (%s) cannot be more than runnerThreads (%s)", splitQueue.getShardCount(), runnerThreads);
+        this.queryFairSchedulingEnabled = queryFairSchedulingEnabled;
         this.tasks = new LinkedList<>();
     }
 
@@ -214,7 +240,8 @@ public class TaskExecutor
     {
         checkState(!closed, "TaskExecutor is closed");
         for (int i = 0; i < runnerThreads; i++) {
-            addRunnerThread();
+            // every shard of the split queue is owned by at least one runner
+            addRunnerThread(i % waitingSplits.getShardCount());
         }
     }
 
@@ -239,10 +266,10 @@ public class TaskExecutor
                 .toString();
     }
 
-    private synchronized void addRunnerThread()
+    private synchronized void addRunnerThread(int shard)
     {
         try {
-            executor.execute(embedVersion.embedVersion(new TaskRunner()));
+            executor.execute(embedVersion.embedVersion(new TaskRunner(shard)));
         }
         catch (RejectedExecutionException ignored) {
         }
@@ -262,7 +289,15 @@ public class TaskExecutor
 
         log.debug("Task scheduled " + taskId);
 
-        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask);
+        PriorityTracker priorityTracker;
+        if (queryFairSchedulingEnabled) {
+            // tasks of the same query share their scheduled time and level priority
+            priorityTracker = queryPriorityTrackers.computeIfAbsent(taskId.getQueryId(), queryId -> new PriorityTracker(waitingSplits));
+        }
+        else {
+            priorityTracker = new PriorityTracker(waitingSplits);
+        }
+        TaskHandle taskHandle = new TaskHandle(taskId, priorityTracker, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask);
 
         tasks.add(taskHandle);
         return taskHandle;
@@ -285,6 +320,11 @@ public class TaskExecutor
             tasks.remove(taskHandle);
             splits = taskHandle.destroy();
 
+            QueryId queryId = taskHandle.getTaskId().getQueryId();
+            if (tasks.stream().noneMatch(task -> task.getTaskId().getQueryId().equals(queryId))) {
+                queryPriorityTrackers.remove(queryId);
+            }
+
             // stop tracking splits (especially blocked splits which may never unblock)
             allSplits.removeAll(splits);
             intermediateSplits.removeAll(splits);
@@ -456,6 +496,12 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        private final int shard;
+
+        public TaskRunner(int shard)
+        {
+            this.shard = shard;
+        }
 
         @Override
         public void run()
@@ -465,7 +511,7 @@ public class TaskExecutor
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = waitingSplits.take(shard);
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -493,7 +539,7 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                waitingSplits.offer(split);
+                                waitingSplits.offer(split, shard);
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -524,7 +570,7 @@ public class TaskExecutor
             finally {
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
-                    addRunnerThread();
+                    addRunnerThread(shard);
                 }
             }
         }
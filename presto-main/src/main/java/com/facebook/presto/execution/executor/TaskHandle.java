@@ -27,7 +27,6 @@ import java.util.List;
 import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.DoubleSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -55,8 +54,7 @@ public class TaskHandle
 
     private final AtomicInteger nextSplitId = new AtomicInteger();
 
-    protected final AtomicReference<Priority> priority = new AtomicReference<>(new Priority(0, 0));
-    private final MultilevelSplitQueue splitQueue;
+    private final PriorityTracker priorityTracker;
     private final OptionalInt maxDriversPerTask;
 
     public TaskHandle(
@@ -66,9 +64,23 @@ public class TaskHandle
             int initialSplitConcurrency,
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask)
+    {
+        this(taskId, new PriorityTracker(splitQueue), utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask);
+    }
+
+    /**
+     * @param priorityTracker tracks the priority of this task; may be shared with other tasks of the same query
+     */
+    public TaskHandle(
+            TaskId taskId,
+            PriorityTracker priorityTracker,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            OptionalInt maxDriversPerTask)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
-        this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
+        this.priorityTracker = requireNonNull(priorityTracker, "priorityTracker is null");
         this.utilizationSupplier = requireNonNull(utilizationSupplier, "utilizationSupplier is null");
         this.maxDriversPerTask = requireNonNull(maxDriversPerTask, "maxDriversPerTask is null");
         this.concurrencyController = new SplitConcurrencyController(
@@ -81,22 +93,12 @@ public class TaskHandle
         concurrencyController.update(durationNanos, utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         scheduledNanos += durationNanos;
 
-        Priority newPriority = splitQueue.updatePriority(priority.get(), durationNanos, scheduledNanos);
-
-        priority.set(newPriority);
-        return newPriority;
+        return priorityTracker.addScheduledNanos(durationNanos);
     }
 
     public synchronized Priority resetLevelPriority()
     {
-        long levelMinPriority = splitQueue.getLevelMinPriority(priority.get().getLevel(), scheduledNanos);
-        if (priority.get().getLevelPriority() < levelMinPriority) {
-            Priority newPriority = new Priority(priority.get().getLevel(), levelMinPriority);
-            priority.set(newPriority);
-            return newPriority;
-        }
-
-        return priority.get();
+        return priorityTracker.resetLevelPriority();
     }
 
     public synchronized boolean isDestroyed()
@@ -106,7 +108,7 @@ public class TaskHandle
 
     public Priority getPriority()
     {
-        return priority.get();
+        return priorityTracker.getPriority();
     }
 
     public TaskId getTaskId()
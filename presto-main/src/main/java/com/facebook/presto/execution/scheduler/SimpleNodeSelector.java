@@ -18,6 +18,7 @@ import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -40,6 +41,8 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactN
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleNodeSelector
@@ -106,42 +109,37 @@ public class SimpleNodeSelector
         NodeAssignmentStats assignmentStats = new NodeAssignmentStats(nodeTaskMap, nodeMap, existingTasks);
 
         ResettableRandomizedIterator<InternalNode> randomCandidates = randomizedNodes(nodeMap, includeCoordinator, ImmutableSet.of());
+        List<HostAddress> sortedNodeAddresses = null;
         Set<InternalNode> blockedExactNodes = new HashSet<>();
         boolean splitWaitingForAnyNode = false;
         for (Split split : splits) {
             randomCandidates.reset();
 
             List<InternalNode> candidateNodes;
+            List<InternalNode> preferredNodes = ImmutableList.of();
             if (!split.isRemotelyAccessible()) {
                 candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
             }
             else {
-                candidateNodes = selectNodes(minCandidates, randomCandidates);
+                if (sortedNodeAddresses == null) {
+                    sortedNodeAddresses = sortedNodeAddresses(nodeMap, includeCoordinator);
+                }
+                List<HostAddress> preferredAddresses = split.getPreferredNodes(sortedNodeAddresses);
+                if (!preferredAddresses.isEmpty()) {
+                    preferredNodes = selectExactNodes(nodeMap, preferredAddresses, includeCoordinator);
+                }
+                candidateNodes = preferredNodes.isEmpty() ? selectNodes(minCandidates, randomCandidates) : preferredNodes;
             }
             if (candidateNodes.isEmpty()) {
                 log.debug("No nodes available to schedule %s. Available nodes %s", split, nodeMap.getNodesByHost().keys());
                 throw new PrestoException(NO_NODES_AVAILABLE, "No nodes available to run query");
             }
 
-            InternalNode chosenNode = null;
-            int min = Integer.MAX_VALUE;
-
-            for (InternalNode node : candidateNodes) {
-                int totalSplitCount = assignmentStats.getTotalSplitCount(node);
-                if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
-                    chosenNode = node;
-                    min = totalSplitCount;
-                }
-            }
-            if (chosenNode == null) {
-                // min is guaranteed to be MAX_VALUE at this line
-                for (InternalNode node : candidateNodes) {
-                    int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
-                    if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
-                        chosenNode = node;
-                        min = totalSplitCount;
-                    }
-                }
+            InternalNode chosenNode = chooseLeastBusyNode(candidateNodes, assignmentStats);
+            if (chosenNode == null && !preferredNodes.isEmpty()) {
+                // the preference is only a hint, so run the split elsewhere rather than wait for a busy node
+                candidateNodes = selectNodes(minCandidates, randomCandidates);
+                chosenNode = chooseLeastBusyNode(candidateNodes, assignmentStats);
             }
             if (chosenNode != null) {
                 assignment.put(chosenNode, split);
@@ -168,6 +166,42 @@ public class SimpleNodeSelector
         return new SplitPlacementResult(blocked, assignment);
     }
 
+    private InternalNode chooseLeastBusyNode(List<InternalNode> candidateNodes, NodeAssignmentStats assignmentStats)
+    {
+        InternalNode chosenNode = null;
+        int min = Integer.MAX_VALUE;
+
+        for (InternalNode node : candidateNodes) {
+            int totalSplitCount = assignmentStats.getTotalSplitCount(node);
+            if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
+                chosenNode = node;
+                min = totalSplitCount;
+            }
+        }
+        if (chosenNode == null) {
+            // min is guaranteed to be MAX_VALUE at this line
+            for (InternalNode node : candidateNodes) {
+                int totalSplitCount = assignmentStats.getQueuedSplitCountForStage(node);
+                if (totalSplitCount < min && totalSplitCount < maxPendingSplitsPerTask) {
+                    chosenNode = node;
+                    min = totalSplitCount;
+                }
+            }
+        }
+        return chosenNode;
+    }
+
+    private static List<HostAddress> sortedNodeAddresses(NodeMap nodeMap, boolean includeCoordinator)
+    {
+        Set<String> coordinatorIds = nodeMap.getCoordinatorNodeIds();
+        return nodeMap.getNodesByHostAndPort().values().stream()
+                .filter(node -> includeCoordinator || !coordinatorIds.contains(node.getNodeIdentifier()))
+                .map(InternalNode::getHostAndPort)
+                .distinct()
+                .sorted(comparing(HostAddress::toString))
+                .collect(toImmutableList());
+    }
+
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, BucketNodeMap bucketNodeMap)
     {
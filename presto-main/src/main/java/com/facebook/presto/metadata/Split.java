@@ -91,6 +91,11 @@ public final class Split
         return connectorSplit.isRemotelyAccessible();
     }
 
+    public List<HostAddress> getPreferredNodes(List<HostAddress> sortedCandidates)
+    {
+        return connectorSplit.getPreferredNodes(sortedCandidates);
+    }
+
     @Override
     public String toString()
     {
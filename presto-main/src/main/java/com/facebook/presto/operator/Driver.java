@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.execution.ScheduledSplit;
 import com.facebook.presto.execution.TaskSource;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
@@ -30,11 +31,13 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -49,6 +52,7 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static java.lang.Boolean.TRUE;
@@ -72,6 +76,7 @@ public class Driver
     private final List<Operator> allOperators;
     private final Optional<SourceOperator> sourceOperator;
     private final Optional<DeleteOperator> deleteOperator;
+    private final Optional<FragmentResultCacheContext> fragmentResultCacheContext;
 
     // This variable acts as a staging area. When new splits (encapsulated in TaskSource) are
     // provided to a Driver, the Driver will not process them right away. Instead, the splits are
@@ -89,16 +94,42 @@ public class Driver
 
     private final AtomicReference<SettableFuture<?>> driverBlockedFuture = new AtomicReference<>();
 
+    // cached output of this driver, which replaces the output of all operators but the last one
+    @GuardedBy("exclusiveLock")
+    private Optional<Iterator<Page>> cachedResult = Optional.empty();
+
+    // split and pages used to populate the fragment result cache once the driver finishes
+    @GuardedBy("exclusiveLock")
+    @Nullable
+    private Split splitToCache;
+    @GuardedBy("exclusiveLock")
+    @Nullable
+    private List<Page> pagesToCache;
+    @GuardedBy("exclusiveLock")
+    private long pagesToCacheSizeInBytes;
+
+    // accounts for the cached pages not yet consumed by the output operator, or the pages buffered to populate the cache
+    @GuardedBy("exclusiveLock")
+    private final Optional<LocalMemoryContext> fragmentResultCacheMemoryContext;
+    @GuardedBy("exclusiveLock")
+    private long bufferedPagesRetainedSizeInBytes;
+
     private enum State
     {
         ALIVE, NEED_DESTRUCTION, DESTROYED
     }
 
     public static Driver createDriver(DriverContext driverContext, List<Operator> operators)
+    {
+        return createDriver(driverContext, operators, Optional.empty());
+    }
+
+    public static Driver createDriver(DriverContext driverContext, List<Operator> operators, Optional<FragmentResultCacheContext> fragmentResultCacheContext)
     {
         requireNonNull(driverContext, "driverContext is null");
         requireNonNull(operators, "operators is null");
-        Driver driver = new Driver(driverContext, operators);
+        requireNonNull(fragmentResultCacheContext, "fragmentResultCacheContext is null");
+        Driver driver = new Driver(driverContext, operators, fragmentResultCacheContext);
         driver.initialize();
         return driver;
     }
@@ -116,13 +147,16 @@ public class Driver
         return createDriver(driverContext, operators);
     }
 
-    private Driver(DriverContext driverContext, List<Operator> operators)
+    private Driver(DriverContext driverContext, List<Operator> operators, Optional<FragmentResultCacheContext> fragmentResultCacheContext)
     {
         this.driverContext = requireNonNull(driverContext, "driverContext is null");
+        this.fragmentResultCacheContext = requireNonNull(fragmentResultCacheContext, "fragmentResultCacheContext is null");
         this.allOperators = ImmutableList.copyOf(requireNonNull(operators, "operators is null"));
         checkArgument(allOperators.size() > 1, "At least two operators are required");
         this.activeOperators = new ArrayList<>(operators);
         checkArgument(!operators.isEmpty(), "There must be at least one operator");
+        Operator outputOperator = allOperators.get(allOperators.size() - 1);
+        this.fragmentResultCacheMemoryContext = fragmentResultCacheContext.map(context -> outputOperator.getOperatorContext().newLocalSystemMemoryContext(FragmentResultCacheContext.class.getSimpleName()));
 
         Optional<SourceOperator> sourceOperator = Optional.empty();
         Optional<DeleteOperator> deleteOperator = Optional.empty();
@@ -244,6 +278,29 @@ public class Driver
 
         // add new splits
         SourceOperator sourceOperator = this.sourceOperator.orElseThrow(VerifyException::new);
+
+        // results are only cached for drivers that process a single split
+        if (fragmentResultCacheContext.isPresent() && currentTaskSource.getSplits().isEmpty() && newSplits.size() == 1 && newSource.isNoMoreSplits()) {
+            Split split = getOnlyElement(newSplits).getSplit();
+            FragmentResultCacheContext context = fragmentResultCacheContext.get();
+            Optional<Iterator<Page>> cachedPages = context.getFragmentResultCacheManager().get(context.getHashedCanonicalPlan(), split);
+            if (cachedPages.isPresent()) {
+                List<Page> pages = ImmutableList.copyOf(cachedPages.get());
+                for (Page page : pages) {
+                    bufferedPagesRetainedSizeInBytes += page.getRetainedSizeInBytes();
+                }
+                updateFragmentResultCacheMemoryUsage();
+                cachedResult = Optional.of(pages.iterator());
+                sourceOperator.noMoreSplits();
+                currentTaskSource = newSource;
+                return;
+            }
+            if (split.getConnectorSplit().getSplitIdentifier().isPresent()) {
+                splitToCache = split;
+                pagesToCache = new ArrayList<>();
+            }
+        }
+
         for (ScheduledSplit newSplit : newSplits) {
             Split split = newSplit.getSplit();
 
@@ -353,6 +410,10 @@ public class Driver
         try {
             processNewSources();
 
+            if (cachedResult.isPresent()) {
+                return processCachedResult(operationTimer);
+            }
+
             // If there is only one operator, finish it
             // Some operators (LookupJoinOperator and HashBuildOperator) are broken and requires finish to be called continuously
             // TODO remove the second part of the if statement, when these operators are fixed
@@ -384,6 +445,10 @@ public class Driver
                         next.addInput(page);
                         next.getOperatorContext().recordAddInput(operationTimer, page);
                         movedPage = true;
+
+                        if (pagesToCache != null && i == activeOperators.size() - 2) {
+                            addPageToCache(page);
+                        }
                     }
 
                     if (current instanceof SourceOperator) {
@@ -396,6 +461,15 @@ public class Driver
                     // let next operator know there will be no more data
                     next.finish();
                     next.getOperatorContext().recordFinish(operationTimer);
+
+                    // all input of the output operator has been produced, so the result is complete
+                    if (pagesToCache != null && i == activeOperators.size() - 2) {
+                        FragmentResultCacheContext context = fragmentResultCacheContext.get();
+                        context.getFragmentResultCacheManager().put(context.getHashedCanonicalPlan(), splitToCache, pagesToCache);
+                        pagesToCache = null;
+                        bufferedPagesRetainedSizeInBytes = 0;
+                        updateFragmentResultCacheMemoryUsage();
+                    }
                 }
             }
 
@@ -465,6 +539,71 @@ public class Driver
         }
     }
 
+    @GuardedBy("exclusiveLock")
+    private ListenableFuture<?> processCachedResult(OperationTimer operationTimer)
+    {
+        if (activeOperators.size() > 1) {
+            // the operators before the output operator are never run when the result is cached
+            List<Operator> skippedOperators = activeOperators.subList(0, activeOperators.size() - 1);
+            Throwable throwable = closeAndDestroyOperators(skippedOperators);
+            skippedOperators.clear();
+            if (throwable != null) {
+                throwIfUnchecked(throwable);
+                throw new RuntimeException(throwable);
+            }
+        }
+        if (activeOperators.isEmpty() || driverContext.isDone()) {
+            return NOT_BLOCKED;
+        }
+
+        Operator outputOperator = activeOperators.get(0);
+        Iterator<Page> pages = cachedResult.get();
+        if (!pages.hasNext()) {
+            outputOperator.finish();
+            outputOperator.getOperatorContext().recordFinish(operationTimer);
+            return NOT_BLOCKED;
+        }
+
+        Optional<ListenableFuture<?>> blocked = getBlockedFuture(outputOperator);
+        if (blocked.isPresent()) {
+            driverContext.recordBlocked(blocked.get());
+            outputOperator.getOperatorContext().recordBlocked(blocked.get());
+            return blocked.get();
+        }
+
+        if (outputOperator.needsInput()) {
+            Page page = pages.next();
+            bufferedPagesRetainedSizeInBytes -= page.getRetainedSizeInBytes();
+            updateFragmentResultCacheMemoryUsage();
+            outputOperator.addInput(page);
+            outputOperator.getOperatorContext().recordAddInput(operationTimer, page);
+        }
+        return NOT_BLOCKED;
+    }
+
+    @GuardedBy("exclusiveLock")
+    private void addPageToCache(Page page)
+    {
+        pagesToCacheSizeInBytes += page.getSizeInBytes();
+        if (pagesToCacheSizeInBytes > fragmentResultCacheContext.get().getFragmentResultCacheManager().getMaxSingleCachedEntrySizeInBytes()) {
+            // the result is too large to be cached, so stop buffering it
+            splitToCache = null;
+            pagesToCache = null;
+            bufferedPagesRetainedSizeInBytes = 0;
+            updateFragmentResultCacheMemoryUsage();
+            return;
+        }
+        pagesToCache.add(page);
+        bufferedPagesRetainedSizeInBytes += page.getRetainedSizeInBytes();
+        updateFragmentResultCacheMemoryUsage();
+    }
+
+    @GuardedBy("exclusiveLock")
+    private void updateFragmentResultCacheMemoryUsage()
+    {
+        fragmentResultCacheMemoryContext.ifPresent(memoryContext -> memoryContext.setBytes(bufferedPagesRetainedSizeInBytes));
+    }
+
     @GuardedBy("exclusiveLock")
     private void handleMemoryRevoke()
     {
@@ -506,6 +645,10 @@ public class Driver
         // if we get an error while closing a driver, record it and we will throw it at the end
         Throwable inFlightException = null;
         try {
+            // release the buffered pages before the output operator is destroyed
+            cachedResult = Optional.empty();
+            pagesToCache = null;
+            fragmentResultCacheMemoryContext.ifPresent(LocalMemoryContext::close);
             inFlightException = closeAndDestroyOperators(activeOperators);
             if (driverContext.getMemoryUsage() > 0) {
                 log.error("Driver still has memory reserved after freeing all operator memory.");
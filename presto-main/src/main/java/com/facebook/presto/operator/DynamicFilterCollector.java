@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.aggregation.TypedSet;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects the domain of the join keys of a single build side partition.
+ * <p>
+ * Distinct values are collected up to a limit on their count and on their size. Beyond
+ * the limit only the minimum and the maximum values are tracked for orderable types, and
+ * nothing is tracked for other types. Nulls never match in a join, so they are excluded
+ * from the domain.
+ */
+class DynamicFilterCollector
+{
+    private static final long MAX_DISTINCT_VALUES_SIZE_IN_BYTES = new DataSize(1, MEGABYTE).toBytes();
+
+    private final LocalDynamicFilter dynamicFilter;
+    private final List<ChannelCollector> channelCollectors;
+    private final LocalMemoryContext memoryContext;
+
+    private boolean reported;
+
+    public DynamicFilterCollector(LocalDynamicFilter dynamicFilter, List<Integer> hashChannels, List<Type> types, LocalMemoryContext memoryContext)
+    {
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        requireNonNull(types, "types is null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+
+        ImmutableList.Builder<ChannelCollector> channelCollectors = ImmutableList.builder();
+        for (int joinClauseIndex : dynamicFilter.getProbeColumns().keySet()) {
+            int channel = hashChannels.get(joinClauseIndex);
+            channelCollectors.add(new ChannelCollector(joinClauseIndex, channel, types.get(channel), dynamicFilter.getMaxDistinctValues()));
+        }
+        this.channelCollectors = channelCollectors.build();
+    }
+
+    public void addPage(Page page)
+    {
+        if (reported) {
+            return;
+        }
+        for (ChannelCollector channelCollector : channelCollectors) {
+            channelCollector.addBlock(page.getBlock(channelCollector.getChannel()));
+        }
+        memoryContext.setBytes(getRetainedSizeInBytes());
+    }
+
+    private long getRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = 0;
+        for (ChannelCollector channelCollector : channelCollectors) {
+            retainedSizeInBytes += channelCollector.getRetainedSizeInBytes();
+        }
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Reports the collected domain to the dynamic filter. Subsequent calls are ignored.
+     */
+    public void report()
+    {
+        if (reported) {
+            return;
+        }
+        reported = true;
+
+        ImmutableMap.Builder<Integer, Domain> domains = ImmutableMap.builder();
+        for (ChannelCollector channelCollector : channelCollectors) {
+            domains.put(channelCollector.getJoinClauseIndex(), channelCollector.getDomain());
+        }
+        memoryContext.close();
+        dynamicFilter.addPartition(TupleDomain.withColumnDomains(domains.build()));
+    }
+
+    /**
+     * Reports that nothing is known about the build side partition, e.g. because it was not fully consumed.
+     */
+    public void reportUnknown()
+    {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        memoryContext.close();
+        dynamicFilter.addPartition(TupleDomain.all());
+    }
+
+    private static class ChannelCollector
+    {
+        private final int joinClauseIndex;
+        private final int channel;
+        private final Type type;
+        private final int maxDistinctValues;
+
+        @Nullable
+        private BlockBuilder values;
+        @Nullable
+        private TypedSet valueSet;
+        @Nullable
+        private Block min;
+        @Nullable
+        private Block max;
+        private boolean unbounded;
+
+        public ChannelCollector(int joinClauseIndex, int channel, Type type, int maxDistinctValues)
+        {
+            this.joinClauseIndex = joinClauseIndex;
+            this.channel = channel;
+            this.type = requireNonNull(type, "type is null");
+            this.maxDistinctValues = maxDistinctValues;
+            this.unbounded = !type.isComparable();
+            int expectedValues = min(maxDistinctValues, 1024);
+            this.values = type.createBlockBuilder(null, expectedValues);
+            this.valueSet = new TypedSet(type, values, expectedValues, "dynamic filter");
+        }
+
+        public int getJoinClauseIndex()
+        {
+            return joinClauseIndex;
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        public void addBlock(Block block)
+        {
+            if (unbounded) {
+                return;
+            }
+
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                if (block.isNull(position)) {
+                    continue;
+                }
+
+                if (type.isOrderable()) {
+                    if (isNaN(block, position)) {
+                        // NaN never matches in a join
+                        continue;
+                    }
+                    if (min == null || type.compareTo(block, position, min, 0) < 0) {
+                        min = block.getSingleValueBlock(position);
+                    }
+                    if (max == null || type.compareTo(block, position, max, 0) > 0) {
+                        max = block.getSingleValueBlock(position);
+                    }
+                }
+
+                if (valueSet != null && !valueSet.contains(block, position)) {
+                    if (valueSet.size() >= maxDistinctValues || valueSet.getRetainedSizeInBytes() + block.getRegionSizeInBytes(position, 1) > MAX_DISTINCT_VALUES_SIZE_IN_BYTES) {
+                        values = null;
+                        valueSet = null;
+                        if (!type.isOrderable()) {
+                            unbounded = true;
+                            return;
+                        }
+                    }
+                    else {
+                        valueSet.add(block, position);
+                    }
+                }
+            }
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            long retainedSizeInBytes = 0;
+            if (valueSet != null) {
+                retainedSizeInBytes += valueSet.getRetainedSizeInBytes();
+            }
+            if (min != null) {
+                retainedSizeInBytes += min.getRetainedSizeInBytes() + max.getRetainedSizeInBytes();
+            }
+            return retainedSizeInBytes;
+        }
+
+        private boolean isNaN(Block block, int position)
+        {
+            if (type.equals(DOUBLE)) {
+                return Double.isNaN(DOUBLE.getDouble(block, position));
+            }
+            if (type.equals(REAL)) {
+                return Float.isNaN(intBitsToFloat(toIntExact(REAL.getLong(block, position))));
+            }
+            return false;
+        }
+
+        public Domain getDomain()
+        {
+            if (unbounded) {
+                return Domain.all(type);
+            }
+            if (values != null) {
+                if (values.getPositionCount() == 0) {
+                    return Domain.none(type);
+                }
+                List<Object> distinctValues = new ArrayList<>(values.getPositionCount());
+                for (int position = 0; position < values.getPositionCount(); position++) {
+                    distinctValues.add(readNativeValue(type, values, position));
+                }
+                return Domain.multipleValues(type, distinctValues);
+            }
+            Object minValue = readNativeValue(type, min, 0);
+            Object maxValue = readNativeValue(type, max, 0);
+            return Domain.create(ValueSet.ofRanges(Range.range(type, minValue, true, maxValue, true)), false);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.NotNull;
+
+import java.net.URI;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class FileFragmentResultCacheConfig
+{
+    private boolean cachingEnabled;
+    private URI baseDirectory;
+    private DataSize maxCacheSize = new DataSize(2, GIGABYTE);
+    private DataSize maxSingleCachedEntrySize = new DataSize(20, MEGABYTE);
+
+    public boolean isCachingEnabled()
+    {
+        return cachingEnabled;
+    }
+
+    @Config("fragment-result-cache.enabled")
+    @ConfigDescription("Enable fragment result caching on this worker")
+    public FileFragmentResultCacheConfig setCachingEnabled(boolean cachingEnabled)
+    {
+        this.cachingEnabled = cachingEnabled;
+        return this;
+    }
+
+    public URI getBaseDirectory()
+    {
+        return baseDirectory;
+    }
+
+    @Config("fragment-result-cache.base-directory")
+    @ConfigDescription("Local directory used to store cached fragment results")
+    public FileFragmentResultCacheConfig setBaseDirectory(URI baseDirectory)
+    {
+        this.baseDirectory = baseDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxCacheSize()
+    {
+        return maxCacheSize;
+    }
+
+    @Config("fragment-result-cache.max-cache-size")
+    @ConfigDescription("Maximum on-disk size of all cached fragment results")
+    public FileFragmentResultCacheConfig setMaxCacheSize(DataSize maxCacheSize)
+    {
+        this.maxCacheSize = maxCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSingleCachedEntrySize()
+    {
+        return maxSingleCachedEntrySize;
+    }
+
+    @Config("fragment-result-cache.max-single-cached-entry-size")
+    @ConfigDescription("Fragment results larger than this size are not cached")
+    public FileFragmentResultCacheConfig setMaxSingleCachedEntrySize(DataSize maxSingleCachedEntrySize)
+    {
+        this.maxSingleCachedEntrySize = maxSingleCachedEntrySize;
+        return this;
+    }
+}
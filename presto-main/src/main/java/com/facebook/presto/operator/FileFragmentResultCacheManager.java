@@ -0,0 +1,305 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.PagesSerdeFactory;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.primitives.Ints.saturatedCast;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Stores fragment results as files of serialized pages in a local directory. The index is
+ * kept in memory only, so files left over from a previous run are deleted on startup.
+ */
+public class FileFragmentResultCacheManager
+        implements FragmentResultCacheManager
+{
+    private static final Logger log = Logger.get(FileFragmentResultCacheManager.class);
+
+    private static final String CACHE_FILE_PREFIX = "fragment-result-";
+    private static final String CACHE_FILE_SUFFIX = ".bin";
+    private static final String CACHE_FILE_GLOB = "fragment-result-*.bin";
+    private static final int BUFFER_SIZE = 4 * 1024;
+
+    private final Path baseDirectory;
+    private final long maxSingleCachedEntrySizeInBytes;
+    private final PagesSerdeFactory pagesSerdeFactory;
+    private final FragmentCacheStats fragmentCacheStats;
+    private final ExecutorService flushExecutor;
+    private final Cache<CacheKey, CacheEntry> cache;
+
+    @Inject
+    public FileFragmentResultCacheManager(FileFragmentResultCacheConfig cacheConfig, BlockEncodingSerde blockEncodingSerde, FragmentCacheStats fragmentCacheStats)
+    {
+        this(cacheConfig, blockEncodingSerde, fragmentCacheStats, newFixedThreadPool(1, daemonThreadsNamed("fragment-result-cache-writer-%s")));
+    }
+
+    @VisibleForTesting
+    public FileFragmentResultCacheManager(
+            FileFragmentResultCacheConfig cacheConfig,
+            BlockEncodingSerde blockEncodingSerde,
+            FragmentCacheStats fragmentCacheStats,
+            ExecutorService flushExecutor)
+    {
+        requireNonNull(cacheConfig, "cacheConfig is null");
+        checkArgument(cacheConfig.getBaseDirectory() != null, "fragment-result-cache.base-directory must be set");
+        this.baseDirectory = Paths.get(cacheConfig.getBaseDirectory().getPath());
+        this.maxSingleCachedEntrySizeInBytes = cacheConfig.getMaxSingleCachedEntrySize().toBytes();
+        this.pagesSerdeFactory = new PagesSerdeFactory(requireNonNull(blockEncodingSerde, "blockEncodingSerde is null"), true);
+        this.fragmentCacheStats = requireNonNull(fragmentCacheStats, "fragmentCacheStats is null");
+        this.flushExecutor = requireNonNull(flushExecutor, "flushExecutor is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(cacheConfig.getMaxCacheSize().toBytes())
+                .<CacheKey, CacheEntry>weigher((key, entry) -> saturatedCast(entry.getSizeInBytes()))
+                .removalListener(this::removeCacheEntry)
+                .build();
+
+        try {
+            createDirectories(baseDirectory);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(format("could not create fragment result cache directory %s", baseDirectory), e);
+        }
+        cleanupOldCacheFiles(baseDirectory);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        flushExecutor.shutdownNow();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Optional<Iterator<Page>> get(String hashedCanonicalPlan, Split split)
+    {
+        Optional<CacheKey> key = createCacheKey(hashedCanonicalPlan, split);
+        if (!key.isPresent()) {
+            return Optional.empty();
+        }
+
+        CacheEntry entry = cache.getIfPresent(key.get());
+        if (entry == null) {
+            fragmentCacheStats.incrementCacheMiss();
+            return Optional.empty();
+        }
+
+        // the file may be evicted concurrently, so read it eagerly and treat failures as misses
+        try (SliceInput input = new InputStreamSliceInput(newInputStream(entry.getPath()), BUFFER_SIZE)) {
+            List<Page> pages = ImmutableList.copyOf(readPages(pagesSerdeFactory.createPagesSerde(), input));
+            fragmentCacheStats.incrementCacheHit();
+            return Optional.of(pages.iterator());
+        }
+        catch (IOException | UncheckedIOException e) {
+            log.warn(e, "Failed to read cached fragment result %s", entry.getPath());
+            cache.invalidate(key.get());
+            fragmentCacheStats.incrementCacheMiss();
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String hashedCanonicalPlan, Split split, List<Page> result)
+    {
+        Optional<CacheKey> key = createCacheKey(hashedCanonicalPlan, split);
+        if (!key.isPresent() || cache.getIfPresent(key.get()) != null) {
+            return;
+        }
+
+        long resultSize = result.stream()
+                .mapToLong(Page::getSizeInBytes)
+                .sum();
+        if (resultSize > maxSingleCachedEntrySizeInBytes) {
+            return;
+        }
+
+        List<Page> pages = ImmutableList.copyOf(result);
+        flushExecutor.execute(() -> flush(key.get(), pages));
+    }
+
+    @Override
+    public long getMaxSingleCachedEntrySizeInBytes()
+    {
+        return maxSingleCachedEntrySizeInBytes;
+    }
+
+    private void flush(CacheKey key, List<Page> pages)
+    {
+        Path path = baseDirectory.resolve(CACHE_FILE_PREFIX + randomUUID() + CACHE_FILE_SUFFIX);
+        PagesSerde serde = pagesSerdeFactory.createPagesSerde();
+        long sizeInBytes;
+        try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(path, CREATE_NEW), BUFFER_SIZE)) {
+            sizeInBytes = writePages(serde, output, pages.iterator());
+        }
+        catch (IOException | UncheckedIOException e) {
+            log.warn(e, "Failed to write fragment result to %s", path);
+            tryDelete(path);
+            return;
+        }
+
+        fragmentCacheStats.addCacheEntry(sizeInBytes);
+        cache.put(key, new CacheEntry(path, sizeInBytes));
+    }
+
+    private void removeCacheEntry(RemovalNotification<CacheKey, CacheEntry> notification)
+    {
+        CacheEntry entry = notification.getValue();
+        fragmentCacheStats.removeCacheEntry(entry.getSizeInBytes());
+        tryDelete(entry.getPath());
+    }
+
+    private static Optional<CacheKey> createCacheKey(String hashedCanonicalPlan, Split split)
+    {
+        return split.getConnectorSplit().getSplitIdentifier()
+                .map(splitIdentifier -> new CacheKey(hashedCanonicalPlan, split.getConnectorId(), splitIdentifier));
+    }
+
+    private static void tryDelete(Path path)
+    {
+        try {
+            deleteIfExists(path);
+        }
+        catch (IOException e) {
+            log.warn(e, "Could not delete fragment result cache file %s", path);
+        }
+    }
+
+    private static void cleanupOldCacheFiles(Path path)
+    {
+        try (DirectoryStream<Path> stream = newDirectoryStream(path, CACHE_FILE_GLOB)) {
+            stream.forEach(cacheFile -> {
+                try {
+                    delete(cacheFile);
+                }
+                catch (Exception e) {
+                    log.warn("Could not cleanup old fragment result cache file: " + cacheFile);
+                }
+            });
+        }
+        catch (IOException e) {
+            log.warn(e, "Error cleaning fragment result cache files");
+        }
+    }
+
+    private static class CacheKey
+    {
+        private final String hashedCanonicalPlan;
+        private final ConnectorId connectorId;
+        private final String splitIdentifier;
+
+        public CacheKey(String hashedCanonicalPlan, ConnectorId connectorId, String splitIdentifier)
+        {
+            this.hashedCanonicalPlan = requireNonNull(hashedCanonicalPlan, "hashedCanonicalPlan is null");
+            this.connectorId = requireNonNull(connectorId, "connectorId is null");
+            this.splitIdentifier = requireNonNull(splitIdentifier, "splitIdentifier is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return hashedCanonicalPlan.equals(other.hashedCanonicalPlan) &&
+                    connectorId.equals(other.connectorId) &&
+                    splitIdentifier.equals(other.splitIdentifier);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(hashedCanonicalPlan, connectorId, splitIdentifier);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("hashedCanonicalPlan", hashedCanonicalPlan)
+                    .add("connectorId", connectorId)
+                    .add("splitIdentifier", splitIdentifier)
+                    .toString();
+        }
+    }
+
+    private static class CacheEntry
+    {
+        private final Path path;
+        private final long sizeInBytes;
+
+        public CacheEntry(Path path, long sizeInBytes)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+    }
+}
@@ -88,6 +88,10 @@ public class FilterAndProjectOperator
         requireNonNull(page, "page is null");
         checkState(mergingOutput.needsInput(), "Page buffer is full");
 
+        if (processor.isInterpreted()) {
+            operatorContext.recordInterpretedPage();
+        }
+        processor.takeCompileTime().ifPresent(operatorContext::recordExpressionCompileTime);
         mergingOutput.addInput(processor.process(
                 operatorContext.getSession().toConnectorSession(),
                 operatorContext.getDriverContext().getYieldSignal(),
@@ -0,0 +1,560 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.array.IntBigArray;
+import com.facebook.presto.array.LongBigArray;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.AbstractLongType;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for any combination of integer-like fixed-width keys whose values fit in 16 bytes.
+ * The values and null flags of a row are packed into one to three longs, so hashing and equality
+ * are computed on the packed key rather than on the blocks.
+ */
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final int MAX_VALUE_BITS = 2 * Long.SIZE;
+
+    // types whose equality is equality of the two's complement value
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
+    private final List<Type> hashTypes;
+    private final List<Type> types;
+    private final int[] channels;
+    private final boolean outputRawHash;
+
+    // position of each key value and null flag in the packed key
+    private final int keyWords;
+    private final int[] valueWords;
+    private final int[] valueShifts;
+    private final int[] valueBits;
+    private final long[] valueMasks;
+    private final int[] nullWords;
+    private final long[] nullMasks;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from packed keys to groupIds
+    private LongBigArray keysByHash;
+    private IntBigArray groupIdsByHash;
+
+    // reverse index from the groupId back to the packed key
+    private final LongBigArray keysByGroupId;
+
+    // reused for encoding the key of the current row
+    private final long[] rowKey;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (hashTypes.isEmpty() || !SUPPORTED_TYPES.containsAll(hashTypes)) {
+            return false;
+        }
+        return hashTypes.stream()
+                .mapToInt(FixedWidthGroupByHash::getValueBits)
+                .sum() <= MAX_VALUE_BITS;
+    }
+
+    public FixedWidthGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> inputHashChannel, int expectedSize, UpdateMemory updateMemory)
+    {
+        this.hashTypes = ImmutableList.copyOf(requireNonNull(hashTypes, "hashTypes is null"));
+        requireNonNull(hashChannels, "hashChannels is null");
+        requireNonNull(inputHashChannel, "inputHashChannel is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(isSupported(hashTypes), "Unsupported hash types: %s", hashTypes);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.channels = hashChannels.clone();
+        this.outputRawHash = inputHashChannel.isPresent();
+        this.types = outputRawHash ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : this.hashTypes;
+
+        int channelCount = hashChannels.length;
+        valueWords = new int[channelCount];
+        valueShifts = new int[channelCount];
+        valueBits = new int[channelCount];
+        valueMasks = new long[channelCount];
+        nullWords = new int[channelCount];
+        nullMasks = new long[channelCount];
+
+        // Place the widest values first, so that values never straddle two words.
+        // The sizes are powers of two, so the values always fit in two words.
+        List<Integer> freeBits = new ArrayList<>();
+        List<Integer> channelsByWidth = IntStream.range(0, channelCount).boxed()
+                .sorted(Comparator.comparing(channel -> -getValueBits(hashTypes.get(channel))))
+                .collect(toImmutableList());
+        for (int channel : channelsByWidth) {
+            int bits = getValueBits(hashTypes.get(channel));
+            int word = allocateBits(freeBits, bits);
+            valueWords[channel] = word;
+            valueShifts[channel] = Long.SIZE - freeBits.get(word) - bits;
+            valueBits[channel] = bits;
+            valueMasks[channel] = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+        }
+        checkState(freeBits.size() <= 2, "values do not fit in two words");
+        for (int channel = 0; channel < channelCount; channel++) {
+            int word = allocateBits(freeBits, 1);
+            nullWords[channel] = word;
+            nullMasks[channel] = 1L << (Long.SIZE - freeBits.get(word) - 1);
+        }
+        keyWords = freeBits.size();
+        rowKey = new long[keyWords];
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        keysByHash = new LongBigArray();
+        keysByHash.ensureCapacity((long) hashCapacity * keyWords);
+        groupIdsByHash = new IntBigArray(-1);
+        groupIdsByHash.ensureCapacity(hashCapacity);
+
+        keysByGroupId = new LongBigArray();
+        keysByGroupId.ensureCapacity((long) maxFill * keyWords);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                keysByHash.sizeOf() +
+                groupIdsByHash.sizeOf() +
+                keysByGroupId.sizeOf() +
+                sizeOf(rowKey) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        long keyOffset = (long) groupId * keyWords;
+        for (int channel = 0; channel < channels.length; channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if ((keysByGroupId.get(keyOffset + nullWords[channel]) & nullMasks[channel]) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes.get(channel).writeLong(blockBuilder, getValue(keysByGroupId.get(keyOffset + valueWords[channel]), channel));
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + channels.length), getRawHash(groupId));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(getBlocks(page, channels));
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(getBlocks(page, channels));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        encodeKey(position, getBlocks(page, hashChannels));
+        return groupIdsByHash.get(findPosition(mask)) != -1;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        // matches the hash computed by InterpretedHashGenerator, as all supported types share the same hash function
+        long keyOffset = (long) groupId * keyWords;
+        long result = 0;
+        for (int channel = 0; channel < channels.length; channel++) {
+            long hash = NULL_HASH_CODE;
+            if ((keysByGroupId.get(keyOffset + nullWords[channel]) & nullMasks[channel]) == 0) {
+                hash = AbstractLongType.hash(getValue(keysByGroupId.get(keyOffset + valueWords[channel]), channel));
+            }
+            result = 31 * result + hash;
+        }
+        return result;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(int position, Block[] blocks)
+    {
+        encodeKey(position, blocks);
+        long hashPosition = findPosition(mask);
+        int groupId = groupIdsByHash.get(hashPosition);
+        if (groupId != -1) {
+            return groupId;
+        }
+        return addNewGroup(hashPosition);
+    }
+
+    private void encodeKey(int position, Block[] blocks)
+    {
+        Arrays.fill(rowKey, 0);
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Block block = blocks[channel];
+            if (block.isNull(position)) {
+                rowKey[nullWords[channel]] |= nullMasks[channel];
+            }
+            else {
+                rowKey[valueWords[channel]] |= (hashTypes.get(channel).getLong(block, position) & valueMasks[channel]) << valueShifts[channel];
+            }
+        }
+    }
+
+    // returns the position of the current row key, or of the empty slot where it should be inserted
+    private long findPosition(int mask)
+    {
+        long hashPosition = getHashPosition(rowKey, mask);
+        while (true) {
+            if (groupIdsByHash.get(hashPosition) == -1 || keyEquals(keysByHash, hashPosition * keyWords)) {
+                return hashPosition;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+    }
+
+    private boolean keyEquals(LongBigArray keys, long keyOffset)
+    {
+        for (int word = 0; word < keyWords; word++) {
+            if (keys.get(keyOffset + word) != rowKey[word]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(long hashPosition)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        long hashKeyOffset = hashPosition * keyWords;
+        long groupKeyOffset = (long) groupId * keyWords;
+        for (int word = 0; word < keyWords; word++) {
+            keysByHash.set(hashKeyOffset + word, rowKey[word]);
+            keysByGroupId.set(groupKeyOffset + word, rowKey[word]);
+        }
+        groupIdsByHash.set(hashPosition, groupId);
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for keysByHash, groupIdsByHash, and keysByGroupId as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) (keyWords * Long.BYTES + Integer.BYTES) +
+                (calculateMaxFill(newCapacity) - maxFill) * (long) keyWords * Long.BYTES +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        LongBigArray newKeysByHash = new LongBigArray();
+        newKeysByHash.ensureCapacity((long) newCapacity * keyWords);
+        IntBigArray newGroupIdsByHash = new IntBigArray(-1);
+        newGroupIdsByHash.ensureCapacity(newCapacity);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long groupKeyOffset = (long) groupId * keyWords;
+
+            // find an empty slot for the key
+            long hashPosition = getHashPosition(keysByGroupId, groupKeyOffset, newMask);
+            while (newGroupIdsByHash.get(hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            for (int word = 0; word < keyWords; word++) {
+                newKeysByHash.set(hashPosition * keyWords + word, keysByGroupId.get(groupKeyOffset + word));
+            }
+            newGroupIdsByHash.set(hashPosition, groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        keysByHash = newKeysByHash;
+        groupIdsByHash = newGroupIdsByHash;
+
+        keysByGroupId.ensureCapacity((long) maxFill * keyWords);
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private long getHashPosition(long[] key, int mask)
+    {
+        long hash = key[0];
+        for (int word = 1; word < keyWords; word++) {
+            hash = murmurHash3(hash) ^ key[word];
+        }
+        return murmurHash3(hash) & mask;
+    }
+
+    private long getHashPosition(LongBigArray keys, long keyOffset, int mask)
+    {
+        long hash = keys.get(keyOffset);
+        for (int word = 1; word < keyWords; word++) {
+            hash = murmurHash3(hash) ^ keys.get(keyOffset + word);
+        }
+        return murmurHash3(hash) & mask;
+    }
+
+    private long getValue(long word, int channel)
+    {
+        // extract the value and restore its sign
+        int unusedBits = Long.SIZE - valueBits[channel];
+        return ((word >>> valueShifts[channel]) << unusedBits) >> unusedBits;
+    }
+
+    private static Block[] getBlocks(Page page, int[] channels)
+    {
+        Block[] blocks = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            blocks[i] = page.getBlock(channels[i]);
+        }
+        return blocks;
+    }
+
+    private static int allocateBits(List<Integer> freeBits, int bits)
+    {
+        for (int word = 0; word < freeBits.size(); word++) {
+            if (freeBits.get(word) >= bits) {
+                freeBits.set(word, freeBits.get(word) - bits);
+                return word;
+            }
+        }
+        freeBits.add(Long.SIZE - bits);
+        return freeBits.size() - 1;
+    }
+
+    private static int getValueBits(Type type)
+    {
+        return ((FixedWidthType) type).getFixedSize() * Byte.SIZE;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Block[] blocks;
+        private final int positionCount;
+
+        private int lastPosition;
+
+        public AddPageWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+            this.positionCount = blocks[0].getPositionCount();
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(lastPosition, blocks);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Block[] blocks;
+        private final int positionCount;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Block[] blocks)
+        {
+            this.blocks = requireNonNull(blocks, "blocks is null");
+            this.positionCount = blocks[0].getPositionCount();
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, blocks));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == positionCount, "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import static java.util.Objects.requireNonNull;
+
+public class FragmentResultCacheContext
+{
+    private final FragmentResultCacheManager fragmentResultCacheManager;
+    private final String hashedCanonicalPlan;
+
+    public FragmentResultCacheContext(FragmentResultCacheManager fragmentResultCacheManager, String hashedCanonicalPlan)
+    {
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
+        this.hashedCanonicalPlan = requireNonNull(hashedCanonicalPlan, "hashedCanonicalPlan is null");
+    }
+
+    public FragmentResultCacheManager getFragmentResultCacheManager()
+    {
+        return fragmentResultCacheManager;
+    }
+
+    public String getHashedCanonicalPlan()
+    {
+        return hashedCanonicalPlan;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.Page;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+public interface FragmentResultCacheManager
+{
+    /**
+     * Returns the cached output of the plan fragment identified by {@code hashedCanonicalPlan}
+     * when run on {@code split}, or {@link Optional#empty()} if it is not cached.
+     */
+    Optional<Iterator<Page>> get(String hashedCanonicalPlan, Split split);
+
+    /**
+     * Stores the output of the plan fragment when run on {@code split}. The write may happen
+     * asynchronously, and may be dropped if the result is too large.
+     */
+    void put(String hashedCanonicalPlan, Split split, List<Page> result);
+
+    /**
+     * Results larger than this size are never cached, so callers can stop buffering them early.
+     */
+    long getMaxSingleCachedEntrySizeInBytes();
+}
@@ -104,7 +104,16 @@ public class GroupedTopNBuilder
 
     public Iterator<Page> buildResult()
     {
-        return new ResultIterator();
+        return new ResultIterator(produceRowNumber);
+    }
+
+    /**
+     * Returns the rows currently retained for all groups in the input layout, without row numbers,
+     * so they can be fed to another builder. Like {@link #buildResult()}, this consumes the builder.
+     */
+    public Iterator<Page> buildRetainedRows()
+    {
+        return new ResultIterator(false);
     }
 
     public long getEstimatedSizeInBytes()
@@ -376,6 +385,7 @@ public class GroupedTopNBuilder
             extends AbstractIterator<Page>
     {
         private final PageBuilder pageBuilder;
+        private final boolean produceRowNumber;
         // we may have 0 groups if there is no input page processed
         private final int groupCount = groupByHash.getGroupCount();
 
@@ -389,8 +399,9 @@ public class GroupedTopNBuilder
 
         private ObjectBigArray<Row> currentRows = nextGroupedRows();
 
-        ResultIterator()
+        ResultIterator(boolean produceRowNumber)
         {
+            this.produceRowNumber = produceRowNumber;
             if (produceRowNumber) {
                 pageBuilder = new PageBuilder(new ImmutableList.Builder<Type>().addAll(sourceTypes).add(BIGINT).build());
             }
@@ -68,6 +68,7 @@ public class HashBuilderOperator
         private final int expectedPositions;
         private final boolean spillEnabled;
         private final SingleStreamSpillerFactory singleStreamSpillerFactory;
+        private final Optional<LocalDynamicFilter> dynamicFilter;
 
         private final Map<Lifespan, Integer> partitionIndexManager = new HashMap<>();
 
@@ -86,7 +87,8 @@ public class HashBuilderOperator
                 int expectedPositions,
                 PagesIndex.Factory pagesIndexFactory,
                 boolean spillEnabled,
-                SingleStreamSpillerFactory singleStreamSpillerFactory)
+                SingleStreamSpillerFactory singleStreamSpillerFactory,
+                Optional<LocalDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -104,6 +106,7 @@ public class HashBuilderOperator
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
             this.spillEnabled = spillEnabled;
             this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
 
             this.expectedPositions = expectedPositions;
         }
@@ -130,7 +133,8 @@ public class HashBuilderOperator
                     expectedPositions,
                     pagesIndexFactory,
                     spillEnabled,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    dynamicFilter);
         }
 
         @Override
@@ -212,6 +216,7 @@ public class HashBuilderOperator
     private final SingleStreamSpillerFactory singleStreamSpillerFactory;
 
     private final HashCollisionsCounter hashCollisionsCounter;
+    private final Optional<DynamicFilterCollector> dynamicFilterCollector;
 
     private State state = State.CONSUMING_INPUT;
     private Optional<ListenableFuture<?>> lookupSourceNotNeeded = Optional.empty();
@@ -238,9 +243,11 @@ public class HashBuilderOperator
             int expectedPositions,
             PagesIndex.Factory pagesIndexFactory,
             boolean spillEnabled,
-            SingleStreamSpillerFactory singleStreamSpillerFactory)
+            SingleStreamSpillerFactory singleStreamSpillerFactory,
+            Optional<LocalDynamicFilter> dynamicFilter)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+        requireNonNull(dynamicFilter, "dynamicFilter is null");
 
         this.operatorContext = operatorContext;
         this.partitionIndex = partitionIndex;
@@ -263,6 +270,11 @@ public class HashBuilderOperator
 
         this.spillEnabled = spillEnabled;
         this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+        this.dynamicFilterCollector = dynamicFilter.map(filter -> new DynamicFilterCollector(
+                filter,
+                hashChannels,
+                lookupSourceFactory.getTypes(),
+                operatorContext.newLocalSystemMemoryContext(DynamicFilterCollector.class.getSimpleName())));
     }
 
     @Override
@@ -324,6 +336,8 @@ public class HashBuilderOperator
             return;
         }
 
+        dynamicFilterCollector.ifPresent(collector -> collector.addPage(page));
+
         if (state == State.SPILLING_INPUT) {
             spillInput(page);
             return;
@@ -483,6 +497,8 @@ public class HashBuilderOperator
             return;
         }
 
+        dynamicFilterCollector.ifPresent(DynamicFilterCollector::report);
+
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             localRevocableMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
@@ -518,6 +534,7 @@ public class HashBuilderOperator
             return;
         }
         checkSuccess(spillInProgress, "spilling failed");
+        dynamicFilterCollector.ifPresent(DynamicFilterCollector::report);
         state = State.INPUT_SPILLED;
     }
 
@@ -622,6 +639,9 @@ public class HashBuilderOperator
         state = State.CLOSED;
         finishMemoryRevoke = finishMemoryRevoke.map(ifPresent -> () -> {});
 
+        // the build side may be closed before all input has been seen, e.g. when the probe side is empty
+        dynamicFilterCollector.ifPresent(DynamicFilterCollector::reportUnknown);
+
         try (Closer closer = Closer.create()) {
             closer.register(index::clear);
             spiller.ifPresent(closer::register);
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Predicate on the probe side table scan of a join, collected at run time from the
+ * join keys of all the build side partitions of the same task.
+ * <p>
+ * Every {@link HashBuilderOperator} reports the domain of the join keys it has seen.
+ * Once all partitions have reported, the column-wise union of these domains becomes
+ * the dynamic filter, keyed by the column handles of the probe side table scan.
+ */
+@ThreadSafe
+public class LocalDynamicFilter
+{
+    // join clause index -> probe side table scan column
+    private final Map<Integer, ColumnHandle> probeColumns;
+    private final int maxDistinctValues;
+    private final Duration waitTimeout;
+
+    private final SettableFuture<TupleDomain<ColumnHandle>> resultFuture = SettableFuture.create();
+
+    @GuardedBy("this")
+    private int expectedPartitions;
+    @GuardedBy("this")
+    private int collectedPartitions;
+    @GuardedBy("this")
+    private TupleDomain<ColumnHandle> collectedDomain = TupleDomain.none();
+
+    public LocalDynamicFilter(Map<Integer, ColumnHandle> probeColumns, int maxDistinctValues, Duration waitTimeout)
+    {
+        this.probeColumns = ImmutableMap.copyOf(requireNonNull(probeColumns, "probeColumns is null"));
+        checkArgument(!probeColumns.isEmpty(), "probeColumns is empty");
+        checkArgument(maxDistinctValues >= 0, "maxDistinctValues is negative");
+        this.maxDistinctValues = maxDistinctValues;
+        this.waitTimeout = requireNonNull(waitTimeout, "waitTimeout is null");
+    }
+
+    /**
+     * Join clause indexes for which the build side values are collected.
+     */
+    public Map<Integer, ColumnHandle> getProbeColumns()
+    {
+        return probeColumns;
+    }
+
+    public int getMaxDistinctValues()
+    {
+        return maxDistinctValues;
+    }
+
+    public Duration getWaitTimeout()
+    {
+        return waitTimeout;
+    }
+
+    /**
+     * Must be called while planning, before any of the build side operators is created.
+     */
+    public synchronized void setBuildPartitionCount(int partitionCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        checkState(expectedPartitions == 0, "build partition count is already set");
+        expectedPartitions = partitionCount;
+    }
+
+    /**
+     * @param partitionDomain domains of the build side join keys, keyed by join clause index
+     */
+    public void addPartition(TupleDomain<Integer> partitionDomain)
+    {
+        requireNonNull(partitionDomain, "partitionDomain is null");
+        TupleDomain<ColumnHandle> result;
+        synchronized (this) {
+            checkState(expectedPartitions > 0, "build partition count is not set");
+            checkState(collectedPartitions < expectedPartitions, "all partitions have already been collected");
+
+            collectedDomain = TupleDomain.columnWiseUnion(collectedDomain, partitionDomain.transform(probeColumns::get));
+            collectedPartitions++;
+            if (collectedPartitions < expectedPartitions) {
+                return;
+            }
+            result = collectedDomain;
+        }
+        // complete the future outside of the lock, as listeners run synchronously
+        resultFuture.set(result);
+    }
+
+    public ListenableFuture<TupleDomain<ColumnHandle>> getResultFuture()
+    {
+        return nonCancellationPropagating(resultFuture);
+    }
+
+    public boolean isDone()
+    {
+        return resultFuture.isDone();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("probeColumns", probeColumns)
+                .add("expectedPartitions", expectedPartitions)
+                .add("collectedPartitions", collectedPartitions)
+                .toString();
+    }
+}
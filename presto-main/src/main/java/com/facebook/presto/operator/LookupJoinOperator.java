@@ -23,9 +23,11 @@ import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spiller.PartitioningSpiller;
 import com.facebook.presto.spiller.PartitioningSpiller.PartitioningSpillResult;
 import com.facebook.presto.spiller.PartitioningSpillerFactory;
+import com.facebook.presto.spiller.PrefetchingPageReader;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 
 import javax.annotation.Nullable;
 
@@ -46,13 +48,15 @@ import static com.google.common.base.Verify.verify;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.String.format;
-import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class LookupJoinOperator
         implements Operator
 {
+    private static final DataSize UNSPILL_READ_AHEAD_SIZE = new DataSize(4, MEGABYTE);
+
     private final OperatorContext operatorContext;
     private final List<Type> probeTypes;
     private final JoinProbeFactory joinProbeFactory;
@@ -94,7 +98,7 @@ public class LookupJoinOperator
     private Iterator<Partition<Supplier<LookupSource>>> lookupPartitions;
     private Optional<Partition<Supplier<LookupSource>>> currentPartition = Optional.empty();
     private Optional<ListenableFuture<Supplier<LookupSource>>> unspilledLookupSource = Optional.empty();
-    private Iterator<Page> unspilledInputPages = emptyIterator();
+    private Optional<PrefetchingPageReader> unspilledInputPages = Optional.empty();
 
     public LookupJoinOperator(
             OperatorContext operatorContext,
@@ -173,6 +177,13 @@ public class LookupJoinOperator
             // Unspilling can happen only after lookupSourceProviderFuture was done.
             return unspilledLookupSource.get();
         }
+        if (unspilledInputPages.isPresent() && probe == null) {
+            // Waiting for spilled probe pages to be read
+            ListenableFuture<?> unspillBlocked = unspilledInputPages.get().isBlocked();
+            if (!unspillBlocked.isDone()) {
+                return unspillBlocked;
+            }
+        }
 
         if (finishing) {
             return NOT_BLOCKED;
@@ -336,11 +347,6 @@ public class LookupJoinOperator
             lookupPartitions = getDone(partitionedConsumption).beginConsumption();
         }
 
-        if (unspilledInputPages.hasNext()) {
-            addInput(unspilledInputPages.next());
-            return;
-        }
-
         if (unspilledLookupSource.isPresent()) {
             if (!unspilledLookupSource.get().isDone()) {
                 // Not unspilled yet
@@ -356,9 +362,6 @@ public class LookupJoinOperator
             statisticsCounter.updateLookupSourcePositions(lookupSource.getJoinPositionCount());
 
             int partition = currentPartition.get().number();
-            unspilledInputPages = spiller.map(spiller -> spiller.getSpilledPages(partition))
-                    .orElse(emptyIterator());
-
             Optional.ofNullable(savedRows.remove(partition)).ifPresent(savedRow -> {
                 restoreProbe(
                         savedRow.row,
@@ -371,11 +374,31 @@ public class LookupJoinOperator
             return;
         }
 
+        if (unspilledInputPages.isPresent()) {
+            PrefetchingPageReader unspilledPages = unspilledInputPages.get();
+            Page page = unspilledPages.poll();
+            if (page != null) {
+                addInput(page);
+                return;
+            }
+            if (!unspilledPages.isFinished()) {
+                // Probe pages have not been read yet
+                return;
+            }
+            operatorContext.recordUnspillWait(unspilledPages.getWaitNanos());
+            unspilledPages.close();
+            unspilledInputPages = Optional.empty();
+        }
+
         if (lookupPartitions.hasNext()) {
             currentPartition.ifPresent(Partition::release);
             currentPartition = Optional.of(lookupPartitions.next());
             unspilledLookupSource = Optional.of(currentPartition.get().load());
 
+            // Start reading the spilled probe pages of the partition while its lookup source is being unspilled
+            int partition = currentPartition.get().number();
+            unspilledInputPages = spiller.map(spiller -> spiller.getSpilledPagesReader(partition, UNSPILL_READ_AHEAD_SIZE.toBytes()));
+
             return;
         }
 
@@ -517,6 +540,7 @@ public class LookupJoinOperator
             closer.register(pageBuilder::reset);
             closer.register(() -> Optional.ofNullable(lookupSourceProvider).ifPresent(LookupSourceProvider::close));
             spiller.ifPresent(closer::register);
+            unspilledInputPages.ifPresent(closer::register);
         }
         catch (IOException e) {
             throw new RuntimeException(e);
@@ -67,6 +67,11 @@ public class MarkDistinctHash
                 });
     }
 
+    GroupByHash getGroupByHash()
+    {
+        return groupByHash;
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
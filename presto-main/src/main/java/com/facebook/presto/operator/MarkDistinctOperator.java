@@ -18,11 +18,14 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +33,7 @@ import java.util.Optional;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
@@ -44,6 +48,8 @@ public class MarkDistinctOperator
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -53,6 +59,19 @@ public class MarkDistinctOperator
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, markDistinctChannels, hashChannel, joinCompiler, false, Optional.empty());
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -64,6 +83,9 @@ public class MarkDistinctOperator
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
                     .build();
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            checkArgument(!spillEnabled || partitioningSpillerFactory.isPresent(), "Spill enabled but no partitioningSpillerFactory provided");
         }
 
         @Override
@@ -71,7 +93,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -83,13 +105,19 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Type> distinctTypes;
+    private final List<Integer> markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -97,19 +125,58 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
+    private final boolean spillEnabled;
+    private final Optional<PartitionedGroupSpiller> spiller;
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean spillPending;
+    // true while the distinct values of a spilled partition are being added back to the hash
+    private boolean restoringState;
+
     public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    {
+        this(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, false, Optional.empty());
+    }
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
-        requireNonNull(hashChannel, "hashChannel is null");
-        requireNonNull(markDistinctChannels, "markDistinctChannels is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.markDistinctChannels = ImmutableList.copyOf(requireNonNull(markDistinctChannels, "markDistinctChannels is null"));
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+        this.distinctTypes = distinctTypes.build();
+        this.markDistinctHash = createMarkDistinctHash();
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+
+        this.spillEnabled = spillEnabled;
+        if (spillEnabled) {
+            // the last type is the marker column produced by this operator
+            List<Type> sourceTypes = types.subList(0, types.size() - 1);
+            this.spiller = Optional.of(new PartitionedGroupSpiller(
+                    sourceTypes,
+                    sourceTypes,
+                    markDistinctChannels,
+                    hashChannel,
+                    partitioningSpillerFactory.orElseThrow(() -> new IllegalArgumentException("Spill enabled but no partitioningSpillerFactory provided")),
+                    operatorContext));
+        }
+        else {
+            this.spiller = Optional.empty();
+        }
     }
 
     @Override
@@ -127,13 +194,22 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && !spillPending && spillInProgress.isDone() && (!hasSpilled() || spiller.get().isFinished());
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && !spillPending && spillInProgress.isDone();
     }
 
     @Override
@@ -141,6 +217,13 @@ public class MarkDistinctOperator
     {
         requireNonNull(page, "page is null");
         checkState(needsInput());
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (hasSpilled()) {
+            // the distinct values seen so far are on disk, so the rest of the input is marked partition by partition at the end
+            spillInProgress = spiller.get().spillInput(ImmutableList.of(page));
+            return;
+        }
 
         inputPage = page;
 
@@ -148,10 +231,32 @@ public class MarkDistinctOperator
         updateMemoryReservation();
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || finishing || hasSpilled() || hasUnfinishedInput() || !spillInProgress.isDone()) {
+            return NOT_BLOCKED;
+        }
+        spillInProgress = spiller.get().spillState(spiller.get().buildStatePages(markDistinctHash.getGroupByHash(), (groupId, pageBuilder, channel) -> {}));
+        spillPending = true;
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (spillPending) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spillPending = false;
+            markDistinctHash = createMarkDistinctHash();
+            updateMemoryReservation();
+        }
+    }
+
     @Override
     public Page getOutput()
     {
-        if (unfinishedWork == null) {
+        if (unfinishedWork == null && !processNextSpilledPage()) {
             return null;
         }
 
@@ -159,8 +264,11 @@ public class MarkDistinctOperator
             return null;
         }
 
-        // add the new boolean column to the page
-        Page outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        Page outputPage = null;
+        if (!restoringState) {
+            // add the new boolean column to the page
+            outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        }
 
         unfinishedWork = null;
         inputPage = null;
@@ -169,6 +277,53 @@ public class MarkDistinctOperator
         return outputPage;
     }
 
+    @Override
+    public void close()
+            throws IOException
+    {
+        localRevocableMemoryContext.setBytes(0);
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
+    /**
+     * Once all input has been spilled, each spill partition is processed on its own: the distinct
+     * values spilled from the hash are added back first, then the spilled input of the partition is marked.
+     */
+    private boolean processNextSpilledPage()
+    {
+        if (!finishing || !hasSpilled() || spillPending || !spillInProgress.isDone() || spiller.get().isFinished()) {
+            return false;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        PartitionedGroupSpiller spiller = this.spiller.get();
+        while (!spiller.getCurrentState().hasNext() && !spiller.getCurrentInput().hasNext()) {
+            if (!spiller.advancePartition()) {
+                markDistinctHash = createMarkDistinctHash();
+                updateMemoryReservation();
+                return false;
+            }
+            markDistinctHash = createMarkDistinctHash();
+        }
+
+        restoringState = spiller.getCurrentState().hasNext();
+        inputPage = restoringState ? spiller.getCurrentState().next() : spiller.getCurrentInput().next();
+        unfinishedWork = markDistinctHash.markDistinctRows(inputPage);
+        return true;
+    }
+
+    private boolean hasSpilled()
+    {
+        return spiller.isPresent() && spiller.get().hasSpilled();
+    }
+
+    private MarkDistinctHash createMarkDistinctHash()
+    {
+        return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
@@ -186,7 +341,14 @@ public class MarkDistinctOperator
     {
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        if (spillEnabled && !hasSpilled()) {
+            // the hash is revocable until it has been spilled; after that the input goes straight to disk
+            localRevocableMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        }
+        else {
+            localRevocableMemoryContext.setBytes(0);
+            localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        }
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.Page;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+public class NoOpFragmentResultCacheManager
+        implements FragmentResultCacheManager
+{
+    @Override
+    public Optional<Iterator<Page>> get(String hashedCanonicalPlan, Split split)
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String hashedCanonicalPlan, Split split, List<Page> result)
+    {
+    }
+
+    @Override
+    public long getMaxSingleCachedEntrySizeInBytes()
+    {
+        return 0;
+    }
+}
@@ -26,6 +26,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.stats.CounterStat;
+import io.airlift.units.Duration;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -48,6 +49,7 @@ import static io.airlift.units.Duration.succinctNanos;
 import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Only {@link #getOperatorStats()} and revocable-memory-related operations are ThreadSafe
@@ -72,6 +74,14 @@ public class OperatorContext
 
     private final AtomicLong physicalWrittenDataSize = new AtomicLong();
 
+    private final AtomicLong unspillWaitWallNanos = new AtomicLong();
+
+    private final AtomicLong dynamicFilterSplitsRemoved = new AtomicLong();
+    private final AtomicLong dynamicFilterRowsRemoved = new AtomicLong();
+
+    private final AtomicLong interpretedPages = new AtomicLong();
+    private final AtomicLong expressionCompileWallNanos = new AtomicLong();
+
     private final AtomicReference<SettableFuture<?>> memoryFuture;
     private final AtomicReference<SettableFuture<?>> revocableMemoryFuture;
     private final AtomicReference<BlockedMonitor> blockedMonitor = new AtomicReference<>();
@@ -201,6 +211,37 @@ public class OperatorContext
         physicalWrittenDataSize.getAndAdd(sizeInBytes);
     }
 
+    /**
+     * Records time the operator had to wait for spilled data to be read back from disk.
+     */
+    public void recordUnspillWait(long waitNanos)
+    {
+        unspillWaitWallNanos.getAndAdd(waitNanos);
+    }
+
+    public void recordDynamicFilterSplitRemoved()
+    {
+        dynamicFilterSplitsRemoved.incrementAndGet();
+    }
+
+    public void recordDynamicFilterRowsRemoved(long positions)
+    {
+        dynamicFilterRowsRemoved.getAndAdd(positions);
+    }
+
+    public void recordInterpretedPage()
+    {
+        interpretedPages.incrementAndGet();
+    }
+
+    /**
+     * Records time spent compiling the expressions of the operator in the background.
+     */
+    public void recordExpressionCompileTime(Duration compileTime)
+    {
+        expressionCompileWallNanos.getAndAdd(compileTime.roundTo(NANOSECONDS));
+    }
+
     public void recordBlocked(ListenableFuture<?> blocked)
     {
         requireNonNull(blocked, "blocked is null");
@@ -477,6 +518,13 @@ public class OperatorContext
                 succinctBytes(peakTotalMemoryReservation.get()),
 
                 succinctBytes(spillContext.getSpilledBytes()),
+                succinctNanos(unspillWaitWallNanos.get()),
+
+                dynamicFilterSplitsRemoved.get(),
+                dynamicFilterRowsRemoved.get(),
+
+                interpretedPages.get(),
+                succinctNanos(expressionCompileWallNanos.get()),
 
                 memoryFuture.get().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
                 info);
@@ -74,6 +74,13 @@ public class OperatorStats
     private final DataSize peakTotalMemoryReservation;
 
     private final DataSize spilledDataSize;
+    private final Duration unspillWaitWall;
+
+    private final long dynamicFilterSplitsRemoved;
+    private final long dynamicFilterRowsRemoved;
+
+    private final long interpretedPages;
+    private final Duration expressionCompileWall;
 
     private final Optional<BlockedReason> blockedReason;
 
@@ -119,6 +126,13 @@ public class OperatorStats
             @JsonProperty("peakTotalMemoryReservation") DataSize peakTotalMemoryReservation,
 
             @JsonProperty("spilledDataSize") DataSize spilledDataSize,
+            @JsonProperty("unspillWaitWall") Duration unspillWaitWall,
+
+            @JsonProperty("dynamicFilterSplitsRemoved") long dynamicFilterSplitsRemoved,
+            @JsonProperty("dynamicFilterRowsRemoved") long dynamicFilterRowsRemoved,
+
+            @JsonProperty("interpretedPages") long interpretedPages,
+            @JsonProperty("expressionCompileWall") Duration expressionCompileWall,
 
             @JsonProperty("blockedReason") Optional<BlockedReason> blockedReason,
 
@@ -167,6 +181,16 @@ public class OperatorStats
         this.peakTotalMemoryReservation = requireNonNull(peakTotalMemoryReservation, "peakTotalMemoryReservation is null");
 
         this.spilledDataSize = requireNonNull(spilledDataSize, "spilledDataSize is null");
+        this.unspillWaitWall = requireNonNull(unspillWaitWall, "unspillWaitWall is null");
+
+        checkArgument(dynamicFilterSplitsRemoved >= 0, "dynamicFilterSplitsRemoved is negative");
+        this.dynamicFilterSplitsRemoved = dynamicFilterSplitsRemoved;
+        checkArgument(dynamicFilterRowsRemoved >= 0, "dynamicFilterRowsRemoved is negative");
+        this.dynamicFilterRowsRemoved = dynamicFilterRowsRemoved;
+
+        checkArgument(interpretedPages >= 0, "interpretedPages is negative");
+        this.interpretedPages = interpretedPages;
+        this.expressionCompileWall = requireNonNull(expressionCompileWall, "expressionCompileWall is null");
 
         this.blockedReason = blockedReason;
 
@@ -353,6 +377,36 @@ public class OperatorStats
         return spilledDataSize;
     }
 
+    @JsonProperty
+    public Duration getUnspillWaitWall()
+    {
+        return unspillWaitWall;
+    }
+
+    @JsonProperty
+    public long getDynamicFilterSplitsRemoved()
+    {
+        return dynamicFilterSplitsRemoved;
+    }
+
+    @JsonProperty
+    public long getDynamicFilterRowsRemoved()
+    {
+        return dynamicFilterRowsRemoved;
+    }
+
+    @JsonProperty
+    public long getInterpretedPages()
+    {
+        return interpretedPages;
+    }
+
+    @JsonProperty
+    public Duration getExpressionCompileWall()
+    {
+        return expressionCompileWall;
+    }
+
     @JsonProperty
     public Optional<BlockedReason> getBlockedReason()
     {
@@ -405,6 +459,13 @@ public class OperatorStats
         long peakTotalMemory = this.peakTotalMemoryReservation.toBytes();
 
         long spilledDataSize = this.spilledDataSize.toBytes();
+        long unspillWaitWall = this.unspillWaitWall.roundTo(NANOSECONDS);
+
+        long dynamicFilterSplitsRemoved = this.dynamicFilterSplitsRemoved;
+        long dynamicFilterRowsRemoved = this.dynamicFilterRowsRemoved;
+
+        long interpretedPages = this.interpretedPages;
+        long expressionCompileWall = this.expressionCompileWall.roundTo(NANOSECONDS);
 
         Optional<BlockedReason> blockedReason = this.blockedReason;
 
@@ -445,6 +506,13 @@ public class OperatorStats
             peakTotalMemory = max(peakTotalMemory, operator.getPeakTotalMemoryReservation().toBytes());
 
             spilledDataSize += operator.getSpilledDataSize().toBytes();
+            unspillWaitWall += operator.getUnspillWaitWall().roundTo(NANOSECONDS);
+
+            dynamicFilterSplitsRemoved += operator.getDynamicFilterSplitsRemoved();
+            dynamicFilterRowsRemoved += operator.getDynamicFilterRowsRemoved();
+
+            interpretedPages += operator.getInterpretedPages();
+            expressionCompileWall += operator.getExpressionCompileWall().roundTo(NANOSECONDS);
 
             if (operator.getBlockedReason().isPresent()) {
                 blockedReason = operator.getBlockedReason();
@@ -495,6 +563,13 @@ public class OperatorStats
                 succinctBytes(peakTotalMemory),
 
                 succinctBytes(spilledDataSize),
+                succinctNanos(unspillWaitWall),
+
+                dynamicFilterSplitsRemoved,
+                dynamicFilterRowsRemoved,
+
+                interpretedPages,
+                succinctNanos(expressionCompileWall),
 
                 blockedReason,
 
@@ -550,6 +625,11 @@ public class OperatorStats
                 peakSystemMemoryReservation,
                 peakTotalMemoryReservation,
                 spilledDataSize,
+                unspillWaitWall,
+                dynamicFilterSplitsRemoved,
+                dynamicFilterRowsRemoved,
+                interpretedPages,
+                expressionCompileWall,
                 blockedReason,
                 (info != null && info.isFinal()) ? info : null);
     }
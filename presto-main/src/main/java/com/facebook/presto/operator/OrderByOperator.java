@@ -13,18 +13,35 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import static com.facebook.presto.util.MergeSortedPages.mergeSortedPages;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 public class OrderByOperator
@@ -42,6 +59,10 @@ public class OrderByOperator
         private final List<SortOrder> sortOrder;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final int maxMergeFanIn;
+        private final OrderingCompiler orderingCompiler;
 
         public OrderByOperatorFactory(
                 int operatorId,
@@ -51,7 +72,11 @@ public class OrderByOperator
                 int expectedPositions,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder,
-                PagesIndex.Factory pagesIndexFactory)
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                Optional<SpillerFactory> spillerFactory,
+                int maxMergeFanIn,
+                OrderingCompiler orderingCompiler)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -62,6 +87,12 @@ public class OrderByOperator
             this.sortOrder = ImmutableList.copyOf(requireNonNull(sortOrder, "sortOrder is null"));
 
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+            this.spillEnabled = spillEnabled;
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+            checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
+            checkArgument(maxMergeFanIn >= 2, "maxMergeFanIn must be at least 2");
+            this.maxMergeFanIn = maxMergeFanIn;
+            this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         }
 
         @Override
@@ -77,7 +108,11 @@ public class OrderByOperator
                     expectedPositions,
                     sortChannels,
                     sortOrder,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory,
+                    maxMergeFanIn,
+                    orderingCompiler);
         }
 
         @Override
@@ -89,7 +124,19 @@ public class OrderByOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new OrderByOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, pagesIndexFactory);
+            return new OrderByOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    expectedPositions,
+                    sortChannels,
+                    sortOrder,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    spillerFactory,
+                    maxMergeFanIn,
+                    orderingCompiler);
         }
     }
 
@@ -101,16 +148,35 @@ public class OrderByOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final List<Integer> sortChannels;
     private final List<SortOrder> sortOrder;
     private final int[] outputChannels;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
     private final PagesIndex pageIndex;
 
+    private final List<Type> outputTypes;
     private final PageBuilder pageBuilder;
     private int currentPosition;
 
+    private final boolean spillEnabled;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final int maxMergeFanIn;
+    private final OrderingCompiler orderingCompiler;
+
+    // every spill produces one sorted run, each in its own spiller so that runs can be read and released independently
+    private List<Spiller> spilledRuns = new ArrayList<>();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private boolean spillPending;
+    private boolean mergingSpilledRuns;
+    // runs produced by the current intermediate merge pass, and the runs currently being merged into the last of them
+    private List<Spiller> mergedRuns = new ArrayList<>();
+    private List<Spiller> runsBeingMerged = ImmutableList.of();
+    private Optional<AggregatedMemoryContext> mergeMemoryContext = Optional.empty();
+    private Optional<WorkProcessor<Page>> mergedPages = Optional.empty();
+
     private State state = State.NEEDS_INPUT;
 
     public OrderByOperator(
@@ -120,19 +186,31 @@ public class OrderByOperator
             int expectedPositions,
             List<Integer> sortChannels,
             List<SortOrder> sortOrder,
-            PagesIndex.Factory pagesIndexFactory)
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            Optional<SpillerFactory> spillerFactory,
+            int maxMergeFanIn,
+            OrderingCompiler orderingCompiler)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(requireNonNull(outputChannels, "outputChannels is null"));
         this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
         this.sortOrder = ImmutableList.copyOf(requireNonNull(sortOrder, "sortOrder is null"));
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
         this.pageIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
 
-        this.pageBuilder = new PageBuilder(toTypes(sourceTypes, outputChannels));
+        this.outputTypes = toTypes(sourceTypes, outputChannels);
+        this.pageBuilder = new PageBuilder(outputTypes);
+
+        this.spillEnabled = spillEnabled;
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.maxMergeFanIn = maxMergeFanIn;
+        this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
     }
 
     @Override
@@ -144,12 +222,23 @@ public class OrderByOperator
     @Override
     public void finish()
     {
-        if (state == State.NEEDS_INPUT) {
-            state = State.HAS_OUTPUT;
+        if (state != State.NEEDS_INPUT || !completeSpill()) {
+            return;
+        }
+        state = State.HAS_OUTPUT;
 
+        if (spilledRuns.isEmpty() && moveToUserMemory()) {
             // sort the index
             pageIndex.sort(sortChannels, sortOrder);
+            return;
         }
+
+        // spill the remaining rows as well, so the output is a merge of sorted runs only
+        if (pageIndex.getPositionCount() > 0) {
+            spillToDisk();
+        }
+        mergingSpilledRuns = true;
+        mergeMemoryContext = Optional.of(operatorContext.newAggregateSystemMemoryContext());
     }
 
     @Override
@@ -158,24 +247,45 @@ public class OrderByOperator
         return state == State.FINISHED;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && !spillPending;
     }
 
     @Override
     public void addInput(Page page)
     {
         checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
+        checkState(!spillPending, "Previous spill hasn't yet finished");
         requireNonNull(page, "page is null");
 
         pageIndex.addPage(page);
+        updateMemoryUsage();
+    }
 
-        if (!localUserMemoryContext.trySetBytes(pageIndex.getEstimatedSize().toBytes())) {
-            pageIndex.compact();
-            localUserMemoryContext.setBytes(pageIndex.getEstimatedSize().toBytes());
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || state != State.NEEDS_INPUT || spillPending || pageIndex.getPositionCount() == 0) {
+            return NOT_BLOCKED;
         }
+        return spillToDisk();
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        completeSpill();
     }
 
     @Override
@@ -185,6 +295,21 @@ public class OrderByOperator
             return null;
         }
 
+        if (mergingSpilledRuns) {
+            if (!mergedPages.isPresent() && !mergeSpilledRuns()) {
+                return null;
+            }
+            WorkProcessor<Page> pages = mergedPages.get();
+            if (!pages.process()) {
+                return null;
+            }
+            if (pages.isFinished()) {
+                state = State.FINISHED;
+                return null;
+            }
+            return pages.getResult();
+        }
+
         if (currentPosition >= pageIndex.getPositionCount()) {
             state = State.FINISHED;
             return null;
@@ -208,6 +333,149 @@ public class OrderByOperator
     public void close()
     {
         pageIndex.clear();
+        try (Closer closer = Closer.create()) {
+            spilledRuns.forEach(closer::register);
+            mergedRuns.forEach(closer::register);
+            runsBeingMerged.forEach(closer::register);
+            mergeMemoryContext.ifPresent(context -> closer.register(context::close));
+            closer.register(() -> localUserMemoryContext.setBytes(0));
+            closer.register(() -> localRevocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void updateMemoryUsage()
+    {
+        if (spillEnabled && state == State.NEEDS_INPUT) {
+            // the index can be spilled at any time while input is being collected
+            localRevocableMemoryContext.setBytes(pageIndex.getEstimatedSize().toBytes());
+            return;
+        }
+        localRevocableMemoryContext.setBytes(0);
+        if (!localUserMemoryContext.trySetBytes(pageIndex.getEstimatedSize().toBytes())) {
+            pageIndex.compact();
+            localUserMemoryContext.setBytes(pageIndex.getEstimatedSize().toBytes());
+        }
+    }
+
+    /**
+     * Once all input has been received, the rows held in memory have to stay there until they are
+     * output, so they can no longer be accounted as revocable. Returns false if they don't fit.
+     */
+    private boolean moveToUserMemory()
+    {
+        if (!spillEnabled) {
+            return true;
+        }
+        long bytes = localRevocableMemoryContext.getBytes();
+        localRevocableMemoryContext.setBytes(0);
+        if (localUserMemoryContext.trySetBytes(bytes)) {
+            return true;
+        }
+        localRevocableMemoryContext.setBytes(bytes);
+        return false;
+    }
+
+    private ListenableFuture<?> spillToDisk()
+    {
+        checkState(spillEnabled, "Spill is not enabled");
+        checkState(!spillPending, "Previous spill hasn't yet finished");
+
+        pageIndex.sort(sortChannels, sortOrder);
+        Spiller spiller = createSpiller();
+        spilledRuns.add(spiller);
+        // the index is released in completeSpill once the spiller has consumed it
+        spillInProgress = spiller.spill(pageIndex.getSortedPages());
+        spillPending = true;
+        return spillInProgress;
+    }
+
+    /**
+     * Releases the rows of a finished spill. Returns false if a spill is still running.
+     */
+    private boolean completeSpill()
+    {
+        if (!spillInProgress.isDone()) {
+            return false;
+        }
+        if (spillPending) {
+            // check for exception from the spill for early failure
+            getFutureValue(spillInProgress);
+            spillPending = false;
+            pageIndex.clear();
+            updateMemoryUsage();
+        }
+        return true;
+    }
+
+    /**
+     * Advances the merge of the spilled runs by at most one intermediate run, so that the driver is
+     * never blocked on a spill; while a run is being written, {@link #isBlocked()} reports its spill.
+     * Runs are merged in groups of at most maxMergeFanIn, so that the number of spill files read at
+     * once stays bounded. Returns true once the remaining runs are merged into the output.
+     */
+    private boolean mergeSpilledRuns()
+    {
+        if (!completeSpill()) {
+            return false;
+        }
+        // check for exception from the previous merge for early failure
+        getFutureValue(spillInProgress);
+        runsBeingMerged.forEach(Spiller::close);
+        runsBeingMerged = ImmutableList.of();
+
+        if (spilledRuns.isEmpty()) {
+            // the intermediate merge pass is complete
+            spilledRuns = mergedRuns;
+            mergedRuns = new ArrayList<>();
+        }
+
+        if (mergedRuns.isEmpty() && spilledRuns.size() <= maxMergeFanIn) {
+            mergedPages = Optional.of(mergeSortedPages(
+                    openRuns(spilledRuns),
+                    orderingCompiler.compilePageWithPositionComparator(sourceTypes, sortChannels, sortOrder),
+                    Ints.asList(outputChannels),
+                    outputTypes,
+                    (pageBuilder, pageWithPosition) -> pageBuilder.isFull(),
+                    false,
+                    mergeMemoryContext.get(),
+                    operatorContext.getDriverContext().getYieldSignal()));
+            return true;
+        }
+
+        List<Spiller> runs = spilledRuns.subList(0, min(maxMergeFanIn, spilledRuns.size()));
+        List<Spiller> nextRuns = ImmutableList.copyOf(runs);
+        runs.clear();
+        if (nextRuns.size() == 1) {
+            mergedRuns.add(getOnlyElement(nextRuns));
+            return false;
+        }
+
+        Spiller spiller = createSpiller();
+        mergedRuns.add(spiller);
+        runsBeingMerged = nextRuns;
+        // the merge runs on the spill executor, which consumes the merged pages
+        spillInProgress = spiller.spill(mergeSortedPages(
+                openRuns(runsBeingMerged),
+                orderingCompiler.compilePageWithPositionComparator(sourceTypes, sortChannels, sortOrder),
+                sourceTypes,
+                mergeMemoryContext.get(),
+                new DriverYieldSignal()).iterator());
+        return false;
+    }
+
+    private static List<WorkProcessor<Page>> openRuns(List<Spiller> runs)
+    {
+        return runs.stream()
+                .map(run -> WorkProcessor.fromIterator(getOnlyElement(run.getSpills())))
+                .collect(toImmutableList());
+    }
+
+    private Spiller createSpiller()
+    {
+        return spillerFactory.get().create(sourceTypes, operatorContext.getSpillContext(), operatorContext.newAggregateSystemMemoryContext());
     }
 
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels)
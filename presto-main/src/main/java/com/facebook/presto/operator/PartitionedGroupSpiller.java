@@ -0,0 +1,243 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spills the state and the input of an operator that computes its output independently for every
+ * group of rows with equal values in the key channels. Both are hash partitioned by the key channels
+ * into the same spill partitions, so once the input is finished the operator can rebuild the state of
+ * one spill partition at a time and process the input of that partition against it.
+ * <p>
+ * State pages use the input layout, followed by the additional state columns of the operator.
+ * Input channels that are not keys are null in state pages.
+ */
+class PartitionedGroupSpiller
+        implements Closeable
+{
+    @VisibleForTesting
+    static final int SPILL_PARTITION_COUNT = 16;
+
+    private final List<Type> inputTypes;
+    private final List<Type> stateTypes;
+    private final List<Integer> keyChannels;
+    private final Optional<Integer> hashChannel;
+    private final PartitionFunction partitionFunction;
+    private final PartitioningSpillerFactory spillerFactory;
+    private final OperatorContext operatorContext;
+
+    private Optional<PartitioningSpiller> stateSpiller = Optional.empty();
+    private Optional<PartitioningSpiller> inputSpiller = Optional.empty();
+
+    private int currentPartition = -1;
+    private Iterator<Page> currentState = emptyIterator();
+    private Iterator<Page> currentInput = emptyIterator();
+
+    public PartitionedGroupSpiller(
+            List<Type> inputTypes,
+            List<Type> stateTypes,
+            List<Integer> keyChannels,
+            Optional<Integer> hashChannel,
+            PartitioningSpillerFactory spillerFactory,
+            OperatorContext operatorContext)
+    {
+        this.inputTypes = ImmutableList.copyOf(requireNonNull(inputTypes, "inputTypes is null"));
+        this.stateTypes = ImmutableList.copyOf(requireNonNull(stateTypes, "stateTypes is null"));
+        checkArgument(stateTypes.size() >= inputTypes.size() && stateTypes.subList(0, inputTypes.size()).equals(inputTypes), "stateTypes must start with inputTypes");
+        this.keyChannels = ImmutableList.copyOf(requireNonNull(keyChannels, "keyChannels is null"));
+        checkArgument(!keyChannels.isEmpty(), "keyChannels is empty");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+
+        HashGenerator hashGenerator;
+        if (hashChannel.isPresent()) {
+            hashGenerator = new PrecomputedHashGenerator(hashChannel.get());
+        }
+        else {
+            List<Type> keyTypes = keyChannels.stream()
+                    .map(inputTypes::get)
+                    .collect(toImmutableList());
+            hashGenerator = new InterpretedHashGenerator(keyTypes, keyChannels);
+        }
+        this.partitionFunction = new LocalPartitionGenerator(hashGenerator, SPILL_PARTITION_COUNT);
+    }
+
+    public boolean hasSpilled()
+    {
+        return stateSpiller.isPresent() || inputSpiller.isPresent();
+    }
+
+    public ListenableFuture<?> spillState(List<Page> pages)
+    {
+        if (!stateSpiller.isPresent()) {
+            stateSpiller = Optional.of(createSpiller(stateTypes));
+        }
+        return spill(stateSpiller.get(), pages);
+    }
+
+    public ListenableFuture<?> spillInput(List<Page> pages)
+    {
+        if (!inputSpiller.isPresent()) {
+            inputSpiller = Optional.of(createSpiller(inputTypes));
+        }
+        return spill(inputSpiller.get(), pages);
+    }
+
+    /**
+     * Builds the state pages for all groups of {@code groupByHash}. {@code stateWriter} appends the
+     * additional state columns of a group.
+     */
+    public List<Page> buildStatePages(GroupByHash groupByHash, GroupStateWriter stateWriter)
+    {
+        List<Type> groupTypes = ImmutableList.<Type>builder()
+                .addAll(groupByHash.getTypes())
+                .addAll(stateTypes.subList(inputTypes.size(), stateTypes.size()))
+                .build();
+        int stateChannel = groupByHash.getTypes().size();
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupTypes);
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            stateWriter.appendTo(groupId, pageBuilder, stateChannel);
+            if (pageBuilder.isFull()) {
+                pages.add(toStateLayout(pageBuilder.build()));
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            pages.add(toStateLayout(pageBuilder.build()));
+        }
+        return pages.build();
+    }
+
+    /**
+     * Moves to the next spill partition. Returns false once all partitions have been read.
+     */
+    public boolean advancePartition()
+    {
+        checkState(currentPartition < SPILL_PARTITION_COUNT, "All partitions have already been read");
+        currentPartition++;
+        if (currentPartition == SPILL_PARTITION_COUNT) {
+            currentState = emptyIterator();
+            currentInput = emptyIterator();
+            stateSpiller.ifPresent(PartitioningSpiller::verifyAllPartitionsRead);
+            inputSpiller.ifPresent(PartitioningSpiller::verifyAllPartitionsRead);
+            return false;
+        }
+        currentState = stateSpiller.map(spiller -> spiller.getSpilledPages(currentPartition)).orElse(emptyIterator());
+        currentInput = inputSpiller.map(spiller -> spiller.getSpilledPages(currentPartition)).orElse(emptyIterator());
+        return true;
+    }
+
+    public boolean isFinished()
+    {
+        return currentPartition == SPILL_PARTITION_COUNT;
+    }
+
+    public Iterator<Page> getCurrentState()
+    {
+        return currentState;
+    }
+
+    public Iterator<Page> getCurrentInput()
+    {
+        return currentInput;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        try (Closer closer = Closer.create()) {
+            stateSpiller.ifPresent(closer::register);
+            inputSpiller.ifPresent(closer::register);
+        }
+    }
+
+    private PartitioningSpiller createSpiller(List<Type> types)
+    {
+        return spillerFactory.create(
+                types,
+                partitionFunction,
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.newAggregateSystemMemoryContext());
+    }
+
+    private static ListenableFuture<?> spill(PartitioningSpiller spiller, List<Page> pages)
+    {
+        // the spiller accepts a page only once the previous one has been written, so chain the pages
+        ListenableFuture<?> future = NOT_BLOCKED;
+        for (Page page : pages) {
+            future = transformAsync(future, ignored -> spiller.partitionAndSpill(page, partition -> true).getSpillingFuture(), directExecutor());
+        }
+        return future;
+    }
+
+    private Page toStateLayout(Page groupPage)
+    {
+        int positionCount = groupPage.getPositionCount();
+        Block[] blocks = new Block[stateTypes.size()];
+        int groupChannel = 0;
+        for (int keyChannel : keyChannels) {
+            blocks[keyChannel] = groupPage.getBlock(groupChannel++);
+        }
+        if (hashChannel.isPresent()) {
+            blocks[hashChannel.get()] = groupPage.getBlock(groupChannel++);
+        }
+        for (int channel = inputTypes.size(); channel < stateTypes.size(); channel++) {
+            blocks[channel] = groupPage.getBlock(groupChannel++);
+        }
+        for (int channel = 0; channel < blocks.length; channel++) {
+            if (blocks[channel] == null) {
+                blocks[channel] = RunLengthEncodedBlock.create(stateTypes.get(channel), null, positionCount);
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    public interface GroupStateWriter
+    {
+        void appendTo(int groupId, PageBuilder pageBuilder, int channel);
+    }
+}
@@ -357,7 +357,7 @@ public class PartitionedOutputOperator
             for (PageBuilder pageBuilder : pageBuilders) {
                 sizeInBytes += pageBuilder.getSizeInBytes();
             }
-            return sizeInBytes;
+            return sizeInBytes + serde.getRetainedSizeInBytes();
         }
 
         /**
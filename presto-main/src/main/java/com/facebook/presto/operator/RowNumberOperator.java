@@ -21,11 +21,14 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +39,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static java.util.Objects.requireNonNull;
 
 public class RowNumberOperator
@@ -55,6 +59,8 @@ public class RowNumberOperator
         private final int expectedPositions;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
 
         public RowNumberOperatorFactory(
                 int operatorId,
@@ -67,6 +73,23 @@ public class RowNumberOperator
                 Optional<Integer> hashChannel,
                 int expectedPositions,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler, false, Optional.empty());
+        }
+
+        public RowNumberOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<Integer> partitionChannels,
+                List<? extends Type> partitionTypes,
+                Optional<Integer> maxRowsPerPartition,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -80,6 +103,9 @@ public class RowNumberOperator
             checkArgument(expectedPositions > 0, "expectedPositions < 0");
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            checkArgument(!spillEnabled || partitioningSpillerFactory.isPresent(), "Spill enabled but no partitioningSpillerFactory provided");
         }
 
         @Override
@@ -97,7 +123,9 @@ public class RowNumberOperator
                     maxRowsPerPartition,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
 
         @Override
@@ -109,22 +137,28 @@ public class RowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new RowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler);
+            return new RowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
     private boolean finishing;
 
     private final int[] outputChannels;
     private final List<Type> types;
+    private final List<Type> partitionTypes;
+    private final int[] partitionChannels;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
 
     private GroupByIdBlock partitionIds;
-    private final Optional<GroupByHash> groupByHash;
+    private Optional<GroupByHash> groupByHash;
 
     private Page inputPage;
-    private final LongBigArray partitionRowCount;
+    private LongBigArray partitionRowCount;
 
     private final Optional<Integer> maxRowsPerPartition;
     // Only present if maxRowsPerPartition is present
@@ -133,6 +167,13 @@ public class RowNumberOperator
     // for yield when memory is not available
     private Work<GroupByIdBlock> unfinishedWork;
 
+    private final boolean spillEnabled;
+    private final Optional<PartitionedGroupSpiller> spiller;
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean spillPending;
+    // true while the row counts of a spilled partition are being restored
+    private boolean restoringState;
+
     public RowNumberOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -143,9 +184,26 @@ public class RowNumberOperator
             Optional<Integer> hashChannel,
             int expectedPositions,
             JoinCompiler joinCompiler)
+    {
+        this(operatorContext, sourceTypes, outputChannels, partitionChannels, partitionTypes, maxRowsPerPartition, hashChannel, expectedPositions, joinCompiler, false, Optional.empty());
+    }
+
+    public RowNumberOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<Integer> partitionChannels,
+            List<Type> partitionTypes,
+            Optional<Integer> maxRowsPerPartition,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
         this.outputChannels = Ints.toArray(outputChannels);
         this.types = toTypes(sourceTypes, outputChannels);
 
@@ -157,13 +215,32 @@ public class RowNumberOperator
             selectedRowPageBuilder = Optional.empty();
         }
 
+        this.partitionTypes = ImmutableList.copyOf(requireNonNull(partitionTypes, "partitionTypes is null"));
+        this.partitionChannels = Ints.toArray(partitionChannels);
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+
         this.partitionRowCount = new LongBigArray(0);
-        if (partitionChannels.isEmpty()) {
-            this.groupByHash = Optional.empty();
+        this.groupByHash = createPartitionHash();
+
+        // with a single partition the only state is its row count, so there is nothing worth spilling
+        requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.spillEnabled = spillEnabled && !partitionChannels.isEmpty();
+        if (this.spillEnabled) {
+            this.spiller = Optional.of(new PartitionedGroupSpiller(
+                    sourceTypes,
+                    ImmutableList.<Type>builder()
+                            .addAll(sourceTypes)
+                            .add(BIGINT)
+                            .build(),
+                    partitionChannels,
+                    hashChannel,
+                    partitioningSpillerFactory.orElseThrow(() -> new IllegalArgumentException("Spill enabled but no partitioningSpillerFactory provided")),
+                    operatorContext));
         }
         else {
-            int[] channels = Ints.toArray(partitionChannels);
-            this.groupByHash = Optional.of(createGroupByHash(partitionTypes, channels, hashChannel, expectedPositions, isDictionaryAggregationEnabled(operatorContext.getSession()), joinCompiler, this::updateMemoryReservation));
+            this.spiller = Optional.empty();
         }
     }
 
@@ -189,7 +266,16 @@ public class RowNumberOperator
             return partitionRowCount.get(0) == maxRowsPerPartition.get();
         }
 
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && !spillPending && spillInProgress.isDone() && (!hasSpilled() || spiller.get().isFinished());
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
@@ -199,7 +285,7 @@ public class RowNumberOperator
             // Check if single partition is done
             return partitionRowCount.get(0) < maxRowsPerPartition.get() && !finishing && !hasUnfinishedInput();
         }
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && !spillPending && spillInProgress.isDone();
     }
 
     @Override
@@ -208,6 +294,15 @@ public class RowNumberOperator
         checkState(!finishing, "Operator is already finishing");
         requireNonNull(page, "page is null");
         checkState(!hasUnfinishedInput());
+        checkState(!spillPending, "Previous spill hasn't yet finished");
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (hasSpilled()) {
+            // the row counts seen so far are on disk, so the rest of the input is numbered partition by partition at the end
+            spillInProgress = spiller.get().spillInput(ImmutableList.of(page));
+            return;
+        }
+
         inputPage = page;
         if (groupByHash.isPresent()) {
             unfinishedWork = groupByHash.get().getGroupIds(inputPage);
@@ -216,9 +311,36 @@ public class RowNumberOperator
         updateMemoryReservation();
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || finishing || hasSpilled() || hasUnfinishedInput() || !spillInProgress.isDone()) {
+            return NOT_BLOCKED;
+        }
+        spillInProgress = spiller.get().spillState(spiller.get().buildStatePages(
+                groupByHash.get(),
+                (partitionId, pageBuilder, channel) -> BIGINT.writeLong(pageBuilder.getBlockBuilder(channel), partitionRowCount.get(partitionId))));
+        spillPending = true;
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (spillPending) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spillPending = false;
+            resetPartitions();
+        }
+    }
+
     @Override
     public Page getOutput()
     {
+        if (inputPage == null && !processNextSpilledPage()) {
+            return null;
+        }
+
         if (unfinishedWork != null && !processUnfinishedWork()) {
             return null;
         }
@@ -227,6 +349,12 @@ public class RowNumberOperator
             return null;
         }
 
+        if (restoringState) {
+            restorePartitionRowCounts();
+            inputPage = null;
+            return null;
+        }
+
         Page outputPage;
         if (maxRowsPerPartition.isPresent()) {
             outputPage = getSelectedRows();
@@ -240,11 +368,74 @@ public class RowNumberOperator
         return outputPage;
     }
 
+    @Override
+    public void close()
+            throws IOException
+    {
+        localRevocableMemoryContext.setBytes(0);
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
     }
 
+    /**
+     * Once all input has been spilled, each spill partition is processed on its own: the row counts
+     * spilled with the partition keys are restored first, then the spilled input of the partition is numbered.
+     */
+    private boolean processNextSpilledPage()
+    {
+        if (!finishing || !hasSpilled() || spillPending || !spillInProgress.isDone() || spiller.get().isFinished()) {
+            return false;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        PartitionedGroupSpiller spiller = this.spiller.get();
+        while (!spiller.getCurrentState().hasNext() && !spiller.getCurrentInput().hasNext()) {
+            resetPartitions();
+            if (!spiller.advancePartition()) {
+                return false;
+            }
+        }
+
+        restoringState = spiller.getCurrentState().hasNext();
+        inputPage = restoringState ? spiller.getCurrentState().next() : spiller.getCurrentInput().next();
+        unfinishedWork = groupByHash.get().getGroupIds(inputPage);
+        return true;
+    }
+
+    private void restorePartitionRowCounts()
+    {
+        Block rowCounts = inputPage.getBlock(inputPage.getChannelCount() - 1);
+        for (int position = 0; position < inputPage.getPositionCount(); position++) {
+            partitionRowCount.set(partitionIds.getGroupId(position), BIGINT.getLong(rowCounts, position));
+        }
+    }
+
+    private void resetPartitions()
+    {
+        groupByHash = createPartitionHash();
+        partitionRowCount = new LongBigArray(0);
+        updateMemoryReservation();
+    }
+
+    private boolean hasSpilled()
+    {
+        return spiller.isPresent() && spiller.get().hasSpilled();
+    }
+
+    private Optional<GroupByHash> createPartitionHash()
+    {
+        if (partitionChannels.length == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(createGroupByHash(partitionTypes, partitionChannels, hashChannel, expectedPositions, isDictionaryAggregationEnabled(operatorContext.getSession()), joinCompiler, this::updateMemoryReservation));
+    }
+
     /**
      * Update memory usage.
      *
@@ -258,7 +449,14 @@ public class RowNumberOperator
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
         long memorySizeInBytes = groupByHash.map(GroupByHash::getEstimatedSize).orElse(0L) + partitionRowCount.sizeOf();
-        localUserMemoryContext.setBytes(memorySizeInBytes);
+        if (spillEnabled && !hasSpilled()) {
+            // the partition state is revocable until it has been spilled; after that the input goes straight to disk
+            localRevocableMemoryContext.setBytes(memorySizeInBytes);
+        }
+        else {
+            localRevocableMemoryContext.setBytes(0);
+            localUserMemoryContext.setBytes(memorySizeInBytes);
+        }
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
@@ -29,6 +29,7 @@ import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
@@ -67,6 +68,7 @@ public class ScanFilterAndProjectOperator
     private final LocalMemoryContext outputMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
     private final MergingPageOutput mergingOutput;
+    private final Optional<TableScanDynamicFilter> dynamicFilter;
 
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
@@ -86,7 +88,8 @@ public class ScanFilterAndProjectOperator
             PageProcessor pageProcessor,
             Iterable<ColumnHandle> columns,
             Iterable<Type> types,
-            MergingPageOutput mergingOutput)
+            MergingPageOutput mergingOutput,
+            Optional<LocalDynamicFilter> dynamicFilter)
     {
         this.cursorProcessor = requireNonNull(cursorProcessor, "cursorProcessor is null");
         this.pageProcessor = requireNonNull(pageProcessor, "pageProcessor is null");
@@ -98,6 +101,8 @@ public class ScanFilterAndProjectOperator
         this.pageProcessorMemoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.outputMemoryContext = operatorContext.newLocalSystemMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null")
+                .map(filter -> new TableScanDynamicFilter(operatorContext, filter, this.columns));
 
         this.pageBuilder = new PageBuilder(ImmutableList.copyOf(requireNonNull(types, "types is null")));
     }
@@ -195,6 +200,9 @@ public class ScanFilterAndProjectOperator
             CompletableFuture<?> pageSourceBlocked = pageSource.isBlocked();
             return pageSourceBlocked.isDone() ? NOT_BLOCKED : toListenableFuture(pageSourceBlocked);
         }
+        if (split != null && cursor == null && dynamicFilter.isPresent()) {
+            return dynamicFilter.get().isBlocked();
+        }
         return NOT_BLOCKED;
     }
 
@@ -218,7 +226,7 @@ public class ScanFilterAndProjectOperator
         }
 
         if (!finishing && pageSource == null && cursor == null) {
-            ConnectorPageSource source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            ConnectorPageSource source = createPageSource();
             if (source instanceof RecordPageSource) {
                 cursor = ((RecordPageSource) source).getCursor();
             }
@@ -276,6 +284,9 @@ public class ScanFilterAndProjectOperator
 
             if (page != null) {
                 page = recordProcessedInput(page);
+                if (dynamicFilter.isPresent()) {
+                    page = dynamicFilter.get().filterPage(page);
+                }
 
                 // update operator stats
                 long endCompletedBytes = pageSource.getCompletedBytes();
@@ -284,8 +295,11 @@ public class ScanFilterAndProjectOperator
                 completedBytes = endCompletedBytes;
                 readTimeNanos = endReadTimeNanos;
 
-                Iterator<Optional<Page>> output = pageProcessor.process(operatorContext.getSession().toConnectorSession(), yieldSignal, pageProcessorMemoryContext, page);
-                mergingOutput.addInput(output);
+                if (page.getPositionCount() > 0) {
+                    recordExpressionTier();
+                    Iterator<Optional<Page>> output = pageProcessor.process(operatorContext.getSession().toConnectorSession(), yieldSignal, pageProcessorMemoryContext, page);
+                    mergingOutput.addInput(output);
+                }
             }
 
             if (finishing) {
@@ -298,6 +312,29 @@ public class ScanFilterAndProjectOperator
         return result;
     }
 
+    private void recordExpressionTier()
+    {
+        if (pageProcessor.isInterpreted()) {
+            operatorContext.recordInterpretedPage();
+        }
+        pageProcessor.takeCompileTime().ifPresent(operatorContext::recordExpressionCompileTime);
+    }
+
+    private ConnectorPageSource createPageSource()
+    {
+        if (!dynamicFilter.isPresent()) {
+            return pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+        }
+
+        // rows read through a record cursor are not filtered by the engine, only by the connector
+        TupleDomain<ColumnHandle> predicate = dynamicFilter.get().startSplit();
+        if (pageSourceProvider.isSplitPrunedByDynamicFilter(operatorContext.getSession(), split, predicate)) {
+            dynamicFilter.get().recordSplitRemoved();
+            return new EmptySplitPageSource();
+        }
+        return pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns, predicate);
+    }
+
     private Page recordProcessedInput(Page page)
     {
         operatorContext.recordProcessedInput(0, page.getPositionCount());
@@ -334,6 +371,7 @@ public class ScanFilterAndProjectOperator
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
+        private final Optional<LocalDynamicFilter> dynamicFilter;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -346,7 +384,8 @@ public class ScanFilterAndProjectOperator
                 Iterable<ColumnHandle> columns,
                 List<Type> types,
                 DataSize minOutputPageSize,
-                int minOutputPageRowCount)
+                int minOutputPageRowCount,
+                Optional<LocalDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -358,6 +397,7 @@ public class ScanFilterAndProjectOperator
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -379,7 +419,8 @@ public class ScanFilterAndProjectOperator
                     pageProcessor.get(),
                     columns,
                     types,
-                    new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount));
+                    new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount),
+                    dynamicFilter);
         }
 
         @Override
@@ -0,0 +1,284 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.aggregation.TypedSet;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Marker;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.Ranges;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
+import static com.facebook.presto.spi.predicate.Marker.Bound.BELOW;
+import static com.facebook.presto.spi.predicate.Marker.Bound.EXACTLY;
+import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.MoreFutures.addTimeout;
+import static io.airlift.concurrent.MoreFutures.getDone;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies a {@link LocalDynamicFilter} to the splits and pages read by a table scan.
+ * <p>
+ * Before opening the first split the scan waits for the dynamic filter, but no longer than
+ * the configured timeout. A split that is opened before the dynamic filter is complete is
+ * read without it. Rows are also filtered by the engine, as connectors are not required to
+ * enforce the dynamic filter.
+ */
+public class TableScanDynamicFilter
+{
+    private final OperatorContext operatorContext;
+    private final LocalDynamicFilter dynamicFilter;
+    private final List<ColumnHandle> columns;
+
+    private ListenableFuture<?> waitFuture;
+
+    private boolean resolved;
+    private TupleDomain<ColumnHandle> predicate = TupleDomain.all();
+    private int[] filterChannels = new int[0];
+    private ChannelFilter[] channelFilters = new ChannelFilter[0];
+
+    public TableScanDynamicFilter(OperatorContext operatorContext, LocalDynamicFilter dynamicFilter, List<ColumnHandle> columns)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+    }
+
+    /**
+     * Returns a future that completes when the dynamic filter has been collected or the wait timeout has elapsed.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (dynamicFilter.isDone()) {
+            return NOT_BLOCKED;
+        }
+        if (waitFuture == null) {
+            ScheduledExecutorService executor = operatorContext.getDriverContext().getYieldExecutor();
+            waitFuture = addTimeout(dynamicFilter.getResultFuture(), TupleDomain::all, dynamicFilter.getWaitTimeout(), executor);
+        }
+        return waitFuture.isDone() ? NOT_BLOCKED : waitFuture;
+    }
+
+    /**
+     * Captures the dynamic filter collected so far; it is used for the split about to be opened.
+     */
+    public TupleDomain<ColumnHandle> startSplit()
+    {
+        if (resolved || !dynamicFilter.isDone()) {
+            return predicate;
+        }
+
+        resolved = true;
+        predicate = getDone(dynamicFilter.getResultFuture());
+        if (predicate.isNone() || !predicate.getDomains().isPresent()) {
+            return predicate;
+        }
+
+        Map<ColumnHandle, Domain> domains = predicate.getDomains().get();
+        ImmutableList.Builder<Integer> channels = ImmutableList.builder();
+        ImmutableList.Builder<ChannelFilter> filters = ImmutableList.builder();
+        for (int channel = 0; channel < columns.size(); channel++) {
+            Domain domain = domains.get(columns.get(channel));
+            if (domain != null && !domain.isAll()) {
+                channels.add(channel);
+                filters.add(createChannelFilter(domain));
+            }
+        }
+        filterChannels = channels.build().stream().mapToInt(Integer::intValue).toArray();
+        channelFilters = filters.build().toArray(new ChannelFilter[0]);
+        return predicate;
+    }
+
+    public void recordSplitRemoved()
+    {
+        operatorContext.recordDynamicFilterSplitRemoved();
+    }
+
+    public Page filterPage(Page page)
+    {
+        if (filterChannels.length == 0 || page.getPositionCount() == 0) {
+            return page;
+        }
+
+        Block[] blocks = new Block[filterChannels.length];
+        for (int i = 0; i < filterChannels.length; i++) {
+            blocks[i] = page.getBlock(filterChannels[i]).getLoadedBlock();
+        }
+
+        int positionCount = page.getPositionCount();
+        int[] retainedPositions = new int[positionCount];
+        int retainedCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (matches(blocks, position)) {
+                retainedPositions[retainedCount] = position;
+                retainedCount++;
+            }
+        }
+
+        if (retainedCount == positionCount) {
+            return page;
+        }
+        operatorContext.recordDynamicFilterRowsRemoved(positionCount - retainedCount);
+        return page.getPositions(retainedPositions, 0, retainedCount);
+    }
+
+    private boolean matches(Block[] blocks, int position)
+    {
+        for (int i = 0; i < channelFilters.length; i++) {
+            if (!channelFilters[i].matches(blocks[i], position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a filter that evaluates the domain on the values in place, so the rows are
+     * neither boxed nor copied.
+     */
+    @VisibleForTesting
+    static ChannelFilter createChannelFilter(Domain domain)
+    {
+        Type type = domain.getType();
+        boolean nullAllowed = domain.isNullAllowed();
+        ChannelFilter valueFilter = domain.getValues().getValuesProcessor().transform(
+                ranges -> createRangesFilter(type, ranges),
+                discreteValues -> {
+                    ChannelFilter valuesFilter = createValuesFilter(type, discreteValues.getValues());
+                    return discreteValues.isWhiteList() ? valuesFilter : (block, position) -> !valuesFilter.matches(block, position);
+                },
+                allOrNone -> allOrNone.isAll() ? (block, position) -> true : (block, position) -> false);
+        return (block, position) -> block.isNull(position) ? nullAllowed : valueFilter.matches(block, position);
+    }
+
+    private static ChannelFilter createRangesFilter(Type type, Ranges ranges)
+    {
+        List<Range> orderedRanges = ranges.getOrderedRanges();
+        if (orderedRanges.stream().allMatch(Range::isSingleValue)) {
+            return createValuesFilter(type, orderedRanges.stream()
+                    .map(Range::getSingleValue)
+                    .collect(toImmutableList()));
+        }
+        return new RangesFilter(type, orderedRanges);
+    }
+
+    private static ChannelFilter createValuesFilter(Type type, Collection<Object> values)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, values.size());
+        for (Object value : values) {
+            writeNativeValue(type, blockBuilder, value);
+        }
+        Block valuesBlock = blockBuilder.build();
+
+        TypedSet valueSet = new TypedSet(type, valuesBlock.getPositionCount(), "dynamic filter");
+        for (int position = 0; position < valuesBlock.getPositionCount(); position++) {
+            valueSet.add(valuesBlock, position);
+        }
+        return valueSet::contains;
+    }
+
+    @VisibleForTesting
+    interface ChannelFilter
+    {
+        /**
+         * @param position a position of the block that is not null
+         */
+        boolean matches(Block block, int position);
+    }
+
+    /**
+     * Binary search over disjoint ranges in ascending order.
+     */
+    private static class RangesFilter
+            implements ChannelFilter
+    {
+        private final Type type;
+        // null for unbounded markers
+        private final Block[] lowValues;
+        private final boolean[] lowInclusive;
+        private final Block[] highValues;
+        private final boolean[] highInclusive;
+
+        public RangesFilter(Type type, List<Range> orderedRanges)
+        {
+            this.type = requireNonNull(type, "type is null");
+            int rangeCount = orderedRanges.size();
+            lowValues = new Block[rangeCount];
+            lowInclusive = new boolean[rangeCount];
+            highValues = new Block[rangeCount];
+            highInclusive = new boolean[rangeCount];
+            for (int i = 0; i < rangeCount; i++) {
+                Marker low = orderedRanges.get(i).getLow();
+                lowValues[i] = low.getValueBlock().orElse(null);
+                lowInclusive[i] = low.getBound() == EXACTLY;
+                Marker high = orderedRanges.get(i).getHigh();
+                highValues[i] = high.getValueBlock().orElse(null);
+                highInclusive[i] = high.getBound() != BELOW;
+            }
+        }
+
+        @Override
+        public boolean matches(Block block, int position)
+        {
+            // find the last range whose low bound is satisfied
+            int left = 0;
+            int right = lowValues.length - 1;
+            int candidate = -1;
+            while (left <= right) {
+                int middle = (left + right) >>> 1;
+                if (isAboveLow(middle, block, position)) {
+                    candidate = middle;
+                    left = middle + 1;
+                }
+                else {
+                    right = middle - 1;
+                }
+            }
+            return candidate >= 0 && isBelowHigh(candidate, block, position);
+        }
+
+        private boolean isAboveLow(int range, Block block, int position)
+        {
+            if (lowValues[range] == null) {
+                return true;
+            }
+            int comparison = type.compareTo(block, position, lowValues[range], 0);
+            return lowInclusive[range] ? comparison >= 0 : comparison > 0;
+        }
+
+        private boolean isBelowHigh(int range, Block block, int position)
+        {
+            if (highValues[range] == null) {
+                return true;
+            }
+            int comparison = type.compareTo(block, position, highValues[range], 0);
+            return highInclusive[range] ? comparison <= 0 : comparison < 0;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.split.EmptySplit;
 import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
@@ -49,18 +50,21 @@ public class TableScanOperator
         private final PlanNodeId sourceId;
         private final PageSourceProvider pageSourceProvider;
         private final List<ColumnHandle> columns;
+        private final Optional<LocalDynamicFilter> dynamicFilter;
         private boolean closed;
 
         public TableScanOperatorFactory(
                 int operatorId,
                 PlanNodeId sourceId,
                 PageSourceProvider pageSourceProvider,
-                Iterable<ColumnHandle> columns)
+                Iterable<ColumnHandle> columns,
+                Optional<LocalDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.sourceId = requireNonNull(sourceId, "sourceId is null");
             this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -78,7 +82,8 @@ public class TableScanOperator
                     operatorContext,
                     sourceId,
                     pageSourceProvider,
-                    columns);
+                    columns,
+                    dynamicFilter);
         }
 
         @Override
@@ -94,6 +99,7 @@ public class TableScanOperator
     private final List<ColumnHandle> columns;
     private final LocalMemoryContext systemMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
+    private final Optional<TableScanDynamicFilter> dynamicFilter;
 
     private Split split;
     private ConnectorPageSource source;
@@ -107,13 +113,16 @@ public class TableScanOperator
             OperatorContext operatorContext,
             PlanNodeId planNodeId,
             PageSourceProvider pageSourceProvider,
-            Iterable<ColumnHandle> columns)
+            Iterable<ColumnHandle> columns,
+            Optional<LocalDynamicFilter> dynamicFilter)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
         this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
         this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(TableScanOperator.class.getSimpleName());
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null")
+                .map(filter -> new TableScanDynamicFilter(operatorContext, filter, this.columns));
     }
 
     @Override
@@ -214,6 +223,9 @@ public class TableScanOperator
             CompletableFuture<?> pageSourceBlocked = source.isBlocked();
             return pageSourceBlocked.isDone() ? NOT_BLOCKED : toListenableFuture(pageSourceBlocked);
         }
+        if (split != null && dynamicFilter.isPresent()) {
+            return dynamicFilter.get().isBlocked();
+        }
         return NOT_BLOCKED;
     }
 
@@ -236,19 +248,24 @@ public class TableScanOperator
             return null;
         }
         if (source == null) {
-            source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            source = createPageSource();
         }
 
         Page page = source.getNextPage();
         if (page != null) {
             // assure the page is in memory before handing to another operator
             page = page.getLoadedPage();
+            long processedSizeInBytes = page.getSizeInBytes();
+            int processedPositionCount = page.getPositionCount();
+            if (dynamicFilter.isPresent()) {
+                page = dynamicFilter.get().filterPage(page);
+            }
 
             // update operator stats
             long endCompletedBytes = source.getCompletedBytes();
             long endReadTimeNanos = source.getReadTimeNanos();
             operatorContext.recordRawInputWithTiming(endCompletedBytes - completedBytes, endReadTimeNanos - readTimeNanos);
-            operatorContext.recordProcessedInput(page.getSizeInBytes(), page.getPositionCount());
+            operatorContext.recordProcessedInput(processedSizeInBytes, processedPositionCount);
             completedBytes = endCompletedBytes;
             readTimeNanos = endReadTimeNanos;
         }
@@ -258,4 +275,18 @@ public class TableScanOperator
 
         return page;
     }
+
+    private ConnectorPageSource createPageSource()
+    {
+        if (!dynamicFilter.isPresent()) {
+            return pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+        }
+
+        TupleDomain<ColumnHandle> predicate = dynamicFilter.get().startSplit();
+        if (pageSourceProvider.isSplitPrunedByDynamicFilter(operatorContext.getSession(), split, predicate)) {
+            dynamicFilter.get().recordSplitRemoved();
+            return new EmptySplitPageSource();
+        }
+        return pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns, predicate);
+    }
 }
@@ -17,6 +17,7 @@ import com.facebook.presto.execution.buffer.OutputBuffer;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
@@ -91,6 +92,7 @@ public class TaskOutputOperator
     private final OutputBuffer outputBuffer;
     private final Function<Page, Page> pagePreprocessor;
     private final PagesSerde serde;
+    private final LocalMemoryContext systemMemoryContext;
     private boolean finished;
 
     public TaskOutputOperator(OperatorContext operatorContext, OutputBuffer outputBuffer, Function<Page, Page> pagePreprocessor, PagesSerdeFactory serdeFactory)
@@ -99,6 +101,7 @@ public class TaskOutputOperator
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
         this.serde = requireNonNull(serdeFactory, "serdeFactory is null").createPagesSerde();
+        this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(TaskOutputOperator.class.getSimpleName());
     }
 
     @Override
@@ -146,6 +149,9 @@ public class TaskOutputOperator
                 .map(serde::serialize)
                 .collect(toImmutableList());
 
+        // the scratch buffers of the serde are kept for the next page
+        systemMemoryContext.setBytes(serde.getRetainedSizeInBytes());
+
         outputBuffer.enqueue(operatorContext.getDriverContext().getLifespan(), serializedPages);
         operatorContext.recordOutput(page.getSizeInBytes(), page.getPositionCount());
     }
@@ -155,4 +161,10 @@ public class TaskOutputOperator
     {
         return null;
     }
+
+    @Override
+    public void close()
+    {
+        systemMemoryContext.close();
+    }
 }
@@ -19,11 +19,14 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +36,8 @@ import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class TopNRowNumberOperator
@@ -59,6 +64,8 @@ public class TopNRowNumberOperator
         private final boolean generateRowNumber;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
 
         public TopNRowNumberOperatorFactory(
                 int operatorId,
@@ -74,6 +81,26 @@ public class TopNRowNumberOperator
                 Optional<Integer> hashChannel,
                 int expectedPositions,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler, false, Optional.empty());
+        }
+
+        public TopNRowNumberOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<Integer> partitionChannels,
+                List<? extends Type> partitionTypes,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int maxRowCountPerPartition,
+                boolean partial,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -91,6 +118,9 @@ public class TopNRowNumberOperator
             this.generateRowNumber = !partial;
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            checkArgument(!spillEnabled || partitioningSpillerFactory.isPresent(), "Spill enabled but no partitioningSpillerFactory provided");
         }
 
         @Override
@@ -110,7 +140,9 @@ public class TopNRowNumberOperator
                     generateRowNumber,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
 
         @Override
@@ -122,22 +154,39 @@ public class TopNRowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler);
+            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
     private final List<Integer> outputChannels;
-
-    private final GroupByHash groupByHash;
-    private final GroupedTopNBuilder groupedTopNBuilder;
+    private final List<Type> sourceTypes;
+    private final List<Integer> partitionChannels;
+    private final List<Type> partitionTypes;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final PageWithPositionComparator comparator;
+    private final int maxRowCountPerPartition;
+    private final boolean generateRowNumber;
+
+    private GroupByHash groupByHash;
+    private GroupedTopNBuilder groupedTopNBuilder;
 
     private boolean finishing;
     private Work<?> unfinishedWork;
     private Iterator<Page> outputIterator;
 
+    private final boolean spillEnabled;
+    private final Optional<PartitionedGroupSpiller> spiller;
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean spillPending;
+    // true once the rows retained at the end of the input have been spilled as well
+    private boolean remainingRowsSpilled;
+
     public TopNRowNumberOperator(
             OperatorContext operatorContext,
             List<? extends Type> sourceTypes,
@@ -151,9 +200,29 @@ public class TopNRowNumberOperator
             Optional<Integer> hashChannel,
             int expectedPositions,
             JoinCompiler joinCompiler)
+    {
+        this(operatorContext, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrders, maxRowCountPerPartition, generateRowNumber, hashChannel, expectedPositions, joinCompiler, false, Optional.empty());
+    }
+
+    public TopNRowNumberOperator(
+            OperatorContext operatorContext,
+            List<? extends Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<Integer> partitionChannels,
+            List<Type> partitionTypes,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            int maxRowCountPerPartition,
+            boolean generateRowNumber,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
         ImmutableList.Builder<Integer> outputChannelsBuilder = ImmutableList.builder();
         for (int channel : requireNonNull(outputChannels, "outputChannels is null")) {
@@ -165,29 +234,35 @@ public class TopNRowNumberOperator
         this.outputChannels = outputChannelsBuilder.build();
 
         checkArgument(maxRowCountPerPartition > 0, "maxRowCountPerPartition must be > 0");
-
-        if (!partitionChannels.isEmpty()) {
-            checkArgument(expectedPositions > 0, "expectedPositions must be > 0");
-            groupByHash = createGroupByHash(
-                    partitionTypes,
-                    Ints.toArray(partitionChannels),
+        checkArgument(partitionChannels.isEmpty() || expectedPositions > 0, "expectedPositions must be > 0");
+
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.partitionChannels = ImmutableList.copyOf(requireNonNull(partitionChannels, "partitionChannels is null"));
+        this.partitionTypes = ImmutableList.copyOf(requireNonNull(partitionTypes, "partitionTypes is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
+        this.comparator = new SimplePageWithPositionComparator(types, sortChannels, sortOrders);
+        this.maxRowCountPerPartition = maxRowCountPerPartition;
+        this.generateRowNumber = generateRowNumber;
+        createGroupedTopNBuilder();
+
+        // without partitions at most maxRowCountPerPartition rows are retained, so there is nothing worth spilling
+        requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        this.spillEnabled = spillEnabled && !partitionChannels.isEmpty();
+        if (this.spillEnabled) {
+            this.spiller = Optional.of(new PartitionedGroupSpiller(
+                    this.sourceTypes,
+                    this.sourceTypes,
+                    partitionChannels,
                     hashChannel,
-                    expectedPositions,
-                    isDictionaryAggregationEnabled(operatorContext.getSession()),
-                    joinCompiler,
-                    this::updateMemoryReservation);
+                    partitioningSpillerFactory.orElseThrow(() -> new IllegalArgumentException("Spill enabled but no partitioningSpillerFactory provided")),
+                    operatorContext));
         }
         else {
-            groupByHash = new NoChannelGroupByHash();
+            this.spiller = Optional.empty();
         }
-
-        List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
-        this.groupedTopNBuilder = new GroupedTopNBuilder(
-                ImmutableList.copyOf(sourceTypes),
-                new SimplePageWithPositionComparator(types, sortChannels, sortOrders),
-                maxRowCountPerPartition,
-                generateRowNumber,
-                groupByHash);
     }
 
     @Override
@@ -205,15 +280,28 @@ public class TopNRowNumberOperator
     @Override
     public boolean isFinished()
     {
+        if (hasSpilled()) {
+            // has no more input, has processed all spilled partitions, and has no unfinished work
+            return finishing && spiller.get().isFinished() && unfinishedWork == null;
+        }
         // has no more input, has finished flushing, and has no unfinished work
         return finishing && outputIterator != null && !outputIterator.hasNext() && unfinishedWork == null;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public boolean needsInput()
     {
-        // still has more input, has not started flushing yet, and has no unfinished work
-        return !finishing && outputIterator == null && unfinishedWork == null;
+        // still has more input, has not started flushing yet, has no unfinished work, and is not spilling
+        return !finishing && outputIterator == null && unfinishedWork == null && !spillPending && spillInProgress.isDone();
     }
 
     @Override
@@ -222,6 +310,7 @@ public class TopNRowNumberOperator
         checkState(!finishing, "Operator is already finishing");
         checkState(unfinishedWork == null, "Cannot add input with the operator when unfinished work is not empty");
         checkState(outputIterator == null, "Cannot add input with the operator when flushing");
+        checkState(!spillPending, "Previous spill hasn't yet finished");
         requireNonNull(page, "page is null");
         unfinishedWork = groupedTopNBuilder.processPage(page);
         if (unfinishedWork.process()) {
@@ -246,6 +335,15 @@ public class TopNRowNumberOperator
             return null;
         }
 
+        if (outputIterator == null && !hasSpilled() && !moveToUserMemory()) {
+            // the retained rows don't fit in memory, so process them one spill partition at a time
+            spillRetainedRows();
+        }
+
+        if (hasSpilled()) {
+            return getSpilledOutput();
+        }
+
         if (outputIterator == null) {
             // start flushing
             outputIterator = groupedTopNBuilder.buildResult();
@@ -253,18 +351,161 @@ public class TopNRowNumberOperator
 
         Page output = null;
         if (outputIterator.hasNext()) {
-            Page page = outputIterator.next();
-            // rewrite to expected column ordering
-            Block[] blocks = new Block[page.getChannelCount()];
-            for (int i = 0; i < outputChannels.size(); i++) {
-                blocks[i] = page.getBlock(outputChannels.get(i));
-            }
-            output = new Page(blocks);
+            output = toOutputPage(outputIterator.next());
         }
         updateMemoryReservation();
         return output;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || finishing || unfinishedWork != null || spillPending || !spillInProgress.isDone()) {
+            return NOT_BLOCKED;
+        }
+        spillRetainedRows();
+        spillPending = true;
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (spillPending) {
+            checkSuccess(spillInProgress, "spilling failed");
+            spillPending = false;
+            updateMemoryReservation();
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        localRevocableMemoryContext.setBytes(0);
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
+    /**
+     * Once all input has been received, the retained rows of each spill partition are fed to a new
+     * builder, which then produces the output of the partition.
+     */
+    private Page getSpilledOutput()
+    {
+        if (spillPending || !spillInProgress.isDone()) {
+            return null;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (!remainingRowsSpilled) {
+            // the rows retained since the last spill belong to the spilled partitions as well
+            spillRetainedRows();
+            remainingRowsSpilled = true;
+            // there is nothing to output before the first partition
+            outputIterator = emptyIterator();
+            return null;
+        }
+
+        PartitionedGroupSpiller spiller = this.spiller.get();
+        while (!spiller.isFinished()) {
+            if (outputIterator != null) {
+                if (outputIterator.hasNext()) {
+                    Page output = toOutputPage(outputIterator.next());
+                    updateMemoryReservation();
+                    return output;
+                }
+                outputIterator = null;
+                createGroupedTopNBuilder();
+                updateMemoryReservation();
+                spiller.advancePartition();
+                continue;
+            }
+
+            Iterator<Page> spilledRows = spiller.getCurrentInput();
+            if (spilledRows.hasNext()) {
+                unfinishedWork = groupedTopNBuilder.processPage(spilledRows.next());
+                boolean finished = unfinishedWork.process();
+                updateMemoryReservation();
+                if (!finished) {
+                    return null;
+                }
+                unfinishedWork = null;
+                continue;
+            }
+
+            outputIterator = groupedTopNBuilder.buildResult();
+        }
+        return null;
+    }
+
+    private void spillRetainedRows()
+    {
+        checkState(spillEnabled, "Spill is not enabled");
+        spillInProgress = spiller.get().spillInput(ImmutableList.copyOf(groupedTopNBuilder.buildRetainedRows()));
+        // the builder has been consumed by buildRetainedRows
+        createGroupedTopNBuilder();
+        updateMemoryReservation();
+    }
+
+    /**
+     * Once all input has been received, the retained rows have to stay in memory until they are
+     * output, so they can no longer be accounted as revocable. Returns false if they don't fit.
+     */
+    private boolean moveToUserMemory()
+    {
+        if (!spillEnabled) {
+            return true;
+        }
+        long bytes = localRevocableMemoryContext.getBytes();
+        localRevocableMemoryContext.setBytes(0);
+        if (localUserMemoryContext.trySetBytes(bytes)) {
+            return true;
+        }
+        localRevocableMemoryContext.setBytes(bytes);
+        return false;
+    }
+
+    private Page toOutputPage(Page page)
+    {
+        // rewrite to expected column ordering
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int i = 0; i < outputChannels.size(); i++) {
+            blocks[i] = page.getBlock(outputChannels.get(i));
+        }
+        return new Page(blocks);
+    }
+
+    private void createGroupedTopNBuilder()
+    {
+        if (!partitionChannels.isEmpty()) {
+            groupByHash = createGroupByHash(
+                    partitionTypes,
+                    Ints.toArray(partitionChannels),
+                    hashChannel,
+                    expectedPositions,
+                    isDictionaryAggregationEnabled(operatorContext.getSession()),
+                    joinCompiler,
+                    this::updateMemoryReservation);
+        }
+        else {
+            groupByHash = new NoChannelGroupByHash();
+        }
+
+        groupedTopNBuilder = new GroupedTopNBuilder(
+                sourceTypes,
+                comparator,
+                maxRowCountPerPartition,
+                generateRowNumber,
+                groupByHash);
+    }
+
+    private boolean hasSpilled()
+    {
+        return spiller.isPresent() && spiller.get().hasSpilled();
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -275,7 +516,14 @@ public class TopNRowNumberOperator
     private boolean updateMemoryReservation()
     {
         // TODO: may need to use trySetMemoryReservation with a compaction to free memory (but that may cause GC pressure)
-        localUserMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
+        if (spillEnabled && !finishing) {
+            // the retained rows can be spilled at any time while input is being collected
+            localRevocableMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
+        }
+        else {
+            localRevocableMemoryContext.setBytes(0);
+            localUserMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
+        }
         return operatorContext.isWaitingForMemory().isDone();
     }
 
@@ -54,6 +54,8 @@ public class WindowInfo
     {
         private final ImmutableList.Builder<IndexInfo> indexInfosBuilder = ImmutableList.builder();
         private IndexInfoBuilder currentIndexInfoBuilder;
+        private long spillsCount;
+        private long spilledRowsCount;
 
         public void addIndex(PagesIndex index)
         {
@@ -70,6 +72,12 @@ public class WindowInfo
             currentIndexInfoBuilder.addPartition(partition);
         }
 
+        public void addSpill(long rowsCount)
+        {
+            spillsCount++;
+            spilledRowsCount += rowsCount;
+        }
+
         public DriverWindowInfo build()
         {
             if (currentIndexInfoBuilder != null) {
@@ -80,7 +88,7 @@ public class WindowInfo
 
             List<IndexInfo> indexInfos = indexInfosBuilder.build();
             if (indexInfos.size() == 0) {
-                return new DriverWindowInfo(0.0, 0.0, 0.0, 0, 0, 0);
+                return new DriverWindowInfo(0.0, 0.0, 0.0, 0, 0, 0, spillsCount, spilledRowsCount);
             }
             long totalRowsCount = indexInfos.stream()
                     .mapToLong(IndexInfo::getTotalRowsCount)
@@ -109,7 +117,9 @@ public class WindowInfo
                     squaredDifferencesSizeInPartition,
                     totalPartitionsCount,
                     totalRowsCount,
-                    indexInfos.size());
+                    indexInfos.size(),
+                    spillsCount,
+                    spilledRowsCount);
         }
     }
 
@@ -122,6 +132,8 @@ public class WindowInfo
         private final long totalPartitionsCount;
         private final long totalRowsCount;
         private final long numberOfIndexes;
+        private final long spillsCount;
+        private final long spilledRowsCount;
 
         @JsonCreator
         public DriverWindowInfo(
@@ -130,7 +142,9 @@ public class WindowInfo
                 @JsonProperty("sumSquaredDifferencesSizeInPartition") double sumSquaredDifferencesSizeInPartition,
                 @JsonProperty("totalPartitionsCount") long totalPartitionsCount,
                 @JsonProperty("totalRowsCount") long totalRowsCount,
-                @JsonProperty("numberOfIndexes") long numberOfIndexes)
+                @JsonProperty("numberOfIndexes") long numberOfIndexes,
+                @JsonProperty("spillsCount") long spillsCount,
+                @JsonProperty("spilledRowsCount") long spilledRowsCount)
         {
             this.sumSquaredDifferencesPositionsOfIndex = sumSquaredDifferencesPositionsOfIndex;
             this.sumSquaredDifferencesSizeOfIndex = sumSquaredDifferencesSizeOfIndex;
@@ -138,6 +152,8 @@ public class WindowInfo
             this.totalPartitionsCount = totalPartitionsCount;
             this.totalRowsCount = totalRowsCount;
             this.numberOfIndexes = numberOfIndexes;
+            this.spillsCount = spillsCount;
+            this.spilledRowsCount = spilledRowsCount;
         }
 
         @JsonProperty
@@ -175,6 +191,18 @@ public class WindowInfo
         {
             return numberOfIndexes;
         }
+
+        @JsonProperty
+        public long getSpillsCount()
+        {
+            return spillsCount;
+        }
+
+        @JsonProperty
+        public long getSpilledRowsCount()
+        {
+            return spilledRowsCount;
+        }
     }
 
     private static class IndexInfoBuilder
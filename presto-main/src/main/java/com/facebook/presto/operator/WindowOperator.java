@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
 import com.facebook.presto.operator.window.FramedWindowFunction;
 import com.facebook.presto.operator.window.WindowPartition;
 import com.facebook.presto.spi.Page;
@@ -22,12 +23,20 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -41,6 +50,8 @@ import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
@@ -63,6 +74,8 @@ public class WindowOperator
         private final int expectedPositions;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
 
         public WindowOperatorFactory(
                 int operatorId,
@@ -76,7 +89,9 @@ public class WindowOperator
                 List<SortOrder> sortOrder,
                 int preSortedChannelPrefix,
                 int expectedPositions,
-                PagesIndex.Factory pagesIndexFactory)
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
         {
             requireNonNull(sourceTypes, "sourceTypes is null");
             requireNonNull(planNodeId, "planNodeId is null");
@@ -91,6 +106,8 @@ public class WindowOperator
             checkArgument(sortChannels.size() == sortOrder.size(), "Must have same number of sort channels as sort orders");
             checkArgument(preSortedChannelPrefix <= sortChannels.size(), "Cannot have more pre-sorted channels than specified sorted channels");
             checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
+            requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+            checkArgument(!spillEnabled || partitioningSpillerFactory.isPresent(), "Spill enabled but no partitioningSpillerFactory provided");
 
             this.pagesIndexFactory = pagesIndexFactory;
             this.operatorId = operatorId;
@@ -104,6 +121,8 @@ public class WindowOperator
             this.sortOrder = ImmutableList.copyOf(sortOrder);
             this.preSortedChannelPrefix = preSortedChannelPrefix;
             this.expectedPositions = expectedPositions;
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = partitioningSpillerFactory;
         }
 
         @Override
@@ -123,7 +142,9 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
 
         @Override
@@ -147,7 +168,9 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
     }
 
@@ -159,13 +182,19 @@ public class WindowOperator
         FINISHED
     }
 
+    @VisibleForTesting
+    static final int SPILL_PARTITION_COUNT = 16;
+
     private final OperatorContext operatorContext;
     private final int[] outputChannels;
     private final List<FramedWindowFunction> windowFunctions;
     private final List<Integer> orderChannels;
     private final List<SortOrder> ordering;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
+    private final List<Type> sourceTypes;
+    private final List<Integer> partitionChannels;
     private final int[] preGroupedChannels;
 
     private final PagesHashStrategy preGroupedPartitionHashStrategy;
@@ -186,6 +215,13 @@ public class WindowOperator
 
     private Page pendingInput;
 
+    private final boolean spillEnabled;
+    private final Optional<PartitioningSpillerFactory> partitioningSpillerFactory;
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = NOT_BLOCKED;
+    private boolean spillPending;
+    private int nextSpilledPartition;
+
     public WindowOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -197,7 +233,9 @@ public class WindowOperator
             List<SortOrder> sortOrder,
             int preSortedChannelPrefix,
             int expectedPositions,
-            PagesIndex.Factory pagesIndexFactory)
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            Optional<PartitioningSpillerFactory> partitioningSpillerFactory)
     {
         requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(outputChannels, "outputChannels is null");
@@ -214,6 +252,7 @@ public class WindowOperator
 
         this.operatorContext = operatorContext;
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
@@ -227,6 +266,8 @@ public class WindowOperator
                 .collect(toImmutableList());
 
         this.pagesIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.partitionChannels = ImmutableList.copyOf(partitionChannels);
         this.preGroupedChannels = Ints.toArray(preGroupedChannels);
         this.preGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(preGroupedChannels, OptionalInt.empty());
         List<Integer> unGroupedPartitionChannels = partitionChannels.stream()
@@ -252,6 +293,12 @@ public class WindowOperator
             this.ordering = ImmutableList.copyOf(concat(nCopies(unGroupedPartitionChannels.size(), ASC_NULLS_LAST), sortOrder));
         }
 
+        // Spilling only pays off when the whole input is buffered and can be split by the partition keys.
+        // Pre-grouped input is already processed one group of partitions at a time.
+        this.spillEnabled = spillEnabled && preGroupedChannels.isEmpty() && !partitionChannels.isEmpty();
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+        checkArgument(!this.spillEnabled || partitioningSpillerFactory.isPresent(), "Spill enabled but no partitioningSpillerFactory provided");
+
         windowInfo = new WindowInfo.DriverWindowInfoBuilder();
         operatorContext.setInfoSupplier(this::getWindowInfo);
     }
@@ -274,6 +321,19 @@ public class WindowOperator
             return;
         }
         if (state == State.NEEDS_INPUT) {
+            if (!completeSpill()) {
+                return;
+            }
+            if (spiller.isPresent() || !moveToUserMemory()) {
+                // Spill the remaining rows as well, so the partitions can be read back one spill partition at a time
+                if (pagesIndex.getPositionCount() > 0) {
+                    getFutureValue(spillPagesIndex());
+                    completeSpill();
+                }
+                state = State.FINISHING;
+                updateMemoryUsage();
+                return;
+            }
             // Since was waiting for more input, prepare what we have for output since we will not be getting any more input
             finishPagesIndex();
         }
@@ -286,10 +346,19 @@ public class WindowOperator
         return state == State.FINISHED;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return spillInProgress;
+        }
+        return NOT_BLOCKED;
+    }
+
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && !spillPending;
     }
 
     @Override
@@ -298,6 +367,7 @@ public class WindowOperator
         checkState(state == State.NEEDS_INPUT, "Operator can not take input at this time");
         requireNonNull(page, "page is null");
         checkState(pendingInput == null, "Operator already has pending input");
+        checkState(!spillPending, "Previous spill hasn't yet finished");
 
         if (page.getPositionCount() == 0) {
             return;
@@ -307,7 +377,22 @@ public class WindowOperator
         if (processPendingInput()) {
             state = State.HAS_OUTPUT;
         }
-        localUserMemoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+        updateMemoryUsage();
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || state != State.NEEDS_INPUT || spillPending || pagesIndex.getPositionCount() == 0) {
+            return NOT_BLOCKED;
+        }
+        return spillPagesIndex();
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        completeSpill();
     }
 
     /**
@@ -377,7 +462,7 @@ public class WindowOperator
         }
 
         Page page = extractOutput();
-        localUserMemoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+        updateMemoryUsage();
         return page;
     }
 
@@ -399,6 +484,9 @@ public class WindowOperator
                     if (pendingInput != null && processPendingInput()) {
                         partitionStart = 0;
                     }
+                    else if (state == State.FINISHING && loadNextSpilledPartition()) {
+                        partitionStart = 0;
+                    }
                     else if (state == State.FINISHING) {
                         state = State.FINISHED;
                         // Output the remaining page if we have anything buffered
@@ -446,6 +534,108 @@ public class WindowOperator
         windowInfo.addIndex(pagesIndex);
     }
 
+    private void updateMemoryUsage()
+    {
+        if (spillEnabled && state == State.NEEDS_INPUT) {
+            // the index can be spilled at any time while input is being collected
+            localRevocableMemoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+            return;
+        }
+        localRevocableMemoryContext.setBytes(0);
+        localUserMemoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+    }
+
+    /**
+     * Once all input has been received, the rows held in memory have to stay there until they are
+     * output, so they can no longer be accounted as revocable. Returns false if they don't fit.
+     */
+    private boolean moveToUserMemory()
+    {
+        if (!spillEnabled) {
+            return true;
+        }
+        long bytes = localRevocableMemoryContext.getBytes();
+        localRevocableMemoryContext.setBytes(0);
+        if (localUserMemoryContext.trySetBytes(bytes)) {
+            return true;
+        }
+        localRevocableMemoryContext.setBytes(bytes);
+        return false;
+    }
+
+    private ListenableFuture<?> spillPagesIndex()
+    {
+        checkState(spillEnabled, "Spill is not enabled");
+        checkState(!spillPending, "Previous spill hasn't yet finished");
+
+        if (!spiller.isPresent()) {
+            List<Type> partitionTypes = partitionChannels.stream()
+                    .map(sourceTypes::get)
+                    .collect(toImmutableList());
+            spiller = Optional.of(partitioningSpillerFactory.get().create(
+                    sourceTypes,
+                    new LocalPartitionGenerator(new InterpretedHashGenerator(partitionTypes, partitionChannels), SPILL_PARTITION_COUNT),
+                    operatorContext.getSpillContext().newLocalSpillContext(),
+                    operatorContext.newAggregateSystemMemoryContext()));
+        }
+        PartitioningSpiller partitioningSpiller = spiller.get();
+        windowInfo.addSpill(pagesIndex.getPositionCount());
+
+        // the spiller accepts a page only once the previous one has been written, so chain the pages;
+        // the index is released in completeSpill once the spiller has consumed it
+        ListenableFuture<?> future = NOT_BLOCKED;
+        for (Page page : ImmutableList.copyOf(pagesIndex.getPages())) {
+            future = Futures.transformAsync(future, ignored -> partitioningSpiller.partitionAndSpill(page, partition -> true).getSpillingFuture(), directExecutor());
+        }
+        spillInProgress = future;
+        spillPending = true;
+        return spillInProgress;
+    }
+
+    /**
+     * Releases the rows of a finished spill. Returns false if a spill is still running.
+     */
+    private boolean completeSpill()
+    {
+        if (!spillInProgress.isDone()) {
+            return false;
+        }
+        if (spillPending) {
+            // check for exception from the spill for early failure
+            getFutureValue(spillInProgress);
+            spillPending = false;
+            pagesIndex.clear();
+            updateMemoryUsage();
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next non-empty spill partition back into the pagesIndex. Every window partition is
+     * contained in exactly one spill partition, so memory is bounded by the largest spill partition
+     * rather than by the whole input. Returns false once all spilled partitions have been read.
+     */
+    private boolean loadNextSpilledPartition()
+    {
+        if (!spiller.isPresent()) {
+            return false;
+        }
+        while (nextSpilledPartition < SPILL_PARTITION_COUNT) {
+            Iterator<Page> pages = spiller.get().getSpilledPages(nextSpilledPartition);
+            nextSpilledPartition++;
+            while (pages.hasNext()) {
+                pagesIndex.addPage(pages.next());
+                updateMemoryUsage();
+            }
+            if (pagesIndex.getPositionCount() > 0) {
+                finishPagesIndex();
+                return true;
+            }
+        }
+        spiller.get().verifyAllPartitionsRead();
+        return false;
+    }
+
     // Assumes input grouped on relevant pagesHashStrategy columns
     private static int findGroupEnd(Page page, PagesHashStrategy pagesHashStrategy, int startPosition)
     {
@@ -497,5 +687,14 @@ public class WindowOperator
     public void close()
     {
         driverWindowInfo.set(Optional.of(windowInfo.build()));
+        pagesIndex.clear();
+        try (Closer closer = Closer.create()) {
+            spiller.ifPresent(closer::register);
+            closer.register(() -> localUserMemoryContext.setBytes(0));
+            closer.register(() -> localRevocableMemoryContext.setBytes(0));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
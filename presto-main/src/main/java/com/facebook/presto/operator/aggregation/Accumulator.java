@@ -33,6 +33,20 @@ public interface Accumulator
 
     void addInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition);
 
+    /**
+     * Returns true if rows added with {@link #addInput(WindowIndex, List, int, int)}
+     * can later be retracted with {@link #removeInput(WindowIndex, List, int, int)}.
+     */
+    default boolean supportsRemoveInput()
+    {
+        return false;
+    }
+
+    default void removeInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition)
+    {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support removing input");
+    }
+
     void addIntermediate(Block block);
 
     void evaluateIntermediate(BlockBuilder blockBuilder);
@@ -161,12 +161,25 @@ public class AccumulatorCompiler
                 grouped);
         generateAddInputWindowIndex(
                 definition,
+                "addInput",
                 stateFileds,
                 metadata.getValueInputMetadata(),
                 metadata.getLambdaInterfaces(),
                 lambdaProviderFields,
                 metadata.getInputFunction(),
                 callSiteBinder);
+        if (!grouped && metadata.getRemoveInputFunction().isPresent()) {
+            generateSupportsRemoveInput(definition);
+            generateAddInputWindowIndex(
+                    definition,
+                    "removeInput",
+                    stateFileds,
+                    metadata.getValueInputMetadata(),
+                    metadata.getLambdaInterfaces(),
+                    lambdaProviderFields,
+                    metadata.getRemoveInputFunction().get(),
+                    callSiteBinder);
+        }
         generateGetEstimatedSize(definition, stateFileds);
 
         generateGetIntermediateType(
@@ -323,8 +336,17 @@ public class AccumulatorCompiler
         body.ret();
     }
 
+    private static void generateSupportsRemoveInput(ClassDefinition definition)
+    {
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), "supportsRemoveInput", type(boolean.class));
+        method.getBody()
+                .push(true)
+                .retBoolean();
+    }
+
     private static void generateAddInputWindowIndex(
             ClassDefinition definition,
+            String methodName,
             List<FieldDefinition> stateField,
             List<ParameterMetadata> parameterMetadatas,
             List<Class> lambdaInterfaces,
@@ -339,7 +361,7 @@ public class AccumulatorCompiler
         Parameter startPosition = arg("startPosition", int.class);
         Parameter endPosition = arg("endPosition", int.class);
 
-        MethodDefinition method = definition.declareMethod(a(PUBLIC), "addInput", type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
+        MethodDefinition method = definition.declareMethod(a(PUBLIC), methodName, type(void.class), ImmutableList.of(index, channels, startPosition, endPosition));
         Scope scope = method.getScope();
 
         Variable position = scope.declareVariable(int.class, "position");
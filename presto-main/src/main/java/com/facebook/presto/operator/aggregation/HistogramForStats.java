@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.operator.aggregation.state.DigestAndPercentileState;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.function.AggregationFunction;
+import com.facebook.presto.spi.function.AggregationState;
+import com.facebook.presto.spi.function.CombineFunction;
+import com.facebook.presto.spi.function.InputFunction;
+import com.facebook.presto.spi.function.OutputFunction;
+import com.facebook.presto.spi.function.SqlType;
+import com.facebook.presto.spi.function.TypeParameter;
+import com.facebook.presto.spi.statistics.Histogram;
+import com.facebook.presto.spi.type.StandardTypes;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.stats.QuantileDigest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.operator.aggregation.FloatingPointBitsConverterUtil.doubleToSortableLong;
+import static com.facebook.presto.operator.aggregation.FloatingPointBitsConverterUtil.sortableLongToDouble;
+import static com.facebook.presto.plugin.base.statistics.HistogramCodec.HISTOGRAM_CODEC;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.lang.Double.isFinite;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Builds the equi-depth {@link Histogram} of a column for ANALYZE, serialized as JSON.
+ * Values are tracked in their statistics (double) representation, so the histogram
+ * lines up with the low and high values of the column statistics.
+ */
+@AggregationFunction(value = HistogramForStats.NAME, hidden = true)
+public final class HistogramForStats
+{
+    public static final String NAME = "$internal$histogram_for_stats";
+
+    private static final int BUCKET_COUNT = 32;
+    private static final int MAX_MOST_COMMON_VALUES = 10;
+    private static final double MAX_ERROR = 0.01;
+
+    private HistogramForStats() {}
+
+    @InputFunction
+    @TypeParameter("T")
+    public static void input(@TypeParameter("T") Type type, @AggregationState DigestAndPercentileState state, @SqlType("T") long value)
+    {
+        // real values are stored as the bits of a float, the integral types and date as they are
+        add(state, type.equals(REAL) ? intBitsToFloat(toIntExact(value)) : value);
+    }
+
+    @InputFunction
+    @TypeParameter("T")
+    public static void input(@AggregationState DigestAndPercentileState state, @SqlType("T") double value)
+    {
+        add(state, value);
+    }
+
+    private static void add(DigestAndPercentileState state, double value)
+    {
+        // the histogram only describes finite values, like the column range
+        if (!isFinite(value)) {
+            return;
+        }
+
+        QuantileDigest digest = state.getDigest();
+        if (digest == null) {
+            digest = new QuantileDigest(MAX_ERROR);
+            state.setDigest(digest);
+            state.addMemoryUsage(digest.estimatedInMemorySizeInBytes());
+        }
+
+        state.addMemoryUsage(-digest.estimatedInMemorySizeInBytes());
+        digest.add(doubleToSortableLong(value));
+        state.addMemoryUsage(digest.estimatedInMemorySizeInBytes());
+    }
+
+    @CombineFunction
+    public static void combine(@AggregationState DigestAndPercentileState state, DigestAndPercentileState otherState)
+    {
+        if (otherState.getDigest() == null) {
+            return;
+        }
+        ApproximateLongPercentileAggregations.combine(state, otherState);
+    }
+
+    @OutputFunction(StandardTypes.VARCHAR)
+    public static void output(@AggregationState DigestAndPercentileState state, BlockBuilder out)
+    {
+        QuantileDigest digest = state.getDigest();
+        if (digest == null || digest.getCount() == 0.0) {
+            out.appendNull();
+            return;
+        }
+        VARCHAR.writeSlice(out, utf8Slice(HISTOGRAM_CODEC.toJson(createHistogram(digest))));
+    }
+
+    private static Histogram createHistogram(QuantileDigest digest)
+    {
+        ImmutableList.Builder<Double> boundaries = ImmutableList.builder();
+        Map<Double, Double> mostCommonValues = new LinkedHashMap<>();
+        long previous = digest.getQuantile(0);
+        boundaries.add(sortableLongToDouble(previous));
+        for (int bucket = 1; bucket <= BUCKET_COUNT; bucket++) {
+            long boundary = digest.getQuantile((double) bucket / BUCKET_COUNT);
+            boundary = max(boundary, previous);
+            boundaries.add(sortableLongToDouble(boundary));
+
+            // a value spanning a whole bucket is at least 1 / BUCKET_COUNT of the values
+            if (boundary == previous && mostCommonValues.size() < MAX_MOST_COMMON_VALUES) {
+                double value = sortableLongToDouble(boundary);
+                if (!mostCommonValues.containsKey(value)) {
+                    mostCommonValues.put(value, getValueFraction(digest, boundary));
+                }
+            }
+            previous = boundary;
+        }
+        return new Histogram(boundaries.build(), mostCommonValues);
+    }
+
+    private static double getValueFraction(QuantileDigest digest, long value)
+    {
+        List<QuantileDigest.Bucket> buckets = digest.getHistogram(ImmutableList.of(value, value + 1));
+        return min(1, buckets.get(1).getCount() / digest.getCount());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.Result;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.sql.planner.RowExpressionInterpreter;
+import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
+
+import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
+import static com.facebook.presto.operator.project.PageFilter.positionsArrayToSelectedPositions;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.Boolean.TRUE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a filter row by row with {@link RowExpressionInterpreter}, without generating any bytecode.
+ */
+public class InterpretedPageFilter
+        implements PageFilter
+{
+    private final Metadata metadata;
+    private final RowExpression filter;
+    private final InputChannels inputChannels;
+    private final boolean deterministic;
+
+    private ConnectorSession interpreterSession;
+    private RowExpressionInterpreter interpreter;
+
+    public InterpretedPageFilter(RowExpression filter, Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        Result result = rewritePageFieldsToInputParameters(requireNonNull(filter, "filter is null"));
+        this.filter = result.getRewrittenExpression();
+        this.inputChannels = result.getInputChannels();
+        this.deterministic = new RowExpressionDeterminismEvaluator(metadata).isDeterministic(filter);
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return deterministic;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        RowExpressionInterpreter interpreter = getInterpreter(session);
+        boolean[] selectedPositions = new boolean[page.getPositionCount()];
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            selectedPositions[position] = TRUE.equals(interpreter.evaluate(page, position));
+        }
+        return positionsArrayToSelectedPositions(selectedPositions, page.getPositionCount());
+    }
+
+    private RowExpressionInterpreter getInterpreter(ConnectorSession session)
+    {
+        if (session != interpreterSession) {
+            interpreter = new RowExpressionInterpreter(filter, metadata, session, false);
+            interpreterSession = session;
+        }
+        return interpreter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("filter", filter)
+                .toString();
+    }
+}
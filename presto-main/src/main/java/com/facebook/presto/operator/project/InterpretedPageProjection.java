@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.operator.CompletedWork;
+import com.facebook.presto.operator.DriverYieldSignal;
+import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.Result;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.RowExpressionInterpreter;
+import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
+
+import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
+import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a projection row by row with {@link RowExpressionInterpreter}, without generating any bytecode.
+ */
+public class InterpretedPageProjection
+        implements PageProjection
+{
+    private final Metadata metadata;
+    private final RowExpression projection;
+    private final InputChannels inputChannels;
+    private final boolean deterministic;
+
+    private ConnectorSession interpreterSession;
+    private RowExpressionInterpreter interpreter;
+
+    public InterpretedPageProjection(RowExpression projection, Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        Result result = rewritePageFieldsToInputParameters(requireNonNull(projection, "projection is null"));
+        this.projection = result.getRewrittenExpression();
+        this.inputChannels = result.getInputChannels();
+        this.deterministic = new RowExpressionDeterminismEvaluator(metadata).isDeterministic(projection);
+    }
+
+    @Override
+    public Type getType()
+    {
+        return projection.getType();
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return deterministic;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public Work<Block> project(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions)
+    {
+        RowExpressionInterpreter interpreter = getInterpreter(session);
+        Type type = projection.getType();
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, selectedPositions.size());
+        int offset = selectedPositions.getOffset();
+        if (selectedPositions.isList()) {
+            int[] positions = selectedPositions.getPositions();
+            for (int index = offset; index < offset + selectedPositions.size(); index++) {
+                writeNativeValue(type, blockBuilder, interpreter.evaluate(page, positions[index]));
+            }
+        }
+        else {
+            for (int position = offset; position < offset + selectedPositions.size(); position++) {
+                writeNativeValue(type, blockBuilder, interpreter.evaluate(page, position));
+            }
+        }
+        return new CompletedWork<>(blockBuilder.build());
+    }
+
+    private RowExpressionInterpreter getInterpreter(ConnectorSession session)
+    {
+        if (session != interpreterSession) {
+            interpreter = new RowExpressionInterpreter(projection, metadata, session, false);
+            interpreterSession = session;
+        }
+        return interpreter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("projection", projection)
+                .toString();
+    }
+}
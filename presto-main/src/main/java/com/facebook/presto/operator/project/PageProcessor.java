@@ -28,6 +28,7 @@ import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.sql.gen.ExpressionProfiler;
 import com.google.common.annotations.VisibleForTesting;
 import io.airlift.slice.SizeOf;
+import io.airlift.units.Duration;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -60,6 +61,7 @@ public class PageProcessor
     private final DictionarySourceIdFunction dictionarySourceIdFunction = new DictionarySourceIdFunction();
     private final Optional<PageFilter> filter;
     private final List<PageProjection> projections;
+    private final Optional<TieredCompilation> tieredCompilation;
 
     private int projectBatchSize;
 
@@ -71,6 +73,16 @@ public class PageProcessor
 
     @VisibleForTesting
     public PageProcessor(Optional<PageFilter> filter, List<? extends PageProjection> projections, OptionalInt initialBatchSize, ExpressionProfiler expressionProfiler)
+    {
+        this(filter, projections, initialBatchSize, expressionProfiler, Optional.empty());
+    }
+
+    public PageProcessor(
+            Optional<PageFilter> filter,
+            List<? extends PageProjection> projections,
+            OptionalInt initialBatchSize,
+            ExpressionProfiler expressionProfiler,
+            Optional<TieredCompilation> tieredCompilation)
     {
         this.filter = requireNonNull(filter, "filter is null")
                 .map(pageFilter -> {
@@ -89,6 +101,7 @@ public class PageProcessor
                 .collect(toImmutableList());
         this.projectBatchSize = initialBatchSize.orElse(1);
         this.expressionProfiler = requireNonNull(expressionProfiler, "expressionProfiler is null");
+        this.tieredCompilation = requireNonNull(tieredCompilation, "tieredCompilation is null");
     }
 
     public PageProcessor(Optional<PageFilter> filter, List<? extends PageProjection> projections)
@@ -96,6 +109,24 @@ public class PageProcessor
         this(filter, projections, OptionalInt.of(1));
     }
 
+    /**
+     * Returns true while the filter and projections are interpreted because their compiled
+     * versions are not available yet.
+     */
+    public boolean isInterpreted()
+    {
+        return tieredCompilation.isPresent() && !tieredCompilation.get().getCompiled().isPresent();
+    }
+
+    /**
+     * Returns the time spent compiling the filter and projections in the background, once it is
+     * known. Page processors sharing a compilation return it only once between them.
+     */
+    public Optional<Duration> takeCompileTime()
+    {
+        return tieredCompilation.flatMap(TieredCompilation::takeCompileTime);
+    }
+
     public Iterator<Optional<Page>> process(ConnectorSession session, DriverYieldSignal yieldSignal, LocalMemoryContext memoryContext, Page page)
     {
         WorkProcessor<Page> processor = createWorkProcessor(session, yieldSignal, memoryContext, page);
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static com.google.common.util.concurrent.Futures.getDone;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiled filter and projections that are built in the background while the page processors
+ * created for the same expressions interpret them. It is shared by all those page processors.
+ * If compilation fails, the expressions keep being interpreted.
+ */
+public final class TieredCompilation
+{
+    private final ListenableFuture<CompiledPageFunctions> compiledPageFunctions;
+    private final AtomicBoolean compileTimeTaken = new AtomicBoolean();
+
+    public TieredCompilation(ListenableFuture<CompiledPageFunctions> compiledPageFunctions)
+    {
+        this.compiledPageFunctions = requireNonNull(compiledPageFunctions, "compiledPageFunctions is null");
+    }
+
+    /**
+     * Returns the compiled filter and projections once they have been compiled successfully.
+     */
+    public Optional<CompiledPageFunctions> getCompiled()
+    {
+        if (!compiledPageFunctions.isDone()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(getDone(compiledPageFunctions));
+        }
+        catch (ExecutionException | CancellationException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the compile time to the first caller after compilation has finished, so that it is
+     * accounted only once for all page processors sharing this compilation.
+     */
+    public Optional<Duration> takeCompileTime()
+    {
+        Optional<CompiledPageFunctions> compiled = getCompiled();
+        if (!compiled.isPresent() || !compileTimeTaken.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        return Optional.of(compiled.get().getCompileTime());
+    }
+
+    public static class CompiledPageFunctions
+    {
+        private final Optional<Supplier<PageFilter>> filter;
+        private final List<Supplier<PageProjection>> projections;
+        private final Duration compileTime;
+
+        public CompiledPageFunctions(Optional<Supplier<PageFilter>> filter, List<Supplier<PageProjection>> projections, Duration compileTime)
+        {
+            this.filter = requireNonNull(filter, "filter is null");
+            this.projections = ImmutableList.copyOf(requireNonNull(projections, "projections is null"));
+            this.compileTime = requireNonNull(compileTime, "compileTime is null");
+        }
+
+        public Optional<Supplier<PageFilter>> getFilter()
+        {
+            return filter;
+        }
+
+        public List<Supplier<PageProjection>> getProjections()
+        {
+            return projections;
+        }
+
+        public Duration getCompileTime()
+        {
+            return compileTime;
+        }
+    }
+}
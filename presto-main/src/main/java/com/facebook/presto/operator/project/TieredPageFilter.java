@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.operator.project.TieredCompilation.CompiledPageFunctions;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a filter with the interpreter until its compiled version is available, and with the
+ * compiled version from then on. Both versions must read the same input channels.
+ */
+public class TieredPageFilter
+        implements PageFilter
+{
+    private final PageFilter interpreted;
+    private final TieredCompilation compilation;
+    private PageFilter compiled;
+
+    public TieredPageFilter(PageFilter interpreted, TieredCompilation compilation)
+    {
+        this.interpreted = requireNonNull(interpreted, "interpreted is null");
+        this.compilation = requireNonNull(compilation, "compilation is null");
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return interpreted.isDeterministic();
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return interpreted.getInputChannels();
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        return getCurrentFilter().filter(session, page);
+    }
+
+    private PageFilter getCurrentFilter()
+    {
+        if (compiled == null) {
+            Optional<CompiledPageFunctions> compiledPageFunctions = compilation.getCompiled();
+            if (!compiledPageFunctions.isPresent()) {
+                return interpreted;
+            }
+            checkState(compiledPageFunctions.get().getFilter().isPresent(), "filter was not compiled");
+            compiled = compiledPageFunctions.get().getFilter().get().get();
+        }
+        return compiled;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("interpreted", interpreted)
+                .add("compiled", compiled)
+                .toString();
+    }
+}
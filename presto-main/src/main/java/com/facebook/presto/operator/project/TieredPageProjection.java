@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.operator.DriverYieldSignal;
+import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.TieredCompilation.CompiledPageFunctions;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a projection with the interpreter until its compiled version is available, and with the
+ * compiled version from then on. Both versions must read the same input channels.
+ */
+public class TieredPageProjection
+        implements PageProjection
+{
+    private final PageProjection interpreted;
+    private final TieredCompilation compilation;
+    private final int projectionIndex;
+    private PageProjection compiled;
+
+    public TieredPageProjection(PageProjection interpreted, TieredCompilation compilation, int projectionIndex)
+    {
+        this.interpreted = requireNonNull(interpreted, "interpreted is null");
+        this.compilation = requireNonNull(compilation, "compilation is null");
+        checkArgument(projectionIndex >= 0, "projectionIndex is negative");
+        this.projectionIndex = projectionIndex;
+    }
+
+    @Override
+    public Type getType()
+    {
+        return interpreted.getType();
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return interpreted.isDeterministic();
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return interpreted.getInputChannels();
+    }
+
+    @Override
+    public Work<Block> project(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, SelectedPositions selectedPositions)
+    {
+        return getCurrentProjection().project(session, yieldSignal, page, selectedPositions);
+    }
+
+    private PageProjection getCurrentProjection()
+    {
+        if (compiled == null) {
+            Optional<CompiledPageFunctions> compiledPageFunctions = compilation.getCompiled();
+            if (!compiledPageFunctions.isPresent()) {
+                return interpreted;
+            }
+            compiled = compiledPageFunctions.get().getProjections().get(projectionIndex).get();
+        }
+        return compiled;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("interpreted", interpreted)
+                .add("compiled", compiled)
+                .toString();
+    }
+}
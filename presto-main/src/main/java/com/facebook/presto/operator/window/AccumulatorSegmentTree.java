@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.reverse;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of intermediate aggregation states over a window partition.
+ * Leaves cover {@link #LEAF_SIZE} consecutive rows, and every inner node holds
+ * the combination of its children, so the aggregate of any frame can be built
+ * from O(log n) intermediate states plus at most two partial leaves.
+ * States are combined in row order, so order sensitive aggregations produce
+ * the same result as adding the frame rows one by one.
+ */
+final class AccumulatorSegmentTree
+{
+    static final int LEAF_SIZE = 16;
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final int rowCount;
+    private final int leafOffset;
+    private final Block[] nodes;
+
+    public AccumulatorSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.rowCount = windowIndex.size();
+
+        int leafCount = (rowCount + LEAF_SIZE - 1) / LEAF_SIZE;
+        this.leafOffset = Integer.highestOneBit(Math.max(leafCount - 1, 1)) << 1;
+        this.nodes = new Block[leafOffset * 2];
+
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator();
+            accumulator.addInput(windowIndex, this.argumentChannels, leaf * LEAF_SIZE, leafEnd(leaf));
+            nodes[leafOffset + leaf] = evaluateIntermediate(accumulator);
+        }
+        for (int node = leafOffset - 1; node > 0; node--) {
+            Block left = nodes[2 * node];
+            Block right = nodes[2 * node + 1];
+            if (right == null) {
+                nodes[node] = left;
+            }
+            else {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                accumulator.addIntermediate(left);
+                accumulator.addIntermediate(right);
+                nodes[node] = evaluateIntermediate(accumulator);
+            }
+        }
+    }
+
+    /**
+     * Returns a new accumulator containing the rows between {@code start} and {@code end}, inclusive.
+     */
+    public Accumulator aggregate(int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < rowCount, "invalid frame [%s, %s] for partition of %s rows", start, end, rowCount);
+
+        Accumulator accumulator = accumulatorFactory.createAccumulator();
+        int firstLeaf = start / LEAF_SIZE;
+        int lastLeaf = end / LEAF_SIZE;
+        if (lastLeaf - firstLeaf < 2) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return accumulator;
+        }
+
+        if (start != firstLeaf * LEAF_SIZE) {
+            accumulator.addInput(windowIndex, argumentChannels, start, leafEnd(firstLeaf));
+            firstLeaf++;
+        }
+        boolean partialLastLeaf = end != leafEnd(lastLeaf);
+        if (partialLastLeaf) {
+            lastLeaf--;
+        }
+
+        // walk up from both ends, keeping the right hand nodes to combine them in row order
+        List<Block> rightNodes = new ArrayList<>();
+        for (int left = firstLeaf + leafOffset, right = lastLeaf + leafOffset + 1; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                accumulator.addIntermediate(nodes[left]);
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                rightNodes.add(nodes[right]);
+            }
+        }
+        for (Block node : reverse(rightNodes)) {
+            accumulator.addIntermediate(node);
+        }
+
+        if (partialLastLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, (lastLeaf + 1) * LEAF_SIZE, end);
+        }
+        return accumulator;
+    }
+
+    private int leafEnd(int leaf)
+    {
+        return min(rowCount, (leaf + 1) * LEAF_SIZE) - 1;
+    }
+
+    private static Block evaluateIntermediate(Accumulator accumulator)
+    {
+        BlockBuilder blockBuilder = accumulator.getIntermediateType().createBlockBuilder(null, 1);
+        accumulator.evaluateIntermediate(blockBuilder);
+        return blockBuilder.build();
+    }
+}
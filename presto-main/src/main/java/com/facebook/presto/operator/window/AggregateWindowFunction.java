@@ -20,6 +20,10 @@ import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.function.Signature;
 import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
@@ -30,24 +34,35 @@ import static java.util.Objects.requireNonNull;
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames up to this size are re-aggregated directly rather than through the segment tree
+    private static final int MIN_SEGMENT_TREE_FRAME_SIZE = 4 * AccumulatorSegmentTree.LEAF_SIZE;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean supportsRemoveInput;
+    private final boolean segmentTreeSupported;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    // number of rows in the current frame that were passed to the accumulator (rows with null arguments are skipped)
+    private long currentInputRows;
+    private AccumulatorSegmentTree segmentTree;
 
     private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        this.supportsRemoveInput = accumulatorFactory.createAccumulator().supportsRemoveInput();
+        this.segmentTreeSupported = isSegmentTreeSupported(function);
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -63,6 +78,22 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (supportsRemoveInput && (frameStart > currentStart) && (frameStart <= currentEnd) && (frameEnd >= currentEnd)) {
+            // sliding frame: retract the rows that left the frame and add the new ones
+            remove(currentStart, frameStart - 1);
+            accumulate(currentEnd + 1, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
+        else if (!supportsRemoveInput && segmentTreeSupported && (frameEnd - frameStart + 1 > MIN_SEGMENT_TREE_FRAME_SIZE)) {
+            // any other large frame: combine precomputed intermediate states
+            if (segmentTree == null) {
+                segmentTree = new AccumulatorSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = segmentTree.aggregate(frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
@@ -77,6 +108,42 @@ public class AggregateWindowFunction
     private void accumulate(int start, int end)
     {
         accumulator.addInput(windowIndex, argumentChannels, start, end);
+        if (supportsRemoveInput) {
+            currentInputRows += countInputRows(start, end);
+        }
+    }
+
+    private void remove(int start, int end)
+    {
+        currentInputRows -= countInputRows(start, end);
+        if (currentInputRows == 0) {
+            // start over so that the result of an empty frame is exactly the initial state (e.g. null for sum)
+            accumulator = accumulatorFactory.createAccumulator();
+        }
+        else {
+            accumulator.removeInput(windowIndex, argumentChannels, start, end);
+        }
+    }
+
+    private long countInputRows(int start, int end)
+    {
+        long rows = 0;
+        for (int position = start; position <= end; position++) {
+            if (!anyArgumentIsNull(position)) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private boolean anyArgumentIsNull(int position)
+    {
+        for (int channel : argumentChannels) {
+            if (windowIndex.isNull(channel, position)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void resetAccumulator()
@@ -85,7 +152,27 @@ public class AggregateWindowFunction
             accumulator = accumulatorFactory.createAccumulator();
             currentStart = -1;
             currentEnd = -1;
+            currentInputRows = 0;
+        }
+    }
+
+    /**
+     * The segment tree keeps an intermediate state for every node, and is not charged to the
+     * memory of the operator. The states of variable size aggregations (e.g. array_agg) hold
+     * the rows of the whole node, so the tree would use O(n log n) memory for the partition.
+     */
+    @VisibleForTesting
+    static boolean isSegmentTreeSupported(InternalAggregationFunction function)
+    {
+        return function.isDecomposable() && isFixedSize(function.getIntermediateType());
+    }
+
+    private static boolean isFixedSize(Type type)
+    {
+        if (type instanceof FixedWidthType) {
+            return true;
         }
+        return type instanceof RowType && type.getTypeParameters().stream().allMatch(AggregateWindowFunction::isFixedSize);
     }
 
     public static WindowFunctionSupplier supplier(Signature signature, final InternalAggregationFunction function)
@@ -14,6 +14,7 @@
 package com.facebook.presto.server.protocol;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.client.ClientCapabilities;
 import com.facebook.presto.client.Column;
 import com.facebook.presto.client.FailureInfo;
 import com.facebook.presto.client.QueryError;
@@ -52,6 +53,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
@@ -62,6 +64,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import java.net.URI;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -75,8 +78,12 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.client.BinaryDataUtils.isBinaryEncodingSupported;
 import static com.facebook.presto.execution.QueryState.FAILED;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.SERIALIZED_PAGE_HEADER_SIZE;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -112,6 +119,7 @@ class Query
     private final QuerySubmissionFuture submissionFuture;
     private final SessionPropertyManager sessionPropertyManager;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final boolean binaryResultsRequested;
 
     @GuardedBy("this")
     private Session session;
@@ -128,6 +136,9 @@ class Query
     @GuardedBy("this")
     private List<Type> types;
 
+    @GuardedBy("this")
+    private boolean binaryResults;
+
     @GuardedBy("this")
     private Optional<String> setCatalog = Optional.empty();
 
@@ -216,6 +227,7 @@ class Query
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
         this.blockEncodingSerde = blockEncodingSerde;
+        this.binaryResultsRequested = sessionContext.getClientCapabilities().contains(ClientCapabilities.BINARY_RESULTS.toString());
     }
 
     public boolean isSubmissionFinished()
@@ -421,8 +433,11 @@ class Query
         // last page is removed.  If another thread observes this state before the response is cached
         // the pages will be lost.
         Iterable<List<Object>> data = null;
+        List<String> binaryData = null;
+        SerializedPage firstPage = null;
         try {
             ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<String> binaryPages = ImmutableList.builder();
             long bytes = 0;
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
@@ -432,6 +447,17 @@ class Query
                     break;
                 }
 
+                if (binaryResults) {
+                    // ship the page as it came from the exchange, without deserializing it
+                    if (firstPage == null) {
+                        firstPage = serializedPage;
+                    }
+                    bytes += serializedPage.getSizeInBytes();
+                    rows += serializedPage.getPositionCount();
+                    binaryPages.add(encodeBinaryPage(serializedPage));
+                    continue;
+                }
+
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
                 rows += page.getPositionCount();
@@ -439,7 +465,12 @@ class Query
             }
             if (rows > 0) {
                 // client implementations do not properly handle empty list of data
-                data = Iterables.concat(pages.build());
+                if (binaryResults) {
+                    binaryData = binaryPages.build();
+                }
+                else {
+                    data = Iterables.concat(pages.build());
+                }
             }
         }
         catch (Throwable cause) {
@@ -453,6 +484,13 @@ class Query
 
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
+        if ((firstPage != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
+                (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
+            Page page = serde.deserialize(firstPage);
+            if (page.getPositionCount() > 0 && !page.getBlock(0).isNull(0)) {
+                updateCount = BIGINT.getLong(page.getBlock(0), 0);
+            }
+        }
         if ((data != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
                 (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
             Iterator<List<Object>> iterator = data.iterator();
@@ -510,6 +548,7 @@ class Query
                 nextResultsUri,
                 columns,
                 data,
+                binaryData,
                 toStatementStats(queryInfo),
                 toQueryError(queryInfo),
                 queryInfo.getWarnings(),
@@ -520,6 +559,13 @@ class Query
         return queryResults;
     }
 
+    private static String encodeBinaryPage(SerializedPage page)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(page.getSizeInBytes() + SERIALIZED_PAGE_HEADER_SIZE);
+        writeSerializedPage(output, page);
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+
     private synchronized void cacheLastResults(QueryResults queryResults)
     {
         // cache the last results
@@ -557,6 +603,8 @@ class Query
             }
             columns = list.build();
             types = outputInfo.getColumnTypes();
+            binaryResults = binaryResultsRequested && types.stream()
+                    .allMatch(type -> isBinaryEncodingSupported(type.getTypeSignature()));
         }
 
         outputInfo.getBufferLocations().forEach(exchangeClient::addLocation);
@@ -130,6 +130,13 @@ public class FileSingleStreamSpiller
         return readPages();
     }
 
+    @Override
+    public PrefetchingPageReader getSpilledPagesReader(long maxReadAheadBytes)
+    {
+        checkNoSpillInProgress();
+        return new PrefetchingPageReader(readPages(), executor, maxReadAheadBytes, bytes -> memoryContext.setBytes(BUFFER_SIZE + bytes), spillerStats);
+    }
+
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
@@ -97,6 +97,15 @@ public class GenericPartitioningSpiller
         return getSpiller(partition).getSpilledPages();
     }
 
+    @Override
+    public synchronized PrefetchingPageReader getSpilledPagesReader(int partition, long maxReadAheadBytes)
+    {
+        readingStarted = true;
+        getFutureValue(flush(partition));
+        spilledPartitions.remove(partition);
+        return getSpiller(partition).getSpilledPagesReader(maxReadAheadBytes);
+    }
+
     @Override
     public synchronized void verifyAllPartitionsRead()
     {
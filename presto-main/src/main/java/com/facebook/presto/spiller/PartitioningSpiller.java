@@ -45,6 +45,12 @@ public interface PartitioningSpiller
     // TODO getSpilledPages should not need flush last buffer to disk
     Iterator<Page> getSpilledPages(int partition);
 
+    /**
+     * Returns a reader of previously spilled pages from given partition, which reads the pages ahead of the caller,
+     * buffering at most {@code maxReadAheadBytes} of pages. The same restrictions as for {@link #getSpilledPages(int)} apply.
+     */
+    PrefetchingPageReader getSpilledPagesReader(int partition, long maxReadAheadBytes);
+
     void verifyAllPartitionsRead();
 
     /**
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads spilled pages ahead of the consumer on the given executor. At most
+ * {@code maxReadAheadBytes} of pages (plus a single page) are buffered in memory,
+ * and the buffered size is reported to the memory updater.
+ */
+@ThreadSafe
+public class PrefetchingPageReader
+        implements Closeable
+{
+    private static final ListenableFuture<?> NOT_BLOCKED = immediateFuture(null);
+
+    private final Iterator<Page> pages;
+    private final Executor executor;
+    private final long maxReadAheadBytes;
+    private final LongConsumer memoryUpdater;
+    private final SpillerStats spillerStats;
+
+    @GuardedBy("this")
+    private final Queue<Page> buffer = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private SettableFuture<?> pageAvailable = SettableFuture.create();
+    @GuardedBy("this")
+    private boolean readInProgress;
+    @GuardedBy("this")
+    private boolean sourceFinished;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private boolean closed;
+
+    // only accessed by the consumer
+    private long waitStartNanos = -1;
+    private long waitNanos;
+
+    public PrefetchingPageReader(Iterator<Page> pages, Executor executor, long maxReadAheadBytes, LongConsumer memoryUpdater, SpillerStats spillerStats)
+    {
+        this.pages = requireNonNull(pages, "pages is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(maxReadAheadBytes > 0, "maxReadAheadBytes must be positive");
+        this.maxReadAheadBytes = maxReadAheadBytes;
+        this.memoryUpdater = requireNonNull(memoryUpdater, "memoryUpdater is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+
+        synchronized (this) {
+            scheduleReadIfNecessary();
+        }
+    }
+
+    /**
+     * Returns a future that is completed when a page can be polled or the reader is finished.
+     */
+    public synchronized ListenableFuture<?> isBlocked()
+    {
+        if (!buffer.isEmpty() || sourceFinished || failure != null) {
+            return NOT_BLOCKED;
+        }
+        return pageAvailable;
+    }
+
+    public synchronized boolean isFinished()
+    {
+        return sourceFinished && buffer.isEmpty();
+    }
+
+    /**
+     * Returns the next page, or null if no page has been read yet or all pages have been returned.
+     */
+    @Nullable
+    public Page poll()
+    {
+        Page page;
+        synchronized (this) {
+            checkState(!closed, "reader is closed");
+            if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new RuntimeException(failure);
+            }
+
+            page = buffer.poll();
+            if (page != null) {
+                spillerStats.addReadAheadPages(buffer.size());
+                bufferedBytes -= page.getRetainedSizeInBytes();
+                memoryUpdater.accept(bufferedBytes);
+                scheduleReadIfNecessary();
+            }
+            else if (sourceFinished) {
+                return null;
+            }
+        }
+
+        if (page == null) {
+            if (waitStartNanos < 0) {
+                waitStartNanos = System.nanoTime();
+            }
+        }
+        else if (waitStartNanos >= 0) {
+            long wait = System.nanoTime() - waitStartNanos;
+            waitNanos += wait;
+            spillerStats.addToTotalUnspillWait(wait);
+            waitStartNanos = -1;
+        }
+        return page;
+    }
+
+    /**
+     * Returns the time the consumer spent waiting for pages to be read.
+     */
+    public long getWaitNanos()
+    {
+        return waitNanos;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        buffer.clear();
+        bufferedBytes = 0;
+        memoryUpdater.accept(0);
+    }
+
+    @GuardedBy("this")
+    private void scheduleReadIfNecessary()
+    {
+        if (readInProgress || sourceFinished || closed || bufferedBytes >= maxReadAheadBytes) {
+            return;
+        }
+        readInProgress = true;
+        executor.execute(this::readPages);
+    }
+
+    private void readPages()
+    {
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (closed || bufferedBytes >= maxReadAheadBytes) {
+                        readInProgress = false;
+                        return;
+                    }
+                }
+
+                // reading is done outside of the lock, so that the consumer is not blocked by I/O
+                Page page = pages.hasNext() ? pages.next() : null;
+
+                SettableFuture<?> future;
+                synchronized (this) {
+                    if (closed) {
+                        readInProgress = false;
+                        return;
+                    }
+                    if (page == null) {
+                        sourceFinished = true;
+                        readInProgress = false;
+                    }
+                    else {
+                        buffer.add(page);
+                        bufferedBytes += page.getRetainedSizeInBytes();
+                        memoryUpdater.accept(bufferedBytes);
+                    }
+                    future = pageAvailable;
+                    pageAvailable = SettableFuture.create();
+                }
+                future.set(null);
+
+                if (page == null) {
+                    return;
+                }
+            }
+        }
+        catch (Throwable t) {
+            SettableFuture<?> future;
+            synchronized (this) {
+                failure = t;
+                readInProgress = false;
+                future = pageAvailable;
+            }
+            future.set(null);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.concurrent.Future;
 
 import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
 public interface SingleStreamSpiller
         extends Closeable
@@ -47,6 +48,15 @@ public interface SingleStreamSpiller
      */
     Iterator<Page> getSpilledPages();
 
+    /**
+     * Returns a reader of previously spilled pages, which reads the pages ahead of the caller, buffering
+     * at most {@code maxReadAheadBytes} of pages. Method requires the issued spill request to be completed.
+     */
+    default PrefetchingPageReader getSpilledPagesReader(long maxReadAheadBytes)
+    {
+        return new PrefetchingPageReader(getSpilledPages(), directExecutor(), maxReadAheadBytes, bytes -> {}, new SpillerStats());
+    }
+
     /**
      * Returns estimate size of pages that would be returned by {@link #getAllSpilledPages()}.
      */
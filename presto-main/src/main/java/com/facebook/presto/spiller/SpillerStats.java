@@ -13,13 +13,19 @@
  */
 package com.facebook.presto.spiller;
 
+import io.airlift.stats.DistributionStat;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final AtomicLong totalUnspillWaitNanos = new AtomicLong();
+    protected final DistributionStat readAheadPages = new DistributionStat();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +37,27 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    @Managed
+    public long getTotalUnspillWaitMillis()
+    {
+        return NANOSECONDS.toMillis(totalUnspillWaitNanos.get());
+    }
+
+    public void addToTotalUnspillWait(long waitNanos)
+    {
+        totalUnspillWaitNanos.addAndGet(waitNanos);
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getReadAheadPages()
+    {
+        return readAheadPages;
+    }
+
+    public void addReadAheadPages(long pages)
+    {
+        readAheadPages.add(pages);
+    }
 }
@@ -43,6 +43,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @DefunctConfig({
         "resource-group-manager",
@@ -110,6 +111,11 @@ public class FeaturesConfig
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
     private double spillMaxUsedSpaceThreshold = 0.9;
+    private boolean orderBySpillEnabled = true;
+    private int spillMaxMergeFanIn = 64;
+    private boolean windowSpillEnabled = true;
+    private boolean distinctAndRowNumberSpillEnabled = true;
+    private boolean tieredExpressionExecutionEnabled;
     private boolean iterativeOptimizerEnabled = true;
     private boolean enableStatsCalculator = true;
     private boolean ignoreStatsCalculatorFailures = true;
@@ -136,6 +142,10 @@ public class FeaturesConfig
 
     private boolean pushdownSubfieldsEnabled;
 
+    private boolean dynamicFilteringEnabled;
+    private Duration dynamicFilteringWaitTimeout = new Duration(1, SECONDS);
+    private int dynamicFilteringMaxDistinctValues = 1000;
+
     public enum JoinReorderingStrategy
     {
         NONE,
@@ -811,6 +821,72 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isOrderBySpillEnabled()
+    {
+        return orderBySpillEnabled;
+    }
+
+    @Config("experimental.order-by-spill-enabled")
+    @ConfigDescription("Allow ORDER BY to spill sorted runs to disk when spilling is enabled")
+    public FeaturesConfig setOrderBySpillEnabled(boolean orderBySpillEnabled)
+    {
+        this.orderBySpillEnabled = orderBySpillEnabled;
+        return this;
+    }
+
+    @Min(2)
+    public int getSpillMaxMergeFanIn()
+    {
+        return spillMaxMergeFanIn;
+    }
+
+    @Config("experimental.spiller-max-merge-fan-in")
+    @ConfigDescription("Maximum number of spilled runs merged at once")
+    public FeaturesConfig setSpillMaxMergeFanIn(int spillMaxMergeFanIn)
+    {
+        this.spillMaxMergeFanIn = spillMaxMergeFanIn;
+        return this;
+    }
+
+    public boolean isWindowSpillEnabled()
+    {
+        return windowSpillEnabled;
+    }
+
+    @Config("experimental.window-spill-enabled")
+    @ConfigDescription("Allow window functions to spill buffered rows to disk when spilling is enabled")
+    public FeaturesConfig setWindowSpillEnabled(boolean windowSpillEnabled)
+    {
+        this.windowSpillEnabled = windowSpillEnabled;
+        return this;
+    }
+
+    public boolean isDistinctAndRowNumberSpillEnabled()
+    {
+        return distinctAndRowNumberSpillEnabled;
+    }
+
+    @Config("experimental.distinct-and-row-number-spill-enabled")
+    @ConfigDescription("Allow mark distinct and row number operators to spill to disk when spilling is enabled")
+    public FeaturesConfig setDistinctAndRowNumberSpillEnabled(boolean distinctAndRowNumberSpillEnabled)
+    {
+        this.distinctAndRowNumberSpillEnabled = distinctAndRowNumberSpillEnabled;
+        return this;
+    }
+
+    public boolean isTieredExpressionExecutionEnabled()
+    {
+        return tieredExpressionExecutionEnabled;
+    }
+
+    @Config("experimental.tiered-expression-execution-enabled")
+    @ConfigDescription("Interpret filters and projections until their compiled versions, built in the background, are ready")
+    public FeaturesConfig setTieredExpressionExecutionEnabled(boolean tieredExpressionExecutionEnabled)
+    {
+        this.tieredExpressionExecutionEnabled = tieredExpressionExecutionEnabled;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
@@ -1044,4 +1120,45 @@ public class FeaturesConfig
     {
         return pushdownSubfieldsEnabled;
     }
+
+    public boolean isDynamicFilteringEnabled()
+    {
+        return dynamicFilteringEnabled;
+    }
+
+    @Config("experimental.enable-dynamic-filtering")
+    @ConfigDescription("Experimental: filter the probe side table scan of a join using the join keys collected from the build side")
+    public FeaturesConfig setDynamicFilteringEnabled(boolean dynamicFilteringEnabled)
+    {
+        this.dynamicFilteringEnabled = dynamicFilteringEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getDynamicFilteringWaitTimeout()
+    {
+        return dynamicFilteringWaitTimeout;
+    }
+
+    @Config("experimental.dynamic-filtering-wait-timeout")
+    @ConfigDescription("Maximum time a table scan waits for the dynamic filter to be collected before reading data without it")
+    public FeaturesConfig setDynamicFilteringWaitTimeout(Duration dynamicFilteringWaitTimeout)
+    {
+        this.dynamicFilteringWaitTimeout = dynamicFilteringWaitTimeout;
+        return this;
+    }
+
+    @Min(0)
+    public int getDynamicFilteringMaxDistinctValues()
+    {
+        return dynamicFilteringMaxDistinctValues;
+    }
+
+    @Config("experimental.dynamic-filtering-max-distinct-values")
+    @ConfigDescription("Maximum number of distinct build side values per join key kept in a dynamic filter before falling back to a min/max range")
+    public FeaturesConfig setDynamicFilteringMaxDistinctValues(int dynamicFilteringMaxDistinctValues)
+    {
+        this.dynamicFilteringMaxDistinctValues = dynamicFilteringMaxDistinctValues;
+        return this;
+    }
 }
@@ -17,25 +17,37 @@ import com.facebook.presto.bytecode.ClassDefinition;
 import com.facebook.presto.bytecode.CompilationException;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.project.CursorProcessor;
+import com.facebook.presto.operator.project.InterpretedPageFilter;
+import com.facebook.presto.operator.project.InterpretedPageProjection;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjection;
+import com.facebook.presto.operator.project.TieredCompilation;
+import com.facebook.presto.operator.project.TieredCompilation.CompiledPageFunctions;
+import com.facebook.presto.operator.project.TieredPageFilter;
+import com.facebook.presto.operator.project.TieredPageProjection;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.relation.ConstantExpression;
+import com.facebook.presto.spi.relation.InputReferenceExpression;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
 import javax.inject.Inject;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.bytecode.Access.FINAL;
@@ -50,19 +62,31 @@ import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.units.Duration.succinctNanos;
 import static java.util.Objects.requireNonNull;
 
 public class ExpressionCompiler
 {
+    private final Metadata metadata;
     private final PageFunctionCompiler pageFunctionCompiler;
+    private final ListeningExecutorService backgroundCompilerExecutor;
     private final LoadingCache<CacheKey, Class<? extends CursorProcessor>> cursorProcessors;
     private final CacheStatsMBean cacheStatsMBean;
 
-    @Inject
     public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler)
     {
-        requireNonNull(metadata, "metadata is null");
+        // without a background executor, tiered page processors are compiled by the calling thread
+        this(metadata, pageFunctionCompiler, newDirectExecutorService());
+    }
+
+    @Inject
+    public ExpressionCompiler(Metadata metadata, PageFunctionCompiler pageFunctionCompiler, @ForExpressionCompiler ExecutorService backgroundCompilerExecutor)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
         this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
+        this.backgroundCompilerExecutor = listeningDecorator(requireNonNull(backgroundCompilerExecutor, "backgroundCompilerExecutor is null"));
         this.cursorProcessors = CacheBuilder.newBuilder()
                 .recordStats()
                 .maximumSize(1000)
@@ -115,6 +139,54 @@ public class ExpressionCompiler
         };
     }
 
+    /**
+     * Returns page processors that start out interpreting the filter and projections, and switch to
+     * the compiled versions once those have been generated on a background thread. Input references
+     * and constants need no code generation and are used as is.
+     */
+    public Supplier<PageProcessor> compileTieredPageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections, Optional<String> classNameSuffix)
+    {
+        if (!filter.isPresent() && projections.stream().allMatch(ExpressionCompiler::isCompiledEagerly)) {
+            return compilePageProcessor(filter, projections, classNameSuffix);
+        }
+
+        List<RowExpression> projectionExpressions = ImmutableList.copyOf(projections);
+        TieredCompilation compilation = new TieredCompilation(backgroundCompilerExecutor.submit(() -> {
+            long start = System.nanoTime();
+            Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(expression -> pageFunctionCompiler.compileFilter(expression, classNameSuffix));
+            List<Supplier<PageProjection>> pageProjectionSuppliers = projectionExpressions.stream()
+                    .map(projection -> pageFunctionCompiler.compileProjection(projection, classNameSuffix))
+                    .collect(toImmutableList());
+            return new CompiledPageFunctions(filterFunctionSupplier, pageProjectionSuppliers, succinctNanos(System.nanoTime() - start));
+        }));
+
+        Map<Integer, Supplier<PageProjection>> eagerProjectionSuppliers = new HashMap<>();
+        for (int i = 0; i < projectionExpressions.size(); i++) {
+            if (isCompiledEagerly(projectionExpressions.get(i))) {
+                eagerProjectionSuppliers.put(i, pageFunctionCompiler.compileProjection(projectionExpressions.get(i), classNameSuffix));
+            }
+        }
+
+        return () -> {
+            Optional<PageFilter> filterFunction = filter.map(expression -> new TieredPageFilter(new InterpretedPageFilter(expression, metadata), compilation));
+            ImmutableList.Builder<PageProjection> pageProjections = ImmutableList.builder();
+            for (int i = 0; i < projectionExpressions.size(); i++) {
+                if (eagerProjectionSuppliers.containsKey(i)) {
+                    pageProjections.add(eagerProjectionSuppliers.get(i).get());
+                }
+                else {
+                    pageProjections.add(new TieredPageProjection(new InterpretedPageProjection(projectionExpressions.get(i), metadata), compilation, i));
+                }
+            }
+            return new PageProcessor(filterFunction, pageProjections.build(), OptionalInt.empty(), new ExpressionProfiler(), Optional.of(compilation));
+        };
+    }
+
+    private static boolean isCompiledEagerly(RowExpression projection)
+    {
+        return projection instanceof InputReferenceExpression || projection instanceof ConstantExpression;
+    }
+
     public Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<? extends RowExpression> projections)
     {
         return compilePageProcessor(filter, projections, Optional.empty());
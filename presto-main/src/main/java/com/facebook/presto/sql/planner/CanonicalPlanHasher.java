@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.plan.PlanNode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.airlift.json.JsonCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hashes a plan fragment into a key that is stable across runs of the same query. Table handles
+ * carry the handle of the transaction that planned them, which is new for every query in most
+ * connectors, so it is removed from the serialized plan before hashing. Table layouts are kept,
+ * since predicates pushed into the connector are only recorded there. Plan node ids and variable
+ * names are hashed as they are, so only fragments that were planned the same way share a key.
+ * <p>
+ * The same plan can produce different rows depending on the session, e.g. the time zone for
+ * timestamp functions or catalog session properties for the readers of a connector. The time
+ * zone, the locale, and the system and catalog session properties set for the query are part
+ * of the key.
+ */
+public final class CanonicalPlanHasher
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private CanonicalPlanHasher() {}
+
+    public static String hashCanonicalPlan(PlanNode plan, Session session, JsonCodec<PlanNode> planNodeCodec)
+    {
+        JsonNode serializedPlan;
+        try {
+            serializedPlan = OBJECT_MAPPER.readTree(planNodeCodec.toJson(plan));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        removeTransactionHandles(serializedPlan);
+
+        ObjectNode key = OBJECT_MAPPER.createObjectNode();
+        key.set("plan", serializedPlan);
+        key.put("timeZone", session.getTimeZoneKey().getId());
+        key.put("locale", session.getLocale().toLanguageTag());
+        key.set("systemProperties", toSortedObject(session.getSystemProperties()));
+        // catalog properties are only resolved to connectors once the transaction of the query begins
+        Map<String, Map<String, String>> catalogProperties = new TreeMap<>(session.getUnprocessedCatalogProperties());
+        session.getConnectorProperties().forEach((connectorId, properties) -> catalogProperties.put(connectorId.getCatalogName(), properties));
+        ObjectNode catalogPropertiesNode = key.putObject("catalogProperties");
+        catalogProperties.forEach((catalog, properties) -> catalogPropertiesNode.set(catalog, toSortedObject(properties)));
+        return sha256().hashString(key.toString(), UTF_8).toString();
+    }
+
+    private static ObjectNode toSortedObject(Map<String, String> properties)
+    {
+        ObjectNode node = OBJECT_MAPPER.createObjectNode();
+        new TreeMap<>(properties).forEach(node::put);
+        return node;
+    }
+
+    private static void removeTransactionHandles(JsonNode node)
+    {
+        // a serialized TableHandle is the only object with both a connector id and a connector handle
+        if (node.isObject() && node.has("connectorId") && node.has("connectorHandle")) {
+            ((ObjectNode) node).remove("transaction");
+        }
+        node.forEach(CanonicalPlanHasher::removeTransactionHandles);
+    }
+}
@@ -23,6 +23,7 @@ import javax.validation.constraints.Min;
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private int backgroundCompilerThreads = 4;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -37,4 +38,18 @@ public class CompilerConfig
         this.expressionCacheSize = expressionCacheSize;
         return this;
     }
+
+    @Min(1)
+    public int getBackgroundCompilerThreads()
+    {
+        return backgroundCompilerThreads;
+    }
+
+    @Config("compiler.background-compiler-threads")
+    @Description("Number of threads compiling filters and projections while they are being interpreted")
+    public CompilerConfig setBackgroundCompilerThreads(int backgroundCompilerThreads)
+    {
+        this.backgroundCompilerThreads = backgroundCompilerThreads;
+        return this;
+    }
 }
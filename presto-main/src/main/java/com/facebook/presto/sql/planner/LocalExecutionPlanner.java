@@ -32,6 +32,8 @@ import com.facebook.presto.operator.EnforceSingleRowOperator;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
 import com.facebook.presto.operator.ExplainAnalyzeOperator.ExplainAnalyzeOperatorFactory;
 import com.facebook.presto.operator.FilterAndProjectOperator;
+import com.facebook.presto.operator.FragmentResultCacheContext;
+import com.facebook.presto.operator.FragmentResultCacheManager;
 import com.facebook.presto.operator.GroupIdOperator;
 import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
@@ -40,6 +42,7 @@ import com.facebook.presto.operator.JoinBridgeManager;
 import com.facebook.presto.operator.JoinOperatorFactory;
 import com.facebook.presto.operator.JoinOperatorFactory.OuterOperatorFactoryResult;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
+import com.facebook.presto.operator.LocalDynamicFilter;
 import com.facebook.presto.operator.LocalPlannerAware;
 import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupOuterOperator.LookupOuterOperatorFactory;
@@ -173,8 +176,10 @@ import com.facebook.presto.sql.planner.plan.UnionNode;
 import com.facebook.presto.sql.planner.plan.UnnestNode;
 import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.facebook.presto.sql.planner.plan.WindowNode.Frame;
+import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
 import com.facebook.presto.sql.relational.VariableToChannelTranslator;
 import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.base.Suppliers;
 import com.google.common.base.VerifyException;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.HashMultimap;
@@ -212,12 +217,21 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxDistinctValues;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringWaitTimeout;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
+import static com.facebook.presto.SystemSessionProperties.getSpillMaxMergeFanIn;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isDistinctAndRowNumberSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isFragmentResultCachingEnabled;
+import static com.facebook.presto.SystemSessionProperties.isOrderBySpillEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.SystemSessionProperties.isTieredExpressionExecutionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isWindowSpillEnabled;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static com.facebook.presto.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
 import static com.facebook.presto.operator.NestedLoopJoinOperator.NestedLoopJoinOperatorFactory;
@@ -238,6 +252,7 @@ import static com.facebook.presto.spi.relation.RowExpressionNodeInliner.replaceE
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
 import static com.facebook.presto.sql.gen.LambdaBytecodeGenerator.compileLambdaProvider;
+import static com.facebook.presto.sql.planner.CanonicalPlanHasher.hashCanonicalPlan;
 import static com.facebook.presto.sql.planner.RowExpressionInterpreter.rowExpressionInterpreter;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.COORDINATOR_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
@@ -299,6 +314,8 @@ public class LocalExecutionPlanner
     private final LookupJoinOperators lookupJoinOperators;
     private final OrderingCompiler orderingCompiler;
     private final JsonCodec<TableCommitContext> tableCommitContextCodec;
+    private final FragmentResultCacheManager fragmentResultCacheManager;
+    private final JsonCodec<PlanNode> planNodeCodec;
 
     @Inject
     public LocalExecutionPlanner(
@@ -322,7 +339,9 @@ public class LocalExecutionPlanner
             JoinCompiler joinCompiler,
             LookupJoinOperators lookupJoinOperators,
             OrderingCompiler orderingCompiler,
-            JsonCodec<TableCommitContext> tableCommitContextCodec)
+            JsonCodec<TableCommitContext> tableCommitContextCodec,
+            FragmentResultCacheManager fragmentResultCacheManager,
+            JsonCodec<PlanNode> planNodeCodec)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -348,6 +367,8 @@ public class LocalExecutionPlanner
         this.lookupJoinOperators = requireNonNull(lookupJoinOperators, "lookupJoinOperators is null");
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.tableCommitContextCodec = requireNonNull(tableCommitContextCodec, "tableCommitContextCodec is null");
+        this.fragmentResultCacheManager = requireNonNull(fragmentResultCacheManager, "fragmentResultCacheManager is null");
+        this.planNodeCodec = requireNonNull(planNodeCodec, "planNodeCodec is null");
     }
 
     public LocalExecutionPlan plan(
@@ -361,6 +382,7 @@ public class LocalExecutionPlanner
             TaskExchangeClientManager taskExchangeClientManager)
     {
         List<VariableReferenceExpression> outputLayout = partitioningScheme.getOutputLayout();
+        Optional<FragmentResultCacheContext> fragmentResultCacheContext = createFragmentResultCacheContext(taskContext.getSession(), plan, stageExecutionDescriptor);
 
         if (partitioningScheme.getPartitioning().getHandle().equals(FIXED_BROADCAST_DISTRIBUTION) ||
                 partitioningScheme.getPartitioning().getHandle().equals(FIXED_ARBITRARY_DISTRIBUTION) ||
@@ -375,7 +397,8 @@ public class LocalExecutionPlanner
                     types,
                     partitionedSourceOrder,
                     new TaskOutputFactory(outputBuffer),
-                    taskExchangeClientManager);
+                    taskExchangeClientManager,
+                    fragmentResultCacheContext);
         }
 
         // We can convert the symbols directly into channels, because the root must be a sink and therefore the layout is fixed
@@ -439,7 +462,8 @@ public class LocalExecutionPlanner
                         nullChannel,
                         outputBuffer,
                         maxPagePartitioningBufferSize),
-                taskExchangeClientManager);
+                taskExchangeClientManager,
+                fragmentResultCacheContext);
     }
 
     public LocalExecutionPlan plan(
@@ -451,6 +475,29 @@ public class LocalExecutionPlanner
             List<PlanNodeId> partitionedSourceOrder,
             OutputFactory outputOperatorFactory,
             TaskExchangeClientManager taskExchangeClientManager)
+    {
+        return plan(
+                taskContext,
+                stageExecutionDescriptor,
+                plan,
+                outputLayout,
+                types,
+                partitionedSourceOrder,
+                outputOperatorFactory,
+                taskExchangeClientManager,
+                Optional.empty());
+    }
+
+    private LocalExecutionPlan plan(
+            TaskContext taskContext,
+            StageExecutionDescriptor stageExecutionDescriptor,
+            PlanNode plan,
+            List<VariableReferenceExpression> outputLayout,
+            TypeProvider types,
+            List<PlanNodeId> partitionedSourceOrder,
+            OutputFactory outputOperatorFactory,
+            TaskExchangeClientManager taskExchangeClientManager,
+            Optional<FragmentResultCacheContext> fragmentResultCacheContext)
     {
         Session session = taskContext.getSession();
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(taskContext, types, taskExchangeClientManager);
@@ -463,6 +510,11 @@ public class LocalExecutionPlanner
                 .map(VariableReferenceExpression::getType)
                 .collect(toImmutableList());
 
+        // the cache replaces the output of a whole pipeline, so it is only used when the fragment is a single pipeline
+        if (!context.getDriverFactories().isEmpty() || !context.isInputDriver() || physicalOperation.getPipelineExecutionStrategy() != UNGROUPED_EXECUTION) {
+            fragmentResultCacheContext = Optional.empty();
+        }
+
         context.addDriverFactory(
                 context.isInputDriver(),
                 true,
@@ -476,7 +528,8 @@ public class LocalExecutionPlanner
                                 new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session))))
                         .build(),
                 context.getDriverInstanceCount(),
-                physicalOperation.getPipelineExecutionStrategy());
+                physicalOperation.getPipelineExecutionStrategy(),
+                fragmentResultCacheContext);
 
         addLookupOuterDrivers(context);
 
@@ -491,6 +544,35 @@ public class LocalExecutionPlanner
         return new LocalExecutionPlan(context.getDriverFactories(), partitionedSourceOrder, stageExecutionDescriptor);
     }
 
+    private Optional<FragmentResultCacheContext> createFragmentResultCacheContext(Session session, PlanNode plan, StageExecutionDescriptor stageExecutionDescriptor)
+    {
+        if (!isFragmentResultCachingEnabled(session) || stageExecutionDescriptor.isStageGroupedExecution() || !isFragmentResultCacheable(plan, new RowExpressionDeterminismEvaluator(metadata))) {
+            return Optional.empty();
+        }
+        String hashedCanonicalPlan = hashCanonicalPlan(plan, session, planNodeCodec);
+        return Optional.of(new FragmentResultCacheContext(fragmentResultCacheManager, hashedCanonicalPlan));
+    }
+
+    private static boolean isFragmentResultCacheable(PlanNode node, RowExpressionDeterminismEvaluator determinismEvaluator)
+    {
+        if (node instanceof TableScanNode) {
+            return true;
+        }
+        if (node instanceof FilterNode) {
+            FilterNode filterNode = (FilterNode) node;
+            return determinismEvaluator.isDeterministic(filterNode.getPredicate()) && isFragmentResultCacheable(filterNode.getSource(), determinismEvaluator);
+        }
+        if (node instanceof ProjectNode) {
+            ProjectNode projectNode = (ProjectNode) node;
+            return projectNode.getAssignments().getExpressions().stream().allMatch(determinismEvaluator::isDeterministic) && isFragmentResultCacheable(projectNode.getSource(), determinismEvaluator);
+        }
+        if (node instanceof AggregationNode) {
+            AggregationNode aggregationNode = (AggregationNode) node;
+            return aggregationNode.getStep() == PARTIAL && isFragmentResultCacheable(aggregationNode.getSource(), determinismEvaluator);
+        }
+        return false;
+    }
+
     private static void addLookupOuterDrivers(LocalExecutionPlanContext context)
     {
         // For an outer join on the lookup side (RIGHT or FULL) add an additional
@@ -529,8 +611,9 @@ public class LocalExecutionPlanner
         private final List<DriverFactory> driverFactories;
         private final Optional<IndexSourceContext> indexSourceContext;
 
-        // this is shared with all subContexts
+        // these are shared with all subContexts
         private final AtomicInteger nextPipelineId;
+        private final Map<PlanNodeId, LocalDynamicFilter> dynamicFilters;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
@@ -538,7 +621,7 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(TaskContext taskContext, TypeProvider types, TaskExchangeClientManager taskExchangeClientManager)
         {
-            this(taskContext, types, taskExchangeClientManager, new ArrayList<>(), Optional.empty(), new AtomicInteger(0));
+            this(taskContext, types, taskExchangeClientManager, new ArrayList<>(), Optional.empty(), new AtomicInteger(0), new HashMap<>());
         }
 
         private LocalExecutionPlanContext(
@@ -547,7 +630,8 @@ public class LocalExecutionPlanner
                 TaskExchangeClientManager taskExchangeClientManager,
                 List<DriverFactory> driverFactories,
                 Optional<IndexSourceContext> indexSourceContext,
-                AtomicInteger nextPipelineId)
+                AtomicInteger nextPipelineId,
+                Map<PlanNodeId, LocalDynamicFilter> dynamicFilters)
         {
             this.taskContext = taskContext;
             this.types = types;
@@ -555,9 +639,21 @@ public class LocalExecutionPlanner
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
             this.nextPipelineId = nextPipelineId;
+            this.dynamicFilters = dynamicFilters;
         }
 
         public void addDriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
+        {
+            addDriverFactory(inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, Optional.empty());
+        }
+
+        public void addDriverFactory(
+                boolean inputDriver,
+                boolean outputDriver,
+                List<OperatorFactory> operatorFactories,
+                OptionalInt driverInstances,
+                PipelineExecutionStrategy pipelineExecutionStrategy,
+                Optional<FragmentResultCacheContext> fragmentResultCacheContext)
         {
             if (pipelineExecutionStrategy == GROUPED_EXECUTION) {
                 OperatorFactory firstOperatorFactory = operatorFactories.get(0);
@@ -568,7 +664,7 @@ public class LocalExecutionPlanner
                     checkArgument(firstOperatorFactory instanceof LocalExchangeSourceOperatorFactory || firstOperatorFactory instanceof LookupOuterOperatorFactory);
                 }
             }
-            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy));
+            driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, fragmentResultCacheContext));
         }
 
         private List<DriverFactory> getDriverFactories()
@@ -624,12 +720,23 @@ public class LocalExecutionPlanner
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(taskContext, types, taskExchangeClientManager, driverFactories, indexSourceContext, nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, taskExchangeClientManager, driverFactories, indexSourceContext, nextPipelineId, dynamicFilters);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(taskContext, types, taskExchangeClientManager, driverFactories, Optional.of(indexSourceContext), nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, taskExchangeClientManager, driverFactories, Optional.of(indexSourceContext), nextPipelineId, dynamicFilters);
+        }
+
+        public void addDynamicFilter(PlanNodeId tableScanId, LocalDynamicFilter dynamicFilter)
+        {
+            checkState(!dynamicFilters.containsKey(tableScanId), "dynamic filter already registered for %s", tableScanId);
+            dynamicFilters.put(tableScanId, dynamicFilter);
+        }
+
+        public Optional<LocalDynamicFilter> getDynamicFilter(PlanNodeId tableScanId)
+        {
+            return Optional.ofNullable(dynamicFilters.get(tableScanId));
         }
 
         public OptionalInt getDriverInstanceCount()
@@ -815,7 +922,9 @@ public class LocalExecutionPlanner
                     node.getMaxRowCountPerPartition(),
                     hashChannel,
                     10_000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isDistinctAndRowNumberSpillEnabled(context.getSession()),
+                    Optional.of(partitioningSpillerFactory));
             return new PhysicalOperation(operatorFactory, outputMappings.build(), context, source);
         }
 
@@ -864,7 +973,9 @@ public class LocalExecutionPlanner
                     node.isPartial(),
                     hashChannel,
                     1000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isDistinctAndRowNumberSpillEnabled(context.getSession()),
+                    Optional.of(partitioningSpillerFactory));
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
@@ -949,7 +1060,9 @@ public class LocalExecutionPlanner
                     sortOrder,
                     node.getPreSortedOrderPrefix(),
                     10_000,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()) && isWindowSpillEnabled(context.getSession()),
+                    Optional.of(partitioningSpillerFactory));
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), context, source);
         }
@@ -998,6 +1111,8 @@ public class LocalExecutionPlanner
                 outputChannels.add(i);
             }
 
+            boolean spillEnabled = isSpillEnabled(context.getSession()) && isOrderBySpillEnabled(context.getSession());
+
             OperatorFactory operator = new OrderByOperatorFactory(
                     context.getNextOperatorId(),
                     node.getId(),
@@ -1006,7 +1121,11 @@ public class LocalExecutionPlanner
                     10_000,
                     orderByChannels,
                     sortOrder.build(),
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    Optional.of(spillerFactory),
+                    getSpillMaxMergeFanIn(context.getSession()),
+                    orderingCompiler);
 
             return new PhysicalOperation(operator, source.getLayout(), context, source);
         }
@@ -1111,7 +1230,15 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForVariables(node.getDistinctVariables(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashVariable().map(variableChannelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()) && isDistinctAndRowNumberSpillEnabled(context.getSession()),
+                    Optional.of(partitioningSpillerFactory));
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1211,9 +1338,19 @@ public class LocalExecutionPlanner
                     .collect(toImmutableList());
 
             try {
+                boolean tieredExpressionExecution = isTieredExpressionExecutionEnabled(session);
                 if (columns != null) {
-                    Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(filterExpression, projections, sourceNode.getId());
-                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(filterExpression, projections, Optional.of(context.getStageId() + "_" + planNodeId));
+                    Supplier<CursorProcessor> cursorProcessor;
+                    if (tieredExpressionExecution) {
+                        // only record cursor sources need the cursor processor, so compile it on first use
+                        Optional<RowExpression> cursorFilter = filterExpression;
+                        Supplier<Supplier<CursorProcessor>> compiledCursorProcessor = Suppliers.memoize(() -> expressionCompiler.compileCursorProcessor(cursorFilter, projections, sourceNode.getId()));
+                        cursorProcessor = () -> compiledCursorProcessor.get().get();
+                    }
+                    else {
+                        cursorProcessor = expressionCompiler.compileCursorProcessor(filterExpression, projections, sourceNode.getId());
+                    }
+                    Supplier<PageProcessor> pageProcessor = compilePageProcessor(filterExpression, projections, Optional.of(context.getStageId() + "_" + planNodeId), tieredExpressionExecution);
 
                     SourceOperatorFactory operatorFactory = new ScanFilterAndProjectOperatorFactory(
                             context.getNextOperatorId(),
@@ -1225,12 +1362,13 @@ public class LocalExecutionPlanner
                             columns,
                             projections.stream().map(RowExpression::getType).collect(toImmutableList()),
                             getFilterAndProjectMinOutputPageSize(session),
-                            getFilterAndProjectMinOutputPageRowCount(session));
+                            getFilterAndProjectMinOutputPageRowCount(session),
+                            context.getDynamicFilter(sourceNode.getId()));
 
                     return new PhysicalOperation(operatorFactory, outputMappings, context, stageExecutionDescriptor.isScanGroupedExecution(sourceNode.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
                 else {
-                    Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(filterExpression, projections, Optional.of(context.getStageId() + "_" + planNodeId));
+                    Supplier<PageProcessor> pageProcessor = compilePageProcessor(filterExpression, projections, Optional.of(context.getStageId() + "_" + planNodeId), tieredExpressionExecution);
 
                     OperatorFactory operatorFactory = new FilterAndProjectOperator.FilterAndProjectOperatorFactory(
                             context.getNextOperatorId(),
@@ -1248,6 +1386,14 @@ public class LocalExecutionPlanner
             }
         }
 
+        private Supplier<PageProcessor> compilePageProcessor(Optional<RowExpression> filter, List<RowExpression> projections, Optional<String> classNameSuffix, boolean tieredExpressionExecution)
+        {
+            if (tieredExpressionExecution) {
+                return expressionCompiler.compileTieredPageProcessor(filter, projections, classNameSuffix);
+            }
+            return expressionCompiler.compilePageProcessor(filter, projections, classNameSuffix);
+        }
+
         private RowExpression bindChannels(RowExpression expression, Map<VariableReferenceExpression, Integer> sourceLayout)
         {
             Type type = expression.getType();
@@ -1271,7 +1417,7 @@ public class LocalExecutionPlanner
                 columns.add(node.getAssignments().get(variable));
             }
 
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, columns);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, columns, context.getDynamicFilter(node.getId()));
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
@@ -1894,12 +2040,13 @@ public class LocalExecutionPlanner
                 Optional<VariableReferenceExpression> buildHashVariable,
                 LocalExecutionPlanContext context)
         {
-            // Plan probe
+            // Plan probe; the dynamic filter must be registered before the probe side table scan is planned
+            Optional<LocalDynamicFilter> dynamicFilter = createDynamicFilter(node, probeNode, probeVariables, buildVariables, context);
             PhysicalOperation probeSource = probeNode.accept(this, context);
 
             // Plan build
             JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory =
-                    createLookupSourceFactory(node, buildNode, buildVariables, buildHashVariable, probeSource, context);
+                    createLookupSourceFactory(node, buildNode, buildVariables, buildHashVariable, probeSource, dynamicFilter, context);
 
             OperatorFactory operator = createLookupJoin(node, probeSource, probeVariables, probeHashVariable, lookupSourceFactory, context);
 
@@ -1912,12 +2059,68 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings.build(), context, probeSource);
         }
 
+        private Optional<LocalDynamicFilter> createDynamicFilter(
+                JoinNode node,
+                PlanNode probeNode,
+                List<VariableReferenceExpression> probeVariables,
+                List<VariableReferenceExpression> buildVariables,
+                LocalExecutionPlanContext context)
+        {
+            // only joins that drop the unmatched probe rows can filter the probe side
+            if (!isDynamicFilteringEnabled(session) || (node.getType() != INNER && node.getType() != RIGHT) || context.getIndexSourceContext().isPresent()) {
+                return Optional.empty();
+            }
+
+            // follow the join keys through filters and identity projections down to the probe side table scan
+            List<VariableReferenceExpression> variables = probeVariables;
+            PlanNode current = probeNode;
+            while (current instanceof FilterNode || current instanceof ProjectNode) {
+                if (current instanceof ProjectNode) {
+                    Assignments assignments = ((ProjectNode) current).getAssignments();
+                    ImmutableList.Builder<VariableReferenceExpression> sourceVariables = ImmutableList.builder();
+                    for (VariableReferenceExpression variable : variables) {
+                        RowExpression expression = assignments.get(variable);
+                        if (!(expression instanceof VariableReferenceExpression)) {
+                            return Optional.empty();
+                        }
+                        sourceVariables.add((VariableReferenceExpression) expression);
+                    }
+                    variables = sourceVariables.build();
+                }
+                current = getOnlyElement(current.getSources());
+            }
+            if (!(current instanceof TableScanNode) || stageExecutionDescriptor.isScanGroupedExecution(current.getId())) {
+                return Optional.empty();
+            }
+
+            TableScanNode tableScan = (TableScanNode) current;
+            Map<Integer, ColumnHandle> probeColumns = new HashMap<>();
+            for (int clause = 0; clause < variables.size(); clause++) {
+                VariableReferenceExpression variable = variables.get(clause);
+                ColumnHandle column = tableScan.getAssignments().get(variable);
+                if (column != null && variable.getType().equals(buildVariables.get(clause).getType()) && !probeColumns.containsValue(column)) {
+                    probeColumns.put(clause, column);
+                }
+            }
+            if (probeColumns.isEmpty()) {
+                return Optional.empty();
+            }
+
+            LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(
+                    probeColumns,
+                    getDynamicFilteringMaxDistinctValues(session),
+                    getDynamicFilteringWaitTimeout(session));
+            context.addDynamicFilter(tableScan.getId(), dynamicFilter);
+            return Optional.of(dynamicFilter);
+        }
+
         private JoinBridgeManager<PartitionedLookupSourceFactory> createLookupSourceFactory(
                 JoinNode node,
                 PlanNode buildNode,
                 List<VariableReferenceExpression> buildVariables,
                 Optional<VariableReferenceExpression> buildHashVariable,
                 PhysicalOperation probeSource,
+                Optional<LocalDynamicFilter> dynamicFilter,
                 LocalExecutionPlanContext context)
         {
             LocalExecutionPlanContext buildContext = context.createSubContext();
@@ -1940,6 +2143,7 @@ public class LocalExecutionPlanner
             boolean spillEnabled = isSpillEnabled(context.getSession());
             boolean buildOuter = node.getType() == RIGHT || node.getType() == FULL;
             int partitionCount = buildContext.getDriverInstanceCount().orElse(1);
+            dynamicFilter.ifPresent(filter -> filter.setBuildPartitionCount(partitionCount));
 
             Optional<JoinFilterFunctionFactory> filterFunctionFactory = node.getFilter()
                     .map(filterExpression -> compileJoinFilterFunction(
@@ -1996,7 +2200,8 @@ public class LocalExecutionPlanner
                     10_000,
                     pagesIndexFactory,
                     spillEnabled && !buildOuter && partitionCount > 1,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    dynamicFilter);
 
             context.addDriverFactory(
                     buildContext.isInputDriver(),
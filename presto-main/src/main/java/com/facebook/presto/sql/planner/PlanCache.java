@@ -0,0 +1,417 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.TableHandle;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.function.FunctionHandle;
+import com.facebook.presto.spi.plan.PlanNode;
+import com.facebook.presto.spi.plan.TableScanNode;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.planner.plan.IndexSourceNode;
+import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.facebook.presto.sql.tree.CurrentTime;
+import com.facebook.presto.sql.tree.Deallocate;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.NodeRef;
+import com.facebook.presto.sql.tree.Prepare;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.ResetSession;
+import com.facebook.presto.sql.tree.Rollback;
+import com.facebook.presto.sql.tree.SetPath;
+import com.facebook.presto.sql.tree.SetRole;
+import com.facebook.presto.sql.tree.SetSession;
+import com.facebook.presto.sql.tree.StartTransaction;
+import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.sql.tree.Use;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.SystemSessionProperties.isPlanCacheEnabled;
+import static com.facebook.presto.sql.ExpressionFormatter.formatExpression;
+import static com.facebook.presto.sql.SqlFormatter.formatSql;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Coordinator-side cache of optimized plans of queries, so that repeated executions of
+ * the same statement skip logical planning and optimization. Queries are still analyzed
+ * on every execution, which checks access and opens the connector transactions. The
+ * table handles of a cached plan are bound to the transactions of the new query.
+ * <p>
+ * Parameters are inlined into the plan as literals, so their values are part of the key.
+ * Entries expire after a TTL, and the whole cache is invalidated whenever a statement
+ * that may change metadata or data finishes on this coordinator.
+ * <p>
+ * A cached plan keeps the table layouts chosen during planning, which carry the predicates
+ * pushed into the connector and the partitions it selected. They are not resolved again on
+ * a hit, so partitions added outside of this coordinator are only seen once the entry expires.
+ */
+public class PlanCache
+{
+    // these functions are constant folded using the query start time
+    private static final Set<String> START_TIME_FUNCTIONS = ImmutableSet.of(
+            "current_date",
+            "current_time",
+            "current_timestamp",
+            "localtime",
+            "localtimestamp",
+            "now");
+
+    // statements that change only the session or the transaction of the client
+    private static final Set<Class<? extends Statement>> SESSION_STATEMENTS = ImmutableSet.of(
+            Use.class,
+            SetSession.class,
+            ResetSession.class,
+            SetPath.class,
+            SetRole.class,
+            StartTransaction.class,
+            Rollback.class,
+            Prepare.class,
+            Deallocate.class);
+
+    private final boolean enabled;
+    private final Metadata metadata;
+    private final Cache<PlanCacheKey, CachedPlan> cache;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong savedPlanningTimeNanos = new AtomicLong();
+
+    @Inject
+    public PlanCache(PlanCacheConfig config, Metadata metadata)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isCachingEnabled();
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl().toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the cache key of the analyzed query, or empty if its plan must not be cached.
+     */
+    public Optional<PlanCacheKey> createKey(Session session, Analysis analysis)
+    {
+        if (!enabled || !isPlanCacheEnabled(session)) {
+            return Optional.empty();
+        }
+        // writes, EXPLAIN and the like carry state of the query in the plan
+        if (!(analysis.getStatement() instanceof Query) || analysis.getUpdateType() != null) {
+            return Optional.empty();
+        }
+        if (dependsOnStartTime(analysis)) {
+            return Optional.empty();
+        }
+        return Optional.of(PlanCacheKey.create(session, analysis.getStatement(), analysis.getParameters()));
+    }
+
+    private boolean dependsOnStartTime(Analysis analysis)
+    {
+        for (NodeRef<Expression> expression : analysis.getTypes().keySet()) {
+            if (expression.getNode() instanceof CurrentTime) {
+                return true;
+            }
+        }
+        for (FunctionHandle functionHandle : analysis.getFunctionHandles().values()) {
+            String name = metadata.getFunctionManager().getFunctionMetadata(functionHandle).getName();
+            if (START_TIME_FUNCTIONS.contains(name.substring(name.lastIndexOf('.') + 1).toLowerCase(ENGLISH))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cached plan bound to the transactions of the analyzed query.
+     */
+    public Optional<CachedPlan> get(PlanCacheKey key, Analysis analysis)
+    {
+        CachedPlan cachedPlan = cache.getIfPresent(key);
+        if (cachedPlan == null) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+
+        Map<ConnectorId, ConnectorTransactionHandle> transactions = new HashMap<>();
+        for (TableHandle table : analysis.getTables()) {
+            transactions.put(table.getConnectorId(), table.getTransaction());
+        }
+        boolean allTransactionsKnown = searchFrom(cachedPlan.getPlan().getRoot())
+                .where(TableScanNode.class::isInstance)
+                .<TableScanNode>findAll()
+                .stream()
+                .allMatch(node -> transactions.containsKey(node.getTable().getConnectorId()));
+        if (!allTransactionsKnown) {
+            missCount.incrementAndGet();
+            return Optional.empty();
+        }
+
+        hitCount.incrementAndGet();
+        savedPlanningTimeNanos.addAndGet(cachedPlan.getPlanningTime().roundTo(NANOSECONDS));
+        Plan plan = cachedPlan.getPlan();
+        PlanNode root = SimplePlanRewriter.rewriteWith(new TransactionRewriter(ImmutableMap.copyOf(transactions)), plan.getRoot());
+        return Optional.of(new CachedPlan(new Plan(root, plan.getTypes(), plan.getStatsAndCosts()), cachedPlan.getNextPlanNodeId(), cachedPlan.getPlanningTime()));
+    }
+
+    public void put(PlanCacheKey key, Plan plan, Duration planningTime)
+    {
+        // index handles are bound to a transaction as well, and are not rewritten
+        if (searchFrom(plan.getRoot()).where(IndexSourceNode.class::isInstance).matches()) {
+            return;
+        }
+        int nextPlanNodeId = 0;
+        for (PlanNode node : searchFrom(plan.getRoot()).findAll()) {
+            Integer id = Ints.tryParse(node.getId().toString());
+            if (id == null) {
+                return;
+            }
+            nextPlanNodeId = Math.max(nextPlanNodeId, id + 1);
+        }
+        cache.put(key, new CachedPlan(plan, nextPlanNodeId, planningTime));
+    }
+
+    /**
+     * Invalidates the cache after a data definition statement finished, unless the statement
+     * changes only the session.
+     */
+    public void invalidate(Statement statement)
+    {
+        if (!SESSION_STATEMENTS.contains(statement.getClass())) {
+            invalidateAll();
+        }
+    }
+
+    @Managed
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hits = hitCount.get();
+        long requests = hits + missCount.get();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Managed
+    public long getSavedPlanningTimeMillis()
+    {
+        return NANOSECONDS.toMillis(savedPlanningTimeNanos.get());
+    }
+
+    private static class TransactionRewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Map<ConnectorId, ConnectorTransactionHandle> transactions;
+
+        public TransactionRewriter(Map<ConnectorId, ConnectorTransactionHandle> transactions)
+        {
+            this.transactions = requireNonNull(transactions, "transactions is null");
+        }
+
+        @Override
+        public PlanNode visitTableScan(TableScanNode node, RewriteContext<Void> context)
+        {
+            TableHandle table = node.getTable();
+            ConnectorTransactionHandle transaction = transactions.get(table.getConnectorId());
+            checkState(transaction != null, "no transaction for connector %s", table.getConnectorId());
+            return new TableScanNode(
+                    node.getId(),
+                    new TableHandle(table.getConnectorId(), table.getConnectorHandle(), transaction, table.getLayout()),
+                    node.getOutputVariables(),
+                    node.getAssignments(),
+                    node.getCurrentConstraint(),
+                    node.getEnforcedConstraint());
+        }
+    }
+
+    public static class CachedPlan
+    {
+        private final Plan plan;
+        private final int nextPlanNodeId;
+        private final Duration planningTime;
+
+        private CachedPlan(Plan plan, int nextPlanNodeId, Duration planningTime)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.nextPlanNodeId = nextPlanNodeId;
+            this.planningTime = requireNonNull(planningTime, "planningTime is null");
+        }
+
+        public Plan getPlan()
+        {
+            return plan;
+        }
+
+        /**
+         * Returns the first plan node id that is not used by the plan, for fragmenting it.
+         */
+        public int getNextPlanNodeId()
+        {
+            return nextPlanNodeId;
+        }
+
+        /**
+         * Returns the time it took to plan the query originally.
+         */
+        public Duration getPlanningTime()
+        {
+            return planningTime;
+        }
+    }
+
+    public static final class PlanCacheKey
+    {
+        private final String statement;
+        private final List<String> parameters;
+        private final String user;
+        private final Optional<String> catalog;
+        private final Optional<String> schema;
+        private final String path;
+        private final String timeZone;
+        private final String locale;
+        private final Map<String, String> systemProperties;
+        private final Map<String, Map<String, String>> catalogProperties;
+
+        private PlanCacheKey(
+                String statement,
+                List<String> parameters,
+                String user,
+                Optional<String> catalog,
+                Optional<String> schema,
+                String path,
+                String timeZone,
+                String locale,
+                Map<String, String> systemProperties,
+                Map<String, Map<String, String>> catalogProperties)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parameters = requireNonNull(parameters, "parameters is null");
+            this.user = requireNonNull(user, "user is null");
+            this.catalog = requireNonNull(catalog, "catalog is null");
+            this.schema = requireNonNull(schema, "schema is null");
+            this.path = requireNonNull(path, "path is null");
+            this.timeZone = requireNonNull(timeZone, "timeZone is null");
+            this.locale = requireNonNull(locale, "locale is null");
+            this.systemProperties = requireNonNull(systemProperties, "systemProperties is null");
+            this.catalogProperties = requireNonNull(catalogProperties, "catalogProperties is null");
+        }
+
+        public static PlanCacheKey create(Session session, Statement statement, List<Expression> parameters)
+        {
+            ImmutableMap.Builder<String, Map<String, String>> catalogProperties = ImmutableMap.builder();
+            session.getConnectorProperties().forEach((connectorId, properties) -> catalogProperties.put(connectorId.getCatalogName(), ImmutableMap.copyOf(properties)));
+            session.getUnprocessedCatalogProperties().forEach((catalog, properties) -> catalogProperties.put(catalog, ImmutableMap.copyOf(properties)));
+
+            return new PlanCacheKey(
+                    formatSql(statement, Optional.empty()),
+                    parameters.stream()
+                            .map(parameter -> formatExpression(parameter, Optional.empty()))
+                            .collect(toImmutableList()),
+                    session.getUser(),
+                    session.getCatalog(),
+                    session.getSchema(),
+                    session.getPath().toString(),
+                    session.getTimeZoneKey().getId(),
+                    session.getLocale().toLanguageTag(),
+                    ImmutableMap.copyOf(session.getSystemProperties()),
+                    catalogProperties.build());
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanCacheKey that = (PlanCacheKey) o;
+            return Objects.equals(statement, that.statement) &&
+                    Objects.equals(parameters, that.parameters) &&
+                    Objects.equals(user, that.user) &&
+                    Objects.equals(catalog, that.catalog) &&
+                    Objects.equals(schema, that.schema) &&
+                    Objects.equals(path, that.path) &&
+                    Objects.equals(timeZone, that.timeZone) &&
+                    Objects.equals(locale, that.locale) &&
+                    Objects.equals(systemProperties, that.systemProperties) &&
+                    Objects.equals(catalogProperties, that.catalogProperties);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(statement, parameters, user, catalog, schema, path, timeZone, locale, systemProperties, catalogProperties);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("statement", statement)
+                    .add("parameters", parameters)
+                    .add("user", user)
+                    .toString();
+        }
+    }
+}
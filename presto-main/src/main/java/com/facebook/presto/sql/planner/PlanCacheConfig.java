@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class PlanCacheConfig
+{
+    private boolean cachingEnabled;
+    private long maxSize = 1000;
+    private Duration ttl = new Duration(10, MINUTES);
+
+    public boolean isCachingEnabled()
+    {
+        return cachingEnabled;
+    }
+
+    @Config("plan-cache.enabled")
+    @ConfigDescription("Enable caching of optimized query plans on the coordinator")
+    public PlanCacheConfig setCachingEnabled(boolean cachingEnabled)
+    {
+        this.cachingEnabled = cachingEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("plan-cache.max-size")
+    @ConfigDescription("Maximum number of cached query plans")
+    public PlanCacheConfig setMaxSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("0s")
+    public Duration getTtl()
+    {
+        return ttl;
+    }
+
+    @Config("plan-cache.ttl")
+    @ConfigDescription("Time after which a cached query plan is planned again, so that it picks up metadata changes made outside of this coordinator")
+    public PlanCacheConfig setTtl(Duration ttl)
+    {
+        this.ttl = ttl;
+        return this;
+    }
+}
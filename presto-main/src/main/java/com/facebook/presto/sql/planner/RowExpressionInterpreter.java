@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner;
 import com.facebook.presto.client.FailureInfo;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.RowBlockBuilder;
 import com.facebook.presto.spi.function.FunctionHandle;
@@ -50,7 +51,9 @@ import io.airlift.slice.Slice;
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -71,6 +74,7 @@ import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.ROW_CO
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.SWITCH;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.WHEN;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
 import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.spi.type.VarcharType.createVarcharType;
@@ -149,6 +153,22 @@ public class RowExpressionInterpreter
         return expression.accept(visitor, null);
     }
 
+    /**
+     * Evaluates the expression for one row of {@code page}: input references resolve to the values
+     * of the page channels at {@code position}. Fails with the same exception as compiled code
+     * would when the row raises an error that is not discarded by a conditional expression.
+     */
+    public Object evaluate(Page page, int position)
+    {
+        checkState(!optimize, "evaluate(Page, int) not allowed for optimizer");
+        visitor.deferredFailures.clear();
+        Object result = expression.accept(visitor, new PagePosition(page, position));
+        if (result instanceof RowExpression) {
+            throw visitor.getDeferredFailure((RowExpression) result);
+        }
+        return result;
+    }
+
     public Object optimize()
     {
         checkState(optimize, "optimize() not allowed for interpreter");
@@ -174,9 +194,16 @@ public class RowExpressionInterpreter
     private class Visitor
             implements RowExpressionVisitor<Object, Object>
     {
+        // when evaluating, the exceptions raised by the expressions replaced with failure calls,
+        // which are thrown once the failed value is actually used
+        private final Map<RowExpression, RuntimeException> deferredFailures = new IdentityHashMap<>();
+
         @Override
         public Object visitInputReference(InputReferenceExpression node, Object context)
         {
+            if (context instanceof PagePosition) {
+                return ((PagePosition) context).getValue(node.getField(), node.getType());
+            }
             return node;
         }
 
@@ -206,6 +233,14 @@ public class RowExpressionInterpreter
                 argumentTypes.add(expression.getType());
             }
 
+            if (!optimize) {
+                for (Object value : argumentValues) {
+                    if (value instanceof RowExpression) {
+                        throw getDeferredFailure((RowExpression) value);
+                    }
+                }
+            }
+
             FunctionHandle functionHandle = node.getFunctionHandle();
             FunctionMetadata functionMetadata = metadata.getFunctionManager().getFunctionMetadata(node.getFunctionHandle());
 
@@ -267,7 +302,13 @@ public class RowExpressionInterpreter
                             .map(Primitives::wrap)
                             .collect(toImmutableList()),
                     node.getArguments(),
-                    map -> body.accept(this, new LambdaSymbolResolver(map)));
+                    map -> {
+                        Object value = body.accept(this, new LambdaSymbolResolver(map));
+                        if (value instanceof RowExpression) {
+                            throw getDeferredFailure((RowExpression) value);
+                        }
+                        return value;
+                    });
         }
 
         @Override
@@ -631,10 +672,50 @@ public class RowExpressionInterpreter
                 // HACK
                 // Certain operations like 0 / 0 or likeExpression may throw exceptions.
                 // Wrap them in a call that will throw the exception if the expression is actually executed
-                return createFailureFunction(e, expression.getType());
+                RowExpression failure = createFailureFunction(e, expression.getType());
+                if (!optimize) {
+                    deferredFailures.put(failure, e);
+                }
+                return failure;
             }
         }
 
+        /**
+         * Returns the exception to throw when an unresolved value is used while evaluating. Such a value
+         * can only be made of failure calls, and the first one in evaluation order is the one compiled code raises.
+         */
+        private RuntimeException getDeferredFailure(RowExpression unresolved)
+        {
+            RuntimeException failure = findDeferredFailure(unresolved);
+            verify(failure != null, "RowExpression interpreter returned an unresolved expression: %s", unresolved);
+            return failure;
+        }
+
+        private RuntimeException findDeferredFailure(RowExpression expression)
+        {
+            RuntimeException failure = deferredFailures.get(expression);
+            if (failure != null) {
+                return failure;
+            }
+            List<RowExpression> arguments;
+            if (expression instanceof CallExpression) {
+                arguments = ((CallExpression) expression).getArguments();
+            }
+            else if (expression instanceof SpecialFormExpression) {
+                arguments = ((SpecialFormExpression) expression).getArguments();
+            }
+            else {
+                return null;
+            }
+            for (RowExpression argument : arguments) {
+                failure = findDeferredFailure(argument);
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            return null;
+        }
+
         private RowExpression createFailureFunction(RuntimeException exception, Type type)
         {
             requireNonNull(exception, "Exception is null");
@@ -800,6 +881,23 @@ public class RowExpressionInterpreter
         }
     }
 
+    private static final class PagePosition
+    {
+        private final Page page;
+        private final int position;
+
+        private PagePosition(Page page, int position)
+        {
+            this.page = requireNonNull(page, "page is null");
+            this.position = position;
+        }
+
+        private Object getValue(int channel, Type type)
+        {
+            return readNativeValue(type, page.getBlock(channel), position);
+        }
+    }
+
     static final class SpecialCallResult
     {
         private final Object value;
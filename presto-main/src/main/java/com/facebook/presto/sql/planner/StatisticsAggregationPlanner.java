@@ -15,6 +15,7 @@ package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.metadata.FunctionManager;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.operator.aggregation.HistogramForStats;
 import com.facebook.presto.operator.aggregation.MaxDataSizeForStats;
 import com.facebook.presto.operator.aggregation.SumDataSizeForStats;
 import com.facebook.presto.spi.PrestoException;
@@ -44,6 +45,7 @@ import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.facebook.presto.spi.statistics.TableStatisticType.ROW_COUNT;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.relational.OriginalExpressionUtils.castToRowExpression;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -128,6 +130,8 @@ public class StatisticsAggregationPlanner
                 return createAggregation(SumDataSizeForStats.NAME, symbolReference, input.getType(), BIGINT);
             case MAX_VALUE_SIZE_IN_BYTES:
                 return createAggregation(MaxDataSizeForStats.NAME, symbolReference, input.getType(), BIGINT);
+            case HISTOGRAM:
+                return createAggregation(HistogramForStats.NAME, symbolReference, input.getType(), VARCHAR);
             default:
                 throw new IllegalArgumentException("Unsupported statistic type: " + statisticType);
         }
@@ -18,6 +18,8 @@ import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.operator.HashCollisionsInfo;
 import com.facebook.presto.operator.OperatorStats;
 import com.facebook.presto.operator.PipelineStats;
+import com.facebook.presto.operator.ScanFilterAndProjectOperator;
+import com.facebook.presto.operator.TableScanOperator;
 import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.operator.WindowInfo;
 import com.facebook.presto.spi.plan.PlanNodeId;
@@ -82,6 +84,8 @@ public class PlanNodeStatsSummarizer
         Map<PlanNodeId, Map<String, OperatorInputStats>> operatorInputStats = new HashMap<>();
         Map<PlanNodeId, Map<String, OperatorHashCollisionsStats>> operatorHashCollisionsStats = new HashMap<>();
         Map<PlanNodeId, WindowOperatorStats> windowNodeStats = new HashMap<>();
+        Map<PlanNodeId, Long> dynamicFilterSplitsRemoved = new HashMap<>();
+        Map<PlanNodeId, Long> dynamicFilterRowsRemoved = new HashMap<>();
 
         for (PipelineStats pipelineStats : taskStats.getPipelines()) {
             // Due to eventual consistently collected stats, these could be empty
@@ -139,6 +143,11 @@ public class PlanNodeStatsSummarizer
                     windowNodeStats.merge(planNodeId, WindowOperatorStats.create(windowInfo), (left, right) -> left.mergeWith(right));
                 }
 
+                if (isTableScanOperator(operatorStats)) {
+                    dynamicFilterSplitsRemoved.merge(planNodeId, operatorStats.getDynamicFilterSplitsRemoved(), Long::sum);
+                    dynamicFilterRowsRemoved.merge(planNodeId, operatorStats.getDynamicFilterRowsRemoved(), Long::sum);
+                }
+
                 planNodeInputPositions.merge(planNodeId, operatorStats.getInputPositions(), Long::sum);
                 planNodeInputBytes.merge(planNodeId, operatorStats.getInputDataSize().toBytes(), Long::sum);
                 processedNodes.add(planNodeId);
@@ -201,6 +210,19 @@ public class PlanNodeStatsSummarizer
                         operatorInputStats.get(planNodeId),
                         windowNodeStats.get(planNodeId));
             }
+            else if (dynamicFilterSplitsRemoved.containsKey(planNodeId)) {
+                nodeStats = new DynamicFilterPlanNodeStats(
+                        planNodeId,
+                        new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
+                        new Duration(planNodeCpuMillis.get(planNodeId), MILLISECONDS),
+                        planNodeInputPositions.get(planNodeId),
+                        succinctDataSize(planNodeInputBytes.get(planNodeId), BYTE),
+                        outputPositions,
+                        succinctDataSize(planNodeOutputBytes.getOrDefault(planNodeId, 0L), BYTE),
+                        operatorInputStats.get(planNodeId),
+                        dynamicFilterSplitsRemoved.get(planNodeId),
+                        dynamicFilterRowsRemoved.get(planNodeId));
+            }
             else {
                 nodeStats = new PlanNodeStats(
                         planNodeId,
@@ -217,4 +239,10 @@ public class PlanNodeStatsSummarizer
         }
         return stats;
     }
+
+    private static boolean isTableScanOperator(OperatorStats operatorStats)
+    {
+        String operatorType = operatorStats.getOperatorType();
+        return operatorType.equals(TableScanOperator.class.getSimpleName()) || operatorType.equals(ScanFilterAndProjectOperator.class.getSimpleName());
+    }
 }
@@ -121,6 +121,10 @@ public class TextRenderer
             printWindowOperatorStats(output, ((WindowPlanNodeStats) nodeStats).getWindowOperatorStats());
         }
 
+        if (nodeStats instanceof DynamicFilterPlanNodeStats) {
+            printDynamicFilterStats(output, (DynamicFilterPlanNodeStats) nodeStats);
+        }
+
         return output.toString();
     }
 
@@ -172,6 +176,17 @@ public class TextRenderer
         }
     }
 
+    private static void printDynamicFilterStats(StringBuilder output, DynamicFilterPlanNodeStats stats)
+    {
+        if (stats.getDynamicFilterSplitsRemoved() == 0 && stats.getDynamicFilterRowsRemoved() == 0) {
+            return;
+        }
+
+        output.append(format("Dynamic filter: %s splits removed, %s removed\n",
+                stats.getDynamicFilterSplitsRemoved(),
+                formatPositions(stats.getDynamicFilterRowsRemoved())));
+    }
+
     private void printWindowOperatorStats(StringBuilder output, WindowOperatorStats stats)
     {
         if (!verbose) {
@@ -184,6 +199,9 @@ public class TextRenderer
         output.append(format("Index count per driver: std.dev.: %s\n", formatDouble(stats.getIndexCountPerDriverStdDev())));
         output.append(format("Rows per driver: std.dev.: %s\n", formatDouble(stats.getRowsPerDriverStdDev())));
         output.append(format("Size of partition: std.dev.: %s\n", formatDouble(stats.getPartitionRowsStdDev())));
+        if (stats.getTotalSpillsCount() > 0) {
+            output.append(format("Spills: %d, spilled rows: %d\n", stats.getTotalSpillsCount(), stats.getTotalSpilledRowsCount()));
+        }
     }
 
     private static Map<String, String> translateOperatorTypes(Set<String> operators)
@@ -32,6 +32,8 @@ class WindowOperatorStats
     private final long totalRowCount;
     private final long totalIndexesCount;
     private final long totalPartitionsCount;
+    private final long totalSpillsCount;
+    private final long totalSpilledRowsCount;
 
     public static WindowOperatorStats create(WindowInfo info)
     {
@@ -48,6 +50,8 @@ class WindowOperatorStats
         long totalRowCount = 0;
         long totalIndexesCount = 0;
         long totalPartitionsCount = 0;
+        long totalSpillsCount = 0;
+        long totalSpilledRowsCount = 0;
 
         double averageNumberOfIndexes = info.getWindowInfos().stream()
                 .filter(WindowOperatorStats::isMeaningful)
@@ -69,6 +73,8 @@ class WindowOperatorStats
 
                 partitionRowsSumSquaredDiffs += driverWindowInfo.getSumSquaredDifferencesSizeInPartition();
                 totalPartitionsCount += driverWindowInfo.getTotalPartitionsCount();
+                totalSpillsCount += driverWindowInfo.getSpillsCount();
+                totalSpilledRowsCount += driverWindowInfo.getSpilledRowsCount();
 
                 totalRowCount += driverWindowInfo.getTotalRowsCount();
 
@@ -90,6 +96,8 @@ class WindowOperatorStats
                 totalRowCount,
                 totalIndexesCount,
                 totalPartitionsCount,
+                totalSpillsCount,
+                totalSpilledRowsCount,
                 activeDrivers,
                 totalDrivers);
     }
@@ -132,6 +140,8 @@ class WindowOperatorStats
             long totalRowCount,
             long totalIndexesCount,
             long totalPartitionsCount,
+            long totalSpillsCount,
+            long totalSpilledRowsCount,
             int activeDrivers,
             int totalDrivers)
     {
@@ -143,6 +153,8 @@ class WindowOperatorStats
         this.totalRowCount = totalRowCount;
         this.totalIndexesCount = totalIndexesCount;
         this.totalPartitionsCount = totalPartitionsCount;
+        this.totalSpillsCount = totalSpillsCount;
+        this.totalSpilledRowsCount = totalSpilledRowsCount;
         this.activeDrivers = activeDrivers;
         this.totalDrivers = totalDrivers;
     }
@@ -159,6 +171,8 @@ class WindowOperatorStats
                 totalRowCount + other.totalRowCount,
                 totalIndexesCount + other.totalIndexesCount,
                 totalPartitionsCount + other.totalPartitionsCount,
+                totalSpillsCount + other.totalSpillsCount,
+                totalSpilledRowsCount + other.totalSpilledRowsCount,
                 activeDrivers + other.activeDrivers,
                 totalDrivers + other.totalDrivers);
     }
@@ -188,6 +202,16 @@ class WindowOperatorStats
         return Math.sqrt(rowCountPerDriverSumSquaredDiffs / activeDrivers);
     }
 
+    public long getTotalSpillsCount()
+    {
+        return totalSpillsCount;
+    }
+
+    public long getTotalSpilledRowsCount()
+    {
+        return totalSpilledRowsCount;
+    }
+
     public int getActiveDrivers()
     {
         return activeDrivers;
@@ -16,6 +16,7 @@ package com.facebook.presto.cost;
 import com.facebook.presto.Session;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.spi.statistics.Histogram;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.VarcharType;
@@ -28,6 +29,7 @@ import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.LongLiteral;
 import com.facebook.presto.sql.tree.StringLiteral;
 import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -36,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
@@ -68,6 +71,8 @@ public class TestComparisonStatsCalculator
     private VariableStatsEstimate unknownRangeStats;
     private VariableStatsEstimate emptyRangeStats;
     private VariableStatsEstimate varcharStats;
+    private VariableStatsEstimate skewedStats;
+    private VariableStatsEstimate otherSkewedStats;
 
     @BeforeClass
     public void setUp()
@@ -147,6 +152,24 @@ public class TestComparisonStatsCalculator
                 .setHighValue(POSITIVE_INFINITY)
                 .setNullsFraction(0.1)
                 .build();
+        // a quarter of the values are 5, three quarters of them are in [0, 10]
+        skewedStats = VariableStatsEstimate.builder()
+                .setAverageRowSize(8.0)
+                .setDistinctValuesCount(50.0)
+                .setLowValue(0.0)
+                .setHighValue(100.0)
+                .setNullsFraction(0.0)
+                .setHistogram(Optional.of(new Histogram(ImmutableList.of(0.0, 5.0, 5.0, 10.0, 100.0), ImmutableMap.of(5.0, 0.25))))
+                .build();
+        // half of the values are 5
+        otherSkewedStats = VariableStatsEstimate.builder()
+                .setAverageRowSize(8.0)
+                .setDistinctValuesCount(20.0)
+                .setLowValue(0.0)
+                .setHighValue(100.0)
+                .setNullsFraction(0.0)
+                .setHistogram(Optional.of(new Histogram(ImmutableList.of(0.0, 5.0, 5.0, 5.0, 100.0), ImmutableMap.of(5.0, 0.5))))
+                .build();
         standardInputStatistics = PlanNodeStatsEstimate.builder()
                 .addVariableStatistics(new VariableReferenceExpression("u", DOUBLE), uStats)
                 .addVariableStatistics(new VariableReferenceExpression("w", DOUBLE), wStats)
@@ -158,6 +181,8 @@ public class TestComparisonStatsCalculator
                 .addVariableStatistics(new VariableReferenceExpression("unknownRange", DOUBLE), unknownRangeStats)
                 .addVariableStatistics(new VariableReferenceExpression("emptyRange", DOUBLE), emptyRangeStats)
                 .addVariableStatistics(new VariableReferenceExpression("varchar", VarcharType.createVarcharType(10)), varcharStats)
+                .addVariableStatistics(new VariableReferenceExpression("skewed", DOUBLE), skewedStats)
+                .addVariableStatistics(new VariableReferenceExpression("otherSkewed", DOUBLE), otherSkewedStats)
                 .setOutputRowCount(1000.0)
                 .build();
 
@@ -172,6 +197,8 @@ public class TestComparisonStatsCalculator
                 .put(new Symbol("unknownRange"), DOUBLE)
                 .put(new Symbol("emptyRange"), DOUBLE)
                 .put(new Symbol("varchar"), VarcharType.createVarcharType(10))
+                .put(new Symbol("skewed"), DOUBLE)
+                .put(new Symbol("otherSkewed"), DOUBLE)
                 .build());
     }
 
@@ -695,6 +722,48 @@ public class TestComparisonStatsCalculator
                 .variableStats(new VariableReferenceExpression("z", DOUBLE), equalTo(capNDV(zStats, rowCount)));
     }
 
+    @Test
+    public void symbolWithHistogramToLiteralStats()
+    {
+        // Range covering three quarters of the values, while covering only a tenth of the value range
+        assertCalculate(new ComparisonExpression(LESS_THAN, new SymbolReference("skewed"), new DoubleLiteral("10.0")))
+                .outputRowsCount(750.0)
+                .variableStats(new VariableReferenceExpression("skewed", DOUBLE), symbolAssert -> {
+                    symbolAssert.averageRowSize(8.0)
+                            .distinctValuesCount(5.0)
+                            .lowValue(0.0)
+                            .highValue(10.0)
+                            .nullsFraction(0.0);
+                });
+
+        // Most common value
+        assertCalculate(new ComparisonExpression(EQUAL, new SymbolReference("skewed"), new DoubleLiteral("5.0")))
+                .outputRowsCount(250.0)
+                .variableStats(new VariableReferenceExpression("skewed", DOUBLE), symbolAssert -> {
+                    symbolAssert.averageRowSize(8.0)
+                            .distinctValuesCount(1.0)
+                            .lowValue(5.0)
+                            .highValue(5.0)
+                            .nullsFraction(0.0);
+                });
+
+        // Other values share what is left after the most common values
+        assertCalculate(new ComparisonExpression(EQUAL, new SymbolReference("skewed"), new DoubleLiteral("50.0")))
+                .outputRowsCount(750.0 / 49);
+
+        assertCalculate(new ComparisonExpression(NOT_EQUAL, new SymbolReference("skewed"), new DoubleLiteral("5.0")))
+                .outputRowsCount(750.0);
+    }
+
+    @Test
+    public void symbolWithHistogramToSymbolEqualStats()
+    {
+        // matching most common values: 0.25 * 0.5
+        // remaining values: 0.75 * 0.5 / max(50 - 1, 20 - 1)
+        assertCalculate(new ComparisonExpression(EQUAL, new SymbolReference("skewed"), new SymbolReference("otherSkewed")))
+                .outputRowsCount(1000 * (0.25 * 0.5 + 0.75 * 0.5 / 49));
+    }
+
     private static void checkConsistent(StatsNormalizer normalizer, String source, PlanNodeStatsEstimate stats, Collection<VariableReferenceExpression> outputVariables, TypeProvider types)
     {
         PlanNodeStatsEstimate normalized = normalizer.normalize(stats, outputVariables);
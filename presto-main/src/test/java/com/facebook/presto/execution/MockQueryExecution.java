@@ -118,6 +118,8 @@ public class MockQueryExecution
                         new Duration(8, NANOSECONDS),
 
                         new Duration(100, NANOSECONDS),
+                        false,
+                        new Duration(0, NANOSECONDS),
 
                         9,
                         10,
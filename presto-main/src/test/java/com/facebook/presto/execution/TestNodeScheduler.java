@@ -271,6 +271,19 @@ public class TestNodeScheduler
         assertEquals(assignments.size(), 1);
     }
 
+    @Test
+    public void testSchedulePreferredNodes()
+    {
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            splits.add(new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestSplitPreferred(1)));
+        }
+        Multimap<InternalNode, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values())).getAssignments();
+        assertEquals(assignments.size(), 5);
+        InternalNode node = Iterables.getOnlyElement(assignments.keySet());
+        assertEquals(node.getHostAndPort(), HostAddress.fromString("127.0.0.1:12"));
+    }
+
     @Test
     public void testBasicAssignment()
     {
@@ -480,6 +493,41 @@ public class TestNodeScheduler
         }
     }
 
+    private static class TestSplitPreferred
+            implements ConnectorSplit
+    {
+        private final int preferredIndex;
+
+        public TestSplitPreferred(int preferredIndex)
+        {
+            this.preferredIndex = preferredIndex;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public List<HostAddress> getPreferredNodes(List<HostAddress> sortedCandidates)
+        {
+            return ImmutableList.of(sortedCandidates.get(preferredIndex));
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
+
     private static class TestNetworkTopology
             implements NetworkTopology
     {
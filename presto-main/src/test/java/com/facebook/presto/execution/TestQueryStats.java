@@ -34,6 +34,7 @@ import static io.airlift.units.DataSize.succinctBytes;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestQueryStats
 {
@@ -69,6 +70,11 @@ public class TestQueryStats
                     succinctBytes(128L),
                     succinctBytes(129L),
                     succinctBytes(130L),
+                    new Duration(131, NANOSECONDS),
+                    0,
+                    0,
+                    0,
+                    new Duration(0, NANOSECONDS),
                     Optional.empty(),
                     null),
             new OperatorStats(
@@ -102,6 +108,11 @@ public class TestQueryStats
                     succinctBytes(228L),
                     succinctBytes(229L),
                     succinctBytes(230L),
+                    new Duration(231, NANOSECONDS),
+                    0,
+                    0,
+                    0,
+                    new Duration(0, NANOSECONDS),
                     Optional.empty(),
                     null),
             new OperatorStats(
@@ -135,6 +146,11 @@ public class TestQueryStats
                     succinctBytes(328L),
                     succinctBytes(329L),
                     succinctBytes(330L),
+                    new Duration(331, NANOSECONDS),
+                    0,
+                    0,
+                    0,
+                    new Duration(0, NANOSECONDS),
                     Optional.empty(),
                     null));
 
@@ -151,6 +167,8 @@ public class TestQueryStats
 
             new Duration(100, NANOSECONDS),
             new Duration(200, NANOSECONDS),
+            true,
+            new Duration(300, NANOSECONDS),
 
             9,
             10,
@@ -228,6 +246,8 @@ public class TestQueryStats
 
         assertEquals(actual.getTotalPlanningTime(), new Duration(100, NANOSECONDS));
         assertEquals(actual.getFinishingTime(), new Duration(200, NANOSECONDS));
+        assertTrue(actual.isPlanCacheHit());
+        assertEquals(actual.getSavedPlanningTime(), new Duration(300, NANOSECONDS));
 
         assertEquals(actual.getTotalTasks(), 9);
         assertEquals(actual.getRunningTasks(), 10);
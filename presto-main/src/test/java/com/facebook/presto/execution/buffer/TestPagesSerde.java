@@ -22,11 +22,14 @@ import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPages;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
@@ -59,6 +62,32 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testSerializedPagesStreamRoundTrip()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        BlockBuilder firstBlockBuilder = VARCHAR.createBlockBuilder(null, 2);
+        VARCHAR.writeString(firstBlockBuilder, "alice");
+        VARCHAR.writeString(firstBlockBuilder, "bob");
+        Page firstPage = new Page(firstBlockBuilder.build());
+        BlockBuilder secondBlockBuilder = VARCHAR.createBlockBuilder(null, 1);
+        VARCHAR.writeString(secondBlockBuilder, "charlie");
+        Page secondPage = new Page(secondBlockBuilder.build());
+
+        // the second page reuses the scratch buffers of the first one
+        SerializedPage firstSerializedPage = serde.serialize(firstPage);
+        SerializedPage secondSerializedPage = serde.serialize(secondPage);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writeSerializedPages(sliceOutput, ImmutableList.of(firstSerializedPage, secondSerializedPage));
+
+        List<Type> types = ImmutableList.of(VARCHAR);
+        Iterator<SerializedPage> pageIterator = readSerializedPages(new ByteArrayInputStream(sliceOutput.slice().getBytes()));
+        assertPageEquals(types, serde.deserialize(pageIterator.next()), firstPage);
+        assertPageEquals(types, serde.deserialize(pageIterator.next()), secondPage);
+        assertFalse(pageIterator.hasNext());
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
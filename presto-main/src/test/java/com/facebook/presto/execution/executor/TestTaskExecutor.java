@@ -15,10 +15,14 @@ package com.facebook.presto.execution.executor;
 
 import com.facebook.presto.execution.SplitRunner;
 import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.server.ServerConfig;
+import com.facebook.presto.version.EmbedVersion;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
@@ -41,6 +45,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -370,6 +375,115 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testShardedSplitQueue()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 4);
+        TaskExecutor taskExecutor = new TaskExecutor(4, 16, 3, 4, splitQueue, ticker);
+        taskExecutor.start();
+
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            ImmutableList.Builder<TestingJob> jobs = ImmutableList.builder();
+            for (int i = 0; i < 20; i++) {
+                jobs.add(new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 5, 10));
+            }
+            List<ListenableFuture<?>> futures = taskExecutor.enqueueSplits(taskHandle, false, jobs.build());
+            for (ListenableFuture<?> future : futures) {
+                future.get(10, SECONDS);
+            }
+            for (TestingJob job : jobs.build()) {
+                assertEquals(job.getCompletedPhases(), 5);
+            }
+            assertEquals(splitQueue.size(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testShardedSplitQueueLevelSelection()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 2);
+        TaskExecutor taskExecutor = new TaskExecutor(2, 8, 3, 4, splitQueue, ticker);
+
+        try {
+            TaskHandle slowTask = taskExecutor.addTask(new TaskId("slow", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            slowTask.addScheduledNanos(SECONDS.toNanos(LEVEL_THRESHOLD_SECONDS[4]));
+            TaskHandle fastTask = taskExecutor.addTask(new TaskId("fast", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            PrioritizedSplitRunner slowSplit1 = createSplit(slowTask, ticker);
+            PrioritizedSplitRunner slowSplit2 = createSplit(slowTask, ticker);
+            PrioritizedSplitRunner fastSplit = createSplit(fastTask, ticker);
+            assertEquals(slowSplit1.getPriority().getLevel(), 4);
+            assertEquals(fastSplit.getPriority().getLevel(), 0);
+
+            // splits offered by a thread that is not a runner are spread over the shards, so
+            // the level 4 splits go to the first shard and the level 0 split to the second
+            splitQueue.offer(slowSplit1);
+            splitQueue.offer(fastSplit);
+            splitQueue.offer(slowSplit2);
+
+            // the level is selected across all shards, so the runner of the first shard takes the level 0 split first
+            assertSame(splitQueue.take(0), fastSplit);
+            assertSame(splitQueue.take(0), slowSplit1);
+            // the runner of the second shard takes splits from the first when its own shard is empty
+            assertSame(splitQueue.take(1), slowSplit2);
+            assertEquals(splitQueue.size(), 0);
+            assertEquals(splitQueue.getAvailablePermits(), 0);
+
+            // the permits of removed splits are reclaimed
+            splitQueue.offer(slowSplit1);
+            splitQueue.offer(fastSplit);
+            splitQueue.remove(slowSplit1);
+            splitQueue.removeAll(ImmutableList.of(fastSplit));
+            assertEquals(splitQueue.size(), 0);
+            assertEquals(splitQueue.getAvailablePermits(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test
+    public void testQueryFairScheduling()
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, new EmbedVersion(new ServerConfig()), splitQueue, true, new TestingTicker());
+
+        try {
+            TaskHandle stage0 = taskExecutor.addTask(new TaskId("query", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TaskHandle stage1 = taskExecutor.addTask(new TaskId("query", 1, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            TaskHandle other = taskExecutor.addTask(new TaskId("other", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            // time scheduled for one task of a query is charged to all of its tasks
+            stage0.addScheduledNanos(SECONDS.toNanos(LEVEL_THRESHOLD_SECONDS[1]));
+            assertEquals(stage0.getPriority().getLevel(), 1);
+            assertEquals(stage1.getPriority().getLevel(), 1);
+            assertEquals(stage1.getPriority().getLevelPriority(), stage0.getPriority().getLevelPriority());
+            assertEquals(other.getPriority().getLevel(), 0);
+
+            // but each task keeps track of its own scheduled time
+            assertEquals(stage0.getScheduledNanos(), SECONDS.toNanos(LEVEL_THRESHOLD_SECONDS[1]));
+            assertEquals(stage1.getScheduledNanos(), 0);
+
+            // the shared priority is dropped with the last task of the query
+            taskExecutor.removeTask(stage0);
+            taskExecutor.removeTask(stage1);
+            TaskHandle stage2 = taskExecutor.addTask(new TaskId("query", 2, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            assertEquals(stage2.getPriority().getLevel(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
@@ -449,6 +563,12 @@ public class TestTaskExecutor
         }
     }
 
+    private static PrioritizedSplitRunner createSplit(TaskHandle taskHandle, TestingTicker ticker)
+    {
+        TestingJob job = new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0);
+        return new PrioritizedSplitRunner(taskHandle, job, ticker, new CounterStat(), new CounterStat(), new TimeStat(), new TimeStat());
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
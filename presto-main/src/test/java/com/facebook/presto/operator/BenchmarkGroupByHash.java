@@ -57,6 +57,8 @@ import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 
@@ -73,6 +75,7 @@ public class BenchmarkGroupByHash
     private static final String GROUP_COUNT_STRING = "3000000";
     private static final int GROUP_COUNT = Integer.parseInt(GROUP_COUNT_STRING);
     private static final int EXPECTED_SIZE = 10_000;
+    private static final List<Type> FIXED_WIDTH_TYPES = ImmutableList.of(BIGINT, INTEGER, TINYINT);
 
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
@@ -137,6 +140,27 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(FixedWidthBenchmarkData data)
+    {
+        GroupByHash groupByHash = data.createGroupByHash();
+        data.getPages().forEach(p -> groupByHash.getGroupIds(p).process());
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -222,6 +246,41 @@ public class BenchmarkGroupByHash
         return pages.build();
     }
 
+    private static List<Page> createFixedWidthPages(int positionCount, int groupCount, boolean hashEnabled)
+    {
+        List<Type> types = FIXED_WIDTH_TYPES;
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        if (hashEnabled) {
+            types = ImmutableList.copyOf(Iterables.concat(types, ImmutableList.of(BIGINT)));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int position = 0; position < positionCount; position++) {
+            int rand = ThreadLocalRandom.current().nextInt(groupCount);
+            // the tinyint key is functionally dependent on the others, like a flag column
+            long bigintValue = rand / 1024;
+            long integerValue = rand % 1024;
+            long tinyintValue = rand % 2;
+            pageBuilder.declarePosition();
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(0), bigintValue);
+            INTEGER.writeLong(pageBuilder.getBlockBuilder(1), integerValue);
+            TINYINT.writeLong(pageBuilder.getBlockBuilder(2), tinyintValue);
+            if (hashEnabled) {
+                long hash = 0;
+                hash = 31 * hash + BigintOperators.hashCode(bigintValue);
+                hash = 31 * hash + BigintOperators.hashCode(integerValue);
+                hash = 31 * hash + BigintOperators.hashCode(tinyintValue);
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(FIXED_WIDTH_TYPES.size()), hash);
+            }
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pages.build();
+    }
+
     private static List<Page> createVarcharPages(int positionCount, int groupCount, int channelCount, boolean hashEnabled)
     {
         List<Type> types = Collections.nCopies(channelCount, VARCHAR);
@@ -321,6 +380,47 @@ public class BenchmarkGroupByHash
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class FixedWidthBenchmarkData
+    {
+        @Param(GROUP_COUNT_STRING)
+        private int groupCount = GROUP_COUNT;
+
+        @Param({"true", "false"})
+        private boolean hashEnabled = true;
+
+        @Param({"fixedWidth", "multiChannel"})
+        private String groupByHashType = "fixedWidth";
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            pages = createFixedWidthPages(POSITIONS, groupCount, hashEnabled);
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public GroupByHash createGroupByHash()
+        {
+            int[] channels = {0, 1, 2};
+            Optional<Integer> hashChannel = hashEnabled ? Optional.of(FIXED_WIDTH_TYPES.size()) : Optional.empty();
+            switch (groupByHashType) {
+                case "fixedWidth":
+                    return new FixedWidthGroupByHash(FIXED_WIDTH_TYPES, channels, hashChannel, EXPECTED_SIZE, NOOP);
+                case "multiChannel":
+                    return new MultiChannelGroupByHash(FIXED_WIDTH_TYPES, channels, hashChannel, EXPECTED_SIZE, false, getJoinCompiler(false), NOOP);
+                default:
+                    throw new UnsupportedOperationException("Unsupported groupByHashType");
+            }
+        }
+    }
+
     @SuppressWarnings("FieldMayBeFinal")
     @State(Scope.Thread)
     public static class BenchmarkData
@@ -420,6 +520,10 @@ public class BenchmarkGroupByHash
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
 
+        FixedWidthBenchmarkData fixedWidthBenchmarkData = new FixedWidthBenchmarkData();
+        fixedWidthBenchmarkData.setup();
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(fixedWidthBenchmarkData);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkGroupByHash.class.getSimpleName() + ".*")
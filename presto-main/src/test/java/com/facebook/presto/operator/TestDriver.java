@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.execution.ScheduledSplit;
 import com.facebook.presto.execution.TaskSource;
 import com.facebook.presto.memory.context.LocalMemoryContext;
@@ -32,8 +33,10 @@ import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.PageConsumerOperator;
 import com.facebook.presto.testing.TestingTransactionHandle;
+import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -43,7 +46,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.Closeable;
+import java.io.File;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -60,11 +65,14 @@ import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
-import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -179,7 +187,8 @@ public class TestDriver
                                 .build());
                     }
                 },
-                ImmutableList.of());
+                ImmutableList.of(),
+                Optional.empty());
 
         PageConsumerOperator sink = createSinkOperator(types);
         Driver driver = Driver.createDriver(driverContext, source, sink);
@@ -200,6 +209,48 @@ public class TestDriver
         assertTrue(source.isFinished());
     }
 
+    @Test
+    public void testFragmentResultCacheHit()
+            throws Exception
+    {
+        File cacheDirectory = Files.createTempDir();
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = new FileFragmentResultCacheManager(
+                new FileFragmentResultCacheConfig()
+                        .setCachingEnabled(true)
+                        .setBaseDirectory(cacheDirectory.toURI()),
+                new BlockEncodingManager(new TypeRegistry()),
+                stats,
+                newDirectExecutorService());
+        try {
+            List<Type> types = ImmutableList.of(VARCHAR, BIGINT, BIGINT);
+            List<Page> input = rowPagesBuilder(types)
+                    .addSequencePage(10, 20, 30, 40)
+                    .addSequencePage(10, 50, 60, 70)
+                    .build();
+
+            // the first run reads the split and populates the cache
+            MaterializedResult expected = runCachedDriver(driverContext, types, (session, split, columns) -> new FixedPageSource(input), cacheManager);
+            assertEquals(stats.getCacheMiss(), 1);
+            assertEquals(stats.getCacheEntries(), 1);
+            assertEquals(expected.getRowCount(), 20);
+
+            // the second run is served from the cache without reading the split
+            DriverContext secondDriverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                    .addPipelineContext(0, true, true, false)
+                    .addDriverContext();
+            MaterializedResult actual = runCachedDriver(secondDriverContext, types, (session, split, columns) -> {
+                throw new AssertionError("split should not be read on a cache hit");
+            }, cacheManager);
+            assertEquals(stats.getCacheHit(), 1);
+            assertEquals(actual, expected);
+        }
+        finally {
+            cacheManager.destroy();
+            deleteRecursively(cacheDirectory.toPath(), ALLOW_INSECURE);
+        }
+    }
+
     @Test
     public void testBrokenOperatorCloseWhileProcessing()
             throws Exception
@@ -359,6 +410,33 @@ public class TestDriver
         return new Split(new ConnectorId("test"), TestingTransactionHandle.create(), new MockSplit());
     }
 
+    private static MaterializedResult runCachedDriver(DriverContext driverContext, List<Type> types, PageSourceProvider pageSourceProvider, FragmentResultCacheManager cacheManager)
+    {
+        PlanNodeId sourceId = new PlanNodeId("source");
+        TableScanOperator source = new TableScanOperator(
+                driverContext.addOperatorContext(0, new PlanNodeId("test"), "values"),
+                sourceId,
+                pageSourceProvider,
+                ImmutableList.of(),
+                Optional.empty());
+        MaterializedResult.Builder resultBuilder = MaterializedResult.resultBuilder(driverContext.getSession(), types);
+        PageConsumerOperator sink = new PageConsumerOperator(driverContext.addOperatorContext(1, new PlanNodeId("test"), "sink"), resultBuilder::page, Function.identity());
+
+        Driver driver = Driver.createDriver(driverContext, ImmutableList.of(source, sink), Optional.of(new FragmentResultCacheContext(cacheManager, "plan")));
+        Split split = new Split(new ConnectorId("test"), TestingTransactionHandle.create(), new MockSplit(Optional.of("file:0:100")));
+        driver.updateSource(new TaskSource(sourceId, ImmutableSet.of(new ScheduledSplit(0, sourceId, split)), true));
+
+        assertTrue(driver.processFor(new Duration(1, TimeUnit.SECONDS)).isDone());
+        assertTrue(driver.isFinished());
+        assertTrue(sink.isFinished());
+
+        // the pages buffered for the cache, or read from it, are accounted to the output operator until it consumes them
+        OperatorStats sinkStats = driverContext.getDriverStats().getOperatorStats().get(1);
+        assertTrue(sinkStats.getPeakSystemMemoryReservation().toBytes() > 0);
+        assertEquals(driverContext.getSystemMemoryUsage(), 0);
+        return resultBuilder.build();
+    }
+
     private PageConsumerOperator createSinkOperator(List<Type> types)
     {
         // materialize the output to catch some type errors
@@ -484,7 +562,7 @@ public class TestDriver
                 PageSourceProvider pageSourceProvider,
                 Iterable<ColumnHandle> columns)
         {
-            super(operatorContext, planNodeId, pageSourceProvider, columns);
+            super(operatorContext, planNodeId, pageSourceProvider, columns, Optional.empty());
         }
 
         @Override
@@ -508,7 +586,7 @@ public class TestDriver
                 PageSourceProvider pageSourceProvider,
                 Iterable<ColumnHandle> columns)
         {
-            super(operatorContext, planNodeId, pageSourceProvider, columns);
+            super(operatorContext, planNodeId, pageSourceProvider, columns, Optional.empty());
         }
 
         @Override
@@ -521,6 +599,18 @@ public class TestDriver
     private static class MockSplit
             implements ConnectorSplit
     {
+        private final Optional<String> splitIdentifier;
+
+        public MockSplit()
+        {
+            this(Optional.empty());
+        }
+
+        public MockSplit(Optional<String> splitIdentifier)
+        {
+            this.splitIdentifier = splitIdentifier;
+        }
+
         @Override
         public boolean isRemotelyAccessible()
         {
@@ -538,5 +628,11 @@ public class TestDriver
         {
             return null;
         }
+
+        @Override
+        public Optional<String> getSplitIdentifier()
+        {
+            return splitIdentifier;
+        }
     }
 }
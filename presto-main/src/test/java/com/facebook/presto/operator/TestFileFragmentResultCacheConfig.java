@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestFileFragmentResultCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(FileFragmentResultCacheConfig.class)
+                .setCachingEnabled(false)
+                .setBaseDirectory(null)
+                .setMaxCacheSize(new DataSize(2, GIGABYTE))
+                .setMaxSingleCachedEntrySize(new DataSize(20, MEGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+            throws Exception
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("fragment-result-cache.enabled", "true")
+                .put("fragment-result-cache.base-directory", "tmp/fragment-result-cache")
+                .put("fragment-result-cache.max-cache-size", "100GB")
+                .put("fragment-result-cache.max-single-cached-entry-size", "1GB")
+                .build();
+
+        FileFragmentResultCacheConfig expected = new FileFragmentResultCacheConfig()
+                .setCachingEnabled(true)
+                .setBaseDirectory(new URI("tmp/fragment-result-cache"))
+                .setMaxCacheSize(new DataSize(100, GIGABYTE))
+                .setMaxSingleCachedEntrySize(new DataSize(1, GIGABYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.MoreFiles.listFiles;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestFileFragmentResultCacheManager
+{
+    private static final String PLAN = "plan";
+    private static final ConnectorId CONNECTOR_ID = new ConnectorId("test");
+
+    private final File cacheDirectory = Files.createTempDir();
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        deleteRecursively(cacheDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPutAndGet()
+            throws Exception
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = createCacheManager(stats, new DataSize(10, MEGABYTE));
+        Split split = createSplit(Optional.of("file:0:100"));
+        Page page = createPage(0, 10);
+
+        assertFalse(cacheManager.get(PLAN, split).isPresent());
+        assertEquals(stats.getCacheMiss(), 1);
+
+        cacheManager.put(PLAN, split, ImmutableList.of(page, page));
+        assertEquals(stats.getCacheEntries(), 1);
+        assertTrue(stats.getCacheSizeInBytes() > 0);
+
+        Optional<Iterator<Page>> result = cacheManager.get(PLAN, split);
+        assertTrue(result.isPresent());
+        assertEquals(stats.getCacheHit(), 1);
+        List<Page> pages = ImmutableList.copyOf(result.get());
+        assertEquals(pages.size(), 2);
+        assertPageEquals(ImmutableList.of(BIGINT), pages.get(0), page);
+        assertPageEquals(ImmutableList.of(BIGINT), pages.get(1), page);
+
+        // a different plan or split does not hit the cache
+        assertFalse(cacheManager.get("other plan", split).isPresent());
+        assertFalse(cacheManager.get(PLAN, createSplit(Optional.of("file:100:100"))).isPresent());
+        assertEquals(stats.getCacheMiss(), 3);
+
+        cacheManager.destroy();
+        assertEquals(stats.getCacheEntries(), 0);
+        assertEquals(stats.getCacheSizeInBytes(), 0);
+        assertEquals(listFiles(cacheDirectory.toPath()).size(), 0);
+    }
+
+    @Test
+    public void testUncacheableResults()
+            throws Exception
+    {
+        FragmentCacheStats stats = new FragmentCacheStats();
+        FileFragmentResultCacheManager cacheManager = createCacheManager(stats, new DataSize(100, BYTE));
+
+        // splits without an identifier are never cached
+        Split split = createSplit(Optional.empty());
+        cacheManager.put(PLAN, split, ImmutableList.of(createPage(0, 1)));
+        assertFalse(cacheManager.get(PLAN, split).isPresent());
+
+        // results larger than the maximum entry size are dropped
+        split = createSplit(Optional.of("file:0:100"));
+        cacheManager.put(PLAN, split, ImmutableList.of(createPage(0, 1000)));
+        assertFalse(cacheManager.get(PLAN, split).isPresent());
+
+        assertEquals(stats.getCacheEntries(), 0);
+        assertEquals(listFiles(cacheDirectory.toPath()).size(), 0);
+        cacheManager.destroy();
+    }
+
+    private FileFragmentResultCacheManager createCacheManager(FragmentCacheStats stats, DataSize maxSingleCachedEntrySize)
+    {
+        FileFragmentResultCacheConfig config = new FileFragmentResultCacheConfig()
+                .setCachingEnabled(true)
+                .setBaseDirectory(cacheDirectory.toURI())
+                .setMaxSingleCachedEntrySize(maxSingleCachedEntrySize);
+        return new FileFragmentResultCacheManager(config, new BlockEncodingManager(new TypeRegistry()), stats, newDirectExecutorService());
+    }
+
+    private static Split createSplit(Optional<String> splitIdentifier)
+    {
+        return new Split(CONNECTOR_ID, TestingTransactionHandle.create(), new TestingIdentifiedSplit(splitIdentifier));
+    }
+
+    private static Page createPage(long start, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            BIGINT.writeLong(blockBuilder, start + i);
+        }
+        return new Page(blockBuilder.build());
+    }
+
+    private static class TestingIdentifiedSplit
+            implements ConnectorSplit
+    {
+        private final Optional<String> splitIdentifier;
+
+        public TestingIdentifiedSplit(Optional<String> splitIdentifier)
+        {
+            this.splitIdentifier = splitIdentifier;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+
+        @Override
+        public Optional<String> getSplitIdentifier()
+        {
+            return splitIdentifier;
+        }
+    }
+}
@@ -32,21 +32,28 @@ import org.testng.annotations.Test;
 
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createTypedLongsBlock;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
 import static com.google.common.math.DoubleMath.log2;
+import static java.lang.Math.toIntExact;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -232,6 +239,44 @@ public class TestGroupByHash
         assertTrue(groupByHash.contains(0, new Page(testValuesBlock, testStringValuesBlock, testHashBlock), hashChannels));
     }
 
+    @Test
+    public void testFixedWidthKeys()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, TINYINT);
+        Block bigintBlock = createLongsBlock(1L, 1L, null, -1L, 1L, null, Long.MAX_VALUE);
+        Block integerBlock = createIntsBlock(2, 2, 2, Integer.MIN_VALUE, 3, null, -7);
+        Block tinyintBlock = createTypedLongsBlock(TINYINT, Arrays.asList(3L, 3L, 3L, -128L, 3L, null, 127L));
+        Block hashBlock = getHashBlock(types, bigintBlock, integerBlock, tinyintBlock);
+        Page page = new Page(bigintBlock, integerBlock, tinyintBlock, hashBlock);
+        int[] hashChannels = {0, 1, 2};
+
+        GroupByHash groupByHash = createGroupByHash(TEST_SESSION, types, hashChannels, Optional.of(3), 1, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+
+        // rows 0 and 1 are the same group, every other row is a new group
+        assertEquals(groupByHash.getGroupCount(), 6);
+        assertEquals(groupIds.getGroupId(0), groupIds.getGroupId(1));
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int groupId = toIntExact(groupIds.getGroupId(position));
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            assertEquals(groupByHash.getRawHash(groupId), BIGINT.getLong(hashBlock, position));
+            assertTrue(groupByHash.contains(position, page, hashChannels));
+        }
+        Page outputPage = pageBuilder.build();
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            assertBlockEquals(groupByHash.getTypes().get(channel), outputPage.getBlock(channel), page.getBlock(channel));
+        }
+
+        Page otherPage = new Page(createLongsBlock(1L), createIntsBlock(2), createTypedLongsBlock(TINYINT, ImmutableList.of(4L)));
+        assertFalse(groupByHash.contains(0, otherPage, hashChannels));
+    }
+
     @Test
     public void testForceRehash()
     {
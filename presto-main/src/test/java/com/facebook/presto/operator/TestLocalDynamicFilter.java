@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalDynamicFilter
+{
+    private static final ColumnHandle PROBE_COLUMN = new TestingColumnHandle("probe");
+
+    @Test
+    public void testCollectDistinctValues()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(10, 2);
+        ListenableFuture<TupleDomain<ColumnHandle>> result = dynamicFilter.getResultFuture();
+
+        DynamicFilterCollector first = createCollector(dynamicFilter);
+        first.addPage(new Page(createLongsBlock(1L, null, 3L)));
+        first.report();
+        assertFalse(result.isDone());
+
+        DynamicFilterCollector second = createCollector(dynamicFilter);
+        second.addPage(new Page(createLongsBlock(3L, 5L)));
+        second.report();
+        second.reportUnknown();
+        assertTrue(result.isDone());
+
+        assertEquals(
+                getDone(result),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.multipleValues(BIGINT, ImmutableList.of(1L, 3L, 5L)))));
+    }
+
+    @Test
+    public void testCollectRangeAboveDistinctValuesLimit()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(2, 1);
+
+        DynamicFilterCollector collector = createCollector(dynamicFilter);
+        collector.addPage(new Page(createLongsBlock(7L, 2L, 9L, null)));
+        collector.report();
+
+        assertEquals(
+                getDone(dynamicFilter.getResultFuture()),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 2L, true, 9L, true)), false))));
+    }
+
+    @Test
+    public void testCollectRangeAboveDistinctValuesSize()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(10, 1);
+
+        // three values of 512KB exceed the size limit of the distinct values
+        String large = Strings.repeat("x", 512 * 1024);
+        DynamicFilterCollector collector = new DynamicFilterCollector(dynamicFilter, ImmutableList.of(0), ImmutableList.of(VARCHAR), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        collector.addPage(new Page(createStringsBlock("b" + large, "a" + large, "c" + large)));
+        collector.report();
+
+        assertEquals(
+                getDone(dynamicFilter.getResultFuture()),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(ValueSet.ofRanges(Range.range(VARCHAR, utf8Slice("a" + large), true, utf8Slice("c" + large), true)), false))));
+    }
+
+    @Test
+    public void testMemoryAccounting()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(10, 1);
+        AggregatedMemoryContext memoryContext = newSimpleAggregatedMemoryContext();
+
+        DynamicFilterCollector collector = new DynamicFilterCollector(dynamicFilter, ImmutableList.of(0), ImmutableList.of(BIGINT), memoryContext.newLocalMemoryContext("test"));
+        collector.addPage(new Page(createLongsBlock(1L, 2L, 3L)));
+        assertTrue(memoryContext.getBytes() > 0);
+
+        collector.report();
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testEmptyBuildSide()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(10, 2);
+        createCollector(dynamicFilter).report();
+        createCollector(dynamicFilter).report();
+
+        assertTrue(getDone(dynamicFilter.getResultFuture()).isNone());
+    }
+
+    @Test
+    public void testUnknownPartition()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(10, 2);
+
+        DynamicFilterCollector collector = createCollector(dynamicFilter);
+        collector.addPage(new Page(createLongsBlock(1L)));
+        collector.report();
+        createCollector(dynamicFilter).reportUnknown();
+
+        assertTrue(getDone(dynamicFilter.getResultFuture()).isAll());
+    }
+
+    private static LocalDynamicFilter createDynamicFilter(int maxDistinctValues, int partitionCount)
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, PROBE_COLUMN), maxDistinctValues, new Duration(1, SECONDS));
+        dynamicFilter.setBuildPartitionCount(partitionCount);
+        return dynamicFilter;
+    }
+
+    private static DynamicFilterCollector createCollector(LocalDynamicFilter dynamicFilter)
+    {
+        return new DynamicFilterCollector(dynamicFilter, ImmutableList.of(0), ImmutableList.of(BIGINT), newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+    }
+}
@@ -70,6 +70,11 @@ public class TestOperatorStats
             new DataSize(23, BYTE),
             new DataSize(24, BYTE),
             new DataSize(25, BYTE),
+            new Duration(28, NANOSECONDS),
+            26,
+            27,
+            29,
+            new Duration(30, NANOSECONDS),
             Optional.empty(),
             NON_MERGEABLE_INFO);
 
@@ -111,6 +116,11 @@ public class TestOperatorStats
             new DataSize(23, BYTE),
             new DataSize(24, BYTE),
             new DataSize(25, BYTE),
+            new Duration(28, NANOSECONDS),
+            26,
+            27,
+            29,
+            new Duration(30, NANOSECONDS),
             Optional.empty(),
             MERGEABLE_INFO);
 
@@ -161,6 +171,11 @@ public class TestOperatorStats
         assertEquals(actual.getPeakSystemMemoryReservation(), new DataSize(23, BYTE));
         assertEquals(actual.getPeakTotalMemoryReservation(), new DataSize(24, BYTE));
         assertEquals(actual.getSpilledDataSize(), new DataSize(25, BYTE));
+        assertEquals(actual.getUnspillWaitWall(), new Duration(28, NANOSECONDS));
+        assertEquals(actual.getDynamicFilterSplitsRemoved(), 26);
+        assertEquals(actual.getDynamicFilterRowsRemoved(), 27);
+        assertEquals(actual.getInterpretedPages(), 29);
+        assertEquals(actual.getExpressionCompileWall(), new Duration(30, NANOSECONDS));
         assertEquals(actual.getInfo().getClass(), SplitOperatorInfo.class);
         assertEquals(((SplitOperatorInfo) actual.getInfo()).getSplitInfo(), NON_MERGEABLE_INFO.getSplitInfo());
     }
@@ -203,6 +218,11 @@ public class TestOperatorStats
         assertEquals(actual.getPeakSystemMemoryReservation(), new DataSize(23, BYTE));
         assertEquals(actual.getPeakTotalMemoryReservation(), new DataSize(24, BYTE));
         assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 25, BYTE));
+        assertEquals(actual.getUnspillWaitWall(), new Duration(3 * 28, NANOSECONDS));
+        assertEquals(actual.getDynamicFilterSplitsRemoved(), 3 * 26);
+        assertEquals(actual.getDynamicFilterRowsRemoved(), 3 * 27);
+        assertEquals(actual.getInterpretedPages(), 3 * 29);
+        assertEquals(actual.getExpressionCompileWall(), new Duration(3 * 30, NANOSECONDS));
         assertNull(actual.getInfo());
     }
 
@@ -244,6 +264,11 @@ public class TestOperatorStats
         assertEquals(actual.getPeakSystemMemoryReservation(), new DataSize(23, BYTE));
         assertEquals(actual.getPeakTotalMemoryReservation(), new DataSize(24, BYTE));
         assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 25, BYTE));
+        assertEquals(actual.getUnspillWaitWall(), new Duration(3 * 28, NANOSECONDS));
+        assertEquals(actual.getDynamicFilterSplitsRemoved(), 3 * 26);
+        assertEquals(actual.getDynamicFilterRowsRemoved(), 3 * 27);
+        assertEquals(actual.getInterpretedPages(), 3 * 29);
+        assertEquals(actual.getExpressionCompileWall(), new Duration(3 * 30, NANOSECONDS));
         assertEquals(actual.getInfo().getClass(), PartitionedOutputInfo.class);
         assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPagesAdded(), 3 * MERGEABLE_INFO.getPagesAdded());
     }
@@ -14,24 +14,35 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
@@ -40,9 +51,14 @@ import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.Iterables.getLast;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 
 @Test(singleThreaded = true)
 public class TestOrderByOperator
@@ -50,6 +66,13 @@ public class TestOrderByOperator
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
     private DriverContext driverContext;
+    private DummySpillerFactory spillerFactory;
+
+    @DataProvider
+    public static Object[][] spillEnabled()
+    {
+        return new Object[][] {{false}, {true}};
+    }
 
     @BeforeMethod
     public void setUp()
@@ -59,6 +82,7 @@ public class TestOrderByOperator
         driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
                 .addPipelineContext(0, true, true, false)
                 .addDriverContext();
+        spillerFactory = new DummySpillerFactory();
     }
 
     @AfterMethod
@@ -68,8 +92,8 @@ public class TestOrderByOperator
         scheduledExecutor.shutdownNow();
     }
 
-    @Test
-    public void testSingleFieldKey()
+    @Test(dataProvider = "spillEnabled")
+    public void testSingleFieldKey(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
                 .row(1L, 0.1)
@@ -87,7 +111,11 @@ public class TestOrderByOperator
                 10,
                 ImmutableList.of(0),
                 ImmutableList.of(ASC_NULLS_LAST),
-                new PagesIndex.TestingFactory(false));
+                new PagesIndex.TestingFactory(false),
+                spillEnabled,
+                Optional.of(spillerFactory),
+                64,
+                new OrderingCompiler());
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE)
                 .row(-0.1)
@@ -99,8 +127,8 @@ public class TestOrderByOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
-    @Test
-    public void testMultiFieldKey()
+    @Test(dataProvider = "spillEnabled")
+    public void testMultiFieldKey(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, BIGINT)
                 .row("a", 1L)
@@ -118,7 +146,11 @@ public class TestOrderByOperator
                 10,
                 ImmutableList.of(0, 1),
                 ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST),
-                new PagesIndex.TestingFactory(false));
+                new PagesIndex.TestingFactory(false),
+                spillEnabled,
+                Optional.of(spillerFactory),
+                64,
+                new OrderingCompiler());
 
         MaterializedResult expected = MaterializedResult.resultBuilder(driverContext.getSession(), VARCHAR, BIGINT)
                 .row("a", 4L)
@@ -130,8 +162,8 @@ public class TestOrderByOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
-    @Test
-    public void testReverseOrder()
+    @Test(dataProvider = "spillEnabled")
+    public void testReverseOrder(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
                 .row(1L, 0.1)
@@ -149,7 +181,11 @@ public class TestOrderByOperator
                 10,
                 ImmutableList.of(0),
                 ImmutableList.of(DESC_NULLS_LAST),
-                new PagesIndex.TestingFactory(false));
+                new PagesIndex.TestingFactory(false),
+                spillEnabled,
+                Optional.of(spillerFactory),
+                64,
+                new OrderingCompiler());
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT)
                 .row(4L)
@@ -161,6 +197,131 @@ public class TestOrderByOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testMultiPassMerge()
+    {
+        RowPagesBuilder inputBuilder = rowPagesBuilder(BIGINT);
+        for (int page = 0; page < 10; page++) {
+            for (int value = 0; value < 10; value++) {
+                inputBuilder.row((long) (value * 10 + page));
+            }
+            inputBuilder.pageBreak();
+        }
+        List<Page> input = inputBuilder.build();
+
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(DESC_NULLS_LAST),
+                new PagesIndex.TestingFactory(false),
+                true,
+                Optional.of(spillerFactory),
+                3,
+                new OrderingCompiler());
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT);
+        for (long value = 99; value >= 0; value--) {
+            expected.row(value);
+        }
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expected.build());
+        // one run per input page, merged 3 at a time: 10 runs -> 4 runs (3 merges) -> 2 runs (1 merge)
+        assertEquals(spillerFactory.getSpillsCount(), 10 + 3 + 1);
+    }
+
+    @Test
+    public void testMergeReportsBlockedWhileSpilling()
+            throws Exception
+    {
+        // every spill completes only when the test says so, as if it was written by the spill executor
+        List<SettableFuture<?>> pendingSpills = new ArrayList<>();
+        SpillerFactory blockingSpillerFactory = (types, spillContext, memoryContext) -> {
+            Spiller spiller = spillerFactory.create(types, spillContext, memoryContext);
+            return new Spiller()
+            {
+                @Override
+                public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+                {
+                    getFutureValue(spiller.spill(pageIterator));
+                    SettableFuture<?> future = SettableFuture.create();
+                    pendingSpills.add(future);
+                    return future;
+                }
+
+                @Override
+                public List<Iterator<Page>> getSpills()
+                {
+                    return spiller.getSpills();
+                }
+
+                @Override
+                public void close()
+                {
+                    spiller.close();
+                }
+            };
+        };
+
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(ASC_NULLS_LAST),
+                new PagesIndex.TestingFactory(false),
+                true,
+                Optional.of(blockingSpillerFactory),
+                2,
+                new OrderingCompiler());
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        List<Page> input = rowPagesBuilder(BIGINT)
+                .row(3L)
+                .pageBreak()
+                .row(1L)
+                .pageBreak()
+                .row(4L)
+                .pageBreak()
+                .row(2L)
+                .build();
+        for (Page page : input.subList(0, 3)) {
+            operator.addInput(page);
+            ListenableFuture<?> revoked = operator.startMemoryRevoke();
+            assertFalse(revoked.isDone());
+            assertFalse(operator.needsInput());
+            getLast(pendingSpills).set(null);
+            operator.finishMemoryRevoke();
+        }
+        operator.addInput(input.get(3));
+        operator.finish();
+
+        // 4 runs, merged 2 at a time: the last run is spilled, then 2 runs are written before the final merge
+        int blockedSpills = 0;
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        while (!operator.isFinished()) {
+            if (!operator.isBlocked().isDone()) {
+                assertNull(operator.getOutput());
+                getLast(pendingSpills).set(null);
+                blockedSpills++;
+                continue;
+            }
+            Page page = operator.getOutput();
+            if (page != null) {
+                output.add(page);
+            }
+        }
+        assertEquals(blockedSpills, 3);
+        assertEquals(toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), output.build()).getMaterializedRows(),
+                resultBuilder(driverContext.getSession(), BIGINT).row(1L).row(2L).row(3L).row(4L).build().getMaterializedRows());
+        operator.close();
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded per-node user memory limit of 10B.*")
     public void testMemoryLimit()
     {
@@ -184,7 +345,11 @@ public class TestOrderByOperator
                 10,
                 ImmutableList.of(0),
                 ImmutableList.of(ASC_NULLS_LAST),
-                new PagesIndex.TestingFactory(false));
+                new PagesIndex.TestingFactory(false),
+                false,
+                Optional.empty(),
+                64,
+                new OrderingCompiler());
 
         toPages(operatorFactory, driverContext, input);
     }
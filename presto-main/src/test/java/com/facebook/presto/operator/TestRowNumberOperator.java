@@ -20,6 +20,7 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
@@ -249,6 +250,51 @@ public class TestRowNumberOperator
         assertEquals(Sets.intersection(expectedPartition3Set, actualSet).size(), 2);
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testRowNumberPartitionedSpill(boolean hashEnabled)
+    {
+        DriverContext driverContext = getDriverContext();
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, BIGINT);
+        for (int page = 0; page < 5; page++) {
+            for (int position = 0; position < 100; position++) {
+                rowPagesBuilder.row((long) (position % 20), (long) (page * 100 + position));
+            }
+            rowPagesBuilder.pageBreak();
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+        RowNumberOperator.RowNumberOperatorFactory operatorFactory = new RowNumberOperator.RowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                hashEnabled ? Ints.asList(0, 1, 2) : Ints.asList(0, 1),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Optional.empty(),
+                rowPagesBuilder.getHashChannel(),
+                10,
+                joinCompiler,
+                true,
+                Optional.of(new GenericPartitioningSpillerFactory(spillerFactory)));
+
+        List<Page> pages = toPages(operatorFactory, driverContext, input);
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+
+        // every partition is numbered from 1 to its row count, whatever order its rows were read back in
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT);
+        for (long partition = 0; partition < 20; partition++) {
+            for (long rowNumber = 1; rowNumber <= 25; rowNumber++) {
+                expected.row(partition, rowNumber);
+            }
+        }
+        List<Page> partitionAndRowNumber = pages.stream()
+                .map(page -> new Page(page.getBlock(0), page.getBlock(page.getChannelCount() - 1)))
+                .collect(toImmutableList());
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT, BIGINT), partitionAndRowNumber);
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testRowNumberPartitionedLimit(boolean hashEnabled)
     {
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.SequencePageBuilder;
+import com.facebook.presto.Session;
 import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.metadata.FunctionManager;
 import com.facebook.presto.metadata.Metadata;
@@ -26,6 +27,7 @@ import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.TestPageProcessor.LazyPagePageProjection;
 import com.facebook.presto.operator.project.TestPageProcessor.SelectAllFilter;
 import com.facebook.presto.operator.scalar.AbstractTestFunctions;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorId;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.FixedPageSource;
@@ -34,16 +36,24 @@ import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.LazyBlock;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
 import com.facebook.presto.testing.TestingSplit;
 import com.facebook.presto.testing.TestingTransactionHandle;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -67,6 +77,7 @@ import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
+import static io.airlift.concurrent.MoreFutures.getDone;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
@@ -111,7 +122,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(VARCHAR),
                 new DataSize(0, BYTE),
-                0);
+                0,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(driverContext);
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
@@ -124,6 +136,61 @@ public class TestScanFilterAndProjectOperator
         assertEquals(actual, expected);
     }
 
+    @Test
+    public void testPageSourceDynamicFilter()
+    {
+        ColumnHandle column = new TestingColumnHandle("column");
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, column), 10, new Duration(10, SECONDS));
+        dynamicFilter.setBuildPartitionCount(1);
+        dynamicFilter.addPartition(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.multipleValues(BIGINT, ImmutableList.of(3L, 5L, 7L)))));
+
+        Page input = SequencePageBuilder.createSequencePage(ImmutableList.of(BIGINT), 100, 0);
+        List<TupleDomain<ColumnHandle>> connectorDynamicFilters = new ArrayList<>();
+        PageSourceProvider pageSourceProvider = new PageSourceProvider()
+        {
+            @Override
+            public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+            {
+                connectorDynamicFilters.add(dynamicFilter);
+                return new FixedPageSource(ImmutableList.of(input));
+            }
+        };
+
+        DriverContext driverContext = newDriverContext();
+        List<RowExpression> projections = ImmutableList.of(field(0, BIGINT));
+        Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(Optional.empty(), projections, "key");
+        Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(Optional.empty(), projections);
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                new PlanNodeId("0"),
+                pageSourceProvider,
+                cursorProcessor,
+                pageProcessor,
+                ImmutableList.of(column),
+                ImmutableList.of(BIGINT),
+                new DataSize(0, BYTE),
+                0,
+                Optional.of(dynamicFilter));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), toPages(operator));
+        assertEquals(actual.getOnlyColumnAsSet(), ImmutableSet.of(3L, 5L, 7L));
+        assertEquals(actual.getRowCount(), 3);
+        assertEquals(connectorDynamicFilters, ImmutableList.of(getDone(dynamicFilter.getResultFuture())));
+        assertEquals(operator.getOperatorContext().getOperatorStats().getDynamicFilterRowsRemoved(), 97);
+    }
+
     @Test
     public void testPageSourceMergeOutput()
     {
@@ -154,7 +221,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(BIGINT),
                 new DataSize(64, KILOBYTE),
-                2);
+                2,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(newDriverContext());
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
@@ -197,7 +265,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
-                0);
+                0,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(driverContext);
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
@@ -230,7 +299,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(VARCHAR),
                 new DataSize(0, BYTE),
-                0);
+                0,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(driverContext);
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
@@ -282,7 +352,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
-                0);
+                0,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(driverContext);
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
@@ -348,7 +419,8 @@ public class TestScanFilterAndProjectOperator
                 ImmutableList.of(),
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
-                0);
+                0,
+                Optional.empty());
 
         SourceOperator operator = factory.createOperator(driverContext);
         operator.addSplit(new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit()));
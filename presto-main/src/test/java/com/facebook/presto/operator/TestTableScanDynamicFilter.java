@@ -0,0 +1,266 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.operator.TableScanDynamicFilter.ChannelFilter;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.split.PageSourceProvider;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.facebook.presto.testing.TestingSplit;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.facebook.presto.type.ColorType.COLOR;
+import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestTableScanDynamicFilter
+{
+    private static final ColumnHandle COLUMN = new TestingColumnHandle("column");
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+    private final ScheduledExecutorService scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testValuesFilter()
+    {
+        ChannelFilter filter = TableScanDynamicFilter.createChannelFilter(Domain.multipleValues(BIGINT, ImmutableList.of(1L, 3L, 5L)));
+        assertMatches(filter, createLongsBlock(0L, 1L, 2L, 3L, null, 5L, 6L), false, true, false, true, false, true, false);
+
+        filter = TableScanDynamicFilter.createChannelFilter(Domain.create(ValueSet.of(VARCHAR, utf8Slice("apple"), utf8Slice("cherry")), true));
+        assertMatches(filter, createStringsBlock("apple", "banana", null, "cherry"), true, false, true, true);
+    }
+
+    @Test
+    public void testRangesFilter()
+    {
+        Domain domain = Domain.create(
+                ValueSet.ofRanges(
+                        Range.lessThan(BIGINT, -5L),
+                        Range.range(BIGINT, 1L, true, 3L, false),
+                        Range.equal(BIGINT, 7L),
+                        Range.range(BIGINT, 10L, false, 20L, true),
+                        Range.greaterThanOrEqual(BIGINT, 100L)),
+                false);
+        ChannelFilter filter = TableScanDynamicFilter.createChannelFilter(domain);
+
+        List<Long> values = ImmutableList.of(-100L, -6L, -5L, 0L, 1L, 2L, 3L, 6L, 7L, 8L, 10L, 11L, 20L, 21L, 99L, 100L, 1000L);
+        Block block = createLongsBlock(values);
+        for (int position = 0; position < values.size(); position++) {
+            assertEquals(filter.matches(block, position), domain.includesNullableValue(values.get(position)), "value " + values.get(position));
+        }
+        assertFalse(filter.matches(createLongsBlock((Long) null), 0));
+    }
+
+    @Test
+    public void testEquatableValuesFilter()
+    {
+        // the values of a comparable type that is not orderable are not ranges
+        ChannelFilter filter = TableScanDynamicFilter.createChannelFilter(Domain.create(ValueSet.of(COLOR, 1L, 3L), false));
+        assertMatches(filter, createLongsBlock(1L, 2L, 3L), true, false, true);
+
+        filter = TableScanDynamicFilter.createChannelFilter(Domain.create(ValueSet.of(COLOR, 1L, 3L).complement(), false));
+        assertMatches(filter, createLongsBlock(1L, 2L, 3L), false, true, false);
+    }
+
+    @Test
+    public void testAllOrNoneFilter()
+    {
+        assertMatches(TableScanDynamicFilter.createChannelFilter(Domain.notNull(BIGINT)), createLongsBlock(1L, null), true, false);
+        assertMatches(TableScanDynamicFilter.createChannelFilter(Domain.onlyNull(BIGINT)), createLongsBlock(1L, null), false, true);
+    }
+
+    @Test
+    public void testTableScanOperator()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(new Duration(10, SECONDS));
+        dynamicFilter.addPartition(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.multipleValues(BIGINT, ImmutableList.of(3L, 5L, 7L, 1000L)))));
+
+        TestingPageSourceProvider pageSourceProvider = new TestingPageSourceProvider(false);
+        OperatorContext operatorContext = createOperatorContext();
+        TableScanOperator operator = new TableScanOperator(operatorContext, new PlanNodeId("0"), pageSourceProvider, ImmutableList.of(COLUMN), Optional.of(dynamicFilter));
+        operator.addSplit(createSplit());
+        operator.noMoreSplits();
+
+        assertEquals(readValues(operator), ImmutableList.of(3L, 5L, 7L));
+        assertEquals(pageSourceProvider.getDynamicFilters(), ImmutableList.of(getDynamicFilter(dynamicFilter)));
+        assertEquals(operatorContext.getOperatorStats().getDynamicFilterRowsRemoved(), 97);
+        assertEquals(operatorContext.getOperatorStats().getDynamicFilterSplitsRemoved(), 0);
+        assertEquals(operatorContext.getOperatorStats().getInputPositions(), 100);
+    }
+
+    @Test
+    public void testTableScanOperatorSplitPruned()
+    {
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(new Duration(10, SECONDS));
+        dynamicFilter.addPartition(TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 3L))));
+
+        TestingPageSourceProvider pageSourceProvider = new TestingPageSourceProvider(true);
+        OperatorContext operatorContext = createOperatorContext();
+        TableScanOperator operator = new TableScanOperator(operatorContext, new PlanNodeId("0"), pageSourceProvider, ImmutableList.of(COLUMN), Optional.of(dynamicFilter));
+        operator.addSplit(createSplit());
+        operator.noMoreSplits();
+
+        assertEquals(readValues(operator), ImmutableList.of());
+        assertEquals(pageSourceProvider.getDynamicFilters(), ImmutableList.of());
+        assertEquals(operatorContext.getOperatorStats().getDynamicFilterSplitsRemoved(), 1);
+    }
+
+    @Test
+    public void testTableScanOperatorWaitTimeout()
+            throws Exception
+    {
+        // the build side never reports
+        LocalDynamicFilter dynamicFilter = createDynamicFilter(new Duration(10, MILLISECONDS));
+
+        TestingPageSourceProvider pageSourceProvider = new TestingPageSourceProvider(false);
+        TableScanOperator operator = new TableScanOperator(createOperatorContext(), new PlanNodeId("0"), pageSourceProvider, ImmutableList.of(COLUMN), Optional.of(dynamicFilter));
+        operator.addSplit(createSplit());
+        operator.noMoreSplits();
+
+        operator.isBlocked().get(10, SECONDS);
+        assertTrue(operator.isBlocked().isDone());
+        assertEquals(readValues(operator).size(), 100);
+        assertEquals(pageSourceProvider.getDynamicFilters(), ImmutableList.of(TupleDomain.all()));
+    }
+
+    private static void assertMatches(ChannelFilter filter, Block block, boolean... expected)
+    {
+        assertEquals(block.getPositionCount(), expected.length);
+        for (int position = 0; position < expected.length; position++) {
+            assertEquals(filter.matches(block, position), expected[position], "position " + position);
+        }
+    }
+
+    private static LocalDynamicFilter createDynamicFilter(Duration waitTimeout)
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, COLUMN), 10, waitTimeout);
+        dynamicFilter.setBuildPartitionCount(1);
+        return dynamicFilter;
+    }
+
+    private static TupleDomain<ColumnHandle> getDynamicFilter(LocalDynamicFilter dynamicFilter)
+    {
+        assertTrue(dynamicFilter.isDone());
+        return getDone(dynamicFilter.getResultFuture());
+    }
+
+    private OperatorContext createOperatorContext()
+    {
+        return createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext()
+                .addOperatorContext(0, new PlanNodeId("test"), TableScanOperator.class.getSimpleName());
+    }
+
+    private static Split createSplit()
+    {
+        return new Split(new ConnectorId("test"), TestingTransactionHandle.create(), TestingSplit.createLocalSplit());
+    }
+
+    private static List<Long> readValues(Operator operator)
+    {
+        List<Long> values = new ArrayList<>();
+        while (!operator.isFinished()) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    values.add(BIGINT.getLong(page.getBlock(0), position));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static class TestingPageSourceProvider
+            implements PageSourceProvider
+    {
+        private final boolean splitPruned;
+        private final List<TupleDomain<ColumnHandle>> dynamicFilters = new ArrayList<>();
+
+        public TestingPageSourceProvider(boolean splitPruned)
+        {
+            this.splitPruned = splitPruned;
+        }
+
+        @Override
+        public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+        {
+            dynamicFilters.add(dynamicFilter);
+            return new FixedPageSource(ImmutableList.of(createSequencePage(ImmutableList.of(BIGINT), 100, 0)));
+        }
+
+        @Override
+        public boolean isSplitPrunedByDynamicFilter(Session session, Split split, TupleDomain<ColumnHandle> dynamicFilter)
+        {
+            return splitPruned;
+        }
+
+        public List<TupleDomain<ColumnHandle>> getDynamicFilters()
+        {
+            return dynamicFilters;
+        }
+    }
+}
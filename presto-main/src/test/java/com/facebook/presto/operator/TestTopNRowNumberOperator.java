@@ -19,6 +19,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
@@ -39,6 +40,7 @@ import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static com.facebook.presto.operator.TopNRowNumberOperator.TopNRowNumberOperatorFactory;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
@@ -137,6 +139,47 @@ public class TestTopNRowNumberOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testPartitionedSpill()
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (int page = 0; page < 5; page++) {
+            for (int position = 0; position < 100; position++) {
+                rowPagesBuilder.row((long) (position % 10), (long) (page * 100 + position));
+            }
+            rowPagesBuilder.pageBreak();
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        DummySpillerFactory spillerFactory = new DummySpillerFactory();
+        TopNRowNumberOperatorFactory operatorFactory = new TopNRowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, BIGINT),
+                Ints.asList(0, 1),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.DESC_NULLS_LAST),
+                3,
+                false,
+                Optional.empty(),
+                10,
+                joinCompiler,
+                true,
+                Optional.of(new GenericPartitioningSpillerFactory(spillerFactory)));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+        for (long partition = 0; partition < 10; partition++) {
+            expected.row(partition, 490 + partition, 1L);
+            expected.row(partition, 480 + partition, 2L);
+            expected.row(partition, 470 + partition, 3L);
+        }
+
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected.build());
+        assertGreaterThan(spillerFactory.getSpillsCount(), 0L);
+    }
+
     @Test(dataProvider = "partial")
     public void testUnPartitioned(boolean partial)
     {
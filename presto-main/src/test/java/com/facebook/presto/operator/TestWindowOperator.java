@@ -14,6 +14,8 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.operator.WindowInfo.DriverWindowInfo;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.window.FirstValueFunction;
 import com.facebook.presto.operator.window.FrameInfo;
@@ -27,6 +29,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
@@ -34,6 +37,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.List;
@@ -45,6 +49,7 @@ import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.operator.WindowFunctionDefinition.window;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
@@ -56,10 +61,13 @@ import static com.facebook.presto.sql.planner.plan.WindowNode.Frame.BoundType.UN
 import static com.facebook.presto.sql.planner.plan.WindowNode.Frame.WindowType.RANGE;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
@@ -87,6 +95,13 @@ public class TestWindowOperator
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
     private DriverContext driverContext;
+    private DummySpillerFactory spillerFactory;
+
+    @DataProvider
+    public static Object[][] spillEnabled()
+    {
+        return new Object[][] {{false}, {true}};
+    }
 
     @BeforeMethod
     public void setUp()
@@ -96,6 +111,7 @@ public class TestWindowOperator
         driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
                 .addPipelineContext(0, true, true, false)
                 .addDriverContext();
+        spillerFactory = new DummySpillerFactory();
     }
 
     @AfterMethod
@@ -136,8 +152,8 @@ public class TestWindowOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
-    @Test
-    public void testRowNumberPartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testRowNumberPartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, BIGINT, DOUBLE, BOOLEAN)
                 .row("b", -1L, -0.1, true)
@@ -154,7 +170,8 @@ public class TestWindowOperator
                 ROW_NUMBER,
                 Ints.asList(0),
                 Ints.asList(1),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, DOUBLE, BOOLEAN, BIGINT)
                 .row("a", 2L, 0.3, false, 1L)
@@ -164,7 +181,7 @@ public class TestWindowOperator
                 .row("b", 5L, 0.4, false, 2L)
                 .build();
 
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
     @Test
@@ -230,8 +247,8 @@ public class TestWindowOperator
         toPages(operatorFactory, driverContext, input);
     }
 
-    @Test
-    public void testFirstValuePartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testFirstValuePartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("b", "A1", 1L, true, "")
@@ -249,7 +266,8 @@ public class TestWindowOperator
                 FIRST_VALUE,
                 Ints.asList(0),
                 Ints.asList(2),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("a", "A2", 1L, false, "A2")
@@ -260,11 +278,11 @@ public class TestWindowOperator
                 .row("c", "A3", 1L, true, "A3")
                 .build();
 
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
-    @Test
-    public void testLastValuePartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testLastValuePartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("b", "A1", 1L, true, "")
@@ -282,7 +300,8 @@ public class TestWindowOperator
                 LAST_VALUE,
                 Ints.asList(0),
                 Ints.asList(2),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("a", "A2", 1L, false, "C2")
@@ -292,11 +311,11 @@ public class TestWindowOperator
                 .row("b", "C1", 2L, false, "C1")
                 .row("c", "A3", 1L, true, "A3")
                 .build();
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
-    @Test
-    public void testNthValuePartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testNthValuePartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BIGINT, BOOLEAN, VARCHAR)
                 .row("b", "A1", 1L, 2L, true, "")
@@ -314,7 +333,8 @@ public class TestWindowOperator
                 NTH_VALUE,
                 Ints.asList(0),
                 Ints.asList(2),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("a", "A2", 1L, false, "C2")
@@ -325,11 +345,11 @@ public class TestWindowOperator
                 .row("c", "A3", 1L, true, null)
                 .build();
 
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
-    @Test
-    public void testLagPartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testLagPartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BIGINT, VARCHAR, BOOLEAN, VARCHAR)
                 .row("b", "A1", 1L, 1L, "D", true, "")
@@ -347,7 +367,8 @@ public class TestWindowOperator
                 LAG,
                 Ints.asList(0),
                 Ints.asList(2),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("a", "A2", 1L, false, "D")
@@ -358,11 +379,11 @@ public class TestWindowOperator
                 .row("c", "A3", 1L, true, "D")
                 .build();
 
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
-    @Test
-    public void testLeadPartition()
+    @Test(dataProvider = "spillEnabled")
+    public void testLeadPartition(boolean spillEnabled)
     {
         List<Page> input = rowPagesBuilder(VARCHAR, VARCHAR, BIGINT, BIGINT, VARCHAR, BOOLEAN, VARCHAR)
                 .row("b", "A1", 1L, 1L, "D", true, "")
@@ -380,7 +401,8 @@ public class TestWindowOperator
                 LEAD,
                 Ints.asList(0),
                 Ints.asList(2),
-                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}));
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                spillEnabled);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, VARCHAR, BIGINT, BOOLEAN, VARCHAR)
                 .row("a", "A2", 1L, false, "C2")
@@ -391,7 +413,7 @@ public class TestWindowOperator
                 .row("c", "A3", 1L, true, "D")
                 .build();
 
-        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertWindowOperatorEquals(operatorFactory, input, expected, spillEnabled);
     }
 
     @Test
@@ -581,6 +603,49 @@ public class TestWindowOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testSpillPartitions()
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (int page = 0; page < 10; page++) {
+            for (int position = 0; position < 100; position++) {
+                rowPagesBuilder.row((long) position, (long) page);
+            }
+            rowPagesBuilder.pageBreak();
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        WindowOperatorFactory operatorFactory = createFactoryUnbounded(
+                ImmutableList.of(BIGINT, BIGINT),
+                Ints.asList(0, 1),
+                ROW_NUMBER,
+                Ints.asList(0),
+                Ints.asList(1),
+                ImmutableList.copyOf(new SortOrder[] {SortOrder.DESC_NULLS_LAST}),
+                true);
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+        for (int page = 0; page < 10; page++) {
+            for (int position = 0; position < 100; position++) {
+                expected.row((long) position, (long) page, (long) (10 - page));
+            }
+        }
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        List<Page> output = toPages(operator, input.iterator());
+        operator.close();
+        assertEqualsIgnoreOrder(toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT, BIGINT, BIGINT), output).getMaterializedRows(), expected.build().getMaterializedRows());
+        assertTrue(spillerFactory.getSpillsCount() > 0);
+
+        DriverWindowInfo windowInfo = getOnlyElement(((WindowInfo) operator.getOperatorContext().getOperatorStats().getInfo()).getWindowInfos());
+        assertEquals(windowInfo.getSpillsCount(), 10);
+        assertEquals(windowInfo.getSpilledRowsCount(), 1000);
+        assertEquals(windowInfo.getTotalRowsCount(), 1000);
+        assertEquals(windowInfo.getTotalPartitionsCount(), 100);
+        assertTrue(windowInfo.getNumberOfIndexes() > 1);
+    }
+
     @Test
     public void testFindEndPosition()
     {
@@ -613,6 +678,17 @@ public class TestWindowOperator
         assertEquals(WindowOperator.findEndPosition(0, array.length, (first, second) -> array[first] == array[second]), expected);
     }
 
+    private void assertWindowOperatorEquals(WindowOperatorFactory operatorFactory, List<Page> input, MaterializedResult expected, boolean spillEnabled)
+    {
+        if (spillEnabled) {
+            // spilled partitions are read back in hash order
+            assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected);
+        }
+        else {
+            assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        }
+    }
+
     private static WindowOperatorFactory createFactoryUnbounded(
             List<? extends Type> sourceTypes,
             List<Integer> outputChannels,
@@ -632,6 +708,32 @@ public class TestWindowOperator
                 0);
     }
 
+    private WindowOperatorFactory createFactoryUnbounded(
+            List<? extends Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<WindowFunctionDefinition> functions,
+            List<Integer> partitionChannels,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            boolean spillEnabled)
+    {
+        return new WindowOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                sourceTypes,
+                outputChannels,
+                functions,
+                partitionChannels,
+                ImmutableList.of(),
+                sortChannels,
+                sortOrder,
+                0,
+                10,
+                new PagesIndex.TestingFactory(false),
+                spillEnabled,
+                Optional.of(new GenericPartitioningSpillerFactory(spillerFactory)));
+    }
+
     public static WindowOperatorFactory createFactoryUnbounded(
             List<? extends Type> sourceTypes,
             List<Integer> outputChannels,
@@ -654,6 +756,8 @@ public class TestWindowOperator
                 sortOrder,
                 preSortedChannelPrefix,
                 10,
-                new PagesIndex.TestingFactory(false));
+                new PagesIndex.TestingFactory(false),
+                false,
+                Optional.empty());
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation;
+
+import com.facebook.presto.metadata.FunctionManager;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.statistics.Histogram;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.block.BlockAssertions.createBlockOfReals;
+import static com.facebook.presto.block.BlockAssertions.createDoublesBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongRepeatBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.operator.aggregation.AggregationTestUtils.aggregation;
+import static com.facebook.presto.operator.aggregation.AggregationTestUtils.partialAggregation;
+import static com.facebook.presto.plugin.base.statistics.HistogramCodec.HISTOGRAM_CODEC;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestHistogramForStats
+{
+    private static final FunctionManager functionManager = MetadataManager.createTestMetadataManager().getFunctionManager();
+
+    @Test
+    public void testBigint()
+    {
+        InternalAggregationFunction function = getAggregation(BIGINT);
+
+        Histogram histogram = histogram(function, createLongSequenceBlock(0, 1000));
+        assertEquals(histogram.getBucketCount(), 32);
+        assertEquals(histogram.getLowValue(), 0, 10);
+        assertEquals(histogram.getHighValue(), 999, 10);
+        assertEquals(histogram.getCumulativeFraction(500, true), 0.5, 0.02);
+        assertEquals(histogram.getMostCommonValues(), ImmutableMap.of());
+
+        // partial aggregation exercises the combine function
+        assertEquals(HISTOGRAM_CODEC.fromJson((String) partialAggregation(function, new Page(createLongSequenceBlock(0, 1000)))), histogram);
+    }
+
+    @Test
+    public void testMostCommonValues()
+    {
+        Histogram histogram = histogram(getAggregation(BIGINT), createLongRepeatBlock(7, 100));
+        assertEquals(histogram.getLowValue(), 7.0);
+        assertEquals(histogram.getHighValue(), 7.0);
+        assertEquals(histogram.getMostCommonValues(), ImmutableMap.of(7.0, 1.0));
+    }
+
+    @Test
+    public void testReal()
+    {
+        Histogram histogram = histogram(getAggregation(REAL), createBlockOfReals(1.5f, null, Float.NaN, 2.5f, Float.POSITIVE_INFINITY));
+        assertEquals(histogram.getLowValue(), 1.5);
+        assertEquals(histogram.getHighValue(), 2.5);
+    }
+
+    @Test
+    public void testDouble()
+    {
+        Histogram histogram = histogram(getAggregation(DOUBLE), createDoublesBlock(-0.5, null, Double.NaN, 3.25, Double.NEGATIVE_INFINITY));
+        assertEquals(histogram.getLowValue(), -0.5);
+        assertEquals(histogram.getHighValue(), 3.25);
+    }
+
+    @Test
+    public void testNoFiniteValues()
+    {
+        assertNull(aggregation(getAggregation(BIGINT), new Page(createLongsBlock(new Long[] {null, null}))));
+        assertNull(aggregation(getAggregation(DOUBLE), new Page(createDoublesBlock(null, Double.NaN, Double.POSITIVE_INFINITY))));
+        assertNull(aggregation(getAggregation(DOUBLE), new Page(createDoublesBlock())));
+    }
+
+    private static Histogram histogram(InternalAggregationFunction function, Block block)
+    {
+        return HISTOGRAM_CODEC.fromJson((String) aggregation(function, new Page(block)));
+    }
+
+    private static InternalAggregationFunction getAggregation(Type type)
+    {
+        return functionManager.getAggregateFunctionImplementation(functionManager.lookupFunction(HistogramForStats.NAME, fromTypes(type)));
+    }
+}
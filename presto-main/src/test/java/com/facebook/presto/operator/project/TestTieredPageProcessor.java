@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.operator.DriverYieldSignal;
+import com.facebook.presto.operator.project.TieredCompilation.CompiledPageFunctions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.SpecialFormExpression;
+import com.facebook.presto.sql.gen.ExpressionCompiler;
+import com.facebook.presto.sql.gen.ExpressionProfiler;
+import com.facebook.presto.sql.gen.PageFunctionCompiler;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.StandardErrorCode.DIVISION_BY_ZERO;
+import static com.facebook.presto.spi.function.OperatorType.ADD;
+import static com.facebook.presto.spi.function.OperatorType.DIVIDE;
+import static com.facebook.presto.spi.function.OperatorType.EQUAL;
+import static com.facebook.presto.spi.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.COALESCE;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IF;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestTieredPageProcessor
+{
+    private final MetadataManager metadata = createTestMetadataManager();
+    private final PageFunctionCompiler pageFunctionCompiler = new PageFunctionCompiler(metadata, 0);
+
+    // field(0) > 49
+    private final RowExpression filter = call(
+            GREATER_THAN.name(),
+            metadata.getFunctionManager().resolveOperator(GREATER_THAN, fromTypes(BIGINT, BIGINT)),
+            BOOLEAN,
+            field(0, BIGINT),
+            constant(49L, BIGINT));
+
+    // field(1) + 10
+    private final RowExpression projection = call(
+            ADD.name(),
+            metadata.getFunctionManager().resolveOperator(ADD, fromTypes(BIGINT, BIGINT)),
+            BIGINT,
+            field(1, BIGINT),
+            constant(10L, BIGINT));
+
+    private final Page input = new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(100, 200));
+
+    @Test
+    public void testInterpretedPageFunctions()
+    {
+        PageProcessor pageProcessor = new PageProcessor(
+                Optional.of(new InterpretedPageFilter(filter, metadata)),
+                ImmutableList.of(new InterpretedPageProjection(projection, metadata), new InterpretedPageProjection(field(0, BIGINT), metadata)),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE));
+
+        List<Page> output = process(pageProcessor);
+        assertEquals(output.size(), 1);
+        assertEquals(getValues(output, 0), sequence(160, 210));
+        assertEquals(getValues(output, 1), sequence(50, 100));
+    }
+
+    @Test
+    public void testSwitchToCompiled()
+    {
+        SettableFuture<CompiledPageFunctions> future = SettableFuture.create();
+        TieredCompilation compilation = new TieredCompilation(future);
+        PageProcessor pageProcessor = createTieredPageProcessor(compilation);
+
+        assertTrue(pageProcessor.isInterpreted());
+        assertFalse(pageProcessor.takeCompileTime().isPresent());
+        assertEquals(getValues(process(pageProcessor), 0), sequence(160, 210));
+
+        Supplier<PageFilter> compiledFilter = pageFunctionCompiler.compileFilter(filter, Optional.empty());
+        Supplier<PageProjection> compiledProjection = pageFunctionCompiler.compileProjection(projection, Optional.empty());
+        future.set(new CompiledPageFunctions(Optional.of(compiledFilter), ImmutableList.of(compiledProjection), new Duration(5, MILLISECONDS)));
+
+        assertFalse(pageProcessor.isInterpreted());
+        assertEquals(getValues(process(pageProcessor), 0), sequence(160, 210));
+
+        // the compile time is reported once for all page processors sharing the compilation
+        PageProcessor otherPageProcessor = createTieredPageProcessor(compilation);
+        assertEquals(pageProcessor.takeCompileTime(), Optional.of(new Duration(5, MILLISECONDS)));
+        assertFalse(pageProcessor.takeCompileTime().isPresent());
+        assertFalse(otherPageProcessor.takeCompileTime().isPresent());
+    }
+
+    @Test
+    public void testCompilationFailureKeepsInterpreting()
+    {
+        SettableFuture<CompiledPageFunctions> future = SettableFuture.create();
+        PageProcessor pageProcessor = createTieredPageProcessor(new TieredCompilation(future));
+
+        future.setException(new RuntimeException("compilation failed"));
+
+        assertTrue(pageProcessor.isInterpreted());
+        assertFalse(pageProcessor.takeCompileTime().isPresent());
+        assertEquals(getValues(process(pageProcessor), 0), sequence(160, 210));
+    }
+
+    @Test
+    public void testCompileTieredPageProcessor()
+            throws Exception
+    {
+        ExecutorService executor = newSingleThreadExecutor(daemonThreadsNamed("test-expression-compiler-%s"));
+        ExpressionCompiler expressionCompiler = new ExpressionCompiler(metadata, pageFunctionCompiler, executor);
+        try {
+            PageProcessor pageProcessor = expressionCompiler.compileTieredPageProcessor(Optional.of(filter), ImmutableList.of(projection, field(0, BIGINT)), Optional.empty()).get();
+            assertEquals(getValues(process(pageProcessor), 0), sequence(160, 210));
+
+            long deadline = System.nanoTime() + SECONDS.toNanos(30);
+            while (pageProcessor.isInterpreted()) {
+                assertTrue(System.nanoTime() < deadline, "expressions were not compiled in time");
+                MILLISECONDS.sleep(10);
+            }
+            assertTrue(pageProcessor.takeCompileTime().isPresent());
+
+            List<Page> output = process(pageProcessor);
+            assertEquals(getValues(output, 0), sequence(160, 210));
+            assertEquals(getValues(output, 1), sequence(50, 100));
+
+            // input references and constants alone need no background compilation
+            PageProcessor inputOnly = expressionCompiler.compileTieredPageProcessor(Optional.empty(), ImmutableList.of(field(1, BIGINT)), Optional.empty()).get();
+            assertFalse(inputOnly.isInterpreted());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNestedFailuresInProjections()
+    {
+        // COALESCE(10 / field(0), 0)
+        assertNestedFailureInProjection(new SpecialFormExpression(COALESCE, BIGINT, divide(field(0, BIGINT), 10L), constant(0L, BIGINT)));
+
+        // abs(IF(field(0) = 0, 10 / field(0), 0))
+        assertNestedFailureInProjection(call(
+                "abs",
+                metadata.getFunctionManager().lookupFunction("abs", fromTypes(BIGINT)),
+                BIGINT,
+                new SpecialFormExpression(IF, BIGINT, isZero(field(0, BIGINT)), divide(field(0, BIGINT), 10L), constant(0L, BIGINT))));
+    }
+
+    @Test
+    public void testNestedFailureInFilter()
+    {
+        // IF(field(0) = 0, 10 / field(0), 1) > 0
+        RowExpression nestedFailure = call(
+                GREATER_THAN.name(),
+                metadata.getFunctionManager().resolveOperator(GREATER_THAN, fromTypes(BIGINT, BIGINT)),
+                BOOLEAN,
+                new SpecialFormExpression(IF, BIGINT, isZero(field(0, BIGINT)), divide(field(0, BIGINT), 10L), constant(1L, BIGINT)),
+                constant(0L, BIGINT));
+        PageProcessor interpreted = new PageProcessor(
+                Optional.of(new InterpretedPageFilter(nestedFailure, metadata)),
+                ImmutableList.of(new InterpretedPageProjection(field(0, BIGINT), metadata)),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE));
+        PageProcessor compiled = new PageProcessor(
+                Optional.of(pageFunctionCompiler.compileFilter(nestedFailure, Optional.empty()).get()),
+                ImmutableList.of(pageFunctionCompiler.compileProjection(field(0, BIGINT), Optional.empty()).get()),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE));
+
+        Page withoutZeros = new Page(createLongSequenceBlock(1, 11));
+        assertEquals(getValues(process(interpreted, withoutZeros), 0), sequence(1, 11));
+        assertEquals(getValues(process(compiled, withoutZeros), 0), sequence(1, 11));
+
+        // the failing row must not be silently filtered out
+        Page withZeros = new Page(createLongSequenceBlock(0, 10));
+        assertDivisionByZero(() -> process(interpreted, withZeros));
+        assertDivisionByZero(() -> process(compiled, withZeros));
+    }
+
+    private void assertNestedFailureInProjection(RowExpression projection)
+    {
+        PageProcessor interpreted = new PageProcessor(
+                Optional.empty(),
+                ImmutableList.of(new InterpretedPageProjection(projection, metadata)),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE));
+        PageProcessor compiled = new PageProcessor(
+                Optional.empty(),
+                ImmutableList.of(pageFunctionCompiler.compileProjection(projection, Optional.empty()).get()),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE));
+
+        Page withoutZeros = new Page(createLongSequenceBlock(1, 11));
+        assertEquals(getValues(process(interpreted, withoutZeros), 0), getValues(process(compiled, withoutZeros), 0));
+
+        Page withZeros = new Page(createLongSequenceBlock(0, 10));
+        assertDivisionByZero(() -> getValues(process(interpreted, withZeros), 0));
+        assertDivisionByZero(() -> getValues(process(compiled, withZeros), 0));
+    }
+
+    private static void assertDivisionByZero(Runnable runnable)
+    {
+        try {
+            runnable.run();
+            fail("expected division by zero");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), DIVISION_BY_ZERO.toErrorCode());
+        }
+    }
+
+    // dividend / expression
+    private RowExpression divide(RowExpression expression, long dividend)
+    {
+        return call(
+                DIVIDE.name(),
+                metadata.getFunctionManager().resolveOperator(DIVIDE, fromTypes(BIGINT, BIGINT)),
+                BIGINT,
+                constant(dividend, BIGINT),
+                expression);
+    }
+
+    private RowExpression isZero(RowExpression expression)
+    {
+        return call(
+                EQUAL.name(),
+                metadata.getFunctionManager().resolveOperator(EQUAL, fromTypes(BIGINT, BIGINT)),
+                BOOLEAN,
+                expression,
+                constant(0L, BIGINT));
+    }
+
+    private PageProcessor createTieredPageProcessor(TieredCompilation compilation)
+    {
+        return new PageProcessor(
+                Optional.of(new TieredPageFilter(new InterpretedPageFilter(filter, metadata), compilation)),
+                ImmutableList.of(new TieredPageProjection(new InterpretedPageProjection(projection, metadata), compilation, 0)),
+                OptionalInt.of(PageProcessor.MAX_BATCH_SIZE),
+                new ExpressionProfiler(),
+                Optional.of(compilation));
+    }
+
+    private List<Page> process(PageProcessor pageProcessor)
+    {
+        return process(pageProcessor, input);
+    }
+
+    private static List<Page> process(PageProcessor pageProcessor, Page page)
+    {
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(PageProcessor.class.getSimpleName());
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        pageProcessor.process(SESSION, new DriverYieldSignal(), memoryContext, page)
+                .forEachRemaining(output -> output.ifPresent(pages::add));
+        return pages.build();
+    }
+
+    private static List<Long> getValues(List<Page> pages, int channel)
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        for (Page page : pages) {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                values.add(BIGINT.getLong(block, position));
+            }
+        }
+        return values.build();
+    }
+
+    private static List<Long> sequence(long start, long end)
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        for (long value = start; value < end; value++) {
+            values.add(value);
+        }
+        return values.build();
+    }
+}
@@ -13,15 +13,25 @@
  */
 package com.facebook.presto.operator.window;
 
+import com.facebook.presto.metadata.FunctionManager;
+import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.window.AggregateWindowFunction.isSegmentTreeSupported;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.assertions.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -302,6 +312,100 @@ public class TestAggregateWindowFunction
                         .build());
     }
 
+    @Test
+    public void testSumRollingWithNulls()
+    {
+        assertWindowQueryWithNulls("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey NULLS LAST ROWS 1 PRECEDING)",
+                resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(3L, "F", 3L)
+                        .row(5L, "F", 8L)
+                        .row(6L, "F", 11L)
+                        .row(null, "F", 6L)
+                        .row(34L, "O", 34L)
+                        .row(null, "O", 34L)
+                        .row(1L, null, 1L)
+                        .row(7L, null, 8L)
+                        .row(null, null, 7L)
+                        .row(null, null, null)
+                        .build());
+    }
+
+    @Test
+    public void testAverageRolling()
+    {
+        assertWindowQuery("avg(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey ROWS 2 PRECEDING)",
+                resultBuilder(TEST_SESSION, INTEGER, VARCHAR, DOUBLE)
+                        .row(3, "F", 3.0)
+                        .row(5, "F", 4.0)
+                        .row(6, "F", 14.0 / 3)
+                        .row(33, "F", 44.0 / 3)
+                        .row(1, "O", 1.0)
+                        .row(2, "O", 1.5)
+                        .row(4, "O", 7.0 / 3)
+                        .row(7, "O", 13.0 / 3)
+                        .row(32, "O", 43.0 / 3)
+                        .row(34, "O", 73.0 / 3)
+                        .build());
+    }
+
+    @Test
+    public void testLargeSlidingFrames()
+    {
+        // frames are large enough to exercise both removable accumulators and the segment tree
+        MaterializedResult result = queryRunner.execute("" +
+                "SELECT count(*)\n" +
+                "FROM (\n" +
+                "  SELECT x, greatest(1, x - 100) lo, least(1000, x + 50) hi,\n" +
+                "    min(x) OVER (ORDER BY x ROWS BETWEEN 100 PRECEDING AND 50 FOLLOWING) min_x,\n" +
+                "    max(x) OVER (ORDER BY x ROWS BETWEEN 100 PRECEDING AND 50 FOLLOWING) max_x,\n" +
+                "    array_agg(x) OVER (ORDER BY x ROWS BETWEEN 100 PRECEDING AND 50 FOLLOWING) xs,\n" +
+                "    sum(x) OVER (ORDER BY x ROWS BETWEEN 100 PRECEDING AND 50 FOLLOWING) sum_x,\n" +
+                "    count(x) OVER (ORDER BY x ROWS BETWEEN 100 PRECEDING AND 50 FOLLOWING) count_x\n" +
+                "  FROM UNNEST(sequence(1, 1000)) t(x))\n" +
+                "WHERE min_x <> lo OR max_x <> hi OR xs <> sequence(lo, hi) OR sum_x <> (lo + hi) * (hi - lo + 1) / 2 OR count_x <> hi - lo + 1");
+        assertEquals(result.getOnlyValue(), 0L);
+    }
+
+    @Test
+    public void testSlidingFramesOverLargeMagnitudes()
+    {
+        // a value that dwarfs the rest of the frame must not leave a rounding error behind when it leaves the frame
+        MaterializedResult result = queryRunner.execute("" +
+                "SELECT\n" +
+                "  sum(x) OVER (ORDER BY id ROWS 1 PRECEDING),\n" +
+                "  avg(x) OVER (ORDER BY id ROWS 1 PRECEDING),\n" +
+                "  var_samp(x) OVER (ORDER BY id ROWS 1 PRECEDING),\n" +
+                "  sum(CAST(x AS REAL)) OVER (ORDER BY id ROWS 1 PRECEDING)\n" +
+                "FROM (VALUES (1, 1e20), (2, 1e0), (3, 2e0)) t(id, x)\n" +
+                "ORDER BY id");
+        MaterializedRow lastRow = result.getMaterializedRows().get(2);
+        assertEquals(lastRow.getField(0), 3.0);
+        assertEquals(lastRow.getField(1), 1.5);
+        assertEquals(lastRow.getField(2), 0.5);
+        assertEquals(lastRow.getField(3), 3.0f);
+    }
+
+    @Test
+    public void testSlidingFramesOverNonFiniteValues()
+    {
+        // infinity and NaN only affect the frames that contain them
+        MaterializedResult result = queryRunner.execute("" +
+                "SELECT\n" +
+                "  sum(x) OVER (ORDER BY id ROWS 1 PRECEDING),\n" +
+                "  avg(x) OVER (ORDER BY id ROWS 1 PRECEDING),\n" +
+                "  var_samp(x) OVER (ORDER BY id ROWS 1 PRECEDING)\n" +
+                "FROM (VALUES (1, 1e0), (2, infinity()), (3, 1e0), (4, nan()), (5, 1e0), (6, 1e0)) t(id, x)\n" +
+                "ORDER BY id");
+        assertEquals(result, resultBuilder(TEST_SESSION, DOUBLE, DOUBLE, DOUBLE)
+                .row(1.0, 1.0, null)
+                .row(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN)
+                .row(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN)
+                .row(Double.NaN, Double.NaN, Double.NaN)
+                .row(Double.NaN, Double.NaN, Double.NaN)
+                .row(2.0, 1.0, 0.0)
+                .build());
+    }
+
     @Test
     public void testSumRollingUnboundedPrecedingNPreceding()
     {
@@ -530,4 +634,24 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testSegmentTreeOnlyForFixedSizeStates()
+    {
+        assertTrue(isSegmentTreeSupported(getAggregation("min", BIGINT)));
+        assertTrue(isSegmentTreeSupported(getAggregation("avg", DOUBLE)));
+        assertTrue(isSegmentTreeSupported(getAggregation("var_samp", DOUBLE)));
+
+        // the states of these aggregations grow with the number of rows
+        assertFalse(isSegmentTreeSupported(getAggregation("array_agg", BIGINT)));
+        assertFalse(isSegmentTreeSupported(getAggregation("map_agg", BIGINT, VARCHAR)));
+        assertFalse(isSegmentTreeSupported(getAggregation("approx_percentile", BIGINT, DOUBLE)));
+        assertFalse(isSegmentTreeSupported(getAggregation("max", VARCHAR)));
+    }
+
+    private InternalAggregationFunction getAggregation(String name, Type... arguments)
+    {
+        FunctionManager functionManager = queryRunner.getMetadata().getFunctionManager();
+        return functionManager.getAggregateFunctionImplementation(functionManager.lookupFunction(name, fromTypes(arguments)));
+    }
 }
@@ -114,6 +114,8 @@ public class TestQueryStateInfo
                         Duration.valueOf("9m"),
                         Duration.valueOf("10m"),
                         Duration.valueOf("11m"),
+                        false,
+                        Duration.valueOf("0m"),
                         13,
                         14,
                         15,
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.server;
 
+import com.facebook.presto.client.ClientCapabilities;
 import com.facebook.presto.client.QueryError;
 import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.server.testing.TestingPrestoServer;
@@ -34,11 +35,13 @@ import org.testng.annotations.Test;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.SystemSessionProperties.HASH_PARTITION_COUNT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_CAPABILITIES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PATH;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
@@ -56,7 +59,9 @@ import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.http.client.Request.Builder.preparePost;
 import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
 import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static io.airlift.http.client.StringResponseHandler.createStringResponseHandler;
 import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.json.JsonCodec.mapJsonCodec;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.testng.Assert.assertEquals;
@@ -67,6 +72,7 @@ import static org.testng.Assert.assertNull;
 public class TestServer
 {
     private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+    private static final JsonCodec<Map<String, Object>> RAW_RESULTS_CODEC = mapJsonCodec(String.class, Object.class);
     private TestingPrestoServer server;
     private HttpClient client;
 
@@ -223,6 +229,57 @@ public class TestServer
         assertEquals(queryResults.getError().getErrorCode(), INCOMPATIBLE_CLIENT.toErrorCode().getCode());
     }
 
+    @Test
+    public void testBinaryResults()
+    {
+        String sql = "SELECT * FROM (VALUES " +
+                "(BIGINT '1', 'a', ARRAY[1, 2], MAP(ARRAY['x'], ARRAY[DOUBLE '1.5']), CAST(ROW(1, 'b') AS ROW(f1 INTEGER, f2 VARCHAR)), DATE '2001-08-22', DECIMAL '12.34', CAST('c' AS CHAR(3))), " +
+                "(NULL, NULL, ARRAY[CAST(NULL AS INTEGER)], NULL, NULL, NULL, DECIMAL '12345678901234567890.12', NULL))";
+
+        List<List<Object>> jsonRows = executeQuery(sql, ClientCapabilities.PATH.toString(), false);
+        List<List<Object>> binaryRows = executeQuery(sql, ClientCapabilities.BINARY_RESULTS.toString(), true);
+        assertEquals(jsonRows.size(), 2);
+        assertEquals(binaryRows, jsonRows);
+
+        // char values are padded by code points, so supplementary characters count once
+        sql = "SELECT CAST(U&'\\+01F600' AS CHAR(3)), CAST(U&'a\\+01F600b' AS CHAR(5)), " +
+                "MAP(ARRAY[CAST('k' AS CHAR(2))], ARRAY[CAST(ROW(DECIMAL '-1.50', U&'\\+01F600') AS ROW(d DECIMAL(20, 2), c CHAR(2)))])";
+        jsonRows = executeQuery(sql, ClientCapabilities.PATH.toString(), false);
+        binaryRows = executeQuery(sql, ClientCapabilities.BINARY_RESULTS.toString(), true);
+        assertEquals(jsonRows.get(0).get(0), new StringBuilder().appendCodePoint(0x1F600).append("  ").toString());
+        assertEquals(binaryRows, jsonRows);
+
+        // types without a binary decoding fall back to JSON
+        executeQuery("SELECT INTERVAL '3' DAY", ClientCapabilities.BINARY_RESULTS.toString(), false);
+    }
+
+    private List<List<Object>> executeQuery(String sql, String clientCapabilities, boolean expectBinaryData)
+    {
+        Request request = preparePost()
+                .setUri(uriFor("/v1/statement"))
+                .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8))
+                .setHeader(PRESTO_USER, "user")
+                .setHeader(PRESTO_SOURCE, "source")
+                .setHeader(PRESTO_CLIENT_CAPABILITIES, clientCapabilities)
+                .build();
+
+        String json = client.execute(request, createStringResponseHandler()).getBody();
+        QueryResults queryResults = QUERY_RESULTS_CODEC.fromJson(json);
+        ImmutableList.Builder<List<Object>> data = ImmutableList.builder();
+        while (queryResults.getNextUri() != null) {
+            json = client.execute(prepareGet().setUri(queryResults.getNextUri()).build(), createStringResponseHandler()).getBody();
+            queryResults = QUERY_RESULTS_CODEC.fromJson(json);
+
+            if (queryResults.getData() != null) {
+                assertEquals(RAW_RESULTS_CODEC.fromJson(json).get("binaryData") != null, expectBinaryData);
+                assertNull(queryResults.getBinaryData());
+                data.addAll(queryResults.getData());
+            }
+        }
+        assertNull(queryResults.getError());
+        return data.build();
+    }
+
     public URI uriFor(String path)
     {
         return HttpUriBuilder.uriBuilderFrom(server.getBaseUrl()).replacePath(path).build();
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.SequencePageBuilder;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestPrefetchingPageReader
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newSingleThreadExecutor();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadAheadIsBounded()
+    {
+        List<Page> pages = createPages(10);
+        long pageSize = pages.get(0).getRetainedSizeInBytes();
+        AtomicLong reservedBytes = new AtomicLong();
+        AtomicLong readPages = new AtomicLong();
+        Iterator<Page> source = pages.stream()
+                .peek(page -> readPages.incrementAndGet())
+                .iterator();
+
+        try (PrefetchingPageReader reader = new PrefetchingPageReader(source, directExecutor(), 2 * pageSize, reservedBytes::set, new SpillerStats())) {
+            // reading stops once the read ahead limit is reached
+            assertEquals(readPages.get(), 2);
+            assertEquals(reservedBytes.get(), 2 * pageSize);
+
+            for (Page expected : pages) {
+                assertTrue(reader.isBlocked().isDone());
+                assertPageEquals(ImmutableList.of(BIGINT), reader.poll(), expected);
+                assertTrue(reservedBytes.get() <= 2 * pageSize);
+            }
+            assertTrue(reader.isFinished());
+            assertNull(reader.poll());
+            assertEquals(reservedBytes.get(), 0);
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testAsyncRead()
+            throws Exception
+    {
+        List<Page> pages = createPages(5);
+        CountDownLatch readAllowed = new CountDownLatch(1);
+        Iterator<Page> source = new AbstractIterator<Page>()
+        {
+            private final Iterator<Page> delegate = pages.iterator();
+
+            @Override
+            protected Page computeNext()
+            {
+                try {
+                    readAllowed.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                return delegate.hasNext() ? delegate.next() : endOfData();
+            }
+        };
+
+        AtomicLong reservedBytes = new AtomicLong();
+        try (PrefetchingPageReader reader = new PrefetchingPageReader(source, executor, Long.MAX_VALUE, reservedBytes::set, new SpillerStats())) {
+            // nothing is read yet, so the consumer is blocked
+            ListenableFuture<?> blocked = reader.isBlocked();
+            assertFalse(blocked.isDone());
+            assertNull(reader.poll());
+            assertFalse(reader.isFinished());
+
+            readAllowed.countDown();
+            blocked.get(10, SECONDS);
+
+            int pageCount = 0;
+            while (!reader.isFinished()) {
+                reader.isBlocked().get(10, SECONDS);
+                Page page = reader.poll();
+                if (page != null) {
+                    assertPageEquals(ImmutableList.of(BIGINT), page, pages.get(pageCount));
+                    pageCount++;
+                }
+            }
+            assertEquals(pageCount, pages.size());
+            assertTrue(reader.getWaitNanos() > 0);
+        }
+        assertEquals(reservedBytes.get(), 0);
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Read failed")
+    public void testReadFailure()
+    {
+        Iterator<Page> source = new AbstractIterator<Page>()
+        {
+            @Override
+            protected Page computeNext()
+            {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Read failed");
+            }
+        };
+
+        try (PrefetchingPageReader reader = new PrefetchingPageReader(source, directExecutor(), 1024, bytes -> {}, new SpillerStats())) {
+            assertTrue(reader.isBlocked().isDone());
+            reader.poll();
+        }
+    }
+
+    private static List<Page> createPages(int count)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            pages.add(SequencePageBuilder.createSequencePage(ImmutableList.of(BIGINT), 100, i * 100));
+        }
+        return pages.build();
+    }
+}
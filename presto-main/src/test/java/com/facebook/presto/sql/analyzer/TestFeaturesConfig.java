@@ -84,6 +84,11 @@ public class TestFeaturesConfig
                 .setSpillerSpillPaths("")
                 .setSpillerThreads(4)
                 .setSpillMaxUsedSpaceThreshold(0.9)
+                .setOrderBySpillEnabled(true)
+                .setSpillMaxMergeFanIn(64)
+                .setWindowSpillEnabled(true)
+                .setDistinctAndRowNumberSpillEnabled(true)
+                .setTieredExpressionExecutionEnabled(false)
                 .setMemoryRevokingThreshold(0.9)
                 .setMemoryRevokingTarget(0.5)
                 .setOptimizeMixedDistinctAggregations(false)
@@ -117,7 +122,10 @@ public class TestFeaturesConfig
                 .setJsonSerdeCodeGenerationEnabled(false)
                 .setPushLimitThroughOuterJoin(true)
                 .setMaxConcurrentMaterializations(10)
-                .setPushdownSubfieldsEnabled(false));
+                .setPushdownSubfieldsEnabled(false)
+                .setDynamicFilteringEnabled(false)
+                .setDynamicFilteringWaitTimeout(new Duration(1, SECONDS))
+                .setDynamicFilteringMaxDistinctValues(1000));
     }
 
     @Test
@@ -171,6 +179,11 @@ public class TestFeaturesConfig
                 .put("experimental.spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("experimental.spiller-threads", "42")
                 .put("experimental.spiller-max-used-space-threshold", "0.8")
+                .put("experimental.order-by-spill-enabled", "false")
+                .put("experimental.spiller-max-merge-fan-in", "16")
+                .put("experimental.window-spill-enabled", "false")
+                .put("experimental.distinct-and-row-number-spill-enabled", "false")
+                .put("experimental.tiered-expression-execution-enabled", "true")
                 .put("experimental.memory-revoking-threshold", "0.2")
                 .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
@@ -194,6 +207,9 @@ public class TestFeaturesConfig
                 .put("optimizer.push-limit-through-outer-join", "false")
                 .put("max-concurrent-materializations", "5")
                 .put("experimental.pushdown-subfields-enabled", "true")
+                .put("experimental.enable-dynamic-filtering", "true")
+                .put("experimental.dynamic-filtering-wait-timeout", "5s")
+                .put("experimental.dynamic-filtering-max-distinct-values", "100")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -240,6 +256,11 @@ public class TestFeaturesConfig
                 .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
                 .setSpillMaxUsedSpaceThreshold(0.8)
+                .setOrderBySpillEnabled(false)
+                .setSpillMaxMergeFanIn(16)
+                .setWindowSpillEnabled(false)
+                .setDistinctAndRowNumberSpillEnabled(false)
+                .setTieredExpressionExecutionEnabled(true)
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setLegacyLogFunction(true)
@@ -266,7 +287,10 @@ public class TestFeaturesConfig
                 .setJsonSerdeCodeGenerationEnabled(true)
                 .setPushLimitThroughOuterJoin(false)
                 .setMaxConcurrentMaterializations(5)
-                .setPushdownSubfieldsEnabled(true);
+                .setPushdownSubfieldsEnabled(true)
+                .setDynamicFilteringEnabled(true)
+                .setDynamicFilteringWaitTimeout(new Duration(5, SECONDS))
+                .setDynamicFilteringMaxDistinctValues(100);
         assertFullMapping(properties, expected);
     }
 
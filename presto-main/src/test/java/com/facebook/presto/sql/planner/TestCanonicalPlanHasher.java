@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.block.BlockJsonSerde;
+import com.facebook.presto.metadata.HandleJsonModule;
+import com.facebook.presto.metadata.HandleResolver;
+import com.facebook.presto.server.SliceDeserializer;
+import com.facebook.presto.server.SliceSerializer;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.TableHandle;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.plan.FilterNode;
+import com.facebook.presto.spi.plan.PlanNode;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.plan.TableScanNode;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.facebook.presto.sql.Serialization;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.relational.FunctionResolution;
+import com.facebook.presto.testing.TestingHandleResolver;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.facebook.presto.testing.TestingMetadata.TestingTableHandle;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.facebook.presto.type.TypeDeserializer;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import io.airlift.bootstrap.Bootstrap;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.JsonModule;
+import io.airlift.slice.Slice;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.TimeZoneKey.getTimeZoneKey;
+import static com.facebook.presto.sql.planner.CanonicalPlanHasher.hashCanonicalPlan;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static io.airlift.configuration.ConfigBinder.configBinder;
+import static io.airlift.json.JsonBinder.jsonBinder;
+import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class TestCanonicalPlanHasher
+{
+    private static final SchemaTableName TABLE_NAME = new SchemaTableName("test-schema", "test-table");
+    private static final VariableReferenceExpression COLUMN = new VariableReferenceExpression("column", BIGINT);
+
+    private final FunctionResolution functionResolution = new FunctionResolution(createTestMetadataManager().getFunctionManager());
+    private JsonCodec<PlanNode> planNodeCodec;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        planNodeCodec = createPlanNodeCodec();
+    }
+
+    @Test
+    public void testSameQueryPlannedTwice()
+    {
+        // every query runs in its own transaction, which is recorded in the table handles of the plan
+        PlanNode firstPlan = createPlan(TABLE_NAME, 5);
+        PlanNode secondPlan = createPlan(TABLE_NAME, 5);
+        assertNotEquals(planNodeCodec.toJson(firstPlan), planNodeCodec.toJson(secondPlan));
+
+        assertEquals(hashCanonicalPlan(firstPlan, TEST_SESSION, planNodeCodec), hashCanonicalPlan(secondPlan, TEST_SESSION, planNodeCodec));
+    }
+
+    @Test
+    public void testDifferentPlans()
+    {
+        String hash = hashCanonicalPlan(createPlan(TABLE_NAME, 5), TEST_SESSION, planNodeCodec);
+        assertNotEquals(hashCanonicalPlan(createPlan(TABLE_NAME, 6), TEST_SESSION, planNodeCodec), hash);
+        assertNotEquals(hashCanonicalPlan(createPlan(new SchemaTableName("test-schema", "other-table"), 5), TEST_SESSION, planNodeCodec), hash);
+    }
+
+    @Test
+    public void testSessionState()
+    {
+        // the same plan can produce different rows for sessions with a different time zone, locale or properties
+        PlanNode plan = createPlan(TABLE_NAME, 5);
+        String hash = hashCanonicalPlan(plan, TEST_SESSION, planNodeCodec);
+        assertEquals(hashCanonicalPlan(plan, Session.builder(TEST_SESSION).build(), planNodeCodec), hash);
+        assertNotEquals(hashCanonicalPlan(plan, Session.builder(TEST_SESSION).setTimeZoneKey(getTimeZoneKey("Asia/Kathmandu")).build(), planNodeCodec), hash);
+        assertNotEquals(hashCanonicalPlan(plan, Session.builder(TEST_SESSION).setLocale(Locale.GERMAN).build(), planNodeCodec), hash);
+        assertNotEquals(hashCanonicalPlan(plan, Session.builder(TEST_SESSION).setSystemProperty("legacy_timestamp", "false").build(), planNodeCodec), hash);
+        assertNotEquals(hashCanonicalPlan(plan, Session.builder(TEST_SESSION).setCatalogSessionProperty("test", "reader_option", "true").build(), planNodeCodec), hash);
+    }
+
+    private PlanNode createPlan(SchemaTableName tableName, long minValue)
+    {
+        TableScanNode tableScan = new TableScanNode(
+                new PlanNodeId("0"),
+                new TableHandle(new ConnectorId("test"), new TestingTableHandle(tableName), TestingTransactionHandle.create(), Optional.empty()),
+                ImmutableList.of(COLUMN),
+                ImmutableMap.of(COLUMN, new TestingColumnHandle("column", 0, BIGINT)),
+                TupleDomain.all(),
+                TupleDomain.all());
+        return new FilterNode(
+                new PlanNodeId("1"),
+                tableScan,
+                call(GREATER_THAN.name(), functionResolution.comparisonFunction(GREATER_THAN, BIGINT, BIGINT), BOOLEAN, COLUMN, constant(minValue, BIGINT)));
+    }
+
+    private static JsonCodec<PlanNode> createPlanNodeCodec()
+            throws Exception
+    {
+        Module module = binder -> {
+            binder.install(new JsonModule());
+            binder.install(new HandleJsonModule());
+            binder.bind(SqlParser.class).toInstance(new SqlParser());
+            binder.bind(TypeManager.class).toInstance(new TypeRegistry());
+            configBinder(binder).bindConfig(FeaturesConfig.class);
+            newSetBinder(binder, Type.class);
+            binder.bind(BlockEncodingSerde.class).to(BlockEncodingManager.class).in(Scopes.SINGLETON);
+            newSetBinder(binder, BlockEncoding.class);
+            jsonBinder(binder).addSerializerBinding(Block.class).to(BlockJsonSerde.Serializer.class);
+            jsonBinder(binder).addDeserializerBinding(Block.class).to(BlockJsonSerde.Deserializer.class);
+            jsonBinder(binder).addSerializerBinding(Slice.class).to(SliceSerializer.class);
+            jsonBinder(binder).addDeserializerBinding(Slice.class).to(SliceDeserializer.class);
+            jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
+            jsonBinder(binder).addKeySerializerBinding(VariableReferenceExpression.class).to(Serialization.VariableReferenceExpressionSerializer.class);
+            jsonBinder(binder).addKeyDeserializerBinding(VariableReferenceExpression.class).to(Serialization.VariableReferenceExpressionDeserializer.class);
+            jsonCodecBinder(binder).bindJsonCodec(PlanNode.class);
+        };
+        Injector injector = new Bootstrap(ImmutableList.of(module))
+                .strictConfig()
+                .doNotInitializeLogging()
+                .quiet()
+                .initialize();
+        injector.getInstance(HandleResolver.class).addConnectorName("test", new TestingHandleResolver());
+        return injector.getInstance(new Key<JsonCodec<PlanNode>>() {});
+    }
+}
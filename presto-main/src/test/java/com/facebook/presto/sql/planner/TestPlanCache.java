@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.TableHandle;
+import com.facebook.presto.spi.plan.TableScanNode;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.analyzer.Analyzer;
+import com.facebook.presto.sql.planner.PlanCache.CachedPlan;
+import com.facebook.presto.sql.planner.PlanCache.PlanCacheKey;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.QuerySpecification;
+import com.facebook.presto.sql.tree.Table;
+import com.facebook.presto.testing.LocalQueryRunner;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.facebook.presto.tpch.TpchConnectorFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.PLAN_CACHE_ENABLED;
+import static com.facebook.presto.execution.warnings.WarningCollector.NOOP;
+import static com.facebook.presto.sql.ParsingUtil.createParsingOptions;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.airlift.testing.Closeables.closeAllRuntimeException;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestPlanCache
+{
+    private static final Session SESSION = testSessionBuilder()
+            .setCatalog("local")
+            .setSchema("tiny")
+            .build();
+
+    private LocalQueryRunner queryRunner;
+
+    @BeforeClass
+    public void setUp()
+    {
+        queryRunner = new LocalQueryRunner(SESSION);
+        queryRunner.createCatalog("local", new TpchConnectorFactory(1), ImmutableMap.of());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        closeAllRuntimeException(queryRunner);
+        queryRunner = null;
+    }
+
+    @Test
+    public void testHitAndMiss()
+    {
+        PlanCache planCache = createPlanCache();
+        @Language("SQL") String sql = "SELECT name FROM nation WHERE regionkey = 1";
+        assertEquals(planCache.getHitRate(), 0.0);
+
+        Analysis analysis = analyze(SESSION, sql);
+        PlanCacheKey key = planCache.createKey(SESSION, analysis).get();
+        assertFalse(planCache.get(key, analysis).isPresent());
+        assertEquals(planCache.getMissCount(), 1);
+
+        Plan plan = queryRunner.inTransaction(SESSION, transactionSession -> queryRunner.createPlan(transactionSession, sql, NOOP));
+        planCache.put(key, plan, new Duration(10, MILLISECONDS));
+        assertEquals(planCache.getSize(), 1);
+
+        // the same query of a later execution is analyzed in a transaction of its own
+        Analysis otherAnalysis = analyze(SESSION, sql);
+        PlanCacheKey otherKey = planCache.createKey(SESSION, otherAnalysis).get();
+        assertEquals(otherKey, key);
+        // the tpch connector uses a single transaction handle, so give the later execution a distinct one
+        TableHandle analyzedTable = getOnlyElement(otherAnalysis.getTables());
+        Table table = (Table) ((QuerySpecification) ((Query) otherAnalysis.getStatement()).getQueryBody()).getFrom().get();
+        otherAnalysis.registerTable(table, new TableHandle(analyzedTable.getConnectorId(), analyzedTable.getConnectorHandle(), TestingTransactionHandle.create(), analyzedTable.getLayout()));
+        analyzedTable = getOnlyElement(otherAnalysis.getTables());
+        Optional<CachedPlan> cachedPlan = planCache.get(otherKey, otherAnalysis);
+        assertTrue(cachedPlan.isPresent());
+        assertEquals(planCache.getHitCount(), 1);
+        assertEquals(planCache.getHitRate(), 0.5);
+        assertEquals(planCache.getSavedPlanningTimeMillis(), 10);
+
+        // the table handles are bound to the transaction of the later execution
+        TableHandle cachedTable = getOnlyTableScan(cachedPlan.get().getPlan()).getTable();
+        TableHandle originalTable = getOnlyTableScan(plan).getTable();
+        assertNotEquals(originalTable.getTransaction(), analyzedTable.getTransaction());
+        assertEquals(cachedTable.getTransaction(), analyzedTable.getTransaction());
+        assertEquals(cachedTable.getConnectorHandle(), originalTable.getConnectorHandle());
+        assertEquals(cachedTable.getLayout(), originalTable.getLayout());
+        assertNotSame(cachedPlan.get().getPlan().getRoot(), plan.getRoot());
+    }
+
+    @Test
+    public void testKeySensitivity()
+    {
+        PlanCache planCache = createPlanCache();
+        @Language("SQL") String sql = "SELECT name FROM nation WHERE nationkey = ?";
+        List<Expression> parameters = ImmutableList.of(new LongLiteral("1"));
+        PlanCacheKey key = createKey(planCache, SESSION, sql, parameters);
+
+        assertEquals(createKey(planCache, SESSION, sql, parameters), key);
+        assertNotEquals(createKey(planCache, SESSION, sql, ImmutableList.of(new LongLiteral("2"))), key);
+        assertNotEquals(createKey(planCache, SESSION, "SELECT name FROM nation WHERE regionkey = ?", parameters), key);
+
+        Session otherUser = Session.builder(SESSION)
+                .setIdentity(new Identity("other_user", Optional.empty()))
+                .build();
+        assertNotEquals(createKey(planCache, otherUser, sql, parameters), key);
+
+        Session otherSystemProperty = Session.builder(SESSION)
+                .setSystemProperty("join_distribution_type", "BROADCAST")
+                .build();
+        assertNotEquals(createKey(planCache, otherSystemProperty, sql, parameters), key);
+    }
+
+    @Test
+    public void testNotCached()
+    {
+        PlanCache planCache = createPlanCache();
+
+        // functions folded using the query start time
+        assertNotCached(planCache, SESSION, "SELECT current_timestamp");
+        assertNotCached(planCache, SESSION, "SELECT now()");
+        assertNotCached(planCache, SESSION, "SELECT name FROM nation WHERE current_date > DATE '2000-01-01'");
+        assertNotCached(planCache, SESSION, "SELECT localtimestamp");
+
+        Session disabled = Session.builder(SESSION)
+                .setSystemProperty(PLAN_CACHE_ENABLED, "false")
+                .build();
+        assertNotCached(planCache, disabled, "SELECT name FROM nation");
+
+        assertNotCached(new PlanCache(new PlanCacheConfig(), queryRunner.getMetadata()), SESSION, "SELECT name FROM nation");
+    }
+
+    @Test
+    public void testInvalidation()
+    {
+        PlanCache planCache = createPlanCache();
+        @Language("SQL") String sql = "SELECT name FROM nation";
+        Analysis analysis = analyze(SESSION, sql);
+        PlanCacheKey key = planCache.createKey(SESSION, analysis).get();
+        planCache.put(key, queryRunner.inTransaction(SESSION, transactionSession -> queryRunner.createPlan(transactionSession, sql, NOOP)), new Duration(1, MILLISECONDS));
+
+        // statements changing only the session keep the cached plans
+        planCache.invalidate(queryRunner.getSqlParser().createStatement("USE local.sf1", createParsingOptions(SESSION)));
+        planCache.invalidate(queryRunner.getSqlParser().createStatement("SET SESSION join_distribution_type = 'BROADCAST'", createParsingOptions(SESSION)));
+        assertEquals(planCache.getSize(), 1);
+
+        planCache.invalidate(queryRunner.getSqlParser().createStatement("DROP TABLE nation", createParsingOptions(SESSION)));
+        assertEquals(planCache.getSize(), 0);
+        assertFalse(planCache.get(key, analyze(SESSION, sql)).isPresent());
+    }
+
+    private PlanCache createPlanCache()
+    {
+        return new PlanCache(new PlanCacheConfig().setCachingEnabled(true), queryRunner.getMetadata());
+    }
+
+    private void assertNotCached(PlanCache planCache, Session session, @Language("SQL") String sql)
+    {
+        assertFalse(planCache.createKey(session, analyze(session, sql)).isPresent(), sql);
+    }
+
+    private PlanCacheKey createKey(PlanCache planCache, Session session, @Language("SQL") String sql, List<Expression> parameters)
+    {
+        return planCache.createKey(session, analyze(session, sql, parameters)).get();
+    }
+
+    private Analysis analyze(Session session, @Language("SQL") String sql)
+    {
+        return analyze(session, sql, ImmutableList.of());
+    }
+
+    private Analysis analyze(Session session, @Language("SQL") String sql, List<Expression> parameters)
+    {
+        return queryRunner.inTransaction(session, transactionSession -> {
+            Analyzer analyzer = new Analyzer(
+                    transactionSession,
+                    queryRunner.getMetadata(),
+                    queryRunner.getSqlParser(),
+                    queryRunner.getAccessControl(),
+                    Optional.empty(),
+                    parameters,
+                    NOOP);
+            return analyzer.analyze(queryRunner.getSqlParser().createStatement(sql, createParsingOptions(transactionSession)));
+        });
+    }
+
+    private static TableScanNode getOnlyTableScan(Plan plan)
+    {
+        return searchFrom(plan.getRoot())
+                .where(TableScanNode.class::isInstance)
+                .findOnlyElement();
+    }
+}
@@ -14,6 +14,8 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.orc.cache.OrcFileKey;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
@@ -117,6 +119,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             List<ColumnStatistics> fileStats,
             List<StripeStatistics> stripeStats,
             OrcDataSource orcDataSource,
+            OrcFileKey fileKey,
+            StripeMetadataSource stripeMetadataSource,
             long splitOffset,
             long splitLength,
             List<OrcType> types,
@@ -217,6 +221,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
         stripeReader = new StripeReader(
                 orcDataSource,
+                fileKey,
+                stripeMetadataSource,
                 decompressor,
                 types,
                 this.presentColumns,
@@ -602,7 +608,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             nestedStreams.add(createStreamDescriptor(parentStreamName, "key", type.getFieldTypeIndex(0), types, dataSource));
             nestedStreams.add(createStreamDescriptor(parentStreamName, "value", type.getFieldTypeIndex(1), types, dataSource));
         }
-        return new StreamDescriptor(parentStreamName, typeId, fieldName, type.getOrcTypeKind(), dataSource, nestedStreams.build());
+        return new StreamDescriptor(parentStreamName, typeId, fieldName, type, dataSource, nestedStreams.build());
     }
 
     protected boolean shouldValidateWritePageChecksum()
@@ -14,6 +14,8 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.orc.cache.OrcFileKey;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
@@ -51,6 +53,8 @@ public class OrcBatchRecordReader
             List<ColumnStatistics> fileStats,
             List<StripeStatistics> stripeStats,
             OrcDataSource orcDataSource,
+            OrcFileKey fileKey,
+            StripeMetadataSource stripeMetadataSource,
             long splitOffset,
             long splitLength,
             List<OrcType> types,
@@ -80,6 +84,8 @@ public class OrcBatchRecordReader
                 fileStats,
                 stripeStats,
                 orcDataSource,
+                fileKey,
+                stripeMetadataSource,
                 splitOffset,
                 splitLength,
                 types,
@@ -13,7 +13,10 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.orc.cache.OrcFileKey;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.PostScript;
@@ -87,6 +90,8 @@ public class OrcSelectiveRecordReader
             List<ColumnStatistics> fileStats,
             List<StripeStatistics> stripeStats,
             OrcDataSource orcDataSource,
+            OrcFileKey fileKey,
+            StripeMetadataSource stripeMetadataSource,
             long offset,
             long length,
             List<OrcType> types,
@@ -121,6 +126,8 @@ public class OrcSelectiveRecordReader
                 fileStats,
                 stripeStats,
                 orcDataSource,
+                fileKey,
+                stripeMetadataSource,
                 offset,
                 length,
                 types,
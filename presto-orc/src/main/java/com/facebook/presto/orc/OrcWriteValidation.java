@@ -261,6 +261,9 @@ public class OrcWriteValidation
                 if (expectedRowGroup.getHash() != actualRowGroup.getHash()) {
                     throw new OrcCorruptionException(orcDataSourceId, "Checksum mismatch for row group %s in stripe at offset %s", rowGroupIndex, stripeOffset);
                 }
+                if (expectedRowGroup.getBloomFilterHash() != actualRowGroup.getBloomFilterHash()) {
+                    throw new OrcCorruptionException(orcDataSourceId, "Bloom filter checksum mismatch for row group %s in stripe at offset %s", rowGroupIndex, stripeOffset);
+                }
             }
         }
     }
@@ -296,8 +299,10 @@ public class OrcWriteValidation
             Map<Integer, ColumnStatistics> expectedByColumnIndex = expectedRowGroup.getColumnStatistics();
 
             // new writer does not write row group stats for column zero (table row column)
+            // bloom filters are not rebuilt from the values read, they are validated with the row group index
             List<ColumnStatistics> expected = IntStream.range(1, actual.size())
                     .mapToObj(expectedByColumnIndex::get)
+                    .map(RowGroupStatistics::withoutBloomFilter)
                     .collect(toImmutableList());
             actual = actual.subList(1, actual.size());
 
@@ -777,6 +782,7 @@ public class OrcWriteValidation
         private final OrcWriteValidationMode validationMode;
         private final SortedMap<Integer, ColumnStatistics> columnStatistics;
         private final long hash;
+        private final long bloomFilterHash;
 
         public RowGroupStatistics(OrcWriteValidationMode validationMode, Map<Integer, ColumnStatistics> columnStatistics)
         {
@@ -785,15 +791,19 @@ public class OrcWriteValidation
             requireNonNull(columnStatistics, "columnStatistics is null");
             if (validationMode == HASHED) {
                 this.columnStatistics = ImmutableSortedMap.of();
-                hash = hashColumnStatistics(ImmutableSortedMap.copyOf(columnStatistics));
+                SortedMap<Integer, ColumnStatistics> sortedColumnStatistics = ImmutableSortedMap.copyOf(columnStatistics);
+                hash = hashColumnStatistics(sortedColumnStatistics);
+                bloomFilterHash = hashBloomFilters(sortedColumnStatistics);
             }
             else if (validationMode == DETAILED) {
                 this.columnStatistics = ImmutableSortedMap.copyOf(columnStatistics);
                 hash = 0;
+                bloomFilterHash = 0;
             }
             else if (validationMode == BOTH) {
                 this.columnStatistics = ImmutableSortedMap.copyOf(columnStatistics);
                 hash = hashColumnStatistics(this.columnStatistics);
+                bloomFilterHash = hashBloomFilters(this.columnStatistics);
             }
             else {
                 throw new IllegalArgumentException("Unsupported validation mode");
@@ -806,11 +816,32 @@ public class OrcWriteValidation
             statisticsHasher.putInt(columnStatistics.size());
             for (Entry<Integer, ColumnStatistics> entry : columnStatistics.entrySet()) {
                 statisticsHasher.putInt(entry.getKey())
-                        .putOptionalHashable(entry.getValue());
+                        .putOptionalHashable(withoutBloomFilter(entry.getValue()));
+            }
+            return statisticsHasher.hash();
+        }
+
+        // bloom filters are hashed separately because they can only be validated against the row group index
+        private static long hashBloomFilters(SortedMap<Integer, ColumnStatistics> columnStatistics)
+        {
+            StatisticsHasher statisticsHasher = new StatisticsHasher();
+            for (Entry<Integer, ColumnStatistics> entry : columnStatistics.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().getBloomFilter() != null) {
+                    statisticsHasher.putInt(entry.getKey())
+                            .putOptionalHashable(entry.getValue().getBloomFilter());
+                }
             }
             return statisticsHasher.hash();
         }
 
+        private static ColumnStatistics withoutBloomFilter(ColumnStatistics columnStatistics)
+        {
+            if (columnStatistics == null || columnStatistics.getBloomFilter() == null) {
+                return columnStatistics;
+            }
+            return columnStatistics.withBloomFilter(null);
+        }
+
         public OrcWriteValidationMode getValidationMode()
         {
             return validationMode;
@@ -826,6 +857,11 @@ public class OrcWriteValidation
         {
             return hash;
         }
+
+        public long getBloomFilterHash()
+        {
+            return bloomFilterHash;
+        }
     }
 
     public static class OrcWriteValidationBuilder
@@ -25,7 +25,10 @@ import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.statistics.BloomFilterBuilder;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilterBuilder;
+import com.facebook.presto.orc.metadata.statistics.NoOpBloomFilterBuilder;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
 import com.facebook.presto.orc.stream.OrcDataOutput;
 import com.facebook.presto.orc.stream.StreamDataOutput;
@@ -52,9 +55,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.orc.OrcEncoding.DWRF;
 import static com.facebook.presto.orc.OrcReader.validateFile;
 import static com.facebook.presto.orc.OrcWriterStats.FlushReason.CLOSED;
 import static com.facebook.presto.orc.OrcWriterStats.FlushReason.DICTIONARY_FULL;
@@ -162,6 +168,10 @@ public class OrcWriter
         this.orcTypes = OrcType.createOrcRowType(0, columnNames, types);
         recordValidation(validation -> validation.setColumnNames(columnNames));
 
+        Set<String> bloomFilterColumns = requireNonNull(options.getBloomFilterColumns(), "bloomFilterColumns is null");
+        checkArgument(bloomFilterColumns.isEmpty() || orcEncoding != DWRF, "DWRF does not support bloom filters");
+        checkArgument(columnNames.containsAll(bloomFilterColumns), "bloom filter columns %s are not a subset of columns %s", bloomFilterColumns, columnNames);
+
         // create column writers
         OrcType rootType = orcTypes.get(0);
         checkArgument(rootType.getFieldCount() == types.size());
@@ -170,7 +180,21 @@ public class OrcWriter
         for (int fieldId = 0; fieldId < types.size(); fieldId++) {
             int fieldColumnIndex = rootType.getFieldTypeIndex(fieldId);
             Type fieldType = types.get(fieldId);
-            ColumnWriter columnWriter = createColumnWriter(fieldColumnIndex, orcTypes, fieldType, compression, maxCompressionBufferSize, orcEncoding, hiveStorageTimeZone, options.getMaxStringStatisticsLimit());
+            Supplier<BloomFilterBuilder> bloomFilterBuilder = NoOpBloomFilterBuilder::new;
+            if (bloomFilterColumns.contains(columnNames.get(fieldId))) {
+                double bloomFilterFpp = options.getBloomFilterFpp();
+                bloomFilterBuilder = () -> new HiveBloomFilterBuilder(rowGroupMaxRowCount, bloomFilterFpp);
+            }
+            ColumnWriter columnWriter = createColumnWriter(
+                    fieldColumnIndex,
+                    orcTypes,
+                    fieldType,
+                    compression,
+                    maxCompressionBufferSize,
+                    orcEncoding,
+                    hiveStorageTimeZone,
+                    options.getMaxStringStatisticsLimit(),
+                    bloomFilterBuilder);
             columnWriters.add(columnWriter);
 
             if (columnWriter instanceof SliceDictionaryColumnWriter) {
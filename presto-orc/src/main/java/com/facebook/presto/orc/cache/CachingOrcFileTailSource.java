@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.metadata.MetadataReader;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.weakref.jmx.Managed;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shares decoded file tails between all readers of the same file version.
+ * The cache should be weighed by {@link OrcFileTail#getRetainedSizeInBytes()}.
+ */
+public class CachingOrcFileTailSource
+        implements OrcFileTailSource
+{
+    private final OrcFileTailSource delegate;
+    private final Cache<OrcFileKey, OrcFileTail> cache;
+
+    public CachingOrcFileTailSource(OrcFileTailSource delegate, Cache<OrcFileKey, OrcFileTail> cache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cache = requireNonNull(cache, "cache is null");
+    }
+
+    @Override
+    public OrcFileTail getOrcFileTail(OrcDataSource orcDataSource, OrcFileKey fileKey, MetadataReader metadataReader)
+            throws IOException
+    {
+        try {
+            return cache.get(fileKey, () -> delegate.getOrcFileTail(orcDataSource, fileKey, metadataReader));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException("Unexpected error loading ORC file tail for " + orcDataSource.getId(), e.getCause());
+        }
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getCachedFileCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+}
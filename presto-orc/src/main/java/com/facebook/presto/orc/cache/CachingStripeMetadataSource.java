@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.orc.DiskRange;
+import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.OrcDataSourceInput;
+import com.facebook.presto.orc.StreamId;
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.weakref.jmx.Managed;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER_UTF8;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_INDEX;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches stripe footers and the row group index and bloom filter streams of
+ * each stripe. Data streams are always read from the delegate. The caches
+ * should be weighed by {@link Slice#length()}.
+ */
+public class CachingStripeMetadataSource
+        implements StripeMetadataSource
+{
+    private final StripeMetadataSource delegate;
+    private final Cache<StripeId, Slice> footerSliceCache;
+    private final Cache<StripeStreamId, Slice> indexStreamSliceCache;
+
+    public CachingStripeMetadataSource(StripeMetadataSource delegate, Cache<StripeId, Slice> footerSliceCache, Cache<StripeStreamId, Slice> indexStreamSliceCache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.footerSliceCache = requireNonNull(footerSliceCache, "footerSliceCache is null");
+        this.indexStreamSliceCache = requireNonNull(indexStreamSliceCache, "indexStreamSliceCache is null");
+    }
+
+    @Override
+    public Slice getStripeFooterSlice(OrcDataSource orcDataSource, StripeId stripeId, long footerOffset, int footerLength)
+            throws IOException
+    {
+        try {
+            return footerSliceCache.get(stripeId, () -> delegate.getStripeFooterSlice(orcDataSource, stripeId, footerOffset, footerLength));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new RuntimeException("Unexpected error loading stripe footer for " + orcDataSource.getId(), e.getCause());
+        }
+    }
+
+    @Override
+    public Map<StreamId, OrcDataSourceInput> getInputs(OrcDataSource orcDataSource, StripeId stripeId, Map<StreamId, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<StreamId, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        Map<StreamId, DiskRange> uncachedDiskRanges = new HashMap<>();
+        for (Entry<StreamId, DiskRange> entry : diskRanges.entrySet()) {
+            StreamId streamId = entry.getKey();
+            if (isCachedStream(streamId.getStreamKind())) {
+                Slice slice = indexStreamSliceCache.getIfPresent(new StripeStreamId(stripeId, streamId));
+                if (slice != null) {
+                    inputs.put(streamId, new OrcDataSourceInput(slice.getInput(), slice.length()));
+                    continue;
+                }
+            }
+            uncachedDiskRanges.put(streamId, entry.getValue());
+        }
+
+        // the uncached streams are read together, so that index and data streams of the same stripe can still be merged into fewer reads
+        Map<StreamId, OrcDataSourceInput> uncachedInputs = delegate.getInputs(orcDataSource, stripeId, uncachedDiskRanges);
+        for (Entry<StreamId, OrcDataSourceInput> entry : uncachedInputs.entrySet()) {
+            StreamId streamId = entry.getKey();
+            if (!isCachedStream(streamId.getStreamKind())) {
+                inputs.put(entry);
+                continue;
+            }
+
+            // copy the stream, so the cache does not retain the buffer of a merged read
+            FixedLengthSliceInput input = entry.getValue().getInput();
+            Slice slice = Slices.copyOf(input.readSlice(toIntExact(input.length())));
+            indexStreamSliceCache.put(new StripeStreamId(stripeId, streamId), slice);
+            inputs.put(streamId, new OrcDataSourceInput(slice.getInput(), slice.length()));
+        }
+        return inputs.build();
+    }
+
+    private static boolean isCachedStream(StreamKind streamKind)
+    {
+        return streamKind == ROW_INDEX || streamKind == BLOOM_FILTER || streamKind == BLOOM_FILTER_UTF8;
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        footerSliceCache.invalidateAll();
+        indexStreamSliceCache.invalidateAll();
+    }
+
+    @Managed
+    public double getFooterHitRate()
+    {
+        return footerSliceCache.stats().hitRate();
+    }
+
+    @Managed
+    public long getFooterEvictionCount()
+    {
+        return footerSliceCache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getCachedFooterCount()
+    {
+        return footerSliceCache.size();
+    }
+
+    @Managed
+    public double getIndexStreamHitRate()
+    {
+        return indexStreamSliceCache.stats().hitRate();
+    }
+
+    @Managed
+    public long getIndexStreamEvictionCount()
+    {
+        return indexStreamSliceCache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getCachedIndexStreamCount()
+    {
+        return indexStreamSliceCache.size();
+    }
+}
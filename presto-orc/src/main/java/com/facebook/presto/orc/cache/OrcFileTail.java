@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
+import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
+import org.openjdk.jol.info.ClassLayout;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The decoded postscript, footer and metadata sections of an ORC file.
+ */
+public class OrcFileTail
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OrcFileTail.class).instanceSize();
+
+    private final PostScript postScript;
+    private final Footer footer;
+    private final Metadata metadata;
+    private final long retainedSizeInBytes;
+
+    public OrcFileTail(PostScript postScript, Footer footer, Metadata metadata)
+    {
+        this.postScript = requireNonNull(postScript, "postScript is null");
+        this.footer = requireNonNull(footer, "footer is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.retainedSizeInBytes = estimateRetainedSizeInBytes(postScript, footer, metadata);
+    }
+
+    public PostScript getPostScript()
+    {
+        return postScript;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    /**
+     * The decoded sections are not sized exactly: the statistics are counted
+     * precisely and the serialized footer and metadata lengths stand in for
+     * the stripe list, types and user metadata.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    private static long estimateRetainedSizeInBytes(PostScript postScript, Footer footer, Metadata metadata)
+    {
+        long size = INSTANCE_SIZE + postScript.getFooterLength() + postScript.getMetadataLength();
+        for (ColumnStatistics columnStatistics : footer.getFileStats()) {
+            size += columnStatistics.getRetainedSizeInBytes();
+        }
+        for (StripeStatistics stripeStatistics : metadata.getStripeStatsList()) {
+            size += stripeStatistics.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+}
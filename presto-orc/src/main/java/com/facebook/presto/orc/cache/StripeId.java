@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public final class StripeId
+{
+    private final OrcFileKey fileKey;
+    private final long offset;
+
+    public StripeId(OrcFileKey fileKey, long offset)
+    {
+        this.fileKey = requireNonNull(fileKey, "fileKey is null");
+        this.offset = offset;
+    }
+
+    public OrcFileKey getFileKey()
+    {
+        return fileKey;
+    }
+
+    public long getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StripeId that = (StripeId) o;
+        return offset == that.offset &&
+                Objects.equals(fileKey, that.fileKey);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(fileKey, offset);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("fileKey", fileKey)
+                .add("offset", offset)
+                .toString();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.orc.StreamId;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public final class StripeStreamId
+{
+    private final StripeId stripeId;
+    private final StreamId streamId;
+
+    public StripeStreamId(StripeId stripeId, StreamId streamId)
+    {
+        this.stripeId = requireNonNull(stripeId, "stripeId is null");
+        this.streamId = requireNonNull(streamId, "streamId is null");
+    }
+
+    public StripeId getStripeId()
+    {
+        return stripeId;
+    }
+
+    public StreamId getStreamId()
+    {
+        return streamId;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StripeStreamId that = (StripeStreamId) o;
+        return Objects.equals(stripeId, that.stripeId) &&
+                Objects.equals(streamId, that.streamId);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(stripeId, streamId);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("stripeId", stripeId)
+                .add("streamId", streamId)
+                .toString();
+    }
+}
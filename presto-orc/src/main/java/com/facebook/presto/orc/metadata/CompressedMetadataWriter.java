@@ -14,6 +14,7 @@
 package com.facebook.presto.orc.metadata;
 
 import com.facebook.presto.orc.OrcOutputBuffer;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 
@@ -75,6 +76,13 @@ public class CompressedMetadataWriter
         return getSliceOutput();
     }
 
+    public Slice writeBloomFilters(List<HiveBloomFilter> bloomFilters)
+            throws IOException
+    {
+        metadataWriter.writeBloomFilters(buffer, bloomFilters);
+        return getSliceOutput();
+    }
+
     private Slice getSliceOutput()
     {
         buffer.close();
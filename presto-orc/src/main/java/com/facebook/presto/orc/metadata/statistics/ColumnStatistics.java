@@ -139,7 +139,7 @@ public class ColumnStatistics
     public ColumnStatistics withBloomFilter(HiveBloomFilter bloomFilter)
     {
         return new ColumnStatistics(
-                getNumberOfValues(),
+                hasNumberOfValues ? numberOfValues : null,
                 minAverageValueSizeInBytes,
                 booleanStatistics,
                 integerStatistics,
@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata.statistics;
+
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class HiveBloomFilterBuilder
+        implements BloomFilterBuilder
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(HiveBloomFilterBuilder.class).instanceSize();
+
+    private final HiveBloomFilter bloomFilter;
+
+    public HiveBloomFilterBuilder(int expectedEntries, double fpp)
+    {
+        checkArgument(expectedEntries > 0, "expectedEntries must be positive");
+        checkArgument(fpp > 0.0 && fpp < 1.0, "fpp must be between 0 and 1");
+        this.bloomFilter = new HiveBloomFilter(expectedEntries, fpp);
+    }
+
+    @Override
+    public void addLong(long value)
+    {
+        bloomFilter.addLong(value);
+    }
+
+    @Override
+    public void addValue(Slice value)
+    {
+        // hashed like BloomFilter.test(byte[]) used by the reader
+        bloomFilter.add(value.getBytes());
+    }
+
+    @Override
+    public Optional<HiveBloomFilter> buildBloomFilter()
+    {
+        return Optional.of(bloomFilter);
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + bloomFilter.getRetainedSizeInBytes();
+    }
+}
@@ -13,9 +13,9 @@
  */
 package com.facebook.presto.orc.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.orc.StreamDescriptor;
-import com.facebook.presto.orc.TupleDomainFilter;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.stream.BooleanInputStream;
 import com.facebook.presto.orc.stream.InputStreamSource;
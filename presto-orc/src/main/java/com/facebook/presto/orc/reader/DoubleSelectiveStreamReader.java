@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.StreamDescriptor;
+import com.facebook.presto.orc.stream.DoubleInputStream;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.LongArrayBlock;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Double.doubleToLongBits;
+
+public class DoubleSelectiveStreamReader
+        extends AbstractFloatingPointSelectiveStreamReader<DoubleInputStream>
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DoubleSelectiveStreamReader.class).instanceSize();
+    private static final Block NULL_BLOCK = DOUBLE.createBlockBuilder(null, 1).appendNull().build();
+
+    @Nullable
+    private long[] values;
+
+    public DoubleSelectiveStreamReader(
+            StreamDescriptor streamDescriptor,
+            Optional<TupleDomainFilter> filter,
+            boolean outputRequired,
+            LocalMemoryContext systemMemoryContext)
+    {
+        super(streamDescriptor, DoubleInputStream.class, NULL_BLOCK, filter, outputRequired, systemMemoryContext);
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(values) + sizeOf(nulls) + sizeOf(outputPositions);
+    }
+
+    @Override
+    protected boolean readNextValue(int index)
+            throws IOException
+    {
+        double value = dataStream.next();
+        if (filter != null && !filter.testDouble(value)) {
+            return false;
+        }
+        if (outputRequired) {
+            values[index] = doubleToLongBits(value);
+        }
+        return true;
+    }
+
+    @Override
+    protected void ensureValuesCapacity(int capacity)
+    {
+        if (values == null || values.length < capacity) {
+            values = new long[capacity];
+        }
+    }
+
+    @Override
+    protected void copyValue(int sourceIndex, int targetIndex)
+    {
+        values[targetIndex] = values[sourceIndex];
+    }
+
+    @Override
+    protected Block createBlock(int positionCount, @Nullable boolean[] nulls)
+    {
+        return new LongArrayBlock(positionCount, Optional.ofNullable(nulls), values);
+    }
+
+    @Override
+    protected Block createBlock(int[] indexes, int positionCount, @Nullable boolean[] nulls)
+    {
+        long[] valuesCopy = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            valuesCopy[i] = values[indexes[i]];
+        }
+        return new LongArrayBlock(positionCount, Optional.ofNullable(nulls), valuesCopy);
+    }
+
+    @Override
+    protected void releaseValues()
+    {
+        values = null;
+    }
+}
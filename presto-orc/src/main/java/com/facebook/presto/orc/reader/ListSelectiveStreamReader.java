@@ -0,0 +1,462 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.OrcCorruptionException;
+import com.facebook.presto.orc.StreamDescriptor;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.stream.BooleanInputStream;
+import com.facebook.presto.orc.stream.InputStreamSource;
+import com.facebook.presto.orc.stream.InputStreamSources;
+import com.facebook.presto.orc.stream.LongInputStream;
+import com.facebook.presto.spi.Subfield;
+import com.facebook.presto.spi.block.ArrayBlock;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockLease;
+import com.facebook.presto.spi.block.ClosingBlockLease;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads arrays. Filters on the array itself are limited to IS NULL and IS NOT NULL. Required
+ * subfields are passed down to the element reader with the leading subscript removed, which
+ * allows pruning of the fields of array elements of struct type.
+ */
+public class ListSelectiveStreamReader
+        implements SelectiveStreamReader
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ListSelectiveStreamReader.class).instanceSize();
+
+    private final StreamDescriptor streamDescriptor;
+    @Nullable
+    private final TupleDomainFilter filter;
+    private final boolean nullsAllowed;
+    private final boolean nonNullsAllowed;
+    private final boolean outputRequired;
+    @Nullable
+    private final Type elementType;
+    @Nullable
+    private final SelectiveStreamReader elementReader;
+
+    private InputStreamSource<BooleanInputStream> presentStreamSource = missingStreamSource(BooleanInputStream.class);
+    @Nullable
+    private BooleanInputStream presentStream;
+
+    private InputStreamSource<LongInputStream> lengthStreamSource = missingStreamSource(LongInputStream.class);
+    @Nullable
+    private LongInputStream lengthStream;
+
+    private boolean rowGroupOpen;
+    private int readOffset;
+    // number of elements before readOffset in the current row group
+    private int elementReadOffset;
+
+    @Nullable
+    private boolean[] nulls;
+    @Nullable
+    private int[] outputPositions;
+    private int outputPositionCount;
+    // for each output position, index of the first element relative to elementOffset and the number of elements
+    @Nullable
+    private int[] elementStarts;
+    @Nullable
+    private int[] elementLengths;
+    private int elementOffset;
+    private int[] elementPositions = new int[0];
+    private int elementPositionCount;
+    private int[] selectedElementPositions = new int[0];
+    private boolean valuesInUse;
+
+    private final LocalMemoryContext systemMemoryContext;
+
+    public ListSelectiveStreamReader(
+            StreamDescriptor streamDescriptor,
+            Optional<TupleDomainFilter> filter,
+            Optional<Type> outputType,
+            List<Subfield> requiredSubfields,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(outputType, "outputType is null");
+        requireNonNull(requiredSubfields, "requiredSubfields is null");
+        checkArgument(filter.isPresent() || outputType.isPresent(), "filter must be present if output is not required");
+        checkArgument(!filter.isPresent() || filter.get() == TupleDomainFilter.IS_NULL || filter.get() == TupleDomainFilter.IS_NOT_NULL, "List stream reader supports only IS NULL and IS NOT NULL filters");
+
+        this.streamDescriptor = requireNonNull(streamDescriptor, "streamDescriptor is null");
+        this.filter = filter.orElse(null);
+        this.nullsAllowed = this.filter == null || this.filter.testNull();
+        this.nonNullsAllowed = this.filter != TupleDomainFilter.IS_NULL;
+        this.outputRequired = outputType.isPresent();
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null").newLocalMemoryContext(ListSelectiveStreamReader.class.getSimpleName());
+
+        if (outputType.isPresent()) {
+            this.elementType = ((ArrayType) outputType.get()).getElementType();
+            this.elementReader = SelectiveStreamReaders.createStreamReader(
+                    streamDescriptor.getNestedStreams().get(0),
+                    Optional.empty(),
+                    Optional.of(elementType),
+                    getElementSubfields(requiredSubfields),
+                    hiveStorageTimeZone,
+                    systemMemoryContext.newAggregatedMemoryContext());
+        }
+        else {
+            this.elementType = null;
+            this.elementReader = null;
+        }
+    }
+
+    static List<Subfield> getElementSubfields(List<Subfield> requiredSubfields)
+    {
+        ImmutableList.Builder<Subfield> elementSubfields = ImmutableList.builder();
+        for (Subfield subfield : requiredSubfields) {
+            List<Subfield.PathElement> path = subfield.getPath();
+            if (path.size() <= 1) {
+                // all of the element is required
+                return ImmutableList.of();
+            }
+            elementSubfields.add(new Subfield(subfield.getRootName(), path.subList(1, path.size())));
+        }
+        return elementSubfields.build();
+    }
+
+    @Override
+    public void startStripe(InputStreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
+            throws IOException
+    {
+        presentStreamSource = missingStreamSource(BooleanInputStream.class);
+        lengthStreamSource = missingStreamSource(LongInputStream.class);
+
+        readOffset = 0;
+        elementReadOffset = 0;
+
+        presentStream = null;
+        lengthStream = null;
+
+        rowGroupOpen = false;
+
+        if (elementReader != null) {
+            elementReader.startStripe(dictionaryStreamSources, encoding);
+        }
+    }
+
+    @Override
+    public void startRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        presentStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, PRESENT, BooleanInputStream.class);
+        lengthStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, LENGTH, LongInputStream.class);
+
+        readOffset = 0;
+        elementReadOffset = 0;
+
+        presentStream = null;
+        lengthStream = null;
+
+        rowGroupOpen = false;
+
+        if (elementReader != null) {
+            elementReader.startRowGroup(dataStreamSources);
+        }
+    }
+
+    private void openRowGroup()
+            throws IOException
+    {
+        presentStream = presentStreamSource.openStream();
+        lengthStream = lengthStreamSource.openStream();
+        rowGroupOpen = true;
+    }
+
+    @Override
+    public int read(int offset, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset < offset) {
+            elementReadOffset += skip(offset - readOffset);
+        }
+
+        ensureCapacity(positionCount);
+        if (filter == null) {
+            outputPositions = positions;
+        }
+
+        outputPositionCount = 0;
+        elementPositionCount = 0;
+        elementOffset = elementReadOffset;
+
+        int elementPosition = 0;
+        int streamPosition = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (position > streamPosition) {
+                elementPosition += skip(position - streamPosition);
+                streamPosition = position;
+            }
+
+            if (presentStream != null && !presentStream.nextBit()) {
+                if (nullsAllowed) {
+                    if (outputRequired) {
+                        nulls[outputPositionCount] = true;
+                        elementLengths[outputPositionCount] = 0;
+                    }
+                    if (filter != null) {
+                        outputPositions[outputPositionCount] = position;
+                    }
+                    outputPositionCount++;
+                }
+            }
+            else {
+                if (lengthStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
+                }
+                int length = toIntExact(lengthStream.next());
+                if (nonNullsAllowed) {
+                    if (outputRequired) {
+                        nulls[outputPositionCount] = false;
+                        elementStarts[outputPositionCount] = elementPosition;
+                        elementLengths[outputPositionCount] = length;
+                        addElementPositions(elementPosition, length);
+                    }
+                    if (filter != null) {
+                        outputPositions[outputPositionCount] = position;
+                    }
+                    outputPositionCount++;
+                }
+                elementPosition += length;
+            }
+            streamPosition++;
+        }
+
+        if (elementReader != null && elementPositionCount > 0) {
+            // element reader has no filter, hence all positions are read
+            elementReader.read(elementOffset, elementPositions, elementPositionCount);
+        }
+
+        // account memory used by nulls, offsets and positions; element reader accounts for its own memory
+        systemMemoryContext.setBytes(getLocalRetainedSizeInBytes());
+
+        readOffset = offset + streamPosition;
+        elementReadOffset = elementOffset + elementPosition;
+        return outputPositionCount;
+    }
+
+    private void addElementPositions(int start, int length)
+    {
+        if (elementPositions.length < elementPositionCount + length) {
+            elementPositions = Arrays.copyOf(elementPositions, max(elementPositionCount + length, elementPositions.length * 2));
+        }
+        for (int i = 0; i < length; i++) {
+            elementPositions[elementPositionCount] = start + i;
+            elementPositionCount++;
+        }
+    }
+
+    /**
+     * @return the number of elements skipped
+     */
+    private int skip(int items)
+            throws IOException
+    {
+        int lengthsToSkip = items;
+        if (presentStream != null) {
+            lengthsToSkip = presentStream.countBitsSet(items);
+        }
+        if (lengthsToSkip == 0) {
+            return 0;
+        }
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
+        }
+        return toIntExact(lengthStream.sum(lengthsToSkip));
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (outputRequired) {
+            if (nulls == null || nulls.length < capacity) {
+                nulls = new boolean[capacity];
+                elementStarts = new int[capacity];
+                elementLengths = new int[capacity];
+            }
+        }
+        if (filter != null) {
+            if (outputPositions == null || outputPositions.length < capacity) {
+                outputPositions = new int[capacity];
+            }
+        }
+    }
+
+    @Override
+    public int[] getReadPositions()
+    {
+        return outputPositions;
+    }
+
+    @Override
+    public Block getBlock(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        boolean[] nullsCopy = new boolean[positionCount];
+        int[] offsets = new int[positionCount + 1];
+        int selectedCount = selectPositions(positions, positionCount, nullsCopy, offsets);
+
+        Block elements;
+        if (selectedCount == 0) {
+            elements = elementType.createBlockBuilder(null, 0).build();
+        }
+        else {
+            elements = elementReader.getBlock(selectedElementPositions, selectedCount);
+        }
+        return ArrayBlock.fromElementBlock(positionCount, Optional.of(nullsCopy), offsets, elements);
+    }
+
+    @Override
+    public BlockLease getBlockView(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        boolean[] nullsCopy = new boolean[positionCount];
+        int[] offsets = new int[positionCount + 1];
+        int selectedCount = selectPositions(positions, positionCount, nullsCopy, offsets);
+
+        if (selectedCount == 0) {
+            return ClosingBlockLease.newLease(ArrayBlock.fromElementBlock(positionCount, Optional.of(nullsCopy), offsets, elementType.createBlockBuilder(null, 0).build()));
+        }
+
+        BlockLease elementLease = elementReader.getBlockView(selectedElementPositions, selectedCount);
+        valuesInUse = true;
+        return ClosingBlockLease.newLease(ArrayBlock.fromElementBlock(positionCount, Optional.of(nullsCopy), offsets, elementLease.get()), () -> {
+            elementLease.close();
+            valuesInUse = false;
+        });
+    }
+
+    /**
+     * Fills in nulls and offsets for the specified positions and collects the positions of their
+     * elements into selectedElementPositions.
+     *
+     * @return the number of elements of the specified positions
+     */
+    private int selectPositions(int[] positions, int positionCount, boolean[] nullsCopy, int[] offsets)
+    {
+        if (selectedElementPositions.length < elementPositionCount) {
+            selectedElementPositions = new int[elementPositionCount];
+        }
+
+        int selectedCount = 0;
+        int positionIndex = 0;
+        int nextPosition = positions[positionIndex];
+        for (int i = 0; i < outputPositionCount; i++) {
+            if (outputPositions[i] < nextPosition) {
+                continue;
+            }
+
+            assert outputPositions[i] == nextPosition;
+
+            nullsCopy[positionIndex] = nulls[i];
+            if (!nulls[i]) {
+                for (int j = 0; j < elementLengths[i]; j++) {
+                    selectedElementPositions[selectedCount] = elementStarts[i] + j;
+                    selectedCount++;
+                }
+            }
+            offsets[positionIndex + 1] = selectedCount;
+
+            positionIndex++;
+            if (positionIndex >= positionCount) {
+                break;
+            }
+
+            nextPosition = positions[positionIndex];
+        }
+        return selectedCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .addValue(streamDescriptor)
+                .toString();
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            if (elementReader != null) {
+                closer.register(elementReader::close);
+            }
+            closer.register(systemMemoryContext::close);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long getLocalRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE + sizeOf(nulls) + sizeOf(elementStarts) + sizeOf(elementLengths) + sizeOf(elementPositions) + sizeOf(selectedElementPositions);
+        if (filter != null) {
+            retainedSizeInBytes += sizeOf(outputPositions);
+        }
+        return retainedSizeInBytes;
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return getLocalRetainedSizeInBytes() + (elementReader == null ? 0 : elementReader.getRetainedSizeInBytes());
+    }
+}
@@ -267,7 +267,7 @@ public class MapFlatBatchStreamReader
                 streamDescriptor.getStreamName(),
                 streamDescriptor.getStreamId(),
                 streamDescriptor.getFieldName(),
-                streamDescriptor.getStreamType(),
+                streamDescriptor.getOrcType(),
                 streamDescriptor.getOrcDataSource(),
                 streamDescriptors,
                 sequence);
@@ -13,9 +13,9 @@
  */
 package com.facebook.presto.orc.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.orc.StreamDescriptor;
-import com.facebook.presto.orc.TupleDomainFilter;
 import com.facebook.presto.spi.Subfield;
 import com.facebook.presto.spi.type.Type;
 import org.joda.time.DateTimeZone;
@@ -50,16 +50,29 @@ public final class SelectiveStreamReaders
                 checkArgument(requiredSubfields.isEmpty(), "Primitive type stream reader doesn't support subfields");
                 return new LongSelectiveStreamReader(streamDescriptor, filter, outputType, systemMemoryContext);
             case FLOAT:
+                checkArgument(requiredSubfields.isEmpty(), "Float stream reader doesn't support subfields");
+                return new FloatSelectiveStreamReader(streamDescriptor, filter, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveStreamReaders.class.getSimpleName()));
             case DOUBLE:
+                checkArgument(requiredSubfields.isEmpty(), "Double stream reader doesn't support subfields");
+                return new DoubleSelectiveStreamReader(streamDescriptor, filter, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveStreamReaders.class.getSimpleName()));
             case BINARY:
             case STRING:
             case VARCHAR:
             case CHAR:
+                checkArgument(requiredSubfields.isEmpty(), "Slice stream reader doesn't support subfields");
+                return new SliceSelectiveStreamReader(streamDescriptor, filter, outputType, systemMemoryContext);
             case TIMESTAMP:
-            case LIST:
+                checkArgument(requiredSubfields.isEmpty(), "Timestamp stream reader doesn't support subfields");
+                return new TimestampSelectiveStreamReader(streamDescriptor, filter, hiveStorageTimeZone, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveStreamReaders.class.getSimpleName()));
+            case DECIMAL:
+                checkArgument(requiredSubfields.isEmpty(), "Decimal stream reader doesn't support subfields");
+                return new DecimalSelectiveStreamReader(streamDescriptor, filter, outputType, systemMemoryContext.newLocalMemoryContext(SelectiveStreamReaders.class.getSimpleName()));
             case STRUCT:
+                return new StructSelectiveStreamReader(streamDescriptor, filter, outputType, requiredSubfields, hiveStorageTimeZone, systemMemoryContext);
+            case LIST:
+                return new ListSelectiveStreamReader(streamDescriptor, filter, outputType, requiredSubfields, hiveStorageTimeZone, systemMemoryContext);
             case MAP:
-            case DECIMAL:
+                return new MapSelectiveStreamReader(streamDescriptor, filter, outputType, requiredSubfields, hiveStorageTimeZone, systemMemoryContext);
             case UNION:
             default:
                 throw new IllegalArgumentException("Unsupported type: " + streamDescriptor.getStreamType());
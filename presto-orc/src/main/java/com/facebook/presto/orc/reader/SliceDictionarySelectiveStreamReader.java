@@ -0,0 +1,601 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.OrcCorruptionException;
+import com.facebook.presto.orc.StreamDescriptor;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.stream.BooleanInputStream;
+import com.facebook.presto.orc.stream.ByteArrayInputStream;
+import com.facebook.presto.orc.stream.InputStreamSource;
+import com.facebook.presto.orc.stream.InputStreamSources;
+import com.facebook.presto.orc.stream.LongInputStream;
+import com.facebook.presto.orc.stream.RowGroupDictionaryLengthInputStream;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockLease;
+import com.facebook.presto.spi.block.ClosingBlockLease;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.block.VariableWidthBlock;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.IN_DICTIONARY;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_GROUP_DICTIONARY;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_GROUP_DICTIONARY_LENGTH;
+import static com.facebook.presto.orc.reader.SliceBatchStreamReader.computeTruncatedLength;
+import static com.facebook.presto.orc.reader.SliceBatchStreamReader.getMaxCodePointCount;
+import static com.facebook.presto.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static com.facebook.presto.spi.type.Chars.isCharType;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads dictionary encoded strings. The filter is evaluated at most once per dictionary entry and
+ * the result is remembered for the lifetime of the dictionary, so a row is tested with a single
+ * array lookup once its dictionary entry has been seen.
+ */
+public class SliceDictionarySelectiveStreamReader
+        implements SelectiveStreamReader
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SliceDictionarySelectiveStreamReader.class).instanceSize();
+
+    private static final byte FILTER_NOT_EVALUATED = 0;
+    private static final byte FILTER_PASSED = 1;
+    private static final byte FILTER_FAILED = 2;
+
+    private static final byte[] EMPTY_DICTIONARY_DATA = new byte[0];
+    // add one extra entry for null after strip/rowGroup dictionary
+    private static final int[] EMPTY_DICTIONARY_OFFSETS = new int[2];
+
+    private final StreamDescriptor streamDescriptor;
+    @Nullable
+    private final TupleDomainFilter filter;
+    private final boolean nullsAllowed;
+    private final boolean outputRequired;
+    private final Type type;
+    private final Block nullBlock;
+
+    private InputStreamSource<BooleanInputStream> presentStreamSource = missingStreamSource(BooleanInputStream.class);
+    @Nullable
+    private BooleanInputStream presentStream;
+
+    private InputStreamSource<ByteArrayInputStream> stripeDictionaryDataStreamSource = missingStreamSource(ByteArrayInputStream.class);
+    private InputStreamSource<LongInputStream> stripeDictionaryLengthStreamSource = missingStreamSource(LongInputStream.class);
+    private boolean stripeDictionaryOpen;
+    private int stripeDictionarySize;
+    private int[] stripeDictionaryLength = new int[0];
+    private byte[] stripeDictionaryData = EMPTY_DICTIONARY_DATA;
+    private int[] stripeDictionaryOffsetVector = EMPTY_DICTIONARY_OFFSETS;
+
+    private InputStreamSource<BooleanInputStream> inDictionaryStreamSource = missingStreamSource(BooleanInputStream.class);
+    @Nullable
+    private BooleanInputStream inDictionaryStream;
+
+    private InputStreamSource<ByteArrayInputStream> rowGroupDictionaryDataStreamSource = missingStreamSource(ByteArrayInputStream.class);
+    private InputStreamSource<RowGroupDictionaryLengthInputStream> rowGroupDictionaryLengthStreamSource = missingStreamSource(RowGroupDictionaryLengthInputStream.class);
+    private int[] rowGroupDictionaryLength = new int[0];
+
+    private InputStreamSource<LongInputStream> dataStreamSource = missingStreamSource(LongInputStream.class);
+    @Nullable
+    private LongInputStream dataStream;
+
+    // current dictionary, including the row group dictionary entries and a trailing null entry
+    private byte[] dictionaryData = EMPTY_DICTIONARY_DATA;
+    private int[] dictionaryOffsets = EMPTY_DICTIONARY_OFFSETS;
+    private int dictionarySize;
+    private Block dictionaryBlock;
+    private byte[] filterResults = new byte[0];
+
+    private boolean rowGroupOpen;
+    private int readOffset;
+
+    @Nullable
+    private int[] values;
+    @Nullable
+    private int[] outputPositions;
+    private int outputPositionCount;
+    private boolean allNulls;
+    private boolean valuesInUse;
+
+    private LocalMemoryContext systemMemoryContext;
+
+    public SliceDictionarySelectiveStreamReader(
+            StreamDescriptor streamDescriptor,
+            Optional<TupleDomainFilter> filter,
+            Optional<Type> outputType,
+            LocalMemoryContext systemMemoryContext)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(outputType, "outputType is null");
+        checkArgument(filter.isPresent() || outputType.isPresent(), "filter must be present if output is not required");
+        this.streamDescriptor = requireNonNull(streamDescriptor, "streamDescriptor is null");
+        this.filter = filter.orElse(null);
+        this.outputRequired = outputType.isPresent();
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+
+        // without a type, values are neither truncated nor padded
+        this.type = outputType.orElse(VARBINARY);
+        this.nullBlock = type.createBlockBuilder(null, 1).appendNull().build();
+
+        nullsAllowed = this.filter == null || this.filter.testNull();
+    }
+
+    @Override
+    public int read(int offset, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        allNulls = false;
+
+        if (outputRequired) {
+            ensureValuesCapacity(positionCount);
+        }
+
+        if (filter != null) {
+            ensureOutputPositionsCapacity(positionCount);
+        }
+        else {
+            outputPositions = positions;
+        }
+
+        // account memory used by values, outputPositions and the dictionary
+        systemMemoryContext.setBytes(getRetainedSizeInBytes());
+
+        if (readOffset < offset) {
+            skip(offset - readOffset);
+        }
+
+        outputPositionCount = 0;
+        int streamPosition = 0;
+        if (dataStream == null && presentStream != null) {
+            streamPosition = readAllNulls(positions, positionCount);
+        }
+        else {
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (position > streamPosition) {
+                    skip(position - streamPosition);
+                    streamPosition = position;
+                }
+
+                if (presentStream != null && !presentStream.nextBit()) {
+                    if (nullsAllowed) {
+                        if (outputRequired) {
+                            // null is the last entry in the dictionary
+                            values[outputPositionCount] = dictionarySize;
+                        }
+                        if (filter != null) {
+                            outputPositions[outputPositionCount] = position;
+                        }
+                        outputPositionCount++;
+                    }
+                }
+                else {
+                    int id = toIntExact(dataStream.next());
+                    if (inDictionaryStream != null && !inDictionaryStream.nextBit()) {
+                        // row group dictionary elements are after the main dictionary
+                        id += stripeDictionarySize;
+                    }
+                    if (filter == null || testDictionaryEntry(id)) {
+                        if (outputRequired) {
+                            values[outputPositionCount] = id;
+                        }
+                        if (filter != null) {
+                            outputPositions[outputPositionCount] = position;
+                        }
+                        outputPositionCount++;
+                    }
+                }
+                streamPosition++;
+            }
+        }
+
+        readOffset = offset + streamPosition;
+        return outputPositionCount;
+    }
+
+    private boolean testDictionaryEntry(int id)
+    {
+        byte result = filterResults[id];
+        if (result == FILTER_NOT_EVALUATED) {
+            int start = dictionaryOffsets[id];
+            result = filter.testBytes(dictionaryData, start, dictionaryOffsets[id + 1] - start) ? FILTER_PASSED : FILTER_FAILED;
+            filterResults[id] = result;
+        }
+        return result == FILTER_PASSED;
+    }
+
+    private int readAllNulls(int[] positions, int positionCount)
+            throws IOException
+    {
+        presentStream.skip(positions[positionCount - 1]);
+
+        if (nullsAllowed) {
+            outputPositionCount = positionCount;
+            if (filter != null) {
+                System.arraycopy(positions, 0, outputPositions, 0, positionCount);
+            }
+            allNulls = true;
+        }
+        else {
+            outputPositionCount = 0;
+        }
+
+        return positions[positionCount - 1] + 1;
+    }
+
+    private void skip(int items)
+            throws IOException
+    {
+        if (dataStream == null) {
+            presentStream.skip(items);
+        }
+        else if (presentStream != null) {
+            int dataToSkip = presentStream.countBitsSet(items);
+            if (inDictionaryStream != null) {
+                inDictionaryStream.skip(dataToSkip);
+            }
+            dataStream.skip(dataToSkip);
+        }
+        else {
+            if (inDictionaryStream != null) {
+                inDictionaryStream.skip(items);
+            }
+            dataStream.skip(items);
+        }
+    }
+
+    private void openRowGroup()
+            throws IOException
+    {
+        // read the stripe dictionary
+        if (!stripeDictionaryOpen) {
+            if (stripeDictionarySize > 0) {
+                if (stripeDictionaryLength.length < stripeDictionarySize) {
+                    stripeDictionaryLength = new int[stripeDictionarySize];
+                }
+
+                LongInputStream lengthStream = stripeDictionaryLengthStreamSource.openStream();
+                if (lengthStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Dictionary is not empty but dictionary length stream is not present");
+                }
+                lengthStream.nextIntVector(stripeDictionarySize, stripeDictionaryLength, 0);
+
+                long dataLength = 0;
+                for (int i = 0; i < stripeDictionarySize; i++) {
+                    dataLength += stripeDictionaryLength[i];
+                }
+
+                // we must always create a new dictionary array because the previous dictionary may still be referenced
+                stripeDictionaryData = new byte[toIntExact(dataLength)];
+                // add one extra entry for null
+                stripeDictionaryOffsetVector = new int[stripeDictionarySize + 2];
+
+                ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
+                readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, stripeDictionaryData, stripeDictionaryOffsetVector, type);
+            }
+            else {
+                stripeDictionaryData = EMPTY_DICTIONARY_DATA;
+                stripeDictionaryOffsetVector = EMPTY_DICTIONARY_OFFSETS;
+            }
+
+            setDictionary(stripeDictionaryData, stripeDictionaryOffsetVector, stripeDictionarySize);
+        }
+        stripeDictionaryOpen = true;
+
+        // read the row group dictionary
+        RowGroupDictionaryLengthInputStream dictionaryLengthStream = rowGroupDictionaryLengthStreamSource.openStream();
+        if (dictionaryLengthStream != null) {
+            int rowGroupDictionarySize = dictionaryLengthStream.getEntryCount();
+
+            if (rowGroupDictionaryLength.length < rowGroupDictionarySize) {
+                rowGroupDictionaryLength = new int[rowGroupDictionarySize];
+            }
+
+            dictionaryLengthStream.nextIntVector(rowGroupDictionarySize, rowGroupDictionaryLength, 0);
+            long dataLength = 0;
+            for (int i = 0; i < rowGroupDictionarySize; i++) {
+                dataLength += rowGroupDictionaryLength[i];
+            }
+
+            // The first elements of the dictionary are from the stripe dictionary, then the row group dictionary elements, and then a null
+            byte[] rowGroupDictionaryData = Arrays.copyOf(stripeDictionaryData, stripeDictionaryOffsetVector[stripeDictionarySize] + toIntExact(dataLength));
+            int[] rowGroupDictionaryOffsetVector = Arrays.copyOf(stripeDictionaryOffsetVector, stripeDictionarySize + rowGroupDictionarySize + 2);
+
+            ByteArrayInputStream dictionaryDataStream = rowGroupDictionaryDataStreamSource.openStream();
+            readDictionary(dictionaryDataStream, rowGroupDictionarySize, rowGroupDictionaryLength, stripeDictionarySize, rowGroupDictionaryData, rowGroupDictionaryOffsetVector, type);
+            setDictionary(rowGroupDictionaryData, rowGroupDictionaryOffsetVector, stripeDictionarySize + rowGroupDictionarySize);
+        }
+        else if (dictionaryData != stripeDictionaryData) {
+            // the previous row group had its own dictionary
+            setDictionary(stripeDictionaryData, stripeDictionaryOffsetVector, stripeDictionarySize);
+        }
+
+        presentStream = presentStreamSource.openStream();
+        inDictionaryStream = inDictionaryStreamSource.openStream();
+        dataStream = dataStreamSource.openStream();
+
+        rowGroupOpen = true;
+    }
+
+    private void setDictionary(byte[] data, int[] offsets, int size)
+    {
+        dictionaryData = data;
+        dictionaryOffsets = offsets;
+        dictionarySize = size;
+
+        // the last entry of the dictionary is null
+        offsets[size + 1] = offsets[size];
+        boolean[] isNullVector = new boolean[size + 1];
+        isNullVector[size] = true;
+        dictionaryBlock = new VariableWidthBlock(size + 1, wrappedBuffer(data), offsets, Optional.of(isNullVector));
+
+        // filter results are only valid for the dictionary they were computed for
+        if (filter != null) {
+            if (filterResults.length < size) {
+                filterResults = new byte[size];
+            }
+            else {
+                Arrays.fill(filterResults, 0, size, FILTER_NOT_EVALUATED);
+            }
+        }
+    }
+
+    // Reads dictionary into data and offsetVector
+    private static void readDictionary(
+            @Nullable ByteArrayInputStream dictionaryDataStream,
+            int dictionarySize,
+            int[] dictionaryLengthVector,
+            int offsetVectorOffset,
+            byte[] data,
+            int[] offsetVector,
+            Type type)
+            throws IOException
+    {
+        Slice slice = wrappedBuffer(data);
+
+        // initialize the offset if necessary;
+        // otherwise, use the previous offset
+        if (offsetVectorOffset == 0) {
+            offsetVector[0] = 0;
+        }
+
+        int maxCodePointCount = getMaxCodePointCount(type);
+        boolean isCharType = isCharType(type);
+
+        // truncate string and update offsets
+        for (int i = 0; i < dictionarySize; i++) {
+            int offsetIndex = offsetVectorOffset + i;
+            int offset = offsetVector[offsetIndex];
+            int length = dictionaryLengthVector[i];
+
+            int truncatedLength;
+            if (length > 0) {
+                // read data without truncation
+                dictionaryDataStream.next(data, offset, offset + length);
+
+                // adjust offsets with truncated length
+                truncatedLength = computeTruncatedLength(slice, offset, length, maxCodePointCount, isCharType);
+                verify(truncatedLength >= 0);
+            }
+            else {
+                truncatedLength = 0;
+            }
+            offsetVector[offsetIndex + 1] = offsetVector[offsetIndex] + truncatedLength;
+        }
+    }
+
+    private void ensureValuesCapacity(int capacity)
+    {
+        if (values == null || values.length < capacity) {
+            values = new int[capacity];
+        }
+    }
+
+    private void ensureOutputPositionsCapacity(int capacity)
+    {
+        if (outputPositions == null || outputPositions.length < capacity) {
+            outputPositions = new int[capacity];
+        }
+    }
+
+    @Override
+    public int[] getReadPositions()
+    {
+        return outputPositions;
+    }
+
+    @Override
+    public Block getBlock(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        if (allNulls) {
+            return new RunLengthEncodedBlock(nullBlock, positionCount);
+        }
+
+        if (positionCount == outputPositionCount) {
+            Block block = new DictionaryBlock(positionCount, dictionaryBlock, values);
+            values = null;
+            return block;
+        }
+
+        int[] valuesCopy = new int[positionCount];
+        int positionIndex = 0;
+        int nextPosition = positions[positionIndex];
+        for (int i = 0; i < outputPositionCount; i++) {
+            if (outputPositions[i] < nextPosition) {
+                continue;
+            }
+
+            assert outputPositions[i] == nextPosition;
+
+            valuesCopy[positionIndex] = this.values[i];
+
+            positionIndex++;
+            if (positionIndex >= positionCount) {
+                break;
+            }
+
+            nextPosition = positions[positionIndex];
+        }
+
+        return new DictionaryBlock(positionCount, dictionaryBlock, valuesCopy);
+    }
+
+    @Override
+    public BlockLease getBlockView(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        if (allNulls) {
+            return newLease(new RunLengthEncodedBlock(nullBlock, positionCount));
+        }
+
+        if (positionCount != outputPositionCount) {
+            compactValues(positions, positionCount);
+        }
+
+        return newLease(new DictionaryBlock(positionCount, dictionaryBlock, values));
+    }
+
+    private BlockLease newLease(Block block)
+    {
+        valuesInUse = true;
+        return ClosingBlockLease.newLease(block, () -> valuesInUse = false);
+    }
+
+    private void compactValues(int[] positions, int positionCount)
+    {
+        int positionIndex = 0;
+        int nextPosition = positions[positionIndex];
+        for (int i = 0; i < outputPositionCount; i++) {
+            if (outputPositions[i] < nextPosition) {
+                continue;
+            }
+
+            assert outputPositions[i] == nextPosition;
+
+            values[positionIndex] = values[i];
+            outputPositions[positionIndex] = nextPosition;
+
+            positionIndex++;
+            if (positionIndex >= positionCount) {
+                break;
+            }
+            nextPosition = positions[positionIndex];
+        }
+
+        outputPositionCount = positionCount;
+    }
+
+    @Override
+    public void startStripe(InputStreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
+    {
+        stripeDictionaryDataStreamSource = dictionaryStreamSources.getInputStreamSource(streamDescriptor, DICTIONARY_DATA, ByteArrayInputStream.class);
+        stripeDictionaryLengthStreamSource = dictionaryStreamSources.getInputStreamSource(streamDescriptor, LENGTH, LongInputStream.class);
+        stripeDictionarySize = encoding.get(streamDescriptor.getStreamId())
+                .getColumnEncoding(streamDescriptor.getSequence())
+                .getDictionarySize();
+        stripeDictionaryOpen = false;
+
+        presentStreamSource = missingStreamSource(BooleanInputStream.class);
+        dataStreamSource = missingStreamSource(LongInputStream.class);
+
+        inDictionaryStreamSource = missingStreamSource(BooleanInputStream.class);
+        rowGroupDictionaryLengthStreamSource = missingStreamSource(RowGroupDictionaryLengthInputStream.class);
+        rowGroupDictionaryDataStreamSource = missingStreamSource(ByteArrayInputStream.class);
+
+        readOffset = 0;
+
+        presentStream = null;
+        inDictionaryStream = null;
+        dataStream = null;
+
+        rowGroupOpen = false;
+    }
+
+    @Override
+    public void startRowGroup(InputStreamSources dataStreamSources)
+    {
+        presentStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, PRESENT, BooleanInputStream.class);
+        dataStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, DATA, LongInputStream.class);
+
+        // the "in dictionary" stream signals if the value is in the stripe or row group dictionary
+        inDictionaryStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, IN_DICTIONARY, BooleanInputStream.class);
+        rowGroupDictionaryLengthStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, ROW_GROUP_DICTIONARY_LENGTH, RowGroupDictionaryLengthInputStream.class);
+        rowGroupDictionaryDataStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, ROW_GROUP_DICTIONARY, ByteArrayInputStream.class);
+
+        readOffset = 0;
+
+        presentStream = null;
+        inDictionaryStream = null;
+        dataStream = null;
+
+        rowGroupOpen = false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .addValue(streamDescriptor)
+                .toString();
+    }
+
+    @Override
+    public void close()
+    {
+        systemMemoryContext.close();
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(dictionaryData) + sizeOf(dictionaryOffsets) + sizeOf(filterResults) + sizeOf(values) + sizeOf(outputPositions);
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.memory.context.AggregatedMemoryContext;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.orc.StreamDescriptor;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.stream.BooleanInputStream;
+import com.facebook.presto.orc.stream.InputStreamSource;
+import com.facebook.presto.orc.stream.InputStreamSources;
+import com.facebook.presto.spi.Subfield;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockLease;
+import com.facebook.presto.spi.block.ClosingBlockLease;
+import com.facebook.presto.spi.block.RowBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a struct and the fields of the struct that are referenced by the required subfields;
+ * fields that are not referenced are never read and are returned as nulls. Filters on the
+ * struct itself are limited to IS NULL and IS NOT NULL.
+ */
+public class StructSelectiveStreamReader
+        implements SelectiveStreamReader
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StructSelectiveStreamReader.class).instanceSize();
+
+    private final StreamDescriptor streamDescriptor;
+    @Nullable
+    private final TupleDomainFilter filter;
+    private final boolean nullsAllowed;
+    private final boolean nonNullsAllowed;
+    private final boolean outputRequired;
+    @Nullable
+    private final RowType outputType;
+    // one entry per field of the output type; null for fields that are not read
+    private final SelectiveStreamReader[] fieldReaders;
+    private final Block[] nullFieldBlocks;
+
+    private InputStreamSource<BooleanInputStream> presentStreamSource = missingStreamSource(BooleanInputStream.class);
+    @Nullable
+    private BooleanInputStream presentStream;
+
+    private boolean rowGroupOpen;
+    private int readOffset;
+    // number of non-null structs before readOffset in the current row group
+    private int nestedReadOffset;
+
+    @Nullable
+    private boolean[] nulls;
+    @Nullable
+    private int[] outputPositions;
+    private int outputPositionCount;
+    // positions of the non-null structs read during most recent read(), relative to nestedOffset
+    @Nullable
+    private int[] nestedPositions;
+    private int nestedPositionCount;
+    private int nestedOffset;
+    @Nullable
+    private int[] selectedNestedPositions;
+    private boolean valuesInUse;
+
+    private final LocalMemoryContext systemMemoryContext;
+
+    public StructSelectiveStreamReader(
+            StreamDescriptor streamDescriptor,
+            Optional<TupleDomainFilter> filter,
+            Optional<Type> outputType,
+            List<Subfield> requiredSubfields,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(outputType, "outputType is null");
+        requireNonNull(requiredSubfields, "requiredSubfields is null");
+        checkArgument(filter.isPresent() || outputType.isPresent(), "filter must be present if output is not required");
+        checkArgument(!filter.isPresent() || filter.get() == TupleDomainFilter.IS_NULL || filter.get() == TupleDomainFilter.IS_NOT_NULL, "Struct stream reader supports only IS NULL and IS NOT NULL filters");
+
+        this.streamDescriptor = requireNonNull(streamDescriptor, "streamDescriptor is null");
+        this.filter = filter.orElse(null);
+        this.nullsAllowed = this.filter == null || this.filter.testNull();
+        this.nonNullsAllowed = this.filter != TupleDomainFilter.IS_NULL;
+        this.outputRequired = outputType.isPresent();
+        this.outputType = (RowType) outputType.orElse(null);
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null").newLocalMemoryContext(StructSelectiveStreamReader.class.getSimpleName());
+
+        if (this.outputType == null) {
+            fieldReaders = new SelectiveStreamReader[0];
+            nullFieldBlocks = new Block[0];
+            return;
+        }
+
+        Map<String, StreamDescriptor> nestedStreams = streamDescriptor.getNestedStreams().stream()
+                .collect(toImmutableMap(stream -> stream.getFieldName().toLowerCase(Locale.ENGLISH), stream -> stream));
+
+        List<RowType.Field> fields = this.outputType.getFields();
+        fieldReaders = new SelectiveStreamReader[fields.size()];
+        nullFieldBlocks = new Block[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            RowType.Field field = fields.get(i);
+            String fieldName = field.getName()
+                    .orElseThrow(() -> new IllegalArgumentException("Missing struct field name in type " + this.outputType))
+                    .toLowerCase(Locale.ENGLISH);
+            nullFieldBlocks[i] = field.getType().createBlockBuilder(null, 1).appendNull().build();
+
+            StreamDescriptor nestedStream = nestedStreams.get(fieldName);
+            if (nestedStream == null) {
+                // field is missing from the file
+                continue;
+            }
+
+            Optional<List<Subfield>> fieldSubfields = getFieldSubfields(fieldName, requiredSubfields);
+            if (!fieldSubfields.isPresent()) {
+                // field is pruned
+                continue;
+            }
+
+            fieldReaders[i] = SelectiveStreamReaders.createStreamReader(
+                    nestedStream,
+                    Optional.empty(),
+                    Optional.of(field.getType()),
+                    fieldSubfields.get(),
+                    hiveStorageTimeZone,
+                    systemMemoryContext.newAggregatedMemoryContext());
+        }
+    }
+
+    /**
+     * @return subfields of the specified field relative to the field, empty list if the whole
+     *      field is required, and Optional.empty() if the field is not referenced at all
+     */
+    private static Optional<List<Subfield>> getFieldSubfields(String fieldName, List<Subfield> requiredSubfields)
+    {
+        if (requiredSubfields.isEmpty()) {
+            return Optional.of(ImmutableList.of());
+        }
+
+        ImmutableList.Builder<Subfield> fieldSubfields = ImmutableList.builder();
+        boolean referenced = false;
+        for (Subfield subfield : requiredSubfields) {
+            List<Subfield.PathElement> path = subfield.getPath();
+            if (path.isEmpty()) {
+                // the whole struct is required
+                return Optional.of(ImmutableList.of());
+            }
+
+            Subfield.PathElement element = path.get(0);
+            if (!(element instanceof Subfield.NestedField) || !((Subfield.NestedField) element).getName().toLowerCase(Locale.ENGLISH).equals(fieldName)) {
+                continue;
+            }
+
+            referenced = true;
+            if (path.size() == 1) {
+                // the whole field is required
+                return Optional.of(ImmutableList.of());
+            }
+            fieldSubfields.add(new Subfield(fieldName, path.subList(1, path.size())));
+        }
+
+        if (!referenced) {
+            return Optional.empty();
+        }
+        return Optional.of(fieldSubfields.build());
+    }
+
+    @Override
+    public void startStripe(InputStreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
+            throws IOException
+    {
+        presentStreamSource = missingStreamSource(BooleanInputStream.class);
+
+        readOffset = 0;
+        nestedReadOffset = 0;
+
+        presentStream = null;
+
+        rowGroupOpen = false;
+
+        for (SelectiveStreamReader fieldReader : fieldReaders) {
+            if (fieldReader != null) {
+                fieldReader.startStripe(dictionaryStreamSources, encoding);
+            }
+        }
+    }
+
+    @Override
+    public void startRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        presentStreamSource = dataStreamSources.getInputStreamSource(streamDescriptor, PRESENT, BooleanInputStream.class);
+
+        readOffset = 0;
+        nestedReadOffset = 0;
+
+        presentStream = null;
+
+        rowGroupOpen = false;
+
+        for (SelectiveStreamReader fieldReader : fieldReaders) {
+            if (fieldReader != null) {
+                fieldReader.startRowGroup(dataStreamSources);
+            }
+        }
+    }
+
+    private void openRowGroup()
+            throws IOException
+    {
+        presentStream = presentStreamSource.openStream();
+        rowGroupOpen = true;
+    }
+
+    @Override
+    public int read(int offset, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset < offset) {
+            nestedReadOffset += skip(offset - readOffset);
+        }
+
+        ensureCapacity(positionCount);
+        if (filter == null) {
+            outputPositions = positions;
+        }
+
+        outputPositionCount = 0;
+        nestedPositionCount = 0;
+        nestedOffset = nestedReadOffset;
+
+        int nestedPosition = 0;
+        int streamPosition = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (position > streamPosition) {
+                nestedPosition += skip(position - streamPosition);
+                streamPosition = position;
+            }
+
+            if (presentStream != null && !presentStream.nextBit()) {
+                if (nullsAllowed) {
+                    if (outputRequired) {
+                        nulls[outputPositionCount] = true;
+                    }
+                    if (filter != null) {
+                        outputPositions[outputPositionCount] = position;
+                    }
+                    outputPositionCount++;
+                }
+            }
+            else {
+                if (nonNullsAllowed) {
+                    if (outputRequired) {
+                        nulls[outputPositionCount] = false;
+                        nestedPositions[nestedPositionCount] = nestedPosition;
+                        nestedPositionCount++;
+                    }
+                    if (filter != null) {
+                        outputPositions[outputPositionCount] = position;
+                    }
+                    outputPositionCount++;
+                }
+                nestedPosition++;
+            }
+            streamPosition++;
+        }
+
+        if (outputRequired && nestedPositionCount > 0) {
+            for (SelectiveStreamReader fieldReader : fieldReaders) {
+                if (fieldReader != null) {
+                    // field readers have no filters, hence all positions are read
+                    fieldReader.read(nestedOffset, nestedPositions, nestedPositionCount);
+                }
+            }
+        }
+
+        // account memory used by nulls, outputPositions and nested positions; field readers account for their own memory
+        systemMemoryContext.setBytes(getLocalRetainedSizeInBytes());
+
+        readOffset = offset + streamPosition;
+        nestedReadOffset = nestedOffset + nestedPosition;
+        return outputPositionCount;
+    }
+
+    /**
+     * @return the number of non-null structs skipped
+     */
+    private int skip(int items)
+            throws IOException
+    {
+        if (presentStream == null) {
+            return items;
+        }
+        return presentStream.countBitsSet(items);
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (outputRequired) {
+            if (nulls == null || nulls.length < capacity) {
+                nulls = new boolean[capacity];
+            }
+            if (nestedPositions == null || nestedPositions.length < capacity) {
+                nestedPositions = new int[capacity];
+                selectedNestedPositions = new int[capacity];
+            }
+        }
+        if (filter != null) {
+            if (outputPositions == null || outputPositions.length < capacity) {
+                outputPositions = new int[capacity];
+            }
+        }
+    }
+
+    @Override
+    public int[] getReadPositions()
+    {
+        return outputPositions;
+    }
+
+    @Override
+    public Block getBlock(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        boolean[] nullsCopy = new boolean[positionCount];
+        int selectedCount = selectPositions(positions, positionCount, nullsCopy);
+
+        Block[] fieldBlocks = new Block[fieldReaders.length];
+        for (int i = 0; i < fieldReaders.length; i++) {
+            if (fieldReaders[i] == null || selectedCount == 0) {
+                fieldBlocks[i] = new RunLengthEncodedBlock(nullFieldBlocks[i], selectedCount);
+            }
+            else {
+                fieldBlocks[i] = fieldReaders[i].getBlock(selectedNestedPositions, selectedCount);
+            }
+        }
+
+        return RowBlock.fromFieldBlocks(positionCount, Optional.of(nullsCopy), fieldBlocks);
+    }
+
+    @Override
+    public BlockLease getBlockView(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+        checkState(!valuesInUse, "BlockLease hasn't been closed yet");
+
+        boolean[] nullsCopy = new boolean[positionCount];
+        int selectedCount = selectPositions(positions, positionCount, nullsCopy);
+
+        Block[] fieldBlocks = new Block[fieldReaders.length];
+        BlockLease[] fieldLeases = new BlockLease[fieldReaders.length];
+        for (int i = 0; i < fieldReaders.length; i++) {
+            if (fieldReaders[i] == null || selectedCount == 0) {
+                fieldBlocks[i] = new RunLengthEncodedBlock(nullFieldBlocks[i], selectedCount);
+            }
+            else {
+                fieldLeases[i] = fieldReaders[i].getBlockView(selectedNestedPositions, selectedCount);
+                fieldBlocks[i] = fieldLeases[i].get();
+            }
+        }
+
+        valuesInUse = true;
+        return ClosingBlockLease.newLease(RowBlock.fromFieldBlocks(positionCount, Optional.of(nullsCopy), fieldBlocks), () -> {
+            for (BlockLease fieldLease : fieldLeases) {
+                if (fieldLease != null) {
+                    fieldLease.close();
+                }
+            }
+            valuesInUse = false;
+        });
+    }
+
+    /**
+     * Fills in the nulls for the specified positions and collects the nested positions of the
+     * non-null structs into selectedNestedPositions.
+     *
+     * @return the number of non-null structs among the specified positions
+     */
+    private int selectPositions(int[] positions, int positionCount, boolean[] nullsCopy)
+    {
+        int selectedCount = 0;
+        int nestedIndex = 0;
+        int positionIndex = 0;
+        int nextPosition = positions[positionIndex];
+        for (int i = 0; i < outputPositionCount; i++) {
+            int outputPosition = outputPositions[i];
+            if (outputPosition < nextPosition) {
+                if (!nulls[i]) {
+                    nestedIndex++;
+                }
+                continue;
+            }
+
+            assert outputPosition == nextPosition;
+
+            nullsCopy[positionIndex] = nulls[i];
+            if (!nulls[i]) {
+                selectedNestedPositions[selectedCount] = nestedPositions[nestedIndex];
+                selectedCount++;
+                nestedIndex++;
+            }
+
+            positionIndex++;
+            if (positionIndex >= positionCount) {
+                break;
+            }
+
+            nextPosition = positions[positionIndex];
+        }
+        return selectedCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .addValue(streamDescriptor)
+                .toString();
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            for (SelectiveStreamReader fieldReader : fieldReaders) {
+                if (fieldReader != null) {
+                    closer.register(fieldReader::close);
+                }
+            }
+            closer.register(systemMemoryContext::close);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long getLocalRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE + sizeOf(nulls) + sizeOf(nestedPositions) + sizeOf(selectedNestedPositions);
+        if (filter != null) {
+            retainedSizeInBytes += sizeOf(outputPositions);
+        }
+        return retainedSizeInBytes;
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = getLocalRetainedSizeInBytes();
+        for (SelectiveStreamReader fieldReader : fieldReaders) {
+            if (fieldReader != null) {
+                retainedSizeInBytes += fieldReader.getRetainedSizeInBytes();
+            }
+        }
+        return retainedSizeInBytes;
+    }
+}
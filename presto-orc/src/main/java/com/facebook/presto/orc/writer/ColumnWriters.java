@@ -14,20 +14,35 @@
 package com.facebook.presto.orc.writer;
 
 import com.facebook.presto.orc.OrcEncoding;
+import com.facebook.presto.orc.metadata.CompressedMetadataWriter;
 import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.statistics.BinaryStatisticsBuilder;
+import com.facebook.presto.orc.metadata.statistics.BloomFilterBuilder;
+import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.DateStatisticsBuilder;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.metadata.statistics.IntegerStatisticsBuilder;
+import com.facebook.presto.orc.metadata.statistics.NoOpBloomFilterBuilder;
+import com.facebook.presto.orc.stream.StreamDataOutput;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import org.joda.time.DateTimeZone;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public final class ColumnWriters
@@ -42,7 +57,8 @@ public final class ColumnWriters
             int bufferSize,
             OrcEncoding orcEncoding,
             DateTimeZone hiveStorageTimeZone,
-            DataSize stringStatisticsLimit)
+            DataSize stringStatisticsLimit,
+            Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier)
     {
         requireNonNull(type, "type is null");
         OrcType orcType = orcTypes.get(columnIndex);
@@ -61,12 +77,12 @@ public final class ColumnWriters
 
             case DATE:
                 checkArgument(orcEncoding != DWRF, "DWRF does not support %s type", type);
-                return new LongColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, DateStatisticsBuilder::new);
+                return new LongColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, DateStatisticsBuilder::new, bloomFilterBuilderSupplier);
 
             case SHORT:
             case INT:
             case LONG:
-                return new LongColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, IntegerStatisticsBuilder::new);
+                return new LongColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, IntegerStatisticsBuilder::new, bloomFilterBuilderSupplier);
 
             case DECIMAL:
                 checkArgument(orcEncoding != DWRF, "DWRF does not support %s type", type);
@@ -76,19 +92,19 @@ public final class ColumnWriters
                 return new TimestampColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, hiveStorageTimeZone);
 
             case BINARY:
-                return new SliceDirectColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, BinaryStatisticsBuilder::new);
+                return new SliceDirectColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, BinaryStatisticsBuilder::new, bloomFilterBuilderSupplier);
 
             case CHAR:
                 checkArgument(orcEncoding != DWRF, "DWRF does not support %s type", type);
                 // fall through
             case VARCHAR:
             case STRING:
-                return new SliceDictionaryColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, stringStatisticsLimit);
+                return new SliceDictionaryColumnWriter(columnIndex, type, compression, bufferSize, orcEncoding, stringStatisticsLimit, bloomFilterBuilderSupplier);
 
             case LIST: {
                 int fieldColumnIndex = orcType.getFieldTypeIndex(0);
                 Type fieldType = type.getTypeParameters().get(0);
-                ColumnWriter elementWriter = createColumnWriter(fieldColumnIndex, orcTypes, fieldType, compression, bufferSize, orcEncoding, hiveStorageTimeZone, stringStatisticsLimit);
+                ColumnWriter elementWriter = createColumnWriter(fieldColumnIndex, orcTypes, fieldType, compression, bufferSize, orcEncoding, hiveStorageTimeZone, stringStatisticsLimit, NoOpBloomFilterBuilder::new);
                 return new ListColumnWriter(columnIndex, compression, bufferSize, orcEncoding, elementWriter);
             }
 
@@ -101,7 +117,8 @@ public final class ColumnWriters
                         bufferSize,
                         orcEncoding,
                         hiveStorageTimeZone,
-                        stringStatisticsLimit);
+                        stringStatisticsLimit,
+                        NoOpBloomFilterBuilder::new);
                 ColumnWriter valueWriter = createColumnWriter(
                         orcType.getFieldTypeIndex(1),
                         orcTypes,
@@ -110,7 +127,8 @@ public final class ColumnWriters
                         bufferSize,
                         orcEncoding,
                         hiveStorageTimeZone,
-                        stringStatisticsLimit);
+                        stringStatisticsLimit,
+                        NoOpBloomFilterBuilder::new);
                 return new MapColumnWriter(columnIndex, compression, bufferSize, orcEncoding, keyWriter, valueWriter);
             }
 
@@ -119,7 +137,7 @@ public final class ColumnWriters
                 for (int fieldId = 0; fieldId < orcType.getFieldCount(); fieldId++) {
                     int fieldColumnIndex = orcType.getFieldTypeIndex(fieldId);
                     Type fieldType = type.getTypeParameters().get(fieldId);
-                    fieldWriters.add(createColumnWriter(fieldColumnIndex, orcTypes, fieldType, compression, bufferSize, orcEncoding, hiveStorageTimeZone, stringStatisticsLimit));
+                    fieldWriters.add(createColumnWriter(fieldColumnIndex, orcTypes, fieldType, compression, bufferSize, orcEncoding, hiveStorageTimeZone, stringStatisticsLimit, NoOpBloomFilterBuilder::new));
                 }
                 return new StructColumnWriter(columnIndex, compression, bufferSize, fieldWriters.build());
             }
@@ -127,4 +145,22 @@ public final class ColumnWriters
 
         throw new IllegalArgumentException("Unsupported type: " + type);
     }
+
+    static Optional<StreamDataOutput> createBloomFilterStream(int column, List<ColumnStatistics> rowGroupColumnStatistics, CompressedMetadataWriter metadataWriter)
+            throws IOException
+    {
+        List<HiveBloomFilter> bloomFilters = rowGroupColumnStatistics.stream()
+                .map(ColumnStatistics::getBloomFilter)
+                .filter(Objects::nonNull)
+                .collect(toImmutableList());
+        if (bloomFilters.isEmpty()) {
+            return Optional.empty();
+        }
+        // the reader matches bloom filters to row groups by position
+        checkState(bloomFilters.size() == rowGroupColumnStatistics.size(), "bloom filter is missing for some row groups of column %s", column);
+
+        Slice slice = metadataWriter.writeBloomFilters(bloomFilters);
+        Stream stream = new Stream(column, BLOOM_FILTER, slice.length(), false);
+        return Optional.of(new StreamDataOutput(slice, stream));
+    }
 }
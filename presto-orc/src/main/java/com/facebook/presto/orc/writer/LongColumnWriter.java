@@ -22,6 +22,7 @@ import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.orc.metadata.statistics.BloomFilterBuilder;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.LongValueStatisticsBuilder;
 import com.facebook.presto.orc.stream.LongOutputStream;
@@ -48,6 +49,7 @@ import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT_V2;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.writer.ColumnWriters.createBloomFilterStream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -68,9 +70,19 @@ public class LongColumnWriter
     private final Supplier<LongValueStatisticsBuilder> statisticsBuilderSupplier;
     private LongValueStatisticsBuilder statisticsBuilder;
 
+    private final Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier;
+    private BloomFilterBuilder bloomFilterBuilder;
+
     private boolean closed;
 
-    public LongColumnWriter(int column, Type type, CompressionKind compression, int bufferSize, OrcEncoding orcEncoding, Supplier<LongValueStatisticsBuilder> statisticsBuilderSupplier)
+    public LongColumnWriter(
+            int column,
+            Type type,
+            CompressionKind compression,
+            int bufferSize,
+            OrcEncoding orcEncoding,
+            Supplier<LongValueStatisticsBuilder> statisticsBuilderSupplier,
+            Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier)
     {
         checkArgument(column >= 0, "column is negative");
         this.column = column;
@@ -87,6 +99,8 @@ public class LongColumnWriter
         this.presentStream = new PresentOutputStream(compression, bufferSize);
         this.statisticsBuilderSupplier = requireNonNull(statisticsBuilderSupplier, "statisticsBuilderSupplier is null");
         this.statisticsBuilder = statisticsBuilderSupplier.get();
+        this.bloomFilterBuilderSupplier = requireNonNull(bloomFilterBuilderSupplier, "bloomFilterBuilderSupplier is null");
+        this.bloomFilterBuilder = bloomFilterBuilderSupplier.get();
     }
 
     @Override
@@ -119,6 +133,7 @@ public class LongColumnWriter
                 long value = type.getLong(block, position);
                 dataStream.writeLong(value);
                 statisticsBuilder.addValue(value);
+                bloomFilterBuilder.addLong(value);
             }
         }
     }
@@ -128,8 +143,12 @@ public class LongColumnWriter
     {
         checkState(!closed);
         ColumnStatistics statistics = statisticsBuilder.buildColumnStatistics();
+        statistics = bloomFilterBuilder.buildBloomFilter()
+                .map(statistics::withBloomFilter)
+                .orElse(statistics);
         rowGroupColumnStatistics.add(statistics);
         statisticsBuilder = statisticsBuilderSupplier.get();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
         return ImmutableMap.of(column, statistics);
     }
 
@@ -169,7 +188,11 @@ public class LongColumnWriter
 
         Slice slice = metadataWriter.writeRowIndexes(rowGroupIndexes.build());
         Stream stream = new Stream(column, StreamKind.ROW_INDEX, slice.length(), false);
-        return ImmutableList.of(new StreamDataOutput(slice, stream));
+
+        ImmutableList.Builder<StreamDataOutput> indexStreams = ImmutableList.builder();
+        indexStreams.add(new StreamDataOutput(slice, stream));
+        createBloomFilterStream(column, rowGroupColumnStatistics, metadataWriter).ifPresent(indexStreams::add);
+        return indexStreams.build();
     }
 
     private static List<Integer> createLongColumnPositionList(
@@ -203,7 +226,7 @@ public class LongColumnWriter
     @Override
     public long getRetainedBytes()
     {
-        long retainedBytes = INSTANCE_SIZE + dataStream.getRetainedBytes() + presentStream.getRetainedBytes();
+        long retainedBytes = INSTANCE_SIZE + dataStream.getRetainedBytes() + presentStream.getRetainedBytes() + bloomFilterBuilder.getRetainedSizeInBytes();
         for (ColumnStatistics statistics : rowGroupColumnStatistics) {
             retainedBytes += statistics.getRetainedSizeInBytes();
         }
@@ -218,5 +241,6 @@ public class LongColumnWriter
         presentStream.reset();
         rowGroupColumnStatistics.clear();
         statisticsBuilder = statisticsBuilderSupplier.get();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
     }
 }
@@ -24,6 +24,7 @@ import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.orc.metadata.statistics.BloomFilterBuilder;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StringStatisticsBuilder;
 import com.facebook.presto.orc.stream.ByteArrayOutputStream;
@@ -49,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.orc.DictionaryCompressionOptimizer.estimateIndexBytesPerValue;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
@@ -57,6 +59,7 @@ import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
 import static com.facebook.presto.orc.stream.LongOutputStream.createLengthOutputStream;
+import static com.facebook.presto.orc.writer.ColumnWriters.createBloomFilterStream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -76,6 +79,7 @@ public class SliceDictionaryColumnWriter
     private final int bufferSize;
     private final OrcEncoding orcEncoding;
     private final int stringStatisticsLimitInBytes;
+    private final Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier;
 
     private final LongOutputStream dataStream;
     private final PresentOutputStream presentStream;
@@ -89,6 +93,7 @@ public class SliceDictionaryColumnWriter
     private IntBigArray values;
     private int rowGroupValueCount;
     private StringStatisticsBuilder statisticsBuilder;
+    private BloomFilterBuilder bloomFilterBuilder;
 
     private long rawBytes;
     private long totalValueCount;
@@ -101,7 +106,14 @@ public class SliceDictionaryColumnWriter
     private boolean directEncoded;
     private SliceDirectColumnWriter directColumnWriter;
 
-    public SliceDictionaryColumnWriter(int column, Type type, CompressionKind compression, int bufferSize, OrcEncoding orcEncoding, DataSize stringStatisticsLimit)
+    public SliceDictionaryColumnWriter(
+            int column,
+            Type type,
+            CompressionKind compression,
+            int bufferSize,
+            OrcEncoding orcEncoding,
+            DataSize stringStatisticsLimit,
+            Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier)
     {
         checkArgument(column >= 0, "column is negative");
         this.column = column;
@@ -110,6 +122,7 @@ public class SliceDictionaryColumnWriter
         this.bufferSize = bufferSize;
         this.orcEncoding = requireNonNull(orcEncoding, "orcEncoding is null");
         this.stringStatisticsLimitInBytes = toIntExact(requireNonNull(stringStatisticsLimit, "stringStatisticsLimit is null").toBytes());
+        this.bloomFilterBuilderSupplier = requireNonNull(bloomFilterBuilderSupplier, "bloomFilterBuilderSupplier is null");
         LongOutputStream result;
         if (orcEncoding == DWRF) {
             result = new LongOutputStreamV1(compression, bufferSize, false, DATA);
@@ -123,6 +136,7 @@ public class SliceDictionaryColumnWriter
         this.dictionaryLengthStream = createLengthOutputStream(compression, bufferSize, orcEncoding);
         values = new IntBigArray();
         this.statisticsBuilder = newStringStatisticsBuilder();
+        this.bloomFilterBuilder = bloomFilterBuilderSupplier.get();
     }
 
     @Override
@@ -173,7 +187,7 @@ public class SliceDictionaryColumnWriter
         checkState(!closed);
         checkState(!directEncoded);
         if (directColumnWriter == null) {
-            directColumnWriter = new SliceDirectColumnWriter(column, type, compression, bufferSize, orcEncoding, this::newStringStatisticsBuilder);
+            directColumnWriter = new SliceDirectColumnWriter(column, type, compression, bufferSize, orcEncoding, this::newStringStatisticsBuilder, bloomFilterBuilderSupplier);
         }
         checkState(directColumnWriter.getBufferedBytes() == 0);
 
@@ -214,6 +228,7 @@ public class SliceDictionaryColumnWriter
 
         rowGroupValueCount = 0;
         statisticsBuilder = newStringStatisticsBuilder();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
 
         directEncoded = true;
 
@@ -300,7 +315,9 @@ public class SliceDictionaryColumnWriter
 
             if (!block.isNull(position)) {
                 // todo min/max statistics only need to be updated if value was not already in the dictionary, but non-null count does
-                statisticsBuilder.addValue(type.getSlice(block, position));
+                Slice value = type.getSlice(block, position);
+                statisticsBuilder.addValue(value);
+                bloomFilterBuilder.addValue(value);
 
                 rawBytes += block.getSliceLength(position);
                 totalNonNullValueCount++;
@@ -320,9 +337,13 @@ public class SliceDictionaryColumnWriter
         }
 
         ColumnStatistics statistics = statisticsBuilder.buildColumnStatistics();
+        statistics = bloomFilterBuilder.buildBloomFilter()
+                .map(statistics::withBloomFilter)
+                .orElse(statistics);
         rowGroups.add(new DictionaryRowGroup(values, rowGroupValueCount, statistics));
         rowGroupValueCount = 0;
         statisticsBuilder = newStringStatisticsBuilder();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
         values = new IntBigArray();
         return ImmutableMap.of(column, statistics);
     }
@@ -477,7 +498,14 @@ public class SliceDictionaryColumnWriter
 
         Slice slice = metadataWriter.writeRowIndexes(rowGroupIndexes.build());
         Stream stream = new Stream(column, StreamKind.ROW_INDEX, slice.length(), false);
-        return ImmutableList.of(new StreamDataOutput(slice, stream));
+
+        ImmutableList.Builder<StreamDataOutput> indexStreams = ImmutableList.builder();
+        indexStreams.add(new StreamDataOutput(slice, stream));
+        List<ColumnStatistics> rowGroupColumnStatistics = rowGroups.stream()
+                .map(DictionaryRowGroup::getColumnStatistics)
+                .collect(toList());
+        createBloomFilterStream(column, rowGroupColumnStatistics, metadataWriter).ifPresent(indexStreams::add);
+        return indexStreams.build();
     }
 
     private static List<Integer> createSliceColumnPositionList(
@@ -530,6 +558,7 @@ public class SliceDictionaryColumnWriter
                 dictionaryDataStream.getRetainedBytes() +
                 dictionaryLengthStream.getRetainedBytes() +
                 dictionary.getRetainedSizeInBytes() +
+                bloomFilterBuilder.getRetainedSizeInBytes() +
                 (directColumnWriter == null ? 0 : directColumnWriter.getRetainedBytes());
 
         for (DictionaryRowGroup rowGroup : rowGroups) {
@@ -550,6 +579,7 @@ public class SliceDictionaryColumnWriter
         rowGroups.clear();
         rowGroupValueCount = 0;
         statisticsBuilder = newStringStatisticsBuilder();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
         columnEncoding = null;
 
         dictionary.clear();
@@ -23,6 +23,7 @@ import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.orc.metadata.statistics.BloomFilterBuilder;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.SliceColumnStatisticsBuilder;
 import com.facebook.presto.orc.stream.ByteArrayOutputStream;
@@ -48,6 +49,7 @@ import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT_V2;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.stream.LongOutputStream.createLengthOutputStream;
+import static com.facebook.presto.orc.writer.ColumnWriters.createBloomFilterStream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -69,9 +71,19 @@ public class SliceDirectColumnWriter
     private final Supplier<SliceColumnStatisticsBuilder> statisticsBuilderSupplier;
     private SliceColumnStatisticsBuilder statisticsBuilder;
 
+    private final Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier;
+    private BloomFilterBuilder bloomFilterBuilder;
+
     private boolean closed;
 
-    public SliceDirectColumnWriter(int column, Type type, CompressionKind compression, int bufferSize, OrcEncoding orcEncoding, Supplier<SliceColumnStatisticsBuilder> statisticsBuilderSupplier)
+    public SliceDirectColumnWriter(
+            int column,
+            Type type,
+            CompressionKind compression,
+            int bufferSize,
+            OrcEncoding orcEncoding,
+            Supplier<SliceColumnStatisticsBuilder> statisticsBuilderSupplier,
+            Supplier<BloomFilterBuilder> bloomFilterBuilderSupplier)
     {
         checkArgument(column >= 0, "column is negative");
         this.column = column;
@@ -83,6 +95,8 @@ public class SliceDirectColumnWriter
         this.presentStream = new PresentOutputStream(compression, bufferSize);
         this.statisticsBuilderSupplier = statisticsBuilderSupplier;
         statisticsBuilder = statisticsBuilderSupplier.get();
+        this.bloomFilterBuilderSupplier = requireNonNull(bloomFilterBuilderSupplier, "bloomFilterBuilderSupplier is null");
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
     }
 
     @Override
@@ -118,6 +132,7 @@ public class SliceDirectColumnWriter
                 lengthStream.writeLong(value.length());
                 dataStream.writeSlice(value);
                 statisticsBuilder.addValue(value);
+                bloomFilterBuilder.addValue(value);
             }
         }
     }
@@ -128,9 +143,13 @@ public class SliceDirectColumnWriter
         checkState(!closed);
 
         ColumnStatistics statistics = statisticsBuilder.buildColumnStatistics();
+        statistics = bloomFilterBuilder.buildBloomFilter()
+                .map(statistics::withBloomFilter)
+                .orElse(statistics);
         rowGroupColumnStatistics.add(statistics);
 
         statisticsBuilder = statisticsBuilderSupplier.get();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
         return ImmutableMap.of(column, statistics);
     }
 
@@ -174,7 +193,11 @@ public class SliceDirectColumnWriter
 
         Slice slice = metadataWriter.writeRowIndexes(rowGroupIndexes.build());
         Stream stream = new Stream(column, StreamKind.ROW_INDEX, slice.length(), false);
-        return ImmutableList.of(new StreamDataOutput(slice, stream));
+
+        ImmutableList.Builder<StreamDataOutput> indexStreams = ImmutableList.builder();
+        indexStreams.add(new StreamDataOutput(slice, stream));
+        createBloomFilterStream(column, rowGroupColumnStatistics, metadataWriter).ifPresent(indexStreams::add);
+        return indexStreams.build();
     }
 
     private static List<Integer> createSliceColumnPositionList(
@@ -211,7 +234,7 @@ public class SliceDirectColumnWriter
     @Override
     public long getRetainedBytes()
     {
-        long retainedBytes = INSTANCE_SIZE + lengthStream.getRetainedBytes() + dataStream.getRetainedBytes() + presentStream.getRetainedBytes();
+        long retainedBytes = INSTANCE_SIZE + lengthStream.getRetainedBytes() + dataStream.getRetainedBytes() + presentStream.getRetainedBytes() + bloomFilterBuilder.getRetainedSizeInBytes();
         for (ColumnStatistics statistics : rowGroupColumnStatistics) {
             retainedBytes += statistics.getRetainedSizeInBytes();
         }
@@ -228,5 +251,6 @@ public class SliceDirectColumnWriter
         presentStream.reset();
         rowGroupColumnStatistics.clear();
         statisticsBuilder = statisticsBuilderSupplier.get();
+        bloomFilterBuilder = bloomFilterBuilderSupplier.get();
     }
 }
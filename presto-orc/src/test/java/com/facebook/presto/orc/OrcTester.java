@@ -16,6 +16,7 @@ package com.facebook.presto.orc;
 import com.facebook.hive.orc.OrcConf;
 import com.facebook.hive.orc.lazy.OrcLazyObject;
 import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.metadata.FunctionManager;
 import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.spi.Page;
@@ -140,10 +141,12 @@ import static com.facebook.presto.testing.DateTimeTestingUtils.sqlTimestampOf;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.airlift.units.DataSize.succinctBytes;
 import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -724,6 +727,48 @@ public class OrcTester
                         return false;
                     }
                 }
+                else if (type == DOUBLE) {
+                    if (!filter.testDouble((Double) value)) {
+                        return false;
+                    }
+                }
+                else if (type == REAL) {
+                    if (!filter.testFloat((Float) value)) {
+                        return false;
+                    }
+                }
+                else if (type instanceof VarcharType) {
+                    byte[] bytes = ((String) value).getBytes(UTF_8);
+                    if (!filter.testBytes(bytes, 0, bytes.length)) {
+                        return false;
+                    }
+                }
+                else if (type == TIMESTAMP) {
+                    if (!filter.testLong(((SqlTimestamp) value).getMillisUtc())) {
+                        return false;
+                    }
+                }
+                else if (type instanceof DecimalType) {
+                    BigInteger unscaledValue = ((SqlDecimal) value).getUnscaledValue();
+                    if (((DecimalType) type).isShort()) {
+                        if (!filter.testLong(unscaledValue.longValueExact())) {
+                            return false;
+                        }
+                    }
+                    else {
+                        Slice decimal = Decimals.encodeUnscaledValue(unscaledValue);
+                        if (!filter.testDecimal(decimal.getLong(0), decimal.getLong(SIZE_OF_LONG))) {
+                            return false;
+                        }
+                    }
+                }
+                else if (isStructuralType(type)) {
+                    // structural readers only support IS NULL and IS NOT NULL filters
+                    assertTrue(filter == TupleDomainFilter.IS_NULL || filter == TupleDomainFilter.IS_NOT_NULL, "Unsupported filter: " + filter);
+                    if (filter == TupleDomainFilter.IS_NULL) {
+                        return false;
+                    }
+                }
                 else {
                     fail("Unsupported type: " + type);
                 }
@@ -733,6 +778,12 @@ public class OrcTester
         return true;
     }
 
+    private static boolean isStructuralType(Type type)
+    {
+        String baseType = type.getTypeSignature().getBase();
+        return StandardTypes.ARRAY.equals(baseType) || StandardTypes.MAP.equals(baseType) || StandardTypes.ROW.equals(baseType);
+    }
+
     private static void assertColumnValueEquals(Type type, Object actual, Object expected)
     {
         if (actual == null) {
@@ -1577,17 +1628,17 @@ public class OrcTester
         return baseTypes.contains(testBaseType);
     }
 
-    private static Type arrayType(Type elementType)
+    static Type arrayType(Type elementType)
     {
         return TYPE_MANAGER.getParameterizedType(StandardTypes.ARRAY, ImmutableList.of(TypeSignatureParameter.of(elementType.getTypeSignature())));
     }
 
-    private static Type mapType(Type keyType, Type valueType)
+    static Type mapType(Type keyType, Type valueType)
     {
         return TYPE_MANAGER.getParameterizedType(StandardTypes.MAP, ImmutableList.of(TypeSignatureParameter.of(keyType.getTypeSignature()), TypeSignatureParameter.of(valueType.getTypeSignature())));
     }
 
-    private static Type rowType(Type... fieldTypes)
+    static Type rowType(Type... fieldTypes)
     {
         ImmutableList.Builder<TypeSignatureParameter> typeSignatureParameters = ImmutableList.builder();
         for (int i = 0; i < fieldTypes.length; i++) {
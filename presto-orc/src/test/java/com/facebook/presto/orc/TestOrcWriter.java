@@ -18,12 +18,14 @@ import com.facebook.presto.orc.metadata.Footer;
 import com.facebook.presto.orc.metadata.Stream;
 import com.facebook.presto.orc.metadata.StripeFooter;
 import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
@@ -31,6 +33,9 @@ import org.testng.annotations.Test;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -40,11 +45,16 @@ import static com.facebook.presto.orc.StripeReader.isIndexStream;
 import static com.facebook.presto.orc.TestingOrcPredicate.ORC_ROW_GROUP_SIZE;
 import static com.facebook.presto.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.toIntExact;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcWriter
 {
@@ -120,4 +130,83 @@ public class TestOrcWriter
             }
         }
     }
+
+    @Test
+    public void testWriteBloomFilters()
+            throws IOException
+    {
+        for (OrcWriteValidationMode validationMode : OrcWriteValidationMode.values()) {
+            TempFile tempFile = new TempFile();
+            OrcWriter writer = new OrcWriter(
+                    new OutputStreamOrcDataSink(new FileOutputStream(tempFile.getFile())),
+                    ImmutableList.of("id", "name", "other"),
+                    ImmutableList.of(BIGINT, VARCHAR, BIGINT),
+                    ORC,
+                    NONE,
+                    new OrcWriterOptions()
+                            .withStripeMinSize(new DataSize(0, MEGABYTE))
+                            .withStripeMaxSize(new DataSize(32, MEGABYTE))
+                            .withStripeMaxRowCount(ORC_STRIPE_SIZE)
+                            .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                            .withDictionaryMaxMemory(new DataSize(32, MEGABYTE))
+                            .withBloomFilterColumns(ImmutableSet.of("id", "name"))
+                            .withBloomFilterFpp(0.01),
+                    ImmutableMap.of(),
+                    HIVE_STORAGE_TIME_ZONE,
+                    true,
+                    validationMode,
+                    new OrcWriterStats());
+
+            int entries = 3 * ORC_ROW_GROUP_SIZE;
+            BlockBuilder idBuilder = BIGINT.createBlockBuilder(null, entries);
+            BlockBuilder nameBuilder = VARCHAR.createBlockBuilder(null, entries);
+            BlockBuilder otherBuilder = BIGINT.createBlockBuilder(null, entries);
+            for (int i = 0; i < entries; i++) {
+                BIGINT.writeLong(idBuilder, i);
+                VARCHAR.writeSlice(nameBuilder, utf8Slice("name" + i));
+                BIGINT.writeLong(otherBuilder, i);
+            }
+            writer.write(new Page(idBuilder.build(), nameBuilder.build(), otherBuilder.build()));
+            writer.close();
+
+            // write validation compares the bloom filters read back from the row group index
+            DataSize dataSize = new DataSize(1, MEGABYTE);
+            writer.validate(new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true));
+
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true);
+            Footer footer = new OrcReader(orcDataSource, ORC, dataSize, dataSize, dataSize, dataSize).getFooter();
+            for (StripeInformation stripe : footer.getStripes()) {
+                byte[] tailBuffer = new byte[toIntExact(stripe.getFooterLength())];
+                orcDataSource.readFully(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), tailBuffer);
+                StripeFooter stripeFooter;
+                try (InputStream inputStream = new OrcInputStream(orcDataSource.getId(), Slices.wrappedBuffer(tailBuffer).getInput(), Optional.empty(), newSimpleAggregatedMemoryContext(), tailBuffer.length)) {
+                    stripeFooter = ORC.createMetadataReader().readStripeFooter(footer.getTypes(), inputStream);
+                }
+
+                Map<Integer, List<HiveBloomFilter>> bloomFilters = new HashMap<>();
+                long offset = stripe.getOffset();
+                for (Stream stream : stripeFooter.getStreams()) {
+                    if (stream.getStreamKind() == BLOOM_FILTER) {
+                        byte[] buffer = new byte[stream.getLength()];
+                        orcDataSource.readFully(offset, buffer);
+                        try (InputStream inputStream = new OrcInputStream(orcDataSource.getId(), Slices.wrappedBuffer(buffer).getInput(), Optional.empty(), newSimpleAggregatedMemoryContext(), buffer.length)) {
+                            bloomFilters.put(stream.getColumn(), ORC.createMetadataReader().readBloomFilterIndexes(inputStream));
+                        }
+                    }
+                    offset += stream.getLength();
+                }
+
+                // columns are numbered from one, column zero is the row
+                assertEquals(bloomFilters.keySet(), ImmutableSet.of(1, 2));
+                for (List<HiveBloomFilter> rowGroupBloomFilters : bloomFilters.values()) {
+                    assertEquals(rowGroupBloomFilters.size(), 3);
+                }
+                for (int rowGroup = 0; rowGroup < 3; rowGroup++) {
+                    long value = rowGroup * ORC_ROW_GROUP_SIZE + 7;
+                    assertTrue(bloomFilters.get(1).get(rowGroup).testLong(value));
+                    assertTrue(bloomFilters.get(2).get(rowGroup).test(utf8Slice("name" + value).getBytes()));
+                }
+            }
+        }
+    }
 }
@@ -13,22 +13,36 @@
  */
 package com.facebook.presto.orc;
 
-import com.facebook.presto.orc.TupleDomainFilter.BigintRange;
-import com.facebook.presto.orc.TupleDomainFilter.BigintValues;
-import com.facebook.presto.orc.TupleDomainFilter.BooleanValue;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValues;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BooleanValue;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BytesValues;
+import com.facebook.presto.common.predicate.TupleDomainFilter.DoubleRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.FloatRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.LongDecimalRange;
+import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.SqlDate;
+import com.facebook.presto.spi.type.SqlDecimal;
+import com.facebook.presto.spi.type.SqlTimestamp;
+import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Range;
+import io.airlift.slice.Slice;
 import org.joda.time.DateTimeZone;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -36,16 +50,29 @@ import java.util.Random;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.arrayType;
+import static com.facebook.presto.orc.OrcTester.mapType;
 import static com.facebook.presto.orc.OrcTester.quickSelectiveOrcTester;
+import static com.facebook.presto.orc.OrcTester.rowType;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DecimalType.createDecimalType;
+import static com.facebook.presto.spi.type.Decimals.encodeUnscaledValue;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
 import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.DateTimeTestingUtils.sqlTimestampOf;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.cycle;
 import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.nCopies;
 import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
@@ -143,6 +170,146 @@ public class TestSelectiveOrcReader
         testRoundTripNumeric(concat(ImmutableList.of(1), nCopies(9999, 123), ImmutableList.of(2), nCopies(9999, 123)), BigintRange.of(123, 123, true));
     }
 
+    @Test
+    public void testDoubleSequence()
+            throws Exception
+    {
+        tester.testRoundTrip(DOUBLE, doubleSequence(0, 0.1, 30_000), ImmutableList.of(
+                ImmutableMap.of(0, DoubleRange.of(0, false, false, 1_000, false, false, false)),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testFloatSequence()
+            throws Exception
+    {
+        tester.testRoundTrip(REAL, floatSequence(0.0f, 0.1f, 30_000), ImmutableList.of(
+                ImmutableMap.of(0, FloatRange.of(0.0f, false, false, 1_000.0f, false, false, false)),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testVarcharSequence()
+            throws Exception
+    {
+        List<String> values = intsBetween(0, 30_000).stream()
+                .map(String::valueOf)
+                .collect(toList());
+
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, BytesRange.of("10".getBytes(UTF_8), false, "20".getBytes(UTF_8), false, false)),
+                ImmutableMap.of(0, BytesValues.of(new byte[][] {"1".getBytes(UTF_8), "100".getBytes(UTF_8), "29999".getBytes(UTF_8)}, false)),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL));
+
+        // direct encoding
+        tester.testRoundTrip(VARCHAR, values, filters);
+
+        // dictionary encoding
+        tester.testRoundTrip(VARCHAR, newArrayList(limit(cycle(ImmutableList.of("apple", "banana", "cherry")), 30_000)), filters);
+    }
+
+    @Test
+    public void testTimestampSequence()
+            throws Exception
+    {
+        List<SqlTimestamp> values = intsBetween(0, 30_000).stream()
+                .map(i -> sqlTimestampOf(i * 1_000L + i % 1_000, SESSION))
+                .collect(toList());
+
+        tester.testRoundTrip(TIMESTAMP, values, ImmutableList.of(
+                ImmutableMap.of(0, BigintRange.of(10_000_000, 20_000_000, false)),
+                ImmutableMap.of(0, BigintValues.of(new long[] {0, 1_001_001, 29_999_999}, true)),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testShortDecimalSequence()
+            throws Exception
+    {
+        DecimalType type = createDecimalType(8, 4);
+        List<SqlDecimal> values = decimalSequence("-3000000", "100", 60_000, type);
+
+        tester.testRoundTrip(type, values, ImmutableList.of(
+                ImmutableMap.of(0, BigintRange.of(-10_000, 10_000, false)),
+                ImmutableMap.of(0, BigintValues.of(new long[] {-3_000_000, 0, 2_999_900}, true)),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testLongDecimalSequence()
+            throws Exception
+    {
+        DecimalType type = createDecimalType(38, 16);
+        List<SqlDecimal> values = decimalSequence("-3000000000000000000", "100000000000000", 60_000, type);
+
+        tester.testRoundTrip(type, values, ImmutableList.of(
+                ImmutableMap.of(0, longDecimalRange(new BigInteger("-1000000000000000000"), new BigInteger("1000000000000000000"))),
+                ImmutableMap.of(0, longDecimalRange(new BigInteger("2999900000000000000"), new BigInteger("9000000000000000000"))),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+    }
+
+    @Test
+    public void testArrays()
+            throws Exception
+    {
+        List<Integer> keys = newArrayList(intsBetween(0, 30_000));
+        List<List<Integer>> values = keys.stream()
+                .map(i -> i % 11 == 0 ? ImmutableList.<Integer>of() : Arrays.asList(i, i % 7 == 0 ? null : i + 1, i + 2))
+                .collect(toList());
+
+        testRoundTripStructural(arrayType(INTEGER), keys, values);
+    }
+
+    @Test
+    public void testStructs()
+            throws Exception
+    {
+        List<Integer> keys = newArrayList(intsBetween(0, 30_000));
+        List<List<Object>> values = keys.stream()
+                .map(i -> Arrays.<Object>asList(i, i % 7 == 0 ? null : String.valueOf(i), i % 3 == 0 ? null : (double) i))
+                .collect(toList());
+
+        testRoundTripStructural(rowType(INTEGER, VARCHAR, DOUBLE), keys, values);
+    }
+
+    @Test
+    public void testMaps()
+            throws Exception
+    {
+        List<Integer> keys = newArrayList(intsBetween(0, 30_000));
+        List<Map<Integer, Integer>> values = keys.stream()
+                .map(i -> {
+                    Map<Integer, Integer> map = new HashMap<>();
+                    for (int j = 0; j < i % 4; j++) {
+                        map.put(j, (i + j) % 7 == 0 ? null : i + j);
+                    }
+                    return map;
+                })
+                .collect(toList());
+
+        testRoundTripStructural(mapType(INTEGER, INTEGER), keys, values);
+    }
+
+    private void testRoundTripStructural(Type type, List<Integer> keys, List<?> values)
+            throws Exception
+    {
+        tester.testRoundTrip(type, values, ImmutableList.of(
+                ImmutableMap.of(0, TupleDomainFilter.IS_NULL),
+                ImmutableMap.of(0, TupleDomainFilter.IS_NOT_NULL)));
+
+        // structural column read for the positions that pass the filter on another column
+        tester.testRoundTripTypes(ImmutableList.of(INTEGER, type), ImmutableList.of(keys, values), ImmutableList.of(
+                ImmutableMap.of(0, BigintRange.of(1_000, 2_000, false)),
+                ImmutableMap.of(0, BigintValues.of(new long[] {1, 17, 1_001, 29_999}, false)),
+                ImmutableMap.of(0, BigintRange.of(1_000, 20_000, false), 1, TupleDomainFilter.IS_NOT_NULL),
+                ImmutableMap.of(1, TupleDomainFilter.IS_NULL)));
+    }
+
     private void testRoundTripNumeric(Iterable<? extends Number> values, TupleDomainFilter filter)
             throws Exception
     {
@@ -190,6 +357,49 @@ public class TestSelectiveOrcReader
                         ImmutableMap.of(0, filter, 1, filter, 2, filter)));
     }
 
+    private static TupleDomainFilter longDecimalRange(BigInteger lower, BigInteger upper)
+    {
+        Slice lowerValue = encodeUnscaledValue(lower);
+        Slice upperValue = encodeUnscaledValue(upper);
+        return LongDecimalRange.of(
+                lowerValue.getLong(0),
+                lowerValue.getLong(SIZE_OF_LONG),
+                false,
+                false,
+                upperValue.getLong(0),
+                upperValue.getLong(SIZE_OF_LONG),
+                false,
+                false,
+                false);
+    }
+
+    private static List<SqlDecimal> decimalSequence(String start, String step, int items, DecimalType type)
+    {
+        BigInteger decimalStep = new BigInteger(step);
+
+        List<SqlDecimal> values = new ArrayList<>();
+        BigInteger nextValue = new BigInteger(start);
+        for (int i = 0; i < items; i++) {
+            values.add(new SqlDecimal(nextValue, type.getPrecision(), type.getScale()));
+            nextValue = nextValue.add(decimalStep);
+        }
+        return values;
+    }
+
+    private static List<Double> doubleSequence(double start, double step, int items)
+    {
+        return IntStream.range(0, items)
+                .mapToObj(i -> start + step * i)
+                .collect(toList());
+    }
+
+    private static List<Float> floatSequence(float start, float step, int items)
+    {
+        return IntStream.range(0, items)
+                .mapToObj(i -> start + step * i)
+                .collect(toList());
+    }
+
     private static ContiguousSet<Integer> intsBetween(int lowerInclusive, int upperExclusive)
     {
         return ContiguousSet.create(Range.closedOpen(lowerInclusive, upperExclusive), DiscreteDomain.integers());
@@ -14,6 +14,7 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.statistics.NoOpBloomFilterBuilder;
 import com.facebook.presto.orc.writer.SliceDictionaryColumnWriter;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
@@ -41,7 +42,8 @@ public class TestSliceDictionaryColumnWriter
                 CompressionKind.NONE,
                 toIntExact(DEFAULT_MAX_COMPRESSION_BUFFER_SIZE.toBytes()),
                 OrcEncoding.ORC,
-                DEFAULT_MAX_STRING_STATISTICS_LIMIT);
+                DEFAULT_MAX_STRING_STATISTICS_LIMIT,
+                NoOpBloomFilterBuilder::new);
 
         // a single row group exceeds 2G after direct conversion
         byte[] value = new byte[megabytes(1)];
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.cache;
+
+import com.facebook.presto.orc.FileOrcDataSource;
+import com.facebook.presto.orc.OrcBatchRecordReader;
+import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.OrcPredicate;
+import com.facebook.presto.orc.OrcReader;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.INITIAL_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnHive;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.createTempFile;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestCachingOrcMetadataSources
+{
+    private static final DataSize ONE_MEGABYTE = new DataSize(1, MEGABYTE);
+    private static final List<Long> VALUES = LongStream.range(0, 50_000).boxed().collect(toImmutableList());
+
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        file = createTempFile("orc", ".orc").toFile();
+        writeOrcColumnHive(file, ORC_12, ZLIB, BIGINT, VALUES);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void testFileTailIsReadOncePerFileVersion()
+            throws Exception
+    {
+        Cache<OrcFileKey, OrcFileTail> cache = CacheBuilder.newBuilder().recordStats().build();
+        CachingOrcFileTailSource orcFileTailSource = new CachingOrcFileTailSource(new StorageOrcFileTailSource(), cache);
+
+        assertEquals(readAll(orcFileTailSource, new StorageStripeMetadataSource(), 1), VALUES);
+        assertEquals(readAll(orcFileTailSource, new StorageStripeMetadataSource(), 1), VALUES);
+        assertEquals(orcFileTailSource.getMissCount(), 1);
+        assertEquals(orcFileTailSource.getHitCount(), 1);
+
+        // a rewritten file has a new modification time and must not reuse the old tail
+        assertEquals(readAll(orcFileTailSource, new StorageStripeMetadataSource(), 2), VALUES);
+        assertEquals(orcFileTailSource.getMissCount(), 2);
+        assertEquals(orcFileTailSource.getCachedFileCount(), 2);
+
+        orcFileTailSource.flushCache();
+        assertEquals(orcFileTailSource.getCachedFileCount(), 0);
+    }
+
+    @Test
+    public void testStripeMetadataIsShared()
+            throws Exception
+    {
+        Cache<StripeId, Slice> footerSliceCache = CacheBuilder.newBuilder().recordStats().build();
+        Cache<StripeStreamId, Slice> indexStreamSliceCache = CacheBuilder.newBuilder().recordStats().build();
+        CachingStripeMetadataSource stripeMetadataSource = new CachingStripeMetadataSource(new StorageStripeMetadataSource(), footerSliceCache, indexStreamSliceCache);
+
+        assertEquals(readAll(new StorageOrcFileTailSource(), stripeMetadataSource, 1), VALUES);
+        long footerCount = stripeMetadataSource.getCachedFooterCount();
+        long indexStreamCount = stripeMetadataSource.getCachedIndexStreamCount();
+        assertTrue(footerCount > 0);
+        assertTrue(indexStreamCount > 0);
+        assertEquals(stripeMetadataSource.getFooterHitRate(), 0.0);
+
+        assertEquals(readAll(new StorageOrcFileTailSource(), stripeMetadataSource, 1), VALUES);
+        assertEquals(stripeMetadataSource.getCachedFooterCount(), footerCount);
+        assertEquals(stripeMetadataSource.getCachedIndexStreamCount(), indexStreamCount);
+        assertEquals(stripeMetadataSource.getFooterHitRate(), 0.5);
+        assertEquals(stripeMetadataSource.getIndexStreamHitRate(), 0.5);
+    }
+
+    private List<Long> readAll(OrcFileTailSource orcFileTailSource, StripeMetadataSource stripeMetadataSource, long modificationTime)
+            throws IOException
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        try (OrcDataSource dataSource = new FileOrcDataSource(file, ONE_MEGABYTE, ONE_MEGABYTE, ONE_MEGABYTE, true)) {
+            OrcReader orcReader = new OrcReader(dataSource, ORC, orcFileTailSource, stripeMetadataSource, modificationTime, ONE_MEGABYTE, ONE_MEGABYTE, ONE_MEGABYTE, ONE_MEGABYTE);
+            try (OrcBatchRecordReader reader = orcReader.createBatchRecordReader(ImmutableMap.of(0, BIGINT), OrcPredicate.TRUE, DateTimeZone.UTC, newSimpleAggregatedMemoryContext(), INITIAL_BATCH_SIZE)) {
+                for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                    Block block = reader.readBlock(BIGINT, 0);
+                    for (int position = 0; position < block.getPositionCount(); position++) {
+                        values.add(BIGINT.getLong(block, position));
+                    }
+                }
+            }
+        }
+        return values.build();
+    }
+}
@@ -13,28 +13,36 @@
  */
 package com.facebook.presto.parquet;
 
+import com.github.luben.zstd.Zstd;
+import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.compress.lzo.LzoDecompressor;
+import io.airlift.compress.snappy.SnappyCompressor;
 import io.airlift.compress.snappy.SnappyDecompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
 import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 
 public final class ParquetCompressionUtils
 {
     private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+    private static final int ZSTD_COMPRESSION_LEVEL = 3;
 
     private ParquetCompressionUtils() {}
 
@@ -56,6 +64,8 @@ public final class ParquetCompressionUtils
                 return input;
             case LZO:
                 return decompressLZO(input, uncompressedSize);
+            case ZSTD:
+                return decompressZstd(input, uncompressedSize);
             default:
                 throw new ParquetCorruptionException("Codec not supported in Parquet: " + codec);
         }
@@ -68,6 +78,13 @@ public final class ParquetCompressionUtils
         return wrappedBuffer(buffer);
     }
 
+    private static Slice decompressZstd(Slice input, int uncompressedSize)
+    {
+        byte[] buffer = new byte[uncompressedSize];
+        decompress(new ZstdDecompressor(), input, 0, input.length(), buffer, 0);
+        return wrappedBuffer(buffer);
+    }
+
     private static Slice decompressGzip(Slice input, int uncompressedSize)
             throws IOException
     {
@@ -112,6 +129,53 @@ public final class ParquetCompressionUtils
         return wrappedBuffer(output, 0, uncompressedSize);
     }
 
+    public static Slice compress(CompressionCodecName codec, byte[] input)
+            throws IOException
+    {
+        requireNonNull(input, "input is null");
+
+        switch (codec) {
+            case GZIP:
+                return compressGzip(input);
+            case SNAPPY:
+                return compress(new SnappyCompressor(), input);
+            case ZSTD:
+                return compressZstd(input);
+            case UNCOMPRESSED:
+                return wrappedBuffer(input);
+            default:
+                throw new IllegalArgumentException("Unsupported Parquet compression codec: " + codec);
+        }
+    }
+
+    private static Slice compressGzip(byte[] input)
+            throws IOException
+    {
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(input.length / 2 + GZIP_BUFFER_SIZE);
+        try (OutputStream gzipOutputStream = new GZIPOutputStream(sliceOutput, GZIP_BUFFER_SIZE)) {
+            gzipOutputStream.write(input);
+        }
+        return sliceOutput.slice();
+    }
+
+    private static Slice compressZstd(byte[] input)
+            throws IOException
+    {
+        byte[] output = new byte[toIntExact(Zstd.compressBound(input.length))];
+        long size = Zstd.compressByteArray(output, 0, output.length, input, 0, input.length, ZSTD_COMPRESSION_LEVEL);
+        if (Zstd.isError(size)) {
+            throw new IOException("Zstd compression failed: " + Zstd.getErrorName(size));
+        }
+        return wrappedBuffer(output, 0, toIntExact(size));
+    }
+
+    private static Slice compress(Compressor compressor, byte[] input)
+    {
+        byte[] output = new byte[compressor.maxCompressedLength(input.length)];
+        int size = compressor.compress(input, 0, input.length, output, 0, output.length);
+        return wrappedBuffer(output, 0, size);
+    }
+
     private static int decompress(Decompressor decompressor, Slice input, int inputOffset, int inputLength, byte[] output, int outputOffset)
     {
         byte[] byteArray = (byte[]) input.getBase();
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
@@ -46,19 +47,39 @@ public class BinaryColumnReader
             else {
                 value = wrappedBuffer(binary.getBytes());
             }
-            if (isVarcharType(type)) {
-                value = truncateToLength(value, type);
-            }
-            if (isCharType(type)) {
-                value = truncateToLengthAndTrimSpaces(value, type);
-            }
-            type.writeSlice(blockBuilder, value);
+            type.writeSlice(blockBuilder, truncate(value, type));
         }
         else if (isValueNull()) {
             blockBuilder.appendNull();
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        byte[] bytes = valuesReader.readBytes().getBytes();
+        // truncation never changes the start of the value, so the filter can be applied to the raw bytes
+        Slice value = truncate(wrappedBuffer(bytes), type);
+        if (filter != null && !filter.testBytes(bytes, 0, value.length())) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeSlice(blockBuilder, value);
+        }
+        return true;
+    }
+
+    private static Slice truncate(Slice value, Type type)
+    {
+        if (isVarcharType(type)) {
+            return truncateToLength(value, type);
+        }
+        if (isCharType(type)) {
+            return truncateToLengthAndTrimSpaces(value, type);
+        }
+        return value;
+    }
+
     @Override
     protected void skipValue()
     {
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
@@ -36,6 +37,19 @@ public class DoubleColumnReader
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        double value = valuesReader.readDouble();
+        if (filter != null && !filter.testDouble(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeDouble(blockBuilder, value);
+        }
+        return true;
+    }
+
     @Override
     protected void skipValue()
     {
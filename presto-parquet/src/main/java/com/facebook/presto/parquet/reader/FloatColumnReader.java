@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
@@ -38,6 +39,19 @@ public class FloatColumnReader
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        float value = valuesReader.readFloat();
+        if (filter != null && !filter.testFloat(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, floatToRawIntBits(value));
+        }
+        return true;
+    }
+
     @Override
     protected void skipValue()
     {
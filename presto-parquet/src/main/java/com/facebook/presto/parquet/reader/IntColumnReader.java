@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
@@ -36,6 +37,19 @@ public class IntColumnReader
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        long value = valuesReader.readInteger();
+        if (filter != null && !filter.testLong(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, value);
+        }
+        return true;
+    }
+
     @Override
     protected void skipValue()
     {
@@ -13,14 +13,18 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Decimals;
 import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.Slice;
 import org.apache.parquet.io.api.Binary;
 
 import java.math.BigInteger;
 
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+
 public class LongDecimalColumnReader
         extends PrimitiveColumnReader
 {
@@ -41,6 +45,19 @@ public class LongDecimalColumnReader
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        Slice value = Decimals.encodeUnscaledValue(new BigInteger(valuesReader.readBytes().getBytes()));
+        if (filter != null && !filter.testDecimal(value.getLong(0), value.getLong(SIZE_OF_LONG))) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeSlice(blockBuilder, value);
+        }
+        return true;
+    }
+
     @Override
     protected void skipValue()
     {
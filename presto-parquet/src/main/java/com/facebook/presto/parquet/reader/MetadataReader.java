@@ -112,7 +112,7 @@ public final class MetadataReader
         List<RowGroup> rowGroups = fileMetaData.getRow_groups();
         if (rowGroups != null) {
             for (RowGroup rowGroup : rowGroups) {
-                BlockMetaData blockMetaData = new BlockMetaData();
+                ParquetBlockMetaData blockMetaData = new ParquetBlockMetaData();
                 blockMetaData.setRowCount(rowGroup.getNum_rows());
                 blockMetaData.setTotalByteSize(rowGroup.getTotal_byte_size());
                 List<ColumnChunk> columns = rowGroup.getColumns();
@@ -144,6 +144,12 @@ public final class MetadataReader
                             metaData.total_compressed_size,
                             metaData.total_uncompressed_size);
                     blockMetaData.addColumn(column);
+                    if (columnChunk.isSetColumn_index_offset() && columnChunk.isSetColumn_index_length()) {
+                        blockMetaData.setColumnIndexReference(columnPath, new IndexReference(columnChunk.getColumn_index_offset(), columnChunk.getColumn_index_length()));
+                    }
+                    if (columnChunk.isSetOffset_index_offset() && columnChunk.isSetOffset_index_length()) {
+                        blockMetaData.setOffsetIndexReference(columnPath, new IndexReference(columnChunk.getOffset_index_offset(), columnChunk.getOffset_index_length()));
+                    }
                 }
                 blockMetaData.setPath(filePath);
                 blocks.add(blockMetaData);
@@ -19,11 +19,16 @@ import com.facebook.presto.parquet.DataPageV2;
 import com.facebook.presto.parquet.DictionaryPage;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.OptionalLong;
 
 import static com.facebook.presto.parquet.ParquetCompressionUtils.decompress;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.toIntExact;
 
 class PageReader
@@ -32,6 +37,9 @@ class PageReader
     private final long valueCount;
     private final List<DataPage> compressedPages;
     private final DictionaryPage compressedDictionaryPage;
+    // row index of the first row of each page in the row group; null unless only a subset of the pages was loaded
+    @Nullable
+    private final LinkedList<Long> firstRowIndexes;
 
     public PageReader(CompressionCodecName codec,
             List<DataPage> compressedPages,
@@ -40,6 +48,7 @@ class PageReader
         this.codec = codec;
         this.compressedPages = new LinkedList<>(compressedPages);
         this.compressedDictionaryPage = compressedDictionaryPage;
+        this.firstRowIndexes = null;
         int count = 0;
         for (DataPage page : compressedPages) {
             count += page.getValueCount();
@@ -47,17 +56,79 @@ class PageReader
         this.valueCount = count;
     }
 
+    /**
+     * Creates a reader over a subset of the pages of a flat column chunk.
+     *
+     * @param firstRowIndexes row index of the first row of each of the pages
+     * @param valueCount number of values in the whole column chunk
+     */
+    public PageReader(CompressionCodecName codec,
+            List<DataPage> compressedPages,
+            DictionaryPage compressedDictionaryPage,
+            List<Long> firstRowIndexes,
+            long valueCount)
+    {
+        checkArgument(compressedPages.size() == firstRowIndexes.size(), "compressedPages and firstRowIndexes have different sizes");
+        this.codec = codec;
+        this.compressedPages = new LinkedList<>(compressedPages);
+        this.compressedDictionaryPage = compressedDictionaryPage;
+        this.firstRowIndexes = new LinkedList<>(firstRowIndexes);
+        this.valueCount = valueCount;
+    }
+
     public long getTotalValueCount()
     {
         return valueCount;
     }
 
+    public boolean hasRowIndexes()
+    {
+        return firstRowIndexes != null;
+    }
+
+    public boolean hasNextPage()
+    {
+        return !compressedPages.isEmpty();
+    }
+
+    /**
+     * Returns the row index of the first row of the next page, if known.
+     */
+    public OptionalLong getNextPageFirstRowIndex()
+    {
+        if (firstRowIndexes == null || firstRowIndexes.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(firstRowIndexes.get(0));
+    }
+
+    public int getNextPageValueCount()
+    {
+        checkState(!compressedPages.isEmpty(), "No more pages");
+        return compressedPages.get(0).getValueCount();
+    }
+
+    /**
+     * Drops the next page without decompressing it.
+     */
+    public void skipNextPage()
+    {
+        checkState(!compressedPages.isEmpty(), "No more pages");
+        compressedPages.remove(0);
+        if (firstRowIndexes != null) {
+            firstRowIndexes.remove(0);
+        }
+    }
+
     public DataPage readPage()
     {
         if (compressedPages.isEmpty()) {
             return null;
         }
         DataPage compressedPage = compressedPages.remove(0);
+        if (firstRowIndexes != null) {
+            firstRowIndexes.remove(0);
+        }
         try {
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
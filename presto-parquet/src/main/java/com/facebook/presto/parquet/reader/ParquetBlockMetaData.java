@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Row group metadata that also carries the locations of the column indexes and offset indexes
+ * (the "page index") written by newer Parquet writers. Row groups of files without a page index
+ * simply have no references.
+ */
+public class ParquetBlockMetaData
+        extends BlockMetaData
+{
+    private final Map<ColumnPath, IndexReference> columnIndexReferences = new HashMap<>();
+    private final Map<ColumnPath, IndexReference> offsetIndexReferences = new HashMap<>();
+
+    public void setColumnIndexReference(ColumnPath path, IndexReference reference)
+    {
+        columnIndexReferences.put(requireNonNull(path, "path is null"), requireNonNull(reference, "reference is null"));
+    }
+
+    public void setOffsetIndexReference(ColumnPath path, IndexReference reference)
+    {
+        offsetIndexReferences.put(requireNonNull(path, "path is null"), requireNonNull(reference, "reference is null"));
+    }
+
+    public Optional<IndexReference> getColumnIndexReference(ColumnPath path)
+    {
+        return Optional.ofNullable(columnIndexReferences.get(path));
+    }
+
+    public Optional<IndexReference> getOffsetIndexReference(ColumnPath path)
+    {
+        return Optional.ofNullable(offsetIndexReferences.get(path));
+    }
+
+    public boolean hasPageIndex()
+    {
+        return !offsetIndexReferences.isEmpty();
+    }
+}
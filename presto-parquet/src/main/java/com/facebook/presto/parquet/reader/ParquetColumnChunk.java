@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static com.facebook.presto.parquet.ParquetTypeUtils.getParquetEncoding;
+import static com.facebook.presto.parquet.ParquetValidationUtils.validateParquet;
 import static io.airlift.slice.Slices.wrappedBuffer;
 
 public class ParquetColumnChunk
@@ -64,9 +65,36 @@ public class ParquetColumnChunk
             throws IOException
     {
         List<DataPage> pages = new ArrayList<>();
+        DictionaryPage dictionaryPage = readPages(pages, false);
+        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
+    }
+
+    /**
+     * Reads a subset of the pages of a column chunk. The buffer must contain the dictionary page,
+     * if any, followed by the selected data pages and nothing else.
+     *
+     * @param firstRowIndexes row index of the first row of each of the selected data pages
+     */
+    public PageReader readPages(List<Long> firstRowIndexes)
+            throws IOException
+    {
+        List<DataPage> pages = new ArrayList<>();
+        DictionaryPage dictionaryPage = readPages(pages, true);
+        validateParquet(
+                pages.size() == firstRowIndexes.size(),
+                "%s expected %s data pages but found %s",
+                descriptor.getColumnDescriptor(),
+                firstRowIndexes.size(),
+                pages.size());
+        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage, firstRowIndexes, descriptor.getColumnChunkMetaData().getValueCount());
+    }
+
+    private DictionaryPage readPages(List<DataPage> pages, boolean readToEnd)
+            throws IOException
+    {
         DictionaryPage dictionaryPage = null;
         long valueCount = 0;
-        while (valueCount < descriptor.getColumnChunkMetaData().getValueCount()) {
+        while (readToEnd ? pos < count : valueCount < descriptor.getColumnChunkMetaData().getValueCount()) {
             PageHeader pageHeader = readPageHeader();
             int uncompressedPageSize = pageHeader.getUncompressed_page_size();
             int compressedPageSize = pageHeader.getCompressed_page_size();
@@ -88,7 +116,7 @@ public class ParquetColumnChunk
                     break;
             }
         }
-        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
+        return dictionaryPage;
     }
 
     public int getPosition()
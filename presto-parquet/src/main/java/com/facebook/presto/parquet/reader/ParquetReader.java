@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.parquet.Field;
@@ -23,34 +24,52 @@ import com.facebook.presto.parquet.PrimitiveField;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.ArrayBlock;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.RowBlock;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableMap;
 import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.booleans.BooleanList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageLocation;
+import org.apache.parquet.format.Util;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.io.PrimitiveColumnIO;
 
+import javax.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.parquet.ParquetValidationUtils.validateParquet;
+import static com.facebook.presto.parquet.predicate.TupleDomainParquetPredicate.getDomain;
 import static com.facebook.presto.parquet.reader.ListColumnReader.calculateCollectionOffsets;
 import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
 import static com.facebook.presto.spi.type.StandardTypes.MAP;
 import static com.facebook.presto.spi.type.StandardTypes.ROW;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -64,6 +83,9 @@ public class ParquetReader
     private final List<PrimitiveColumnIO> columns;
     private final ParquetDataSource dataSource;
     private final AggregatedMemoryContext systemMemoryContext;
+    // domains of the flat columns of the predicate, used to skip pages of row groups that have a page index
+    private final Map<ColumnPath, Domain> pageIndexDomains;
+    private final boolean failOnCorruptedParquetStatistics;
 
     private int currentBlock;
     private BlockMetaData currentBlockMetadata;
@@ -72,6 +94,9 @@ public class ParquetReader
     private long nextRowInGroup;
     private int batchSize;
     private final PrimitiveColumnReader[] columnReaders;
+    private RowRanges currentRowRanges;
+    private int currentRowRange;
+    private final Map<ColumnPath, OffsetIndex> currentOffsetIndexes = new HashMap<>();
 
     private AggregatedMemoryContext currentRowGroupMemoryContext;
 
@@ -79,13 +104,37 @@ public class ParquetReader
             List<BlockMetaData> blocks,
             ParquetDataSource dataSource,
             AggregatedMemoryContext systemMemoryContext)
+    {
+        this(messageColumnIO, blocks, dataSource, systemMemoryContext, TupleDomain.all(), false);
+    }
+
+    /**
+     * Creates a reader that uses the column indexes and offset indexes of the row groups, when present,
+     * to skip the pages that cannot contain rows matching the predicate.
+     */
+    public ParquetReader(MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            TupleDomain<ColumnDescriptor> predicate,
+            boolean failOnCorruptedParquetStatistics)
     {
         this.blocks = blocks;
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        requireNonNull(predicate, "predicate is null");
+        this.failOnCorruptedParquetStatistics = failOnCorruptedParquetStatistics;
         columns = messageColumnIO.getLeaves();
         columnReaders = new PrimitiveColumnReader[columns.size()];
+
+        ImmutableMap.Builder<ColumnPath, Domain> pageIndexDomains = ImmutableMap.builder();
+        predicate.getDomains().ifPresent(domains -> domains.forEach((column, domain) -> {
+            if (column.getMaxRepetitionLevel() == 0 && !domain.isAll()) {
+                pageIndexDomains.put(ColumnPath.get(column.getPath()), domain);
+            }
+        }));
+        this.pageIndexDomains = pageIndexDomains.build();
     }
 
     @Override
@@ -102,35 +151,162 @@ public class ParquetReader
     }
 
     public int nextBatch()
+            throws IOException
     {
         if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
             return -1;
         }
 
-        batchSize = toIntExact(min(MAX_VECTOR_LENGTH, currentGroupRowCount - nextRowInGroup));
+        // batches never span row ranges; rows between ranges are skipped
+        if (nextRowInGroup == currentRowRanges.getEnd(currentRowRange)) {
+            currentRowRange++;
+        }
+        long skippedRows = max(0, currentRowRanges.getStart(currentRowRange) - nextRowInGroup);
+        nextRowInGroup += skippedRows;
+
+        batchSize = toIntExact(min(MAX_VECTOR_LENGTH, currentRowRanges.getEnd(currentRowRange) - nextRowInGroup));
 
         nextRowInGroup += batchSize;
+        if (currentRowRange == currentRowRanges.getRangeCount() - 1 && nextRowInGroup == currentRowRanges.getEnd(currentRowRange)) {
+            // no rows after the last range need to be read
+            nextRowInGroup = currentGroupRowCount;
+        }
         currentPosition += batchSize;
         Arrays.stream(columnReaders)
-                .forEach(reader -> reader.prepareNextRead(batchSize));
+                .forEach(reader -> reader.prepareNextRead(skippedRows, batchSize));
         return batchSize;
     }
 
     private boolean advanceToNextRowGroup()
+            throws IOException
     {
         currentRowGroupMemoryContext.close();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
 
-        if (currentBlock == blocks.size()) {
-            return false;
+        while (currentBlock < blocks.size()) {
+            currentBlockMetadata = blocks.get(currentBlock);
+            currentBlock = currentBlock + 1;
+
+            nextRowInGroup = 0L;
+            currentGroupRowCount = currentBlockMetadata.getRowCount();
+            currentOffsetIndexes.clear();
+            currentRowRanges = calculateRowRanges();
+            currentRowRange = 0;
+            if (!currentRowRanges.isEmpty()) {
+                initializeColumnReaders();
+                return true;
+            }
         }
-        currentBlockMetadata = blocks.get(currentBlock);
-        currentBlock = currentBlock + 1;
+        return false;
+    }
 
-        nextRowInGroup = 0L;
-        currentGroupRowCount = currentBlockMetadata.getRowCount();
-        initializeColumnReaders();
-        return true;
+    /**
+     * Returns the rows of the current row group that may match the predicate, based on the
+     * per-page statistics of the column indexes.
+     */
+    private RowRanges calculateRowRanges()
+            throws IOException
+    {
+        RowRanges rowRanges = RowRanges.all(currentGroupRowCount);
+        if (!(currentBlockMetadata instanceof ParquetBlockMetaData) || !((ParquetBlockMetaData) currentBlockMetadata).hasPageIndex()) {
+            return rowRanges;
+        }
+        ParquetBlockMetaData block = (ParquetBlockMetaData) currentBlockMetadata;
+        for (Map.Entry<ColumnPath, Domain> entry : pageIndexDomains.entrySet()) {
+            ColumnPath path = entry.getKey();
+            Optional<IndexReference> columnIndexReference = block.getColumnIndexReference(path);
+            Optional<OffsetIndex> offsetIndex = getOffsetIndex(path);
+            if (!columnIndexReference.isPresent() || !offsetIndex.isPresent()) {
+                continue;
+            }
+            ColumnIndex columnIndex = Util.readColumnIndex(new ByteArrayInputStream(readIndex(columnIndexReference.get())));
+            rowRanges = rowRanges.intersect(getMatchingRows(entry.getValue(), getColumnChunkMetaData(path), columnIndex, offsetIndex.get()));
+            if (rowRanges.isEmpty()) {
+                break;
+            }
+        }
+        return rowRanges;
+    }
+
+    private RowRanges getMatchingRows(Domain domain, ColumnChunkMetaData metadata, ColumnIndex columnIndex, OffsetIndex offsetIndex)
+            throws ParquetCorruptionException
+    {
+        List<PageLocation> pageLocations = offsetIndex.getPage_locations();
+        int pageCount = pageLocations.size();
+        validateParquet(
+                columnIndex.getNull_pagesSize() == pageCount && columnIndex.getMin_valuesSize() == pageCount && columnIndex.getMax_valuesSize() == pageCount,
+                "Column index of %s does not match its offset index",
+                metadata.getPath());
+
+        RowRanges.Builder rowRanges = RowRanges.builder();
+        for (int page = 0; page < pageCount; page++) {
+            long firstRow = pageLocations.get(page).getFirst_row_index();
+            long lastRow = getPageLastRow(pageLocations, page);
+            if (firstRow < lastRow && pageMatches(domain, metadata, columnIndex, page, lastRow - firstRow)) {
+                rowRanges.add(firstRow, lastRow);
+            }
+        }
+        return rowRanges.build();
+    }
+
+    private boolean pageMatches(Domain domain, ColumnChunkMetaData metadata, ColumnIndex columnIndex, int page, long rowCount)
+            throws ParquetCorruptionException
+    {
+        Domain pageDomain;
+        if (columnIndex.getNull_pages().get(page)) {
+            pageDomain = Domain.onlyNull(domain.getType());
+        }
+        else {
+            Statistics<?> statistics = Statistics.getStatsBasedOnType(metadata.getPrimitiveType().getPrimitiveTypeName());
+            statistics.setMinMaxFromBytes(getBytes(columnIndex.getMin_values().get(page)), getBytes(columnIndex.getMax_values().get(page)));
+            // null counts are optional; a negative count means the page may contain nulls
+            statistics.setNumNulls(columnIndex.isSetNull_counts() ? columnIndex.getNull_counts().get(page) : -1);
+            pageDomain = getDomain(domain.getType(), rowCount, statistics, dataSource.getId(), metadata.getPath().toDotString(), failOnCorruptedParquetStatistics);
+        }
+        return !domain.intersect(pageDomain).isNone();
+    }
+
+    /**
+     * Returns the row following the last row of the page, relative to the start of the row group.
+     */
+    private long getPageLastRow(List<PageLocation> pageLocations, int page)
+    {
+        if (page + 1 < pageLocations.size()) {
+            return pageLocations.get(page + 1).getFirst_row_index();
+        }
+        return currentGroupRowCount;
+    }
+
+    private Optional<OffsetIndex> getOffsetIndex(ColumnPath path)
+            throws IOException
+    {
+        OffsetIndex offsetIndex = currentOffsetIndexes.get(path);
+        if (offsetIndex == null) {
+            if (!(currentBlockMetadata instanceof ParquetBlockMetaData)) {
+                return Optional.empty();
+            }
+            Optional<IndexReference> reference = ((ParquetBlockMetaData) currentBlockMetadata).getOffsetIndexReference(path);
+            if (!reference.isPresent()) {
+                return Optional.empty();
+            }
+            offsetIndex = Util.readOffsetIndex(new ByteArrayInputStream(readIndex(reference.get())));
+            currentOffsetIndexes.put(path, offsetIndex);
+        }
+        return Optional.of(offsetIndex);
+    }
+
+    private byte[] readIndex(IndexReference reference)
+    {
+        byte[] buffer = new byte[reference.getLength()];
+        dataSource.readFully(reference.getOffset(), buffer);
+        return buffer;
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
     }
 
     private ColumnChunk readArray(GroupField field)
@@ -192,12 +368,37 @@ public class ParquetReader
 
     private ColumnChunk readPrimitive(PrimitiveField field)
             throws IOException
+    {
+        return getColumnReader(field).readPrimitive(field);
+    }
+
+    /**
+     * Reads the values of a flat primitive column at the specified positions of the current batch,
+     * applying the filter to each value as it is decoded.
+     *
+     * @see PrimitiveColumnReader#readSelective
+     */
+    public int readSelective(PrimitiveField field, @Nullable TupleDomainFilter filter, @Nullable BlockBuilder blockBuilder, int[] positions, int positionCount, int[] outputPositions)
+            throws IOException
+    {
+        return getColumnReader(field).readSelective(field.getType(), filter, blockBuilder, positions, positionCount, outputPositions);
+    }
+
+    private PrimitiveColumnReader getColumnReader(PrimitiveField field)
+            throws IOException
     {
         ColumnDescriptor columnDescriptor = field.getDescriptor();
         PrimitiveColumnReader columnReader = columnReaders[field.getId()];
         if (columnReader.getPageReader() == null) {
             validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
             ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+            if (currentRowRanges.getRowCount() < currentGroupRowCount && columnDescriptor.getMaxRepetitionLevel() == 0) {
+                Optional<OffsetIndex> offsetIndex = getOffsetIndex(metadata.getPath());
+                if (offsetIndex.isPresent()) {
+                    columnReader.setPageReader(readPages(columnDescriptor, metadata, offsetIndex.get()));
+                    return columnReader;
+                }
+            }
             long startingPosition = metadata.getStartingPos();
             int totalSize = toIntExact(metadata.getTotalSize());
             byte[] buffer = allocateBlock(totalSize);
@@ -206,7 +407,54 @@ public class ParquetReader
             ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
             columnReader.setPageReader(columnChunk.readAllPages());
         }
-        return columnReader.readPrimitive(field);
+        return columnReader;
+    }
+
+    /**
+     * Reads the dictionary page, if any, and the data pages that contain rows in the current row ranges.
+     */
+    private PageReader readPages(ColumnDescriptor columnDescriptor, ColumnChunkMetaData metadata, OffsetIndex offsetIndex)
+            throws IOException
+    {
+        List<PageLocation> pageLocations = offsetIndex.getPage_locations();
+        validateParquet(!pageLocations.isEmpty(), "Offset index of %s has no pages", metadata.getPath());
+        // the dictionary page precedes the first data page
+        long dictionarySize = pageLocations.get(0).getOffset() - metadata.getStartingPos();
+        validateParquet(dictionarySize >= 0, "First data page of %s starts before the column chunk", metadata.getPath());
+
+        List<PageLocation> selectedPages = new ArrayList<>();
+        List<Long> firstRowIndexes = new ArrayList<>();
+        long totalSize = dictionarySize;
+        for (int page = 0; page < pageLocations.size(); page++) {
+            PageLocation pageLocation = pageLocations.get(page);
+            if (currentRowRanges.overlaps(pageLocation.getFirst_row_index(), getPageLastRow(pageLocations, page))) {
+                selectedPages.add(pageLocation);
+                firstRowIndexes.add(pageLocation.getFirst_row_index());
+                totalSize += pageLocation.getCompressed_page_size();
+            }
+        }
+
+        byte[] buffer = allocateBlock(toIntExact(totalSize));
+        int bufferOffset = toIntExact(dictionarySize);
+        if (dictionarySize > 0) {
+            dataSource.readFully(metadata.getStartingPos(), buffer, 0, bufferOffset);
+        }
+        int page = 0;
+        while (page < selectedPages.size()) {
+            // adjacent pages are read with a single request
+            long offset = selectedPages.get(page).getOffset();
+            int length = 0;
+            do {
+                length += selectedPages.get(page).getCompressed_page_size();
+                page++;
+            }
+            while (page < selectedPages.size() && selectedPages.get(page).getOffset() == offset + length);
+            dataSource.readFully(offset, buffer, bufferOffset, length);
+            bufferOffset += length;
+        }
+
+        ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, buffer.length);
+        return new ParquetColumnChunk(descriptor, buffer, 0).readPages(firstRowIndexes);
     }
 
     private byte[] allocateBlock(int length)
@@ -228,6 +476,17 @@ public class ParquetReader
         throw new ParquetCorruptionException("Metadata is missing for column: %s", columnDescriptor);
     }
 
+    private ColumnChunkMetaData getColumnChunkMetaData(ColumnPath path)
+            throws ParquetCorruptionException
+    {
+        for (ColumnChunkMetaData metadata : currentBlockMetadata.getColumns()) {
+            if (metadata.getPath().equals(path)) {
+                return metadata;
+            }
+        }
+        throw new ParquetCorruptionException("Metadata is missing for column: %s", path);
+    }
+
     private void initializeColumnReaders()
     {
         for (PrimitiveColumnIO columnIO : columns) {
@@ -0,0 +1,255 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.block.LazyBlockLoader;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads pages from a {@link ParquetReader} applying {@link TupleDomainFilter}s to the values
+ * as they are decoded. Columns with filters are read first, from the cheapest to decode to the
+ * most expensive, and each column only decodes the rows that passed the filters of the columns
+ * read before it. The remaining columns are loaded lazily and only for the rows that passed all filters.
+ */
+public class ParquetSelectiveReader
+        implements Closeable
+{
+    private final ParquetReader parquetReader;
+    private final List<Type> types;
+    private final List<Optional<Field>> fields;             // empty for columns missing from the file
+    private final Map<Integer, TupleDomainFilter> filters;  // key: channel
+
+    // Channels with filters, ordered from the cheapest to the most expensive to decode
+    private final int[] filterOrder;
+
+    // An immutable list of initial positions; includes all positions: 0,1,2,3,4,..
+    // This array may grow, but cannot shrink. The values don't change.
+    private int[] positions;
+
+    private int batchId;
+
+    public ParquetSelectiveReader(
+            ParquetReader parquetReader,
+            List<Type> types,
+            List<Optional<Field>> fields,
+            Map<Integer, TupleDomainFilter> filters)
+    {
+        this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
+        this.filters = ImmutableMap.copyOf(requireNonNull(filters, "filters is null"));
+        checkArgument(types.size() == fields.size(), "types and fields must have the same size");
+        for (int channel : filters.keySet()) {
+            checkArgument(channel >= 0 && channel < types.size(), "Invalid filter channel: %s", channel);
+            fields.get(channel).ifPresent(field -> checkArgument(isFlatPrimitive(field), "Filters are only supported on flat primitive columns: %s", field));
+        }
+
+        filterOrder = filters.keySet().stream()
+                .sorted(Comparator.comparingInt(channel -> decodingCost(types.get(channel))))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public static boolean isFlatPrimitive(Field field)
+    {
+        return field instanceof PrimitiveField && ((PrimitiveField) field).getDescriptor().getMaxRepetitionLevel() == 0;
+    }
+
+    private static int decodingCost(Type type)
+    {
+        if (type instanceof FixedWidthType) {
+            return ((FixedWidthType) type).getFixedSize();
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public ParquetReader getParquetReader()
+    {
+        return parquetReader;
+    }
+
+    public Page getNextPage()
+            throws IOException
+    {
+        batchId++;
+        int batchSize = parquetReader.nextBatch();
+        if (batchSize <= 0) {
+            return null;
+        }
+
+        initializePositions(batchSize);
+
+        Block[] filteredBlocks = new Block[types.size()];
+        int[][] filteredPositions = new int[types.size()][];
+
+        int[] positionsToRead = positions;
+        int positionCount = batchSize;
+        for (int channel : filterOrder) {
+            TupleDomainFilter filter = filters.get(channel);
+            Optional<Field> field = fields.get(channel);
+            if (!field.isPresent()) {
+                // the column is missing from the file, so all its values are null
+                if (!filter.testNull()) {
+                    positionCount = 0;
+                    break;
+                }
+                continue;
+            }
+
+            BlockBuilder blockBuilder = types.get(channel).createBlockBuilder(null, positionCount);
+            int[] readPositions = new int[positionCount];
+            positionCount = parquetReader.readSelective((PrimitiveField) field.get(), filter, blockBuilder, positionsToRead, positionCount, readPositions);
+            filteredBlocks[channel] = blockBuilder.build();
+            filteredPositions[channel] = readPositions;
+            positionsToRead = readPositions;
+            if (positionCount == 0) {
+                break;
+            }
+        }
+
+        if (positionCount == 0) {
+            return new Page(0);
+        }
+
+        Block[] blocks = new Block[types.size()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Optional<Field> field = fields.get(channel);
+            if (!field.isPresent()) {
+                blocks[channel] = RunLengthEncodedBlock.create(types.get(channel), null, positionCount);
+            }
+            else if (filteredBlocks[channel] != null) {
+                blocks[channel] = selectPositions(filteredBlocks[channel], filteredPositions[channel], positionsToRead, positionCount);
+            }
+            else {
+                blocks[channel] = new LazyBlock(positionCount, new SelectiveBlockLoader(field.get(), types.get(channel), positionsToRead, positionCount, batchSize));
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private void initializePositions(int batchSize)
+    {
+        if (positions == null || positions.length < batchSize) {
+            positions = new int[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                positions[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the values of a block read at {@code blockPositions} for the subset of these positions given in {@code positions}.
+     */
+    private static Block selectPositions(Block block, int[] blockPositions, int[] positions, int positionCount)
+    {
+        if (block.getPositionCount() == positionCount) {
+            return block;
+        }
+
+        int[] indexes = new int[positionCount];
+        int index = 0;
+        for (int i = 0; i < positionCount; i++) {
+            while (blockPositions[index] < positions[i]) {
+                index++;
+            }
+            indexes[i] = index;
+        }
+        return block.getPositions(indexes, 0, positionCount);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        parquetReader.close();
+    }
+
+    private final class SelectiveBlockLoader
+            implements LazyBlockLoader<LazyBlock>
+    {
+        private final int expectedBatchId = batchId;
+        private final Field field;
+        private final Type type;
+        private final int[] positions;
+        private final int positionCount;
+        private final int batchSize;
+        private boolean loaded;
+
+        public SelectiveBlockLoader(Field field, Type type, int[] positions, int positionCount, int batchSize)
+        {
+            this.field = requireNonNull(field, "field is null");
+            this.type = requireNonNull(type, "type is null");
+            this.positions = requireNonNull(positions, "positions is null");
+            this.positionCount = positionCount;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public final void load(LazyBlock lazyBlock)
+        {
+            if (loaded) {
+                return;
+            }
+
+            checkState(batchId == expectedBatchId);
+
+            try {
+                lazyBlock.setBlock(readBlock());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            loaded = true;
+        }
+
+        private Block readBlock()
+                throws IOException
+        {
+            if (isFlatPrimitive(field)) {
+                BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+                parquetReader.readSelective((PrimitiveField) field, null, blockBuilder, positions, positionCount, new int[positionCount]);
+                return blockBuilder.build();
+            }
+
+            Block block = parquetReader.readBlock(field);
+            if (positionCount == batchSize) {
+                return block;
+            }
+            return block.getPositions(positions, 0, positionCount);
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.DataPage;
 import com.facebook.presto.parquet.DataPageV1;
 import com.facebook.presto.parquet.DataPageV2;
@@ -37,10 +38,13 @@ import org.apache.parquet.column.values.ValuesReader;
 import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
 import org.apache.parquet.io.ParquetDecodingException;
 
+import javax.annotation.Nullable;
+
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.parquet.ParquetTypeUtils.createDecimalType;
@@ -50,6 +54,7 @@ import static com.facebook.presto.parquet.ValuesType.VALUES;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public abstract class PrimitiveColumnReader
@@ -71,11 +76,23 @@ public abstract class PrimitiveColumnReader
     private DataPage page;
     private int remainingValueCountInPage;
     private int readOffset;
+    // index of the next row to be read or skipped, used to position the reader when only a subset of the pages is loaded
+    private long rowPosition;
 
     protected abstract void readValue(BlockBuilder blockBuilder, Type type);
 
     protected abstract void skipValue();
 
+    /**
+     * Reads the current non-null value and tests it against the filter. The value is
+     * appended to the block builder only if it passes the filter.
+     *
+     * @param blockBuilder the block builder to append the value to; null if the value is not needed
+     * @param filter the filter to apply; null if all values pass
+     * @return true if the value passed the filter
+     */
+    protected abstract boolean readFilteredValue(@Nullable BlockBuilder blockBuilder, Type type, @Nullable TupleDomainFilter filter);
+
     protected boolean isValueNull()
     {
         return ParquetTypeUtils.isValueNull(columnDescriptor.isRequired(), definitionLevel, columnDescriptor.getMaxDefinitionLevel());
@@ -149,7 +166,16 @@ public abstract class PrimitiveColumnReader
 
     public void prepareNextRead(int batchSize)
     {
-        readOffset = readOffset + nextBatchSize;
+        prepareNextRead(0, batchSize);
+    }
+
+    /**
+     * Prepares the next batch of rows, which starts after the specified number of rows
+     * following the end of the previous batch.
+     */
+    public void prepareNextRead(long skippedRows, int batchSize)
+    {
+        readOffset = toIntExact(readOffset + nextBatchSize + skippedRows);
         nextBatchSize = batchSize;
     }
 
@@ -176,11 +202,67 @@ public abstract class PrimitiveColumnReader
         }
         checkArgument(valueCount == nextBatchSize, "valueCount %s not equals to batchSize %s", valueCount, nextBatchSize);
 
+        rowPosition += nextBatchSize;
         readOffset = 0;
         nextBatchSize = 0;
         return new ColumnChunk(blockBuilder.build(), definitionLevels.toIntArray(), repetitionLevels.toIntArray());
     }
 
+    /**
+     * Reads the values at the specified positions of the current batch and skips all other values.
+     * Values are decoded and tested against the filter one at a time, so that values that do not
+     * pass the filter are never materialized. Only flat (non-repeated) columns are supported.
+     *
+     * @param positions positions relative to the start of the batch, in increasing order
+     * @param outputPositions receives the subset of positions that passed the filter
+     * @return number of positions that passed the filter
+     */
+    public int readSelective(Type type, @Nullable TupleDomainFilter filter, @Nullable BlockBuilder blockBuilder, int[] positions, int positionCount, int[] outputPositions)
+    {
+        checkArgument(columnDescriptor.getMaxRepetitionLevel() == 0, "Selective reads are not supported for repeated column %s", columnDescriptor);
+        checkArgument(filter != null || blockBuilder != null, "filter and blockBuilder are both null");
+        seek();
+
+        boolean[] passed = new boolean[1];
+        Consumer<Void> valueConsumer = ignored -> passed[0] = readSelectiveValue(blockBuilder, type, filter);
+
+        int outputPositionCount = 0;
+        int batchPosition = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            skipRows(position - batchPosition);
+            if (page == null) {
+                readNextPage();
+            }
+            processValues(1, valueConsumer);
+            batchPosition = position + 1;
+            if (passed[0]) {
+                outputPositions[outputPositionCount] = position;
+                outputPositionCount++;
+            }
+        }
+        skipRows(nextBatchSize - batchPosition);
+
+        rowPosition += nextBatchSize;
+        readOffset = 0;
+        nextBatchSize = 0;
+        return outputPositionCount;
+    }
+
+    private boolean readSelectiveValue(@Nullable BlockBuilder blockBuilder, Type type, @Nullable TupleDomainFilter filter)
+    {
+        if (definitionLevel == columnDescriptor.getMaxDefinitionLevel()) {
+            return readFilteredValue(blockBuilder, type, filter);
+        }
+        if (filter != null && !filter.testNull()) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            blockBuilder.appendNull();
+        }
+        return true;
+    }
+
     private void readValues(BlockBuilder blockBuilder, int valuesToRead, Type type, IntList definitionLevels, IntList repetitionLevels)
     {
         processValues(valuesToRead, ignored -> {
@@ -224,29 +306,67 @@ public abstract class PrimitiveColumnReader
     private void seek()
     {
         checkArgument(currentValueCount <= totalValueCount, "Already read all values in column chunk");
-        if (readOffset == 0) {
-            return;
+        if (pageReader.hasRowIndexes()) {
+            seekToRow(rowPosition + readOffset);
         }
+        else {
+            skipRows(readOffset);
+        }
+        rowPosition += readOffset;
+    }
+
+    /**
+     * Positions a reader of a flat column, whose page reader holds only a subset of the pages,
+     * at the specified row. Pages that end before the row are dropped without being decompressed.
+     */
+    private void seekToRow(long row)
+    {
+        if (page != null && row >= currentValueCount + remainingValueCountInPage) {
+            currentValueCount += remainingValueCountInPage;
+            remainingValueCountInPage = 0;
+            page = null;
+            valuesReader = null;
+        }
+        if (page == null) {
+            while (pageReader.hasNextPage() && pageReader.getNextPageFirstRowIndex().getAsLong() + pageReader.getNextPageValueCount() <= row) {
+                pageReader.skipNextPage();
+            }
+            // levels read ahead belong to the dropped page
+            definitionLevel = EMPTY_LEVEL_VALUE;
+            repetitionLevel = EMPTY_LEVEL_VALUE;
+            verify(readNextPage(), "No page contains row %s of column %s", row, columnDescriptor);
+        }
+        verify(row >= currentValueCount, "Row %s of column %s has already been read", row, columnDescriptor);
+        skipRows(toIntExact(row - currentValueCount));
+    }
+
+    private void skipRows(int rowCount)
+    {
         int valuePosition = 0;
-        while (valuePosition < readOffset) {
+        while (valuePosition < rowCount) {
             if (page == null) {
                 readNextPage();
             }
-            int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
+            int offset = Math.min(remainingValueCountInPage, rowCount - valuePosition);
             skipValues(offset);
             valuePosition = valuePosition + offset;
         }
-        checkArgument(valuePosition == readOffset, "valuePosition %s must be equal to readOffset %s", valuePosition, readOffset);
+        checkArgument(valuePosition == rowCount, "valuePosition %s must be equal to rowCount %s", valuePosition, rowCount);
     }
 
     private boolean readNextPage()
     {
         verify(page == null, "readNextPage has to be called when page is null");
+        OptionalLong firstRowIndex = pageReader.getNextPageFirstRowIndex();
         page = pageReader.readPage();
         if (page == null) {
             // we have read all pages
             return false;
         }
+        if (firstRowIndex.isPresent()) {
+            // pages between the previous page and this one may have been skipped
+            currentValueCount = toIntExact(firstRowIndex.getAsLong());
+        }
         remainingValueCountInPage = page.getValueCount();
         if (page instanceof DataPageV1) {
             valuesReader = readPageV1((DataPageV1) page);
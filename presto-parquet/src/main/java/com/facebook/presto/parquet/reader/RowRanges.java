@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.google.common.primitives.Longs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Sorted, disjoint and non-adjacent ranges of rows within a row group. Each range
+ * is represented by its first row (inclusive) and its last row (exclusive).
+ */
+public class RowRanges
+{
+    private static final RowRanges EMPTY = new RowRanges(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private RowRanges(long[] starts, long[] ends)
+    {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static RowRanges all(long rowCount)
+    {
+        checkArgument(rowCount >= 0, "rowCount is negative");
+        if (rowCount == 0) {
+            return EMPTY;
+        }
+        return new RowRanges(new long[] {0}, new long[] {rowCount});
+    }
+
+    public static RowRanges empty()
+    {
+        return EMPTY;
+    }
+
+    public int getRangeCount()
+    {
+        return starts.length;
+    }
+
+    public long getStart(int range)
+    {
+        return starts[range];
+    }
+
+    public long getEnd(int range)
+    {
+        return ends[range];
+    }
+
+    public boolean isEmpty()
+    {
+        return starts.length == 0;
+    }
+
+    public long getRowCount()
+    {
+        long rowCount = 0;
+        for (int i = 0; i < starts.length; i++) {
+            rowCount += ends[i] - starts[i];
+        }
+        return rowCount;
+    }
+
+    /**
+     * Returns true if any row in [start, end) is included in these ranges.
+     */
+    public boolean overlaps(long start, long end)
+    {
+        for (int i = 0; i < starts.length && starts[i] < end; i++) {
+            if (ends[i] > start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public RowRanges intersect(RowRanges other)
+    {
+        Builder builder = builder();
+        int left = 0;
+        int right = 0;
+        while (left < starts.length && right < other.starts.length) {
+            long start = max(starts[left], other.starts[right]);
+            long end = min(ends[left], other.ends[right]);
+            if (start < end) {
+                builder.add(start, end);
+            }
+            if (ends[left] < other.ends[right]) {
+                left++;
+            }
+            else {
+                right++;
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString()
+    {
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < starts.length; i++) {
+            ranges.add("[" + starts[i] + ", " + ends[i] + ")");
+        }
+        return toStringHelper(this)
+                .addValue(ranges)
+                .toString();
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static class Builder
+    {
+        private final List<Long> starts = new ArrayList<>();
+        private final List<Long> ends = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Adds the rows [start, end). Ranges must be added in increasing order; a range
+         * that is adjacent to the previous one is merged with it.
+         */
+        public Builder add(long start, long end)
+        {
+            checkArgument(start < end, "start %s must be less than end %s", start, end);
+            int last = starts.size() - 1;
+            if (last >= 0) {
+                checkArgument(start >= ends.get(last), "ranges must be added in increasing order");
+                if (start == ends.get(last)) {
+                    ends.set(last, end);
+                    return this;
+                }
+            }
+            starts.add(start);
+            ends.add(end);
+            return this;
+        }
+
+        public RowRanges build()
+        {
+            if (starts.isEmpty()) {
+                return EMPTY;
+            }
+            return new RowRanges(Longs.toArray(starts), Longs.toArray(ends));
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet.reader;
 
+import com.facebook.presto.common.predicate.TupleDomainFilter;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
@@ -33,24 +34,38 @@ public class ShortDecimalColumnReader
     protected void readValue(BlockBuilder blockBuilder, Type type)
     {
         if (definitionLevel == columnDescriptor.getMaxDefinitionLevel()) {
-            long decimalValue;
-            // When decimals are encoded with primitive types Parquet stores unscaled values
-            if (columnDescriptor.getPrimitiveType().getPrimitiveTypeName().equals(INT32)) {
-                decimalValue = valuesReader.readInteger();
-            }
-            else if (columnDescriptor.getPrimitiveType().getPrimitiveTypeName().equals(INT64)) {
-                decimalValue = valuesReader.readLong();
-            }
-            else {
-                decimalValue = getShortDecimalValue(valuesReader.readBytes().getBytes());
-            }
-            type.writeLong(blockBuilder, decimalValue);
+            type.writeLong(blockBuilder, readDecimalValue());
         }
         else if (isValueNull()) {
             blockBuilder.appendNull();
         }
     }
 
+    @Override
+    protected boolean readFilteredValue(BlockBuilder blockBuilder, Type type, TupleDomainFilter filter)
+    {
+        long decimalValue = readDecimalValue();
+        if (filter != null && !filter.testLong(decimalValue)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, decimalValue);
+        }
+        return true;
+    }
+
+    private long readDecimalValue()
+    {
+        // When decimals are encoded with primitive types Parquet stores unscaled values
+        if (columnDescriptor.getPrimitiveType().getPrimitiveTypeName().equals(INT32)) {
+            return valuesReader.readInteger();
+        }
+        if (columnDescriptor.getPrimitiveType().getPrimitiveTypeName().equals(INT64)) {
+            return valuesReader.readLong();
+        }
+        return getShortDecimalValue(valuesReader.readBytes().getBytes());
+    }
+
     @Override
     protected void skipValue()
     {
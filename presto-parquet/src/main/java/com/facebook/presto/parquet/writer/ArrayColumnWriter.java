@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ColumnarArray;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.spi.block.ColumnarArray.toColumnarArray;
+import static java.util.Objects.requireNonNull;
+
+class ArrayColumnWriter
+        implements ColumnWriter
+{
+    private final ColumnWriter elementWriter;
+    private final int definitionLevel;
+    private final int repetitionLevel;
+
+    /**
+     * @param definitionLevel the definition level of a non-null array
+     * @param repetitionLevel the repetition level of the repeated group holding the elements
+     */
+    public ArrayColumnWriter(ColumnWriter elementWriter, int definitionLevel, int repetitionLevel)
+    {
+        this.elementWriter = requireNonNull(elementWriter, "elementWriter is null");
+        this.definitionLevel = definitionLevel;
+        this.repetitionLevel = repetitionLevel;
+    }
+
+    @Override
+    public void writeBlock(Block block, NestedPositions positions)
+            throws IOException
+    {
+        ColumnarArray columnarArray = toColumnarArray(block);
+
+        int[] offsets = new int[columnarArray.getPositionCount() + 1];
+        for (int position = 0; position < columnarArray.getPositionCount(); position++) {
+            offsets[position + 1] = offsets[position] + columnarArray.getLength(position);
+        }
+
+        NestedPositions elementEntries = new NestedPositions(offsets[columnarArray.getPositionCount()] + positions.size());
+        for (int entry = 0; entry < positions.size(); entry++) {
+            int entryRepetitionLevel = positions.getRepetitionLevel(entry);
+            if (positions.isAbsent(entry)) {
+                elementEntries.addAbsent(entryRepetitionLevel, positions.getDefinitionLevel(entry));
+                continue;
+            }
+
+            int position = positions.getPosition(entry);
+            if (columnarArray.isNull(position)) {
+                elementEntries.addAbsent(entryRepetitionLevel, definitionLevel - 1);
+            }
+            else if (columnarArray.getLength(position) == 0) {
+                elementEntries.addAbsent(entryRepetitionLevel, definitionLevel);
+            }
+            else {
+                // the first element continues the enclosing record, the others repeat at this level
+                elementEntries.addPosition(offsets[position], entryRepetitionLevel);
+                for (int element = offsets[position] + 1; element < offsets[position + 1]; element++) {
+                    elementEntries.addPosition(element, repetitionLevel);
+                }
+            }
+        }
+
+        elementWriter.writeBlock(columnarArray.getElementsBlock(), elementEntries);
+    }
+
+    @Override
+    public List<BufferedColumnChunk> flushRowGroup()
+            throws IOException
+    {
+        return elementWriter.flushRowGroup();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return elementWriter.getBufferedBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return elementWriter.getRetainedBytes();
+    }
+
+    @Override
+    public void close()
+    {
+        elementWriter.close();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.CompressionCodec;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.Statistics;
+import org.apache.parquet.format.Type;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The encoded pages of one leaf column for one row group, buffered until the row group is written.
+ */
+final class BufferedColumnChunk
+{
+    private final List<String> path;
+    private final Type type;
+    private final CompressionCodec codec;
+    private final List<Encoding> encodings;
+    private final long valueCount;
+    private final long uncompressedSize;
+    private final int dictionaryPageSize;
+    private final Statistics statistics;
+    private final List<Slice> data;
+
+    public BufferedColumnChunk(
+            List<String> path,
+            Type type,
+            CompressionCodec codec,
+            List<Encoding> encodings,
+            long valueCount,
+            long uncompressedSize,
+            int dictionaryPageSize,
+            Statistics statistics,
+            List<Slice> data)
+    {
+        this.path = ImmutableList.copyOf(requireNonNull(path, "path is null"));
+        this.type = requireNonNull(type, "type is null");
+        this.codec = requireNonNull(codec, "codec is null");
+        this.encodings = ImmutableList.copyOf(requireNonNull(encodings, "encodings is null"));
+        this.valueCount = valueCount;
+        this.uncompressedSize = uncompressedSize;
+        this.dictionaryPageSize = dictionaryPageSize;
+        this.statistics = requireNonNull(statistics, "statistics is null");
+        this.data = ImmutableList.copyOf(requireNonNull(data, "data is null"));
+    }
+
+    public long getUncompressedSize()
+    {
+        return uncompressedSize;
+    }
+
+    public long getCompressedSize()
+    {
+        return data.stream()
+                .mapToLong(Slice::length)
+                .sum();
+    }
+
+    public void writeTo(SliceOutput output)
+    {
+        data.forEach(output::writeBytes);
+    }
+
+    /**
+     * Builds the footer entry for this chunk, given the file offset the chunk was written at.
+     */
+    public ColumnChunk toColumnChunk(long offset)
+    {
+        ColumnMetaData metaData = new ColumnMetaData(
+                type,
+                encodings,
+                path,
+                codec,
+                valueCount,
+                uncompressedSize,
+                getCompressedSize(),
+                offset + dictionaryPageSize);
+        if (dictionaryPageSize > 0) {
+            metaData.setDictionary_page_offset(offset);
+        }
+        metaData.setStatistics(statistics);
+
+        ColumnChunk columnChunk = new ColumnChunk(offset);
+        columnChunk.setMeta_data(metaData);
+        return columnChunk;
+    }
+}
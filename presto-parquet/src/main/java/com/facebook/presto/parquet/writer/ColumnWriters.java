@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.parquet.writer.valuewriter.BigintValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.BinaryValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.BooleanValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.DecimalValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.DoubleValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.IntegerValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.PrimitiveValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.RealValueWriter;
+import com.facebook.presto.parquet.writer.valuewriter.TimestampValueWriter;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.CharType;
+import com.facebook.presto.spi.type.DecimalType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.column.ParquetProperties.WriterVersion.PARQUET_1_0;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+
+final class ColumnWriters
+{
+    private ColumnWriters() {}
+
+    /**
+     * Creates a writer for each top level column of the schema. The definition and repetition
+     * levels of the nested writers are derived while walking the schema, so that they match
+     * the levels of the leaf column descriptors.
+     */
+    public static List<ColumnWriter> createColumnWriters(
+            MessageType messageType,
+            List<Type> types,
+            CompressionCodecName compressionCodecName,
+            ParquetWriterOptions writerOptions)
+    {
+        requireNonNull(messageType, "messageType is null");
+        requireNonNull(types, "types is null");
+        checkArgument(messageType.getFieldCount() == types.size(), "schema and types have different sizes");
+
+        ParquetProperties properties = ParquetProperties.builder()
+                .withWriterVersion(PARQUET_1_0)
+                .withPageSize(toIntExact(writerOptions.getMaxPageSize().toBytes()))
+                .withDictionaryPageSize(toIntExact(writerOptions.getMaxDictionaryPageSize().toBytes()))
+                .withDictionaryEncoding(writerOptions.isDictionaryEncodingEnabled())
+                .build();
+        ColumnWriterFactory factory = new ColumnWriterFactory(messageType, properties, compressionCodecName, toIntExact(writerOptions.getMaxPageSize().toBytes()));
+
+        ImmutableList.Builder<ColumnWriter> columnWriters = ImmutableList.builder();
+        for (int i = 0; i < types.size(); i++) {
+            columnWriters.add(factory.create(types.get(i), messageType.getType(i), ImmutableList.of(), 0, 0));
+        }
+        return columnWriters.build();
+    }
+
+    private static class ColumnWriterFactory
+    {
+        private final MessageType messageType;
+        private final ParquetProperties properties;
+        private final CompressionCodecName compressionCodecName;
+        private final int maxPageSize;
+
+        public ColumnWriterFactory(MessageType messageType, ParquetProperties properties, CompressionCodecName compressionCodecName, int maxPageSize)
+        {
+            this.messageType = requireNonNull(messageType, "messageType is null");
+            this.properties = requireNonNull(properties, "properties is null");
+            this.compressionCodecName = requireNonNull(compressionCodecName, "compressionCodecName is null");
+            this.maxPageSize = maxPageSize;
+        }
+
+        public ColumnWriter create(Type type, org.apache.parquet.schema.Type parquetType, List<String> parentPath, int definitionLevel, int repetitionLevel)
+        {
+            List<String> path = append(parentPath, parquetType.getName());
+            if (parquetType.getRepetition() == OPTIONAL) {
+                definitionLevel++;
+            }
+
+            if (type instanceof ArrayType) {
+                GroupType repeatedType = parquetType.asGroupType().getType(0).asGroupType();
+                checkArgument(repeatedType.getRepetition() == REPEATED, "Expected repeated group for array: %s", parquetType);
+                List<String> repeatedPath = append(path, repeatedType.getName());
+                ColumnWriter elementWriter = create(((ArrayType) type).getElementType(), repeatedType.getType(0), repeatedPath, definitionLevel + 1, repetitionLevel + 1);
+                return new ArrayColumnWriter(elementWriter, definitionLevel, repetitionLevel + 1);
+            }
+            if (type instanceof MapType) {
+                MapType mapType = (MapType) type;
+                GroupType repeatedType = parquetType.asGroupType().getType(0).asGroupType();
+                checkArgument(repeatedType.getRepetition() == REPEATED, "Expected repeated group for map: %s", parquetType);
+                List<String> repeatedPath = append(path, repeatedType.getName());
+                ColumnWriter keyWriter = create(mapType.getKeyType(), repeatedType.getType(0), repeatedPath, definitionLevel + 1, repetitionLevel + 1);
+                ColumnWriter valueWriter = create(mapType.getValueType(), repeatedType.getType(1), repeatedPath, definitionLevel + 1, repetitionLevel + 1);
+                return new MapColumnWriter(keyWriter, valueWriter, definitionLevel, repetitionLevel + 1);
+            }
+            if (type instanceof RowType) {
+                List<Type> fieldTypes = type.getTypeParameters();
+                GroupType groupType = parquetType.asGroupType();
+                ImmutableList.Builder<ColumnWriter> fieldWriters = ImmutableList.builder();
+                for (int field = 0; field < fieldTypes.size(); field++) {
+                    fieldWriters.add(create(fieldTypes.get(field), groupType.getType(field), path, definitionLevel, repetitionLevel));
+                }
+                return new StructColumnWriter(fieldWriters.build(), definitionLevel);
+            }
+
+            ColumnDescriptor descriptor = messageType.getColumnDescription(path.toArray(new String[0]));
+            checkArgument(descriptor.getMaxDefinitionLevel() == definitionLevel, "Unexpected definition level for %s", path);
+            checkArgument(descriptor.getMaxRepetitionLevel() == repetitionLevel, "Unexpected repetition level for %s", path);
+            return new PrimitiveColumnWriter(
+                    descriptor,
+                    createValueWriter(type, descriptor.getPrimitiveType(), properties.newValuesWriter(descriptor)),
+                    properties.newRepetitionLevelWriter(descriptor),
+                    properties.newDefinitionLevelWriter(descriptor),
+                    compressionCodecName,
+                    maxPageSize);
+        }
+
+        private static List<String> append(List<String> path, String name)
+        {
+            return ImmutableList.<String>builder()
+                    .addAll(path)
+                    .add(name)
+                    .build();
+        }
+    }
+
+    private static PrimitiveValueWriter createValueWriter(Type type, PrimitiveType parquetType, ValuesWriter valuesWriter)
+    {
+        if (BOOLEAN.equals(type)) {
+            return new BooleanValueWriter(type, parquetType, valuesWriter);
+        }
+        if (TINYINT.equals(type) || SMALLINT.equals(type) || INTEGER.equals(type) || DATE.equals(type)) {
+            return new IntegerValueWriter(type, parquetType, valuesWriter);
+        }
+        if (BIGINT.equals(type)) {
+            return new BigintValueWriter(type, parquetType, valuesWriter);
+        }
+        if (REAL.equals(type)) {
+            return new RealValueWriter(type, parquetType, valuesWriter);
+        }
+        if (DOUBLE.equals(type)) {
+            return new DoubleValueWriter(type, parquetType, valuesWriter);
+        }
+        if (TIMESTAMP.equals(type)) {
+            return new TimestampValueWriter(type, parquetType, valuesWriter);
+        }
+        if (type instanceof DecimalType) {
+            return new DecimalValueWriter((DecimalType) type, parquetType, valuesWriter);
+        }
+        if (type instanceof VarcharType || type instanceof CharType || VARBINARY.equals(type)) {
+            return new BinaryValueWriter(type, parquetType, valuesWriter);
+        }
+        throw new PrestoException(NOT_SUPPORTED, "Unsupported type for Parquet writer: " + type);
+    }
+}
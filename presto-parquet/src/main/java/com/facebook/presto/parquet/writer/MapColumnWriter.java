@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ColumnarMap;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.spi.block.ColumnarMap.toColumnarMap;
+import static java.util.Objects.requireNonNull;
+
+class MapColumnWriter
+        implements ColumnWriter
+{
+    private final ColumnWriter keyWriter;
+    private final ColumnWriter valueWriter;
+    private final int definitionLevel;
+    private final int repetitionLevel;
+
+    /**
+     * @param definitionLevel the definition level of a non-null map
+     * @param repetitionLevel the repetition level of the repeated group holding the entries
+     */
+    public MapColumnWriter(ColumnWriter keyWriter, ColumnWriter valueWriter, int definitionLevel, int repetitionLevel)
+    {
+        this.keyWriter = requireNonNull(keyWriter, "keyWriter is null");
+        this.valueWriter = requireNonNull(valueWriter, "valueWriter is null");
+        this.definitionLevel = definitionLevel;
+        this.repetitionLevel = repetitionLevel;
+    }
+
+    @Override
+    public void writeBlock(Block block, NestedPositions positions)
+            throws IOException
+    {
+        ColumnarMap columnarMap = toColumnarMap(block);
+
+        int[] offsets = new int[columnarMap.getPositionCount() + 1];
+        for (int position = 0; position < columnarMap.getPositionCount(); position++) {
+            offsets[position + 1] = offsets[position] + columnarMap.getEntryCount(position);
+        }
+
+        NestedPositions entryPositions = new NestedPositions(offsets[columnarMap.getPositionCount()] + positions.size());
+        for (int entry = 0; entry < positions.size(); entry++) {
+            int entryRepetitionLevel = positions.getRepetitionLevel(entry);
+            if (positions.isAbsent(entry)) {
+                entryPositions.addAbsent(entryRepetitionLevel, positions.getDefinitionLevel(entry));
+                continue;
+            }
+
+            int position = positions.getPosition(entry);
+            if (columnarMap.isNull(position)) {
+                entryPositions.addAbsent(entryRepetitionLevel, definitionLevel - 1);
+            }
+            else if (columnarMap.getEntryCount(position) == 0) {
+                entryPositions.addAbsent(entryRepetitionLevel, definitionLevel);
+            }
+            else {
+                entryPositions.addPosition(offsets[position], entryRepetitionLevel);
+                for (int mapEntry = offsets[position] + 1; mapEntry < offsets[position + 1]; mapEntry++) {
+                    entryPositions.addPosition(mapEntry, repetitionLevel);
+                }
+            }
+        }
+
+        keyWriter.writeBlock(columnarMap.getKeysBlock(), entryPositions);
+        valueWriter.writeBlock(columnarMap.getValuesBlock(), entryPositions);
+    }
+
+    @Override
+    public List<BufferedColumnChunk> flushRowGroup()
+            throws IOException
+    {
+        return ImmutableList.<BufferedColumnChunk>builder()
+                .addAll(keyWriter.flushRowGroup())
+                .addAll(valueWriter.flushRowGroup())
+                .build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return keyWriter.getBufferedBytes() + valueWriter.getBufferedBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return keyWriter.getRetainedBytes() + valueWriter.getRetainedBytes();
+    }
+
+    @Override
+    public void close()
+    {
+        keyWriter.close();
+        valueWriter.close();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import org.apache.parquet.format.ConvertedType;
+import org.apache.parquet.format.FieldRepetitionType;
+import org.apache.parquet.format.SchemaElement;
+import org.apache.parquet.format.Type;
+import org.apache.parquet.schema.DecimalMetadata;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY;
+
+/**
+ * Flattens a {@link MessageType} into the depth first list of schema elements stored in the file footer.
+ */
+final class MessageTypeConverter
+{
+    private MessageTypeConverter() {}
+
+    public static List<SchemaElement> toParquetSchema(MessageType schema)
+    {
+        List<SchemaElement> elements = new ArrayList<>();
+        SchemaElement root = new SchemaElement(schema.getName());
+        root.setNum_children(schema.getFieldCount());
+        elements.add(root);
+        addFields(elements, schema.getFields());
+        return elements;
+    }
+
+    private static void addFields(List<SchemaElement> elements, List<org.apache.parquet.schema.Type> fields)
+    {
+        for (org.apache.parquet.schema.Type field : fields) {
+            SchemaElement element = new SchemaElement(field.getName());
+            element.setRepetition_type(FieldRepetitionType.valueOf(field.getRepetition().name()));
+            if (field.getOriginalType() != null) {
+                element.setConverted_type(ConvertedType.valueOf(field.getOriginalType().name()));
+            }
+
+            if (field.isPrimitive()) {
+                PrimitiveType primitiveType = field.asPrimitiveType();
+                element.setType(toParquetType(primitiveType.getPrimitiveTypeName()));
+                if (primitiveType.getPrimitiveTypeName() == FIXED_LEN_BYTE_ARRAY) {
+                    element.setType_length(primitiveType.getTypeLength());
+                }
+                DecimalMetadata decimalMetadata = primitiveType.getDecimalMetadata();
+                if (decimalMetadata != null) {
+                    element.setPrecision(decimalMetadata.getPrecision());
+                    element.setScale(decimalMetadata.getScale());
+                }
+                elements.add(element);
+            }
+            else {
+                GroupType groupType = field.asGroupType();
+                element.setNum_children(groupType.getFieldCount());
+                elements.add(element);
+                addFields(elements, groupType.getFields());
+            }
+        }
+    }
+
+    public static Type toParquetType(PrimitiveTypeName primitiveTypeName)
+    {
+        switch (primitiveTypeName) {
+            case BOOLEAN:
+                return Type.BOOLEAN;
+            case INT32:
+                return Type.INT32;
+            case INT64:
+                return Type.INT64;
+            case INT96:
+                return Type.INT96;
+            case FLOAT:
+                return Type.FLOAT;
+            case DOUBLE:
+                return Type.DOUBLE;
+            case BINARY:
+                return Type.BYTE_ARRAY;
+            case FIXED_LEN_BYTE_ARRAY:
+                return Type.FIXED_LEN_BYTE_ARRAY;
+        }
+        throw new IllegalArgumentException("Unsupported primitive type: " + primitiveTypeName);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * The entries a column writer produces for one block. An entry either refers to
+ * a position in the block, or is a placeholder for a value that does not exist
+ * because an enclosing struct, array or map is null or empty. Placeholders carry
+ * the definition level of the ancestor that ended the nesting.
+ */
+final class NestedPositions
+{
+    private static final int ABSENT = -1;
+
+    private final IntArrayList positions;
+    private final IntArrayList repetitionLevels;
+    private final IntArrayList definitionLevels;
+
+    public NestedPositions(int expectedSize)
+    {
+        this.positions = new IntArrayList(expectedSize);
+        this.repetitionLevels = new IntArrayList(expectedSize);
+        this.definitionLevels = new IntArrayList(expectedSize);
+    }
+
+    public static NestedPositions allPositions(int positionCount)
+    {
+        NestedPositions nestedPositions = new NestedPositions(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            nestedPositions.addPosition(position, 0);
+        }
+        return nestedPositions;
+    }
+
+    public void addPosition(int position, int repetitionLevel)
+    {
+        positions.add(position);
+        repetitionLevels.add(repetitionLevel);
+        definitionLevels.add(0);
+    }
+
+    public void addAbsent(int repetitionLevel, int definitionLevel)
+    {
+        positions.add(ABSENT);
+        repetitionLevels.add(repetitionLevel);
+        definitionLevels.add(definitionLevel);
+    }
+
+    public int size()
+    {
+        return positions.size();
+    }
+
+    public boolean isAbsent(int entry)
+    {
+        return positions.getInt(entry) == ABSENT;
+    }
+
+    public int getPosition(int entry)
+    {
+        return positions.getInt(entry);
+    }
+
+    public int getRepetitionLevel(int entry)
+    {
+        return repetitionLevels.getInt(entry);
+    }
+
+    public int getDefinitionLevel(int entry)
+    {
+        return definitionLevels.getInt(entry);
+    }
+}
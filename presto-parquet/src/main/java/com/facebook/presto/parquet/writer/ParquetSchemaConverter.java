@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.CharType;
+import com.facebook.presto.spi.type.DecimalType;
+import com.facebook.presto.spi.type.MapType;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.apache.parquet.schema.Types;
+import org.apache.parquet.schema.Types.GroupBuilder;
+
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.ceil;
+import static java.lang.Math.log;
+import static java.lang.Math.pow;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.schema.OriginalType.DECIMAL;
+import static org.apache.parquet.schema.OriginalType.INT_16;
+import static org.apache.parquet.schema.OriginalType.INT_8;
+import static org.apache.parquet.schema.OriginalType.LIST;
+import static org.apache.parquet.schema.OriginalType.MAP;
+import static org.apache.parquet.schema.OriginalType.UTF8;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.FLOAT;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT96;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+
+/**
+ * Converts Presto types to the Parquet schema written by {@link ParquetWriter}.
+ * The physical types follow what Hive writes, so that the files remain readable
+ * by Hive: timestamps are INT96 and decimals are fixed length byte arrays.
+ */
+public final class ParquetSchemaConverter
+{
+    private static final String SCHEMA_NAME = "presto_schema";
+
+    private ParquetSchemaConverter() {}
+
+    public static MessageType convert(List<String> columnNames, List<Type> types)
+    {
+        requireNonNull(columnNames, "columnNames is null");
+        requireNonNull(types, "types is null");
+        checkArgument(columnNames.size() == types.size(), "columnNames and types have different sizes");
+
+        ImmutableList.Builder<org.apache.parquet.schema.Type> fields = ImmutableList.builder();
+        for (int i = 0; i < columnNames.size(); i++) {
+            fields.add(convert(columnNames.get(i), types.get(i), OPTIONAL));
+        }
+        return new MessageType(SCHEMA_NAME, fields.build());
+    }
+
+    private static org.apache.parquet.schema.Type convert(String name, Type type, Repetition repetition)
+    {
+        if (type instanceof ArrayType) {
+            return Types.buildGroup(repetition)
+                    .as(LIST)
+                    .addField(Types.repeatedGroup()
+                            .addField(convert("element", ((ArrayType) type).getElementType(), OPTIONAL))
+                            .named("list"))
+                    .named(name);
+        }
+        if (type instanceof MapType) {
+            MapType mapType = (MapType) type;
+            return Types.buildGroup(repetition)
+                    .as(MAP)
+                    .addField(Types.buildGroup(REPEATED)
+                            .addField(convert("key", mapType.getKeyType(), REQUIRED))
+                            .addField(convert("value", mapType.getValueType(), OPTIONAL))
+                            .named("key_value"))
+                    .named(name);
+        }
+        if (type instanceof RowType) {
+            List<RowType.Field> rowFields = ((RowType) type).getFields();
+            GroupBuilder<GroupType> builder = Types.buildGroup(repetition);
+            for (int i = 0; i < rowFields.size(); i++) {
+                RowType.Field field = rowFields.get(i);
+                builder.addField(convert(field.getName().orElse("field" + i), field.getType(), OPTIONAL));
+            }
+            return builder.named(name);
+        }
+        return convertPrimitive(name, type, repetition);
+    }
+
+    private static org.apache.parquet.schema.Type convertPrimitive(String name, Type type, Repetition repetition)
+    {
+        if (BOOLEAN.equals(type)) {
+            return Types.primitive(PrimitiveTypeName.BOOLEAN, repetition).named(name);
+        }
+        if (TINYINT.equals(type)) {
+            return Types.primitive(INT32, repetition).as(INT_8).named(name);
+        }
+        if (SMALLINT.equals(type)) {
+            return Types.primitive(INT32, repetition).as(INT_16).named(name);
+        }
+        if (INTEGER.equals(type)) {
+            return Types.primitive(INT32, repetition).named(name);
+        }
+        if (BIGINT.equals(type)) {
+            return Types.primitive(INT64, repetition).named(name);
+        }
+        if (DATE.equals(type)) {
+            return Types.primitive(INT32, repetition).as(OriginalType.DATE).named(name);
+        }
+        if (REAL.equals(type)) {
+            return Types.primitive(FLOAT, repetition).named(name);
+        }
+        if (DOUBLE.equals(type)) {
+            return Types.primitive(PrimitiveTypeName.DOUBLE, repetition).named(name);
+        }
+        if (TIMESTAMP.equals(type)) {
+            return Types.primitive(INT96, repetition).named(name);
+        }
+        if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            return Types.primitive(FIXED_LEN_BYTE_ARRAY, repetition)
+                    .length(getDecimalByteLength(decimalType.getPrecision()))
+                    .as(DECIMAL)
+                    .precision(decimalType.getPrecision())
+                    .scale(decimalType.getScale())
+                    .named(name);
+        }
+        if (type instanceof VarcharType || type instanceof CharType) {
+            return Types.primitive(BINARY, repetition).as(UTF8).named(name);
+        }
+        if (VARBINARY.equals(type)) {
+            return Types.primitive(BINARY, repetition).named(name);
+        }
+        throw new PrestoException(NOT_SUPPORTED, "Unsupported type for Parquet writer: " + type);
+    }
+
+    /**
+     * Returns the number of bytes needed to store an unscaled value of the given precision
+     * as a two's complement number. This matches the length Hive uses.
+     */
+    public static int getDecimalByteLength(int precision)
+    {
+        return (int) ceil((log(pow(10, precision)) / log(2) + 1) / 8);
+    }
+}
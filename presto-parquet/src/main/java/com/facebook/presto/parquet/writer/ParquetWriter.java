@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.KeyValue;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.facebook.presto.parquet.writer.MessageTypeConverter.toParquetSchema;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.format.Util.writeFileMetaData;
+
+/**
+ * Writes pages to a Parquet file. Each column is encoded directly from its blocks into
+ * data pages, which are buffered in memory until the row group reaches the configured size.
+ */
+public class ParquetWriter
+        implements Closeable
+{
+    private static final int FORMAT_VERSION = 1;
+    private static final Slice MAGIC = wrappedBuffer("PAR1".getBytes(US_ASCII));
+    private static final String CREATED_BY = "presto";
+
+    private final OutputStreamSliceOutput output;
+    private final MessageType messageType;
+    private final List<ColumnWriter> columnWriters;
+    private final long maxRowGroupSize;
+    private final Map<String, String> metadata;
+
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long rowGroupRowCount;
+    private long rowCount;
+    private boolean closed;
+
+    public ParquetWriter(
+            OutputStream outputStream,
+            List<String> columnNames,
+            List<Type> types,
+            ParquetWriterOptions writerOptions,
+            CompressionCodecName compressionCodecName,
+            Map<String, String> metadata)
+    {
+        this.output = new OutputStreamSliceOutput(requireNonNull(outputStream, "outputStream is null"));
+        requireNonNull(columnNames, "columnNames is null");
+        requireNonNull(types, "types is null");
+        requireNonNull(writerOptions, "writerOptions is null");
+        requireNonNull(compressionCodecName, "compressionCodecName is null");
+        this.metadata = ImmutableMap.copyOf(requireNonNull(metadata, "metadata is null"));
+
+        this.messageType = ParquetSchemaConverter.convert(columnNames, types);
+        this.columnWriters = ColumnWriters.createColumnWriters(messageType, types, compressionCodecName, writerOptions);
+        this.maxRowGroupSize = writerOptions.getMaxRowGroupSize().toBytes();
+
+        output.writeBytes(MAGIC);
+    }
+
+    public MessageType getMessageType()
+    {
+        return messageType;
+    }
+
+    /**
+     * Number of bytes already flushed to the output stream.
+     */
+    public long getWrittenBytes()
+    {
+        return output.longSize();
+    }
+
+    /**
+     * Number of encoded bytes of the current row group that are not yet flushed.
+     */
+    public long getBufferedBytes()
+    {
+        return columnWriters.stream()
+                .mapToLong(ColumnWriter::getBufferedBytes)
+                .sum();
+    }
+
+    public long getRetainedBytes()
+    {
+        return output.getRetainedSize() +
+                columnWriters.stream()
+                        .mapToLong(ColumnWriter::getRetainedBytes)
+                        .sum();
+    }
+
+    public void write(Page page)
+            throws IOException
+    {
+        requireNonNull(page, "page is null");
+        checkState(!closed, "writer is closed");
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
+        checkArgument(page.getChannelCount() == columnWriters.size(), "Page has %s channels, but writer has %s columns", page.getChannelCount(), columnWriters.size());
+
+        NestedPositions positions = NestedPositions.allPositions(page.getPositionCount());
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            columnWriters.get(channel).writeBlock(page.getBlock(channel), positions);
+        }
+        rowGroupRowCount += page.getPositionCount();
+
+        if (getBufferedBytes() >= maxRowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup()
+            throws IOException
+    {
+        if (rowGroupRowCount == 0) {
+            return;
+        }
+
+        List<ColumnChunk> columnChunks = new ArrayList<>();
+        long totalByteSize = 0;
+        for (ColumnWriter columnWriter : columnWriters) {
+            for (BufferedColumnChunk chunk : columnWriter.flushRowGroup()) {
+                columnChunks.add(chunk.toColumnChunk(output.longSize()));
+                chunk.writeTo(output);
+                totalByteSize += chunk.getUncompressedSize();
+            }
+        }
+
+        rowGroups.add(new RowGroup(columnChunks, totalByteSize, rowGroupRowCount));
+        rowCount += rowGroupRowCount;
+        rowGroupRowCount = 0;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flushRowGroup();
+            writeFooter();
+        }
+        finally {
+            columnWriters.forEach(ColumnWriter::close);
+            output.close();
+        }
+    }
+
+    private void writeFooter()
+            throws IOException
+    {
+        FileMetaData fileMetaData = new FileMetaData(FORMAT_VERSION, toParquetSchema(messageType), rowCount, ImmutableList.copyOf(rowGroups));
+        fileMetaData.setCreated_by(CREATED_BY);
+        if (!metadata.isEmpty()) {
+            ImmutableList.Builder<KeyValue> keyValues = ImmutableList.builder();
+            for (Entry<String, String> entry : metadata.entrySet()) {
+                KeyValue keyValue = new KeyValue(entry.getKey());
+                keyValue.setValue(entry.getValue());
+                keyValues.add(keyValue);
+            }
+            fileMetaData.setKey_value_metadata(keyValues.build());
+        }
+
+        long footerStart = output.longSize();
+        writeFileMetaData(fileMetaData, output);
+        output.writeInt(toIntExact(output.longSize() - footerStart));
+        output.writeBytes(MAGIC);
+    }
+}
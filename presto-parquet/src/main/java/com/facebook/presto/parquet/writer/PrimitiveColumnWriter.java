@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.parquet.writer.valuewriter.PrimitiveValueWriter;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.format.DataPageHeader;
+import org.apache.parquet.format.DictionaryPageHeader;
+import org.apache.parquet.format.Encoding;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.parquet.ParquetCompressionUtils.compress;
+import static com.facebook.presto.parquet.writer.MessageTypeConverter.toParquetType;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.format.PageType.DATA_PAGE;
+import static org.apache.parquet.format.PageType.DICTIONARY_PAGE;
+import static org.apache.parquet.format.Util.writePageHeader;
+import static org.apache.parquet.format.converter.ParquetMetadataConverter.toParquetStatistics;
+
+/**
+ * Writes a leaf column as version 1 data pages. Values go through the encoder chosen by
+ * {@link org.apache.parquet.column.ParquetProperties}, which starts with dictionary encoding
+ * and falls back to plain encoding once the dictionary grows past the dictionary page size.
+ */
+class PrimitiveColumnWriter
+        implements ColumnWriter
+{
+    private final ColumnDescriptor columnDescriptor;
+    private final PrimitiveValueWriter valueWriter;
+    private final ValuesWriter repetitionLevelWriter;
+    private final ValuesWriter definitionLevelWriter;
+    private final CompressionCodecName compressionCodecName;
+    private final int maxPageSize;
+    private final int maxDefinitionLevel;
+
+    private final Set<Encoding> encodings = new LinkedHashSet<>();
+    private final List<Slice> pages = new ArrayList<>();
+    private int pageValueCount;
+    private long chunkValueCount;
+    private long bufferedPageBytes;
+    private long uncompressedSize;
+
+    public PrimitiveColumnWriter(
+            ColumnDescriptor columnDescriptor,
+            PrimitiveValueWriter valueWriter,
+            ValuesWriter repetitionLevelWriter,
+            ValuesWriter definitionLevelWriter,
+            CompressionCodecName compressionCodecName,
+            int maxPageSize)
+    {
+        this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
+        this.valueWriter = requireNonNull(valueWriter, "valueWriter is null");
+        this.repetitionLevelWriter = requireNonNull(repetitionLevelWriter, "repetitionLevelWriter is null");
+        this.definitionLevelWriter = requireNonNull(definitionLevelWriter, "definitionLevelWriter is null");
+        this.compressionCodecName = requireNonNull(compressionCodecName, "compressionCodecName is null");
+        this.maxPageSize = maxPageSize;
+        this.maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
+    }
+
+    @Override
+    public void writeBlock(Block block, NestedPositions positions)
+            throws IOException
+    {
+        ValuesWriter valuesWriter = valueWriter.getValuesWriter();
+        for (int entry = 0; entry < positions.size(); entry++) {
+            int definitionLevel;
+            if (positions.isAbsent(entry)) {
+                definitionLevel = positions.getDefinitionLevel(entry);
+            }
+            else if (block.isNull(positions.getPosition(entry))) {
+                definitionLevel = maxDefinitionLevel - 1;
+            }
+            else {
+                definitionLevel = maxDefinitionLevel;
+                valueWriter.write(block, positions.getPosition(entry));
+            }
+            if (definitionLevel < maxDefinitionLevel) {
+                valueWriter.getStatistics().incrementNumNulls();
+            }
+
+            repetitionLevelWriter.writeInteger(positions.getRepetitionLevel(entry));
+            definitionLevelWriter.writeInteger(definitionLevel);
+            pageValueCount++;
+
+            // a record must not span pages, so only start a new page at a record boundary
+            if (getCurrentPageBytes() >= maxPageSize && isRecordEnd(positions, entry)) {
+                flushPage();
+            }
+        }
+    }
+
+    private static boolean isRecordEnd(NestedPositions positions, int entry)
+    {
+        return entry + 1 >= positions.size() || positions.getRepetitionLevel(entry + 1) == 0;
+    }
+
+    @Override
+    public List<BufferedColumnChunk> flushRowGroup()
+            throws IOException
+    {
+        flushPage();
+
+        List<Slice> data = new ArrayList<>();
+        int dictionaryPageSize = 0;
+        ValuesWriter valuesWriter = valueWriter.getValuesWriter();
+        DictionaryPage dictionaryPage = valuesWriter.toDictPageAndClose();
+        if (dictionaryPage != null) {
+            byte[] uncompressed = dictionaryPage.getBytes().toByteArray();
+            Slice compressed = compress(compressionCodecName, uncompressed);
+
+            PageHeader header = new PageHeader(DICTIONARY_PAGE, uncompressed.length, compressed.length());
+            header.setDictionary_page_header(new DictionaryPageHeader(dictionaryPage.getDictionarySize(), toParquetEncoding(dictionaryPage.getEncoding())));
+            Slice headerSlice = serializeHeader(header);
+
+            data.add(headerSlice);
+            data.add(compressed);
+            dictionaryPageSize = headerSlice.length() + compressed.length();
+            uncompressedSize += headerSlice.length() + uncompressed.length;
+            encodings.add(toParquetEncoding(dictionaryPage.getEncoding()));
+            valuesWriter.resetDictionary();
+        }
+        data.addAll(pages);
+
+        BufferedColumnChunk chunk = new BufferedColumnChunk(
+                Arrays.asList(columnDescriptor.getPath()),
+                toParquetType(columnDescriptor.getPrimitiveType().getPrimitiveTypeName()),
+                compressionCodecName.getParquetCompressionCodec(),
+                ImmutableList.copyOf(encodings),
+                chunkValueCount,
+                uncompressedSize,
+                dictionaryPageSize,
+                toParquetStatistics(valueWriter.getStatistics()),
+                data);
+
+        pages.clear();
+        encodings.clear();
+        chunkValueCount = 0;
+        bufferedPageBytes = 0;
+        uncompressedSize = 0;
+        valueWriter.resetStatistics();
+        return ImmutableList.of(chunk);
+    }
+
+    private void flushPage()
+            throws IOException
+    {
+        if (pageValueCount == 0) {
+            return;
+        }
+
+        ValuesWriter valuesWriter = valueWriter.getValuesWriter();
+        byte[] uncompressed = BytesInput.concat(
+                repetitionLevelWriter.getBytes(),
+                definitionLevelWriter.getBytes(),
+                valuesWriter.getBytes())
+                .toByteArray();
+        Slice compressed = compress(compressionCodecName, uncompressed);
+
+        Encoding valuesEncoding = toParquetEncoding(valuesWriter.getEncoding());
+        Encoding definitionLevelEncoding = toParquetEncoding(definitionLevelWriter.getEncoding());
+        Encoding repetitionLevelEncoding = toParquetEncoding(repetitionLevelWriter.getEncoding());
+        PageHeader header = new PageHeader(DATA_PAGE, uncompressed.length, compressed.length());
+        header.setData_page_header(new DataPageHeader(pageValueCount, valuesEncoding, definitionLevelEncoding, repetitionLevelEncoding));
+        Slice headerSlice = serializeHeader(header);
+
+        pages.add(headerSlice);
+        pages.add(compressed);
+        encodings.add(valuesEncoding);
+        encodings.add(definitionLevelEncoding);
+        encodings.add(repetitionLevelEncoding);
+        bufferedPageBytes += headerSlice.length() + compressed.length();
+        uncompressedSize += headerSlice.length() + uncompressed.length;
+        chunkValueCount += pageValueCount;
+        pageValueCount = 0;
+
+        repetitionLevelWriter.reset();
+        definitionLevelWriter.reset();
+        valuesWriter.reset();
+    }
+
+    private long getCurrentPageBytes()
+    {
+        return repetitionLevelWriter.getBufferedSize() +
+                definitionLevelWriter.getBufferedSize() +
+                valueWriter.getValuesWriter().getBufferedSize();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return bufferedPageBytes + getCurrentPageBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return bufferedPageBytes +
+                repetitionLevelWriter.getAllocatedSize() +
+                definitionLevelWriter.getAllocatedSize() +
+                valueWriter.getValuesWriter().getAllocatedSize();
+    }
+
+    @Override
+    public void close()
+    {
+        repetitionLevelWriter.close();
+        definitionLevelWriter.close();
+        valueWriter.getValuesWriter().close();
+    }
+
+    private static Slice serializeHeader(PageHeader header)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writePageHeader(header, output);
+        return wrappedBuffer(output.toByteArray());
+    }
+
+    private static Encoding toParquetEncoding(org.apache.parquet.column.Encoding encoding)
+    {
+        return Encoding.valueOf(encoding.name());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ColumnarRow;
+import com.google.common.collect.ImmutableList;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.spi.block.ColumnarRow.toColumnarRow;
+import static java.util.Objects.requireNonNull;
+
+class StructColumnWriter
+        implements ColumnWriter
+{
+    private final List<ColumnWriter> fieldWriters;
+    private final int definitionLevel;
+
+    /**
+     * @param definitionLevel the definition level of a non-null struct
+     */
+    public StructColumnWriter(List<ColumnWriter> fieldWriters, int definitionLevel)
+    {
+        this.fieldWriters = ImmutableList.copyOf(requireNonNull(fieldWriters, "fieldWriters is null"));
+        this.definitionLevel = definitionLevel;
+    }
+
+    @Override
+    public void writeBlock(Block block, NestedPositions positions)
+            throws IOException
+    {
+        ColumnarRow columnarRow = toColumnarRow(block);
+
+        // the field blocks only contain entries for the non-null rows
+        int[] fieldPositions = new int[columnarRow.getPositionCount()];
+        int nonNullCount = 0;
+        for (int position = 0; position < columnarRow.getPositionCount(); position++) {
+            fieldPositions[position] = nonNullCount;
+            if (!columnarRow.isNull(position)) {
+                nonNullCount++;
+            }
+        }
+
+        NestedPositions fieldEntries = new NestedPositions(positions.size());
+        for (int entry = 0; entry < positions.size(); entry++) {
+            int repetitionLevel = positions.getRepetitionLevel(entry);
+            if (positions.isAbsent(entry)) {
+                fieldEntries.addAbsent(repetitionLevel, positions.getDefinitionLevel(entry));
+            }
+            else if (columnarRow.isNull(positions.getPosition(entry))) {
+                fieldEntries.addAbsent(repetitionLevel, definitionLevel - 1);
+            }
+            else {
+                fieldEntries.addPosition(fieldPositions[positions.getPosition(entry)], repetitionLevel);
+            }
+        }
+
+        for (int field = 0; field < fieldWriters.size(); field++) {
+            fieldWriters.get(field).writeBlock(columnarRow.getField(field), fieldEntries);
+        }
+    }
+
+    @Override
+    public List<BufferedColumnChunk> flushRowGroup()
+            throws IOException
+    {
+        ImmutableList.Builder<BufferedColumnChunk> chunks = ImmutableList.builder();
+        for (ColumnWriter fieldWriter : fieldWriters) {
+            chunks.addAll(fieldWriter.flushRowGroup());
+        }
+        return chunks.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return fieldWriters.stream()
+                .mapToLong(ColumnWriter::getBufferedBytes)
+                .sum();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return fieldWriters.stream()
+                .mapToLong(ColumnWriter::getRetainedBytes)
+                .sum();
+    }
+
+    @Override
+    public void close()
+    {
+        fieldWriters.forEach(ColumnWriter::close);
+    }
+}
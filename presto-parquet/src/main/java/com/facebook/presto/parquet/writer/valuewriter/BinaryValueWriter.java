@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer.valuewriter;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes VARCHAR, CHAR and VARBINARY values as BINARY.
+ */
+public class BinaryValueWriter
+        extends PrimitiveValueWriter
+{
+    private final Type type;
+
+    public BinaryValueWriter(Type type, PrimitiveType parquetType, ValuesWriter valuesWriter)
+    {
+        super(parquetType, valuesWriter);
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    @Override
+    public void write(Block block, int position)
+    {
+        // the dictionary encoder keeps a reference to the value, so it must not share memory with the block
+        Binary value = Binary.fromConstantByteArray(type.getSlice(block, position).getBytes());
+        getValuesWriter().writeBytes(value);
+        getStatistics().updateStats(value);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer.valuewriter;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.DecimalType;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.math.BigInteger;
+
+import static com.facebook.presto.spi.type.Decimals.decodeUnscaledValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes DECIMAL values as big endian two's complement numbers of the fixed length declared in the schema.
+ */
+public class DecimalValueWriter
+        extends PrimitiveValueWriter
+{
+    private final DecimalType type;
+    private final int byteLength;
+
+    public DecimalValueWriter(DecimalType type, PrimitiveType parquetType, ValuesWriter valuesWriter)
+    {
+        super(parquetType, valuesWriter);
+        this.type = requireNonNull(type, "type is null");
+        this.byteLength = parquetType.getTypeLength();
+    }
+
+    @Override
+    public void write(Block block, int position)
+    {
+        byte[] bytes;
+        if (type.isShort()) {
+            bytes = toBytes(type.getLong(block, position));
+        }
+        else {
+            bytes = toBytes(decodeUnscaledValue(type.getSlice(block, position)));
+        }
+        Binary value = Binary.fromConstantByteArray(bytes);
+        getValuesWriter().writeBytes(value);
+        getStatistics().updateStats(value);
+    }
+
+    private byte[] toBytes(long unscaledValue)
+    {
+        byte[] bytes = new byte[byteLength];
+        for (int i = byteLength - 1; i >= 0; i--) {
+            bytes[i] = (byte) unscaledValue;
+            unscaledValue >>= 8;
+        }
+        return bytes;
+    }
+
+    private byte[] toBytes(BigInteger unscaledValue)
+    {
+        byte[] value = unscaledValue.toByteArray();
+        if (value.length == byteLength) {
+            return value;
+        }
+
+        // sign extend to the declared length
+        byte[] bytes = new byte[byteLength];
+        byte padding = (byte) (unscaledValue.signum() < 0 ? -1 : 0);
+        int paddingLength = byteLength - value.length;
+        for (int i = 0; i < paddingLength; i++) {
+            bytes[i] = padding;
+        }
+        System.arraycopy(value, 0, bytes, paddingLength, value.length);
+        return bytes;
+    }
+}
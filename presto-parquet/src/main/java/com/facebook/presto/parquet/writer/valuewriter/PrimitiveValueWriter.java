@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer.valuewriter;
+
+import com.facebook.presto.spi.block.Block;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.schema.PrimitiveType;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the non-null values of a block position to the encoder of a leaf column and
+ * keeps the column statistics of the current row group.
+ */
+public abstract class PrimitiveValueWriter
+{
+    private final PrimitiveType parquetType;
+    private final ValuesWriter valuesWriter;
+    private Statistics<?> statistics;
+
+    protected PrimitiveValueWriter(PrimitiveType parquetType, ValuesWriter valuesWriter)
+    {
+        this.parquetType = requireNonNull(parquetType, "parquetType is null");
+        this.valuesWriter = requireNonNull(valuesWriter, "valuesWriter is null");
+        this.statistics = Statistics.createStats(parquetType);
+    }
+
+    public abstract void write(Block block, int position);
+
+    public ValuesWriter getValuesWriter()
+    {
+        return valuesWriter;
+    }
+
+    public Statistics<?> getStatistics()
+    {
+        return statistics;
+    }
+
+    public void resetStatistics()
+    {
+        statistics = Statistics.createStats(parquetType);
+    }
+}
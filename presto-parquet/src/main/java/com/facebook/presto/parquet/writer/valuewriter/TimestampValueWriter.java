@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer.valuewriter;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.Slice;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes TIMESTAMP values as INT96, the inverse of {@link com.facebook.presto.parquet.ParquetTimestampUtils#getTimestampMillis}.
+ * Parquet does not define an ordering for INT96, so no min and max statistics are kept.
+ */
+public class TimestampValueWriter
+        extends PrimitiveValueWriter
+{
+    private static final int JULIAN_EPOCH_OFFSET_DAYS = 2_440_588;
+    private static final long MILLIS_IN_DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long NANOS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Type type;
+
+    public TimestampValueWriter(Type type, PrimitiveType parquetType, ValuesWriter valuesWriter)
+    {
+        super(parquetType, valuesWriter);
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    @Override
+    public void write(Block block, int position)
+    {
+        long millis = type.getLong(block, position);
+        int julianDay = toIntExact(floorDiv(millis, MILLIS_IN_DAY) + JULIAN_EPOCH_OFFSET_DAYS);
+        long timeOfDayNanos = floorMod(millis, MILLIS_IN_DAY) * NANOS_PER_MILLISECOND;
+
+        // little endian encoding of the time of day followed by the julian day
+        byte[] bytes = new byte[12];
+        Slice slice = wrappedBuffer(bytes);
+        slice.setLong(0, timeOfDayNanos);
+        slice.setInt(8, julianDay);
+        getValuesWriter().writeBytes(Binary.fromConstantByteArray(bytes));
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.format.ColumnChunk;
+import org.apache.parquet.format.ColumnIndex;
+import org.apache.parquet.format.ColumnMetaData;
+import org.apache.parquet.format.FileMetaData;
+import org.apache.parquet.format.OffsetIndex;
+import org.apache.parquet.format.PageHeader;
+import org.apache.parquet.format.PageLocation;
+import org.apache.parquet.format.RowGroup;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.PrimitiveColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getDescriptors;
+import static com.facebook.presto.parquet.reader.MetadataReader.readFooter;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllBytes;
+import static org.apache.parquet.format.BoundaryOrder.UNORDERED;
+import static org.apache.parquet.format.PageType.DATA_PAGE;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reads files whose row groups carry column indexes and offset indexes. The native writer does not
+ * write page indexes, so they are computed from the page headers and the written values, and added
+ * to the file before it is read.
+ */
+@Test(singleThreaded = true)
+public class TestParquetReaderPageIndex
+{
+    private static final int ROW_COUNT = 20_000;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "name", "score");
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+
+    private File tempDirectory;
+    private File file;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        tempDirectory = Files.createTempDir();
+        file = new File(tempDirectory, "test.parquet");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @DataProvider
+    public Object[][] dictionaryEncoding()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testPageSkipping(boolean dictionaryEncoding)
+            throws IOException
+    {
+        writeFile(dictionaryEncoding, new DataSize(1, KILOBYTE), new DataSize(1024, KILOBYTE));
+        List<PageLocation> idPages = getOffsetIndex(0, 0).getPage_locations();
+        assertTrue(idPages.size() > 10, "expected many pages, found " + idPages.size());
+
+        TupleDomain<String> predicate = TupleDomain.withColumnDomains(ImmutableMap.of("id", bigintRange(5_000, 5_100)));
+        ReadResult result = read(predicate);
+
+        // exactly the rows of the id pages that overlap the range are read
+        assertEquals(result.getIds(), rowsOfPages(idPages, 5_000, 5_100));
+        assertTrue(result.getIds().contains(5_000L) && result.getIds().contains(5_100L));
+        assertTrue(result.getReadBytes() < read(TupleDomain.all()).getReadBytes());
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testPageBoundaries(boolean dictionaryEncoding)
+            throws IOException
+    {
+        writeFile(dictionaryEncoding, new DataSize(1, KILOBYTE), new DataSize(1024, KILOBYTE));
+        List<PageLocation> idPages = getOffsetIndex(0, 0).getPage_locations();
+
+        // the first row of one page and the last row of another page
+        long firstRow = idPages.get(3).getFirst_row_index();
+        long lastRow = idPages.get(6).getFirst_row_index() - 1;
+        TupleDomain<String> predicate = TupleDomain.withColumnDomains(ImmutableMap.of("id", Domain.multipleValues(BIGINT, ImmutableList.of(firstRow, lastRow))));
+        ReadResult result = read(predicate);
+
+        List<Long> expected = ImmutableList.<Long>builder()
+                .addAll(rowsOfPages(idPages, firstRow, firstRow))
+                .addAll(rowsOfPages(idPages, lastRow, lastRow))
+                .build();
+        assertEquals(result.getIds(), expected);
+        assertEquals(result.getIds().get(0).longValue(), firstRow);
+        assertEquals(result.getIds().get(result.getIds().size() - 1).longValue(), lastRow);
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testMultipleColumns(boolean dictionaryEncoding)
+            throws IOException
+    {
+        writeFile(dictionaryEncoding, new DataSize(1, KILOBYTE), new DataSize(1024, KILOBYTE));
+        List<PageLocation> idPages = getOffsetIndex(0, 0).getPage_locations();
+        List<PageLocation> namePages = getOffsetIndex(0, 1).getPage_locations();
+        // the name pages are larger, so the page boundaries of the columns differ
+        assertTrue(namePages.size() > idPages.size());
+
+        TupleDomain<String> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(
+                "id", bigintRange(1_000, 9_000),
+                "name", Domain.create(ValueSet.ofRanges(Range.range(VARCHAR, utf8Slice(name(8_000)), true, utf8Slice(name(12_000)), true)), false)));
+        ReadResult result = read(predicate);
+
+        List<Long> expected = rowsOfPages(idPages, 1_000, 9_000);
+        expected.retainAll(rowsOfPages(namePages, 8_000, 12_000));
+        assertEquals(result.getIds(), expected);
+        assertTrue(result.getIds().contains(8_000L) && result.getIds().contains(9_000L));
+    }
+
+    @Test
+    public void testMultipleRowGroups()
+            throws IOException
+    {
+        writeFile(false, new DataSize(1, KILOBYTE), new DataSize(16, KILOBYTE));
+        ParquetMetadata metadata = readFooter(FileSystem.getLocal(new Configuration()), new Path(file.toURI()), file.length());
+        assertTrue(metadata.getBlocks().size() > 2, "expected several row groups, found " + metadata.getBlocks().size());
+
+        // rows of the row groups before and after the range are skipped entirely
+        ReadResult result = read(TupleDomain.withColumnDomains(ImmutableMap.of("id", bigintRange(10_000, 10_010))));
+        assertTrue(result.getIds().containsAll(ImmutableList.of(10_000L, 10_010L)));
+        assertTrue(result.getIds().size() < ROW_COUNT / 2);
+
+        // no page matches
+        assertEquals(read(TupleDomain.withColumnDomains(ImmutableMap.of("id", bigintRange(ROW_COUNT, ROW_COUNT + 100)))).getIds(), ImmutableList.of());
+
+        // every page of name has nulls, so a null predicate reads all rows
+        assertEquals(read(TupleDomain.withColumnDomains(ImmutableMap.of("name", Domain.onlyNull(VARCHAR)))).getIds().size(), ROW_COUNT);
+    }
+
+    @Test
+    public void testNoPageIndex()
+            throws IOException
+    {
+        List<List<Object>> values = writeFileWithoutPageIndex(true, new DataSize(1, KILOBYTE), new DataSize(1024, KILOBYTE));
+        assertEquals(values.get(0).size(), ROW_COUNT);
+
+        ReadResult result = read(TupleDomain.withColumnDomains(ImmutableMap.of("id", bigintRange(5_000, 5_100))));
+        assertEquals(result.getIds().size(), ROW_COUNT);
+    }
+
+    private static Domain bigintRange(long low, long high)
+    {
+        return Domain.create(ValueSet.ofRanges(Range.range(BIGINT, low, true, high, true)), false);
+    }
+
+    /**
+     * Returns the rows of the pages that contain a row in the specified range.
+     */
+    private static List<Long> rowsOfPages(List<PageLocation> pages, long low, long high)
+    {
+        List<Long> rows = new ArrayList<>();
+        for (int page = 0; page < pages.size(); page++) {
+            long firstRow = pages.get(page).getFirst_row_index();
+            long endRow = page + 1 < pages.size() ? pages.get(page + 1).getFirst_row_index() : ROW_COUNT;
+            if (firstRow <= high && low < endRow) {
+                for (long row = firstRow; row < endRow; row++) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String name(long row)
+    {
+        return format("name_%08d", row);
+    }
+
+    private static Object nameValue(int row)
+    {
+        return row % 7 == 3 ? null : name(row);
+    }
+
+    private static Object scoreValue(int row)
+    {
+        return row % 5 == 2 ? null : (long) row * 3;
+    }
+
+    private void writeFile(boolean dictionaryEncoding, DataSize maxPageSize, DataSize maxRowGroupSize)
+            throws IOException
+    {
+        List<List<Object>> values = writeFileWithoutPageIndex(dictionaryEncoding, maxPageSize, maxRowGroupSize);
+        addPageIndexes(file, values);
+    }
+
+    private List<List<Object>> writeFileWithoutPageIndex(boolean dictionaryEncoding, DataSize maxPageSize, DataSize maxRowGroupSize)
+            throws IOException
+    {
+        ParquetWriterOptions writerOptions = new ParquetWriterOptions()
+                .withMaxPageSize(maxPageSize)
+                .withMaxRowGroupSize(maxRowGroupSize)
+                .withDictionaryEncodingEnabled(dictionaryEncoding);
+
+        List<List<Object>> values = ImmutableList.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        try (ParquetWriter writer = new ParquetWriter(new FileOutputStream(file), COLUMN_NAMES, TYPES, writerOptions, SNAPPY, ImmutableMap.of())) {
+            for (int start = 0; start < ROW_COUNT; start += 1000) {
+                BlockBuilder ids = BIGINT.createBlockBuilder(null, 1000);
+                BlockBuilder names = VARCHAR.createBlockBuilder(null, 1000);
+                BlockBuilder scores = BIGINT.createBlockBuilder(null, 1000);
+                for (int row = start; row < start + 1000; row++) {
+                    BIGINT.writeLong(ids, row);
+                    values.get(0).add((long) row);
+
+                    Object name = nameValue(row);
+                    if (name == null) {
+                        names.appendNull();
+                    }
+                    else {
+                        VARCHAR.writeSlice(names, utf8Slice((String) name));
+                    }
+                    values.get(1).add(name);
+
+                    Object score = scoreValue(row);
+                    if (score == null) {
+                        scores.appendNull();
+                    }
+                    else {
+                        BIGINT.writeLong(scores, (long) score);
+                    }
+                    values.get(2).add(score);
+                }
+                writer.write(new Page(ids.build(), names.build(), scores.build()));
+            }
+        }
+        return values;
+    }
+
+    private ReadResult read(TupleDomain<String> predicate)
+            throws IOException
+    {
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        ParquetMetadata metadata = readFooter(fileSystem, new Path(file.toURI()), file.length());
+        MessageType schema = metadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+        Map<List<String>, RichColumnDescriptor> descriptors = getDescriptors(schema, schema);
+        TupleDomain<ColumnDescriptor> parquetPredicate = predicate.transform(name -> descriptors.get(ImmutableList.of(name)));
+
+        List<Field> fields = new ArrayList<>();
+        for (int column = 0; column < COLUMN_NAMES.size(); column++) {
+            PrimitiveColumnIO columnIO = messageColumnIO.getLeaves().get(column);
+            RichColumnDescriptor descriptor = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
+            fields.add(new PrimitiveField(TYPES.get(column), descriptor.getMaxRepetitionLevel(), descriptor.getMaxDefinitionLevel(), false, descriptor, columnIO.getId()));
+        }
+
+        TestingParquetDataSource dataSource = new TestingParquetDataSource(readAllBytes(file.toPath()));
+        List<Long> ids = new ArrayList<>();
+        try (ParquetReader reader = new ParquetReader(messageColumnIO, metadata.getBlocks(), dataSource, newSimpleAggregatedMemoryContext(), parquetPredicate, false)) {
+            for (int batchSize = reader.nextBatch(); batchSize >= 0; batchSize = reader.nextBatch()) {
+                Block idBlock = reader.readBlock(fields.get(0));
+                Block nameBlock = reader.readBlock(fields.get(1));
+                Block scoreBlock = reader.readBlock(fields.get(2));
+                assertEquals(idBlock.getPositionCount(), batchSize);
+                assertEquals(nameBlock.getPositionCount(), batchSize);
+                assertEquals(scoreBlock.getPositionCount(), batchSize);
+                for (int position = 0; position < batchSize; position++) {
+                    int row = toIntExact(BIGINT.getLong(idBlock, position));
+                    // all columns stay aligned across page boundaries
+                    assertEquals(nameBlock.isNull(position) ? null : VARCHAR.getSlice(nameBlock, position).toStringUtf8(), nameValue(row));
+                    assertEquals(scoreBlock.isNull(position) ? null : BIGINT.getLong(scoreBlock, position), scoreValue(row));
+                    ids.add((long) row);
+                }
+            }
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i), "rows are not in order");
+        }
+        return new ReadResult(ids, dataSource.getReadBytes());
+    }
+
+    private OffsetIndex getOffsetIndex(int rowGroup, int column)
+            throws IOException
+    {
+        byte[] data = readAllBytes(file.toPath());
+        ColumnChunk columnChunk = readFileMetaData(data).getRow_groups().get(rowGroup).getColumns().get(column);
+        return Util.readOffsetIndex(new ByteArrayInputStream(data, toIntExact(columnChunk.getOffset_index_offset()), columnChunk.getOffset_index_length()));
+    }
+
+    private static FileMetaData readFileMetaData(byte[] data)
+            throws IOException
+    {
+        int footerLength = ByteBuffer.wrap(data, data.length - 8, 4).order(LITTLE_ENDIAN).getInt();
+        return Util.readFileMetaData(new ByteArrayInputStream(data, data.length - 8 - footerLength, footerLength));
+    }
+
+    /**
+     * Rewrites the footer of the file with a column index and an offset index for every column chunk.
+     * The page boundaries are read from the page headers, and the min/max values of each page are
+     * computed from the values that were written.
+     */
+    private static void addPageIndexes(File file, List<List<Object>> values)
+            throws IOException
+    {
+        byte[] data = readAllBytes(file.toPath());
+        int footerLength = ByteBuffer.wrap(data, data.length - 8, 4).order(LITTLE_ENDIAN).getInt();
+        int footerStart = data.length - 8 - footerLength;
+        FileMetaData fileMetaData = readFileMetaData(data);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(data, 0, footerStart);
+
+        long rowGroupStart = 0;
+        for (RowGroup rowGroup : fileMetaData.getRow_groups()) {
+            for (int column = 0; column < rowGroup.getColumns().size(); column++) {
+                ColumnChunk columnChunk = rowGroup.getColumns().get(column);
+                List<PageLocation> pageLocations = getPageLocations(data, columnChunk.getMeta_data());
+                ColumnIndex columnIndex = createColumnIndex(pageLocations, values.get(column).subList(toIntExact(rowGroupStart), toIntExact(rowGroupStart + rowGroup.getNum_rows())));
+
+                columnChunk.setColumn_index_offset(output.size());
+                Util.writeColumnIndex(columnIndex, output);
+                columnChunk.setColumn_index_length(toIntExact(output.size() - columnChunk.getColumn_index_offset()));
+
+                columnChunk.setOffset_index_offset(output.size());
+                Util.writeOffsetIndex(new OffsetIndex(pageLocations), output);
+                columnChunk.setOffset_index_length(toIntExact(output.size() - columnChunk.getOffset_index_offset()));
+            }
+            rowGroupStart += rowGroup.getNum_rows();
+        }
+
+        int metadataStart = output.size();
+        Util.writeFileMetaData(fileMetaData, output);
+        output.write(ByteBuffer.allocate(4).order(LITTLE_ENDIAN).putInt(output.size() - metadataStart).array());
+        output.write("PAR1".getBytes(UTF_8));
+        Files.write(output.toByteArray(), file);
+    }
+
+    private static List<PageLocation> getPageLocations(byte[] data, ColumnMetaData metadata)
+            throws IOException
+    {
+        long chunkStart = metadata.getData_page_offset();
+        if (metadata.isSetDictionary_page_offset()) {
+            chunkStart = Math.min(chunkStart, metadata.getDictionary_page_offset());
+        }
+        long chunkEnd = chunkStart + metadata.getTotal_compressed_size();
+
+        ImmutableList.Builder<PageLocation> pageLocations = ImmutableList.builder();
+        ByteArrayInputStream input = new ByteArrayInputStream(data, toIntExact(chunkStart), toIntExact(chunkEnd - chunkStart));
+        long rowCount = 0;
+        while (input.available() > 0) {
+            long pageStart = chunkEnd - input.available();
+            PageHeader header = Util.readPageHeader(input);
+            input.skip(header.getCompressed_page_size());
+            if (header.getType() == DATA_PAGE) {
+                pageLocations.add(new PageLocation(pageStart, toIntExact(chunkEnd - input.available() - pageStart), rowCount));
+                // the columns are flat, so each value is a row
+                rowCount += header.getData_page_header().getNum_values();
+            }
+        }
+        return pageLocations.build();
+    }
+
+    private static ColumnIndex createColumnIndex(List<PageLocation> pageLocations, List<Object> values)
+    {
+        List<Boolean> nullPages = new ArrayList<>();
+        List<ByteBuffer> minValues = new ArrayList<>();
+        List<ByteBuffer> maxValues = new ArrayList<>();
+        List<Long> nullCounts = new ArrayList<>();
+        for (int page = 0; page < pageLocations.size(); page++) {
+            int firstRow = toIntExact(pageLocations.get(page).getFirst_row_index());
+            int endRow = page + 1 < pageLocations.size() ? toIntExact(pageLocations.get(page + 1).getFirst_row_index()) : values.size();
+            List<Object> pageValues = values.subList(firstRow, endRow);
+            List<Comparable> nonNullValues = pageValues.stream()
+                    .filter(Objects::nonNull)
+                    .map(Comparable.class::cast)
+                    .sorted()
+                    .collect(toImmutableList());
+
+            nullPages.add(nonNullValues.isEmpty());
+            nullCounts.add((long) (pageValues.size() - nonNullValues.size()));
+            if (nonNullValues.isEmpty()) {
+                minValues.add(ByteBuffer.allocate(0));
+                maxValues.add(ByteBuffer.allocate(0));
+            }
+            else {
+                minValues.add(encodeStatisticsValue(nonNullValues.get(0)));
+                maxValues.add(encodeStatisticsValue(nonNullValues.get(nonNullValues.size() - 1)));
+            }
+        }
+        return new ColumnIndex(nullPages, minValues, maxValues, UNORDERED)
+                .setNull_counts(nullCounts);
+    }
+
+    private static ByteBuffer encodeStatisticsValue(Object value)
+    {
+        if (value instanceof Long) {
+            ByteBuffer buffer = ByteBuffer.allocate(8).order(LITTLE_ENDIAN);
+            buffer.putLong((Long) value);
+            buffer.flip();
+            return buffer;
+        }
+        return ByteBuffer.wrap(((String) value).getBytes(UTF_8));
+    }
+
+    private static class ReadResult
+    {
+        private final List<Long> ids;
+        private final long readBytes;
+
+        public ReadResult(List<Long> ids, long readBytes)
+        {
+            this.ids = ids;
+            this.readBytes = readBytes;
+        }
+
+        public List<Long> getIds()
+        {
+            return ids;
+        }
+
+        public long getReadBytes()
+        {
+            return readBytes;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.DoubleRange;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.PrimitiveField;
+import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.PrimitiveColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import static com.facebook.presto.common.predicate.TupleDomainFilter.IS_NOT_NULL;
+import static com.facebook.presto.common.predicate.TupleDomainFilter.IS_NULL;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllBytes;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Reads files with small pages, so that every batch spans several pages of each column.
+ */
+public class TestParquetSelectiveReader
+{
+    private static final int ROW_COUNT = 10_000;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "name", "price");
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE);
+
+    private File tempDirectory;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = Files.createTempDir();
+        writeFile(file(true), true);
+        writeFile(file(false), false);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @DataProvider
+    public Object[][] dictionaryEncoding()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testReadSelective(boolean dictionaryEncoding)
+            throws IOException
+    {
+        // every third position of the batch, without a filter
+        assertReadSelective(dictionaryEncoding, 1, null, position -> position % 3 == 0, row -> true);
+        // all positions, with filters on the values
+        assertReadSelective(dictionaryEncoding, 0, BigintRange.of(100, 5_000, false), position -> true, row -> row >= 100 && row <= 5_000);
+        assertReadSelective(dictionaryEncoding, 2, DoubleRange.of(1_000, false, true, 2_000, false, false, true), position -> true, row -> price(row) == null || (price(row) > 1_000 && price(row) <= 2_000));
+        assertReadSelective(dictionaryEncoding, 1, BytesRange.of(bytes(name(2_000)), false, bytes(name(3_000)), true, false), position -> true, row -> name(row) != null && row >= 2_000 && row < 3_000);
+        // null filters at a subset of the positions
+        assertReadSelective(dictionaryEncoding, 1, IS_NULL, position -> position % 2 == 1, row -> name(row) == null);
+        assertReadSelective(dictionaryEncoding, 2, IS_NOT_NULL, position -> position % 2 == 1, row -> price(row) != null);
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testReadSelectiveWithoutOutput(boolean dictionaryEncoding)
+            throws IOException
+    {
+        try (ParquetReader reader = createParquetReader(file(dictionaryEncoding))) {
+            PrimitiveField field = createField(file(dictionaryEncoding), 0);
+            int batchSize = reader.nextBatch();
+            int[] positions = allPositions(batchSize);
+            int[] outputPositions = new int[batchSize];
+            // the values are only tested against the filter
+            int outputPositionCount = reader.readSelective(field, BigintRange.of(10, 19, false), null, positions, batchSize, outputPositions);
+            assertEquals(outputPositionCount, 10);
+            assertEquals(Arrays.copyOf(outputPositions, outputPositionCount), new int[] {10, 11, 12, 13, 14, 15, 16, 17, 18, 19});
+
+            // the next batch continues after the skipped values
+            batchSize = reader.nextBatch();
+            BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, batchSize);
+            assertEquals(reader.readSelective(field, null, blockBuilder, allPositions(batchSize), batchSize, new int[batchSize]), batchSize);
+            assertEquals(BIGINT.getLong(blockBuilder.build(), 0), positions.length);
+        }
+    }
+
+    @Test(dataProvider = "dictionaryEncoding")
+    public void testSelectiveReader(boolean dictionaryEncoding)
+            throws IOException
+    {
+        // no filters
+        assertSelectiveReader(dictionaryEncoding, ImmutableMap.of(), row -> true);
+        // a single filter
+        assertSelectiveReader(dictionaryEncoding, ImmutableMap.of(0, BigintRange.of(1_000, 1_999, false)), row -> row >= 1_000 && row <= 1_999);
+        // filters on multiple columns; the price filter is applied first and the name filter only sees the rows that passed it
+        assertSelectiveReader(
+                dictionaryEncoding,
+                ImmutableMap.of(
+                        1, IS_NOT_NULL,
+                        2, DoubleRange.of(2_000, false, false, 4_000, false, true, false)),
+                row -> name(row) != null && price(row) != null && price(row) >= 2_000 && price(row) < 4_000);
+        // null filters
+        assertSelectiveReader(dictionaryEncoding, ImmutableMap.of(1, IS_NULL, 2, IS_NULL), row -> name(row) == null && price(row) == null);
+        // no row passes
+        assertSelectiveReader(dictionaryEncoding, ImmutableMap.of(0, BigintRange.of(ROW_COUNT, ROW_COUNT + 10, false), 1, IS_NULL), row -> false);
+    }
+
+    @Test
+    public void testMissingColumn()
+            throws IOException
+    {
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT);
+        try (ParquetReader reader = createParquetReader(file(false))) {
+            List<Optional<Field>> fields = ImmutableList.of(Optional.of(createField(file(false), 0)), Optional.empty());
+
+            // the missing column only has nulls
+            List<Page> pages = readPages(new ParquetSelectiveReader(reader, types, fields, ImmutableMap.of(0, BigintRange.of(5, 7, false), 1, IS_NULL)));
+            int positionCount = 0;
+            for (Page page : pages) {
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    assertEquals(BIGINT.getLong(page.getBlock(0), position), 5 + positionCount);
+                    assertTrue(page.getBlock(1).isNull(position));
+                    positionCount++;
+                }
+            }
+            assertEquals(positionCount, 3);
+        }
+
+        try (ParquetReader reader = createParquetReader(file(false))) {
+            List<Optional<Field>> fields = ImmutableList.of(Optional.of(createField(file(false), 0)), Optional.empty());
+            List<Page> pages = readPages(new ParquetSelectiveReader(reader, types, fields, ImmutableMap.of(1, IS_NOT_NULL)));
+            assertTrue(pages.stream().allMatch(page -> page.getPositionCount() == 0));
+        }
+    }
+
+    private void assertReadSelective(boolean dictionaryEncoding, int column, TupleDomainFilter filter, IntPredicate positionSelector, IntPredicate rowFilter)
+            throws IOException
+    {
+        try (ParquetReader reader = createParquetReader(file(dictionaryEncoding))) {
+            PrimitiveField field = createField(file(dictionaryEncoding), column);
+            int rowCount = 0;
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                int[] positions = new int[batchSize];
+                int positionCount = 0;
+                for (int position = 0; position < batchSize; position++) {
+                    if (positionSelector.test(position)) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+                }
+
+                BlockBuilder blockBuilder = TYPES.get(column).createBlockBuilder(null, positionCount);
+                int[] outputPositions = new int[positionCount];
+                int outputPositionCount = reader.readSelective(field, filter, blockBuilder, positions, positionCount, outputPositions);
+                Block block = blockBuilder.build();
+                assertEquals(block.getPositionCount(), outputPositionCount);
+
+                int outputPosition = 0;
+                for (int i = 0; i < positionCount; i++) {
+                    int row = rowCount + positions[i];
+                    if (!rowFilter.test(row)) {
+                        continue;
+                    }
+                    assertEquals(outputPositions[outputPosition], positions[i]);
+                    assertEquals(getValue(block, column, outputPosition), value(row, column));
+                    outputPosition++;
+                }
+                assertEquals(outputPositionCount, outputPosition);
+                rowCount += batchSize;
+            }
+            assertEquals(rowCount, ROW_COUNT);
+        }
+    }
+
+    private void assertSelectiveReader(boolean dictionaryEncoding, Map<Integer, TupleDomainFilter> filters, IntPredicate rowFilter)
+            throws IOException
+    {
+        List<Integer> expectedRows = new ArrayList<>();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            if (rowFilter.test(row)) {
+                expectedRows.add(row);
+            }
+        }
+
+        try (ParquetReader reader = createParquetReader(file(dictionaryEncoding))) {
+            List<Optional<Field>> fields = new ArrayList<>();
+            for (int column = 0; column < COLUMN_NAMES.size(); column++) {
+                fields.add(Optional.of(createField(file(dictionaryEncoding), column)));
+            }
+
+            List<Integer> rows = new ArrayList<>();
+            for (Page page : readPages(new ParquetSelectiveReader(reader, TYPES, fields, filters))) {
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    int row = toIntExact(BIGINT.getLong(page.getBlock(0), position));
+                    for (int column = 1; column < COLUMN_NAMES.size(); column++) {
+                        assertEquals(getValue(page.getBlock(column), column, position), value(row, column));
+                    }
+                    rows.add(row);
+                }
+            }
+            assertEquals(rows, expectedRows);
+        }
+    }
+
+    private static List<Page> readPages(ParquetSelectiveReader selectiveReader)
+            throws IOException
+    {
+        List<Page> pages = new ArrayList<>();
+        for (Page page = selectiveReader.getNextPage(); page != null; page = selectiveReader.getNextPage()) {
+            // load the lazy blocks before the next batch is read
+            pages.add(page.getLoadedPage());
+        }
+        assertNull(selectiveReader.getNextPage());
+        return pages;
+    }
+
+    private static int[] allPositions(int positionCount)
+    {
+        int[] positions = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    private static Object getValue(Block block, int column, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        Type type = TYPES.get(column);
+        if (type == VARCHAR) {
+            return VARCHAR.getSlice(block, position).toStringUtf8();
+        }
+        if (type == DOUBLE) {
+            return DOUBLE.getDouble(block, position);
+        }
+        return BIGINT.getLong(block, position);
+    }
+
+    private static Object value(int row, int column)
+    {
+        switch (column) {
+            case 0:
+                return (long) row;
+            case 1:
+                return name(row);
+            case 2:
+                return price(row);
+            default:
+                throw new IllegalArgumentException("Invalid column: " + column);
+        }
+    }
+
+    private static String name(int row)
+    {
+        return row % 7 == 3 ? null : format("name_%08d", row);
+    }
+
+    private static Double price(int row)
+    {
+        return row % 5 == 2 ? null : row * 0.5;
+    }
+
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(UTF_8);
+    }
+
+    private File file(boolean dictionaryEncoding)
+    {
+        return new File(tempDirectory, dictionaryEncoding ? "dictionary.parquet" : "plain.parquet");
+    }
+
+    private static void writeFile(File file, boolean dictionaryEncoding)
+            throws IOException
+    {
+        ParquetWriterOptions writerOptions = new ParquetWriterOptions()
+                .withMaxPageSize(new DataSize(1, KILOBYTE))
+                .withDictionaryEncodingEnabled(dictionaryEncoding);
+
+        try (ParquetWriter writer = new ParquetWriter(new FileOutputStream(file), COLUMN_NAMES, TYPES, writerOptions, SNAPPY, ImmutableMap.of())) {
+            for (int start = 0; start < ROW_COUNT; start += 1000) {
+                BlockBuilder ids = BIGINT.createBlockBuilder(null, 1000);
+                BlockBuilder names = VARCHAR.createBlockBuilder(null, 1000);
+                BlockBuilder prices = DOUBLE.createBlockBuilder(null, 1000);
+                for (int row = start; row < start + 1000; row++) {
+                    BIGINT.writeLong(ids, row);
+                    if (name(row) == null) {
+                        names.appendNull();
+                    }
+                    else {
+                        VARCHAR.writeSlice(names, utf8Slice(name(row)));
+                    }
+                    if (price(row) == null) {
+                        prices.appendNull();
+                    }
+                    else {
+                        DOUBLE.writeDouble(prices, price(row));
+                    }
+                }
+                writer.write(new Page(ids.build(), names.build(), prices.build()));
+            }
+        }
+    }
+
+    private static ParquetReader createParquetReader(File file)
+            throws IOException
+    {
+        ParquetMetadata metadata = readFooter(file);
+        MessageType schema = metadata.getFileMetaData().getSchema();
+        return new ParquetReader(getColumnIO(schema, schema), metadata.getBlocks(), new TestingParquetDataSource(readAllBytes(file.toPath())), newSimpleAggregatedMemoryContext());
+    }
+
+    private static PrimitiveField createField(File file, int column)
+            throws IOException
+    {
+        MessageType schema = readFooter(file).getFileMetaData().getSchema();
+        PrimitiveColumnIO columnIO = getColumnIO(schema, schema).getLeaves().get(column);
+        RichColumnDescriptor descriptor = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
+        return new PrimitiveField(TYPES.get(column), descriptor.getMaxRepetitionLevel(), descriptor.getMaxDefinitionLevel(), false, descriptor, columnIO.getId());
+    }
+
+    private static ParquetMetadata readFooter(File file)
+            throws IOException
+    {
+        return MetadataReader.readFooter(FileSystem.getLocal(new Configuration()), new Path(file.toURI()), file.length());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRowRanges
+{
+    @Test
+    public void testBuilderMergesAdjacentRanges()
+    {
+        RowRanges rowRanges = RowRanges.builder()
+                .add(0, 10)
+                .add(10, 20)
+                .add(30, 40)
+                .build();
+        assertRanges(rowRanges, 0, 20, 30, 40);
+        assertEquals(rowRanges.getRowCount(), 30);
+    }
+
+    @Test
+    public void testAll()
+    {
+        assertRanges(RowRanges.all(100), 0, 100);
+        assertTrue(RowRanges.all(0).isEmpty());
+    }
+
+    @Test
+    public void testIntersect()
+    {
+        RowRanges left = RowRanges.builder()
+                .add(0, 10)
+                .add(20, 30)
+                .add(40, 50)
+                .build();
+        RowRanges right = RowRanges.builder()
+                .add(5, 25)
+                .add(45, 60)
+                .build();
+        assertRanges(left.intersect(right), 5, 10, 20, 25, 45, 50);
+        assertRanges(right.intersect(left), 5, 10, 20, 25, 45, 50);
+        assertRanges(left.intersect(RowRanges.all(100)), 0, 10, 20, 30, 40, 50);
+        assertTrue(left.intersect(RowRanges.builder().add(10, 20).build()).isEmpty());
+        assertTrue(left.intersect(RowRanges.empty()).isEmpty());
+    }
+
+    @Test
+    public void testOverlaps()
+    {
+        RowRanges rowRanges = RowRanges.builder()
+                .add(10, 20)
+                .add(30, 40)
+                .build();
+        assertFalse(rowRanges.overlaps(0, 10));
+        assertTrue(rowRanges.overlaps(0, 11));
+        assertTrue(rowRanges.overlaps(19, 30));
+        assertFalse(rowRanges.overlaps(20, 30));
+        assertTrue(rowRanges.overlaps(35, 100));
+        assertFalse(rowRanges.overlaps(40, 100));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOutOfOrderRanges()
+    {
+        RowRanges.builder()
+                .add(10, 20)
+                .add(0, 5);
+    }
+
+    private static void assertRanges(RowRanges rowRanges, long... bounds)
+    {
+        assertEquals(rowRanges.getRangeCount(), bounds.length / 2);
+        for (int i = 0; i < rowRanges.getRangeCount(); i++) {
+            assertEquals(rowRanges.getStart(i), bounds[2 * i]);
+            assertEquals(rowRanges.getEnd(i), bounds[2 * i + 1]);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.ArrayType;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.parquet.reader.MetadataReader.readFooter;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.GZIP;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestParquetWriter
+{
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "name", "tags");
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, new ArrayType(BIGINT));
+
+    private File tempDirectory;
+    private File file;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        tempDirectory = createTempDir();
+        file = new File(tempDirectory, "test.parquet");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws IOException
+    {
+        for (CompressionCodecName codec : ImmutableList.of(UNCOMPRESSED, SNAPPY, GZIP)) {
+            try (ParquetWriter writer = createWriter(new ParquetWriterOptions(), codec)) {
+                writer.write(createPage(0, 3));
+            }
+
+            List<Group> records = readRecords();
+            assertEquals(records.size(), 3);
+
+            assertEquals(records.get(0).getLong("id", 0), 0);
+            assertEquals(records.get(0).getString("name", 0), "name0");
+            assertEquals(getTags(records.get(0)), ImmutableList.of());
+
+            // all columns of the second row are null
+            assertEquals(records.get(1).getFieldRepetitionCount("id"), 0);
+            assertEquals(records.get(1).getFieldRepetitionCount("name"), 0);
+            assertEquals(records.get(1).getFieldRepetitionCount("tags"), 0);
+
+            assertEquals(records.get(2).getLong("id", 0), 2);
+            assertEquals(records.get(2).getString("name", 0), "name2");
+            assertEquals(getTags(records.get(2)), ImmutableList.of(0L, 1L));
+        }
+    }
+
+    @Test
+    public void testRowGroups()
+            throws IOException
+    {
+        ParquetWriterOptions writerOptions = new ParquetWriterOptions()
+                .withMaxPageSize(new DataSize(1, KILOBYTE))
+                .withMaxRowGroupSize(new DataSize(4, KILOBYTE))
+                .withDictionaryEncodingEnabled(false);
+        try (ParquetWriter writer = createWriter(writerOptions, UNCOMPRESSED)) {
+            for (int start = 0; start < 10_000; start += 1000) {
+                writer.write(createPage(start, 1000));
+            }
+        }
+
+        FileSystem fileSystem = FileSystem.getLocal(new Configuration());
+        ParquetMetadata metadata = readFooter(fileSystem, new Path(file.toURI()), file.length());
+        assertTrue(metadata.getBlocks().size() > 1);
+        assertEquals(metadata.getBlocks().stream().mapToLong(BlockMetaData::getRowCount).sum(), 10_000);
+        assertEquals(metadata.getFileMetaData().getKeyValueMetaData().get("key"), "value");
+
+        List<Group> records = readRecords();
+        assertEquals(records.size(), 10_000);
+        for (int i = 0; i < records.size(); i++) {
+            if (i % 3 == 1) {
+                assertEquals(records.get(i).getFieldRepetitionCount("id"), 0);
+            }
+            else {
+                assertEquals(records.get(i).getLong("id", 0), i);
+                assertEquals(getTags(records.get(i)).size(), i % 3);
+            }
+        }
+    }
+
+    @Test
+    public void testDictionaryFallback()
+            throws IOException
+    {
+        // a small dictionary page forces the dictionary encoder to fall back to plain encoding
+        ParquetWriterOptions writerOptions = new ParquetWriterOptions()
+                .withMaxPageSize(new DataSize(1, KILOBYTE))
+                .withMaxDictionaryPageSize(new DataSize(1, KILOBYTE));
+        try (ParquetWriter writer = createWriter(writerOptions, SNAPPY)) {
+            writer.write(createPage(0, 5000));
+        }
+
+        List<Group> records = readRecords();
+        assertEquals(records.size(), 5000);
+        for (int i = 0; i < records.size(); i += 3) {
+            assertEquals(records.get(i).getString("name", 0), "name" + i);
+        }
+    }
+
+    private ParquetWriter createWriter(ParquetWriterOptions writerOptions, CompressionCodecName codec)
+            throws IOException
+    {
+        return new ParquetWriter(new FileOutputStream(file), COLUMN_NAMES, TYPES, writerOptions, codec, ImmutableMap.of("key", "value"));
+    }
+
+    private List<Group> readRecords()
+            throws IOException
+    {
+        ImmutableList.Builder<Group> records = ImmutableList.builder();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), new Path(file.toURI())).build()) {
+            for (Group record = reader.read(); record != null; record = reader.read()) {
+                records.add(record);
+            }
+        }
+        return records.build();
+    }
+
+    private static List<Long> getTags(Group record)
+    {
+        assertFalse(record.getFieldRepetitionCount("tags") == 0, "tags is null");
+        Group tags = record.getGroup("tags", 0);
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        for (int i = 0; i < tags.getFieldRepetitionCount("list"); i++) {
+            values.add(tags.getGroup("list", i).getLong("element", 0));
+        }
+        return values.build();
+    }
+
+    /**
+     * Every third row is null, the others have {@code position % 3} tags.
+     */
+    private static Page createPage(int start, int positionCount)
+    {
+        BlockBuilder ids = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder names = VARCHAR.createBlockBuilder(null, positionCount);
+        ArrayType arrayType = new ArrayType(BIGINT);
+        BlockBuilder tags = arrayType.createBlockBuilder(null, positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            if (i % 3 == 1) {
+                ids.appendNull();
+                names.appendNull();
+                tags.appendNull();
+                continue;
+            }
+            BIGINT.writeLong(ids, i);
+            VARCHAR.writeSlice(names, utf8Slice("name" + i));
+            BlockBuilder elements = tags.beginBlockEntry();
+            for (int tag = 0; tag < i % 3; tag++) {
+                BIGINT.writeLong(elements, tag);
+            }
+            tags.closeEntry();
+        }
+        return new Page(ids.build(), names.build(), tags.build());
+    }
+}
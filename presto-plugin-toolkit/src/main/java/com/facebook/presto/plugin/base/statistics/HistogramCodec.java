@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.base.statistics;
+
+import com.facebook.presto.spi.statistics.Histogram;
+import io.airlift.json.JsonCodec;
+
+import static io.airlift.json.JsonCodec.jsonCodec;
+
+/**
+ * JSON form of a {@link Histogram}, in which the engine computes the HISTOGRAM column
+ * statistic and connectors may store it.
+ */
+public final class HistogramCodec
+{
+    public static final JsonCodec<Histogram> HISTOGRAM_CODEC = jsonCodec(Histogram.class);
+
+    private HistogramCodec() {}
+}
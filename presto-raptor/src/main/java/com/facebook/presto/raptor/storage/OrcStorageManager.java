@@ -22,6 +22,8 @@ import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcWriterStats;
 import com.facebook.presto.orc.TupleDomainOrcPredicate;
 import com.facebook.presto.orc.TupleDomainOrcPredicate.ColumnReference;
+import com.facebook.presto.orc.cache.OrcFileTailSource;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
 import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.raptor.RaptorColumnHandle;
@@ -162,6 +164,8 @@ public class OrcStorageManager
     private final ExecutorService deletionExecutor;
     private final ExecutorService commitExecutor;
     private final FileRewriter fileRewriter;
+    private final OrcFileTailSource orcFileTailSource;
+    private final StripeMetadataSource stripeMetadataSource;
     private final OrcWriterStats stats = new OrcWriterStats();
 
     @Inject
@@ -175,7 +179,9 @@ public class OrcStorageManager
             BackupManager backgroundBackupManager,
             ShardRecoveryManager recoveryManager,
             ShardRecorder shardRecorder,
-            TypeManager typeManager)
+            TypeManager typeManager,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSource stripeMetadataSource)
     {
         this(nodeManager.getCurrentNode().getNodeIdentifier(),
                 storageService,
@@ -192,7 +198,9 @@ public class OrcStorageManager
                 config.getMaxShardSize(),
                 config.getMinAvailableSpace(),
                 config.getOrcCompressionKind(),
-                config.getOrcOptimizedWriterStage());
+                config.getOrcOptimizedWriterStage(),
+                orcFileTailSource,
+                stripeMetadataSource);
     }
 
     public OrcStorageManager(
@@ -211,7 +219,9 @@ public class OrcStorageManager
             DataSize maxShardSize,
             DataSize minAvailableSpace,
             CompressionKind compression,
-            OrcOptimizedWriterStage orcOptimizedWriterStage)
+            OrcOptimizedWriterStage orcOptimizedWriterStage,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSource stripeMetadataSource)
     {
         this.nodeId = requireNonNull(nodeId, "nodeId is null");
         this.storageService = requireNonNull(storageService, "storageService is null");
@@ -238,6 +248,8 @@ public class OrcStorageManager
         else {
             this.fileRewriter = new OrcRecordFileRewriter();
         }
+        this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
+        this.stripeMetadataSource = requireNonNull(stripeMetadataSource, "stripeMetadataSource is null");
     }
 
     @PreDestroy
@@ -263,7 +275,18 @@ public class OrcStorageManager
         AggregatedMemoryContext systemMemoryUsage = newSimpleAggregatedMemoryContext();
 
         try {
-            OrcReader reader = new OrcReader(dataSource, ORC, readerAttributes.getMaxMergeDistance(), readerAttributes.getMaxReadSize(), readerAttributes.getTinyStripeThreshold(), HUGE_MAX_READ_BLOCK_SIZE);
+            // shard files are immutable, so the modification time only guards against a shard being recovered again
+            long fileModificationTime = storageService.getStorageFile(shardUuid).lastModified();
+            OrcReader reader = new OrcReader(
+                    dataSource,
+                    ORC,
+                    orcFileTailSource,
+                    stripeMetadataSource,
+                    fileModificationTime,
+                    readerAttributes.getMaxMergeDistance(),
+                    readerAttributes.getMaxReadSize(),
+                    readerAttributes.getTinyStripeThreshold(),
+                    HUGE_MAX_READ_BLOCK_SIZE);
 
             Map<Long, Integer> indexMap = columnIdIndex(reader.getColumnNames());
             ImmutableMap.Builder<Integer, Type> includedColumns = ImmutableMap.builder();
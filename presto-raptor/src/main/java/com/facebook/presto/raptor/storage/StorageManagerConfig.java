@@ -56,6 +56,11 @@ public class StorageManagerConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcTinyStripeThreshold = new DataSize(8, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private boolean orcFileTailCacheEnabled;
+    private DataSize orcFileTailCacheSize = new DataSize(256, MEGABYTE);
+    private boolean orcStripeMetadataCacheEnabled;
+    private DataSize orcStripeFooterCacheSize = new DataSize(256, MEGABYTE);
+    private DataSize orcStripeStreamCacheSize = new DataSize(256, MEGABYTE);
     private OrcOptimizedWriterStage orcOptimizedWriterStage = DISABLED;
     private CompressionKind orcCompressionKind = SNAPPY;
     private int deletionThreads = max(1, getRuntime().availableProcessors() / 2);
@@ -417,4 +422,69 @@ public class StorageManagerConfig
         this.shardDayBoundaryTimeZone = timeZone;
         return this;
     }
+
+    public boolean isOrcFileTailCacheEnabled()
+    {
+        return orcFileTailCacheEnabled;
+    }
+
+    @Config("storage.orc.file-tail-cache-enabled")
+    @ConfigDescription("Cache the postscript, footer and metadata of shard files across queries")
+    public StorageManagerConfig setOrcFileTailCacheEnabled(boolean orcFileTailCacheEnabled)
+    {
+        this.orcFileTailCacheEnabled = orcFileTailCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcFileTailCacheSize()
+    {
+        return orcFileTailCacheSize;
+    }
+
+    @Config("storage.orc.file-tail-cache-size")
+    public StorageManagerConfig setOrcFileTailCacheSize(DataSize orcFileTailCacheSize)
+    {
+        this.orcFileTailCacheSize = orcFileTailCacheSize;
+        return this;
+    }
+
+    public boolean isOrcStripeMetadataCacheEnabled()
+    {
+        return orcStripeMetadataCacheEnabled;
+    }
+
+    @Config("storage.orc.stripe-metadata-cache-enabled")
+    @ConfigDescription("Cache stripe footers and index streams of shard files across queries")
+    public StorageManagerConfig setOrcStripeMetadataCacheEnabled(boolean orcStripeMetadataCacheEnabled)
+    {
+        this.orcStripeMetadataCacheEnabled = orcStripeMetadataCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcStripeFooterCacheSize()
+    {
+        return orcStripeFooterCacheSize;
+    }
+
+    @Config("storage.orc.stripe-footer-cache-size")
+    public StorageManagerConfig setOrcStripeFooterCacheSize(DataSize orcStripeFooterCacheSize)
+    {
+        this.orcStripeFooterCacheSize = orcStripeFooterCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcStripeStreamCacheSize()
+    {
+        return orcStripeStreamCacheSize;
+    }
+
+    @Config("storage.orc.stripe-stream-cache-size")
+    public StorageManagerConfig setOrcStripeStreamCacheSize(DataSize orcStripeStreamCacheSize)
+    {
+        this.orcStripeStreamCacheSize = orcStripeStreamCacheSize;
+        return this;
+    }
 }
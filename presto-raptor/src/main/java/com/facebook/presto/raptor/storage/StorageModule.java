@@ -13,6 +13,17 @@
  */
 package com.facebook.presto.raptor.storage;
 
+import com.facebook.presto.orc.cache.CachingOrcFileTailSource;
+import com.facebook.presto.orc.cache.CachingStripeMetadataSource;
+import com.facebook.presto.orc.cache.OrcFileKey;
+import com.facebook.presto.orc.cache.OrcFileTail;
+import com.facebook.presto.orc.cache.OrcFileTailSource;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.facebook.presto.orc.cache.StorageStripeMetadataSource;
+import com.facebook.presto.orc.cache.StripeId;
+import com.facebook.presto.orc.cache.StripeMetadataSource;
+import com.facebook.presto.orc.cache.StripeStreamId;
+import com.facebook.presto.raptor.RaptorConnectorId;
 import com.facebook.presto.raptor.backup.BackupManager;
 import com.facebook.presto.raptor.metadata.AssignmentLimiter;
 import com.facebook.presto.raptor.metadata.DatabaseShardManager;
@@ -30,11 +41,20 @@ import com.facebook.presto.raptor.storage.organization.ShardOrganizationManager;
 import com.facebook.presto.raptor.storage.organization.ShardOrganizer;
 import com.facebook.presto.raptor.storage.organization.TemporalFunction;
 import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.inject.Binder;
 import com.google.inject.Module;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import io.airlift.slice.Slice;
+import org.weakref.jmx.MBeanExporter;
+
+import javax.inject.Singleton;
 
 import static io.airlift.configuration.ConfigBinder.configBinder;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 import static org.weakref.jmx.ObjectNames.generatedNameOf;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
@@ -90,4 +110,48 @@ public class StorageModule
         newExporter(binder).export(BucketBalancer.class).as(generatedNameOf(BucketBalancer.class, connectorId));
         newExporter(binder).export(JobFactory.class).withGeneratedName();
     }
+
+    @Provides
+    @Singleton
+    private static OrcFileTailSource createOrcFileTailSource(StorageManagerConfig config, MBeanExporter exporter, RaptorConnectorId connectorId)
+    {
+        OrcFileTailSource orcFileTailSource = new StorageOrcFileTailSource();
+        if (!config.isOrcFileTailCacheEnabled()) {
+            return orcFileTailSource;
+        }
+
+        // shard files are never modified in place, so entries only need to be evicted by size
+        Cache<OrcFileKey, OrcFileTail> cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getOrcFileTailCacheSize().toBytes())
+                .weigher((Weigher<OrcFileKey, OrcFileTail>) (key, tail) -> toIntExact(tail.getRetainedSizeInBytes()))
+                .recordStats()
+                .build();
+        CachingOrcFileTailSource cachingOrcFileTailSource = new CachingOrcFileTailSource(orcFileTailSource, cache);
+        exporter.export(generatedNameOf(CachingOrcFileTailSource.class, connectorId.toString()), cachingOrcFileTailSource);
+        return cachingOrcFileTailSource;
+    }
+
+    @Provides
+    @Singleton
+    private static StripeMetadataSource createStripeMetadataSource(StorageManagerConfig config, MBeanExporter exporter, RaptorConnectorId connectorId)
+    {
+        StripeMetadataSource stripeMetadataSource = new StorageStripeMetadataSource();
+        if (!config.isOrcStripeMetadataCacheEnabled()) {
+            return stripeMetadataSource;
+        }
+
+        Cache<StripeId, Slice> footerSliceCache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getOrcStripeFooterCacheSize().toBytes())
+                .weigher((Weigher<StripeId, Slice>) (id, footer) -> toIntExact(footer.getRetainedSize()))
+                .recordStats()
+                .build();
+        Cache<StripeStreamId, Slice> indexStreamSliceCache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getOrcStripeStreamCacheSize().toBytes())
+                .weigher((Weigher<StripeStreamId, Slice>) (id, stream) -> toIntExact(stream.getRetainedSize()))
+                .recordStats()
+                .build();
+        CachingStripeMetadataSource cachingStripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerSliceCache, indexStreamSliceCache);
+        exporter.export(generatedNameOf(CachingStripeMetadataSource.class, connectorId.toString()), cachingStripeMetadataSource);
+        return cachingStripeMetadataSource;
+    }
 }
@@ -15,6 +15,8 @@ package com.facebook.presto.raptor.storage;
 
 import com.facebook.presto.orc.OrcBatchRecordReader;
 import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
+import com.facebook.presto.orc.cache.StorageStripeMetadataSource;
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.backup.BackupManager;
 import com.facebook.presto.raptor.backup.BackupStore;
@@ -650,7 +652,9 @@ public class TestOrcStorageManager
                 maxFileSize,
                 new DataSize(0, BYTE),
                 SNAPPY,
-                useOptimizedWriter ? ENABLED_AND_VALIDATED : DISABLED);
+                useOptimizedWriter ? ENABLED_AND_VALIDATED : DISABLED,
+                new StorageOrcFileTailSource(),
+                new StorageStripeMetadataSource());
     }
 
     private static void assertFileEquals(File actual, File expected)
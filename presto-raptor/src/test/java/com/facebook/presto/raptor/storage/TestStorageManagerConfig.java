@@ -73,7 +73,12 @@ public class TestStorageManagerConfig
                 .setMaxShardSize(new DataSize(256, MEGABYTE))
                 .setMaxBufferSize(new DataSize(256, MEGABYTE))
                 .setOneSplitPerBucketThreshold(0)
-                .setShardDayBoundaryTimeZone(TimeZoneKey.UTC_KEY.getId()));
+                .setShardDayBoundaryTimeZone(TimeZoneKey.UTC_KEY.getId())
+                .setOrcFileTailCacheEnabled(false)
+                .setOrcFileTailCacheSize(new DataSize(256, MEGABYTE))
+                .setOrcStripeMetadataCacheEnabled(false)
+                .setOrcStripeFooterCacheSize(new DataSize(256, MEGABYTE))
+                .setOrcStripeStreamCacheSize(new DataSize(256, MEGABYTE)));
     }
 
     @Test
@@ -105,6 +110,11 @@ public class TestStorageManagerConfig
                 .put("storage.max-buffer-size", "512MB")
                 .put("storage.one-split-per-bucket-threshold", "4")
                 .put("storage.shard-day-boundary-time-zone", "PST")
+                .put("storage.orc.file-tail-cache-enabled", "true")
+                .put("storage.orc.file-tail-cache-size", "10MB")
+                .put("storage.orc.stripe-metadata-cache-enabled", "true")
+                .put("storage.orc.stripe-footer-cache-size", "20MB")
+                .put("storage.orc.stripe-stream-cache-size", "30MB")
                 .build();
 
         StorageManagerConfig expected = new StorageManagerConfig()
@@ -132,7 +142,12 @@ public class TestStorageManagerConfig
                 .setMaxShardSize(new DataSize(10, MEGABYTE))
                 .setMaxBufferSize(new DataSize(512, MEGABYTE))
                 .setOneSplitPerBucketThreshold(4)
-                .setShardDayBoundaryTimeZone("PST");
+                .setShardDayBoundaryTimeZone("PST")
+                .setOrcFileTailCacheEnabled(true)
+                .setOrcFileTailCacheSize(new DataSize(10, MEGABYTE))
+                .setOrcStripeMetadataCacheEnabled(true)
+                .setOrcStripeFooterCacheSize(new DataSize(20, MEGABYTE))
+                .setOrcStripeStreamCacheSize(new DataSize(30, MEGABYTE));
 
         assertFullMapping(properties, expected);
     }
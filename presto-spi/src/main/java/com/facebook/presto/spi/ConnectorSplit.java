@@ -14,6 +14,9 @@
 package com.facebook.presto.spi;
 
 import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.emptyList;
 
 public interface ConnectorSplit
 {
@@ -22,4 +25,24 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * Returns the nodes this split should preferably run on, picked from the given candidates.
+     * The candidates are sorted, so a split can map itself to the same node across queries,
+     * for example to reuse data that node has cached locally. Unlike the addresses of a split
+     * that is not remotely accessible, this is only a hint and the split may run elsewhere.
+     */
+    default List<HostAddress> getPreferredNodes(List<HostAddress> sortedCandidates)
+    {
+        return emptyList();
+    }
+
+    /**
+     * Identifies the data read by this split, so that results computed from it can be cached.
+     * Returns {@link Optional#empty()} if the data may change without the identifier changing.
+     */
+    default Optional<String> getSplitIdentifier()
+    {
+        return Optional.empty();
+    }
 }
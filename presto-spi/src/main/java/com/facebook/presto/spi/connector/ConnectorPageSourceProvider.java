@@ -17,6 +17,7 @@ import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.predicate.TupleDomain;
 
 import java.util.List;
 
@@ -26,4 +27,32 @@ public interface ConnectorPageSourceProvider
      * @param columns columns that should show up in the output page, in this order
      */
     ConnectorPageSource createPageSource(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns);
+
+    /**
+     * @param columns columns that should show up in the output page, in this order
+     * @param dynamicFilter predicate collected at run time from the build side of a join;
+     * connectors may use it to skip reading data, but are not required to enforce it
+     */
+    default ConnectorPageSource createPageSource(
+            ConnectorTransactionHandle transactionHandle,
+            ConnectorSession session,
+            ConnectorSplit split,
+            List<ColumnHandle> columns,
+            TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        return createPageSource(transactionHandle, session, split, columns);
+    }
+
+    /**
+     * Returns true if none of the rows of the split can satisfy the dynamic filter,
+     * in which case the split is not read at all.
+     */
+    default boolean isSplitPrunedByDynamicFilter(
+            ConnectorTransactionHandle transactionHandle,
+            ConnectorSession session,
+            ConnectorSplit split,
+            TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        return dynamicFilter.isNone();
+    }
 }
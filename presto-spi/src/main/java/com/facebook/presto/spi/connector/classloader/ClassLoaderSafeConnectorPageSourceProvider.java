@@ -20,6 +20,7 @@ import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.classloader.ThreadContextClassLoader;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
 
 import java.util.List;
 
@@ -44,4 +45,20 @@ public class ClassLoaderSafeConnectorPageSourceProvider
             return delegate.createPageSource(transactionHandle, session, split, columns);
         }
     }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.createPageSource(transactionHandle, session, split, columns, dynamicFilter);
+        }
+    }
+
+    @Override
+    public boolean isSplitPrunedByDynamicFilter(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorSplit split, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.isSplitPrunedByDynamicFilter(transactionHandle, session, split, dynamicFilter);
+        }
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.function;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * A function annotated with &#64;RemoveInputFunction is the inverse of the
+ * &#64;InputFunction with the same parameters. It is used by window functions
+ * to retract rows that leave a sliding frame instead of re-aggregating the
+ * whole frame.
+ * <p>
+ * The function must take exactly the same parameters as the input function it
+ * reverses, and removing a value that was previously added must leave the state
+ * as if the value had never been added. Aggregations that cannot undo an input
+ * exactly should not declare one. This includes min and max, but also floating
+ * point sums and moments, where subtracting a value does not undo rounding and
+ * cannot retract an infinite or NaN input.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface RemoveInputFunction
+{
+}
@@ -17,6 +17,19 @@ public class PlanNodeIdAllocator
 {
     private int nextId;
 
+    public PlanNodeIdAllocator()
+    {
+        this(0);
+    }
+
+    public PlanNodeIdAllocator(int nextId)
+    {
+        if (nextId < 0) {
+            throw new IllegalArgumentException("nextId is negative");
+        }
+        this.nextId = nextId;
+    }
+
     public PlanNodeId getNextId()
     {
         return new PlanNodeId(Integer.toString(nextId++));
@@ -22,4 +22,5 @@ public enum ColumnStatisticType
     NUMBER_OF_TRUE_VALUES,
     MAX_VALUE_SIZE_IN_BYTES,
     TOTAL_SIZE_IN_BYTES,
+    HISTOGRAM,
 }
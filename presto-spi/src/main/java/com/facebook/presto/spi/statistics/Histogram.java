@@ -0,0 +1,288 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.statistics;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+
+import static java.lang.Double.isFinite;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Equi-depth histogram of the non-null values of a column, in the same double
+ * representation as {@link DoubleRange}.
+ * <p>
+ * The {@code boundaries} split the values into {@code boundaries.size() - 1} buckets,
+ * each holding the same fraction of the non-null values. The first boundary is the
+ * lowest value and the last boundary is the highest value. A value that occurs very
+ * often shows up as a run of equal boundaries.
+ * <p>
+ * {@code mostCommonValues} maps the most frequent values to the fraction of the
+ * non-null values equal to them.
+ */
+public final class Histogram
+{
+    private static final int BISECTION_STEPS = 64;
+
+    private final List<Double> boundaries;
+    private final Map<Double, Double> mostCommonValues;
+
+    @JsonCreator
+    public Histogram(
+            @JsonProperty("boundaries") List<Double> boundaries,
+            @JsonProperty("mostCommonValues") Map<Double, Double> mostCommonValues)
+    {
+        requireNonNull(boundaries, "boundaries is null");
+        if (boundaries.size() < 2) {
+            throw new IllegalArgumentException(format("histogram must have at least two boundaries: %s", boundaries));
+        }
+        for (int i = 0; i < boundaries.size(); i++) {
+            double boundary = boundaries.get(i);
+            if (!isFinite(boundary)) {
+                throw new IllegalArgumentException(format("histogram boundaries must be finite: %s", boundaries));
+            }
+            if (i > 0 && boundary < boundaries.get(i - 1)) {
+                throw new IllegalArgumentException(format("histogram boundaries must be ascending: %s", boundaries));
+            }
+        }
+        this.boundaries = unmodifiableList(new ArrayList<>(boundaries));
+
+        requireNonNull(mostCommonValues, "mostCommonValues is null");
+        double totalFraction = 0;
+        for (Map.Entry<Double, Double> entry : mostCommonValues.entrySet()) {
+            if (!isFinite(entry.getKey())) {
+                throw new IllegalArgumentException(format("most common values must be finite: %s", mostCommonValues));
+            }
+            if (!(entry.getValue() >= 0 && entry.getValue() <= 1)) {
+                throw new IllegalArgumentException(format("most common value fractions must be between 0 and 1: %s", mostCommonValues));
+            }
+            totalFraction += entry.getValue();
+        }
+        // allow for rounding errors of the fractions
+        if (totalFraction > 1.0001) {
+            throw new IllegalArgumentException(format("most common value fractions must not add up to more than 1: %s", mostCommonValues));
+        }
+        this.mostCommonValues = unmodifiableMap(new LinkedHashMap<>(mostCommonValues));
+    }
+
+    @JsonProperty
+    public List<Double> getBoundaries()
+    {
+        return boundaries;
+    }
+
+    @JsonProperty
+    public Map<Double, Double> getMostCommonValues()
+    {
+        return mostCommonValues;
+    }
+
+    public int getBucketCount()
+    {
+        return boundaries.size() - 1;
+    }
+
+    public double getLowValue()
+    {
+        return boundaries.get(0);
+    }
+
+    public double getHighValue()
+    {
+        return boundaries.get(boundaries.size() - 1);
+    }
+
+    /**
+     * Returns the estimated fraction of the non-null values that are less than
+     * (or equal to, if {@code inclusive}) the given value. Values are assumed
+     * to be uniformly distributed within each bucket.
+     */
+    public double getCumulativeFraction(double value, boolean inclusive)
+    {
+        if (value < getLowValue()) {
+            return 0;
+        }
+        if (value > getHighValue()) {
+            return 1;
+        }
+
+        double buckets = 0;
+        for (int i = 0; i < getBucketCount(); i++) {
+            double low = boundaries.get(i);
+            double high = boundaries.get(i + 1);
+            if (high < value || (inclusive && high == value)) {
+                buckets++;
+            }
+            else if (low < value) {
+                buckets += (value - low) / (high - low);
+            }
+        }
+        return buckets / getBucketCount();
+    }
+
+    /**
+     * Returns the estimated fraction of the non-null values within {@code [low, high]}.
+     */
+    public double getRangeFraction(double low, double high)
+    {
+        if (low > high) {
+            return 0;
+        }
+        return max(0, min(1, getCumulativeFraction(high, true) - getCumulativeFraction(low, false)));
+    }
+
+    public OptionalDouble getMostCommonValueFraction(double value)
+    {
+        Double fraction = mostCommonValues.get(value);
+        if (fraction == null) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(fraction);
+    }
+
+    /**
+     * Returns the fraction of the non-null values covered by the most common values.
+     */
+    public double getMostCommonValuesTotalFraction()
+    {
+        double total = 0;
+        for (double fraction : mostCommonValues.values()) {
+            total += fraction;
+        }
+        return min(total, 1);
+    }
+
+    /**
+     * Combines histograms of disjoint sets of rows, e.g. the partitions of a table, into a
+     * histogram of all the rows. {@code weights} are the non-null value counts of each input.
+     */
+    public static Histogram merge(List<Histogram> histograms, List<Double> weights)
+    {
+        requireNonNull(histograms, "histograms is null");
+        requireNonNull(weights, "weights is null");
+        if (histograms.isEmpty() || histograms.size() != weights.size()) {
+            throw new IllegalArgumentException(format("expected one weight for each of the %s histograms, got %s", histograms.size(), weights.size()));
+        }
+        if (histograms.size() == 1) {
+            return histograms.get(0);
+        }
+
+        double totalWeight = 0;
+        int bucketCount = 0;
+        int mostCommonValuesCount = 0;
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < histograms.size(); i++) {
+            Histogram histogram = histograms.get(i);
+            if (!(weights.get(i) >= 0)) {
+                throw new IllegalArgumentException(format("weights must be non-negative: %s", weights));
+            }
+            totalWeight += weights.get(i);
+            bucketCount = max(bucketCount, histogram.getBucketCount());
+            mostCommonValuesCount = max(mostCommonValuesCount, histogram.mostCommonValues.size());
+            low = min(low, histogram.getLowValue());
+            high = max(high, histogram.getHighValue());
+        }
+        if (totalWeight == 0) {
+            return histograms.get(0);
+        }
+
+        // place the boundaries at the quantiles of the weighted mixture of the inputs
+        List<Double> boundaries = new ArrayList<>(bucketCount + 1);
+        boundaries.add(low);
+        for (int bucket = 1; bucket < bucketCount; bucket++) {
+            double target = (double) bucket / bucketCount;
+            double lower = boundaries.get(boundaries.size() - 1);
+            double upper = high;
+            for (int step = 0; step < BISECTION_STEPS && lower < upper; step++) {
+                double middle = lower + (upper - lower) / 2;
+                if (mixtureCumulativeFraction(histograms, weights, totalWeight, middle) >= target) {
+                    upper = middle;
+                }
+                else {
+                    lower = middle;
+                }
+            }
+            boundaries.add(upper);
+        }
+        boundaries.add(high);
+
+        Map<Double, Double> mostCommonValues = new HashMap<>();
+        for (int i = 0; i < histograms.size(); i++) {
+            double weight = weights.get(i) / totalWeight;
+            for (Map.Entry<Double, Double> entry : histograms.get(i).mostCommonValues.entrySet()) {
+                mostCommonValues.merge(entry.getKey(), entry.getValue() * weight, Double::sum);
+            }
+        }
+        List<Map.Entry<Double, Double>> entries = new ArrayList<>(mostCommonValues.entrySet());
+        entries.sort((left, right) -> Double.compare(right.getValue(), left.getValue()));
+        Map<Double, Double> topMostCommonValues = new LinkedHashMap<>();
+        for (Map.Entry<Double, Double> entry : entries.subList(0, min(mostCommonValuesCount, entries.size()))) {
+            topMostCommonValues.put(entry.getKey(), entry.getValue());
+        }
+
+        return new Histogram(boundaries, topMostCommonValues);
+    }
+
+    private static double mixtureCumulativeFraction(List<Histogram> histograms, List<Double> weights, double totalWeight, double value)
+    {
+        double fraction = 0;
+        for (int i = 0; i < histograms.size(); i++) {
+            fraction += histograms.get(i).getCumulativeFraction(value, true) * weights.get(i);
+        }
+        return fraction / totalWeight;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Histogram that = (Histogram) o;
+        return Objects.equals(boundaries, that.boundaries) &&
+                Objects.equals(mostCommonValues, that.mostCommonValues);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(boundaries, mostCommonValues);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Histogram{" +
+                "boundaries=" + boundaries +
+                ", mostCommonValues=" + mostCommonValues +
+                '}';
+    }
+}
@@ -80,7 +80,7 @@ public final class CharType
         StringBuilder builder = new StringBuilder(length);
         String value = block.getSlice(position, 0, block.getSliceLength(position)).toStringUtf8();
         builder.append(value);
-        for (int i = value.length(); i < length; i++) {
+        for (int i = value.codePointCount(0, value.length()); i < length; i++) {
             builder.append(' ');
         }
 
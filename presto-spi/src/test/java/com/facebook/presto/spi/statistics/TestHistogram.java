@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.statistics;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+
+public class TestHistogram
+{
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testValidation()
+    {
+        assertThatThrownBy(() -> new Histogram(Collections.singletonList(1.0), Collections.emptyMap())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Histogram(Arrays.asList(1.0, 0.0), Collections.emptyMap())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Histogram(Arrays.asList(0.0, Double.NaN), Collections.emptyMap())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Histogram(Arrays.asList(0.0, Double.POSITIVE_INFINITY), Collections.emptyMap())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Histogram(Arrays.asList(0.0, 1.0), Collections.singletonMap(0.0, 1.5))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Histogram(Arrays.asList(0.0, 1.0), mostCommonValues(0.0, 0.6, 1.0, 0.6))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testFractions()
+    {
+        // a quarter of the values are 10
+        Histogram histogram = new Histogram(Arrays.asList(0.0, 10.0, 10.0, 20.0, 100.0), Collections.singletonMap(10.0, 0.25));
+        assertEquals(histogram.getBucketCount(), 4);
+        assertEquals(histogram.getLowValue(), 0.0);
+        assertEquals(histogram.getHighValue(), 100.0);
+
+        assertEquals(histogram.getCumulativeFraction(-1, true), 0.0);
+        assertEquals(histogram.getCumulativeFraction(5, true), 0.125, EPSILON);
+        assertEquals(histogram.getCumulativeFraction(10, false), 0.25, EPSILON);
+        assertEquals(histogram.getCumulativeFraction(10, true), 0.5, EPSILON);
+        assertEquals(histogram.getCumulativeFraction(60, true), 0.875, EPSILON);
+        assertEquals(histogram.getCumulativeFraction(101, false), 1.0);
+
+        assertEquals(histogram.getRangeFraction(0, 100), 1.0, EPSILON);
+        assertEquals(histogram.getRangeFraction(10, 10), 0.25, EPSILON);
+        assertEquals(histogram.getRangeFraction(20, 60), 0.125, EPSILON);
+        assertEquals(histogram.getRangeFraction(60, 20), 0.0);
+
+        assertEquals(histogram.getMostCommonValueFraction(10), OptionalDouble.of(0.25));
+        assertEquals(histogram.getMostCommonValueFraction(11), OptionalDouble.empty());
+        assertEquals(histogram.getMostCommonValuesTotalFraction(), 0.25, EPSILON);
+    }
+
+    @Test
+    public void testMerge()
+    {
+        Histogram first = new Histogram(Arrays.asList(0.0, 10.0, 10.0, 20.0, 100.0), mostCommonValues(10.0, 0.25, 50.0, 0.01));
+        Histogram second = new Histogram(Arrays.asList(50.0, 150.0), Collections.singletonMap(60.0, 0.1));
+
+        assertEquals(Histogram.merge(Collections.singletonList(first), Collections.singletonList(1.0)), first);
+
+        Histogram merged = Histogram.merge(Arrays.asList(first, second), Arrays.asList(1.0, 3.0));
+        assertEquals(merged.getBucketCount(), 4);
+        assertEquals(merged.getLowValue(), 0.0);
+        assertEquals(merged.getHighValue(), 150.0);
+        for (double value : Arrays.asList(10.0, 50.0, 75.0, 120.0)) {
+            double expected = (first.getCumulativeFraction(value, true) + 3 * second.getCumulativeFraction(value, true)) / 4;
+            assertEquals(merged.getCumulativeFraction(value, true), expected, 0.1);
+        }
+
+        // only as many most common values as the inputs have are kept
+        assertEquals(merged.getMostCommonValues().keySet(), new HashMap<>(mostCommonValues(60.0, 0.0, 10.0, 0.0)).keySet());
+        assertEquals(merged.getMostCommonValueFraction(10.0).getAsDouble(), 0.0625, EPSILON);
+        assertEquals(merged.getMostCommonValueFraction(60.0).getAsDouble(), 0.075, EPSILON);
+
+        // inputs without values do not contribute
+        assertEquals(Histogram.merge(Arrays.asList(first, second), Arrays.asList(1.0, 0.0)).getMostCommonValueFraction(60.0), OptionalDouble.empty());
+
+        List<Histogram> histograms = Arrays.asList(first, second);
+        assertThatThrownBy(() -> Histogram.merge(histograms, Collections.singletonList(1.0))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Histogram.merge(histograms, Arrays.asList(1.0, -1.0))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<Double, Double> mostCommonValues(double firstValue, double firstFraction, double secondValue, double secondFraction)
+    {
+        Map<Double, Double> mostCommonValues = new HashMap<>();
+        mostCommonValues.put(firstValue, firstFraction);
+        mostCommonValues.put(secondValue, secondFraction);
+        return mostCommonValues;
+    }
+}